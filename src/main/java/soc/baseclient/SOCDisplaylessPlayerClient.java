@@ -62,6 +62,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.InflaterInputStream;
 
 
 /**
@@ -119,6 +120,37 @@ public class SOCDisplaylessPlayerClient implements Runnable
     protected DataOutputStream out;
     protected StringConnection sLocal;  // if strSocketName not null
 
+    /**
+     * If true, when connected over TCP to a server with {@link SOCServerFeatures#FEAT_COMPRESS},
+     * ask it to compress its stream to us ({@link SOCCompressStream}). Default false:
+     * Robots are usually on the same host or network as the server.
+     * @since 2.0.00
+     */
+    protected boolean wantsCompression;
+
+    /**
+     * True if {@link #in} is reading a compressed stream from the server.
+     * @see #wantsCompression
+     * @since 2.0.00
+     */
+    protected boolean isInflating;
+
+    /**
+     * If true, when connected over TCP to a server with {@link SOCServerFeatures#FEAT_BINARY_FRAMES},
+     * ask it to send the most frequent game messages as binary frames ({@link SOCBinaryFormat}).
+     * Default true: Binary frames are smaller and quicker to parse than text.
+     * @since 2.0.00
+     */
+    protected boolean wantsBinaryFrames = true;
+
+    /**
+     * If not null, the server is sending us some messages as binary frames,
+     * which {@link #run()} reads with this decoder.
+     * @see #wantsBinaryFrames
+     * @since 2.0.00
+     */
+    protected SOCBinaryCodec.Decoder binaryDecoder;
+
     /**
      * Server version number, sent soon after connect, or -1 if unknown.
      * {@link #sLocalVersion} should always equal our own version.
@@ -241,12 +273,14 @@ public class SOCDisplaylessPlayerClient implements Runnable
         {
             while (connected)
             {
-                String s;
-                if (sLocal == null)
-                    s = in.readUTF();
+                final SOCMessage mes;
+                if (sLocal != null)
+                    mes = sLocal.readNextMessage();
+                else if (binaryDecoder != null)
+                    mes = binaryDecoder.readMessage(in);
                 else
-                    s = sLocal.readNext();
-                treat(SOCMessage.toMsg(s));
+                    mes = SOCMessage.toMsg(in.readUTF());
+                treat(mes);
             }
         }
         catch (InterruptedIOException x)
@@ -397,6 +431,20 @@ public class SOCDisplaylessPlayerClient implements Runnable
                 handleVERSION((sLocal != null), (SOCVersion) mes);
                 break;
 
+            /**
+             * server is compressing the rest of its stream to us (v2.0.00+)
+             */
+            case SOCMessage.COMPRESSSTREAM:
+                handleCOMPRESSSTREAM();
+                break;
+
+            /**
+             * server will send some messages to us as binary frames (v2.0.00+)
+             */
+            case SOCMessage.BINARYFORMAT:
+                handleBINARYFORMAT((SOCBinaryFormat) mes);
+                break;
+
             /**
              * status message
              */
@@ -939,6 +987,60 @@ public class SOCDisplaylessPlayerClient implements Runnable
         // so no need to reply here with our client version.
 
         // Don't check for game options different at version, unlike SOCPlayerClient.handleVERSION.
+
+        if (wantsCompression && (! isLocal) && feats.isActive(SOCServerFeatures.FEAT_COMPRESS))
+            put(SOCCompressStream.toCmd(SOCCompressStream.METHOD_DEFLATE));
+        if (wantsBinaryFrames && (! isLocal) && feats.isActive(SOCServerFeatures.FEAT_BINARY_FRAMES))
+            put(SOCBinaryFormat.toCmd(SOCBinaryCodec.FORMAT_VERSION));
+    }
+
+    /**
+     * Handle the server's reply to our {@link SOCCompressStream} request:
+     * Read the rest of its stream through an inflater. Called from our reader thread
+     * before it reads the next message. Does nothing if already inflating or not using TCP.
+     * @since 2.0.00
+     */
+    protected void handleCOMPRESSSTREAM()
+    {
+        if (isInflating || (s == null) || (sLocal != null))
+            return;
+
+        try
+        {
+            in = new DataInputStream(new InflaterInputStream(s.getInputStream()));
+            isInflating = true;
+        }
+        catch (IOException e)
+        {
+            ex = e;
+            System.err.println("could not read from the net: " + ex);
+            destroy();
+        }
+    }
+
+    /**
+     * Handle the server's reply to our {@link SOCBinaryFormat} request:
+     * Read binary frames as well as text from now on. Called from our reader thread
+     * before it reads the next message. Does nothing if already reading them or not using TCP.
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    protected void handleBINARYFORMAT(final SOCBinaryFormat mes)
+    {
+        if ((binaryDecoder != null) || (s == null) || (sLocal != null))
+            return;
+
+        try
+        {
+            binaryDecoder = new SOCBinaryCodec.Decoder(mes.getFormatVersion());
+        }
+        catch (IllegalArgumentException e)
+        {
+            // we asked for a version we can read, so this shouldn't happen
+            ex = new IOException("Unsupported binary frame format: " + mes.getFormatVersion());
+            System.err.println("could not read from the net: " + ex);
+            destroy();
+        }
     }
 
     /**
@@ -0,0 +1,558 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.baseclient;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soc.server.SOCServer;
+
+/**
+ * Headless load generator, to measure the server's scaling limits. Starts many scripted
+ * {@link SOCLoadTestClient}s which join games in groups and play simple legal moves as fast as the server
+ * responds, then reports round-trip latency percentiles by action type, message rates, and the server's
+ * CPU use, thread count, and memory.
+ *<P>
+ * The server can be started in this JVM, listening on an in-process string port (the default) or a TCP port,
+ * or can be a separately started server reached over TCP. An in-process server's stats come from
+ * the JVM's management beans: CPU is the sum of all threads' CPU time except the load clients' reader threads,
+ * and heap use includes the clients' game data. A separate server's CPU, thread count, and resident memory
+ * can be read from Linux's {@code /proc} if its process ID is given; otherwise they aren't reported.
+ *<P>
+ * Usage: {@code java soc.baseclient.SOCLoadGenerator [options]}, or with gradle:
+ * {@code gradle loadTest -PloadTestArgs="-c 400 -t 120"}. Options:
+ *<UL>
+ * <LI> {@code -c n}: Number of clients (default 100)
+ * <LI> {@code -g n}: Clients per game, 2 to 4 (default 4)
+ * <LI> {@code -t seconds}: How long to run (default 60)
+ * <LI> {@code -i seconds}: Progress report interval (default 10)
+ * <LI> {@code -p port}: Start an in-process server on this TCP port, instead of a string port
+ * <LI> {@code -s host:port}: Connect over TCP to a separately started server
+ * <LI> {@code -pid n}: With {@code -s}, the server's process ID, to report its stats from {@code /proc}
+ * <LI> {@code -z}: Over TCP, ask the server to compress its stream to each client
+ *      ({@link soc.message.SOCCompressStream}); an in-process server's compression stats are reported at the end
+ * <LI> {@code -T}: Over TCP, don't ask the server for binary frames ({@link soc.message.SOCBinaryFormat}),
+ *      to compare with the all-text protocol
+ *</UL>
+ * A separately started server needs {@code jsettlers.connections} set higher than the number of clients.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCLoadGenerator
+{
+    /** Action type: Join game */
+    public static final int A_JOIN = 0;
+
+    /** Action type: Sit down */
+    public static final int A_SIT = 1;
+
+    /** Action type: Start game */
+    public static final int A_START = 2;
+
+    /** Action type: Place a piece */
+    public static final int A_PLACE = 3;
+
+    /** Action type: Roll dice */
+    public static final int A_ROLL = 4;
+
+    /** Action type: Build request or cancel */
+    public static final int A_BUILD = 5;
+
+    /** Action type: Move robber */
+    public static final int A_ROBBER = 6;
+
+    /** Action type: Choose player to rob */
+    public static final int A_CHOOSE_PLAYER = 7;
+
+    /** Action type: Discard */
+    public static final int A_DISCARD = 8;
+
+    /** Action type: End turn */
+    public static final int A_END_TURN = 9;
+
+    /** Action type: Leave game */
+    public static final int A_LEAVE = 10;
+
+    /** Names of the action types, for reports; index is action type, such as {@link #A_ROLL} */
+    public static final String[] ACTION_NAMES =
+        { "join", "sit", "start", "place", "roll", "build", "robber", "choose", "discard", "endturn", "leave" };
+
+    /** String port name for an in-process server */
+    private static final String STRINGPORT_NAME = "loadtest";
+
+    /** A client's turn is considered stuck if it hasn't received a message in this many milliseconds. */
+    private static final int STALL_MILLIS = 3000;
+
+    /** Linux {@code /proc} clock ticks per second ({@code USER_HZ}) */
+    private static final int PROC_TICKS_PER_SEC = 100;
+
+    /** Latency stats for each action type; index is action type, such as {@link #A_ROLL} */
+    private final LatencyHistogram[] latency = new LatencyHistogram[ACTION_NAMES.length];
+
+    private final AtomicLong msgsSent = new AtomicLong(), msgsReceived = new AtomicLong();
+
+    private final AtomicInteger gamesStarted = new AtomicInteger(), gamesFinished = new AtomicInteger(),
+        stalls = new AtomicInteger();
+
+    /** Server process ID for {@code /proc} stats, or 0 if the server is in-process or unknown */
+    private int serverPID;
+
+    /** True if the server is running in this JVM */
+    private boolean serverInProcess;
+
+    /** Previous server CPU sample, in nanoseconds, or -1 */
+    private long prevCpuNanos = -1;
+
+    /** Time of {@link #prevCpuNanos} sample, from {@link System#nanoTime()} */
+    private long prevCpuAt;
+
+    public SOCLoadGenerator()
+    {
+        for (int i = 0; i < latency.length; ++i)
+            latency[i] = new LatencyHistogram();
+    }
+
+    /** Count a message sent by a client. */
+    void countSent()
+    {
+        msgsSent.incrementAndGet();
+    }
+
+    /** Count a message received by a client. */
+    void countReceived()
+    {
+        msgsReceived.incrementAndGet();
+    }
+
+    /** Count a game started by a group's seat-0 client. */
+    void countGameStarted()
+    {
+        gamesStarted.incrementAndGet();
+    }
+
+    /** Count a game finished, as seen by a group's seat-0 client. */
+    void countGameFinished()
+    {
+        gamesFinished.incrementAndGet();
+    }
+
+    /**
+     * Record an action's round-trip time.
+     * @param action  Action type, such as {@link #A_ROLL}
+     * @param nanos  Time from sending the action to receiving the next message, from {@link System#nanoTime()}
+     */
+    void recordLatency(final int action, final long nanos)
+    {
+        latency[action].record(nanos / 1000);
+    }
+
+    /**
+     * Sample the server's stats for a progress report: CPU use since previous sample, thread count, and memory.
+     * @return  Stats text, or "server stats n/a" if unknown
+     */
+    private String sampleServerStats()
+    {
+        long cpuNanos = -1;
+        int threads = -1;
+        String mem = null;
+
+        if (serverInProcess)
+        {
+            final ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+            threads = tmx.getThreadCount();
+            if (tmx.isThreadCpuTimeSupported())
+            {
+                final String clientPrefix = "robot-netread-" + SOCLoadTestClient.NAME_PREFIX;
+                cpuNanos = 0;
+                for (ThreadInfo ti : tmx.getThreadInfo(tmx.getAllThreadIds()))
+                {
+                    if ((ti == null) || ti.getThreadName().startsWith(clientPrefix))
+                        continue;
+                    final long t = tmx.getThreadCpuTime(ti.getThreadId());
+                    if (t > 0)
+                        cpuNanos += t;
+                }
+            }
+            final Runtime rt = Runtime.getRuntime();
+            mem = "heap=" + ((rt.totalMemory() - rt.freeMemory()) >> 20) + "MB";
+        }
+        else if (serverPID != 0)
+        {
+            try
+            {
+                String stat = readFile("/proc/" + serverPID + "/stat").get(0);
+                String[] f = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                cpuNanos = (Long.parseLong(f[11]) + Long.parseLong(f[12])) * (1000000000L / PROC_TICKS_PER_SEC);
+                for (String line : readFile("/proc/" + serverPID + "/status"))
+                {
+                    if (line.startsWith("Threads:"))
+                        threads = Integer.parseInt(line.substring(8).trim());
+                    else if (line.startsWith("VmRSS:"))
+                        mem = "rss=" + line.substring(6).trim();
+                }
+            }
+            catch (Exception e)
+            {
+                return "server stats n/a: " + e;
+            }
+        }
+        else
+        {
+            return "server stats n/a";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        final long now = System.nanoTime();
+        if ((cpuNanos >= 0) && (prevCpuNanos >= 0) && (now > prevCpuAt))
+            sb.append("server cpu=").append(Math.max(0, (100 * (cpuNanos - prevCpuNanos)) / (now - prevCpuAt)))
+              .append("% ");
+        prevCpuNanos = cpuNanos;
+        prevCpuAt = now;
+        if (threads != -1)
+            sb.append("threads=").append(threads).append(' ');
+        if (mem != null)
+            sb.append(mem);
+
+        return sb.toString().trim();
+    }
+
+    /**
+     * Read all lines of a small text file.
+     * @param fname  File name
+     * @return  the file's lines
+     * @throws IOException  if an error occurs
+     */
+    private static List<String> readFile(final String fname)
+        throws IOException
+    {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader br = new BufferedReader(new FileReader(fname));
+        try
+        {
+            String line;
+            while ((line = br.readLine()) != null)
+                lines.add(line);
+        } finally {
+            br.close();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Print the latency stats for each action type, and overall.
+     */
+    private void printLatencyReport()
+    {
+        System.out.println("Round-trip latency by action (ms):");
+        System.out.println(String.format("  %-8s %9s %9s %9s %9s %9s %9s",
+            "action", "count", "mean", "p50", "p90", "p99", "max"));
+        LatencyHistogram all = new LatencyHistogram();
+        for (int i = 0; i < latency.length; ++i)
+        {
+            final LatencyHistogram h = latency[i];
+            synchronized (h)
+            {
+                if (h.count == 0)
+                    continue;
+                System.out.println(h.formatRow(ACTION_NAMES[i]));
+                all.addAll(h);
+            }
+        }
+        if (all.count > 0)
+            System.out.println(all.formatRow("all"));
+    }
+
+    /**
+     * Run the load test with these options; see class javadoc.
+     * @param args  Command-line options
+     * @throws IllegalArgumentException  if an option is unknown or has a bad value
+     * @throws Exception  if the in-process server can't be started
+     */
+    public void run(final String[] args)
+        throws IllegalArgumentException, Exception
+    {
+        int nClients = 100, groupSize = 4, seconds = 60, interval = 10, localPort = 0;
+        String srvHost = null;
+        int srvPort = 0;
+        boolean compress = false, textOnly = false;
+
+        for (int i = 0; i < args.length; ++i)
+        {
+            final String opt = args[i];
+            if (opt.equals("-z"))
+            {
+                compress = true;
+                continue;
+            }
+            if (opt.equals("-T"))
+            {
+                textOnly = true;
+                continue;
+            }
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Missing value after " + opt);
+            final String val = args[++i];
+            if (opt.equals("-c"))
+                nClients = Integer.parseInt(val);
+            else if (opt.equals("-g"))
+                groupSize = Integer.parseInt(val);
+            else if (opt.equals("-t"))
+                seconds = Integer.parseInt(val);
+            else if (opt.equals("-i"))
+                interval = Integer.parseInt(val);
+            else if (opt.equals("-p"))
+                localPort = Integer.parseInt(val);
+            else if (opt.equals("-pid"))
+                serverPID = Integer.parseInt(val);
+            else if (opt.equals("-s"))
+            {
+                final int colon = val.lastIndexOf(':');
+                if (colon <= 0)
+                    throw new IllegalArgumentException("Expected host:port after -s");
+                srvHost = val.substring(0, colon);
+                srvPort = Integer.parseInt(val.substring(colon + 1));
+            }
+            else
+                throw new IllegalArgumentException("Unknown option " + opt);
+        }
+        if ((groupSize < 2) || (groupSize > 4))
+            throw new IllegalArgumentException("Clients per game must be 2 to 4");
+        if ((nClients < groupSize) || (seconds < 1) || (interval < 1))
+            throw new IllegalArgumentException("Clients, seconds, and interval must be positive");
+
+        SOCServer srv = null;
+        if (srvHost == null)
+        {
+            serverInProcess = true;
+            if (localPort != 0)
+            {
+                Properties props = new Properties();
+                props.setProperty(SOCServer.PROP_JSETTLERS_CONNECTIONS, Integer.toString(nClients + 20));
+                srv = new SOCServer(localPort, props);
+                srvHost = "localhost";
+                srvPort = localPort;
+            } else {
+                srv = new SOCServer(STRINGPORT_NAME, nClients + 20, null, null);
+            }
+            srv.setPriority(5);
+            srv.start();
+        }
+
+        System.out.println("Load test: " + nClients + " clients, " + groupSize + " per game, "
+            + seconds + " seconds, server "
+            + ((srvHost == null) ? "in-process string port" : (srvHost + ":" + srvPort))
+            + ((serverInProcess && (srvHost != null)) ? " (in-process)" : ""));
+
+        final List<SOCLoadTestClient> clients = new ArrayList<SOCLoadTestClient>(nClients);
+        final long startTime = System.currentTimeMillis();
+        sampleServerStats();
+        for (int i = 0; i < nClients; ++i)
+        {
+            final SOCLoadTestClient cli = (srvHost == null)
+                ? new SOCLoadTestClient(this, i, groupSize, STRINGPORT_NAME)
+                : new SOCLoadTestClient(this, i, groupSize, srvHost, srvPort);
+            cli.wantsCompression = compress;
+            cli.wantsBinaryFrames = ! textOnly;
+            if (cli.connect())
+                clients.add(cli);
+            if ((i % 50) == 49)
+                Thread.sleep(20);  // don't flood the server's accept queue
+        }
+
+        Timer unstickTimer = new Timer("loadTest-unstick", true);
+        unstickTimer.schedule(new TimerTask()
+        {
+            public void run()
+            {
+                for (SOCLoadTestClient cli : clients)
+                    if (cli.unstick(STALL_MILLIS))
+                        stalls.incrementAndGet();
+            }
+        }, STALL_MILLIS, 1000);
+
+        long prevSent = 0, prevRecv = 0;
+        final long endTime = startTime + 1000L * seconds;
+        for (long now = System.currentTimeMillis(); now < endTime; now = System.currentTimeMillis())
+        {
+            Thread.sleep(Math.min(1000L * interval, endTime - now));
+            int nConn = 0;
+            for (SOCLoadTestClient cli : clients)
+                if (cli.isConnected())
+                    ++nConn;
+            final long sent = msgsSent.get(), recv = msgsReceived.get();
+            System.out.println(String.format
+                ("t=%ds clients=%d/%d games started=%d finished=%d msgs/sec out=%d in=%d stalls=%d %s",
+                 (System.currentTimeMillis() - startTime) / 1000, nConn, nClients,
+                 gamesStarted.get(), gamesFinished.get(),
+                 (sent - prevSent) / interval, (recv - prevRecv) / interval, stalls.get(), sampleServerStats()));
+            prevSent = sent;
+            prevRecv = recv;
+        }
+
+        unstickTimer.cancel();
+        final long elapsedSec = Math.max(1, (System.currentTimeMillis() - startTime) / 1000);
+        System.out.println("Done: " + gamesStarted.get() + " games started, " + gamesFinished.get() + " finished; "
+            + msgsSent.get() + " messages sent, " + msgsReceived.get() + " received ("
+            + (msgsReceived.get() / elapsedSec) + "/sec)");
+        printLatencyReport();
+        if (compress && (srv != null))
+            System.out.println(srv.compressStats);
+
+        for (SOCLoadTestClient cli : clients)
+            cli.shutdown();
+        if (srv != null)
+            srv.stopServer();
+    }
+
+    /**
+     * Run the load generator; see class javadoc for options.
+     * @param args  Command-line options
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            new SOCLoadGenerator().run(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            System.err.println
+                ("Usage: SOCLoadGenerator [-c clients] [-g perGame] [-t seconds] [-i interval]"
+                 + " [-p localTcpPort | -s host:port [-pid serverPID]] [-z] [-T]");
+            System.exit(1);
+        }
+        catch (Exception e)
+        {
+            System.err.println("Load test failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * Latency histogram with bounded memory: 10-microsecond buckets up to 1 ms, 1-ms buckets to 100 ms,
+     * 100-ms buckets to 10 seconds, and one overflow bucket. Percentiles are reported as their bucket's upper bound.
+     * Callers synchronize on the histogram to read its fields.
+     */
+    private static final class LatencyHistogram
+    {
+        private static final int NUM_BUCKETS = 100 + 99 + 99 + 1;
+
+        private final int[] buckets = new int[NUM_BUCKETS];
+
+        long count, sumMicros, maxMicros;
+
+        /**
+         * Record one sample.
+         * @param micros  Latency in microseconds
+         */
+        public synchronized void record(final long micros)
+        {
+            ++buckets[bucketFor(micros)];
+            ++count;
+            sumMicros += micros;
+            if (micros > maxMicros)
+                maxMicros = micros;
+        }
+
+        /**
+         * Add all of another histogram's samples to this one. Caller must synchronize on {@code h}.
+         * @param h  Histogram to add
+         */
+        public synchronized void addAll(final LatencyHistogram h)
+        {
+            for (int i = 0; i < NUM_BUCKETS; ++i)
+                buckets[i] += h.buckets[i];
+            count += h.count;
+            sumMicros += h.sumMicros;
+            if (h.maxMicros > maxMicros)
+                maxMicros = h.maxMicros;
+        }
+
+        private static int bucketFor(final long us)
+        {
+            if (us < 1000)
+                return (int) (us / 10);
+            if (us < 100000)
+                return 100 + (int) ((us - 1000) / 1000);
+            if (us < 10000000)
+                return 199 + (int) ((us - 100000) / 100000);
+            return NUM_BUCKETS - 1;
+        }
+
+        private static long bucketUpperMicros(final int b)
+        {
+            if (b < 100)
+                return 10L * (b + 1);
+            if (b < 199)
+                return 1000L * (b - 100 + 2);
+            if (b < NUM_BUCKETS - 1)
+                return 100000L * (b - 199 + 2);
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * Get a percentile's value. Caller must synchronize.
+         * @param pct  Percentile, 1 to 100
+         * @return  Upper bound of that percentile's bucket, in microseconds, but not more than the maximum sample
+         */
+        private long percentile(final int pct)
+        {
+            final long target = (count * pct + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKETS; ++i)
+            {
+                seen += buckets[i];
+                if (seen >= target)
+                    return Math.min(bucketUpperMicros(i), maxMicros);
+            }
+            return maxMicros;
+        }
+
+        /**
+         * Format a report row of count, mean, percentiles, and max, in milliseconds. Caller must synchronize.
+         * @param name  Row name
+         * @return  the formatted row
+         */
+        public String formatRow(final String name)
+        {
+            return String.format("  %-8s %9d %9.3f %9.3f %9.3f %9.3f %9.3f",
+                name, count, sumMicros / (1000.0 * count), percentile(50) / 1000.0, percentile(90) / 1000.0,
+                percentile(99) / 1000.0, maxMicros / 1000.0);
+        }
+    }
+
+}
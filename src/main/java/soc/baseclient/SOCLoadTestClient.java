@@ -0,0 +1,580 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.baseclient;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.util.Random;
+import java.util.Vector;
+
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.message.SOCChoosePlayerRequest;
+import soc.message.SOCDiscardRequest;
+import soc.message.SOCGameState;
+import soc.message.SOCJoinGame;
+import soc.message.SOCJoinGameAuth;
+import soc.message.SOCMessage;
+import soc.message.SOCMessageForGame;
+import soc.message.SOCSitDown;
+import soc.message.SOCVersion;
+import soc.server.genericServer.StringServerSocket;
+import soc.util.Version;
+
+/**
+ * Scripted client for {@link SOCLoadGenerator}: Joins a game with a group of other load-test clients,
+ * sits, and plays simple legal moves as quickly as the server responds. Each client is seated as a human player,
+ * so the server treats it like any other client.
+ *<P>
+ * Play is intentionally simple: Initial placements and builds go at a random potential location,
+ * the robber moves to the first legal hex, discards and robbery victims are the first ones available,
+ * and the client builds up to {@link #MAX_BUILDS_PER_TURN} pieces per turn before ending its turn.
+ * Dev cards and trades aren't used.
+ * When its game is over, the client leaves and joins its group's next game.
+ *<P>
+ * Each outbound action's round trip is timed until the client's next inbound message,
+ * and reported to the generator's latency stats by action type.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCLoadTestClient extends SOCDisplaylessPlayerClient
+{
+    /** Nickname prefix for load-test clients; also identifies their reader threads. */
+    public static final String NAME_PREFIX = "load";
+
+    /** Game name prefix for load-test games */
+    public static final String GAME_PREFIX = "~load~";
+
+    /** Maximum number of pieces to build during each turn */
+    public static final int MAX_BUILDS_PER_TURN = 3;
+
+    /** Our generator, which keeps the stats */
+    private final SOCLoadGenerator gen;
+
+    /** This client's seat number in its group's games */
+    private final int seat;
+
+    /** Number of clients in each game */
+    private final int groupSize;
+
+    /** This client's group number, part of its games' names */
+    private final int group;
+
+    /** For picking random legal locations */
+    private final Random rand;
+
+    /** Current game round; the group's game names end with this number */
+    private int round;
+
+    /** Name of our current game, or {@code null} */
+    private volatile String gameName;
+
+    /** If we're the group's seat 0, have we asked the server to start the current game? */
+    private boolean sentStart;
+
+    /** Number of pieces built during our current turn */
+    private int builtThisTurn;
+
+    /**
+     * True if we've ended our turn but haven't yet seen the next player's {@code SOCTurn}. The new turn's
+     * game state arrives before that message, and shouldn't be mistaken for our own next action.
+     */
+    private boolean turnEnded;
+
+    /** Action type of the message we're waiting for a reply to, or -1; see {@link SOCLoadGenerator#ACTION_NAMES} */
+    private volatile int sentAction = -1;
+
+    /** Time when {@link #sentAction} was sent, from {@link System#nanoTime()} */
+    private volatile long sentAt;
+
+    /** Time of our most recent inbound message, from {@link System#currentTimeMillis()} */
+    private volatile long lastInboundAt;
+
+    /**
+     * Create a load-test client which will connect over TCP. Call {@link #connect()} to connect.
+     * @param gen  Generator keeping stats for all clients
+     * @param idx  Client index number, 0 or higher; determines its nickname, group, and seat
+     * @param groupSize  Number of clients in each game, 2 to 4
+     * @param h  Server host
+     * @param p  Server TCP port
+     */
+    public SOCLoadTestClient(final SOCLoadGenerator gen, final int idx, final int groupSize, final String h, final int p)
+    {
+        super(h, p, false);
+
+        this.gen = gen;
+        this.groupSize = groupSize;
+        nickname = NAME_PREFIX + idx;
+        group = idx / groupSize;
+        seat = idx % groupSize;
+        rand = new Random(idx);
+    }
+
+    /**
+     * Create a load-test client which will connect to an in-process server's string port.
+     * Call {@link #connect()} to connect.
+     * @param gen  Generator keeping stats for all clients
+     * @param idx  Client index number, 0 or higher; determines its nickname, group, and seat
+     * @param groupSize  Number of clients in each game, 2 to 4
+     * @param s  Server's stringport name
+     */
+    public SOCLoadTestClient(final SOCLoadGenerator gen, final int idx, final int groupSize, final String s)
+    {
+        this(gen, idx, groupSize, null, 0);
+
+        strSocketName = s;
+    }
+
+    /**
+     * Connect to the server, start our reader thread, and join our group's first game.
+     * @return true if connected, false if an error occurred (is printed to {@link System#err})
+     */
+    public boolean connect()
+    {
+        try
+        {
+            if (strSocketName == null)
+            {
+                s = new Socket(host, port);
+                in = new DataInputStream(s.getInputStream());
+                out = new DataOutputStream(s.getOutputStream());
+            } else {
+                sLocal = StringServerSocket.connectTo(strSocketName);
+            }
+            connected = true;
+            lastInboundAt = System.currentTimeMillis();
+            new Thread(this).start();
+
+            put(SOCVersion.toCmd(Version.versionNumber(), Version.version(), Version.buildnum(), null));
+            joinGame();
+        }
+        catch (Exception e)
+        {
+            ex = e;
+            System.err.println("Load client " + nickname + " could not connect to the server: " + e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Is this client connected, without errors?
+     * @return true if connected
+     */
+    public boolean isConnected()
+    {
+        return connected && (ex == null);
+    }
+
+    /**
+     * Disconnect from the server without leaving games first, at the end of a load test.
+     */
+    public void shutdown()
+    {
+        disconnect();
+    }
+
+    /**
+     * Join our group's game for the current {@link #round}, creating it if we're the first to join.
+     */
+    private void joinGame()
+    {
+        gameName = GAME_PREFIX + group + '.' + round;
+        sentStart = false;
+        markSent(SOCLoadGenerator.A_JOIN);
+        put(SOCJoinGame.toCmd(nickname, "", "-", gameName));
+    }
+
+    /**
+     * Note that we're about to send an action, to time its round trip.
+     * @param action  Action type, such as {@link SOCLoadGenerator#A_ROLL}
+     */
+    private void markSent(final int action)
+    {
+        sentAt = System.nanoTime();
+        sentAction = action;
+        gen.countSent();
+    }
+
+    /**
+     * Treat an inbound message: Record the round trip time of any action we're waiting for,
+     * update our game data, then take our next action if needed.
+     */
+    @Override
+    public void treat(SOCMessage mes)
+    {
+        if (mes == null)
+            return;
+
+        final int act = sentAction;
+        if (act != -1)
+        {
+            sentAction = -1;
+            gen.recordLatency(act, System.nanoTime() - sentAt);
+        }
+        lastInboundAt = System.currentTimeMillis();
+        gen.countReceived();
+
+        super.treat(mes, false);
+
+        final int typ = mes.getType();
+        if ((typ != SOCMessage.GAMESTATE) && (typ != SOCMessage.TURN))
+            return;
+        if (typ == SOCMessage.TURN)
+            turnEnded = false;
+
+        final String gaName = ((SOCMessageForGame) mes).getGame();
+        if (! gaName.equals(gameName))
+            return;
+
+        final SOCGame ga = games.get(gaName);
+        if (ga == null)
+            return;
+
+        if ((typ == SOCMessage.GAMESTATE) && (((SOCGameState) mes).getState() == SOCGame.OVER))
+            gameOver(ga);
+        else
+            takeAction(ga);
+    }
+
+    /**
+     * Our game is over: Leave it, and join the group's next game.
+     * @param ga  Game that's over
+     */
+    private void gameOver(final SOCGame ga)
+    {
+        if (seat == 0)
+            gen.countGameFinished();
+
+        games.remove(ga.getName());
+        markSent(SOCLoadGenerator.A_LEAVE);
+        leaveGame(ga);
+        ++round;
+        joinGame();
+    }
+
+    /**
+     * If our player is stuck waiting for its next action in the current game (because the server rejected
+     * or ignored our last one), try again. Called periodically by the generator.
+     * @param stallMillis  Minimum time since last inbound message to consider a player stuck
+     * @return true if it was stuck and a new action was tried
+     */
+    public boolean unstick(final long stallMillis)
+    {
+        if ((! isConnected()) || (System.currentTimeMillis() - lastInboundAt < stallMillis))
+            return false;
+
+        final String gaName = gameName;
+        final SOCGame ga = (gaName != null) ? games.get(gaName) : null;
+        if ((ga == null) || (ga.getGameState() < SOCGame.START1A))
+            return false;
+
+        final SOCPlayer pl = ga.getPlayer(nickname);
+        if ((pl == null) || (ga.getCurrentPlayerNumber() != pl.getPlayerNumber()))
+            return false;
+
+        lastInboundAt = System.currentTimeMillis();
+        builtThisTurn = MAX_BUILDS_PER_TURN;  // don't retry a build; just end turn when possible
+        turnEnded = false;
+        takeAction(ga);
+        return true;
+    }
+
+    /**
+     * Our seat was given when joining: Sit down at it.
+     */
+    @Override
+    protected void handleJOINGAMEAUTH(SOCJoinGameAuth mes, final boolean isPractice)
+    {
+        super.handleJOINGAMEAUTH(mes, isPractice);
+
+        final SOCGame ga = games.get(mes.getGame());
+        if (ga == null)
+            return;
+
+        markSent(SOCLoadGenerator.A_SIT);
+        sitDown(ga, seat);
+    }
+
+    /**
+     * A player sat down. If we're seat 0, once the group's clients are all seated,
+     * lock the other seats and start the game.
+     */
+    @Override
+    protected void handleSITDOWN(SOCSitDown mes)
+    {
+        super.handleSITDOWN(mes);
+
+        if ((seat != 0) || sentStart || ! mes.getGame().equals(gameName))
+            return;
+
+        final SOCGame ga = games.get(gameName);
+        if ((ga == null) || (ga.getGameState() >= SOCGame.START1A))
+            return;
+
+        for (int pn = 0; pn < groupSize; ++pn)
+            if (ga.isSeatVacant(pn))
+                return;
+
+        sentStart = true;
+        for (int pn = groupSize; pn < ga.maxPlayers; ++pn)
+            setSeatLock(ga, pn, SOCGame.SeatLockState.LOCKED);  // so server won't ask robots to fill them
+        gen.countGameStarted();
+        markSent(SOCLoadGenerator.A_START);
+        startGame(ga);
+    }
+
+    /**
+     * Discard the first resources we have.
+     */
+    @Override
+    protected void handleDISCARDREQUEST(SOCDiscardRequest mes)
+    {
+        final SOCGame ga = games.get(mes.getGame());
+        if (ga == null)
+            return;
+        final SOCPlayer pl = ga.getPlayer(nickname);
+        if (pl == null)
+            return;
+
+        final SOCResourceSet have = pl.getResources();
+        SOCResourceSet disc = new SOCResourceSet();
+        int n = mes.getNumberOfDiscards();
+        for (int rtype = SOCResourceConstants.CLAY; (rtype <= SOCResourceConstants.WOOD) && (n > 0); ++rtype)
+        {
+            final int amt = Math.min(n, have.getAmount(rtype));
+            if (amt > 0)
+            {
+                disc.add(amt, rtype);
+                n -= amt;
+            }
+        }
+
+        markSent(SOCLoadGenerator.A_DISCARD);
+        discard(ga, disc);
+    }
+
+    /**
+     * Rob the first player we can.
+     */
+    @Override
+    protected void handleCHOOSEPLAYERREQUEST(SOCChoosePlayerRequest mes)
+    {
+        final SOCGame ga = games.get(mes.getGame());
+        if (ga == null)
+            return;
+
+        final boolean[] choices = mes.getChoices();
+        for (int pn = 0; pn < choices.length; ++pn)
+        {
+            if (choices[pn])
+            {
+                markSent(SOCLoadGenerator.A_CHOOSE_PLAYER);
+                choosePlayer(ga, pn);
+                return;
+            }
+        }
+    }
+
+    /**
+     * If it's our turn, take the next action for the game's current state.
+     * Other players' decisions like discards are prompted by their own messages from the server.
+     * @param ga  Our current game
+     */
+    private void takeAction(final SOCGame ga)
+    {
+        final SOCPlayer pl = ga.getPlayer(nickname);
+        if (turnEnded || (pl == null) || (ga.getCurrentPlayerNumber() != pl.getPlayerNumber()))
+            return;
+
+        final SOCBoard board = ga.getBoard();
+        switch (ga.getGameState())
+        {
+        case SOCGame.START1A:
+        case SOCGame.START2A:
+        case SOCGame.START3A:
+        case SOCGame.PLACING_SETTLEMENT:
+            {
+                final int node = pickRandom(pl.getPotentialSettlements_arr());
+                if (node != -1)
+                {
+                    markSent(SOCLoadGenerator.A_PLACE);
+                    putPiece(ga, new SOCSettlement(pl, node, board));
+                }
+                else if (ga.getGameState() == SOCGame.PLACING_SETTLEMENT)
+                {
+                    markSent(SOCLoadGenerator.A_BUILD);
+                    cancelBuildRequest(ga, SOCPlayingPiece.SETTLEMENT);
+                }
+            }
+            break;
+
+        case SOCGame.START1B:
+        case SOCGame.START2B:
+        case SOCGame.START3B:
+            {
+                final int edge = pickRandom(potentialRoadsNear(pl, board, pl.getLastSettlementCoord()));
+                if (edge != -1)
+                {
+                    markSent(SOCLoadGenerator.A_PLACE);
+                    putPiece(ga, new SOCRoad(pl, edge, board));
+                }
+            }
+            break;
+
+        case SOCGame.PLACING_ROAD:
+            {
+                final int edge = pickRandom(potentialRoadsNear(pl, board, -1));
+                markSent((edge != -1) ? SOCLoadGenerator.A_PLACE : SOCLoadGenerator.A_BUILD);
+                if (edge != -1)
+                    putPiece(ga, new SOCRoad(pl, edge, board));
+                else
+                    cancelBuildRequest(ga, SOCPlayingPiece.ROAD);
+            }
+            break;
+
+        case SOCGame.PLACING_CITY:
+            {
+                int node = -1;
+                for (SOCSettlement se : pl.getSettlements())
+                {
+                    if (pl.isPotentialCity(se.getCoordinates()))
+                    {
+                        node = se.getCoordinates();
+                        break;
+                    }
+                }
+                markSent((node != -1) ? SOCLoadGenerator.A_PLACE : SOCLoadGenerator.A_BUILD);
+                if (node != -1)
+                    putPiece(ga, new SOCCity(pl, node, board));
+                else
+                    cancelBuildRequest(ga, SOCPlayingPiece.CITY);
+            }
+            break;
+
+        case SOCGame.ROLL_OR_CARD:
+            builtThisTurn = 0;
+            markSent(SOCLoadGenerator.A_ROLL);
+            rollDice(ga);
+            break;
+
+        case SOCGame.PLACING_ROBBER:
+            {
+                final int pn = pl.getPlayerNumber();
+                for (final int hex : board.getLandHexCoords())
+                {
+                    if (ga.canMoveRobber(pn, hex))
+                    {
+                        markSent(SOCLoadGenerator.A_ROBBER);
+                        moveRobber(ga, pl, hex);
+                        break;
+                    }
+                }
+            }
+            break;
+
+        case SOCGame.PLAY1:
+            {
+                final int pn = pl.getPlayerNumber();
+                int piece = -1;
+                if (builtThisTurn < MAX_BUILDS_PER_TURN)
+                {
+                    if (ga.couldBuildCity(pn))
+                        piece = SOCPlayingPiece.CITY;
+                    else if (ga.couldBuildSettlement(pn))
+                        piece = SOCPlayingPiece.SETTLEMENT;
+                    else if (ga.couldBuildRoad(pn) && (potentialRoadsNear(pl, board, -1).length > 0))
+                        piece = SOCPlayingPiece.ROAD;
+                }
+
+                if (piece != -1)
+                {
+                    ++builtThisTurn;
+                    markSent(SOCLoadGenerator.A_BUILD);
+                    buildRequest(ga, piece);
+                } else {
+                    turnEnded = true;
+                    markSent(SOCLoadGenerator.A_END_TURN);
+                    endTurn(ga);
+                }
+            }
+            break;
+
+        default:
+            // Other states are waiting for other players, or aren't used by these clients
+        }
+    }
+
+    /**
+     * Find our potential roads next to a node, or next to any of our roads and settlements.
+     * @param pl  Our player
+     * @param board  Game board
+     * @param node  Node coordinate, or -1 for all our pieces
+     * @return  Potential road edge coordinates; may be empty, may contain duplicates
+     */
+    private static int[] potentialRoadsNear(final SOCPlayer pl, final SOCBoard board, final int node)
+    {
+        Vector<Integer> edges = new Vector<Integer>();
+        if (node != -1)
+        {
+            for (final int e : board.getAdjacentEdgesToNode_arr(node))
+                if (pl.isPotentialRoad(e))
+                    edges.add(e);
+        } else {
+            for (SOCRoad rd : pl.getRoads())
+                for (final int e : board.getAdjacentEdgesToEdge(rd.getCoordinates()))
+                    if (pl.isPotentialRoad(e))
+                        edges.add(e);
+            for (SOCSettlement se : pl.getSettlements())
+                for (final int e : board.getAdjacentEdgesToNode_arr(se.getCoordinates()))
+                    if (pl.isPotentialRoad(e))
+                        edges.add(e);
+        }
+
+        final int[] ret = new int[edges.size()];
+        for (int i = 0; i < ret.length; ++i)
+            ret[i] = edges.get(i);
+        return ret;
+    }
+
+    /**
+     * Pick a random element of an array.
+     * @param arr  Array to pick from, or {@code null}
+     * @return  a random element, or -1 if {@code arr} is null or empty
+     */
+    private int pickRandom(final int[] arr)
+    {
+        if ((arr == null) || (arr.length == 0))
+            return -1;
+
+        return arr[rand.nextInt(arr.length)];
+    }
+
+}
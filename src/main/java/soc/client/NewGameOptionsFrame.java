@@ -239,7 +239,7 @@ public class NewGameOptionsFrame extends Frame
      *                 is pressed, so the next OptionsFrame will default to the values the user has chosen.
      *                 To preserve them, call {@link SOCGameOption#cloneOptions(Map)} beforehand.
      *                 Null if server doesn't support game options.
-     *                 Unknown options ({@link SOCGameOption#OTYPE_UNKNOWN}) will be removed.
+     *                 Unknown options ({@link SOCGameOption#OTYPE_UNKNOWN}) will be removed unless <tt>readOnly</tt>.
      *                 If not <tt>readOnly</tt>, each option's {@link SOCGameOption#userChanged userChanged}
      *                 flag will be cleared, to reset status from any previously shown NewGameOptionsFrame.
      * @param forPractice For making a new game: Will the game be on local practice server, vs remote tcp server?
@@ -498,7 +498,8 @@ public class NewGameOptionsFrame extends Frame
             SOCGameOption op = optArr[i];
             if (op.optType == SOCGameOption.OTYPE_UNKNOWN)
             {
-                opts.remove(op.key);
+                if (! readOnly)
+                    opts.remove(op.key);  // readOnly opts may be a game's unmodifiable map
                 continue;  // <-- Removed, Go to next entry --
             }
 
@@ -69,6 +69,7 @@ import java.util.TimerTask;
 import java.util.Vector;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
+import java.util.zip.InflaterInputStream;
 
 import soc.baseclient.SOCDisplaylessPlayerClient;
 import soc.disableDebug.D;
@@ -320,6 +321,37 @@ public class SOCPlayerClient
      */
     protected boolean isNGOFWaitingForAuthStatus;
 
+    /**
+     * Session token sent by the server after our password was authenticated, or {@code null}.
+     * If we lose our connection and then reconnect to the same server ({@link #sessionTokenServer}),
+     * we authenticate with this token instead of the password: See
+     * {@link SOCAuthRequest#SCHEME_SESSION_TOKEN}. Tokens are short-lived and single-use;
+     * after a successful token auth, the server sends a replacement.
+     * @see #isSessionTokenAuthPending
+     * @since 2.0.00
+     */
+    protected String sessionToken;
+
+    /**
+     * The {@code "host:port"} of the server which issued {@link #sessionToken}, or {@code null}.
+     * @since 2.0.00
+     */
+    protected String sessionTokenServer;
+
+    /**
+     * True if we've reconnected and sent {@link #sessionToken} to the server
+     * and are waiting for its response.
+     * @since 2.0.00
+     */
+    protected boolean isSessionTokenAuthPending;
+
+    /**
+     * True if the server rejected our {@link #sessionToken} after a reconnect, so we've sent
+     * our {@link #password} instead and are waiting for its response.
+     * @since 2.0.00
+     */
+    protected boolean isPasswordAuthRetryPending;
+
     /**
      * True if contents of incoming and outgoing network message traffic should be debug-printed.
      * Set if optional system property {@link SOCDisplaylessPlayerClient#PROP_JSETTLERS_DEBUG_TRAFFIC} is set.
@@ -3740,6 +3772,24 @@ public class SOCPlayerClient
                 handleSCENARIOINFO((SOCScenarioInfo) mes, isPractice);
                 break;
 
+            /**
+             * Server is compressing the rest of its stream to us.
+             * Added 2018-10-19 for v2.0.00.
+             */
+            case SOCMessage.COMPRESSSTREAM:
+                if (! isPractice)
+                    net.inflateNetInput();
+                break;
+
+            /**
+             * Server will send some messages to us as binary frames.
+             * Added 2018-10-20 for v2.0.00.
+             */
+            case SOCMessage.BINARYFORMAT:
+                if (! isPractice)
+                    net.readBinaryFrames(((SOCBinaryFormat) mes).getFormatVersion());
+                break;
+
             }  // switch (mes.getType())
         }
         catch (Exception e)
@@ -3775,6 +3825,14 @@ public class SOCPlayerClient
                 : new SOCServerFeatures(true);
 
             gameDisplay.showVersion(vers, mes.getVersionString(), mes.getBuild(), sFeatures);
+
+            // Ask server to compress its stream to us, unless it's our own client-hosted server
+            if (sFeatures.isActive(SOCServerFeatures.FEAT_COMPRESS) && (net.localTCPServer == null))
+                net.putNet(SOCCompressStream.toCmd(SOCCompressStream.METHOD_DEFLATE));
+
+            // Ask for binary frames, unless it's our own client-hosted server
+            if (sFeatures.isActive(SOCServerFeatures.FEAT_BINARY_FRAMES) && (net.localTCPServer == null))
+                net.putNet(SOCBinaryFormat.toCmd(SOCBinaryCodec.FORMAT_VERSION));
         }
 
         // If we ever require a minimum server version, would check that here.
@@ -3879,6 +3937,20 @@ public class SOCPlayerClient
         int sv = mes.getStatusValue();
         String statusText = mes.getStatus();
 
+        if (sv == SOCStatusMessage.SV_OK_SESSION_TOKEN)
+        {
+            // not shown to user; keep it in case we need to reconnect
+            if (! isPractice)
+            {
+                final ClientNetwork cnet = client.getNet();
+                final String h = cnet.getHost();
+                client.sessionToken = statusText;
+                client.sessionTokenServer = ((h != null) ? h : "localhost") + ':' + cnet.getPort();
+            }
+
+            return;  // <--- Early return: Nothing to show ---
+        }
+
         if ((sv == SOCStatusMessage.SV_OK_SET_NICKNAME))
         {
             sv = SOCStatusMessage.SV_OK;
@@ -3898,6 +3970,42 @@ public class SOCPlayerClient
         else
             srvDebugMode = statusText.toLowerCase().contains("debug");
 
+        // Did we just reconnect with a session token?
+        if ((! isPractice) && client.isSessionTokenAuthPending)
+        {
+            client.isSessionTokenAuthPending = false;
+
+            if (sv == SOCStatusMessage.SV_OK)
+            {
+                client.gotPassword = true;
+            } else {
+                // Token expired or was revoked: Discard it, don't show an unexpected
+                // "wrong password" status; instead retry with our password, if we have one
+                client.sessionToken = null;
+                client.sessionTokenServer = null;
+                client.gotPassword = false;  // if no retry, next join will send the password
+
+                if ((client.password != null) && (client.nickname != null))
+                {
+                    final ClientNetwork cnet = client.getNet();
+                    client.isPasswordAuthRetryPending = true;
+                    cnet.putNet(SOCAuthRequest.toCmd
+                        (SOCAuthRequest.ROLE_GAME_PLAYER, client.nickname, client.password,
+                         SOCAuthRequest.SCHEME_CLIENT_PLAINTEXT, cnet.getHost()));
+                }
+
+                return;
+            }
+        }
+        else if ((! isPractice) && client.isPasswordAuthRetryPending)
+        {
+            // Reply to the password we sent after our session token was rejected;
+            // if not OK, show status such as "wrong password" as usual
+            client.isPasswordAuthRetryPending = false;
+            if (sv == SOCStatusMessage.SV_OK)
+                client.gotPassword = true;
+        }
+
         gameDisplay.showStatus(statusText, srvDebugMode);
 
         // Are we waiting for auth response in order to show NGOF?
@@ -6733,6 +6841,19 @@ public class SOCPlayerClient
         DataOutputStream out;
         Thread reader = null;
 
+        /**
+         * True if {@link #in} is reading a compressed stream from the server; see {@link #inflateNetInput()}.
+         * @since 2.0.00
+         */
+        boolean isInflating;
+
+        /**
+         * If not null, the server is sending some messages as binary frames, which {@link NetReadTask}
+         * reads with this decoder; see {@link #readBinaryFrames(int)}.
+         * @since 2.0.00
+         */
+        SOCBinaryCodec.Decoder binaryDecoder;
+
         /**
          * Any network error (TCP communication) received while connecting
          * or sending messages in {@link #putNet(String)}, or null.
@@ -6972,12 +7093,29 @@ public class SOCPlayerClient
                 s = new Socket(host, port);
                 in = new DataInputStream(s.getInputStream());
                 out = new DataOutputStream(s.getOutputStream());
+                isInflating = false;
+                binaryDecoder = null;
                 connected = true;
                 (reader = new Thread(new NetReadTask(client, this))).start();
                 // send VERSION right away (1.1.06 and later)
                 // Version msg includes locale in 2.0.00 and later clients; v1.x.xx servers will ignore that token.
                 putNet(SOCVersion.toCmd
                     (Version.versionNumber(), Version.version(), Version.buildnum(), client.cliLocale.toString()));
+
+                // If we were recently authenticated to this server, reconnect with our session token
+                client.isPasswordAuthRetryPending = false;
+                if ((client.sessionToken != null) && (client.nickname != null)
+                    && hostString.equals(client.sessionTokenServer))
+                {
+                    client.isSessionTokenAuthPending = true;
+                    putNet(SOCAuthRequest.toCmd
+                        (SOCAuthRequest.ROLE_GAME_PLAYER, client.nickname, client.sessionToken,
+                         SOCAuthRequest.SCHEME_SESSION_TOKEN, chost));
+                    client.sessionToken = null;  // single-use; server will send a new one if accepted
+                } else {
+                    client.sessionToken = null;
+                    client.sessionTokenServer = null;
+                }
             }
             catch (Exception e)
             {
@@ -7184,6 +7322,55 @@ public class SOCPlayerClient
         }
 
 
+        /**
+         * The server has accepted our {@link SOCCompressStream} request: Read the rest of its stream
+         * through an inflater. Must be called from the {@link NetReadTask} thread while it's treating
+         * the server's reply, before it reads the next message. Does nothing if already inflating.
+         * @since 2.0.00
+         */
+        void inflateNetInput()
+        {
+            if (isInflating || (s == null))
+                return;
+
+            try
+            {
+                in = new DataInputStream(new InflaterInputStream(s.getInputStream()));
+                isInflating = true;
+            }
+            catch (IOException e)
+            {
+                ex = e;
+                System.out.println("could not read from the net: " + ex);  // I18N: Not localizing console output yet
+                client.dispose();
+            }
+        }
+
+        /**
+         * The server has accepted our {@link SOCBinaryFormat} request: Read binary frames as well as text
+         * from now on. Must be called from the {@link NetReadTask} thread while it's treating the server's
+         * reply, before it reads the next message. Does nothing if already reading binary frames.
+         * @param formatVersion  Frame format version from the server's reply
+         * @since 2.0.00
+         */
+        void readBinaryFrames(final int formatVersion)
+        {
+            if (binaryDecoder != null)
+                return;
+
+            try
+            {
+                binaryDecoder = new SOCBinaryCodec.Decoder(formatVersion);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // we asked for a version we can read, so this shouldn't happen
+                ex = new IOException("Unsupported binary frame format: " + formatVersion);
+                System.out.println("could not read from the net: " + ex);  // I18N: Not localizing console output yet
+                client.dispose();
+            }
+        }
+
         /**
          * A task to continuously read from the server socket.
          * Not used for talking to the practice server.
@@ -7210,8 +7397,11 @@ public class SOCPlayerClient
                 {
                     while (net.isConnected())
                     {
-                        String s = net.in.readUTF();
-                        client.treater.treat(SOCMessage.toMsg(s), false);
+                        final SOCBinaryCodec.Decoder bd = net.binaryDecoder;
+                        final SOCMessage mes = (bd != null)
+                            ? bd.readMessage(net.in)
+                            : SOCMessage.toMsg(net.in.readUTF());
+                        client.treater.treat(mes, false);
                     }
                 }
                 catch (IOException e)
@@ -7263,8 +7453,7 @@ public class SOCPlayerClient
                 {
                     while (locl.isConnected())
                     {
-                        String s = locl.readNext();
-                        SOCMessage msg = SOCMessage.toMsg(s);
+                        SOCMessage msg = locl.readNextMessage();
 
                         client.treater.treat(msg, true);
                     }
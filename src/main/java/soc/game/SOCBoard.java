@@ -24,6 +24,7 @@ package soc.game;
 
 import java.io.Serializable;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -360,6 +361,13 @@ public abstract class SOCBoard implements Serializable, Cloneable
      */
     protected int minNode, minEdge, maxEdge;
 
+    /**
+     * This board geometry's shared adjacency tables, or null if not yet needed.
+     * Not serialized; {@link #getAdjacency()} gets it again when needed.
+     * @since 2.0.00
+     */
+    private transient SOCBoardAdjacency adjacency;
+
     /**
      * The encoding format of board coordinates,
      * or {@link #BOARD_ENCODING_ORIGINAL} (default, original).
@@ -416,7 +424,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
      * Note that hexLayout contains ports only for the v1 encoding ({@link #BOARD_ENCODING_ORIGINAL});
      * v2 and v3 use {@link #portsLayout} instead, and hexLayout contains only water and the land
      * hex types.  The v3 encoding ({@link #BOARD_ENCODING_LARGE}) doesn't use {@code hexLayout} at all,
-     * instead it has a 2-dimensional {@code hexLayoutLg} structure.
+     * instead it has a packed {@code hexLayoutLg} structure.
        <pre>
        0 : water   {@link #WATER_HEX} (was 6 before v2.0.00)
        1 : clay    {@link #CLAY_HEX}
@@ -482,16 +490,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
          @see #getAdjacentNodeToHex(int, int)
      *
      **/
-    private int[] hexLayout =   // initially all WATER_HEX
-    {
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX,
-        WATER_HEX, WATER_HEX, WATER_HEX, WATER_HEX
-    };
+    private int[] hexLayout;  // initially all WATER_HEX; null in SOCBoardLarge
 
     /**
      * Port information; varies by board layout encoding format.
@@ -534,16 +533,11 @@ public abstract class SOCBoard implements Serializable, Cloneable
      *  <tt>numberLayout</tt>[i] is the dice number for the land hex stored in {@link #hexLayout}[i].
      *  The robber hex is 0.  Water hexes are -1.
      *<P>
-     *  Used in the v1 and v2 encodings (ORIGINAL, 6PLAYER).
+     *  Used in the v1 and v2 encodings (ORIGINAL, 6PLAYER), initialized in their constructor.
      *  The v3 encoding ({@link #BOARD_ENCODING_LARGE}) doesn't use this array,
-     *  instead it uses {@link SOCBoardLarge#numberLayoutLg}.
+     *  instead it uses {@code SOCBoardLarge.numberLayoutLg}.
      */
-    private int[] numberLayout =
-    {
-        -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-        -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
-        -1
-    };
+    private int[] numberLayout;  // initially all -1; null in SOCBoardLarge
 
     /** Hex coordinates ("IDs") of each hex number ("hex number" means index within
      *  {@link #hexLayout}).
@@ -563,7 +557,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
      * @see SOCBoard6p#HEXCOORDS_LAND_V2
      * @see #getLandHexCoords()
      */
-    private int[] numToHexID =
+    private static final int[] numToHexID =
     {
         0x17, 0x39, 0x5B, 0x7D,
         0x15, 0x37, 0x59, 0x7B, 0x9D,
@@ -578,12 +572,33 @@ public abstract class SOCBoard implements Serializable, Cloneable
      * translate hex ID (hex coordinate) to an array index within {@link #hexLayout},
      * which is sometimes called its "hex number".
      * The numbers in here are the board's land hexes and also the surrounding
-     * ring of water/port hexes.  Initialized in constructor.  Length is >= {@link #MAXHEX}.
+     * ring of water/port hexes.  Length is >= {@link #MAXHEX}.
      * A value of -1 means the ID isn't a valid hex number on the board.
+     *<P>
+     * Before v2.0.00 each board had its own copy, initialized in its constructor.
+     * The contents are the same for every v1 and v2 board, so it's now static.
      * @see #numToHexID
      * @see #nodeIDtoPortType
      */
-    private int[] hexIDtoNum;
+    private static final int[] hexIDtoNum = new int[0xEE];  // Length must be >= MAXHEX
+    static
+    {
+        /**
+         * initialize the hexIDtoNum array;
+         * see dissertation figure A.1 for coordinates
+         */
+        Arrays.fill(hexIDtoNum, -1);  // -1 means off the board
+
+        // Sets up the board as land hexes with surrounding ring of water/port hexes.
+
+        initHexIDtoNumAux(0x17, 0x7D, 0);  // Top horizontal row: 4 hexes across
+        initHexIDtoNumAux(0x15, 0x9D, 4);  // Next horiz row: 5 hexes
+        initHexIDtoNumAux(0x13, 0xBD, 9);  // Next: 6
+        initHexIDtoNumAux(0x11, 0xDD, 15); // Middle horizontal row: 7
+        initHexIDtoNumAux(0x31, 0xDB, 22); // Next: 6
+        initHexIDtoNumAux(0x51, 0xD9, 28); // Next: 5
+        initHexIDtoNumAux(0x71, 0xD7, 33); // Bottom horizontal row: 4 hexes across
+    }
 
     /**
      * translate node ID (node coordinate) to a port's type ({@link #MISC_PORT} to {@link #WOOD_PORT}).
@@ -750,26 +765,9 @@ public abstract class SOCBoard implements Serializable, Cloneable
         boardWidth = 0x10;
         boardHeight = 0x10;
 
-        /**
-         * initialize the hexIDtoNum array;
-         * see dissertation figure A.1 for coordinates
-         */
-        hexIDtoNum = new int[0xEE];  // Length must be >= MAXHEX
-
-        for (int i = 0; i < 0xEE; i++)
-        {
-            hexIDtoNum[i] = -1;  // -1 means off the board
-        }
-
-        // Sets up the board as land hexes with surrounding ring of water/port hexes.
-
-        initHexIDtoNumAux(0x17, 0x7D, 0);  // Top horizontal row: 4 hexes across
-        initHexIDtoNumAux(0x15, 0x9D, 4);  // Next horiz row: 5 hexes
-        initHexIDtoNumAux(0x13, 0xBD, 9);  // Next: 6
-        initHexIDtoNumAux(0x11, 0xDD, 15); // Middle horizontal row: 7
-        initHexIDtoNumAux(0x31, 0xDB, 22); // Next: 6
-        initHexIDtoNumAux(0x51, 0xD9, 28); // Next: 5
-        initHexIDtoNumAux(0x71, 0xD7, 33); // Bottom horizontal row: 4 hexes across
+        hexLayout = new int[numToHexID.length];  // WATER_HEX == 0
+        numberLayout = new int[numToHexID.length];
+        Arrays.fill(numberLayout, -1);
 
         initNodesOnLand();
     }
@@ -831,7 +829,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
     }
 
     /**
-     * Auxiliary method for initializing part of the hexIDtoNum array.
+     * Auxiliary method for initializing part of the static hexIDtoNum array.
      * Between begin and end, increment coord by 0x22, which moves 1 hex to the east.
      * See dissertation figure A.1.
      * @param begin Beginning of coordinate range
@@ -839,7 +837,7 @@ public abstract class SOCBoard implements Serializable, Cloneable
      * @param num   Number to assign to first {@link #hexIDtoNum}[] within this coordinate range;
      *              corresponds to hex's index ("hex number") within {@link #hexLayout}.
      */
-    private void initHexIDtoNumAux(int begin, int end, int num)
+    private static void initHexIDtoNumAux(int begin, int end, int num)
     {
         int i;
 
@@ -850,6 +848,50 @@ public abstract class SOCBoard implements Serializable, Cloneable
         }
     }
 
+    /**
+     * Copy this board for a {@link SOCGame#fork()}ed game. The copy starts as a clone of this board,
+     * so it shares any data which doesn't change during play: Hex and number layout, adjacency,
+     * and the classic board's ports. Piece lists are copied afterwards by {@link #copyPiecesForFork(SOCGame.ForkMap)}.
+     *<P>
+     * Subclasses with more data that can change during play should override,
+     * call super, and copy that data.
+     *
+     * @param isSetupDone  True if the game is past initial placement, so {@link #nodesOnLand}
+     *     won't change and can be shared
+     * @return  A copy of this board
+     * @throws IllegalStateException  if the board can't be cloned (internal error; should not occur)
+     * @since 2.0.00
+     */
+    protected SOCBoard copyForFork(final boolean isSetupDone)
+        throws IllegalStateException
+    {
+        final SOCBoard b;
+        try
+        {
+            b = (SOCBoard) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, board should be cloneable", e);
+        }
+
+        if (! isSetupDone)
+            b.nodesOnLand = new HashSet<Integer>(nodesOnLand);
+
+        return b;
+    }
+
+    /**
+     * For a board made by {@link #copyForFork(boolean)}, copy the original board's pieces
+     * to refer to the fork's players and board.
+     * @param fm  The fork's mappings
+     * @since 2.0.00
+     */
+    void copyPiecesForFork(final SOCGame.ForkMap fm)
+    {
+        roads = fm.pieces(roads);
+        settlements = fm.pieces(settlements);
+        cities = fm.pieces(cities);
+    }
+
     /**
      * Fill the board layout for a game being started:
      * Shuffle the hex tiles and layout a board.
@@ -871,7 +913,9 @@ public abstract class SOCBoard implements Serializable, Cloneable
         // sets robberHex, contents of hexLayout[] and numberLayout[].
         // Also checks vs game option BC: Break up clumps of # or more same-type hexes/ports
         {
-            final int[] landHex = is6player ? SOCBoard6p.makeNewBoard_landHexTypes_v2 : SOCBoard4p.makeNewBoard_landHexTypes_v1;
+            // copy the static array before shuffling, so each seeded game starts from the same order
+            final int[] landHex =
+                (is6player ? SOCBoard6p.makeNewBoard_landHexTypes_v2 : SOCBoard4p.makeNewBoard_landHexTypes_v1).clone();
             final int[][] numPaths = is6player ? SOCBoard6p.makeNewBoard_numPaths_v2 : SOCBoard4p.makeNewBoard_numPaths_v1;
             final int[] numPath = numPaths[ Math.abs(rand.nextInt() % numPaths.length) ];
             final int[] numbers = is6player ? SOCBoard6p.makeNewBoard_diceNums_v2 : SOCBoard4p.makeNewBoard_diceNums_v1;
@@ -2078,6 +2122,26 @@ public abstract class SOCBoard implements Serializable, Cloneable
         return boardEncodingFormat;
     }
 
+    /**
+     * Get the adjacency tables for this board's geometry, for iterating over adjacent
+     * hexes, nodes, and edges without allocating a Vector for each call to
+     * {@link #getAdjacentHexesToNode(int)}, {@link #getAdjacentNodesToNode(int)}, etc.
+     * The tables are shared by all boards with the same encoding format and size.
+     * @return  This board's adjacency tables; not null
+     * @since 2.0.00
+     */
+    public final SOCBoardAdjacency getAdjacency()
+    {
+        SOCBoardAdjacency adj = adjacency;
+        if (adj == null)
+        {
+            adj = SOCBoardAdjacency.getAdjacency(this);
+            adjacency = adj;
+        }
+
+        return adj;
+    }
+
     /**
      * Adjacent node coordinates to an edge, within valid range to be on the board.
      *<P>
@@ -0,0 +1,279 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Immutable adjacency tables for a board geometry, built once from the {@link SOCBoard}
+ * {@code getAdjacent...} methods and shared by all boards with the same encoding format,
+ * size, and coordinate limits. Get a board's tables with {@link SOCBoard#getAdjacency()}.
+ *<P>
+ * The board methods such as {@link SOCBoard#getAdjacentHexesToNode(int)} allocate a new Vector
+ * of Integers for each call. Game rules, {@link SOCPlayer} potential/legal piece updates, and the robots
+ * call them in tight loops, so those callers iterate over these tables instead without allocating:
+ *<pre>
+ *  final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
+ *  for (int i = hexesToNode.start(node), iEnd = hexesToNode.end(node); i &lt; iEnd; ++i)
+ *  {
+ *      final int hex = hexesToNode.get(i);
+ *      ...
+ *  }</pre>
+ * Each {@link Relation} is in compressed sparse row (CSR) form: An offset array indexed by coordinate,
+ * and one array of all adjacent coordinates. Adjacents are in the same order as the board method's Vector.
+ *<P>
+ * The tables cover coordinates 0 through {@link #getCoordLimit()} - 1, which includes every coordinate
+ * on the board. Coordinates outside that range have no adjacents here.
+ *<P>
+ * Adjacency which depends on the board layout, such as {@link SOCBoard#getAdjacentHexesToHex(int, boolean)}
+ * without water hexes, isn't in these tables: {@link #hexesToHex} includes land and water hexes.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class SOCBoardAdjacency
+{
+    /**
+     * Adjacency tables already built, keyed by {@link #geometryKey(SOCBoard)}.
+     * Synchronize on this map when using it.
+     */
+    private static final HashMap<String, SOCBoardAdjacency> cache = new HashMap<String, SOCBoardAdjacency>();
+
+    /** Hexes adjacent to each node; same contents as {@link SOCBoard#getAdjacentHexesToNode(int)} */
+    public final Relation hexesToNode;
+
+    /** Nodes adjacent to each node; same contents as {@link SOCBoard#getAdjacentNodesToNode(int)} */
+    public final Relation nodesToNode;
+
+    /** Edges adjacent to each edge; same contents as {@link SOCBoard#getAdjacentEdgesToEdge(int)} */
+    public final Relation edgesToEdge;
+
+    /** Nodes at each end of each edge; same contents as {@link SOCBoard#getAdjacentNodesToEdge(int)} */
+    public final Relation nodesToEdge;
+
+    /**
+     * Land and water hexes adjacent to each hex;
+     * same contents as {@link SOCBoard#getAdjacentHexesToHex(int, boolean) getAdjacentHexesToHex(hex, true)}
+     */
+    public final Relation hexesToHex;
+
+    /** Size of the coordinate range covered by these tables; see {@link #getCoordLimit()} */
+    private final int coordLimit;
+
+    /**
+     * Get the adjacency tables for this board's geometry, building them if no board with
+     * the same geometry has done so yet. Callers should use {@link SOCBoard#getAdjacency()},
+     * which remembers the result.
+     * @param board  Board to get tables for; its size must already be set
+     * @return  Adjacency tables for {@code board}'s geometry
+     */
+    static SOCBoardAdjacency getAdjacency(final SOCBoard board)
+    {
+        final String key = geometryKey(board);
+        synchronized(cache)
+        {
+            SOCBoardAdjacency adj = cache.get(key);
+            if (adj == null)
+            {
+                adj = new SOCBoardAdjacency(board);
+                cache.put(key, adj);
+            }
+
+            return adj;
+        }
+    }
+
+    /**
+     * Key for boards with the same geometry, whose {@code getAdjacent...} methods have identical results:
+     * Encoding format, height, width, and node/edge coordinate limits.
+     * @param board  Board to get the key for
+     * @return  Key for {@link #cache}
+     */
+    private static String geometryKey(final SOCBoard board)
+    {
+        return board.getBoardEncodingFormat() + ":" + board.getBoardHeight() + "x" + board.getBoardWidth()
+            + ":" + board.minNode + "," + board.minEdge + "," + board.maxEdge;
+    }
+
+    /**
+     * Build the tables by calling each of {@code board}'s adjacency methods for each coordinate.
+     * @param board  Board to build tables from
+     */
+    private SOCBoardAdjacency(final SOCBoard board)
+    {
+        coordLimit = (board.getBoardEncodingFormat() == SOCBoard.BOARD_ENCODING_LARGE)
+            ? ((board.getBoardHeight() + 1) << 8)
+            : 0x100;
+
+        final Builder hn = new Builder(coordLimit), nn = new Builder(coordLimit), ee = new Builder(coordLimit),
+            ne = new Builder(coordLimit), hh = new Builder(coordLimit);
+        for (int coord = 0; coord < coordLimit; ++coord)
+        {
+            hn.add(board.getAdjacentHexesToNode(coord));
+            nn.add(board.getAdjacentNodesToNode(coord));
+            ee.add(board.getAdjacentEdgesToEdge(coord));
+            ne.add(board.getAdjacentNodesToEdge(coord));
+            hh.add(board.getAdjacentHexesToHex(coord, true));
+        }
+
+        hexesToNode = hn.build();
+        nodesToNode = nn.build();
+        edgesToEdge = ee.build();
+        nodesToEdge = ne.build();
+        hexesToHex = hh.build();
+    }
+
+    /**
+     * Get the size of the coordinate range covered by these tables.
+     * @return  The highest coordinate covered, plus 1:
+     *     0x100 for the original and 6-player encodings; ({@link SOCBoard#getBoardHeight()} + 1) &lt;&lt; 8
+     *     for {@link SOCBoard#BOARD_ENCODING_LARGE}
+     */
+    public int getCoordLimit()
+    {
+        return coordLimit;
+    }
+
+    /**
+     * One adjacency relation from each coordinate to its adjacent coordinates, in compressed sparse row form.
+     * See {@link SOCBoardAdjacency} class javadoc for an iteration example.
+     * @since 2.0.00
+     */
+    public static final class Relation
+    {
+        /**
+         * For each coordinate, the index of its first adjacent in {@link #adjacents};
+         * the last element is {@code adjacents.length}.
+         */
+        private final int[] offsets;
+
+        /** All coordinates' adjacents */
+        private final int[] adjacents;
+
+        private Relation(final int[] offsets, final int[] adjacents)
+        {
+            this.offsets = offsets;
+            this.adjacents = adjacents;
+        }
+
+        /**
+         * Get the index of a coordinate's first adjacent, for use with {@link #get(int)}.
+         * @param coord  Coordinate; not validated
+         * @return  Index of {@code coord}'s first adjacent; if none, same as {@link #end(int) end(coord)}
+         */
+        public final int start(final int coord)
+        {
+            return ((coord >= 0) && (coord < offsets.length - 1)) ? offsets[coord] : 0;
+        }
+
+        /**
+         * Get the index just past a coordinate's last adjacent, for use with {@link #get(int)}.
+         * @param coord  Coordinate; not validated
+         * @return  Index just past {@code coord}'s last adjacent
+         */
+        public final int end(final int coord)
+        {
+            return ((coord >= 0) && (coord < offsets.length - 1)) ? offsets[coord + 1] : 0;
+        }
+
+        /**
+         * Get an adjacent coordinate.
+         * @param i  Index from {@link #start(int)} up to but not including {@link #end(int)}
+         * @return  The adjacent coordinate at that index
+         */
+        public final int get(final int i)
+        {
+            return adjacents[i];
+        }
+
+        /**
+         * Get the number of adjacents to a coordinate.
+         * @param coord  Coordinate; not validated
+         * @return  Number of adjacents, or 0 if none
+         */
+        public final int count(final int coord)
+        {
+            return end(coord) - start(coord);
+        }
+
+        /**
+         * Is {@code adjacent} one of {@code coord}'s adjacents?
+         * @param coord  Coordinate; not validated
+         * @param adjacent  Possible adjacent coordinate
+         * @return  True if {@code adjacent} is adjacent to {@code coord}
+         */
+        public final boolean contains(final int coord, final int adjacent)
+        {
+            for (int i = start(coord), iEnd = end(coord); i < iEnd; ++i)
+                if (adjacents[i] == adjacent)
+                    return true;
+
+            return false;
+        }
+    }
+
+    /**
+     * Collects a {@link Relation}'s contents, one coordinate at a time starting at 0.
+     */
+    private static final class Builder
+    {
+        private final int[] offsets;
+        private int[] adjacents = new int[1024];
+        private int nCoords, nAdjacents;
+
+        Builder(final int coordLimit)
+        {
+            offsets = new int[coordLimit + 1];
+        }
+
+        /**
+         * Add the next coordinate's adjacents.
+         * @param adj  Adjacent coordinates, or null if none
+         */
+        void add(final List<Integer> adj)
+        {
+            offsets[nCoords] = nAdjacents;
+            ++nCoords;
+            if (adj == null)
+                return;
+
+            final int L = adj.size();
+            if (nAdjacents + L > adjacents.length)
+            {
+                int[] grown = new int[2 * adjacents.length + L];
+                System.arraycopy(adjacents, 0, grown, 0, nAdjacents);
+                adjacents = grown;
+            }
+            for (int i = 0; i < L; ++i)
+                adjacents[nAdjacents++] = adj.get(i).intValue();
+        }
+
+        Relation build()
+        {
+            offsets[nCoords] = nAdjacents;
+            int[] adj = new int[nAdjacents];
+            System.arraycopy(adjacents, 0, adj, 0, nAdjacents);
+
+            return new Relation(offsets, adj);
+        }
+    }
+
+}
@@ -23,7 +23,9 @@ package soc.game;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -355,6 +357,15 @@ public class SOCBoardLarge extends SOCBoard
      */
     public static final int[] SPECIAL_EDGE_TYPES = { SPECIAL_EDGE_DEV_CARD, SPECIAL_EDGE_SVP };
 
+    /**
+     * Shared {@link Integer} objects for edge coordinates, for {@link #edgeBitsToSet(BitSet)}, so that
+     * all games' players' legal road and ship sets reference the same few hundred objects.
+     * Indexed by coordinate row, then column; rows are created when needed.
+     * Racing threads may each create an Integer for a coordinate, which is harmless.
+     * @since 2.0.00
+     */
+    private static final Integer[][] edgeCoordIntegers = new Integer[256][];
+
     /**
      * For {@link #getAdjacentHexesToHex(int, boolean)}, the offsets to add to the hex
      * row and column to get all adjacent hex coords, starting at
@@ -433,24 +444,20 @@ public class SOCBoardLarge extends SOCBoard
          0,-2,  -2,-1   // W, NW
     };
 
-    // TODO hexLayoutLg, numberLayoutLg: Will only need half the rows, half the columns
-
     /**
      * Hex layout: water/land resource types.
-     * One element per hex.
-     * Order: [row][column].
-     * <P>
-     * Each element has the same format as SOCBoard.hexLayout:
-     * Each element's value encodes hex type and, if a
-     * port, its facing ({@link #FACING_NE} to {@link #FACING_NW}).
+     * One byte per hex, packed by {@link #hexIndex(int, int)}: Only odd rows have hexes,
+     * and within a row only every other column, so the layout stores only those.
+     * To read or change a hex's type, call {@link #getHexLayoutLg(int, int)} or {@link #setHexLayoutLg(int, int, int)}.
+     * Before v2.0.00 this was an {@code int[][]} with every row and column.
      *<P>
-     * For land hexes, the dice number on <tt>hexLayoutLg</tt>[r][c] is {@link #numberLayoutLg}[r][c].
+     * For land hexes, the dice number on the hex at (r, c) is {@link #getNumberLayoutLg(int, int)}.
      *<P>
      * For the set of all land hex coordinates, see {@link #landHexLayout}.
      * Hexes obscured by {@link #FOG_HEX}, if any, are stored in {@link #fogHiddenHexes} (server only).
-     * Because of bit shifts there, please don't use the top 8 bits of <tt>hexLayoutLg</tt>.
+     * Hex type values must be in the range 0 to 127.
      *<P>
-     * Key to the hexLayoutLg[][] values:
+     * Key to the hexLayoutLg values:
        <pre>
        0 : water   {@link #WATER_HEX}
        1 : clay    {@link #CLAY_HEX}
@@ -466,7 +473,14 @@ public class SOCBoardLarge extends SOCBoard
      *<P>
      * @see SOCBoard#portsLayout
      */
-    protected int[][] hexLayoutLg;
+    private byte[] hexLayoutLg;
+
+    /**
+     * Number of hexes in each packed row of {@link #hexLayoutLg} and {@link #numberLayoutLg}.
+     * @see #hexIndex(int, int)
+     * @since 2.0.00
+     */
+    private int hexRowLength;
 
     /**
      * The set of land hex coordinates within {@link #hexLayoutLg},
@@ -528,9 +542,12 @@ public class SOCBoardLarge extends SOCBoard
      * Calculated in {@link #initLegalRoadsFromLandNodes()}, after {@link #nodesOnLand} is filled by
      * {@code SOCBoardAtServer.makeNewBoard_fillNodesOnLandFromHexes(int[], int, int, int, boolean)}.
      * Used by {@link #initPlayerLegalRoads()}.
+     *<P>
+     * One bit per edge coordinate, indexed by {@link #edgeBitIndex(int)}: A 4-player sea board's few hundred
+     * legal edges take a few dozen bytes, instead of a {@code HashSet} entry and {@code Integer} each.
      * @see #legalShipEdges
      */
-    protected HashSet<Integer> legalRoadEdges;
+    protected BitSet legalRoadEdges;
 
     /**
      * The legal set of water/coastline edge coordinates to build ships,
@@ -544,23 +561,26 @@ public class SOCBoardLarge extends SOCBoard
      * With scenario option {@link SOCGameOption#K_SC_PIRI _SC_PIRI}, the legal edges vary per player
      * and are based on {@code SOCBoardAtServer.PIR_ISL_SEA_EDGES}, so {@code legalShipEdges}
      * is empty.
+     *<P>
+     * One bit per edge coordinate, indexed by {@link #edgeBitIndex(int)}.
      *
      * @see #legalRoadEdges
      */
-    protected HashSet<Integer> legalShipEdges;
+    protected BitSet legalShipEdges;
 
     /**
      * Dice number from hex coordinate.
-     * Order: [row][column].
-     * For land hexes, <tt>numberLayoutLg</tt>[r][c] is the dice number on {@link #hexLayoutLg}[r][c].
+     * One byte per hex, packed by {@link #hexIndex(int, int)} like {@link #hexLayoutLg};
+     * call {@link #getNumberLayoutLg(int, int)} or {@link #setNumberLayoutLg(int, int, int)}.
+     * For land hexes, this is the dice number on the hex in {@link #hexLayoutLg}.
      * One element per water, land, or port hex; non-land hexes are 0.
      * Desert and fog hexes are -1, although {@link #getNumberOnHexFromNumber(int)} returns 0 for them.
      * Hex dice numbers obscured by {@link #FOG_HEX}, if any, are stored in {@link #fogHiddenHexes} (server only).
-     * Because of bit shifts there, <tt>numberLayoutLg</tt> values must stay within the range -1 to 254.
+     * Values must be in the range -1 to 127.
      *<P>
      * If {@link #villages} are used, each village's dice number is stored in the {@link SOCVillage}.
      */
-    protected int[][] numberLayoutLg;
+    private byte[] numberLayoutLg;
 
     /**
      * For some scenarios, keyed lists of additional layout parts to add to game layout when sent from server to client.
@@ -568,6 +588,10 @@ public class SOCBoardLarge extends SOCBoard
      * <tt>"PP" = { 0x..., 0x... }</tt> for the fixed Pirate Path, and
      * {@link SOCScenario#K_SC_CLVI SC_CLVI} adds {@code "CV"} for the cloth village locations.
      * Null for most scenarios. Initialized in {@code SOCBoardAtServer.makeNewBoard}.
+     *<P>
+     * The arrays are never changed after being added here: At the server most are the scenario's static layout data,
+     * shared by all games using that scenario. To change a part, {@link #setAddedLayoutPart(String, int[])}
+     * replaces it with a new array.
      */
     private HashMap<String, int[]> addedLayoutParts;
 
@@ -583,9 +607,10 @@ public class SOCBoardLarge extends SOCBoard
      * Calls to {@link #setAddedLayoutPart(String, int[])} add them to the {@code specialEdges} map
      * if it recognizes the layout part as a special edge type.
      *<P>
-     * Not many board layouts and scenarios have special edges, so this map is usually empty.
+     * Not many board layouts and scenarios have special edges, so this map is usually null
+     * until one is set.
      */
-    private HashMap<Integer, Integer> specialEdges = new HashMap<Integer, Integer>();
+    private HashMap<Integer, Integer> specialEdges;
 
     /**
      * Actual hex types and dice numbers hidden under {@link #FOG_HEX}.
@@ -594,6 +619,7 @@ public class SOCBoardLarge extends SOCBoard
      *<P>
      * Filled at server only (SOCBoardAtServer.makeNewBoard_hideHexesInFog);
      * the client doesn't know what's under the fog until hexes are revealed.
+     * Null unless the board has hexes hidden in fog.
      * @see #revealFogHiddenHexPrep(int)
      * @see #revealFogHiddenHex(int, int, int)
      */
@@ -686,25 +712,19 @@ public class SOCBoardLarge extends SOCBoard
         final int bH = boardHeightWidth.a, bW = boardHeightWidth.b;
         setBoardBounds(bH, bW);
 
-        hexLayoutLg = new int[bH + 1][bW + 1];
-        numberLayoutLg = new int[bH + 1][bW + 1];
+        // Hex rows are odd-numbered, so r >> 1 is unique for each one;
+        // within a row, hex column numbers are all odd or all even, so c >> 1 is also unique.
+        hexRowLength = (bW >> 1) + 1;
+        hexLayoutLg = new byte[((bH >> 1) + 1) * hexRowLength];  // WATER_HEX == 0
+        numberLayoutLg = new byte[hexLayoutLg.length];
         landHexLayout = new HashSet<Integer>();
-        fogHiddenHexes = new HashMap<Integer, Integer>();
-        legalRoadEdges = new HashSet<Integer>();
-        legalShipEdges = new HashSet<Integer>();
+        legalRoadEdges = new BitSet();
+        legalShipEdges = new BitSet();
 
         // Assume 1 Land Area, unless or until makeNewBoard says otherwise
         landAreasLegalNodes = null;
         startingLandArea = 0;
 
-        // Only odd-numbered rows are valid,
-        // but we fill all rows here just in case.
-        for (int r = 0; r <= bH; ++r)
-        {
-            Arrays.fill(hexLayoutLg[r], WATER_HEX);
-            Arrays.fill(numberLayoutLg[r], 0);
-        }
-
         portsCount = 0;
         pirateHex = 0;
         prevPirateHex = 0;
@@ -740,7 +760,89 @@ public class SOCBoardLarge extends SOCBoard
         }
     }
 
-    // TODO hexLayoutLg, numberLayoutLg will only ever use the odd row numbers
+    /**
+     * Get a hex's index within the packed {@link #hexLayoutLg} and {@link #numberLayoutLg}.
+     * @param r  Hex row number; hexes are in odd rows
+     * @param c  Hex column number; in a given row, all hexes' columns are even or all are odd
+     * @return  the index, or -1 if (r, c) isn't a valid hex coordinate. Doesn't check the board's bounds.
+     * @since 2.0.00
+     */
+    private final int hexIndex(final int r, final int c)
+    {
+        if (((r & 1) == 0) || ((c & 1) != ((r >> 1) & 1)))
+            return -1;
+
+        return (r >> 1) * hexRowLength + (c >> 1);
+    }
+
+    /**
+     * Get a hex's type from the layout, without checking the board's bounds.
+     * @param r  Hex row number, within the board's bounds
+     * @param c  Hex column number, within the board's bounds
+     * @return  Hex type such as {@link #CLAY_HEX} or {@link #WATER_HEX};
+     *     {@link #WATER_HEX} if (r, c) isn't a valid hex coordinate
+     * @see #getHexTypeFromCoord(int)
+     * @since 2.0.00
+     */
+    protected final int getHexLayoutLg(final int r, final int c)
+    {
+        final int i = hexIndex(r, c);
+        return (i >= 0) ? hexLayoutLg[i] : WATER_HEX;
+    }
+
+    /**
+     * Set a hex's type in the layout.
+     * @param r  Hex row number, within the board's bounds
+     * @param c  Hex column number, within the board's bounds
+     * @param hexType  Hex type such as {@link #CLAY_HEX} or {@link #WATER_HEX}, in range 0 to 127
+     * @throws IllegalArgumentException if (r, c) isn't a valid hex coordinate, or {@code hexType} is out of range
+     * @since 2.0.00
+     */
+    protected final void setHexLayoutLg(final int r, final int c, final int hexType)
+        throws IllegalArgumentException
+    {
+        final int i = hexIndex(r, c);
+        if (i < 0)
+            throw new IllegalArgumentException("hex: 0x" + Integer.toHexString((r << 8) | c));
+        if ((hexType < 0) || (hexType > Byte.MAX_VALUE))
+            throw new IllegalArgumentException("hexType: " + hexType);
+
+        hexLayoutLg[i] = (byte) hexType;
+    }
+
+    /**
+     * Get a hex's dice number from the layout, without checking the board's bounds.
+     * @param r  Hex row number, within the board's bounds
+     * @param c  Hex column number, within the board's bounds
+     * @return  Dice number, 0 for water, or -1 for desert or fog; 0 if (r, c) isn't a valid hex coordinate
+     * @see #getNumberOnHexFromCoord(int)
+     * @since 2.0.00
+     */
+    protected final int getNumberLayoutLg(final int r, final int c)
+    {
+        final int i = hexIndex(r, c);
+        return (i >= 0) ? numberLayoutLg[i] : 0;
+    }
+
+    /**
+     * Set a hex's dice number in the layout.
+     * @param r  Hex row number, within the board's bounds
+     * @param c  Hex column number, within the board's bounds
+     * @param num  Dice number, 0 for water, or -1 for desert or fog; in range -1 to 127
+     * @throws IllegalArgumentException if (r, c) isn't a valid hex coordinate, or {@code num} is out of range
+     * @since 2.0.00
+     */
+    protected final void setNumberLayoutLg(final int r, final int c, final int num)
+        throws IllegalArgumentException
+    {
+        final int i = hexIndex(r, c);
+        if (i < 0)
+            throw new IllegalArgumentException("hex: 0x" + Integer.toHexString((r << 8) | c));
+        if ((num < -1) || (num > Byte.MAX_VALUE))
+            throw new IllegalArgumentException("num: " + num);
+
+        numberLayoutLg[i] = (byte) num;
+    }
 
     // TODO unlike roads, is there ever a time when sea edges are _not_ legal?
     //  (assuming water hexes on one or both sides of the edge)
@@ -871,8 +973,8 @@ public class SOCBoardLarge extends SOCBoard
 
                     // OK to add
                     if (hasLand)
-                        legalRoadEdges.add(new Integer(edge));
-                        // it's ok to add if this set already contains an Integer equal to that edge.
+                        legalRoadEdges.set(edgeBitIndex(edge));
+                        // it's ok to add if this set already contains that edge.
                 }
             }
         }
@@ -946,11 +1048,11 @@ public class SOCBoardLarge extends SOCBoard
             }
             for (; c < boardWidth; c += 2)
             {
-                if (hexLayoutLg[r][c] == WATER_HEX)
+                if (getHexLayoutLg(r, c) == WATER_HEX)
                 {
                     final int[] sides = getAdjacentEdgesToHex(rshift | c);
                     for (int i = 0; i < 6; ++i)
-                        legalShipEdges.add(new Integer(sides[i]));
+                        legalShipEdges.set(edgeBitIndex(sides[i]));
                 } else {
                     // Land hex; check if it's at the
                     // edge of the board; this check is also isHexAtBoardMargin(hc)
@@ -960,7 +1062,7 @@ public class SOCBoardLarge extends SOCBoard
                         final int[] sides = getAdjacentEdgesToHex(rshift | c);
                         for (int i = 0; i < 6; ++i)
                             if (isEdgeCoastline(sides[i]))
-                                legalShipEdges.add(new Integer(sides[i]));
+                                legalShipEdges.set(edgeBitIndex(sides[i]));
                     }
                 }
 
@@ -992,7 +1094,8 @@ public class SOCBoardLarge extends SOCBoard
     public int revealFogHiddenHexPrep(final int hexCoord)
         throws IllegalArgumentException
     {
-        final Integer encoded = fogHiddenHexes.remove(Integer.valueOf(hexCoord));
+        final Integer encoded =
+            (fogHiddenHexes != null) ? fogHiddenHexes.remove(Integer.valueOf(hexCoord)) : null;
         if ((encoded == null) || (getHexTypeFromCoord(hexCoord) != FOG_HEX))
             throw new IllegalArgumentException("Not fog: 0x" + Integer.toHexString(hexCoord));
 
@@ -1017,14 +1120,14 @@ public class SOCBoardLarge extends SOCBoard
     {
         final int r = hexCoord >> 8,
                   c = hexCoord & 0xFF;
-        if (hexLayoutLg[r][c] != FOG_HEX)
+        if (getHexLayoutLg(r, c) != FOG_HEX)
             throw new IllegalArgumentException("Not fog: 0x" + Integer.toHexString(hexCoord));
 
         if ((diceNum == 0) && (hexType == DESERT_HEX))
             diceNum = -1;  // internally, desert and fog hex dice numbers are stored as -1 not 0
 
-        hexLayoutLg[r][c] = hexType;
-        numberLayoutLg[r][c] = diceNum;
+        setHexLayoutLg(r, c, hexType);
+        setNumberLayoutLg(r, c, diceNum);
 
         if (hexType == WATER_HEX)
         {
@@ -1032,7 +1135,7 @@ public class SOCBoardLarge extends SOCBoard
             // we didn't know if the fog hid land or water
             final int[] sides = getAdjacentEdgesToHex(hexCoord);
             for (int i = 0; i < 6; ++i)
-                legalShipEdges.add(new Integer(sides[i]));
+                legalShipEdges.set(edgeBitIndex(sides[i]));
         }
     }
 
@@ -1508,7 +1611,7 @@ public class SOCBoardLarge extends SOCBoard
         if ((r < 0) || (c < 0) || (r >= boardHeight) || (c >= boardWidth))
             return 0;
 
-        int num = numberLayoutLg[r][c];
+        int num = getNumberLayoutLg(r, c);
         if (num < 0)
             return 0;
         else
@@ -1591,7 +1694,7 @@ public class SOCBoardLarge extends SOCBoard
             || ((c % 2) != ((r/2) % 2)))
             return -1;  // not a valid hex coordinate
 
-        return hexLayoutLg[r][c];
+        return hexLayoutLg[(r >> 1) * hexRowLength + (c >> 1)];
     }
 
     /**
@@ -1735,7 +1838,7 @@ public class SOCBoardLarge extends SOCBoard
      */
     public boolean hasSpecialEdges()
     {
-        return ! specialEdges.isEmpty();
+        return (specialEdges != null) && ! specialEdges.isEmpty();
     }
 
     /**
@@ -1751,6 +1854,9 @@ public class SOCBoardLarge extends SOCBoard
      */
     public int getSpecialEdgeType(final int edge)
     {
+        if (specialEdges == null)
+            return 0;
+
         Integer typeObj = specialEdges.get(Integer.valueOf(edge));
         if (typeObj == null)
             return 0;
@@ -1769,6 +1875,9 @@ public class SOCBoardLarge extends SOCBoard
      */
     public Iterator<Map.Entry<Integer, Integer>> getSpecialEdges()
     {
+        if (specialEdges == null)
+            return Collections.<Integer, Integer>emptyMap().entrySet().iterator();
+
         return specialEdges.entrySet().iterator();
     }
 
@@ -1784,8 +1893,10 @@ public class SOCBoardLarge extends SOCBoard
         final Integer edgeObj = Integer.valueOf(edge);
         if (seType != 0)
         {
+            if (specialEdges == null)
+                specialEdges = new HashMap<Integer, Integer>();
             specialEdges.put(edgeObj, Integer.valueOf(seType));
-        } else {
+        } else if (specialEdges != null) {
             specialEdges.remove(edgeObj);  // ok to call if edgeObj not in map
         }
     }
@@ -1804,10 +1915,12 @@ public class SOCBoardLarge extends SOCBoard
     {
         if (seType != 0)
         {
+            if (specialEdges == null)
+                specialEdges = new HashMap<Integer, Integer>();
             final Integer setypeObj = Integer.valueOf(seType);
             for (int i = 0; i < edges.length; ++i)
                 specialEdges.put(Integer.valueOf(edges[i]), setypeObj);
-        } else {
+        } else if (specialEdges != null) {
             for (int i = 0; i < edges.length; ++i)
                 specialEdges.remove(Integer.valueOf(edges[i]));
         }
@@ -1820,7 +1933,7 @@ public class SOCBoardLarge extends SOCBoard
      */
     public void clearSpecialEdges(final int seType)
     {
-        if (seType == 0)
+        if ((seType == 0) || (specialEdges == null))
             return;
 
         final Iterator<Map.Entry<Integer, Integer>> seIter = specialEdges.entrySet().iterator();
@@ -2184,8 +2297,8 @@ public class SOCBoardLarge extends SOCBoard
             final int r = hexCoord >> 8,
                       c = hexCoord & 0xFF;
             lh[i] = hexCoord;  ++i;
-            lh[i] = hexLayoutLg[r][c];  ++i;
-            lh[i] = numberLayoutLg[r][c];  ++i;
+            lh[i] = getHexLayoutLg(r, c);  ++i;
+            lh[i] = getNumberLayoutLg(r, c);  ++i;
         }
         return lh;
     }
@@ -2209,11 +2322,8 @@ public class SOCBoardLarge extends SOCBoard
         nodesOnLand.clear();
         legalRoadEdges.clear();
         cachedGetLandHexCoords = null;
-        for (int r = 0; r <= boardHeight; ++r)
-        {
-            Arrays.fill(hexLayoutLg[r], WATER_HEX);
-            Arrays.fill(numberLayoutLg[r], 0);
-        }
+        Arrays.fill(hexLayoutLg, (byte) WATER_HEX);
+        Arrays.fill(numberLayoutLg, (byte) 0);
 
         if (lh == null)
             return;  // all water for now
@@ -2226,8 +2336,8 @@ public class SOCBoardLarge extends SOCBoard
                       c = hexCoord & 0xFF;
             hcoords[ih] = hexCoord;
             landHexLayout.add(new Integer(hexCoord));
-            hexLayoutLg[r][c] = lh[i];  ++i;
-            numberLayoutLg[r][c] = lh[i];  ++i;
+            setHexLayoutLg(r, c, lh[i]);  ++i;
+            setNumberLayoutLg(r, c, lh[i]);  ++i;
         }
         cachedGetLandHexCoords = hcoords;
     }
@@ -2384,7 +2494,7 @@ public class SOCBoardLarge extends SOCBoard
     @Override
     public HashSet<Integer> initPlayerLegalRoads()
     {
-        return new HashSet<Integer>(legalRoadEdges);
+        return edgeBitsToSet(legalRoadEdges);
     }
 
     /**
@@ -2401,7 +2511,118 @@ public class SOCBoardLarge extends SOCBoard
      */
     HashSet<Integer> initPlayerLegalShips()
     {
-        return new HashSet<Integer>(legalShipEdges);
+        return edgeBitsToSet(legalShipEdges);
+    }
+
+    /**
+     * Copy this board for a {@link SOCGame#fork()}ed game.
+     * Also copies the data which can change during play in some scenarios:
+     * Ports (moved in {@link SOCGameOption#K_SC_FTRI _SC_FTRI}), special edges, added layout parts,
+     * and if any hexes are still hidden by fog,
+     * the hex and dice number layouts and legal ship edges.
+     * Before the game's first turn, also copies the land areas' legal nodes.
+     * @since 2.0.00
+     */
+    @Override
+    protected SOCBoard copyForFork(final boolean isSetupDone)
+        throws IllegalStateException
+    {
+        final SOCBoardLarge b = (SOCBoardLarge) super.copyForFork(isSetupDone);
+
+        if ((fogHiddenHexes != null) && ! fogHiddenHexes.isEmpty())
+        {
+            b.fogHiddenHexes = new HashMap<Integer, Integer>(fogHiddenHexes);
+            b.hexLayoutLg = hexLayoutLg.clone();
+            b.numberLayoutLg = numberLayoutLg.clone();
+            b.legalShipEdges = (BitSet) legalShipEdges.clone();
+        }
+        if (portsLayout != null)
+            b.portsLayout = portsLayout.clone();
+        if (nodeIDtoPortType != null)
+            b.nodeIDtoPortType = new HashMap<Integer, Integer>(nodeIDtoPortType);
+        @SuppressWarnings("unchecked")
+        final Vector<Integer>[] bPorts = (Vector<Integer>[]) new Vector<?>[ports.length];
+        for (int i = 0; i < ports.length; ++i)
+            if (ports[i] != null)
+                bPorts[i] = new Vector<Integer>(ports[i]);
+        b.ports = bPorts;
+        if (specialEdges != null)
+            b.specialEdges = new HashMap<Integer, Integer>(specialEdges);
+        if (addedLayoutParts != null)
+            b.addedLayoutParts = new HashMap<String, int[]>(addedLayoutParts);  // arrays aren't changed, only replaced
+
+        if ((! isSetupDone) && (landAreasLegalNodes != null))
+        {
+            b.landAreasLegalNodes = landAreasLegalNodes.clone();
+            for (int i = 0; i < landAreasLegalNodes.length; ++i)
+                if (landAreasLegalNodes[i] != null)
+                    b.landAreasLegalNodes[i] = new HashSet<Integer>(landAreasLegalNodes[i]);
+        }
+
+        return b;
+    }
+
+    /**
+     * For a board made by {@link #copyForFork(boolean)}, also copy the villages.
+     * @since 2.0.00
+     */
+    @Override
+    void copyPiecesForFork(final SOCGame.ForkMap fm)
+    {
+        super.copyPiecesForFork(fm);
+
+        if (villages != null)
+        {
+            final HashMap<Integer, SOCVillage> fv = new HashMap<Integer, SOCVillage>(villages.size());
+            for (final Map.Entry<Integer, SOCVillage> e : villages.entrySet())
+                fv.put(e.getKey(), fm.piece(e.getValue()));
+            villages = fv;
+        }
+    }
+
+    /**
+     * Get an edge coordinate's bit index within {@link #legalRoadEdges} or {@link #legalShipEdges}.
+     * Edges of hexes within the board are at rows 0 to {@link #boardHeight}
+     * and columns 0 to {@link #boardWidth}.
+     * @param edge  Edge coordinate
+     * @return  Bit index for {@code edge}
+     * @see #edgeBitsToSet(BitSet)
+     * @since 2.0.00
+     */
+    private final int edgeBitIndex(final int edge)
+    {
+        return (edge >> 8) * (boardWidth + 1) + (edge & 0xFF);
+    }
+
+    /**
+     * Make a set of the edge coordinates in {@link #legalRoadEdges} or {@link #legalShipEdges}.
+     * @param bits  Edge bits, indexed by {@link #edgeBitIndex(int)}
+     * @return  A new set of the edge coordinates, as {@link Integer}s
+     * @since 2.0.00
+     */
+    private final HashSet<Integer> edgeBitsToSet(final BitSet bits)
+    {
+        final int rowLen = boardWidth + 1;
+        final HashSet<Integer> edges = new HashSet<Integer>(Math.max(16, (int) (bits.cardinality() / 0.75f) + 1));
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+        {
+            final int r = i / rowLen, c = i % rowLen;
+            Integer[] row = edgeCoordIntegers[r];
+            if (row == null)
+            {
+                row = new Integer[256];
+                edgeCoordIntegers[r] = row;
+            }
+            Integer edge = row[c];
+            if (edge == null)
+            {
+                edge = Integer.valueOf((r << 8) | c);
+                row[c] = edge;
+            }
+            edges.add(edge);
+        }
+
+        return edges;
     }
 
 
@@ -2461,9 +2682,9 @@ public class SOCBoardLarge extends SOCBoard
         if (! isHexInBounds(r, c))  // also checks that it's a valid hex row
             return;
 
+        final int htype = getHexLayoutLg(r, c);
         if (includeWater
-            || ((hexLayoutLg[r][c] <= MAX_LAND_HEX_LG)
-                && (hexLayoutLg[r][c] != WATER_HEX)) )
+            || ((htype <= MAX_LAND_HEX_LG) && (htype != WATER_HEX)) )
         {
             addTo.addElement(new Integer((r << 8) | c));
         }
@@ -29,6 +29,8 @@ import soc.message.SOCMessage;  // For static calls only; SOCGame does not inter
 import soc.util.IntPair;
 import soc.util.SOCGameBoardReset;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import java.util.ArrayList;
@@ -36,7 +38,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -98,7 +100,9 @@ public class SOCGame implements Serializable, Cloneable
 {
     /**
      * The main game class has a serialVersionUID; pieces and players don't.
-     * Currently we don't expect to persist a game between versions.
+     * Currently we don't expect to persist a game between versions:
+     * The server's game snapshots (v2.0.00 and newer) are reloaded only by the same version.
+     * @see #readObject(ObjectInputStream)
      */
     private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
 
@@ -587,9 +591,10 @@ public class SOCGame implements Serializable, Cloneable
     private static final int[] EMPTY_INT_ARRAY = { };
 
     /**
-     * monitor for synchronization
+     * monitor for synchronization.
+     * Transient since v2.0.00, so that a game serialized while locked won't be restored locked.
      */
-    boolean inUse;
+    transient boolean inUse;
 
     /**
      * the name of the game
@@ -722,9 +727,10 @@ public class SOCGame implements Serializable, Cloneable
     /**
      * Listener for scenario events on the {@link #hasSeaBoard large sea board}, or null.
      * Package access for read-only use by {@link SOCPlayer}.
+     * Not serialized; call {@link #setScenarioEventListener(SOCScenarioEventListener)} after deserializing.
      * @since 2.0.00
      */
-    SOCScenarioEventListener scenarioEventListener;
+    transient SOCScenarioEventListener scenarioEventListener;
 
     /**
      * For use at server; are there clients connected which aren't at the latest version?
@@ -818,10 +824,12 @@ public class SOCGame implements Serializable, Cloneable
     private SOCBoard board;
 
     /**
-     * the game options ({@link SOCGameOption}), or null
+     * the game options ({@link SOCGameOption}), or null.
+     * Shared with other games having the same options; see {@link SOCGameOptionSet#intern(Map)}.
+     * Before v2.0.00 this was each game's own {@code Map}.
      * @since 1.1.07
      */
-    private Map<String, SOCGameOption> opts;
+    private SOCGameOptionSet opts;
 
     /**
      * the players; never contains a null element, use {@link #isSeatVacant(int)}
@@ -1203,6 +1211,7 @@ public class SOCGame implements Serializable, Cloneable
      *           with <tt>doServerPreadjust</tt> false,
      *           and set game's minimum version by calling
      *           {@link SOCVersionedItem#itemsMinimumVersion(Map)}.
+     *           The game then uses the shared set from {@link SOCGameOptionSet#intern(Map)}, not {@code op} itself.
      * @throws IllegalArgumentException if op contains unknown options, or any
      *             object class besides {@link SOCGameOption}, or if game name
      *             fails {@link SOCMessage#isSingleLineAndSafe(String)}.
@@ -1245,7 +1254,21 @@ public class SOCGame implements Serializable, Cloneable
             // At server, createBoard might add "_BHW" to op if SOCBoardLarge with non-default size.
             // If so, op won't be null because SOCBoardLarge requires game opt "SBL".
 
-        opts = op;
+        if (op == null)
+        {
+            clientVersionMinRequired = -1;
+        } else {
+            final StringBuilder optProblems = SOCGameOption.adjustOptionsToKnown(op, null, false);
+            if (optProblems != null)
+                throw new IllegalArgumentException("op: unknown option(s): " + optProblems);
+
+            // the adjust method will also throw IllegalArg if a non-SOCGameOption
+            // object is found within opts.
+
+            clientVersionMinRequired = SOCVersionedItem.itemsMinimumVersion(op);
+        }
+
+        opts = SOCGameOptionSet.intern(op);
 
         players = new SOCPlayer[maxPlayers];
         seats = new int[maxPlayers];
@@ -1280,20 +1303,6 @@ public class SOCGame implements Serializable, Cloneable
         if (hasSeaBoard)
             placedShipsThisTurn = new Vector<Integer>();
 
-        if (op == null)
-        {
-            clientVersionMinRequired = -1;
-        } else {
-            final StringBuilder optProblems = SOCGameOption.adjustOptionsToKnown(op, null, false);
-            if (optProblems != null)
-                throw new IllegalArgumentException("op: unknown option(s): " + optProblems);
-
-            // the adjust method will also throw IllegalArg if a non-SOCGameOption
-            // object is found within opts.
-
-            clientVersionMinRequired = SOCVersionedItem.itemsMinimumVersion(op);
-        }
-
         if (maxPlayers > 4)
             numDevCards = NUM_DEVCARDS_6PLAYER;
         else
@@ -1676,14 +1685,29 @@ public class SOCGame implements Serializable, Cloneable
     }
 
     /**
-     * @return this game's options ({@link SOCGameOption}), or null
+     * @return this game's options ({@link SOCGameOption}), or null.
+     *     In v2.0.00 and newer, the map is unmodifiable and shared with other games
+     *     which have the same options, so don't change its option objects.
+     *     To change them, call {@link SOCGameOption#cloneOptions(Map)} and change the copy.
      * @since 1.1.07
+     * @see #getGameOptionSet()
      * @see #isGameOptionDefined(String)
      * @see #isGameOptionSet(String)
      * @see #getGameOptionIntValue(String)
      * @see SOCGameOption#packOptionsToString(Map, boolean)
      */
     public Map<String, SOCGameOption> getGameOptions()
+    {
+        return (opts != null) ? opts.getOptions() : null;
+    }
+
+    /**
+     * Get this game's immutable set of options, which is shared with other games having the same options.
+     * @return this game's options, or null
+     * @since 2.0.00
+     * @see #getGameOptions()
+     */
+    public SOCGameOptionSet getGameOptionSet()
     {
         return opts;
     }
@@ -1698,10 +1722,7 @@ public class SOCGame implements Serializable, Cloneable
      */
     public boolean isGameOptionDefined(final String optKey)
     {
-        if (opts == null)
-            return false;
-        else
-            return opts.containsKey(optKey);
+        return (opts != null) && opts.containsKey(optKey);
     }
 
     /**
@@ -1719,7 +1740,7 @@ public class SOCGame implements Serializable, Cloneable
     {
         // OTYPE_* - if a new type is added, update this method's javadoc.
 
-        return isGameOptionSet(opts, optKey);
+        return (opts != null) && opts.isOptionSet(optKey);
     }
 
     /**
@@ -1767,7 +1788,7 @@ public class SOCGame implements Serializable, Cloneable
     {
         // OTYPE_* - if a new type is added, update this method's javadoc.
 
-        return getGameOptionIntValue(opts, optKey);
+        return (opts != null) ? opts.getOptionIntValue(optKey, 0, false) : 0;
     }
 
     /**
@@ -1846,7 +1867,7 @@ public class SOCGame implements Serializable, Cloneable
     {
         // OTYPE_* - if a new type is added, update this method's javadoc.
 
-        return getGameOptionStringValue(opts, optKey);
+        return (opts != null) ? opts.getOptionStringValue(optKey) : null;
     }
 
     /**
@@ -2157,6 +2178,26 @@ public class SOCGame implements Serializable, Cloneable
         return numDevCards;
     }
 
+    /**
+     * At server, get the development cards remaining to be bought, in the order they'll be bought:
+     * Element 0 is the next card. Used for logging random outcomes such as the deck shuffle.
+     * @return  a copy of the remaining dev card types from {@link SOCDevCardConstants};
+     *     empty if none remain or not called at server
+     * @see #getNumDevCards()
+     * @since 2.0.00
+     */
+    public int[] getDevCardDeckRemaining()
+    {
+        if ((devCardDeck == null) || (numDevCards <= 0))
+            return EMPTY_INT_ARRAY;
+
+        final int[] cards = new int[numDevCards];
+        for (int i = 0; i < numDevCards; ++i)
+            cards[i] = devCardDeck[numDevCards - 1 - i];
+
+        return cards;
+    }
+
     /**
      * set the number of dev cards in the deck
      *
@@ -3060,12 +3101,11 @@ public class SOCGame implements Serializable, Cloneable
             else if (isInitialPlacement() && (pp instanceof SOCSettlement))
             {
                 // settlements
-                final Collection<Integer> hexColl = board.getAdjacentHexesToNode(coord);
-                int[] seHexes = new int[hexColl.size()];
-                int i;
-                Iterator<Integer> hi;
-                for (i = 0, hi = hexColl.iterator(); hi.hasNext(); ++i)
-                    seHexes[i] = hi.next();
+                final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
+                final int iStart = hexesToNode.start(coord);
+                int[] seHexes = new int[hexesToNode.end(coord) - iStart];
+                for (int i = 0; i < seHexes.length; ++i)
+                    seHexes[i] = hexesToNode.get(iStart + i);
                 putPieceCommon_checkFogHexes(seHexes, true);
 
                 // Any settlement might reveal 1-3 fog hexes.
@@ -3138,12 +3178,12 @@ public class SOCGame implements Serializable, Cloneable
                      && (ppPlayer.getPieces().size() == (init3 ? 5 : 3))) )
             {
                 SOCResourceSet resources = new SOCResourceSet();
-                Vector<Integer> hexes = board.getAdjacentHexesToNode(coord);
+                final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
                 int goldHexAdjacent = 0;
 
-                for (Integer hex : hexes)
+                for (int i = hexesToNode.start(coord), iEnd = hexesToNode.end(coord); i < iEnd; ++i)
                 {
-                    final int hexCoord = hex.intValue();
+                    final int hexCoord = hexesToNode.get(i);
 
                     switch (board.getHexTypeFromCoord(hexCoord))
                     {
@@ -3851,6 +3891,50 @@ public class SOCGame implements Serializable, Cloneable
         oldLRStats.restoreOldStats(this);
     }
 
+    /**
+     * For search in a {@link #fork()}ed game or a robot's copy, build a piece:
+     * The piece's player pays its cost, and the piece is put on the board as a temporary piece,
+     * updating all players' potentials and longest road.
+     * Take the move back with {@link #undoBuildMove(SOCPlayingPiece)}.
+     * Moves can be nested; undo them in reverse order.
+     *<P>
+     * Does not check whether the move is legal or the player can afford it, and doesn't change
+     * game state, current player, or turn: Call {@link #couldBuildRoad(int)}, {@link SOCPlayer#isPotentialRoad(int)},
+     * etc before calling this method.
+     *<P>
+     * At the server a road, ship, or initial settlement may reveal hexes hidden by fog.
+     * Undoing the move doesn't hide them again.
+     *
+     * @param pp  Piece to build: A {@link SOCRoad}, {@link SOCSettlement}, {@link SOCCity}, or {@link SOCShip}
+     * @throws IllegalArgumentException  if {@code pp} is a piece type which players can't build
+     * @see #putTempPiece(SOCPlayingPiece)
+     * @since 2.0.00
+     */
+    public void applyBuildMove(final SOCPlayingPiece pp)
+        throws IllegalArgumentException
+    {
+        final SOCResourceSet cost = SOCPlayingPiece.getResourcesToBuild(pp.getType());
+        pp.getPlayer().getResources().subtract(cost);
+        putTempPiece(pp);
+    }
+
+    /**
+     * Take back a move made by {@link #applyBuildMove(SOCPlayingPiece)}:
+     * Remove the temporary piece and give its cost back to its player.
+     * If several moves were made, undo the most recent first.
+     *
+     * @param pp  The piece from the most recent {@code applyBuildMove} not yet undone
+     * @throws IllegalArgumentException  if {@code pp} is a piece type which players can't build
+     * @see #undoPutTempPiece(SOCPlayingPiece)
+     * @since 2.0.00
+     */
+    public void undoBuildMove(final SOCPlayingPiece pp)
+        throws IllegalArgumentException
+    {
+        undoPutTempPiece(pp);
+        pp.getPlayer().getResources().add(SOCPlayingPiece.getResourcesToBuild(pp.getType()));
+    }
+
     /**
      * undo the putting of an initial settlement.
      * If state is START2B or START3B and resources were given, they will be returned.
@@ -3910,7 +3994,7 @@ public class SOCGame implements Serializable, Cloneable
 
         startGame_setupDevCards();
 
-        board.makeNewBoard(opts);
+        board.makeNewBoard(getGameOptions());
         if (hasSeaBoard)
         {
             /**
@@ -3961,7 +4045,7 @@ public class SOCGame implements Serializable, Cloneable
         {
             // 6-player set
             devCardDeck = new int[NUM_DEVCARDS_6PLAYER];
-        } else if (sc_piri_devcards && (getGameOptionIntValue(opts, "PL", 4, false) < 4)) {
+        } else if (sc_piri_devcards && (opts.getOptionIntValue("PL", 4, false) < 4)) {
             // _SC_PIRI with 2 or 3 players omits Victory Point cards
             devCardDeck = new int[NUM_DEVCARDS_STANDARD - NUM_DEVCARDS_VP];
             numDevCards = devCardDeck.length;
@@ -5184,13 +5268,15 @@ public class SOCGame implements Serializable, Cloneable
         (final int roll, SOCResourceSet resources, SOCResourceSet missedResources,
          final int robberHex, Collection<? extends SOCPlayingPiece> sEnum, final int incr)
     {
+        final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
+
         for (SOCPlayingPiece sc : sEnum)
         {
-            Collection<Integer> hexes = board.getAdjacentHexesToNode(sc.getCoordinates());
+            final int node = sc.getCoordinates();
 
-            for (Integer hex : hexes)
+            for (int i = hexesToNode.start(node), iEnd = hexesToNode.end(node); i < iEnd; ++i)
             {
-                final int hexCoord = hex.intValue();
+                final int hexCoord = hexesToNode.get(i);
                 SOCResourceSet rset = hexCoord != robberHex ? resources : missedResources;
                 if (board.getNumberOnHexFromCoord(hexCoord) == roll)
                 {
@@ -6042,7 +6128,7 @@ public class SOCGame implements Serializable, Cloneable
             {
                 // find player's newest-placed ship adjacent to shipEdge;
                 // it will also be lost
-                final Vector<Integer> adjacEdges = board.getAdjacentEdgesToEdge(shipEdge);
+                final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
                 Vector<SOCRoad> roadsAndShips = currPlayer.getRoads();
                 for (int i = roadsAndShips.size() - 1; i >= 0; --i)
                 {
@@ -6051,7 +6137,7 @@ public class SOCGame implements Serializable, Cloneable
                         continue;
 
                     final int rsCoord = rs.getCoordinates();
-                    if (! adjacEdges.contains(Integer.valueOf(rsCoord)))
+                    if (! edgesToEdge.contains(shipEdge, rsCoord))
                         continue;
 
                     retval[2] = rsCoord;
@@ -7868,6 +7954,44 @@ public class SOCGame implements Serializable, Cloneable
         return true;
     }
 
+    /**
+     * Seed the random number generators used by this game and its board, so that a game started
+     * with the same seed and given the same player actions has the same board layout, dice rolls,
+     * dev card deck order, and other random outcomes. Used by the server's replay log.
+     *<P>
+     * Call before {@link #startGame()}. Otherwise each game is unpredictable, as if seeded from the clock.
+     * @param seed  Seed for {@link Random#Random(long)}
+     * @since 2.0.00
+     */
+    public void setRandomSeed(final long seed)
+    {
+        rand = new Random(seed);
+        board.rand = new Random(~seed);
+    }
+
+    /**
+     * Deserialize this game, such as a server game snapshot, and set up its transient fields:
+     * If {@link #isAtServer}, game's and players' {@link #pendingMessagesOut} queues are created empty,
+     * as {@link #startGame()} does. The {@link #setScenarioEventListener(SOCScenarioEventListener) scenario listener}
+     * isn't restored; caller must set it if needed.
+     * @param in  Stream to read from
+     * @throws IOException  if thrown by {@link ObjectInputStream#defaultReadObject()}
+     * @throws ClassNotFoundException  if thrown by {@link ObjectInputStream#defaultReadObject()}
+     * @since 2.0.00
+     */
+    private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+
+        if (isAtServer)
+        {
+            pendingMessagesOut = new ArrayList<Object>();
+            for (int i = 0; i < maxPlayers; ++i)
+                players[i].pendingMessagesOut = new ArrayList<Object>();
+        }
+    }
+
     /**
      * set vars to null so gc can clean up
      */
@@ -7888,6 +8012,125 @@ public class SOCGame implements Serializable, Cloneable
         pendingMessagesOut = null;
     }
 
+    /**
+     * Make an independent, fully playable copy of this game's current state, for robots or other code
+     * which search ahead by trying moves in copies of the game. Copies the board, players, their pieces,
+     * resources, dev cards and potential/legal placements, the dev card deck, and game state.
+     * Changes to the fork don't affect this game, and vice versa.
+     *<P>
+     * To be fast, the fork shares data which doesn't change once the board is laid out, instead of copying it:
+     * Game options, board geometry and adjacency, and (after initial placement) the land nodes.
+     * Board data which can still change, such as sea board ports and hexes hidden by fog, is copied.
+     * See {@link SOCBoard#copyForFork(boolean)}.
+     *<P>
+     * The fork has no {@link #pendingMessagesOut}, scenario event listener, or board reset info,
+     * and has its own random number generator. It's not in any game list.
+     * Forking is not thread-safe: This game must not be changed while it's being forked.
+     *<P>
+     * To try a build and take it back without forking, see {@link #applyBuildMove(SOCPlayingPiece)}.
+     *
+     * @return  A copy of this game
+     * @throws IllegalStateException  if this game's objects can't be cloned (internal error; should not occur),
+     *     or if {@link #destroyGame()} was called
+     * @see #fork(boolean)
+     * @see #resetAsCopy()
+     * @since 2.0.00
+     */
+    public SOCGame fork()
+        throws IllegalStateException
+    {
+        return fork(false);
+    }
+
+    /**
+     * Make an independent copy of this game's current state, like {@link #fork()},
+     * which optionally applies the game rules as the server's copy of the game does.
+     *<P>
+     * At a client, some game methods leave it to the server to advance the game state:
+     * For example, placing an initial settlement doesn't change the state to place a road.
+     * A robot which plays out moves in forks of its own game needs the fork to advance
+     * state and turns itself. The fork still has only the client's knowledge of the game:
+     * Opponents' resources may be {@link SOCResourceConstants#UNKNOWN}, and any
+     * {@link SOCBoardLarge#FOG_HEX fog hex} can't be revealed.
+     *
+     * @param asServer  If true, the fork applies rules as if it were the server's copy of the game
+     * @return  A copy of this game
+     * @throws IllegalStateException  if this game's objects can't be cloned (internal error; should not occur),
+     *     or if {@link #destroyGame()} was called
+     * @since 2.0.00
+     */
+    public SOCGame fork(final boolean asServer)
+        throws IllegalStateException
+    {
+        if (players == null)
+            throw new IllegalStateException("destroyed");
+
+        final SOCGame fg;
+        try
+        {
+            fg = (SOCGame) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, game should be cloneable", e);
+        }
+
+        fg.inUse = false;
+        fg.pendingMessagesOut = null;
+        fg.scenarioEventListener = null;
+        fg.boardResetOngoingInfo = null;
+        fg.rand = new Random();
+        if (boardResetVotes != null)
+            fg.boardResetVotes = boardResetVotes.clone();
+        fg.seats = seats.clone();
+        fg.seatLocks = seatLocks.clone();
+        if (devCardDeck != null)
+            fg.devCardDeck = devCardDeck.clone();
+        if (placedShipsThisTurn != null)
+            fg.placedShipsThisTurn = new Vector<Integer>(placedShipsThisTurn);
+        if (startTime != null)
+            fg.startTime = (Date) startTime.clone();
+        try
+        {
+            if (placingItem != null)
+                fg.placingItem = placingItem.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, inventory items should be cloneable", e);
+        }
+
+        // Board and players first, then their pieces, which refer to both
+        fg.board = board.copyForFork(gameState >= ROLL_OR_CARD);
+        fg.players = new SOCPlayer[maxPlayers];
+        for (int pn = 0; pn < maxPlayers; ++pn)
+            fg.players[pn] = players[pn].copyForFork(fg);
+
+        final ForkMap fm = new ForkMap(fg);
+        for (int pn = 0; pn < maxPlayers; ++pn)
+            fg.players[pn].copyPiecesForFork(fm);
+        fg.board.copyPiecesForFork(fm);
+
+        fg.spItems = fm.itemLists(spItems);
+
+        fg.oldPlayerWithLongestRoad = new Stack<SOCOldLRStats>();
+        for (final SOCOldLRStats old : oldPlayerWithLongestRoad)
+            fg.oldPlayerWithLongestRoad.push(new SOCOldLRStats(old, fm.player(old.playerWithLR)));
+
+        if (currentRoll != null)
+            fg.currentRoll = currentRoll.copyForFork(fm);
+        if (robberResult != null)
+        {
+            final SOCMoveRobberResult rr = new SOCMoveRobberResult();
+            rr.victims = fm.players(robberResult.victims);
+            rr.loot = robberResult.loot;
+            if (robberResult.sc_piri_loot != null)
+                rr.sc_piri_loot = robberResult.sc_piri_loot.copy();
+            fg.robberResult = rr;
+        }
+
+        if (asServer)
+            fg.isAtServer = true;
+
+        return fg;
+    }
+
     /**
      * Create a new game with same players and name, new board;
      * like calling constructor otherwise.
@@ -7911,7 +8154,7 @@ public class SOCGame implements Serializable, Cloneable
      */
     public SOCGame resetAsCopy()
     {
-        SOCGame cp = new SOCGame(name, active, SOCGameOption.cloneOptions(opts));
+        SOCGame cp = new SOCGame(name, active, SOCGameOption.cloneOptions(getGameOptions()));
             // the constructor will set most fields, based on game options
 
         cp.isFromBoardReset = true;
@@ -8439,6 +8682,145 @@ public class SOCGame implements Serializable, Cloneable
         CLEAR_ON_RESET
     }
 
+    /**
+     * Mappings from a game's objects to their copies in a {@link SOCGame#fork()} of that game,
+     * used while copying pieces and other objects which refer to players or the board.
+     * Each original piece or special item is copied once, so objects shared between lists
+     * (such as a player's {@code pieces} and {@code roads}) are still shared in the fork.
+     * @since 2.0.00
+     */
+    static final class ForkMap
+    {
+        /** The fork being made; its board and players are already copied */
+        final SOCGame game;
+
+        /** The fork's board */
+        final SOCBoard board;
+
+        /** Original pieces and special items, mapped to their copies */
+        private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<Object, Object>();
+
+        ForkMap(final SOCGame fg)
+        {
+            game = fg;
+            board = fg.board;
+        }
+
+        /**
+         * Get the fork's player with the same player number.
+         * @param pl  Player in the original game, or {@code null}
+         * @return  The fork's player, or {@code null} if {@code pl} is null
+         */
+        SOCPlayer player(final SOCPlayer pl)
+        {
+            return (pl != null) ? game.players[pl.getPlayerNumber()] : null;
+        }
+
+        /**
+         * Get the fork's players for a list of players.
+         * @param pls  Players in the original game, or {@code null}
+         * @return  A new list of the fork's players, or {@code null} if {@code pls} is null
+         */
+        Vector<SOCPlayer> players(final Vector<SOCPlayer> pls)
+        {
+            if (pls == null)
+                return null;
+
+            final Vector<SOCPlayer> fpls = new Vector<SOCPlayer>(pls.size());
+            for (final SOCPlayer pl : pls)
+                fpls.add(player(pl));
+
+            return fpls;
+        }
+
+        /**
+         * Get the fork's copy of a piece, copying it if not already done.
+         * @param pp  Piece in the original game, or {@code null}
+         * @return  The fork's copy of {@code pp}, or {@code null} if {@code pp} is null
+         */
+        @SuppressWarnings("unchecked")
+        <T extends SOCPlayingPiece> T piece(final T pp)
+        {
+            if (pp == null)
+                return null;
+
+            Object cp = copies.get(pp);
+            if (cp == null)
+            {
+                cp = pp.copyForFork(this);
+                copies.put(pp, cp);
+            }
+
+            return (T) cp;
+        }
+
+        /**
+         * Get a list of the fork's copies of pieces.
+         * @param pps  Pieces in the original game, or {@code null}
+         * @return  A new list of the copies, or {@code null} if {@code pps} is null
+         */
+        <T extends SOCPlayingPiece> Vector<T> pieces(final Vector<T> pps)
+        {
+            if (pps == null)
+                return null;
+
+            final Vector<T> fpps = new Vector<T>(Math.max(10, pps.size()));
+            for (final T pp : pps)
+                fpps.add(piece(pp));
+
+            return fpps;
+        }
+
+        /**
+         * Get the fork's copy of a special item, copying it if not already done.
+         * @param itm  Special item in the original game, or {@code null}
+         * @return  The fork's copy of {@code itm}, or {@code null} if {@code itm} is null
+         * @throws IllegalStateException  if {@code itm} can't be cloned (internal error; should not occur)
+         */
+        SOCSpecialItem item(final SOCSpecialItem itm)
+            throws IllegalStateException
+        {
+            if (itm == null)
+                return null;
+
+            SOCSpecialItem cp = (SOCSpecialItem) copies.get(itm);
+            if (cp == null)
+            {
+                try
+                {
+                    cp = itm.clone();
+                } catch (CloneNotSupportedException e) {
+                    throw new IllegalStateException("Internal error, special items should be cloneable", e);
+                }
+                cp.setPlayer(player(itm.getPlayer()));
+                copies.put(itm, cp);
+            }
+
+            return cp;
+        }
+
+        /**
+         * Copy a game's or player's special item lists.
+         * @param itemLists  Special item lists, keyed by type; not null
+         * @return  A new map with copies of the lists and their items
+         */
+        HashMap<String, ArrayList<SOCSpecialItem>> itemLists
+            (final HashMap<String, ArrayList<SOCSpecialItem>> itemLists)
+        {
+            final HashMap<String, ArrayList<SOCSpecialItem>> fLists = new HashMap<String, ArrayList<SOCSpecialItem>>();
+            for (final Map.Entry<String, ArrayList<SOCSpecialItem>> e : itemLists.entrySet())
+            {
+                final ArrayList<SOCSpecialItem> li = e.getValue();
+                final ArrayList<SOCSpecialItem> fli = new ArrayList<SOCSpecialItem>(li.size());
+                for (final SOCSpecialItem itm : li)
+                    fli.add(item(itm));
+                fLists.put(e.getKey(), fli);
+            }
+
+            return fLists;
+        }
+    }
+
     /**
      * Dice roll result, for reporting from {@link SOCGame#rollDice()}.
      * Each game has 1 instance of this object, which is updated each turn.
@@ -8446,7 +8828,10 @@ public class SOCGame implements Serializable, Cloneable
      * @since 2.0.00
      */
     public static class RollResult
+        implements Serializable
     {
+        private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
+
         /**
          * The dice numbers rolled, each 1 to 6.
          */
@@ -8504,6 +8889,25 @@ public class SOCGame implements Serializable, Cloneable
             sc_robPossibleVictims = null;
         }
 
+        /**
+         * Copy this result for a {@link SOCGame#fork()}ed game.
+         * @param fm  The fork's mappings
+         * @return  A copy of this result, with the fork's players
+         */
+        RollResult copyForFork(final ForkMap fm)
+        {
+            final RollResult rr = new RollResult();
+            rr.diceA = diceA;
+            rr.diceB = diceB;
+            rr.cloth = cloth;  // not changed after set
+            rr.sc_robPossibleVictims = fm.players(sc_robPossibleVictims);
+            rr.sc_piri_fleetAttackVictim = fm.player(sc_piri_fleetAttackVictim);
+            if (sc_piri_fleetAttackRsrcs != null)
+                rr.sc_piri_fleetAttackRsrcs = sc_piri_fleetAttackRsrcs.copy();
+
+            return rr;
+        }
+
     }  // nested class RollResult
 
 }
@@ -109,6 +109,8 @@ import soc.message.SOCMessage;
 public class SOCGameOption
     extends SOCVersionedItem implements Cloneable, Comparable<Object>
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     /**
      * {@link #optFlags} bitfield constant to indicate option should be dropped if unset/default.
      * If this option's value is the default, then server should not add it to game options
@@ -294,6 +296,13 @@ public class SOCGameOption
      */
     private static Map<String, SOCGameOption> allOptions = initAllOptions();
 
+    /**
+     * Incremented whenever a known option is added, changed, or has its current value set.
+     * @see #getKnownOptionsGeneration()
+     * @since 2.0.00
+     */
+    private static volatile int allOptionsGeneration;
+
     /**
      * List of options to refresh on-screen after a change during game creation;
      * filled by {@link #refreshDisplay()}.  Not thread-safe.
@@ -1354,6 +1363,18 @@ public class SOCGameOption
         return cloneOptions(allOptions);
     }
 
+    /**
+     * Get the known options' generation number, which changes whenever
+     * {@link #addKnownOption(SOCGameOption)} or {@link #setKnownOptionCurrentValue(SOCGameOption)} is called.
+     * Caches of info derived from the known options can compare it to see if they're out of date.
+     * @return  the current generation number
+     * @since 2.0.00
+     */
+    public static int getKnownOptionsGeneration()
+    {
+        return allOptionsGeneration;
+    }
+
     /**
      * Add a new known option (presumably received from a server of newer or older version),
      * or update the option's information.
@@ -1385,6 +1406,8 @@ public class SOCGameOption
 
 	        allOptions.put(oKey, onew);
 	    }
+
+	    ++allOptionsGeneration;
 	}
 
 	return ! hadIt;
@@ -1436,6 +1459,8 @@ public class SOCGameOption
                 oKnown.setStringValue(ocurr.strValue);
                 break;
             }
+
+            ++allOptionsGeneration;
         }
     }
 
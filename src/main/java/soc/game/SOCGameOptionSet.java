@@ -0,0 +1,255 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.game;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An immutable set of {@link SOCGameOption}s with their current values, shared by all games
+ * which have the same options. Most games use one of a few option combinations, so instead of
+ * each {@link SOCGame} keeping its own copy, games reference the canonical set from {@link #intern(Map)}.
+ *<P>
+ * The set's options are copies made when the set was interned, and must not be changed:
+ * {@link #getOptions()} returns an unmodifiable map, but the {@link SOCGameOption} objects in it
+ * are shared by every game using this set. To change options, call
+ * {@link SOCGameOption#cloneOptions(Map)} and change the copy.
+ *<P>
+ * Sets are interned by their options' keys and values, and by
+ * {@link SOCGameOption#getKnownOptionsGeneration()} so that games created after the known options
+ * change (for example, localized at the client) get copies of the updated options.
+ * The intern pool holds sets by weak reference, so unused sets can be garbage-collected.
+ * Deserializing a set returns the canonical interned set.
+ *<P>
+ * Methods are thread-safe.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class SOCGameOptionSet
+    implements Serializable
+{
+    private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
+
+    /**
+     * Minimum size of {@link #interned} before removing cleared references.
+     * @see #internedPruneSize
+     */
+    private static final int INTERNED_PRUNE_MIN = 64;
+
+    /**
+     * Interned sets. Key = {@link #makeKey(Map)}, value = reference to the set.
+     * Synchronize on this map when using it.
+     */
+    private static final HashMap<String, WeakReference<SOCGameOptionSet>> interned
+        = new HashMap<String, WeakReference<SOCGameOptionSet>>();
+
+    /**
+     * When {@link #interned} reaches this size, {@link #intern(Map)} removes any cleared references.
+     * Synchronize on {@link #interned} when using.
+     */
+    private static int internedPruneSize = INTERNED_PRUNE_MIN;
+
+    /** This set's options, keyed by {@link SOCGameOption#key}. Never changed after construction. */
+    private final HashMap<String, SOCGameOption> opts;
+
+    /** Unmodifiable view of {@link #opts}, for {@link #getOptions()} */
+    private final transient Map<String, SOCGameOption> optsView;
+
+    /**
+     * Create a set; only {@link #intern(Map)} calls this.
+     * @param opts  Options, which no other object will reference
+     */
+    private SOCGameOptionSet(final HashMap<String, SOCGameOption> opts)
+    {
+        this.opts = opts;
+        optsView = Collections.unmodifiableMap(opts);
+    }
+
+    /**
+     * Get the canonical set with the same options and values as {@code opts}.
+     * If none exists yet, creates it from a copy of {@code opts}.
+     * @param opts  Options; not changed or referenced by the returned set. May be empty.
+     * @return  The canonical set for {@code opts}, or {@code null} if {@code opts} is null
+     */
+    public static SOCGameOptionSet intern(final Map<String, SOCGameOption> opts)
+    {
+        if (opts == null)
+            return null;
+
+        final String k = makeKey(opts);
+        synchronized (interned)
+        {
+            final WeakReference<SOCGameOptionSet> ref = interned.get(k);
+            SOCGameOptionSet s = (ref != null) ? ref.get() : null;
+            if (s == null)
+            {
+                s = new SOCGameOptionSet(new HashMap<String, SOCGameOption>(SOCGameOption.cloneOptions(opts)));
+
+                if (interned.size() >= internedPruneSize)
+                {
+                    Iterator<WeakReference<SOCGameOptionSet>> iter = interned.values().iterator();
+                    while (iter.hasNext())
+                        if (iter.next().get() == null)
+                            iter.remove();
+
+                    internedPruneSize = Math.max(INTERNED_PRUNE_MIN, 2 * interned.size());
+                }
+                interned.put(k, new WeakReference<SOCGameOptionSet>(s));
+            }
+
+            return s;
+        }
+    }
+
+    /**
+     * Get the intern key for a group of options: {@link SOCGameOption#getKnownOptionsGeneration()},
+     * then each option's key and {@link SOCGameOption#packValue(StringBuilder) packed value}, sorted by key.
+     * @param opts  Options; not null
+     * @return  The key
+     */
+    private static String makeKey(final Map<String, SOCGameOption> opts)
+    {
+        final String[] keys;
+        synchronized (opts)
+        {
+            keys = opts.keySet().toArray(new String[opts.size()]);
+        }
+        Arrays.sort(keys);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(SOCGameOption.getKnownOptionsGeneration());
+        for (final String okey : keys)
+        {
+            final SOCGameOption op = opts.get(okey);
+            if (op == null)
+                continue;
+            sb.append(',').append(okey).append('=');
+            op.packValue(sb);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Get this set's options.
+     * @return  Unmodifiable map of the options, keyed by {@link SOCGameOption#key};
+     *     don't change the option objects, which are shared
+     */
+    public Map<String, SOCGameOption> getOptions()
+    {
+        return optsView;
+    }
+
+    /**
+     * Get the number of options in this set.
+     * @return  Number of options; may be 0
+     */
+    public int size()
+    {
+        return opts.size();
+    }
+
+    /**
+     * Is this option contained in the set?
+     * @param optKey  Name of a {@link SOCGameOption}
+     * @return  True if option is in this set
+     * @see SOCGame#isGameOptionDefined(String)
+     */
+    public boolean containsKey(final String optKey)
+    {
+        return opts.containsKey(optKey);
+    }
+
+    /**
+     * Get an option from this set.
+     * @param optKey  Name of a {@link SOCGameOption}
+     * @return  The option, or {@code null} if not in this set; don't change it, it's shared
+     */
+    public SOCGameOption get(final String optKey)
+    {
+        return opts.get(optKey);
+    }
+
+    /**
+     * Is this boolean-valued option set to true?
+     * @param optKey  Name of a {@link SOCGameOption} with a boolean value
+     * @return  True if option's boolean value is set, false if not set or not in this set
+     * @see SOCGame#isGameOptionSet(String)
+     */
+    public boolean isOptionSet(final String optKey)
+    {
+        final SOCGameOption op = opts.get(optKey);
+        return (op != null) && op.getBoolValue();
+    }
+
+    /**
+     * What is this integer option's value?
+     * @param optKey  Name of a {@link SOCGameOption} with an integer value
+     * @param defValue  Default value to use if {@code optKey} not in this set
+     * @param onlyIfBoolSet  Check the option's {@link SOCGameOption#getBoolValue()} too;
+     *     if false, return {@code defValue}
+     * @return  Option's {@link SOCGameOption#getIntValue()}, or {@code defValue}
+     * @see SOCGame#getGameOptionIntValue(Map, String, int, boolean)
+     */
+    public int getOptionIntValue(final String optKey, final int defValue, final boolean onlyIfBoolSet)
+    {
+        final SOCGameOption op = opts.get(optKey);
+        if ((op == null) || (onlyIfBoolSet && ! op.getBoolValue()))
+            return defValue;
+
+        return op.getIntValue();
+    }
+
+    /**
+     * What is this string option's value?
+     * @param optKey  Name of a {@link SOCGameOption} with a string value
+     * @return  Option's {@link SOCGameOption#getStringValue()}, or {@code null} if not in this set
+     * @see SOCGame#getGameOptionStringValue(String)
+     */
+    public String getOptionStringValue(final String optKey)
+    {
+        final SOCGameOption op = opts.get(optKey);
+        return (op != null) ? op.getStringValue() : null;
+    }
+
+    /**
+     * When deserializing, use the canonical set instead of the new copy.
+     * @return  Interned set with these options
+     */
+    private Object readResolve()
+    {
+        return intern(opts);
+    }
+
+    /**
+     * @return  A human-readable form of the set, from {@link SOCGameOption#packOptionsToString(Map, boolean)}
+     */
+    public String toString()
+    {
+        return "SOCGameOptionSet[" + SOCGameOption.packOptionsToString(opts, false) + ']';
+    }
+
+}
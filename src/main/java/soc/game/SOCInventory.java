@@ -21,6 +21,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -39,7 +40,10 @@ import java.util.List;
  * Before v2.0.00, this class was named {@code SOCDevCardSet}.
  */
 public class SOCInventory
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     /**
      * Age constant: An old item can either be played this turn (state {@link #PLAYABLE})
      * or is kept in hand until the end of the game (state {@link #KEPT}) such as a Victory Point card.
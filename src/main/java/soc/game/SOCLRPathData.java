@@ -20,6 +20,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.Vector;
 
 import soc.util.IntPair;
@@ -30,7 +31,10 @@ import soc.util.IntPair;
  * @author $author$
  */
 public class SOCLRPathData
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     private int beginningCoord;
     private int endCoord;
     private int length;
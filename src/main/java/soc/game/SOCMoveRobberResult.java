@@ -21,6 +21,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.Vector;
 
 
@@ -32,7 +33,10 @@ import java.util.Vector;
  * Each game has 1 instance of this object, which is updated each time the robber or pirate is moved.
  */
 public class SOCMoveRobberResult
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     /** Victim, or possible victims, or empty or null; content type {@link SOCPlayer} */
     Vector<SOCPlayer> victims;
 
@@ -20,6 +20,8 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
+
 import soc.disableDebug.D;
 
 
@@ -33,7 +35,10 @@ import soc.disableDebug.D;
  * @author  Robert S. Thomas
  */
 public class SOCOldLRStats
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     int[] lrLengths;
     SOCPlayer playerWithLR;
 
@@ -65,6 +70,18 @@ public class SOCOldLRStats
         }
     }
 
+    /**
+     * Copy saved stats for a {@link SOCGame#fork()}ed game.
+     * @param old  Stats to copy
+     * @param playerWithLR  The fork's player with the same number as {@code old}'s LR player, or {@code null}
+     * @since 2.0.00
+     */
+    SOCOldLRStats(final SOCOldLRStats old, final SOCPlayer playerWithLR)
+    {
+        lrLengths = old.lrLengths;  // not changed after construction
+        this.playerWithLR = playerWithLR;
+    }
+
     /**
      * Restores the old LR stats within game state, from this object's saved data,
      * after removing a temporary piece.
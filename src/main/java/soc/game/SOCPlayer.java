@@ -37,7 +37,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;  // for javadoc
+import java.util.Map;
 import java.util.Stack;
 import java.util.Vector;
 
@@ -696,6 +696,85 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         startingLandArea2 = player.startingLandArea2;
     }
 
+    /**
+     * Copy this player for a {@link SOCGame#fork()}ed game.
+     * Unlike {@link #SOCPlayer(SOCPlayer)} this copies all fields, some of them by cloning this player.
+     * The copy's piece lists and special items still refer to this player's until
+     * {@link #copyPiecesForFork(SOCGame.ForkMap)} is called.
+     * @param fg  The fork, which the copy will be in
+     * @return  A copy of this player
+     * @throws IllegalStateException  if this player or its dev cards can't be cloned
+     *     (internal error; should not occur)
+     * @since 2.0.00
+     */
+    SOCPlayer copyForFork(final SOCGame fg)
+        throws IllegalStateException
+    {
+        final SOCPlayer pl;
+        try
+        {
+            pl = (SOCPlayer) clone();
+            pl.inventory = new SOCInventory(inventory);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, player and cards should be cloneable", e);
+        }
+
+        pl.game = fg;
+        pl.pendingMessagesOut = null;
+        pl.isTradeRouteFarEndClosed_foundVillage = null;
+        pl.numPieces = numPieces.clone();
+        pl.lrPaths = new Vector<SOCLRPathData>(lrPaths);  // path data isn't changed after it's calculated
+        pl.resources = resources.copy();
+        pl.rolledResources = rolledResources.copy();
+        if (lastActionBankTrade_give != null)
+            pl.lastActionBankTrade_give = lastActionBankTrade_give.copy();
+        if (lastActionBankTrade_get != null)
+            pl.lastActionBankTrade_get = lastActionBankTrade_get.copy();
+        pl.resourceStats = resourceStats.clone();
+        if (svpInfo != null)
+            pl.svpInfo = new ArrayList<SpecialVPInfo>(svpInfo);  // SpecialVPInfo is immutable
+        pl.ourNumbers = new SOCPlayerNumbers(ourNumbers);
+        pl.ports = ports.clone();
+        if (currentOffer != null)
+            pl.currentOffer = new SOCTradeOffer(currentOffer);
+
+        pl.roadNodes = new Vector<Integer>(roadNodes);
+        pl.roadNodeGraph = new Hashtable<Integer,int[]>((int) (roadNodeGraph.size() * 1.4f) + 1);
+        for (Map.Entry<Integer, int[]> e : roadNodeGraph.entrySet())
+            pl.roadNodeGraph.put(e.getKey(), e.getValue().clone());
+
+        if (legalRoads != null)
+        {
+            pl.legalRoads = new HashSet<Integer>(legalRoads);
+            pl.legalSettlements = new HashSet<Integer>(legalSettlements);
+            pl.legalShips = new HashSet<Integer>(legalShips);
+            if (legalShipsRestricted != null)
+                pl.legalShipsRestricted = new HashSet<Integer>(legalShipsRestricted);
+            pl.potentialRoads = new HashSet<Integer>(potentialRoads);
+            pl.potentialSettlements = new HashSet<Integer>(potentialSettlements);
+            pl.potentialCities = new HashSet<Integer>(potentialCities);
+            pl.potentialShips = new HashSet<Integer>(potentialShips);
+        }
+
+        return pl;
+    }
+
+    /**
+     * For a player made by {@link #copyForFork(SOCGame)}, copy the original player's pieces
+     * and special items to refer to the fork's players and board.
+     * @param fm  The fork's mappings
+     * @since 2.0.00
+     */
+    void copyPiecesForFork(final SOCGame.ForkMap fm)
+    {
+        pieces = fm.pieces(pieces);
+        roads = fm.pieces(roads);
+        settlements = fm.pieces(settlements);
+        cities = fm.pieces(cities);
+        fortress = fm.piece(fortress);
+        spItems = fm.itemLists(spItems);
+    }
+
     /**
      * Create a new player for a new empty board.
      *<P>
@@ -2582,24 +2661,34 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         /**
          * add the nodes that this road or ship touches to the roadNodes list
          */
-        Collection<Integer> nodes = board.getAdjacentNodesToEdge(piece.getCoordinates());
+        final SOCBoardAdjacency.Relation nodesToEdge = board.getAdjacency().nodesToEdge;
+        final int edge = piece.getCoordinates();
         int[] nodeCoords = new int[2];
         int i = 0;
 
-        for (Integer node : nodes)
+        for (int ni = nodesToEdge.start(edge), niEnd = nodesToEdge.end(edge); ni < niEnd; ++ni)
         {
-            //D.ebugPrintln("^^^ node = "+Integer.toHexString(node.intValue()));
-            nodeCoords[i] = node.intValue();
+            final int node = nodesToEdge.get(ni);
+            //D.ebugPrintln("^^^ node = "+Integer.toHexString(node));
+            nodeCoords[i] = node;
             i++;
 
             /**
              * only add nodes that aren't in the list
              */
+            boolean found = false;
+            for (int j = roadNodes.size() - 1; j >= 0; --j)
+            {
+                if (roadNodes.get(j).intValue() == node)
+                {
+                    found = true;
+                    break;
+                }
+            }
 
-            //D.ebugPrintln("(roadNodes.contains(node)) = "+(roadNodes.contains(node)));
-            if (! roadNodes.contains(node))
+            if (! found)
             {
-                roadNodes.addElement(node);
+                roadNodes.addElement(Integer.valueOf(node));
             }
         }
 
@@ -2943,13 +3032,14 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                 // on our roads/ships that are adjacent to
                 // this edge
                 //
-                Vector<Integer> adjEdges = board.getAdjacentEdgesToEdge(pieceCoord);
+                final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
+                final int adjStart = edgesToEdge.start(pieceCoord), adjEnd = edgesToEdge.end(pieceCoord);
 
                 for (SOCRoad road : roads)
                 {
-                    for (Integer edgeObj : adjEdges)
+                    for (int i = adjStart; i < adjEnd; ++i)
                     {
-                        final int edge = edgeObj.intValue();
+                        final int edge = edgesToEdge.get(i);
 
                         if (road.getCoordinates() == edge)
                             updatePotentials(road);
@@ -2986,11 +3076,11 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
             //
             // check adjacent nodes
             //
-            Vector<Integer> adjNodesEnum = board.getAdjacentNodesToNode(pieceCoord);
+            final SOCBoardAdjacency.Relation nodesToNode = board.getAdjacency().nodesToNode;
 
-            for (Integer adjNodeObj : adjNodesEnum)
+            for (int i = nodesToNode.start(pieceCoord), iEnd = nodesToNode.end(pieceCoord); i < iEnd; ++i)
             {
-                final int adjNode = adjNodeObj.intValue();
+                final int adjNode = nodesToNode.get(i);
                 undoPutPieceAuxSettlement(adjNode);
             }
 
@@ -3041,25 +3131,15 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         //
         boolean haveNeighbor = false;
         SOCBoard board = game.getBoard();
-        Vector<Integer> adjNodes = board.getAdjacentNodesToNode(settlementNode);
+        final SOCBoardAdjacency.Relation nodesToNode = board.getAdjacency().nodesToNode;
 
         for (SOCSettlement settlement : board.getSettlements())
         {
-            for (Integer adjNodeObj : adjNodes)
+            if (nodesToNode.contains(settlementNode, settlement.getCoordinates()))
             {
-                final int adjNode = adjNodeObj.intValue();
-
-                if (adjNode == settlement.getCoordinates())
-                {
-                    haveNeighbor = true;
-
-                    //D.ebugPrintln(")))) haveNeighbor = true : node = "+Integer.toHexString(adjNode.intValue()));
-                    break;
-                }
-            }
+                haveNeighbor = true;
 
-            if (haveNeighbor)
-            {
+                //D.ebugPrintln(")))) haveNeighbor = true : node = "+Integer.toHexString(settlement.getCoordinates()));
                 break;
             }
         }
@@ -3068,21 +3148,11 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
         {
             for (SOCCity city : board.getCities())
             {
-                for (Integer adjNodeObj : adjNodes)
+                if (nodesToNode.contains(settlementNode, city.getCoordinates()))
                 {
-                    final int adjNode = adjNodeObj.intValue();
-
-                    if (adjNode == city.getCoordinates())
-                    {
-                        haveNeighbor = true;
-
-                        //D.ebugPrintln(")))) haveNeighbor = true : node = "+Integer.toHexString(adjNode.intValue()));
-                        break;
-                    }
-                }
+                    haveNeighbor = true;
 
-                if (haveNeighbor)
-                {
+                    //D.ebugPrintln(")))) haveNeighbor = true : node = "+Integer.toHexString(city.getCoordinates()));
                     break;
                 }
             }
@@ -3225,18 +3295,19 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                      * remove the nodes this road/ship touches from the roadNodes list
                      */
                     {
-                        Collection<Integer> nodes = board.getAdjacentNodesToEdge(pieceCoord);
+                        final SOCBoardAdjacency.Relation nodesToEdge = board.getAdjacency().nodesToEdge;
                         int i = 0;
 
-                        for (Integer node : nodes)
+                        for (int ni = nodesToEdge.start(pieceCoord), niEnd = nodesToEdge.end(pieceCoord); ni < niEnd; ++ni)
                         {
-                            edgeNodeCoords[i] = node.intValue();
+                            final int node = nodesToEdge.get(ni);
+                            edgeNodeCoords[i] = node;
                             i++;
 
                             /**
                              * only remove a node if none of our roads/ships are touching it
                              */
-                            Collection<Integer> adjEdges = board.getAdjacentEdgesToNode(node.intValue());
+                            Collection<Integer> adjEdges = board.getAdjacentEdgesToNode(node);
                             boolean match = false;
 
                             for (SOCRoad rd : roads)
@@ -3260,8 +3331,9 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
 
                             if (! match)
                             {
-                                roadNodes.removeElement(node);
-                                potentialSettlements.remove(node);
+                                final Integer nodeInt = Integer.valueOf(node);
+                                roadNodes.removeElement(nodeInt);
+                                potentialSettlements.remove(nodeInt);
                             }
                         }
                     }
@@ -3341,10 +3413,12 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                      * potential road
                      */
                     // TODO roads/ships are not interchangeable here
-                    Collection<Integer> adjEdgesEnum = board.getAdjacentEdgesToEdge(pieceCoord);
+                    final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
 
-                    for (Integer adjEdge : adjEdgesEnum)
+                    for (int ei = edgesToEdge.start(pieceCoord), eiEnd = edgesToEdge.end(pieceCoord); ei < eiEnd; ++ei)
                     {
+                        final int adjEdgeID = edgesToEdge.get(ei);
+                        final Integer adjEdge = Integer.valueOf(adjEdgeID);  // key for the potential/legal sets below
                         if (! (potentialRoads.contains(adjEdge) || potentialShips.contains(adjEdge)))
                             continue;
 
@@ -3354,7 +3428,6 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
                          * check each adjacent node for blocking
                          * settlements or cities
                          */
-                        final int adjEdgeID = adjEdge.intValue();
                         final int[] adjNodes = board.getAdjacentNodesToEdge_arr(adjEdgeID);
 
                         for (int ni = 0; (ni < 2) && ! isPotentialRoad; ++ni)
@@ -4756,7 +4829,10 @@ public class SOCPlayer implements SOCDevCardConstants, Serializable, Cloneable
      * @since 2.0.00
      */
     public static class SpecialVPInfo
+        implements Serializable
     {
+        private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
+
         /** Number of special victory points */
         public final int svp;
 
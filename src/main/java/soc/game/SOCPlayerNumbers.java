@@ -1,7 +1,7 @@
 /**
  * Java Settlers - An online multiplayer version of the game Settlers of Catan
  * Copyright (C) 2003  Robert S. Thomas <thomas@infolab.northwestern.edu>
- * Portions of this file Copyright (C) 2009,2011-2014,2017 Jeremy D Monin <jeremy@nand.net>
+ * Portions of this file Copyright (C) 2009,2011-2014,2017-2018 Jeremy D Monin <jeremy@nand.net>
  * Portions of this file Copyright (C) 2012 Paul Bilnoski <paul@bilnoski.net>
  *
  * This program is free software; you can redistribute it and/or
@@ -23,9 +23,8 @@ package soc.game;
 
 import soc.util.IntPair;
 
-import java.util.Enumeration;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Map;  // for javadocs
 import java.util.Vector;
 
@@ -36,45 +35,59 @@ import java.util.Vector;
  *<P>
  * Calls each touched hex's {@link SOCBoard#getHexTypeFromCoord(int)}, ignores all hex types besides
  * the usual {@link SOCBoard#CLAY_HEX} through {@link SOCBoard#WOOD_HEX} and {@link SOCBoardLarge#GOLD_HEX}.
+ *<P>
+ * Before v2.0.00 this data was kept in Vectors of Integers and a Hashtable keyed by hex,
+ * and the robber-aware getters built new Vectors each time they were called.
+ * Robot building speed estimates query these numbers often, so they're now kept in
+ * primitive count arrays: See {@link #getResourceAmountForNumber(int, int, int)}.
  *
  * @author Robert S. Thomas
  */
 public class SOCPlayerNumbers
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     /**
-     * Dice roll numbers which yield this resource.
-     * Uses indexes in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}.
-     * Each element contains {@link Integer}s for the dice numbers.
+     * Amount of each resource gained on each dice number: {@code [diceNum][resource]}.
+     * Dice numbers use indexes 2-12; resources use
+     * {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}.
+     * If the number yields more than one of that resource type
+     * (a city, or multiple pieces on the hex), the amount is more than 1.
      *<P>
-     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding the dice number to
+     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding 1 to
      * all resource types in {@link #addNumberForResource(int, int, int)}.
+     *<P>
+     * Before v2.0.00 this information was kept in {@code Vector<Integer>[]} fields
+     * {@code numbersForResource} and {@code resourcesForNumber}.
+     * @since 2.0.00
      */
-    private Vector<Integer>[] numbersForResource;
+    private final int[][] resourceAmountsForNumber;
 
     /**
-     * Resources on dice roll numbers; uses indexes 2-12.
-     * Each element contains {@link Integer}s for the resource(s),
-     * in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}.
-     * If the number yields more than one of that resource type
-     * (a city, or multiple pieces on the hex), there will be
-     * more than one Integer here with that resource type.
-     *<P>
-     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding all resource types to
-     * the dice number in {@link #addNumberForResource(int, int, int)}.
+     * Total amount of all resources gained on each dice number,
+     * the sum of that number's {@link #resourceAmountsForNumber}; uses indexes 2-12.
+     * @since 2.0.00
      */
-    private Vector<Integer>[] resourcesForNumber;
+    private final int[] totalForNumber;
 
     /**
-     * Hex dice-roll resource information, by land-hex coordinate ID.
-     * Key = Integer hexCoord; value = Vector.
-     * Each hex coordinate's vector contains 0 or more {@link IntPair}(diceNum, resource).
-     * If {@link #hasSeaBoard}, the resource type may be {@link SOCBoardLarge#GOLD_HEX}.
+     * Each hex's contributions to {@link #resourceAmountsForNumber}, to find the robber hex's
+     * contribution and subtract it: One entry per call to {@link #addNumberForResource(int, int, int)},
+     * in order. Each entry is 3 ints: Hex coordinate, dice number, and resource type;
+     * if {@link #hasSeaBoard}, the resource type may be {@link SOCBoardLarge#GOLD_HEX}.
+     * Array grows as needed; see {@link #hexEntryCount}.
      *<P>
-     * Until {@link #addNumberForResource(int, int, int)} or
-     * {@link #updateNumbers(int, SOCBoard)} is called,
-     * any land hex's entry in this hashtable may be null.
+     * Before v2.0.00 this was a Hashtable {@code numberAndResourceForHex} of {@link IntPair}s.
+     * @since 2.0.00
      */
-    private Hashtable<Integer, Vector<IntPair>> numberAndResourceForHex;
+    private int[] hexEntries;
+
+    /**
+     * Number of entries (not ints) used in {@link #hexEntries}.
+     * @since 2.0.00
+     */
+    private int hexEntryCount;
 
     /**
      * Reference to either {@link SOCBoard4p#HEXCOORDS_LAND_V1} or {@link SOCBoard6p#HEXCOORDS_LAND_V2}.
@@ -102,33 +115,15 @@ public class SOCPlayerNumbers
      *
      * @param numbers   the player numbers to copy
      */
-    @SuppressWarnings("unchecked")
     public SOCPlayerNumbers(SOCPlayerNumbers numbers)
     {
         hasSeaBoard = numbers.hasSeaBoard;
         landHexCoords = numbers.landHexCoords;
 
-        numbersForResource = new Vector[SOCResourceConstants.MAXPLUSONE - 1];
-
-        for (int i = SOCResourceConstants.CLAY; i <= SOCResourceConstants.WOOD; i++)
-        {
-            numbersForResource[i] = new Vector<Integer>(numbers.numbersForResource[i]);
-        }
-
-        resourcesForNumber = new Vector[13];  // dice roll totals 2 to 12
-
-        for (int i = 0; i < 13; i++)
-        {
-            resourcesForNumber[i] = new Vector<Integer>(numbers.resourcesForNumber[i]);
-        }
-
-        // deep copy, not shallow copy:
-        numberAndResourceForHex = new Hashtable<Integer, Vector<IntPair>>((int) (numbers.numberAndResourceForHex.size() * 1.4f));
-        for (Enumeration<Integer> hexes = numbers.numberAndResourceForHex.keys(); hexes.hasMoreElements(); )
-        {
-            Integer hex = hexes.nextElement();
-            numberAndResourceForHex.put(hex, new Vector<IntPair>(numbers.numberAndResourceForHex.get(hex)));
-        }
+        resourceAmountsForNumber = new int[13][SOCResourceConstants.WOOD + 1];  // dice roll totals 2 to 12
+        totalForNumber = new int[13];
+        hexEntries = new int[numbers.hexEntries.length];
+        setFrom(numbers);
     }
 
     /**
@@ -144,7 +139,6 @@ public class SOCPlayerNumbers
      *         and {@link SOCBoard#getLandHexCoords()}.
      * @throws IllegalArgumentException  If <tt>boardEncodingFormat</tt> value is unknown to this class
      */
-    @SuppressWarnings("unchecked")
     public SOCPlayerNumbers(SOCBoard board)
         throws IllegalArgumentException
     {
@@ -160,29 +154,39 @@ public class SOCPlayerNumbers
         //   landHexCoords might be null for BOARD_ENCODING_LARGE
         //   if the layout isn't yet created in SOCBoardLarge.makeNewBoard.
 
-        numbersForResource = new Vector[SOCResourceConstants.MAXPLUSONE - 1];
+        resourceAmountsForNumber = new int[13][SOCResourceConstants.WOOD + 1];  // dice roll totals 2 to 12
+        totalForNumber = new int[13];
+        hexEntries = new int[3 * 16];
+    }
 
-        for (int i = SOCResourceConstants.CLAY; i <= SOCResourceConstants.WOOD;
-                i++)
-        {
-            numbersForResource[i] = new Vector<Integer>();
-        }
+    /**
+     * Overwrite this object's contents with a copy of another player's numbers,
+     * reusing this object's arrays instead of allocating new ones when they're large enough.
+     * Same result as the {@link #SOCPlayerNumbers(SOCPlayerNumbers) copy constructor},
+     * for callers such as the robot's win-game ETA calculation which need a fresh scratch copy often.
+     *
+     * @param numbers  the player numbers to copy; not changed
+     * @throws IllegalArgumentException  if {@code numbers} is for a different board type
+     *     ({@link #hasSeaBoard} differs)
+     * @since 2.0.00
+     */
+    public void setFrom(final SOCPlayerNumbers numbers)
+        throws IllegalArgumentException
+    {
+        if (numbers.hasSeaBoard != hasSeaBoard)
+            throw new IllegalArgumentException("hasSeaBoard");
 
-        resourcesForNumber = new Vector[13];  // dice roll totals 2 to 12
+        landHexCoords = numbers.landHexCoords;
 
         for (int i = 0; i < 13; i++)
-        {
-            resourcesForNumber[i] = new Vector<Integer>();
-        }
-
-        numberAndResourceForHex = new Hashtable<Integer, Vector<IntPair>>();
-
-        //    Initially empty, until addNumberForResource is called.
-        //    So, skip this loop:
-        // for (int i = 0; i < landHexCoords.length; i++)
-        // {
-        //    numberAndResourceForHex.put(new Integer(landHexCoords[i]), new Vector());
-        // }
+            System.arraycopy(numbers.resourceAmountsForNumber[i], 0, resourceAmountsForNumber[i], 0, SOCResourceConstants.WOOD + 1);
+        System.arraycopy(numbers.totalForNumber, 0, totalForNumber, 0, 13);
+
+        final int n = 3 * numbers.hexEntryCount;
+        if (hexEntries.length < n)
+            hexEntries = new int[numbers.hexEntries.length];
+        System.arraycopy(numbers.hexEntries, 0, hexEntries, 0, n);
+        hexEntryCount = numbers.hexEntryCount;
     }
 
     /**
@@ -190,17 +194,10 @@ public class SOCPlayerNumbers
      */
     public void clear()
     {
-        for (int i = SOCResourceConstants.CLAY; i <= SOCResourceConstants.WOOD; i++)
-        {
-            numbersForResource[i].removeAllElements();
-        }
-
         for (int i = 0; i < 13; i++)
-        {
-            resourcesForNumber[i].removeAllElements();
-        }
-
-        numberAndResourceForHex.clear();
+            Arrays.fill(resourceAmountsForNumber[i], 0);
+        Arrays.fill(totalForNumber, 0);
+        hexEntryCount = 0;
     }
 
     /**
@@ -244,11 +241,11 @@ public class SOCPlayerNumbers
      */
     public void updateNumbers(final int nodeCoord, SOCBoard board)
     {
-        Vector<Integer> hexes = board.getAdjacentHexesToNode(nodeCoord);
+        final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
 
-        for (Integer hexInt : hexes)
+        for (int i = hexesToNode.start(nodeCoord), iEnd = hexesToNode.end(nodeCoord); i < iEnd; ++i)
         {
-            final int hex = hexInt.intValue();
+            final int hex = hexesToNode.get(i);
             final int number = board.getNumberOnHexFromCoord(hex);
             final int resource = board.getHexTypeFromCoord(hex);
             addNumberForResource(number, resource, hex);
@@ -278,11 +275,11 @@ public class SOCPlayerNumbers
         (final int nodeCoord, SOCBoard board, final int[] numProb, final StringBuffer sb)
     {
         int probTotal = 0;
-        Vector<Integer> hexes = board.getAdjacentHexesToNode(nodeCoord);
+        final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
 
-        for (Integer hexInt : hexes)
+        for (int i = hexesToNode.start(nodeCoord), iEnd = hexesToNode.end(nodeCoord); i < iEnd; ++i)
         {
-            final int hex = hexInt.intValue();
+            final int hex = hexesToNode.get(i);
             final int number = board.getNumberOnHexFromCoord(hex);
             if (number > 0)
             {
@@ -302,49 +299,65 @@ public class SOCPlayerNumbers
     }
 
     /**
-     * Get this player's resources gained when a dice number is rolled.
+     * Get the amount of a resource this player gains when a dice number is rolled,
+     * from all hexes including the robber's.
      *<P>
      * {@link SOCBoardLarge#GOLD_HEX} is handled by adding all resource types
-     * to the dice number, if {@link #hasSeaBoard}.
-     * So, gold hex numbers will have 5 resources in the Vector
-     * (10 for cities on gold).
+     * to the dice number, if {@link #hasSeaBoard}. So, a gold hex number counts 1 for each
+     * of the 5 resource types (2 each for a city on gold).
      *
      * @param diceNum  the dice number, 2-12
-     * @return the resources for a number; contains {@link Integer}s for the resource(s),
-     * in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}.
-     *   If the number yields more than one of that resource type
-     *   (a city, or multiple pieces on the hex), there will be
-     *   more than one Integer here with that resource type.
-     * @see #getResourcesForNumber(int, int)
+     * @param resource  the resource, in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}
+     * @return  the amount gained; more than 1 if this player has a city, or multiple pieces on the hex,
+     *     or multiple hexes of that resource with this number
+     * @see #getResourceAmountForNumber(int, int, int)
+     * @see #hasNumber(int)
+     * @since 2.0.00
      */
-    public Vector<Integer> getResourcesForNumber(final int diceNum)
+    public int getResourceAmountForNumber(final int diceNum, final int resource)
     {
-        return resourcesForNumber[diceNum];
+        return resourceAmountsForNumber[diceNum][resource];
     }
 
     /**
-     * Get the numbers for a resource type.
+     * Get the amount of a resource this player gains when a dice number is rolled,
+     * taking the robber into account: Subtracts the robber hex's contribution
+     * from {@link #getResourceAmountForNumber(int, int)}.
      *<P>
-     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding the dice number to
-     * all resource types, if {@link #hasSeaBoard}.
-     *
-     * @return the numbers for a resource, as {@link Integer}s
+     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding all resource types
+     * to the dice number, if {@link #hasSeaBoard}.
      *
+     * @param diceNum  the dice number, 2-12
      * @param resource  the resource, in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}
-     * @see #getNumbersForResource(int, int)
+     * @param robberHex  the robber hex coordinate, or -1 to ignore the robber
+     * @return  the amount gained if not blocked by the robber
+     * @since 2.0.00
      */
-    public Vector<Integer> getNumbersForResource(int resource)
+    public int getResourceAmountForNumber(final int diceNum, final int resource, final int robberHex)
     {
-        return numbersForResource[resource];
+        int amount = resourceAmountsForNumber[diceNum][resource];
+        if ((amount == 0) || (robberHex == -1))
+            return amount;
+
+        for (int i = 0, e = 0; i < hexEntryCount; ++i, e += 3)
+        {
+            if ((hexEntries[e] != robberHex) || (hexEntries[e + 1] != diceNum))
+                continue;
+
+            final int res = hexEntries[e + 2];
+            if ((res == resource) || (hasSeaBoard && (res == SOCBoardLarge.GOLD_HEX)))
+                --amount;
+        }
+
+        return amount;
     }
 
     /**
-     * @return the number-resource pairs for a hex;
-     *  a Vector of 0 or more {@link IntPair}(diceNum, resource).
-     *  May be null if hexCoord has no resources for us, or is not a valid land hex.
+     * @return the number-resource pairs for a hex, as a new Vector of 0 or more
+     *  {@link IntPair}(diceNum, resource), or null if hexCoord has no resources for us or is not a valid land hex.
      *  If the number yields more than one of that resource type
      *  (a city, or multiple pieces on the hex), there will be
-     *  more than one Integer here with that resource type.
+     *  more than one pair here with that resource type.
      *  If {@link #hasSeaBoard}, a resource type may be {@link SOCBoardLarge#GOLD_HEX}.
      *
      * @param hexCoord  the hex coord
@@ -352,119 +365,34 @@ public class SOCPlayerNumbers
      */
     public Vector<IntPair> getNumberResourcePairsForHex(final int hexCoord)
     {
-        return numberAndResourceForHex.get(Integer.valueOf(hexCoord));
-    }
-
-    /**
-     * Do we receive no resources at all from this hex on any dice rolls?
-     * @param hexCoord  the hex coordinate
-     * @return  True if {@link #getNumberResourcePairsForHex(int)} is empty;
-     *        False if we do receive resources from this hex
-     * @since 2.0.00
-     */
-    public boolean hasNoResourcesForHex(final int hexCoord)
-    {
-        Vector<IntPair> v = numberAndResourceForHex.get(Integer.valueOf(hexCoord));
-        if (v == null)
-            return true;
-        else
-            return v.isEmpty();
-    }
-
-    /**
-     * Get the numbers for a resource type.
-     *<P>
-     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding the dice number to
-     * all resource types, if {@link #hasSeaBoard}.
-     *
-     * @return the dice numbers for a resource (as {@link Integer}s), taking the robber into account;
-     *     if this resource is on two 8s (for example), there will be two {@link Integer}(8) in the
-     *     returned vector.
-     *
-     * @param resource  the resource, in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}
-     * @param robberHex the robber hex
-     * @see #getNumbersForResource(int)
-     */
-    public Vector<Integer> getNumbersForResource(int resource, int robberHex)
-    {
-        Vector<Integer> numbers = new Vector<Integer>();
-
-        if (landHexCoords == null)
-            return numbers;
-
-        for (int i = 0; i < landHexCoords.length; i++)
+        Vector<IntPair> pairs = null;
+        for (int i = 0, e = 0; i < hexEntryCount; ++i, e += 3)
         {
-            if (landHexCoords[i] == robberHex)
+            if (hexEntries[e] != hexCoord)
                 continue;
 
-            Vector<IntPair> pairs = numberAndResourceForHex.get(new Integer(landHexCoords[i]));
             if (pairs == null)
-                continue;
-
-            for (IntPair pair : pairs)
-            {
-                final int res = pair.getB();
-                if ((res == resource) || (hasSeaBoard && (res == SOCBoardLarge.GOLD_HEX)))
-                {
-                    numbers.addElement(Integer.valueOf(pair.getA()));
-                }
-            }
+                pairs = new Vector<IntPair>();
+            pairs.addElement(new IntPair(hexEntries[e + 1], hexEntries[e + 2]));
         }
 
-        return numbers;
+        return pairs;
     }
 
     /**
-     * Get this player's resources gained when a dice number is rolled.
-     *<P>
-     * {@link SOCBoardLarge#GOLD_HEX} is handled by adding all resource types
-     * to the dice number, if {@link #hasSeaBoard}.
-     * So, gold hex numbers will have 5 resources in the Vector
-     * (10 for cities on gold).
-     *
-     * @return the resources for a dice number, taking the robber into account;
-     *   Integers in range {@link SOCResourceConstants#CLAY} to {@link SOCResourceConstants#WOOD}.
-     *   If the number yields more than one of that resource type
-     *   (a city, or multiple pieces on the hex), there will be
-     *   more than one Integer here with that resource type.
-     *
-     * @param diceNum  the dice roll, 2 - 12
-     * @param robberHex the robber hex coordinate
-     * @see #getResourcesForNumber(int)
+     * Do we receive no resources at all from this hex on any dice rolls?
+     * @param hexCoord  the hex coordinate
+     * @return  True if {@link #getNumberResourcePairsForHex(int)} is empty;
+     *        False if we do receive resources from this hex
+     * @since 2.0.00
      */
-    public Vector<Integer> getResourcesForNumber(final int diceNum, final int robberHex)
+    public boolean hasNoResourcesForHex(final int hexCoord)
     {
-        Vector<Integer> resources = new Vector<Integer>();
+        for (int i = 0, e = 0; i < hexEntryCount; ++i, e += 3)
+            if (hexEntries[e] == hexCoord)
+                return false;
 
-        if (landHexCoords == null)
-            return resources;
-
-        for (int i = 0; i < landHexCoords.length; i++)
-        {
-            if (landHexCoords[i] == robberHex)
-                continue;
-
-            Vector<IntPair> pairs = numberAndResourceForHex.get(Integer.valueOf(landHexCoords[i]));
-            if (pairs == null)
-                continue;
-
-            for (IntPair pair : pairs)
-            {
-                if (pair.getA() == diceNum)
-                {
-                    final int res = pair.getB();
-                    if (hasSeaBoard && (res == SOCBoardLarge.GOLD_HEX))
-                    {
-                        for (int r = SOCResourceConstants.CLAY; r <= SOCResourceConstants.WOOD; ++r)
-                            resources.addElement(new Integer(r));
-                    } else {
-                        resources.addElement(new Integer(res));
-                    }
-                }
-            }
-        }
-
-        return resources;
+        return true;
     }
 
     /**
@@ -481,14 +409,8 @@ public class SOCPlayerNumbers
     {
         if ((resource >= SOCResourceConstants.CLAY) && (resource <= SOCResourceConstants.WOOD))
         {
-            numbersForResource[resource].addElement(new Integer(diceNum));
-
-            Integer resourceInt = new Integer(resource);
-
-            //if (!resourcesForNumber[number].contains(resourceInt)) {
-            resourcesForNumber[diceNum].addElement(resourceInt);
-
-            //}
+            ++resourceAmountsForNumber[diceNum][resource];
+            ++totalForNumber[diceNum];
         }
         else
         {
@@ -498,24 +420,25 @@ public class SOCPlayerNumbers
             }
 
             // GOLD_HEX: Add all 5 resource types
-            final Integer diceNumInt = new Integer(diceNum);
+            final int[] amounts = resourceAmountsForNumber[diceNum];
             for (int res = SOCResourceConstants.CLAY; res <= SOCResourceConstants.WOOD; ++res)
-            {
-                numbersForResource[res].addElement(diceNumInt);
-                resourcesForNumber[diceNum].addElement(new Integer(res));
-            }
+                ++amounts[res];
+            totalForNumber[diceNum] += 5;
 
-            // GOLD_HEX is okay in numberAndResourceForHex.
+            // GOLD_HEX is okay in hexEntries.
         }
 
-        final Integer hexInt = new Integer(hex);
-        Vector<IntPair> pairs = numberAndResourceForHex.get(hexInt);
-        if (pairs == null)
+        int e = 3 * hexEntryCount;
+        if (e == hexEntries.length)
         {
-            pairs = new Vector<IntPair>();
-            numberAndResourceForHex.put(hexInt, pairs);
+            int[] grown = new int[2 * e];
+            System.arraycopy(hexEntries, 0, grown, 0, e);
+            hexEntries = grown;
         }
-        pairs.addElement(new IntPair(diceNum, resource));
+        hexEntries[e] = hex;
+        hexEntries[e + 1] = diceNum;
+        hexEntries[e + 2] = resource;
+        ++hexEntryCount;
     }
 
     /**
@@ -541,11 +464,11 @@ public class SOCPlayerNumbers
      */
     public void undoUpdateNumbers(final int coord, SOCBoard board)
     {
-        Vector<Integer> hexes = board.getAdjacentHexesToNode(coord);
+        final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
 
-        for (Integer hexInt : hexes)
+        for (int i = hexesToNode.start(coord), iEnd = hexesToNode.end(coord); i < iEnd; ++i)
         {
-            final int hex = hexInt.intValue();
+            final int hex = hexesToNode.get(i);
             final int number = board.getNumberOnHexFromCoord(hex);
             final int resource = board.getHexTypeFromCoord(hex);
             undoAddNumberForResource(number, resource, hex);
@@ -564,24 +487,13 @@ public class SOCPlayerNumbers
      */
     public void undoAddNumberForResource(int number, int resource, int hex)
     {
+        final int[] amounts = resourceAmountsForNumber[number];
         if ((resource >= SOCResourceConstants.CLAY) && (resource <= SOCResourceConstants.WOOD))
         {
-            for (Integer num : numbersForResource[resource])
+            if (amounts[resource] > 0)
             {
-                if (num.intValue() == number)
-                {
-                    numbersForResource[resource].removeElement(num);
-                    break;
-                }
-            }
-
-            for (Integer resourceInt : resourcesForNumber[number])
-            {
-                if (resourceInt.intValue() == resource)
-                {
-                    resourcesForNumber[number].removeElement(resourceInt);
-                    break;
-                }
+                --amounts[resource];
+                --totalForNumber[number];
             }
         }
         else
@@ -592,47 +504,26 @@ public class SOCPlayerNumbers
             }
 
             // GOLD_HEX: Remove all 5 resource types.
-            // To simplify multiple removal, use Iterator not Enumeration.
-
             for (int res = SOCResourceConstants.CLAY; res <= SOCResourceConstants.WOOD; ++res)
             {
-                Iterator<Integer> numIter = numbersForResource[res].iterator();
-                while (numIter.hasNext())
-                {
-                    final int num = numIter.next().intValue();
-                    if (num == number)
-                    {
-                        numIter.remove();
-                        break;
-                    }
-                }
-            }
-
-            boolean[] removed = new boolean[SOCResourceConstants.UNKNOWN];  // range CLAY to WOOD
-            Iterator<Integer> resIter = resourcesForNumber[number].iterator();
-            while (resIter.hasNext())
-            {
-                final int res = resIter.next().intValue();
-                if (! removed[res])
+                if (amounts[res] > 0)
                 {
-                    resIter.remove();
-                    removed[res] = true;
+                    --amounts[res];
+                    --totalForNumber[number];
                 }
             }
 
-            // GOLD_HEX will be in numberAndResourceForHex.
+            // GOLD_HEX will be in hexEntries.
         }
 
-        Vector<IntPair> pairs = numberAndResourceForHex.get(Integer.valueOf(hex));
-        if (pairs != null)
+        for (int i = 0, e = 0; i < hexEntryCount; ++i, e += 3)
         {
-            for (IntPair numAndResource : pairs)
+            if ((hexEntries[e] == hex) && (hexEntries[e + 1] == number) && (hexEntries[e + 2] == resource))
             {
-                if ((numAndResource.getA() == number) && (numAndResource.getB() == resource))
-                {
-                    pairs.removeElement(numAndResource);
-                    break;
-                }
+                // remove entry i, keeping the others in order
+                --hexEntryCount;
+                System.arraycopy(hexEntries, e + 3, hexEntries, e, 3 * (hexEntryCount - i));
+                break;
             }
         }
     }
@@ -645,30 +536,30 @@ public class SOCPlayerNumbers
      */
     public boolean hasNumber(int number)
     {
-        return !resourcesForNumber[number].isEmpty();
+        return (totalForNumber[number] != 0);
     }
 
     /**
-     * return a human readable form of this object
+     * return a human readable form of this object:
+     * for each resource type, its dice numbers.
      */
     @Override
     public String toString()
     {
-        String str = "SOCPN:";
+        StringBuilder sb = new StringBuilder("SOCPN:");
 
         for (int i = SOCResourceConstants.CLAY; i <= SOCResourceConstants.WOOD;
                 i++)
         {
-            str += (i + ":");
+            sb.append(i).append(':');
 
-            for (Integer num : numbersForResource[i])
-            {
-                str += (num + ",");
-            }
+            for (int num = 0; num < 13; ++num)
+                for (int amt = resourceAmountsForNumber[num][i]; amt > 0; --amt)
+                    sb.append(num).append(',');
 
-            str += "|";
+            sb.append('|');
         }
 
-        return str;
+        return sb.toString();
     }
 }
@@ -245,6 +245,31 @@ public abstract class SOCPlayingPiece implements Serializable, Cloneable
         return coord;
     }
 
+    /**
+     * Copy this piece for a {@link SOCGame#fork()}ed game, with the fork's player and board.
+     * Subclasses with fields referring to players or other game objects should override,
+     * call super, and map those fields to the fork's objects.
+     * @param fm  The fork's mappings; call {@link SOCGame.ForkMap#piece(SOCPlayingPiece)} instead of this method
+     * @return  A copy of this piece
+     * @throws IllegalStateException  if the piece can't be cloned (internal error; should not occur)
+     * @since 2.0.00
+     */
+    SOCPlayingPiece copyForFork(final SOCGame.ForkMap fm)
+        throws IllegalStateException
+    {
+        final SOCPlayingPiece pp;
+        try
+        {
+            pp = (SOCPlayingPiece) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Internal error, pieces should be cloneable", e);
+        }
+        pp.player = fm.player(player);
+        pp.board = fm.board;
+
+        return pp;
+    }
+
     /**
      * @return a human readable form of this object
      */
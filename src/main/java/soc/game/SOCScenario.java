@@ -78,6 +78,8 @@ import soc.message.SOCMessage;
 public class SOCScenario
     extends SOCVersionedItem implements Cloneable, Comparable<Object>
 {
+    private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
+
     /** Version 2.0.00 (2000) introduced game scenarios. */
     public static final int VERSION_FOR_SCENARIOS = 2000;
 
@@ -89,6 +91,13 @@ public class SOCScenario
      */
     private static Map<String, SOCScenario> allScenarios = initAllScenarios();
 
+    /**
+     * Incremented whenever a known scenario is added, changed, or removed.
+     * @see #getKnownScenariosGeneration()
+     * @since 2.0.00
+     */
+    private static volatile int allScenariosGeneration;
+
     /**
      * Create a set of the known scenarios.
      * This method creates and returns a Map, but does not set the static {@link #allScenarios} field.
@@ -511,6 +520,18 @@ public class SOCScenario
         return allScenarios.keySet();
     }
 
+    /**
+     * Get the known scenarios' generation number, which changes whenever
+     * {@link #addKnownScenario(SOCScenario)} or {@link #removeUnknownScenario(String)} changes them.
+     * Caches of info derived from the known scenarios can compare it to see if they're out of date.
+     * @return  the current generation number
+     * @since 2.0.00
+     */
+    public static int getKnownScenariosGeneration()
+    {
+        return allScenariosGeneration;
+    }
+
     /**
      * Add a new known scenario (received from a server having a newer or older version),
      * or update the scenario's information.
@@ -526,6 +547,7 @@ public class SOCScenario
 	if (hadIt)
 	    allScenarios.remove(scKey);
 	allScenarios.put(scKey, scNew);
+	++allScenariosGeneration;
 
 	return ! hadIt;
     }
@@ -539,7 +561,8 @@ public class SOCScenario
      */
     public static void removeUnknownScenario(final String scKey)
     {
-        allScenarios.remove(scKey);  // OK if scKey wasn't in map
+        if (allScenarios.remove(scKey) != null)  // OK if scKey wasn't in map
+            ++allScenariosGeneration;
     }
 
     /**
@@ -19,6 +19,7 @@
  **/
 package soc.game;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -97,8 +98,9 @@ import soc.message.SOCMessage;  // strictly for isSingleLineAndSafe
  * @since 2.0.00
  */
 public class SOCSpecialItem
-    implements Cloneable
+    implements Cloneable, Serializable
 {
+    private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
 
     /**
      * To win the game in {@link SOCGameOption#K_SC_WOND _SC_WOND}, player can build this many
@@ -708,7 +710,10 @@ public class SOCSpecialItem
      * @see SOCSpecialItem#checkRequirements(SOCPlayer, boolean)
      */
     public static final class Requirement
+        implements Serializable
     {
+        private static final long serialVersionUID = 2000L;  // New structure in v2.0.00
+
         /** 'S' for settlement, 'C' for city, 'V' for victory points, 'L' for length of player's longest route */
         public final char reqType;
 
@@ -133,6 +133,24 @@ public class SOCVillage extends SOCPlayingPiece
         return numTake;
     }
 
+    /**
+     * Copy this village for a {@link SOCGame#fork()}ed game, including its trading players.
+     * @since 2.0.00
+     */
+    @Override
+    SOCPlayingPiece copyForFork(final SOCGame.ForkMap fm)
+    {
+        final SOCVillage v = (SOCVillage) super.copyForFork(fm);
+        if (traders != null)
+        {
+            v.traders = new ArrayList<SOCPlayer>(traders.size());
+            for (final SOCPlayer pl : traders)
+                v.traders.add(fm.player(pl));
+        }
+
+        return v;
+    }
+
     /**
      * Add this player to the list of trading players.
      * If the village has some {@link #getCloth()} remaining,
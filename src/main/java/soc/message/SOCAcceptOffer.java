@@ -39,7 +39,7 @@ import java.util.StringTokenizer;
  * @see SOCRejectOffer
  */
 public class SOCAcceptOffer extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
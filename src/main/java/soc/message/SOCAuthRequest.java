@@ -49,9 +49,10 @@ import java.util.StringTokenizer;
  * Bots don't need or use this message, they authenticate to the server with {@link SOCImARobot}.
  *<P>
  * This message includes an {@link #authScheme} number field for future expansion.
- * The only currently implemented auth scheme number is:
+ * The currently implemented auth scheme numbers are:
  *<OL>
  * <LI> {@link #SCHEME_CLIENT_PLAINTEXT}
+ * <LI> {@link #SCHEME_SESSION_TOKEN} (v2.0.00 and newer)
  *</OL>
  *
  * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
@@ -74,6 +75,27 @@ public class SOCAuthRequest extends SOCMessage
     /** Scheme #1, for client to connect using a plaintext password */
     public static final int SCHEME_CLIENT_PLAINTEXT = 1;
 
+    /**
+     * Scheme #2, for client to reconnect using a session token instead of a password.
+     * The {@link #password} field holds the token, which the server sent to the client
+     * after its previous successful password authentication as a {@link SOCStatusMessage}
+     * with status {@link SOCStatusMessage#SV_OK_SESSION_TOKEN}.
+     *<P>
+     * Tokens are short-lived and can be used only once; if the server rejects the token
+     * with {@link SOCStatusMessage#SV_PW_WRONG}, the client should discard it and
+     * authenticate with its password as usual.
+     * @see #VERSION_FOR_SESSION_TOKEN
+     * @since 2.0.00
+     */
+    public static final int SCHEME_SESSION_TOKEN = 2;
+
+    /**
+     * Minimum version (2.0.00) of client/server which send and recognize {@link #SCHEME_SESSION_TOKEN}
+     * and {@link SOCStatusMessage#SV_OK_SESSION_TOKEN}.
+     * @since 2.0.00
+     */
+    public static final int VERSION_FOR_SESSION_TOKEN = 2000;
+
     /**
      * Final maximum password length, in case future versions support longer passwords than the
      * current version. Server max password length is currently much shorter than this value.
@@ -104,7 +126,7 @@ public class SOCAuthRequest extends SOCMessage
     public final String password;
 
     /**
-     * Authentication scheme number, such as {@link #SCHEME_CLIENT_PLAINTEXT}.
+     * Authentication scheme number, such as {@link #SCHEME_CLIENT_PLAINTEXT} or {@link #SCHEME_SESSION_TOKEN}.
      */
     public final int authScheme;
 
@@ -0,0 +1,628 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Compact binary frames for the message types which make up most of a game's traffic:
+ * {@link SOCPutPiece}, {@link SOCPlayerElement}, {@link SOCPlayerElements}, {@link SOCDiceResult},
+ * {@link SOCGameState}, {@link SOCTurn}, {@link SOCMoveRobber} and {@link SOCResourceCount}.
+ * Other message types are still sent as text.
+ *<P>
+ * A client and server agree on the frame format version with {@link SOCBinaryFormat} after
+ * version negotiation; the server then sends these types as binary frames mixed in with the
+ * usual text messages. Messages from the client to the server are always text.
+ *
+ *<H3>Frame format version 1</H3>
+ * The TCP stream is a sequence of {@link java.io.DataOutputStream#writeUTF(String)} text messages,
+ * each starting with its 2-byte length. No message is empty, so a length of 0 marks a binary frame:
+ *<pre>
+ *  0x00 0x00   (empty text length: binary frame follows)
+ *  varint      payload length
+ *  payload:    kind byte, then the kind's fields
+ *</pre>
+ * Integer fields are varints: 7 bits per byte, least-significant group first, high bit set on all
+ * but the last byte. Message fields are signed and zigzag-encoded, so -1 is 1 byte long.
+ *<P>
+ * Game names are interned to a per-connection numeric id: Before the first message for a game,
+ * the sender sends a {@link #KIND_DEFINE_GAME} frame with the id and the name's UTF-8 bytes.
+ * Ids are reused after {@link #MAX_GAME_IDS} games; a new definition replaces the receiver's old one.
+ *<P>
+ * Kinds and their fields after the game id:
+ *<UL>
+ * <LI> {@link #KIND_DEFINE_GAME}: id, name length, name bytes (no game id prefix)
+ * <LI> {@link #KIND_PUTPIECE}: player number, piece type, coordinates
+ * <LI> {@link #KIND_PLAYERELEMENT}: player number, action type (one of the {@code _NEWS} types
+ *      if {@link SOCPlayerElement#isNews()}), element type, value
+ * <LI> {@link #KIND_PLAYERELEMENTS}: player number, action type, element count, then each element's type and value
+ * <LI> {@link #KIND_DICERESULT}: dice result
+ * <LI> {@link #KIND_GAMESTATE}: state
+ * <LI> {@link #KIND_TURN}: player number
+ * <LI> {@link #KIND_MOVEROBBER}: player number, coordinates
+ * <LI> {@link #KIND_RESOURCECOUNT}: player number, count
+ *</UL>
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class SOCBinaryCodec
+{
+    /** Highest frame format version known to this codec: 1 */
+    public static final int FORMAT_VERSION = 1;
+
+    /** Maximum game ids interned per connection before they're reused */
+    public static final int MAX_GAME_IDS = 256;
+
+    /** Maximum payload length of a binary frame; frames are much shorter than this in practice */
+    public static final int MAX_PAYLOAD_LENGTH = 0xFFFF;
+
+    /** Frame kind: Define a game name's id */
+    public static final int KIND_DEFINE_GAME = 0;
+
+    /** Frame kind: {@link SOCPutPiece} */
+    public static final int KIND_PUTPIECE = 1;
+
+    /** Frame kind: {@link SOCPlayerElement} */
+    public static final int KIND_PLAYERELEMENT = 2;
+
+    /** Frame kind: {@link SOCPlayerElements} */
+    public static final int KIND_PLAYERELEMENTS = 3;
+
+    /** Frame kind: {@link SOCDiceResult} */
+    public static final int KIND_DICERESULT = 4;
+
+    /** Frame kind: {@link SOCGameState} */
+    public static final int KIND_GAMESTATE = 5;
+
+    /** Frame kind: {@link SOCTurn} */
+    public static final int KIND_TURN = 6;
+
+    /** Frame kind: {@link SOCMoveRobber} */
+    public static final int KIND_MOVEROBBER = 7;
+
+    /** Frame kind: {@link SOCResourceCount} */
+    public static final int KIND_RESOURCECOUNT = 8;
+
+    private SOCBinaryCodec() {}
+
+    /**
+     * Can this message be sent as a binary frame?
+     * @param mes  Message to check, or null
+     * @return  true if {@link Encoder#encode(SOCMessage)} can encode {@code mes}
+     */
+    public static boolean canEncode(final SOCMessage mes)
+    {
+        if (mes == null)
+            return false;
+
+        switch (mes.getType())
+        {
+        case SOCMessage.PUTPIECE:
+        case SOCMessage.PLAYERELEMENT:
+        case SOCMessage.PLAYERELEMENTS:
+        case SOCMessage.DICERESULT:
+        case SOCMessage.GAMESTATE:
+        case SOCMessage.TURN:
+        case SOCMessage.MOVEROBBER:
+        case SOCMessage.RESOURCECOUNT:
+            return true;
+
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Sending side of a connection's binary frames. Keeps the connection's game name ids.
+     *<P>
+     * <B>Threads:</B> Not thread-safe. The caller should encode and queue each frame while holding
+     * the same lock, so the game definitions reach the remote end before the frames which use them.
+     */
+    public static final class Encoder
+    {
+        /** Game name ids sent so far to this connection */
+        private final HashMap<String, Integer> gameIds = new HashMap<String, Integer>();
+
+        /** Next id to assign; wraps to 0 at {@link SOCBinaryCodec#MAX_GAME_IDS} */
+        private int nextGameId;
+
+        /** Payload being built, with room for each frame's header */
+        private byte[] buf = new byte[64];
+
+        /** Current length of {@link #buf} contents */
+        private int len;
+
+        /** Statistics: Messages encoded so far, and total length of their frames */
+        private long messageCount, byteCount;
+
+        /**
+         * Create an encoder for a connection which has agreed to use this format version.
+         * @param version  Frame format version; currently must be 1 ({@link SOCBinaryCodec#FORMAT_VERSION})
+         * @throws IllegalArgumentException if {@code version} isn't supported
+         */
+        public Encoder(final int version)
+            throws IllegalArgumentException
+        {
+            if (version != FORMAT_VERSION)
+                throw new IllegalArgumentException("version: " + version);
+        }
+
+        /**
+         * Encode a message as a binary frame, preceded by a game name definition frame
+         * if this connection hasn't been sent that game's id yet.
+         * @param mes  Message to encode
+         * @return  The frame bytes to send, or null if not {@link SOCBinaryCodec#canEncode(SOCMessage) canEncode(mes)}
+         */
+        public byte[] encode(final SOCMessage mes)
+        {
+            if (! canEncode(mes))
+                return null;
+
+            byte[] defineFrame = null;
+            final String gaName = ((SOCMessageForGame) mes).getGame();
+            Integer gaID = gameIds.get(gaName);
+            if (gaID == null)
+            {
+                if (nextGameId >= MAX_GAME_IDS)
+                {
+                    gameIds.clear();
+                    nextGameId = 0;
+                }
+                gaID = Integer.valueOf(nextGameId++);
+                gameIds.put(gaName, gaID);
+
+                final byte[] nameBytes;
+                try
+                {
+                    nameBytes = gaName.getBytes("UTF-8");
+                }
+                catch (java.io.UnsupportedEncodingException e)
+                {
+                    throw new IllegalStateException(e.toString());  // UTF-8 is always supported
+                }
+                len = 0;
+                writeVarint(KIND_DEFINE_GAME);
+                writeVarint(gaID.intValue());
+                writeVarint(nameBytes.length);
+                ensureRoom(nameBytes.length);
+                System.arraycopy(nameBytes, 0, buf, len, nameBytes.length);
+                len += nameBytes.length;
+                defineFrame = frame();
+            }
+
+            len = 0;
+            final int gid = gaID.intValue();
+            switch (mes.getType())
+            {
+            case SOCMessage.PUTPIECE:
+                {
+                    final SOCPutPiece m = (SOCPutPiece) mes;
+                    writeVarint(KIND_PUTPIECE);
+                    writeVarint(gid);
+                    writeSigned(m.getPlayerNumber());
+                    writeSigned(m.getPieceType());
+                    writeSigned(m.getCoordinates());
+                }
+                break;
+
+            case SOCMessage.PLAYERELEMENT:
+                {
+                    final SOCPlayerElement m = (SOCPlayerElement) mes;
+                    int ac = m.getAction();
+                    if (m.isNews())
+                        ac = -ac;  // SET_NEWS == -SET, etc
+                    writeVarint(KIND_PLAYERELEMENT);
+                    writeVarint(gid);
+                    writeSigned(m.getPlayerNumber());
+                    writeSigned(ac);
+                    writeSigned(m.getElementType());
+                    writeSigned(m.getValue());
+                }
+                break;
+
+            case SOCMessage.PLAYERELEMENTS:
+                {
+                    final SOCPlayerElements m = (SOCPlayerElements) mes;
+                    final int[] et = m.getElementTypes(), va = m.getValues();
+                    writeVarint(KIND_PLAYERELEMENTS);
+                    writeVarint(gid);
+                    writeSigned(m.getPlayerNumber());
+                    writeSigned(m.getAction());
+                    writeVarint(et.length);
+                    for (int i = 0; i < et.length; ++i)
+                    {
+                        writeSigned(et[i]);
+                        writeSigned(va[i]);
+                    }
+                }
+                break;
+
+            case SOCMessage.DICERESULT:
+                writeVarint(KIND_DICERESULT);
+                writeVarint(gid);
+                writeSigned(((SOCDiceResult) mes).getResult());
+                break;
+
+            case SOCMessage.GAMESTATE:
+                writeVarint(KIND_GAMESTATE);
+                writeVarint(gid);
+                writeSigned(((SOCGameState) mes).getState());
+                break;
+
+            case SOCMessage.TURN:
+                writeVarint(KIND_TURN);
+                writeVarint(gid);
+                writeSigned(((SOCTurn) mes).getPlayerNumber());
+                break;
+
+            case SOCMessage.MOVEROBBER:
+                {
+                    final SOCMoveRobber m = (SOCMoveRobber) mes;
+                    writeVarint(KIND_MOVEROBBER);
+                    writeVarint(gid);
+                    writeSigned(m.getPlayerNumber());
+                    writeSigned(m.getCoordinates());
+                }
+                break;
+
+            case SOCMessage.RESOURCECOUNT:
+                {
+                    final SOCResourceCount m = (SOCResourceCount) mes;
+                    writeVarint(KIND_RESOURCECOUNT);
+                    writeVarint(gid);
+                    writeSigned(m.getPlayerNumber());
+                    writeSigned(m.getCount());
+                }
+                break;
+            }
+
+            byte[] fr = frame();
+            if (defineFrame != null)
+            {
+                final byte[] both = new byte[defineFrame.length + fr.length];
+                System.arraycopy(defineFrame, 0, both, 0, defineFrame.length);
+                System.arraycopy(fr, 0, both, defineFrame.length, fr.length);
+                fr = both;
+            }
+
+            ++messageCount;
+            byteCount += fr.length;
+
+            return fr;
+        }
+
+        /**
+         * Get a one-line summary of this encoder's statistics.
+         * @return stats text, such as "binary frames: 1234 messages in 5678 bytes"
+         */
+        public String getStatsText()
+        {
+            return "binary frames: " + messageCount + " messages in " + byteCount + " bytes";
+        }
+
+        /**
+         * Build a frame from the payload in {@link #buf}: The 0-length text marker,
+         * the payload length, and the payload.
+         * @return  the complete frame
+         */
+        private byte[] frame()
+        {
+            int plen = len, hlen = 3;
+            while (plen >= 0x80)
+            {
+                plen >>>= 7;
+                ++hlen;
+            }
+
+            final byte[] fr = new byte[hlen + len];
+            int i = 2;  // fr[0], fr[1] are 0: the empty-text marker
+            plen = len;
+            while (plen >= 0x80)
+            {
+                fr[i++] = (byte) ((plen & 0x7F) | 0x80);
+                plen >>>= 7;
+            }
+            fr[i++] = (byte) plen;
+            System.arraycopy(buf, 0, fr, i, len);
+
+            return fr;
+        }
+
+        private void ensureRoom(final int n)
+        {
+            if (len + n > buf.length)
+            {
+                final byte[] b = new byte[Math.max(buf.length * 2, len + n)];
+                System.arraycopy(buf, 0, b, 0, len);
+                buf = b;
+            }
+        }
+
+        /** Write a zigzag-encoded signed varint. */
+        private void writeSigned(final int v)
+        {
+            writeVarint((v << 1) ^ (v >> 31));
+        }
+
+        /** Write an unsigned varint; {@code v} is treated as unsigned. */
+        private void writeVarint(int v)
+        {
+            ensureRoom(5);
+            while ((v & ~0x7F) != 0)
+            {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+    }
+
+    /**
+     * Receiving side of a connection's binary frames: Reads text messages and binary frames
+     * from the stream, and keeps the game name ids defined by the sender.
+     *<P>
+     * <B>Threads:</B> Not thread-safe; should be used only by the connection's reading thread.
+     */
+    public static final class Decoder
+    {
+        /** Game names, indexed by id */
+        private String[] gameNames = new String[16];
+
+        /** Frame or text message being read */
+        private byte[] buf = new byte[256];
+
+        /** Current read position within {@link #buf} */
+        private int pos;
+
+        /** Length of the frame in {@link #buf} */
+        private int len;
+
+        /**
+         * Create a decoder for a connection which has agreed to use this format version.
+         * @param version  Frame format version; currently must be 1 ({@link SOCBinaryCodec#FORMAT_VERSION})
+         * @throws IllegalArgumentException if {@code version} isn't supported
+         */
+        public Decoder(final int version)
+            throws IllegalArgumentException
+        {
+            if (version != FORMAT_VERSION)
+                throw new IllegalArgumentException("version: " + version);
+        }
+
+        /**
+         * Read the next message from the stream, which may be text or a binary frame.
+         * Game definition frames are handled here and not returned.
+         * Like {@link DataInputStream#readUTF()}, blocks until the next message is available.
+         * @param in  Stream to read from
+         * @return  the next message; null if a text message couldn't be parsed,
+         *     like {@link SOCMessage#toMsg(String)}
+         * @throws IOException if an error occurs reading, or a binary frame is malformed
+         */
+        public SOCMessage readMessage(final DataInputStream in)
+            throws IOException
+        {
+            for (;;)
+            {
+                final int tlen = in.readUnsignedShort();
+                if (tlen != 0)
+                {
+                    ensureRoom(tlen);
+                    in.readFully(buf, 0, tlen);
+                    return SOCMessage.toMsg(readUTFBody(tlen));
+                }
+
+                int plen = 0;
+                for (int shift = 0; ; shift += 7)
+                {
+                    if (shift > 28)
+                        throw new IOException("binary frame: bad length");
+                    final int b = in.readUnsignedByte();
+                    plen |= (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0)
+                        break;
+                }
+                if ((plen <= 0) || (plen > MAX_PAYLOAD_LENGTH))
+                    throw new IOException("binary frame: bad length " + plen);
+
+                ensureRoom(plen);
+                in.readFully(buf, 0, plen);
+                final SOCMessage mes = decode(plen);
+                if (mes != null)
+                    return mes;
+
+                // else, was a game definition; read the next frame
+            }
+        }
+
+        /**
+         * Decode the frame payload in {@link #buf}.
+         * @param plen  Payload length
+         * @return  the decoded message, or null if payload was {@link SOCBinaryCodec#KIND_DEFINE_GAME}
+         * @throws IOException if the payload is malformed
+         */
+        private SOCMessage decode(final int plen)
+            throws IOException
+        {
+            pos = 0;
+            len = plen;
+            final int kind = readVarint();
+            if (kind == KIND_DEFINE_GAME)
+            {
+                final int id = readVarint(), nlen = readVarint();
+                if ((id < 0) || (id >= MAX_GAME_IDS) || (nlen < 0) || (nlen > len - pos))
+                    throw new IOException("binary frame: bad game definition");
+                if (id >= gameNames.length)
+                {
+                    final String[] gn = new String[MAX_GAME_IDS];
+                    System.arraycopy(gameNames, 0, gn, 0, gameNames.length);
+                    gameNames = gn;
+                }
+                gameNames[id] = new String(buf, pos, nlen, "UTF-8");
+                pos += nlen;
+
+                return null;  // <--- Early return: Not a message ---
+            }
+
+            final int id = readVarint();
+            final String ga = (id >= 0 && id < gameNames.length) ? gameNames[id] : null;
+            if (ga == null)
+                throw new IOException("binary frame: undefined game id " + id);
+
+            final SOCMessage mes;
+            switch (kind)
+            {
+            case KIND_PUTPIECE:
+                {
+                    final int pn = readSigned(), pt = readSigned();
+                    mes = new SOCPutPiece(ga, pn, pt, readSigned());
+                }
+                break;
+
+            case KIND_PLAYERELEMENT:
+                {
+                    final int pn = readSigned();
+                    int ac = readSigned();
+                    final boolean isNews = (ac < 0);
+                    if (isNews)
+                        ac = -ac;
+                    final int et = readSigned();
+                    mes = new SOCPlayerElement(ga, pn, ac, et, readSigned(), isNews);
+                }
+                break;
+
+            case KIND_PLAYERELEMENTS:
+                {
+                    final int pn = readSigned(), ac = readSigned(), n = readVarint();
+                    if ((n < 0) || (n > len - pos))
+                        throw new IOException("binary frame: bad element count " + n);
+                    final int[] et = new int[n], va = new int[n];
+                    for (int i = 0; i < n; ++i)
+                    {
+                        et[i] = readSigned();
+                        va[i] = readSigned();
+                    }
+                    mes = new SOCPlayerElements(ga, pn, ac, et, va);
+                }
+                break;
+
+            case KIND_DICERESULT:
+                mes = new SOCDiceResult(ga, readSigned());
+                break;
+
+            case KIND_GAMESTATE:
+                mes = new SOCGameState(ga, readSigned());
+                break;
+
+            case KIND_TURN:
+                mes = new SOCTurn(ga, readSigned());
+                break;
+
+            case KIND_MOVEROBBER:
+                {
+                    final int pn = readSigned();
+                    mes = new SOCMoveRobber(ga, pn, readSigned());
+                }
+                break;
+
+            case KIND_RESOURCECOUNT:
+                {
+                    final int pn = readSigned();
+                    mes = new SOCResourceCount(ga, pn, readSigned());
+                }
+                break;
+
+            default:
+                throw new IOException("binary frame: unknown kind " + kind);
+            }
+
+            if (pos != len)
+                throw new IOException("binary frame: length mismatch for kind " + kind);
+
+            return mes;
+        }
+
+        /**
+         * Decode a text message's modified UTF-8 bytes from {@link #buf},
+         * as {@link DataInputStream#readUTF()} would.
+         * @param tlen  Length of the encoded text
+         * @return  the decoded text
+         * @throws IOException if the text is malformed
+         */
+        private String readUTFBody(final int tlen)
+            throws IOException
+        {
+            final char[] ch = new char[tlen];
+            for (int i = 0; i < tlen; ++i)
+            {
+                final int b = buf[i];
+                if ((b <= 0) || (b >= 0x80))
+                {
+                    // Not plain ASCII: Let DataInputStream decode it
+                    final byte[] withLen = new byte[tlen + 2];
+                    withLen[0] = (byte) (tlen >>> 8);
+                    withLen[1] = (byte) tlen;
+                    System.arraycopy(buf, 0, withLen, 2, tlen);
+
+                    return new DataInputStream(new ByteArrayInputStream(withLen)).readUTF();
+                }
+                ch[i] = (char) b;
+            }
+
+            return new String(ch);
+        }
+
+        private void ensureRoom(final int n)
+        {
+            if (n > buf.length)
+                buf = new byte[Math.max(buf.length * 2, n)];
+        }
+
+        /** Read a zigzag-encoded signed varint. */
+        private int readSigned()
+            throws IOException
+        {
+            final int v = readVarint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        /** Read an unsigned varint, as written by {@link Encoder}. */
+        private int readVarint()
+            throws IOException
+        {
+            int v = 0;
+            for (int shift = 0; shift <= 28; shift += 7)
+            {
+                if (pos >= len)
+                    throw new IOException("binary frame: truncated");
+                final int b = buf[pos++];
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return v;
+            }
+
+            throw new IOException("binary frame: bad varint");
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+
+/**
+ * This message from client asks the server to send the most frequent game messages
+ * as compact binary frames; the server's reply means it's starting to do so.
+ * See {@link SOCBinaryCodec} for the frame format and which message types it covers.
+ *<P>
+ * The client can send this after it receives the server's {@link SOCVersion}
+ * if the server's active features include {@link soc.util.SOCServerFeatures#FEAT_BINARY_FRAMES}.
+ * The client's request has the highest frame format version it can read,
+ * currently {@link SOCBinaryCodec#FORMAT_VERSION}.
+ *<P>
+ * When the server accepts, it replies with the format version it will use, which is no higher
+ * than the client's. Binary frames may follow anywhere after the reply. If the server doesn't
+ * accept, it doesn't reply. Messages from the client to the server are always text.
+ *<P>
+ * Not used for practice games or server-launched local bots, which don't use TCP.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBinaryFormat extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Version number (2.0.00) where the server can send binary frames to the client */
+    public static final int VERSION_FOR_BINARYFORMAT = 2000;
+
+    /**
+     * Frame format version, such as {@link SOCBinaryCodec#FORMAT_VERSION}
+     */
+    private final int formatVersion;
+
+    /**
+     * Create a BinaryFormat message.
+     *
+     * @param formatVersion  the frame format version, such as {@link SOCBinaryCodec#FORMAT_VERSION}
+     */
+    public SOCBinaryFormat(final int formatVersion)
+    {
+        messageType = BINARYFORMAT;
+        this.formatVersion = formatVersion;
+    }
+
+    /**
+     * @return the frame format version, such as {@link SOCBinaryCodec#FORMAT_VERSION}
+     */
+    public int getFormatVersion()
+    {
+        return formatVersion;
+    }
+
+    /**
+     * Minimum version where this message type is used.
+     * BINARYFORMAT introduced in 2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00.
+     */
+    public int getMinimumVersion() { return VERSION_FOR_BINARYFORMAT; }
+
+    /**
+     * BINARYFORMAT sep formatVersion
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(formatVersion);
+    }
+
+    /**
+     * BINARYFORMAT sep formatVersion
+     *
+     * @param formatVersion  the frame format version
+     * @return    the command string
+     */
+    public static String toCmd(final int formatVersion)
+    {
+        return BINARYFORMAT + sep + formatVersion;
+    }
+
+    /**
+     * Parse the command String into a BinaryFormat message
+     *
+     * @param s   the String to parse
+     * @return    a BinaryFormat message, or null if the data is garbled
+     */
+    public static SOCBinaryFormat parseDataStr(final String s)
+    {
+        try
+        {
+            return new SOCBinaryFormat(Integer.parseInt(s));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        return "SOCBinaryFormat:formatVersion=" + formatVersion;
+    }
+
+}
@@ -0,0 +1,192 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import java.util.List;
+
+
+/**
+ * This message carries another message to or from one of the robots on a robot host's connection,
+ * so that one client connection can carry many bot identities.
+ * See {@link soc.robot.SOCRobotHost} for the client side.
+ *<P>
+ * Each robot on the host has a bot ID number, chosen by the host. The first message with a new bot ID
+ * opens a sub-connection for that bot at the server, which then acts like a separate client connection:
+ * The bot sends {@link SOCVersion} and {@link SOCImARobot} as usual, and the server sends
+ * that bot's messages tagged with its ID. Until one of the host's bots has authenticated,
+ * the server allows only one open sub-connection on the host.
+ *<P>
+ * A message with a bot ID and no inner message closes that bot's sub-connection:
+ * From the host, the server removes the bot as if it had disconnected;
+ * from the server, the bot has been disconnected.
+ *<P>
+ * When the inner message is a {@link SOCImmutableMessage}, this message can pass it to a local
+ * robot host as an object without converting it to text; otherwise only its text is kept.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCBotMux extends SOCMessage
+    implements SOCImmutableMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Version number (2.0.00) where the server accepts this message */
+    public static final int VERSION_FOR_BOTMUX = 2000;
+
+    /** The bot's ID number on its robot host */
+    private final int botID;
+
+    /** The inner message if it's immutable, or {@code null} */
+    private final SOCMessage message;
+
+    /** The inner message's text if {@link #message} is null, or {@code null} if this message closes the bot */
+    private final String cmd;
+
+    /**
+     * The inner message parsed from {@link #cmd} by {@link #getMessage()}, or {@code null} if not parsed yet.
+     * Kept so that the server can check its category when queueing and then dispatch it
+     * without parsing twice.
+     */
+    private transient SOCMessage parsed;
+
+    /**
+     * Create a BotMux message.
+     *
+     * @param botID  the bot's ID number on its robot host
+     * @param mes  the inner message, or {@code null} to close the bot's sub-connection if {@code cmd} is also null
+     * @param cmd  the inner message's text from {@code mes.toCmd()} if the caller has it, or {@code null}
+     */
+    public SOCBotMux(final int botID, final SOCMessage mes, final String cmd)
+    {
+        messageType = BOTMUX;
+        this.botID = botID;
+        if (mes instanceof SOCImmutableMessage)
+        {
+            message = mes;
+            this.cmd = null;
+        } else {
+            message = null;
+            this.cmd = ((cmd == null) && (mes != null)) ? mes.toCmd() : cmd;
+        }
+    }
+
+    /**
+     * @return the bot's ID number on its robot host
+     */
+    public int getBotID()
+    {
+        return botID;
+    }
+
+    /**
+     * Does this message close the bot's sub-connection?
+     * @return  true if there's no inner message
+     */
+    public boolean isClose()
+    {
+        return (message == null) && (cmd == null);
+    }
+
+    /**
+     * Get the inner message, parsing its text the first time if needed.
+     * @return the inner message, or {@code null} if {@link #isClose()} or its text couldn't be parsed
+     */
+    public SOCMessage getMessage()
+    {
+        if (message != null)
+            return message;
+
+        if ((parsed == null) && (cmd != null))
+            parsed = SOCMessage.toMsg(cmd);
+
+        return parsed;
+    }
+
+    /**
+     * Minimum version where this message type is used.
+     * BOTMUX introduced in 2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00.
+     */
+    public int getMinimumVersion() { return VERSION_FOR_BOTMUX; }
+
+    /**
+     * BOTMUX sep botID [sep innerMessage]
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(botID, (message != null) ? message.toCmd() : cmd);
+    }
+
+    /**
+     * BOTMUX sep botID [sep innerMessage]
+     *
+     * @param botID  the bot's ID number on its robot host
+     * @param cmd  the inner message's text, or {@code null} to close the bot's sub-connection
+     * @return the command string
+     */
+    public static String toCmd(final int botID, final String cmd)
+    {
+        if (cmd == null)
+            return BOTMUX + sep + botID;
+        else
+            return BOTMUX + sep + botID + sep + cmd;
+    }
+
+    /**
+     * Parse the command String list into a BotMux message.
+     * The inner message's fields were split at {@link SOCMessage#sep} along with this message's,
+     * so they're joined again to rebuild its text.
+     *
+     * @param data  the bot ID, if there's no inner message
+     * @param multiData  the bot ID and the inner message's fields, or {@code null} if none
+     * @return    a BotMux message, or null if the data is garbled
+     */
+    public static SOCBotMux parseDataStr(final String data, final List<String> multiData)
+    {
+        try
+        {
+            if (multiData == null)
+                return new SOCBotMux(Integer.parseInt(data), null, null);
+
+            final StringBuilder sb = new StringBuilder(multiData.get(1));
+            for (int i = 2; i < multiData.size(); ++i)
+                sb.append(sep).append(multiData.get(i));
+
+            return new SOCBotMux(Integer.parseInt(multiData.get(0)), null, sb.toString());
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        return "SOCBotMux:botID=" + botID + "|message="
+            + ((message != null) ? message.toString() : ((cmd != null) ? cmd : "(close)"));
+    }
+
+}
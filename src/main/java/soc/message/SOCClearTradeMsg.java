@@ -31,7 +31,7 @@ import java.util.StringTokenizer;
  * @author Robert S. Thomas
  */
 public class SOCClearTradeMsg extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1112L;  // last structural change v1.1.12
 
@@ -0,0 +1,127 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+
+/**
+ * This message from client asks the server to compress the rest of its
+ * TCP stream to the client; the server's reply means it's starting to do so.
+ *<P>
+ * The client can send this after it receives the server's {@link SOCVersion}
+ * if the server's active features include {@link soc.util.SOCServerFeatures#FEAT_COMPRESS}.
+ * The only compression method currently defined is
+ * {@link #METHOD_DEFLATE "deflate"}.
+ *<P>
+ * When the server accepts, it sends this message back with the same method name.
+ * The reply is the last uncompressed data from the server: Everything after it is a single
+ * deflate stream, sync-flushed after each batch of messages, which the client should read
+ * through a {@link java.util.zip.InflaterInputStream}. Messages from the client to the server
+ * aren't compressed. If the server doesn't accept, it doesn't reply.
+ *<P>
+ * Not used for practice games or server-launched local bots, which don't use TCP.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCCompressStream extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Version number (2.0.00) where the server can compress its stream to the client */
+    public static final int VERSION_FOR_COMPRESSSTREAM = 2000;
+
+    /**
+     * Compression method {@code "deflate"}: A single deflate stream ({@link java.util.zip.Deflater})
+     * with a sync flush after each batch of messages.
+     */
+    public static final String METHOD_DEFLATE = "deflate";
+
+    /**
+     * Compression method name, such as "deflate"
+     */
+    private final String method;
+
+    /**
+     * Create a CompressStream message.
+     *
+     * @param method  the compression method name, such as "deflate"
+     */
+    public SOCCompressStream(final String method)
+    {
+        messageType = COMPRESSSTREAM;
+        this.method = method;
+    }
+
+    /**
+     * @return the compression method name, such as "deflate"
+     */
+    public String getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * Minimum version where this message type is used.
+     * COMPRESSSTREAM introduced in 2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00.
+     */
+    public int getMinimumVersion() { return VERSION_FOR_COMPRESSSTREAM; }
+
+    /**
+     * COMPRESSSTREAM sep method
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(method);
+    }
+
+    /**
+     * COMPRESSSTREAM sep method
+     *
+     * @param method  the compression method name
+     * @return    the command string
+     */
+    public static String toCmd(final String method)
+    {
+        return COMPRESSSTREAM + sep + method;
+    }
+
+    /**
+     * Parse the command String into a CompressStream message
+     *
+     * @param s   the String to parse
+     * @return    a CompressStream message
+     */
+    public static SOCCompressStream parseDataStr(final String s)
+    {
+        return new SOCCompressStream(s);
+    }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        return "SOCCompressStream:method=" + method;
+    }
+
+}
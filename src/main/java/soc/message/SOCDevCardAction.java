@@ -38,7 +38,7 @@ import soc.game.SOCDevCardConstants;  // for javadoc's use
  * @see SOCInventoryItemAction
  */
 public class SOCDevCardAction extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
 
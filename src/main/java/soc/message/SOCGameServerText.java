@@ -45,7 +45,7 @@ import java.util.StringTokenizer;
  * @since 2.0.00
  */
 public class SOCGameServerText extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
@@ -45,7 +45,7 @@ import soc.game.SOCGame;  // for javadoc's use
  * @see SOCGame#getGameState()
  */
 public class SOCGameState extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
@@ -0,0 +1,40 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+/**
+ * This marker indicates that a {@link SOCMessage} type's contents can't change after construction:
+ * Its fields are ints, booleans, or Strings, and it has no setters. Arrays given to its constructor
+ * aren't changed or handed out for changing.
+ *<P>
+ * An in-process {@link soc.server.genericServer.StringConnection StringConnection} passes
+ * these message objects directly to the receiving peer instead of rendering them with
+ * {@link SOCMessage#toCmd()} and parsing them again. The server may send the same object to
+ * several local peers, such as all the robots in a game, so neither the sender nor any receiver
+ * may change it.
+ *<P>
+ * When adding this marker to a message type, its subclasses should also qualify.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public interface SOCImmutableMessage
+{
+}
@@ -89,7 +89,7 @@ import soc.game.SOCInventoryItem;     // for javadoc's use
  * @since 2.0.00
  */
 public class SOCInventoryItemAction extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
@@ -0,0 +1,148 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import java.util.StringTokenizer;
+
+
+/**
+ * This message from a lobby server authenticates one of its connections to a game server.
+ * The lobby sends its {@link SOCVersion} first, then this message with the secret shared
+ * by the lobby and its game servers.
+ *<P>
+ * If {@link #getNickname()} is {@code null}, the connection is the lobby's link to the game server:
+ * The game server's announcements of new and deleted games are sent to the lobby over that link.
+ * Otherwise the connection is a proxy for that user, who has already authenticated at the lobby;
+ * the game server trusts the lobby and doesn't check a password. The proxy's {@link SOCVersion}
+ * is the user's client version and locale.
+ *<P>
+ * If the secret doesn't match, the game server replies with {@link SOCRejectConnection} and disconnects.
+ * Like the robot cookie in {@link SOCImARobot}, the secret isn't sent encrypted, so the
+ * game servers' ports shouldn't be reachable by untrusted hosts.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCLobbyAuth extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Version number (2.0.00) where game servers accept this message */
+    public static final int VERSION_FOR_LOBBYAUTH = 2000;
+
+    /** The secret shared by the lobby and its game servers */
+    private final String secret;
+
+    /** The proxied user's nickname, or {@code null} for the lobby's link */
+    private final String nickname;
+
+    /**
+     * Create a LobbyAuth message.
+     *
+     * @param secret  the secret shared by the lobby and its game servers;
+     *     must pass {@link SOCMessage#isSingleLineAndSafe(String)}
+     * @param nickname  the proxied user's nickname, or {@code null} for the lobby's link
+     */
+    public SOCLobbyAuth(final String secret, final String nickname)
+    {
+        messageType = LOBBYAUTH;
+        this.secret = secret;
+        this.nickname = nickname;
+    }
+
+    /**
+     * @return the secret shared by the lobby and its game servers
+     */
+    public String getSecret()
+    {
+        return secret;
+    }
+
+    /**
+     * @return the proxied user's nickname, or {@code null} if this is the lobby's link
+     */
+    public String getNickname()
+    {
+        return nickname;
+    }
+
+    /**
+     * Minimum version where this message type is used.
+     * LOBBYAUTH introduced in 2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00.
+     */
+    public int getMinimumVersion() { return VERSION_FOR_LOBBYAUTH; }
+
+    /**
+     * LOBBYAUTH sep secret sep2 nickname
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        return toCmd(secret, nickname);
+    }
+
+    /**
+     * LOBBYAUTH sep secret sep2 nickname
+     *
+     * @param secret  the shared secret
+     * @param nickname  the proxied user's nickname, or {@code null} for the lobby's link
+     * @return the command string
+     */
+    public static String toCmd(final String secret, final String nickname)
+    {
+        return LOBBYAUTH + sep + secret + sep2 + ((nickname != null) ? nickname : EMPTYSTR);
+    }
+
+    /**
+     * Parse the command String into a LobbyAuth message.
+     *
+     * @param s   the String to parse
+     * @return    a LobbyAuth message, or null if the data is garbled
+     */
+    public static SOCLobbyAuth parseDataStr(final String s)
+    {
+        final String sec, nn;
+
+        StringTokenizer st = new StringTokenizer(s, sep2);
+
+        try
+        {
+            sec = st.nextToken();
+            nn = st.nextToken();
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+
+        return new SOCLobbyAuth(sec, (nn.equals(EMPTYSTR)) ? null : nn);
+    }
+
+    /**
+     * @return a human readable form of the message; doesn't include the secret
+     */
+    public String toString()
+    {
+        return "SOCLobbyAuth:secret=***|nickname=" + ((nickname != null) ? nickname : "(link)");
+    }
+
+}
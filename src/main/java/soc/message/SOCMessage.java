@@ -392,6 +392,31 @@ public abstract class SOCMessage implements Serializable, Cloneable
      */
     public static final int SCENARIOINFO = 1103;    // Scenario info, 20150920, v2.0.00
 
+    /** {@link SOCCompressStream} - Client's request to compress the server's stream to it, or server's acceptance.
+     * @since 2.0.00
+     */
+    public static final int COMPRESSSTREAM = 1104;  // Stream compression, 20181019, v2.0.00
+
+    /** {@link SOCBinaryFormat} - Client's request for binary frames from the server, or server's acceptance.
+     * @since 2.0.00
+     */
+    public static final int BINARYFORMAT = 1105;  // Binary frames, 20181020, v2.0.00
+
+    /** {@link SOCRobotStats} - Server's request for a robot client's health and performance stats, or bot's reply.
+     * @since 2.0.00
+     */
+    public static final int ROBOTSTATS = 1106;  // Robot stats, 20181022, v2.0.00
+
+    /** {@link SOCLobbyAuth} - Lobby server's authentication to a game server, for its link or a user's proxy.
+     * @since 2.0.00
+     */
+    public static final int LOBBYAUTH = 1107;  // Lobby auth, 20181023, v2.0.00
+
+    /** {@link SOCBotMux} - Message to or from one of the robots on a robot host's connection.
+     * @since 2.0.00
+     */
+    public static final int BOTMUX = 1108;  // Robot host mux, 20181024, v2.0.00
+
 
     /////////////////////////////////////////
     // REQUEST FOR FUTURE MESSAGE NUMBERS: //
@@ -947,6 +972,21 @@ public abstract class SOCMessage implements Serializable, Cloneable
             case SCENARIOINFO:         // Scenario info, 20150920, v2.0.00
                 return SOCScenarioInfo.parseDataStr(multiData);
 
+            case COMPRESSSTREAM:       // Stream compression, 20181019, v2.0.00
+                return SOCCompressStream.parseDataStr(data);
+
+            case BINARYFORMAT:         // Binary frames, 20181020, v2.0.00
+                return SOCBinaryFormat.parseDataStr(data);
+
+            case ROBOTSTATS:           // Robot stats, 20181022, v2.0.00
+                return SOCRobotStats.parseDataStr(data, multiData);
+
+            case LOBBYAUTH:            // Lobby auth, 20181023, v2.0.00
+                return SOCLobbyAuth.parseDataStr(data);
+
+            case BOTMUX:               // Robot host mux, 20181024, v2.0.00
+                return SOCBotMux.parseDataStr(data, multiData);
+
             default:
                 System.err.println("Unhandled message type in SOCMessage.toMsg: " + msgId);
                 return null;
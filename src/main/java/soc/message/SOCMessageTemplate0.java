@@ -38,7 +38,7 @@ package soc.message;
  * @since 1.1.00
  */
 public abstract class SOCMessageTemplate0 extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
@@ -62,7 +62,7 @@ package soc.message;
  * @since 2.0.00
  */
 public abstract class SOCMessageTemplate3i extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
@@ -64,7 +64,7 @@ package soc.message;
  * @since 1.1.18
  */
 public abstract class SOCMessageTemplate4i extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1118L;
 
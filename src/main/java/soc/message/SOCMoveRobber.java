@@ -45,7 +45,7 @@ import java.util.StringTokenizer;
  * @see SOCMovePiece
  */
 public class SOCMoveRobber extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
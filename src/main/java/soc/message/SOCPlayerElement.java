@@ -53,7 +53,7 @@ import java.util.StringTokenizer;
  * @author Robert S Thomas
  */
 public class SOCPlayerElement extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
 
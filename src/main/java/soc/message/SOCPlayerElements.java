@@ -34,6 +34,7 @@ import java.util.List;
  * @since 1.1.09
  */
 public class SOCPlayerElements extends SOCMessageTemplateMi
+    implements SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
 
@@ -37,7 +37,7 @@ import java.util.StringTokenizer;
  * @see SOCAcceptOffer
  */
 public class SOCRejectOffer extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
@@ -0,0 +1,224 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.message;
+
+import java.util.List;
+
+
+/**
+ * This message from the server asks a robot client for its health and performance stats,
+ * and the robot's reply contains them: Totals for all of the client's robot brains.
+ * The request has no parameters. The reply's parameters are ints, at the indexes named
+ * by the {@code IDX_} constants here; newer versions may add more at the end.
+ *<P>
+ * Counts and times are totals since the robot client started, except those marked
+ * "per interval", which are since the client's previous reply (or since it started).
+ *<P>
+ * The server sends this request to bots along with its periodic {@link SOCServerPing},
+ * and when an admin uses the {@code *BOTLIST*} debug command, which shows the most recent reply.
+ * Check robot client version against {@link #VERSION_FOR_ROBOTSTATS} before sending.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotStats extends SOCMessage
+{
+    private static final long serialVersionUID = 2000L;  // last structural change v2.0.00
+
+    /** Version number (2.0.00) where robot clients reply to this message */
+    public static final int VERSION_FOR_ROBOTSTATS = 2000;
+
+    /** Index of the number of robot brains (games) running now */
+    public static final int IDX_BRAINS = 0;
+
+    /** Index of the number of messages waiting now in all brains' queues */
+    public static final int IDX_QUEUE_DEPTH = 1;
+
+    /** Index of the largest number of messages seen waiting in one brain's queue */
+    public static final int IDX_QUEUE_DEPTH_MAX = 2;
+
+    /** Index of the average milliseconds a message waited in a brain's queue, per interval */
+    public static final int IDX_LAG_AVG_MS = 3;
+
+    /** Index of the longest milliseconds a message waited in a brain's queue */
+    public static final int IDX_LAG_MAX_MS = 4;
+
+    /** Index of the number of messages handled by brains, not counting timing pings */
+    public static final int IDX_MESSAGES = 5;
+
+    /** Index of the number of messages handled per minute, per interval */
+    public static final int IDX_MESSAGES_PER_MIN = 6;
+
+    /**
+     * Index of brains' think time as a percentage of elapsed time, per interval.
+     * Can be more than 100 when several brains think at once on different CPUs.
+     */
+    public static final int IDX_THINK_PCT = 7;
+
+    /** Index of the number of times brains planned what to build next */
+    public static final int IDX_PLAN_COUNT = 8;
+
+    /** Index of the total milliseconds spent planning what to build */
+    public static final int IDX_PLAN_MS = 9;
+
+    /** Index of the number of times brains decided whether to make a trade offer */
+    public static final int IDX_OFFER_COUNT = 10;
+
+    /** Index of the total milliseconds spent deciding whether to make trade offers */
+    public static final int IDX_OFFER_MS = 11;
+
+    /** Index of the number of trade offers considered */
+    public static final int IDX_CONSIDER_COUNT = 12;
+
+    /** Index of the total milliseconds spent considering trade offers */
+    public static final int IDX_CONSIDER_MS = 13;
+
+    /** Index of the total milliseconds brains spent pausing, to pace their actions */
+    public static final int IDX_PAUSE_MS = 14;
+
+    /** Index of the total milliseconds brains spent handling messages, not counting pauses */
+    public static final int IDX_THINK_MS = 15;
+
+    /** Index of the number of exceptions caught by brains */
+    public static final int IDX_EXCEPTIONS = 16;
+
+    /** Number of stats in a reply from this version */
+    public static final int STATS_LENGTH = 17;
+
+    /** The stats, or {@code null} for a request from the server */
+    private final int[] stats;
+
+    /**
+     * Create a RobotStats request from the server.
+     */
+    public SOCRobotStats()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a RobotStats reply from a robot client.
+     *
+     * @param stats  the stats, at indexes like {@link #IDX_BRAINS}; usually {@link #STATS_LENGTH} long,
+     *     or {@code null} for a request
+     */
+    public SOCRobotStats(final int[] stats)
+    {
+        messageType = ROBOTSTATS;
+        this.stats = stats;
+    }
+
+    /**
+     * Is this the server's request, not a robot's reply?
+     * @return true if this message has no stats
+     */
+    public boolean isRequest()
+    {
+        return (stats == null);
+    }
+
+    /**
+     * Get one of the stats from a reply.
+     * @param idx  Index, such as {@link #IDX_BRAINS}
+     * @return  that stat's value, or 0 if this message is a request or is from a version without that stat
+     */
+    public int getStat(final int idx)
+    {
+        return ((stats != null) && (idx < stats.length)) ? stats[idx] : 0;
+    }
+
+    /**
+     * Minimum version where this message type is used.
+     * ROBOTSTATS introduced in 2.0.00.
+     * @return Version number, 2000 for JSettlers 2.0.00.
+     */
+    public int getMinimumVersion() { return VERSION_FOR_ROBOTSTATS; }
+
+    /**
+     * ROBOTSTATS [sep stat0 sep stat1 ...]
+     *
+     * @return the command String
+     */
+    public String toCmd()
+    {
+        StringBuilder sb = new StringBuilder(Integer.toString(ROBOTSTATS));
+        if (stats != null)
+            for (int i = 0; i < stats.length; ++i)
+                sb.append(sep).append(stats[i]);
+
+        return sb.toString();
+    }
+
+    /**
+     * Parse the command String into a RobotStats message.
+     *
+     * @param s   the first parameter, or "" if none (request)
+     * @param sl  all parameters, or {@code null} if fewer than 2
+     * @return    a RobotStats message, or null if parsing errors
+     */
+    public static SOCRobotStats parseDataStr(final String s, final List<String> sl)
+    {
+        if (sl == null)
+        {
+            if (s.length() == 0)
+                return new SOCRobotStats();
+
+            try
+            {
+                return new SOCRobotStats(new int[]{ Integer.parseInt(s) });
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        final int[] st = new int[sl.size()];
+        try
+        {
+            for (int i = 0; i < st.length; ++i)
+                st[i] = Integer.parseInt(sl.get(i));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return new SOCRobotStats(st);
+    }
+
+    /**
+     * @return a human readable form of the message
+     */
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("SOCRobotStats:");
+        if (stats == null)
+        {
+            sb.append("request");
+        } else {
+            for (int i = 0; i < stats.length; ++i)
+            {
+                if (i > 0)
+                    sb.append('|');
+                sb.append(stats[i]);
+            }
+        }
+
+        return sb.toString();
+    }
+
+}
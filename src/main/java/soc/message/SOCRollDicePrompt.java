@@ -40,7 +40,7 @@ import java.util.StringTokenizer;
  * @since 1.1.00
  */
 public class SOCRollDicePrompt extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     /** Class marked for v1.1.11 with SOCMessageForGame.
      *  Introduced at v1.1.00.
@@ -35,7 +35,7 @@ import java.util.StringTokenizer;
  * @since 2.0.00
  */
 public class SOCSVPTextMessage extends SOCMessage
-    implements SOCKeyedMessage, SOCMessageForGame
+    implements SOCKeyedMessage, SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
@@ -30,7 +30,7 @@ import java.util.StringTokenizer;
  * @author Robert S. Thomas
  */
 public class SOCSetPlayedDevCard extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
@@ -56,7 +56,7 @@ import soc.game.SOCSpecialItem;  // for javadocs only
  * @since 2.0.00
  */
 public class SOCSetSpecialItem extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 2000L;
 
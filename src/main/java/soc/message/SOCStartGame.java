@@ -33,7 +33,7 @@ package soc.message;
  * @author Robert S. Thomas
  */
 public class SOCStartGame extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
@@ -288,6 +288,22 @@ public class SOCStatusMessage extends SOCMessage
      */
     public static final int SV_OK_DEBUG_MODE_ON = 21;
 
+    /**
+     * Client has authenticated successfully with a password, and the server has issued it a short-lived
+     * session token. If the client loses its connection and reconnects soon afterwards, it can send the
+     * token in a {@link SOCAuthRequest} with {@link SOCAuthRequest#SCHEME_SESSION_TOKEN} instead of
+     * its password.
+     *<P>
+     * Status text format: The token string only; not meant to be shown to the user.
+     *<P>
+     * This status is informational: It's sent just before the usual reply to the client's
+     * auth, join game, or join channel request. Sent only to clients v2.0.00 and newer
+     * ({@link SOCAuthRequest#VERSION_FOR_SESSION_TOKEN}); there is no fallback value
+     * for older clients, so the server doesn't send them this status.
+     * @since 2.0.00
+     */
+    public static final int SV_OK_SESSION_TOKEN = 22;
+
     // IF YOU ADD A STATUS VALUE:
     // Do not change or remove the numeric values of earlier ones.
     // Be sure to update statusValidAtVersion().
@@ -440,6 +456,8 @@ public class SOCStatusMessage extends SOCMessage
      * <LI> {@link #SV_ACCT_CREATED_OK_FIRST_ONE} falls back to {@link #SV_ACCT_CREATED_OK}
      * <LI> {@link #SV_OK_SET_NICKNAME} has no successful fallback, the client must be
      *      sent {@link #SV_NAME_NOT_FOUND} and must reauthenticate; throws {@link IllegalArgumentException}
+     * <LI> {@link #SV_OK_SESSION_TOKEN} has no fallback, the server shouldn't send it to older clients;
+     *      throws {@link IllegalArgumentException}
      * <LI> All others fall back to {@link #SV_NOT_OK_GENERIC}
      * <LI> In case the fallback value is also not recognized at the client,
      *      {@code toCmd(..)} will fall back again to something more generic
@@ -512,7 +530,7 @@ public class SOCStatusMessage extends SOCMessage
                 return (statusValue < SV_OK_DEBUG_MODE_ON);
             else
                 // our version or newer; check vs highest constant that we know
-                return (statusValue <= SV_OK_DEBUG_MODE_ON);
+                return (statusValue <= SV_OK_SESSION_TOKEN);
             }
         }
     }
@@ -546,6 +564,7 @@ public class SOCStatusMessage extends SOCMessage
                 sv = SV_ACCT_CREATED_OK;
                 break;
             case SV_OK_SET_NICKNAME:
+            case SV_OK_SESSION_TOKEN:
                 reject = true;
                 break;
             default:
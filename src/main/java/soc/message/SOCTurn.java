@@ -46,7 +46,7 @@ import java.util.StringTokenizer;
  * @see SOCSetTurn
  */
 public class SOCTurn extends SOCMessage
-    implements SOCMessageForGame
+    implements SOCMessageForGame, SOCImmutableMessage
 {
     private static final long serialVersionUID = 1111L;  // last structural change v1.1.11
 
@@ -0,0 +1,1368 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soc.game.SOCBoard;
+import soc.game.SOCCity;
+import soc.game.SOCDevCardConstants;
+import soc.game.SOCGame;
+import soc.game.SOCInventory;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceConstants;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCShip;
+
+/**
+ * Monte Carlo tree search decision engine for robots with strategy type {@link SOCRobotDM#MCTS_STRATEGY}:
+ * Chooses what to build next, where to place initial settlements, and where to move the robber,
+ * by playing out many short random games from the current position and favoring the choices which
+ * did best in those playouts.
+ *<P>
+ * Each playout works in a {@link SOCGame#fork(boolean)} of our game, so the game's own rules decide
+ * what's legal and what happens: Dice rolls, resource gains, discards, the robber, longest road and
+ * the winner. Opponents' resources which we can't see are dealt randomly in each fork. Playouts don't
+ * trade between players or play development cards; a card bought during a playout has the chance of
+ * being a victory point card or a knight toward Largest Army. A playout runs for {@link #ROLLOUT_ROUNDS}
+ * rounds or until someone wins, then scores our victory points against the leader's.
+ *<P>
+ * For build decisions, the search tree holds our sequence of build targets: The root's children are the
+ * pieces we could build now, their children are what to build after that, and so on. During a playout
+ * we save resources for the current target, trading with the bank or ports if needed, then choose the
+ * next target from the tree. After building the chosen target, the next decision reuses that target's
+ * subtree and its statistics.
+ *<P>
+ * Playouts run in parallel on a thread pool shared by all robots in this JVM (see {@link #setThreads(int)})
+ * plus the robot brain's own thread. Each decision has a strict time budget: {@link SOCRobotDM#getDecisionBudget()}
+ * if set, otherwise {@link #DEFAULT_BUDGET_MS}. The brain thread stops when the budget expires and uses the
+ * results so far; pool threads finish their current playout, which is kept short by its round limit.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class MCTSStrategy
+{
+    /**
+     * Time budget in milliseconds for each decision, if {@link SOCRobotDM#getDecisionBudget()} is 0.
+     */
+    public static final int DEFAULT_BUDGET_MS = 400;
+
+    /** Number of rounds (turns of each player) to play out after a decision before scoring the game. */
+    public static final int ROLLOUT_ROUNDS = 8;
+
+    /**
+     * Maximum number of initial settlement locations to search, the best ones by dice numbers.
+     * Searching every legal location would spread the time budget too thinly.
+     */
+    public static final int INITIAL_SETTLEMENT_CANDIDATES = 12;
+
+    /** Exploration constant for UCT selection; playout scores are 0 to 1. */
+    private static final double UCT_C = 0.6;
+
+    /** Maximum number of game actions in one playout, in case play gets stuck in a loop */
+    private static final int MAX_ROLLOUT_STEPS = 3000;
+
+    /** Maximum pieces built by a player during one turn of a playout */
+    private static final int MAX_BUILDS_PER_TURN = 6;
+
+    /** Kinds of decision searched by {@link Search} */
+    private static final int KIND_BUILD = 1, KIND_INITIAL_SETTLEMENT = 2, KIND_ROBBER = 3;
+
+    /**
+     * Actions are encoded as a kind in the top byte and a board coordinate in the low 3 bytes.
+     * @see #getActionPieceType(int)
+     * @see #getActionCoordinate(int)
+     */
+    static final int A_ROAD = 1 << 24, A_SHIP = 2 << 24, A_SETTLEMENT = 3 << 24,
+        A_CITY = 4 << 24, A_CARD = 5 << 24, A_ROBBER = 6 << 24;
+
+    private static final int A_KIND_MASK = 0xFF000000, A_COORD_MASK = 0x00FFFFFF;
+
+    /** Shared pool for playouts, or {@code null} if not created yet or if {@link #poolThreads} &lt; 1. */
+    private static ExecutorService pool;
+
+    /**
+     * Number of pool threads, or -1 to use 1 less than the number of available processors
+     * (the robot brain's thread makes up the difference). Synchronize on the class to use.
+     */
+    private static int poolThreads = -1;
+
+    /** Statistics for {@link #getStatsText()} */
+    private static final AtomicLong statDecisions = new AtomicLong(), statPlayouts = new AtomicLong(),
+        statFailedPlayouts = new AtomicLong(), statReusedTrees = new AtomicLong(), statCpuNanos = new AtomicLong();
+
+    /** For playout thread CPU time in {@link #statCpuNanos}, or {@code null} if not supported */
+    private static final ThreadMXBean threadBean;
+    static
+    {
+        ThreadMXBean tb = ManagementFactory.getThreadMXBean();
+        threadBean = (tb.isCurrentThreadCpuTimeSupported()) ? tb : null;
+    }
+
+    /** Our game */
+    private final SOCGame game;
+
+    /** Our player data in {@link #game} */
+    private final SOCPlayer ourPlayerData;
+
+    /** Our player number */
+    private final int ourPN;
+
+    /** For seeding each playout thread's random number generator */
+    private final Random rand = new Random();
+
+    /**
+     * Lock for all search tree nodes of this player, including any still being updated
+     * by pool threads finishing a playout from the previous decision.
+     */
+    private final Object treeLock = new Object();
+
+    /** This instance's time budget in milliseconds, or 0 to use the default; see {@link #setBudget(int)} */
+    private int budgetMS;
+
+    /**
+     * The target chosen by the most recent build decision, and its search tree node
+     * whose subtree can be reused if we've built the target by the next decision; otherwise {@code null}.
+     */
+    private Node lastChosen;
+
+    /**
+     * Create an MCTSStrategy for a player.
+     * @param ga  Our game
+     * @param pl  Our player data in {@code ga}
+     * @throws IllegalArgumentException if {@code pl} is null
+     */
+    public MCTSStrategy(final SOCGame ga, final SOCPlayer pl)
+        throws IllegalArgumentException
+    {
+        if (pl == null)
+            throw new IllegalArgumentException();
+
+        game = ga;
+        ourPlayerData = pl;
+        ourPN = pl.getPlayerNumber();
+    }
+
+    /**
+     * Set the number of threads shared by all MCTS robots in this JVM to run playouts,
+     * in addition to each robot brain's own thread.
+     * The default is 1 less than the number of available processors.
+     * @param n  Number of threads, or 0 to play out only in the robot brain's thread
+     * @throws IllegalArgumentException if {@code n} &lt; 0
+     * @see #getThreads()
+     */
+    public static synchronized void setThreads(final int n)
+        throws IllegalArgumentException
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("n");
+        if (n == poolThreads)
+            return;
+
+        if (pool != null)
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        poolThreads = n;
+    }
+
+    /**
+     * Get the number of shared playout threads.
+     * @return  Number of threads, not counting each robot brain's own thread
+     * @see #setThreads(int)
+     */
+    public static synchronized int getThreads()
+    {
+        return (poolThreads >= 0) ? poolThreads : Math.max(0, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Get the shared pool, creating it if needed.
+     * @return  The pool, or {@code null} if {@link #getThreads()} is 0
+     */
+    private static synchronized ExecutorService getPool()
+    {
+        if (pool == null)
+        {
+            final int n = getThreads();
+            if (n < 1)
+                return null;
+
+            final AtomicInteger threadNum = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(n, new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "robotMCTS-" + threadNum.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        return pool;
+    }
+
+    /**
+     * Get a one-line summary of the searches made by all MCTS robots in this JVM since startup.
+     * @return  Stats text, such as
+     *     "MCTS: 812 decisions, 1406330 playouts (1731 per decision, 3 failed), 97 trees reused, playout CPU 402155 ms"
+     */
+    public static String getStatsText()
+    {
+        final long dec = statDecisions.get(), po = statPlayouts.get();
+        return "MCTS: " + dec + " decisions, " + po + " playouts (" + ((dec > 0) ? (po / dec) : 0)
+            + " per decision, " + statFailedPlayouts.get() + " failed), " + statReusedTrees.get()
+            + " trees reused, playout CPU " + (statCpuNanos.get() / 1000000L) + " ms";
+    }
+
+    /**
+     * Get the total thread CPU time spent in playouts by all MCTS robots in this JVM since startup.
+     * @return  CPU time in nanoseconds, or 0 if the JVM doesn't support measuring thread CPU time
+     */
+    public static long getPlayoutCpuNanos()
+    {
+        return statCpuNanos.get();
+    }
+
+    /**
+     * Set this player's time budget for each decision, instead of the default.
+     * @param ms  Budget in milliseconds, or 0 to use {@link SOCRobotDM#getDecisionBudget()}
+     *     or {@link #DEFAULT_BUDGET_MS}
+     * @throws IllegalArgumentException if {@code ms} &lt; 0
+     */
+    public void setBudget(final int ms)
+        throws IllegalArgumentException
+    {
+        if (ms < 0)
+            throw new IllegalArgumentException("ms");
+
+        budgetMS = ms;
+    }
+
+    /**
+     * Get a build action's piece type.
+     * @param action  Action returned by {@link #planBuild()}
+     * @return  {@link SOCPossiblePiece#ROAD}, {@link SOCPossiblePiece#SHIP SHIP}, {@link SOCPossiblePiece#SETTLEMENT SETTLEMENT},
+     *     {@link SOCPossiblePiece#CITY CITY}, or {@link SOCPossiblePiece#CARD CARD}
+     * @throws IllegalArgumentException if {@code action} isn't a build action
+     */
+    public static int getActionPieceType(final int action)
+        throws IllegalArgumentException
+    {
+        switch (action & A_KIND_MASK)
+        {
+        case A_ROAD:       return SOCPossiblePiece.ROAD;
+        case A_SHIP:       return SOCPossiblePiece.SHIP;
+        case A_SETTLEMENT: return SOCPossiblePiece.SETTLEMENT;
+        case A_CITY:       return SOCPossiblePiece.CITY;
+        case A_CARD:       return SOCPossiblePiece.CARD;
+        default:
+            throw new IllegalArgumentException("action: 0x" + Integer.toHexString(action));
+        }
+    }
+
+    /**
+     * Get an action's board coordinate.
+     * @param action  Action returned by {@link #planBuild()}
+     * @return  Coordinate of the piece to build, or 0 for {@link SOCPossiblePiece#CARD CARD}
+     */
+    public static int getActionCoordinate(final int action)
+    {
+        return action & A_COORD_MASK;
+    }
+
+    /**
+     * Decide what to build next during our turn, in game state {@link SOCGame#PLAY1}.
+     * @return  The build action, for {@link #getActionPieceType(int)} and {@link #getActionCoordinate(int)},
+     *     or 0 if there's nothing to build or it isn't our turn to build
+     */
+    public int planBuild()
+    {
+        if ((game.getGameState() != SOCGame.PLAY1) || (game.getCurrentPlayerNumber() != ourPN))
+            return 0;
+
+        final int[] actions = buildActions(game, ourPlayerData);
+        if (actions.length == 0)
+        {
+            lastChosen = null;
+            return 0;
+        }
+
+        // If we've built our previous target, that target's subtree was
+        // searched in the same position; reuse it
+        Node root = null;
+        synchronized (treeLock)
+        {
+            if ((lastChosen != null) && isActionDone(lastChosen.action))
+            {
+                root = lastChosen;
+                statReusedTrees.incrementAndGet();
+            }
+        }
+        if (root == null)
+            root = new Node(0);
+
+        final Node chosen = search(KIND_BUILD, actions, root);
+        lastChosen = chosen;
+
+        return (chosen != null) ? chosen.action : 0;
+    }
+
+    /**
+     * Choose where to place an initial settlement, in game state {@link SOCGame#START1A}, {@link SOCGame#START2A}
+     * or {@link SOCGame#START3A}. Searches the {@link #INITIAL_SETTLEMENT_CANDIDATES} legal locations
+     * with the best dice numbers.
+     * @return  Node coordinate, or 0 if there's no legal location or it isn't our turn to place
+     */
+    public int planInitialSettlement()
+    {
+        final int gs = game.getGameState();
+        if (((gs != SOCGame.START1A) && (gs != SOCGame.START2A) && (gs != SOCGame.START3A))
+            || (game.getCurrentPlayerNumber() != ourPN))
+            return 0;
+
+        final SOCBoard board = game.getBoard();
+        final ArrayList<Integer> nodes = new ArrayList<Integer>();
+        for (final Integer node : ourPlayerData.getPotentialSettlements())
+            if (ourPlayerData.canPlaceSettlement(node))
+                nodes.add(node);
+        if (nodes.isEmpty())
+            return 0;
+
+        // Sort by dice-number score, best first, then coordinate
+        final long[] scored = new long[nodes.size()];
+        for (int i = 0; i < scored.length; ++i)
+        {
+            final int node = nodes.get(i);
+            scored[i] = ((long) (100 - nodeDiceScore(board, node)) << 32) | node;
+        }
+        Arrays.sort(scored);
+
+        final int[] actions = new int[Math.min(INITIAL_SETTLEMENT_CANDIDATES, scored.length)];
+        for (int i = 0; i < actions.length; ++i)
+            actions[i] = A_SETTLEMENT | (int) scored[i];
+
+        final Node chosen = search(KIND_INITIAL_SETTLEMENT, actions, new Node(0));
+        return (chosen != null) ? getActionCoordinate(chosen.action) : 0;
+    }
+
+    /**
+     * Choose where to move the robber, in game state {@link SOCGame#PLACING_ROBBER}.
+     * @return  Hex coordinate, or 0 if there's no legal hex or it isn't our turn to move the robber
+     */
+    public int planRobberHex()
+    {
+        if ((game.getGameState() != SOCGame.PLACING_ROBBER) || (game.getCurrentPlayerNumber() != ourPN))
+            return 0;
+
+        final int[] hexes = game.getBoard().getLandHexCoords();
+        if (hexes == null)
+            return 0;
+
+        int n = 0;
+        final int[] actions = new int[hexes.length];
+        for (final int hex : hexes)
+            if (game.canMoveRobber(ourPN, hex))
+                actions[n++] = A_ROBBER | hex;
+        if (n == 0)
+            return 0;
+
+        final Node chosen = search(KIND_ROBBER, copyOf(actions, n), new Node(0));
+        return (chosen != null) ? getActionCoordinate(chosen.action) : 0;
+    }
+
+    /**
+     * Run a search until the time budget expires, then choose the root's most-visited child.
+     * @param kind  Kind of decision, such as {@link #KIND_BUILD}
+     * @param actions  Legal actions at the root; not empty
+     * @param root  Root node, new or reused
+     * @return  Chosen child of {@code root}, or {@code null} if the game couldn't be forked
+     */
+    private Node search(final int kind, final int[] actions, final Node root)
+    {
+        final SOCGame rootGame;
+        try
+        {
+            rootGame = game.fork(true);
+        } catch (RuntimeException e) {
+            // ConcurrentModificationException if a message updated the game while forking
+            System.err.println("MCTSStrategy: Can't fork game " + game.getName() + ": " + e);
+            return null;
+        }
+
+        int budget = budgetMS;
+        if (budget == 0)
+            budget = SOCRobotDM.getDecisionBudget();
+        if (budget == 0)
+            budget = DEFAULT_BUDGET_MS;
+
+        statDecisions.incrementAndGet();
+        final Search search = new Search(rootGame, kind, actions, root, System.nanoTime() + budget * 1000000L);
+
+        final ExecutorService p = getPool();
+        if (p != null)
+        {
+            final int nThreads = getThreads();
+            try
+            {
+                for (int i = 0; i < nThreads; ++i)
+                    p.execute(search);
+            } catch (RejectedExecutionException e) {
+                // pool was just replaced by setThreads; search in this thread only
+            }
+        }
+        search.run();
+
+        // Don't wait for pool threads: They're finishing their last playouts, which update the tree
+        // under treeLock and won't be counted here. Choose the most-visited legal child.
+        Node best = null;
+        synchronized (treeLock)
+        {
+            for (final int a : actions)
+            {
+                final Node ch = root.getChild(a);
+                if ((ch != null) && ((best == null) || (ch.visits > best.visits)))
+                    best = ch;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Is this build action done in our game, so its subtree can be reused?
+     * @param action  Action chosen at the previous decision
+     * @return  True if {@code action} was a piece which we now have at its coordinate
+     */
+    private boolean isActionDone(final int action)
+    {
+        final int coord = action & A_COORD_MASK;
+        final SOCBoard board = game.getBoard();
+        final SOCPlayingPiece pp;
+        switch (action & A_KIND_MASK)
+        {
+        case A_ROAD:
+        case A_SHIP:
+            pp = board.roadAtEdge(coord);
+            break;
+
+        case A_SETTLEMENT:
+            pp = board.settlementAtNode(coord);
+            if ((pp != null) && (pp.getType() != SOCPlayingPiece.SETTLEMENT))
+                return false;
+            break;
+
+        case A_CITY:
+            pp = board.settlementAtNode(coord);
+            if ((pp != null) && (pp.getType() != SOCPlayingPiece.CITY))
+                return false;
+            break;
+
+        default:
+            return false;
+        }
+
+        return (pp != null) && (pp.getPlayerNumber() == ourPN);
+    }
+
+    /**
+     * Get a player's legal build actions: Cities, settlements, roads and ships, and buying a development card.
+     * Doesn't check whether the player has the resources.
+     * @param ga  Game
+     * @param pl  Player in {@code ga}
+     * @return  Sorted actions, possibly empty
+     */
+    static int[] buildActions(final SOCGame ga, final SOCPlayer pl)
+    {
+        int[] acts = new int[32];
+        int n = 0;
+
+        if (pl.getNumPieces(SOCPlayingPiece.CITY) > 0)
+            for (final SOCSettlement se : pl.getSettlements())
+            {
+                final int node = se.getCoordinates();
+                if (pl.isPotentialCity(node))
+                {
+                    if (n == acts.length)
+                        acts = copyOf(acts, 2 * n);
+                    acts[n++] = A_CITY | node;
+                }
+            }
+
+        if (pl.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0)
+            for (final Integer node : pl.getPotentialSettlements())
+                if (pl.canPlaceSettlement(node))
+                {
+                    if (n == acts.length)
+                        acts = copyOf(acts, 2 * n);
+                    acts[n++] = A_SETTLEMENT | node;
+                }
+
+        final boolean canRoad = (pl.getNumPieces(SOCPlayingPiece.ROAD) > 0),
+            canShip = ga.hasSeaBoard && (pl.getNumPieces(SOCPlayingPiece.SHIP) > 0);
+        if (canRoad || canShip)
+        {
+            final SOCBoard board = ga.getBoard();
+            final int nBeforeEdges = n;
+            for (final Integer node : pl.getRoadNodes())
+                for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                {
+                    if (edge == -9)
+                        continue;
+
+                    for (int k = 0; k < 2; ++k)
+                    {
+                        final int a;
+                        if (k == 0)
+                        {
+                            if (! (canRoad && pl.isPotentialRoad(edge)))
+                                continue;
+                            a = A_ROAD | edge;
+                        } else {
+                            if (! (canShip && ga.canPlaceShip(pl, edge)))
+                                continue;
+                            a = A_SHIP | edge;
+                        }
+
+                        boolean dupe = false;
+                        for (int i = nBeforeEdges; i < n; ++i)
+                            if (acts[i] == a)
+                            {
+                                dupe = true;
+                                break;
+                            }
+                        if (dupe)
+                            continue;
+
+                        if (n == acts.length)
+                            acts = copyOf(acts, 2 * n);
+                        acts[n++] = a;
+                    }
+                }
+        }
+
+        if (ga.getNumDevCards() > 0)
+        {
+            if (n == acts.length)
+                acts = copyOf(acts, n + 1);
+            acts[n++] = A_CARD;
+        }
+
+        acts = copyOf(acts, n);
+        Arrays.sort(acts);
+        return acts;
+    }
+
+    /**
+     * Copy an array to a new length, truncating or padding with 0.
+     * Same as Java 6's {@code Arrays.copyOf(int[], int)}.
+     * @param arr  Array to copy
+     * @param len  New length
+     * @return  A new array of length {@code len}
+     */
+    private static int[] copyOf(final int[] arr, final int len)
+    {
+        final int[] copy = new int[len];
+        System.arraycopy(arr, 0, copy, 0, Math.min(arr.length, len));
+        return copy;
+    }
+
+    /**
+     * Score a node for settling by the dice numbers of its adjacent land hexes:
+     * The number of dice combinations (out of 36) which roll those numbers.
+     * @param board  Game board
+     * @param node  Node coordinate
+     * @return  Score, 0 to 15
+     */
+    static int nodeDiceScore(final SOCBoard board, final int node)
+    {
+        int score = 0;
+        for (final Integer hex : board.getAdjacentHexesToNode(node))
+        {
+            final int num = board.getNumberOnHexFromCoord(hex);
+            if ((num >= 2) && (num <= 12))
+                score += 6 - Math.abs(7 - num);
+        }
+
+        return score;
+    }
+
+    /**
+     * A node in the search tree: The action which leads to it, its playout statistics, and its children.
+     * Synchronize on the owning MCTSStrategy's {@code treeLock} to use any fields.
+     */
+    private static final class Node
+    {
+        /** Action leading to this node; 0 for a root */
+        final int action;
+
+        /** Number of playouts through this node */
+        int visits;
+
+        /** Number of playouts now running through this node, counted as losses until they finish */
+        int virtualLosses;
+
+        /** Total score of {@link #visits} playouts */
+        double scoreSum;
+
+        /** Children, or {@code null} if none yet */
+        ArrayList<Node> children;
+
+        Node(final int action)
+        {
+            this.action = action;
+        }
+
+        /**
+         * Get a child node.
+         * @param a  Child's action
+         * @return  The child, or {@code null} if not expanded yet
+         */
+        Node getChild(final int a)
+        {
+            if (children != null)
+                for (final Node ch : children)
+                    if (ch.action == a)
+                        return ch;
+
+            return null;
+        }
+
+        /**
+         * Select a child to explore for one of these legal actions: Expand one not yet tried,
+         * chosen at random, or if all are expanded, the one with the best UCT value.
+         * Caller must hold the tree lock.
+         * @param legal  Legal actions now; not empty
+         * @param rnd  Random number generator
+         * @param expanded  Set to true in element 0 if the returned child was just created
+         * @return  Selected child
+         */
+        Node select(final int[] legal, final Random rnd, final boolean[] expanded)
+        {
+            int nNew = 0;
+            for (final int a : legal)
+                if (getChild(a) == null)
+                    ++nNew;
+
+            if (nNew > 0)
+            {
+                int k = rnd.nextInt(nNew);
+                for (final int a : legal)
+                    if ((getChild(a) == null) && (k-- == 0))
+                    {
+                        final Node ch = new Node(a);
+                        if (children == null)
+                            children = new ArrayList<Node>(legal.length);
+                        children.add(ch);
+                        expanded[0] = true;
+                        return ch;
+                    }
+            }
+
+            final double logN = Math.log(Math.max(1, visits + virtualLosses));
+            Node best = null;
+            double bestVal = Double.NEGATIVE_INFINITY;
+            for (final int a : legal)
+            {
+                final Node ch = getChild(a);
+                final int n = ch.visits + ch.virtualLosses;
+                final double val = (n == 0)
+                    ? Double.POSITIVE_INFINITY
+                    : (ch.scoreSum / n) + UCT_C * Math.sqrt(logN / n);
+                if (val > bestVal)
+                {
+                    best = ch;
+                    bestVal = val;
+                }
+            }
+
+            expanded[0] = false;
+            return best;
+        }
+    }
+
+    /**
+     * One decision's search: Run by the robot brain's thread and any pool threads,
+     * each doing playouts until the deadline.
+     */
+    private final class Search implements Runnable
+    {
+        /** Fork of our game at decision time; only read, never changed */
+        private final SOCGame rootGame;
+
+        private final int kind;
+        private final int[] rootActions;
+        private final Node root;
+
+        /** {@link System#nanoTime()} when the time budget expires */
+        private final long deadline;
+
+        Search(final SOCGame rootGame, final int kind, final int[] rootActions, final Node root, final long deadline)
+        {
+            this.rootGame = rootGame;
+            this.kind = kind;
+            this.rootActions = rootActions;
+            this.root = root;
+            this.deadline = deadline;
+        }
+
+        public void run()
+        {
+            final long cpuStart = (threadBean != null) ? threadBean.getCurrentThreadCpuTime() : 0;
+            final Random rnd;
+            synchronized (rand)
+            {
+                rnd = new Random(rand.nextLong());
+            }
+
+            int n = 0;
+            while (System.nanoTime() - deadline < 0)
+            {
+                playout(rnd);
+                ++n;
+            }
+
+            statPlayouts.addAndGet(n);
+            if (threadBean != null)
+                statCpuNanos.addAndGet(threadBean.getCurrentThreadCpuTime() - cpuStart);
+        }
+
+        /**
+         * Do one playout: Select a path from the root, play out the rest of the game for a while
+         * in a fork, then update the path's statistics with its score.
+         * @param rnd  This thread's random number generator
+         */
+        private void playout(final Random rnd)
+        {
+            final List<Node> path = new ArrayList<Node>();
+            final boolean[] expanded = new boolean[1];
+            boolean scored = false;
+            try
+            {
+                final SOCGame ga = rootGame.fork(true);
+                dealUnknownResources(ga, rnd);
+
+                final Node first;
+                synchronized (treeLock)
+                {
+                    first = root.select(rootActions, rnd, expanded);
+                    ++root.virtualLosses;
+                    ++first.virtualLosses;
+                }
+                path.add(root);
+                path.add(first);
+
+                final Rollout ro = new Rollout(ga, rnd);
+                final SOCPlayer pl = ga.getPlayer(ourPN);
+                final int coord = first.action & A_COORD_MASK;
+                switch (kind)
+                {
+                case KIND_BUILD:
+                    ro.target = first.action;
+                    ro.treeNode = (expanded[0]) ? null : first;
+                    ro.path = path;
+                    break;
+
+                case KIND_INITIAL_SETTLEMENT:
+                    ga.putPiece(new SOCSettlement(pl, coord, ga.getBoard()));
+                    break;
+
+                case KIND_ROBBER:
+                    ga.moveRobber(ourPN, coord);
+                    break;
+                }
+
+                ro.play();
+                final double score = score(ga);
+
+                synchronized (treeLock)
+                {
+                    for (final Node nd : path)
+                    {
+                        --nd.virtualLosses;
+                        ++nd.visits;
+                        nd.scoreSum += score;
+                    }
+                }
+                scored = true;
+            } catch (RuntimeException e) {
+                // Rules code threw in an unusual position, such as revealing fog unknown at the client
+                statFailedPlayouts.incrementAndGet();
+            } finally {
+                if (! scored)
+                    synchronized (treeLock)
+                    {
+                        for (final Node nd : path)
+                            --nd.virtualLosses;
+                    }
+            }
+        }
+
+        /**
+         * Score a played-out game for our player: 1 if we won, 0 if someone else did;
+         * otherwise a mix of our victory points and our lead over the best opponent.
+         * @param ga  Game after playout
+         * @return  Score from 0 to 1
+         */
+        private double score(final SOCGame ga)
+        {
+            if (ga.getGameState() >= SOCGame.OVER)
+            {
+                final SOCPlayer winner = ga.getPlayerWithWin();
+                return ((winner != null) && (winner.getPlayerNumber() == ourPN)) ? 1.0 : 0.0;
+            }
+
+            final int ourVP = ga.getPlayer(ourPN).getTotalVP();
+            int bestOtherVP = 0;
+            for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                if ((pn != ourPN) && ! ga.isSeatVacant(pn))
+                    bestOtherVP = Math.max(bestOtherVP, ga.getPlayer(pn).getTotalVP());
+
+            final double vpWin = ga.vp_winner;
+            double lead = 0.5 + (ourVP - bestOtherVP) / vpWin;
+            if (lead < 0)
+                lead = 0;
+            else if (lead > 1)
+                lead = 1;
+
+            return 0.5 * lead + 0.5 * Math.min(1.0, ourVP / vpWin);
+        }
+    }
+
+    /**
+     * In a fork of our game, give each opponent random known resources in place of
+     * the {@link SOCResourceConstants#UNKNOWN} ones we can't see.
+     * @param ga  Forked game
+     * @param rnd  Random number generator
+     */
+    private void dealUnknownResources(final SOCGame ga, final Random rnd)
+    {
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            if (pn == ourPN)
+                continue;
+
+            final SOCResourceSet rs = ga.getPlayer(pn).getResources();
+            final int unknown = rs.getAmount(SOCResourceConstants.UNKNOWN);
+            if (unknown == 0)
+                continue;
+
+            rs.setAmount(0, SOCResourceConstants.UNKNOWN);
+            for (int i = 0; i < unknown; ++i)
+                rs.add(1, SOCResourceConstants.CLAY + rnd.nextInt(5));
+        }
+    }
+
+    /**
+     * Plays a forked game forward with a simple, fast policy for every player:
+     * Build cities, then settlements, then sometimes roads or a development card.
+     * For build decisions, our player instead follows targets chosen from the search tree
+     * until reaching a newly expanded node, then uses the same policy as everyone else.
+     */
+    private final class Rollout
+    {
+        private final SOCGame ga;
+        private final SOCBoard board;
+        private final Random rnd;
+
+        /** Our current build target action, or 0 to use the default policy */
+        int target;
+
+        /**
+         * Tree node of {@link #target}, whose children are candidates for our next target,
+         * or {@code null} if {@link #target} was newly expanded or we've left the tree
+         */
+        Node treeNode;
+
+        /** Search path to add selected nodes to, if {@link #treeNode} != null */
+        List<Node> path;
+
+        /** Turns remaining before the playout stops */
+        private int turnsLeft;
+
+        /** Pieces built so far this turn */
+        private int builtThisTurn;
+
+        Rollout(final SOCGame ga, final Random rnd)
+        {
+            this.ga = ga;
+            this.rnd = rnd;
+            board = ga.getBoard();
+            turnsLeft = ROLLOUT_ROUNDS * ga.maxPlayers;
+        }
+
+        /** Play until someone wins, {@link #turnsLeft} is 0, or play gets stuck. */
+        void play()
+        {
+            for (int steps = 0; steps < MAX_ROLLOUT_STEPS; ++steps)
+            {
+                if ((ga.getGameState() >= SOCGame.OVER) || (turnsLeft <= 0))
+                    return;
+                if (! step())
+                    return;
+            }
+        }
+
+        /**
+         * Take the next action needed in the current game state.
+         * @return  False if the state isn't one this policy can play
+         */
+        private boolean step()
+        {
+            final int cpn = ga.getCurrentPlayerNumber();
+            final SOCPlayer pl = ga.getPlayer(cpn);
+
+            switch (ga.getGameState())
+            {
+            case SOCGame.START1A:
+            case SOCGame.START2A:
+            case SOCGame.START3A:
+                {
+                    // best of a few random legal nodes by dice numbers
+                    int best = 0, bestScore = -1;
+                    final Vector<Integer> nodes = new Vector<Integer>(pl.getPotentialSettlements());
+                    for (int tries = 0; (tries < 12) && ! nodes.isEmpty(); ++tries)
+                    {
+                        final int node = nodes.get(rnd.nextInt(nodes.size()));
+                        if (! pl.canPlaceSettlement(node))
+                            continue;
+                        final int sc = nodeDiceScore(board, node);
+                        if (sc > bestScore)
+                        {
+                            best = node;
+                            bestScore = sc;
+                        }
+                    }
+                    if (best == 0)
+                        return false;
+
+                    ga.putPiece(new SOCSettlement(pl, best, board));
+                }
+                return true;
+
+            case SOCGame.START1B:
+            case SOCGame.START2B:
+            case SOCGame.START3B:
+                {
+                    final int[] edges = board.getAdjacentEdgesToNode_arr(pl.getLastSettlementCoord());
+                    final int start = rnd.nextInt(edges.length);
+                    for (int i = 0; i < edges.length; ++i)
+                    {
+                        final int edge = edges[(start + i) % edges.length];
+                        if (edge == -9)
+                            continue;
+                        if (pl.isPotentialRoad(edge))
+                        {
+                            ga.putPiece(new SOCRoad(pl, edge, board));
+                            return true;
+                        }
+                        if (ga.hasSeaBoard && ga.canPlaceShip(pl, edge))
+                        {
+                            ga.putPiece(new SOCShip(pl, edge, board));
+                            return true;
+                        }
+                    }
+                }
+                return false;
+
+            case SOCGame.STARTS_WAITING_FOR_PICK_GOLD_RESOURCE:
+            case SOCGame.WAITING_FOR_PICK_GOLD_RESOURCE:
+                for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                {
+                    final int n = ga.getPlayer(pn).getNeedToPickGoldHexResources();
+                    if (n > 0)
+                    {
+                        final SOCResourceSet rs = new SOCResourceSet();
+                        for (int i = 0; i < n; ++i)
+                            rs.add(1, SOCResourceConstants.CLAY + rnd.nextInt(5));
+                        ga.pickGoldHexResources(pn, rs);
+                        return true;
+                    }
+                }
+                return false;
+
+            case SOCGame.ROLL_OR_CARD:
+                builtThisTurn = 0;
+                ga.rollDice();
+                return true;
+
+            case SOCGame.WAITING_FOR_DISCARDS:
+                for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                {
+                    final SOCPlayer dpl = ga.getPlayer(pn);
+                    if (dpl.getNeedToDiscard())
+                    {
+                        // discard half, taking from the largest amounts
+                        final SOCResourceSet have = dpl.getResources().copy(), discard = new SOCResourceSet();
+                        for (int n = have.getKnownTotal() / 2; n > 0; --n)
+                        {
+                            int most = SOCResourceConstants.CLAY;
+                            for (int rtype = SOCResourceConstants.ORE; rtype <= SOCResourceConstants.WOOD; ++rtype)
+                                if (have.getAmount(rtype) > have.getAmount(most))
+                                    most = rtype;
+                            have.subtract(1, most);
+                            discard.add(1, most);
+                        }
+                        ga.discard(pn, discard);
+                        return true;
+                    }
+                }
+                return false;
+
+            case SOCGame.WAITING_FOR_ROBBER_OR_PIRATE:
+                ga.chooseMovePirate(false);
+                return true;
+
+            case SOCGame.PLACING_ROBBER:
+                {
+                    final int hex = chooseRobberHex(cpn);
+                    if (hex == 0)
+                        return false;
+                    ga.moveRobber(cpn, hex);
+                }
+                return true;
+
+            case SOCGame.WAITING_FOR_ROB_CHOOSE_PLAYER:
+                {
+                    final Vector<SOCPlayer> victims = ga.getPossibleVictims();
+                    if (victims.isEmpty())
+                        return false;
+                    ga.stealFromPlayer(victims.get(rnd.nextInt(victims.size())).getPlayerNumber(), false);
+                }
+                return true;
+
+            case SOCGame.PLAY1:
+            case SOCGame.SPECIAL_BUILDING:
+                {
+                    final int a = (builtThisTurn < MAX_BUILDS_PER_TURN) ? chooseBuild(pl) : 0;
+                    if (a != 0)
+                    {
+                        build(pl, a);
+                        ++builtThisTurn;
+                        if ((cpn == ourPN) && (a == target))
+                            nextTarget(pl);
+                    } else {
+                        builtThisTurn = 0;
+                        --turnsLeft;
+                        ga.endTurn();
+                    }
+                }
+                return true;
+
+            default:
+                return false;
+            }
+        }
+
+        /**
+         * Choose something for the current player to build now, and make any bank or port trades needed to pay for it.
+         * @param pl  Current player
+         * @return  Build action, or 0 to end the turn
+         */
+        private int chooseBuild(final SOCPlayer pl)
+        {
+            if ((pl.getPlayerNumber() == ourPN) && (target != 0))
+            {
+                if (isLegal(pl, target))
+                    return (acquire(pl, cost(target))) ? target : 0;  // if can't pay, save up for target
+
+                target = 0;  // someone took our target's location
+                treeNode = null;
+            }
+
+            if (pl.getNumPieces(SOCPlayingPiece.CITY) > 0)
+            {
+                final Vector<SOCSettlement> settles = pl.getSettlements();
+                if (! settles.isEmpty())
+                {
+                    final int node = settles.get(rnd.nextInt(settles.size())).getCoordinates();
+                    if (pl.isPotentialCity(node) && acquire(pl, SOCCity.COST))
+                        return A_CITY | node;
+                }
+            }
+
+            boolean anySettleSpot = false;
+            if (pl.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0)
+            {
+                int node = 0, n = 0;
+                for (final Integer ps : pl.getPotentialSettlements())
+                    if (pl.canPlaceSettlement(ps) && (rnd.nextInt(++n) == 0))
+                        node = ps;  // reservoir sample
+                if (node != 0)
+                {
+                    anySettleSpot = true;
+                    if (acquire(pl, SOCSettlement.COST))
+                        return A_SETTLEMENT | node;
+                }
+            }
+
+            final SOCResourceSet rs = pl.getResources();
+            if ((! anySettleSpot) || (rnd.nextInt(4) == 0))
+            {
+                if ((pl.getNumPieces(SOCPlayingPiece.ROAD) > 0) && rs.contains(SOCRoad.COST))
+                {
+                    final int edge = randomEdge(pl, false);
+                    if (edge != 0)
+                        return A_ROAD | edge;
+                }
+                if (ga.hasSeaBoard && (pl.getNumPieces(SOCPlayingPiece.SHIP) > 0) && rs.contains(SOCShip.COST))
+                {
+                    final int edge = randomEdge(pl, true);
+                    if (edge != 0)
+                        return A_SHIP | edge;
+                }
+            }
+
+            if ((ga.getNumDevCards() > 0) && rs.contains(SOCGame.CARD_SET) && (rnd.nextInt(3) == 0))
+                return A_CARD;
+
+            return 0;
+        }
+
+        /**
+         * Choose our next build target after building the current one:
+         * From the search tree if still in it, otherwise the default policy.
+         * @param pl  Our player
+         */
+        private void nextTarget(final SOCPlayer pl)
+        {
+            target = 0;
+            if (treeNode == null)
+                return;
+
+            final int[] legal = buildActions(ga, pl);
+            if (legal.length == 0)
+            {
+                treeNode = null;
+                return;
+            }
+
+            final boolean[] expanded = new boolean[1];
+            final Node ch;
+            synchronized (treeLock)
+            {
+                ch = treeNode.select(legal, rnd, expanded);
+                ++ch.virtualLosses;
+            }
+            path.add(ch);
+            target = ch.action;
+            treeNode = (expanded[0]) ? null : ch;
+        }
+
+        /**
+         * Is this build action legal for a player now, not counting resources?
+         * @param pl  Player
+         * @param a  Build action
+         * @return  True if legal
+         */
+        private boolean isLegal(final SOCPlayer pl, final int a)
+        {
+            final int coord = a & A_COORD_MASK;
+            switch (a & A_KIND_MASK)
+            {
+            case A_ROAD:
+                return (pl.getNumPieces(SOCPlayingPiece.ROAD) > 0) && pl.isPotentialRoad(coord);
+            case A_SHIP:
+                return (pl.getNumPieces(SOCPlayingPiece.SHIP) > 0) && ga.canPlaceShip(pl, coord);
+            case A_SETTLEMENT:
+                return (pl.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0) && pl.canPlaceSettlement(coord);
+            case A_CITY:
+                return (pl.getNumPieces(SOCPlayingPiece.CITY) > 0) && pl.isPotentialCity(coord);
+            case A_CARD:
+                return (ga.getNumDevCards() > 0);
+            default:
+                return false;
+            }
+        }
+
+        /**
+         * Build a piece or buy a development card. Caller has checked it's legal and affordable.
+         * A card's type is random: Victory point or knight (toward Largest Army), in proportion
+         * to the standard deck; other card types aren't played during playouts.
+         * @param pl  Current player
+         * @param a  Build action
+         */
+        private void build(final SOCPlayer pl, final int a)
+        {
+            final int pn = pl.getPlayerNumber(), coord = a & A_COORD_MASK;
+            switch (a & A_KIND_MASK)
+            {
+            case A_ROAD:
+                ga.buyRoad(pn);
+                ga.putPiece(new SOCRoad(pl, coord, board));
+                break;
+
+            case A_SHIP:
+                ga.buyShip(pn);
+                ga.putPiece(new SOCShip(pl, coord, board));
+                break;
+
+            case A_SETTLEMENT:
+                ga.buySettlement(pn);
+                ga.putPiece(new SOCSettlement(pl, coord, board));
+                break;
+
+            case A_CITY:
+                ga.buyCity(pn);
+                ga.putPiece(new SOCCity(pl, coord, board));
+                break;
+
+            case A_CARD:
+                pl.getResources().subtract(SOCGame.CARD_SET);
+                ga.setNumDevCards(ga.getNumDevCards() - 1);
+                final int r = rnd.nextInt(25);
+                if (r < 5)
+                {
+                    pl.getInventory().addDevCard(1, SOCInventory.KEPT, SOCDevCardConstants.UNIV);
+                } else if (r < 19) {
+                    pl.incrementNumKnights();
+                    ga.updateLargestArmy();
+                }
+                break;
+            }
+        }
+
+        /**
+         * Get a random edge where the player could build a road or ship.
+         * @param pl  Player
+         * @param ship  True for ships, false for roads
+         * @return  Edge coordinate, or 0 if none
+         */
+        private int randomEdge(final SOCPlayer pl, final boolean ship)
+        {
+            int found = 0, n = 0;
+            for (final Integer node : pl.getRoadNodes())
+                for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                    if ((edge != -9) && (ship ? ga.canPlaceShip(pl, edge) : pl.isPotentialRoad(edge))
+                        && (rnd.nextInt(++n) == 0))
+                        found = edge;
+
+            return found;
+        }
+
+        /**
+         * Choose a hex for the robber: The best of a few random legal hexes,
+         * by opponents' pieces there and its dice number, avoiding our own pieces.
+         * @param pn  Player moving the robber
+         * @return  Hex coordinate, or 0 if none found
+         */
+        private int chooseRobberHex(final int pn)
+        {
+            final int[] hexes = board.getLandHexCoords();
+            int best = 0, bestScore = Integer.MIN_VALUE;
+            for (int tries = 0; tries < 8; ++tries)
+            {
+                final int hex = hexes[rnd.nextInt(hexes.length)];
+                if (! ga.canMoveRobber(pn, hex))
+                    continue;
+
+                final int num = board.getNumberOnHexFromCoord(hex);
+                final int dice = ((num >= 2) && (num <= 12)) ? (6 - Math.abs(7 - num)) : 0;
+                int sc = 0;
+                for (final SOCPlayer hp : ga.getPlayersOnHex(hex))
+                    sc += (hp.getPlayerNumber() == pn) ? -100 : dice;
+                if (sc > bestScore)
+                {
+                    best = hex;
+                    bestScore = sc;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Make sure a player has the resources for something, trading with the bank
+         * or their ports if needed. Trades only if that gets everything needed.
+         * @param pl  Player
+         * @param cost  Resources needed
+         * @return  True if the player now has {@code cost}
+         */
+        private boolean acquire(final SOCPlayer pl, final SOCResourceSet cost)
+        {
+            final SOCResourceSet rs = pl.getResources();
+            int missing = 0;
+            for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+                missing += Math.max(0, cost.getAmount(rtype) - rs.getAmount(rtype));
+            if (missing == 0)
+                return true;
+
+            final int[] give = new int[SOCResourceConstants.WOOD + 1];
+            int gets = 0;
+            for (int rtype = SOCResourceConstants.CLAY; (rtype <= SOCResourceConstants.WOOD) && (gets < missing); ++rtype)
+            {
+                final int ratio = pl.getPortFlag(rtype) ? 2 : (pl.getPortFlag(SOCBoard.MISC_PORT) ? 3 : 4);
+                for (int extra = rs.getAmount(rtype) - cost.getAmount(rtype); (extra >= ratio) && (gets < missing); extra -= ratio)
+                {
+                    give[rtype] += ratio;
+                    ++gets;
+                }
+            }
+            if (gets < missing)
+                return false;
+
+            for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.WOOD; ++rtype)
+            {
+                rs.subtract(give[rtype], rtype);
+                final int need = cost.getAmount(rtype) - rs.getAmount(rtype);
+                if (need > 0)
+                    rs.add(need, rtype);
+            }
+
+            return true;
+        }
+
+        /**
+         * Get the resources needed for a build action.
+         * @param a  Build action
+         * @return  The cost
+         */
+        private SOCResourceSet cost(final int a)
+        {
+            switch (a & A_KIND_MASK)
+            {
+            case A_ROAD:       return SOCRoad.COST;
+            case A_SHIP:       return SOCShip.COST;
+            case A_SETTLEMENT: return SOCSettlement.COST;
+            case A_CITY:       return SOCCity.COST;
+            default:           return SOCGame.CARD_SET;
+            }
+        }
+    }
+
+}
@@ -1031,6 +1031,7 @@ public class OpeningBuildStrategy {
         final int[] numRating = SOCNumberProbabilities.INT_VALUES;
         final SOCPlayerNumbers playerNumbers = (player != null) ? player.getNumbers() : null;
         final SOCBoard board = game.getBoard();
+        final SOCBoardAdjacency.Relation hexesToNode = board.getAdjacency().hexesToNode;
 
         // 80 is highest practical score (40 if player == null)
         final int maxScore = (player != null) ? 80 : 40;
@@ -1046,11 +1047,9 @@ public class OpeningBuildStrategy {
             oldScore = nodes.get(node).intValue();
 
             int score = 0;
-            Enumeration<Integer> hexesEnum = board.getAdjacentHexesToNode(node.intValue()).elements();
-
-            while (hexesEnum.hasMoreElements())
+            for (int hi = hexesToNode.start(node.intValue()), hiEnd = hexesToNode.end(node.intValue()); hi < hiEnd; ++hi)
             {
-                final int hex = hexesEnum.nextElement().intValue();
+                final int hex = hexesToNode.get(hi);
                 final int number = board.getNumberOnHexFromCoord(hex);
                 score += numRating[number];
 
@@ -0,0 +1,333 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soc.game.SOCGame;
+import soc.game.SOCLRPathData;
+import soc.game.SOCPlayer;
+
+/**
+ * Thread pool and per-thread workspaces for scoring {@link SOCRobotDM}'s candidate pieces in parallel.
+ * All robots in this JVM share one pool, sized by {@link SOCRobotDM#setParallelScoringThreads(int)};
+ * by default there is none, and candidates are scored serially.
+ *<P>
+ * Scoring a candidate temporarily places it in the game and copies of the player trackers,
+ * so each pool thread scores in its own {@link Workspace}: A copy of the game, made by serializing
+ * the robot's game once per decision, and a copy of the trackers which track that game's players.
+ * Each score is written to the candidate's slot in a results array; the decision maker then applies
+ * them in its usual order, so the merge doesn't depend on which thread finished first.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+final class ParallelScoring
+{
+    /** Shared pool, or {@code null} if {@link #poolThreads} &lt; 2. Synchronize on the class to use. */
+    private static ExecutorService pool;
+
+    /** Number of threads in {@link #pool}, or 0. */
+    private static int poolThreads;
+
+    private ParallelScoring() {}
+
+    /**
+     * Set the number of scoring threads, replacing the current pool if any.
+     * Scoring already in progress on the old pool will finish normally.
+     * @param n  Number of threads; 0 or 1 to score serially
+     * @throws IllegalArgumentException if {@code n} &lt; 0
+     */
+    static synchronized void setThreads(final int n)
+        throws IllegalArgumentException
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("n");
+        if (n == poolThreads)
+            return;
+
+        if (pool != null)
+            pool.shutdown();
+        poolThreads = n;
+        if (n < 2)
+        {
+            pool = null;
+            return;
+        }
+
+        final AtomicInteger threadNum = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(n, new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, "robotScoring-" + threadNum.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Get the number of scoring threads.
+     * @return  Number of threads in the shared pool, or 0 or 1 if scoring serially
+     */
+    static synchronized int getThreads()
+    {
+        return poolThreads;
+    }
+
+    /**
+     * Score candidates in parallel, each thread in its own {@link Workspace}.
+     * Returns after all threads have finished.
+     *<P>
+     * While this method runs, the caller must not change {@code ga} or {@code trackers},
+     * which the pool threads copy and read.
+     *
+     * @param ga  Robot's game to copy
+     * @param ourPN  Our player number in {@code ga}
+     * @param trackers  Robot's player trackers, to copy into each workspace
+     * @param n  Number of candidates
+     * @param scorer  Callback to score each candidate number from 0 to {@code n} - 1
+     * @return  Each candidate's score, or {@code null} if there's no pool
+     *     or if copying the game or scoring failed; caller should then score serially
+     */
+    static float[] scoreAll
+        (final SOCGame ga, final int ourPN, final HashMap<Integer, SOCPlayerTracker> trackers,
+         final int n, final CandidateScorer scorer)
+    {
+        final ExecutorService p;
+        final int nThreads;
+        synchronized (ParallelScoring.class)
+        {
+            p = pool;
+            nThreads = Math.min(poolThreads, n);
+        }
+        if ((p == null) || (nThreads < 2))
+            return null;
+
+        final byte[] gameBytes;
+        try
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+            oos.writeObject(ga);
+            oos.close();
+            gameBytes = bytes.toByteArray();
+        } catch (IOException e) {
+            System.err.println("ParallelScoring: Can't copy game " + ga.getName() + ": " + e);
+            return null;
+        } catch (RuntimeException e) {
+            // ConcurrentModificationException if a message updated the game while copying
+            System.err.println("ParallelScoring: Can't copy game " + ga.getName() + ": " + e);
+            return null;
+        }
+
+        final float[] scores = new float[n];
+        final AtomicInteger nextCandidate = new AtomicInteger();
+        final List<Future<Object>> tasks = new ArrayList<Future<Object>>(nThreads);
+        try
+        {
+            for (int i = 0; i < nThreads; ++i)
+                tasks.add(p.submit(new Callable<Object>()
+                {
+                    public Object call()
+                        throws IOException, ClassNotFoundException
+                    {
+                        final Workspace ws = new Workspace(gameBytes, ourPN, trackers);
+                        for (int c = nextCandidate.getAndIncrement(); c < n; c = nextCandidate.getAndIncrement())
+                            scores[c] = scorer.score(ws, c);
+
+                        return null;
+                    }
+                }));
+        } catch (RuntimeException e) {
+            // RejectedExecutionException if pool was just replaced; wait for any submitted tasks, then return null
+            nextCandidate.set(n);
+            waitFor(tasks);
+            return null;
+        }
+
+        return (waitFor(tasks)) ? scores : null;
+    }
+
+    /**
+     * Wait for all of these tasks to finish. The tasks read the caller's trackers,
+     * so if interrupted, keeps waiting and then sets the thread's interrupt flag again.
+     * @param tasks  Tasks to wait for
+     * @return  True if all completed normally, false if any threw an exception or wait was interrupted
+     */
+    private static boolean waitFor(final List<Future<Object>> tasks)
+    {
+        boolean allOK = true, wasInterrupted = false;
+        for (Future<Object> task : tasks)
+        {
+            for (;;)
+            {
+                try
+                {
+                    task.get();
+                    break;
+                } catch (ExecutionException e) {
+                    allOK = false;
+                    System.err.println("ParallelScoring: Exception while scoring: " + e.getCause());
+                    e.getCause().printStackTrace();
+                    break;
+                } catch (InterruptedException e) {
+                    allOK = false;
+                    wasInterrupted = true;
+                }
+            }
+        }
+
+        if (wasInterrupted)
+            Thread.currentThread().interrupt();
+
+        return allOK;
+    }
+
+    /**
+     * Callback to score one candidate within a workspace.
+     */
+    interface CandidateScorer
+    {
+        /**
+         * Score a candidate. Any temporary pieces placed for scoring must be removed before returning,
+         * and {@link Workspace#restoreLRPaths()} called.
+         * @param ws  Workspace to score in; its fields are used only by the current thread
+         * @param i  Candidate number
+         * @return  the candidate's score, or {@link Float#NaN} if the scorer chose to skip it
+         */
+        float score(Workspace ws, int i);
+    }
+
+    /**
+     * A game, our player, and player trackers for scoring candidates by placing temporary pieces.
+     * Serial scoring uses the robot's own game and trackers; each parallel scoring thread
+     * uses a copy made by {@link #Workspace(byte[], int, HashMap)}.
+     */
+    static final class Workspace
+    {
+        /** Game to place temporary pieces in */
+        final SOCGame game;
+
+        /** Our player in {@link #game} */
+        final SOCPlayer ourPlayer;
+
+        /** Player trackers for {@link #game}'s players */
+        final HashMap<Integer, SOCPlayerTracker> trackers;
+
+        /**
+         * Another copy of {@link #trackers} to place candidate cities in, or {@code null} if not made yet.
+         * Cities are scored in a single copy, undoing each city's placement before the next.
+         */
+        HashMap<Integer, SOCPlayerTracker> cityTrackers;
+
+        /** Each player's {@link SOCPlayer#getLRPaths()} when this workspace was set up */
+        private final List<SOCLRPathData>[] savedLRPaths;
+
+        /**
+         * Workspace using the robot's own game and trackers.
+         * @param ga  Game
+         * @param pl  Our player in {@code ga}
+         * @param trackers  Trackers for {@code ga}'s players
+         */
+        Workspace(final SOCGame ga, final SOCPlayer pl, final HashMap<Integer, SOCPlayerTracker> trackers)
+        {
+            game = ga;
+            ourPlayer = pl;
+            this.trackers = trackers;
+            savedLRPaths = saveLRPaths(ga);
+        }
+
+        /**
+         * Workspace using a copy of a game, for use by one thread.
+         * @param gameBytes  Serialized game to copy
+         * @param ourPN  Our player number
+         * @param fromTrackers  Robot's player trackers, to copy for this game
+         * @throws IOException  if thrown while deserializing {@code gameBytes}
+         * @throws ClassNotFoundException  if thrown while deserializing {@code gameBytes}
+         */
+        Workspace(final byte[] gameBytes, final int ourPN, final HashMap<Integer, SOCPlayerTracker> fromTrackers)
+            throws IOException, ClassNotFoundException
+        {
+            final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(gameBytes));
+            game = (SOCGame) ois.readObject();
+            ois.close();
+
+            ourPlayer = game.getPlayer(ourPN);
+            trackers = SOCPlayerTracker.copyPlayerTrackers
+                (fromTrackers, game, new SOCPlayerTracker.ETAScratch(game));
+            savedLRPaths = saveLRPaths(game);
+        }
+
+        /**
+         * Save a copy of each player's current LR paths.
+         * @param ga  Game with players
+         * @return  Each player's {@link SOCPlayer#getLRPaths()}
+         */
+        private static List<SOCLRPathData>[] saveLRPaths(final SOCGame ga)
+        {
+            @SuppressWarnings("unchecked")
+            final List<SOCLRPathData>[] saved = (List<SOCLRPathData>[]) new List<?>[ga.maxPlayers];
+            for (int pn = 0; pn < ga.maxPlayers; pn++)
+                saved[pn] = new ArrayList<SOCLRPathData>(ga.getPlayer(pn).getLRPaths());
+
+            return saved;
+        }
+
+        /**
+         * Restore each player's LR paths to what they were when this workspace was set up.
+         * Placing and removing a temporary piece can leave new LR paths behind,
+         * which would change the next candidate's score.
+         */
+        void restoreLRPaths()
+        {
+            for (int pn = 0; pn < game.maxPlayers; pn++)
+                game.getPlayer(pn).setLRPaths(savedLRPaths[pn]);
+        }
+
+        /**
+         * Get {@link #cityTrackers}, copying it from {@link #trackers} if not made yet.
+         * @return  trackers to place candidate cities in
+         */
+        HashMap<Integer, SOCPlayerTracker> getCityTrackers()
+        {
+            if (cityTrackers == null)
+                cityTrackers = SOCPlayerTracker.copyPlayerTrackers(trackers);
+
+            return cityTrackers;
+        }
+    }
+
+}
@@ -30,7 +30,6 @@ import soc.util.CutoffExceededException;
 
 import java.util.Enumeration;
 import java.util.Hashtable;
-import java.util.Vector;
 
 
 /**
@@ -77,6 +76,22 @@ public class SOCBuildingSpeedEstimate
      */
     private SOCResourceSet[] resourcesForRoll;
 
+    /**
+     * Working resource set for {@link #calculateRollsFast(ResourceSet, SOCResourceSet, int, boolean[])}
+     * and {@link #getEstimatesFromNothingFast(boolean[])}, reused to avoid an allocation per call.
+     * Contents are meaningless between calls.
+     * @since 2.0.00
+     */
+    private final SOCResourceSet scratchResources = new SOCResourceSet();
+
+    /**
+     * Costs for the {@link #getEstimatesFromNothingFast(boolean[])} building types,
+     * indexed by {@link #ROAD}, {@link #SETTLEMENT}, etc.
+     * @since 2.0.00
+     */
+    private static final ResourceSet[] ESTIMATE_COSTS =
+        { SOCRoad.COST, SOCSettlement.COST, SOCCity.COST, SOCGame.CARD_SET, SOCShip.COST };
+
     /**
      * Create a new SOCBuildingSpeedEstimate, calculating
      * the rollsPerResource and resourcesPerRoll based on
@@ -190,28 +205,7 @@ public class SOCBuildingSpeedEstimate
     public int[] getEstimatesFromNothingFast(boolean[] ports)
     {
         if (recalc)
-        {
-            estimatesFromNothing[ROAD] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[SETTLEMENT] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[CITY] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[CARD] = DEFAULT_ROLL_LIMIT;
-            estimatesFromNothing[SHIP] = DEFAULT_ROLL_LIMIT;
-
-            SOCResourceSet emptySet = new SOCResourceSet();
-
-            try
-            {
-                estimatesFromNothing[ROAD] = calculateRollsAndRsrcFast(emptySet, SOCRoad.COST, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[SETTLEMENT] = calculateRollsAndRsrcFast(emptySet, SOCSettlement.COST, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[CITY] = calculateRollsAndRsrcFast(emptySet, SOCCity.COST, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[CARD] = calculateRollsAndRsrcFast(emptySet, SOCGame.CARD_SET, DEFAULT_ROLL_LIMIT, ports).getRolls();
-                estimatesFromNothing[SHIP] = calculateRollsAndRsrcFast(emptySet, SOCShip.COST, DEFAULT_ROLL_LIMIT, ports).getRolls();
-            }
-            catch (CutoffExceededException e)
-            {
-                ;
-            }
-        }
+            calculateEstimatesFromNothingFast(DEFAULT_ROLL_LIMIT, ports);
 
         return estimatesFromNothing;
     }
@@ -224,30 +218,34 @@ public class SOCBuildingSpeedEstimate
     public int[] getEstimatesFromNothingFast(boolean[] ports, int limit)
     {
         if (recalc)
-        {
-            estimatesFromNothing[ROAD] = limit;
-            estimatesFromNothing[SETTLEMENT] = limit;
-            estimatesFromNothing[CITY] = limit;
-            estimatesFromNothing[CARD] = limit;
-            estimatesFromNothing[SHIP] = limit;
+            calculateEstimatesFromNothingFast(limit, ports);
 
-            SOCResourceSet emptySet = new SOCResourceSet();
+        return estimatesFromNothing;
+    }
 
-            try
-            {
-                estimatesFromNothing[ROAD] = calculateRollsAndRsrcFast(emptySet, SOCRoad.COST, limit, ports).getRolls();
-                estimatesFromNothing[SETTLEMENT] = calculateRollsAndRsrcFast(emptySet, SOCSettlement.COST, limit, ports).getRolls();
-                estimatesFromNothing[CITY] = calculateRollsAndRsrcFast(emptySet, SOCCity.COST, limit, ports).getRolls();
-                estimatesFromNothing[CARD] = calculateRollsAndRsrcFast(emptySet, SOCGame.CARD_SET, limit, ports).getRolls();
-                estimatesFromNothing[SHIP] = calculateRollsAndRsrcFast(emptySet, SOCShip.COST, limit, ports).getRolls();
-            }
-            catch (CutoffExceededException e)
-            {
-                ;
-            }
-        }
+    /**
+     * Fill {@link #estimatesFromNothing} for {@link #getEstimatesFromNothingFast(boolean[], int)}
+     * without allocating, using {@link #scratchResources}.
+     * As with the cutoff exception in earlier versions, once a building type's estimate
+     * reaches {@code limit}, it and all later types are left at {@code limit}.
+     * @param limit  Maximum number of rolls
+     * @param ports  the player's trade port flags
+     * @since 2.0.00
+     */
+    private void calculateEstimatesFromNothingFast(final int limit, final boolean[] ports)
+    {
+        for (int btype = MIN; btype < MAXPLUSONE; ++btype)
+            estimatesFromNothing[btype] = limit;
 
-        return estimatesFromNothing;
+        for (int btype = MIN; btype < MAXPLUSONE; ++btype)
+        {
+            final int rolls = calculateRollsFastInto
+                (SOCGame.EMPTY_RESOURCES, ESTIMATE_COSTS[btype], limit, ports, scratchResources);
+            if (rolls < 0)
+                break;
+
+            estimatesFromNothing[btype] = rolls;
+        }
     }
 
     /**
@@ -360,16 +358,11 @@ public class SOCBuildingSpeedEstimate
 
             float totalProbability = 0.0f;
 
-            Enumeration<Integer> numbersEnum =
-                ((robberHex != -1)
-                   ? numbers.getNumbersForResource(resource, robberHex)
-                   : numbers.getNumbersForResource(resource)
-                 ).elements();
-
-            while (numbersEnum.hasMoreElements())
+            for (int diceNum = 2; diceNum <= 12; ++diceNum)
             {
-                Integer number = numbersEnum.nextElement();
-                totalProbability += SOCNumberProbabilities.FLOAT_VALUES[number.intValue()];
+                // add once per amount, like the per-number Vector elements before v2.0.00
+                for (int amt = numbers.getResourceAmountForNumber(diceNum, resource, robberHex); amt > 0; --amt)
+                    totalProbability += SOCNumberProbabilities.FLOAT_VALUES[diceNum];
             }
 
             //D.ebugPrintln("totalProbability: " + totalProbability);
@@ -404,34 +397,20 @@ public class SOCBuildingSpeedEstimate
 
         for (int diceResult = 2; diceResult <= 12; diceResult++)
         {
-            Vector<Integer> resources = (robberHex != -1)
-                ? numbers.getResourcesForNumber(diceResult, robberHex)
-                : numbers.getResourcesForNumber(diceResult);
+            SOCResourceSet resourceSet = resourcesForRoll[diceResult];
 
-            if (resources != null)
+            if (resourceSet == null)
             {
-                SOCResourceSet resourceSet = resourcesForRoll[diceResult];
-
-                if (resourceSet == null)
-                {
-                    resourceSet = new SOCResourceSet();
-                    resourcesForRoll[diceResult] = resourceSet;
-                }
-                else
-                {
-                    resourceSet.clear();
-                }
-
-                Enumeration<Integer> resourcesEnum = resources.elements();
-
-                while (resourcesEnum.hasMoreElements())
-                {
-                    Integer resourceInt = resourcesEnum.nextElement();
-                    resourceSet.add(1, resourceInt.intValue());
-                }
+                resourceSet = new SOCResourceSet();
+                resourcesForRoll[diceResult] = resourceSet;
+            }
 
-                //D.ebugPrintln("### resources for "+diceResult+" = "+resourceSet);
+            for (int res = SOCResourceConstants.CLAY; res <= SOCResourceConstants.WOOD; ++res)
+            {
+                resourceSet.setAmount(numbers.getResourceAmountForNumber(diceResult, res, robberHex), res);
             }
+
+            //D.ebugPrintln("### resources for "+diceResult+" = "+resourceSet);
         }
     }
 
@@ -473,15 +452,9 @@ public class SOCBuildingSpeedEstimate
     protected final int calculateRollsFast
         (final ResourceSet startingResources, final SOCResourceSet targetResources, final int cutoff, final boolean[] ports)
     {
-        try
-        {
-            SOCResSetBuildTimePair pair = calculateRollsAndRsrcFast(startingResources, targetResources, cutoff, ports);
-            return pair.getRolls();
-        }
-        catch (CutoffExceededException e)
-        {
-            return cutoff;
-        }
+        final int rolls = calculateRollsFastInto(startingResources, targetResources, cutoff, ports, scratchResources);
+
+        return (rolls >= 0) ? rolls : cutoff;
     }
 
     /**
@@ -505,11 +478,39 @@ public class SOCBuildingSpeedEstimate
     protected SOCResSetBuildTimePair calculateRollsAndRsrcFast
         (final ResourceSet startingResources, final SOCResourceSet targetResources, final int cutoff, final boolean[] ports)
         throws CutoffExceededException
+    {
+        SOCResourceSet ourResources = new SOCResourceSet();
+        final int rolls = calculateRollsFastInto(startingResources, targetResources, cutoff, ports, ourResources);
+        if (rolls < 0)
+            throw new CutoffExceededException();
+
+        return (new SOCResSetBuildTimePair(ourResources, rolls));
+    }
+
+    /**
+     * Calculation for {@link #calculateRollsAndRsrcFast(ResourceSet, SOCResourceSet, int, boolean[])}
+     * and {@link #calculateRollsFast(ResourceSet, SOCResourceSet, int, boolean[])}
+     * which doesn't allocate: Works in a resource set given by the caller, and returns -1
+     * instead of throwing an exception if the cutoff is exceeded.
+     *
+     * @param startingResources   the starting resources
+     * @param targetResources     the target resources
+     * @param cutoff              maximum number of rolls
+     * @param ports               a list of port flags
+     * @param ourResources  Set to overwrite with {@code startingResources} and use for the calculation;
+     *     holds the resources after any trading when this method returns
+     * @return the number of rolls, or -1 if more than {@code cutoff}
+     * @since 2.0.00
+     */
+    private int calculateRollsFastInto
+        (final ResourceSet startingResources, final ResourceSet targetResources, final int cutoff, final boolean[] ports,
+         final SOCResourceSet ourResources)
     {
         //D.ebugPrintln("calculateRolls");
         //D.ebugPrintln("  start: "+startingResources);
         //D.ebugPrintln("  target: "+targetResources);
-        SOCResourceSet ourResources = new SOCResourceSet(startingResources);
+        for (int rtype = SOCResourceConstants.CLAY; rtype <= SOCResourceConstants.UNKNOWN; ++rtype)
+            ourResources.setAmount(startingResources.getAmount(rtype), rtype);
         int rolls = 0;
 
         if (!ourResources.contains(targetResources))
@@ -624,7 +625,7 @@ public class SOCBuildingSpeedEstimate
             if (rolls > cutoff)
             {
                 //D.ebugPrintln("startingResources="+startingResources+"\ntargetResources="+targetResources+"\ncutoff="+cutoff+"\nourResources="+ourResources);
-                throw new CutoffExceededException();
+                return -1;
             }
 
             for (int resource = SOCResourceConstants.CLAY;
@@ -746,7 +747,7 @@ public class SOCBuildingSpeedEstimate
             }
         }
 
-        return (new SOCResSetBuildTimePair(ourResources, rolls));
+        return rolls;
     }
 
     /**
@@ -25,6 +25,7 @@ package soc.robot;
 import soc.disableDebug.D;
 
 import soc.game.SOCBoard;
+import soc.game.SOCBoardAdjacency;
 import soc.game.SOCBoardLarge;
 import soc.game.SOCCity;
 import soc.game.SOCDevCardConstants;
@@ -43,7 +44,7 @@ import soc.game.SOCShip;
 import soc.util.Pair;
 import soc.util.Queue;
 
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -165,6 +166,14 @@ public class SOCPlayerTracker
      */
     private SOCShip scen_SC_PIRI_closestShipToFortress;
 
+    /**
+     * Working data for {@link #recalcWinGameETA()} if this tracker is in a copy of the game
+     * being scored by another thread, or {@code null} to use {@link #brain}'s.
+     * Copied to this tracker's copies. See {@link #copyPlayerTrackers(HashMap, SOCGame, ETAScratch)}.
+     * @since 2.0.00
+     */
+    private final ETAScratch etaScratch;
+
     /**
      * monitor for synchronization
      */
@@ -191,6 +200,7 @@ public class SOCPlayerTracker
         largestArmyETA = 500;
         knightsToBuy = 0;
         pendingInitSettlement = null;
+        etaScratch = null;
     }
 
     /**
@@ -201,12 +211,31 @@ public class SOCPlayerTracker
      * @param pt  the player tracker
      */
     public SOCPlayerTracker(SOCPlayerTracker pt)
+    {
+        this(pt, pt.getPlayer(), pt.etaScratch);
+    }
+
+    /**
+     * Copy constructor for tracking the same player in a copy of the game.
+     * Copies are owned by {@code pl} instead of {@code pt}'s player.
+     *<P>
+     * Note: Does NOT copy connections between possible pieces
+     *
+     * @param pt  the player tracker
+     * @param pl  the player being tracked: {@code pt}'s player, or the player with that number in a copy of the game
+     * @param scratch  working data for {@link #recalcWinGameETA()} if this copy will be used by a thread other
+     *     than {@code pt}'s brain's, or {@code null}
+     * @since 2.0.00
+     */
+    SOCPlayerTracker(SOCPlayerTracker pt, final SOCPlayer pl, final ETAScratch scratch)
     {
         inUse = false;
         brain = pt.getBrain();
-        player = pt.getPlayer();
+        player = pl;
         playerNumber = player.getPlayerNumber();
-        game = pt.game;
+        game = pl.getGame();
+        etaScratch = scratch;
+        final boolean rebind = (pl != pt.getPlayer());
         possibleRoads = new TreeMap<Integer, SOCPossibleRoad>();
         possibleSettlements = new TreeMap<Integer, SOCPossibleSettlement>();
         possibleCities = new TreeMap<Integer, SOCPossibleCity>();
@@ -230,18 +259,24 @@ public class SOCPlayerTracker
                 posRoadCopy = new SOCPossibleShip((SOCPossibleShip) posRoad);
             else
                 posRoadCopy = new SOCPossibleRoad(posRoad);
+            if (rebind)
+                posRoadCopy.setPlayer(pl);
             possibleRoads.put(new Integer(posRoadCopy.getCoordinates()), posRoadCopy);
         }
 
         for (SOCPossibleSettlement posSettlement : pt.getPossibleSettlements().values())
         {
             SOCPossibleSettlement posSettlementCopy = new SOCPossibleSettlement(posSettlement);
+            if (rebind)
+                posSettlementCopy.setPlayer(pl);
             possibleSettlements.put(new Integer(posSettlementCopy.getCoordinates()), posSettlementCopy);
         }
 
         for (SOCPossibleCity posCity : pt.getPossibleCities().values())
         {
             SOCPossibleCity posCityCopy = new SOCPossibleCity(posCity);
+            if (rebind)
+                posCityCopy.setPlayer(pl);
             possibleCities.put(new Integer(posCityCopy.getCoordinates()), posCityCopy);
         }
     }
@@ -255,6 +290,26 @@ public class SOCPlayerTracker
      * param trackers  player trackers for each player
      */
     public static HashMap<Integer, SOCPlayerTracker> copyPlayerTrackers(HashMap<Integer, SOCPlayerTracker> trackers)
+    {
+        return copyPlayerTrackers(trackers, null, null);
+    }
+
+    /**
+     * make copies of player trackers, optionally tracking the players of a copy of the game,
+     * and then make connections between copied pieces.
+     *<P>
+     * Note: not copying threats
+     *
+     * @param trackers  player trackers for each player
+     * @param toGame  Copy of the trackers' game to track in, or {@code null} to track the same game and players
+     * @param scratch  If {@code toGame} != null, working data for the copies' {@link #recalcWinGameETA()}
+     *     calls, which must be separate from the brain's if the copies are used by another thread; otherwise
+     *     {@code null} to use the same working data as {@code trackers}
+     * @return  the copied trackers
+     * @since 2.0.00
+     */
+    static HashMap<Integer, SOCPlayerTracker> copyPlayerTrackers
+        (HashMap<Integer, SOCPlayerTracker> trackers, final SOCGame toGame, final ETAScratch scratch)
     {
         HashMap<Integer, SOCPlayerTracker> trackersCopy = new HashMap<Integer, SOCPlayerTracker>(trackers.size());  // == SOCGame.MAXPLAYERS
 
@@ -266,7 +321,9 @@ public class SOCPlayerTracker
         while (trackersIter.hasNext())
         {
             SOCPlayerTracker pt = trackersIter.next();
-            trackersCopy.put(new Integer(pt.getPlayer().getPlayerNumber()), new SOCPlayerTracker(pt));
+            final int pn = pt.getPlayer().getPlayerNumber();
+            trackersCopy.put(new Integer(pn),
+                (toGame != null) ? new SOCPlayerTracker(pt, toGame.getPlayer(pn), scratch) : new SOCPlayerTracker(pt));
         }
 
         //
@@ -660,10 +717,12 @@ public class SOCPlayerTracker
         // check adjacent nodes to road for potential settlements
         //
         final SOCBoard board = game.getBoard();
-        Collection<Integer> adjNodeEnum = board.getAdjacentNodesToEdge(road.getCoordinates());
+        final SOCBoardAdjacency.Relation nodesToEdge = board.getAdjacency().nodesToEdge;
+        final int roadEdge = road.getCoordinates();
 
-        for (Integer adjNode : adjNodeEnum)
+        for (int ni = nodesToEdge.start(roadEdge), niEnd = nodesToEdge.end(roadEdge); ni < niEnd; ++ni)
         {
+            final Integer adjNode = Integer.valueOf(nodesToEdge.get(ni));
             if (player.canPlaceSettlement(adjNode.intValue()))
             {
                 //
@@ -706,10 +765,10 @@ public class SOCPlayerTracker
         //
         // check adjacent edges to road
         //
-        Vector<Integer> adjEdgesEnum = board.getAdjacentEdgesToEdge(road.getCoordinates());
-        for (Integer adjEdge : adjEdgesEnum)
+        final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
+        for (int ei = edgesToEdge.start(roadEdge), eiEnd = edgesToEdge.end(roadEdge); ei < eiEnd; ++ei)
         {
-            final int edge = adjEdge.intValue();
+            final int edge = edgesToEdge.get(ei);
 
             //D.ebugPrintln("$$$ edge "+Integer.toHexString(adjEdge.intValue())+" is legal:"+player.isPotentialRoad(adjEdge.intValue()));
             //
@@ -749,7 +808,7 @@ public class SOCPlayerTracker
                 //
                 // see if possible road is already in the list
                 //
-                SOCPossibleRoad pr = possibleRoads.get(adjEdge);
+                SOCPossibleRoad pr = possibleRoads.get(Integer.valueOf(edge));
 
                 if (pr != null)
                 {
@@ -880,9 +939,11 @@ public class SOCPlayerTracker
         //
         //D.ebugPrintln("$$$ checking for possible settlements");
         //
-        Vector<Integer> adjNodeEnum = board.getAdjacentNodesToEdge(tgtRoadEdge);
-        for (Integer adjNode : adjNodeEnum)
+        final SOCBoardAdjacency adjacency = board.getAdjacency();
+        final SOCBoardAdjacency.Relation nodesToEdge = adjacency.nodesToEdge;
+        for (int ni = nodesToEdge.start(tgtRoadEdge), niEnd = nodesToEdge.end(tgtRoadEdge); ni < niEnd; ++ni)
         {
+            final Integer adjNode = Integer.valueOf(nodesToEdge.get(ni));
             if (dummy.canPlaceSettlement(adjNode.intValue()))
             {
                 //
@@ -947,11 +1008,10 @@ public class SOCPlayerTracker
             //
             // check adjacent edges to road or ship
             //
-            Enumeration<Integer> adjEdgesEnum = board.getAdjacentEdgesToEdge(tgtRoadEdge).elements();
-            while (adjEdgesEnum.hasMoreElements())
+            final SOCBoardAdjacency.Relation edgesToEdge = adjacency.edgesToEdge;
+            for (int ei = edgesToEdge.start(tgtRoadEdge), eiEnd = edgesToEdge.end(tgtRoadEdge); ei < eiEnd; ++ei)
             {
-                Integer adjEdge = adjEdgesEnum.nextElement();
-                final int edge = adjEdge.intValue();
+                final int edge = edgesToEdge.get(ei);
 
                 if (isShipInSC_PIRI)
                 {
@@ -1009,7 +1069,7 @@ public class SOCPlayerTracker
                     //
                     // see if possible road is already in the list
                     //
-                    SOCPossibleRoad pr = possibleRoads.get(adjEdge);
+                    SOCPossibleRoad pr = possibleRoads.get(Integer.valueOf(edge));
 
                     if (pr != null)
                     {
@@ -1364,11 +1424,12 @@ public class SOCPlayerTracker
             /**
              * now look at adjacent settlements
              */
-            Enumeration<Integer> adjNodeEnum = board.getAdjacentNodesToNode(ps.getCoordinates()).elements();
+            final SOCBoardAdjacency.Relation nodesToNode = board.getAdjacency().nodesToNode;
+            final int psNode = ps.getCoordinates();
 
-            while (adjNodeEnum.hasMoreElements())
+            for (int ni = nodesToNode.start(psNode), niEnd = nodesToNode.end(psNode); ni < niEnd; ++ni)
             {
-                Integer adjNode = adjNodeEnum.nextElement();
+                final Integer adjNode = Integer.valueOf(nodesToNode.get(ni));
                 SOCPossibleSettlement posSet = tracker.getPossibleSettlements().get(adjNode);
 
                 if (posSet != null)
@@ -1528,7 +1589,7 @@ public class SOCPlayerTracker
             D.ebugPrintln("$$$ wasn't possible settlement");
 
             Vector<SOCPossibleSettlement> trash = new Vector<SOCPossibleSettlement>();
-            Vector<Integer> adjNodes = board.getAdjacentNodesToNode(settlement.getCoordinates());
+            final SOCBoardAdjacency.Relation nodesToNode = board.getAdjacency().nodesToNode;
             Iterator<SOCPlayerTracker> trackersIter = trackers.values().iterator();
 
             while (trackersIter.hasNext())
@@ -1563,11 +1624,10 @@ public class SOCPlayerTracker
                 /**
                  * check adjacent nodes
                  */
-                Enumeration<Integer> adjNodeEnum = adjNodes.elements();
-
-                while (adjNodeEnum.hasMoreElements())
+                for (int ni = nodesToNode.start(settlementCoords), niEnd = nodesToNode.end(settlementCoords);
+                     ni < niEnd; ++ni)
                 {
-                    Integer adjNode = adjNodeEnum.nextElement();
+                    final Integer adjNode = Integer.valueOf(nodesToNode.get(ni));
                     D.ebugPrintln("$$$ checking node " + Integer.toHexString(adjNode.intValue()));
                     posSet = tracker.getPossibleSettlements().get(adjNode);
 
@@ -2114,11 +2174,12 @@ public class SOCPlayerTracker
                  * look for possible settlements that can block this road
                  */
                 final int[] adjNodesToPosRoad = board.getAdjacentNodesToEdge_arr(posRoad.getCoordinates());
-                Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(posRoad.getCoordinates()).elements();
+                final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
+                final int posRoadEdge = posRoad.getCoordinates();
 
-                while (adjEdgeEnum.hasMoreElements())
+                for (int ei = edgesToEdge.start(posRoadEdge), eiEnd = edgesToEdge.end(posRoadEdge); ei < eiEnd; ++ei)
                 {
-                    final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                    final int adjEdge = edgesToEdge.get(ei);
                     Enumeration<SOCRoad> realRoadEnum = player.getRoads().elements();
 
                     while (realRoadEnum.hasMoreElements())
@@ -2473,7 +2534,7 @@ public class SOCPlayerTracker
         D.ebugPrintln("===  recalcLongestRoadETA for player " + playerNumber);
 
         final int roadETA;
-        SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers());
+        final SOCBuildingSpeedEstimate bse = getScratchBSE();
         roadETA = bse.calculateRollsFast(SOCGame.EMPTY_RESOURCES, SOCRoad.COST, 500, player.getPortFlags());
 
         roadsToGo = 500;
@@ -2592,7 +2653,7 @@ public class SOCPlayerTracker
             ///
             /// figure out how long it takes to buy this many knights
             ///
-            SOCBuildingSpeedEstimate bse = new SOCBuildingSpeedEstimate(player.getNumbers());
+            final SOCBuildingSpeedEstimate bse = getScratchBSE();
             int[] ourBuildingSpeed = bse.getEstimatesFromNothingFast(player.getPortFlags());
             int cardETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.CARD];
             largestArmyETA = (cardETA + 1) * knightsToBuy;
@@ -2705,11 +2766,12 @@ public class SOCPlayerTracker
         {
             noMoreExpansion = false;
 
-            Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(dummyRoad.getCoordinates()).elements();
+            final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
+            final int dummyEdge = dummyRoad.getCoordinates();
 
-            while (adjEdgeEnum.hasMoreElements())
+            for (int ei = edgesToEdge.start(dummyEdge), eiEnd = edgesToEdge.end(dummyEdge); ei < eiEnd; ++ei)
             {
-                final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                final int adjEdge = edgesToEdge.get(ei);
 
                 if ( (dummyRoad.isRoadNotShip() && dummy.isPotentialRoad(adjEdge))
                      || ((! dummyRoad.isRoadNotShip()) && dummy.isPotentialShip(adjEdge)) )
@@ -2740,10 +2802,11 @@ public class SOCPlayerTracker
             //
             // we need to add new roads/ships adjacent to dummyRoad, and recurse
             //
-            Enumeration<Integer> adjEdgeEnum = board.getAdjacentEdgesToEdge(dummyRoad.getCoordinates()).elements();
-            while (adjEdgeEnum.hasMoreElements())
+            final SOCBoardAdjacency.Relation edgesToEdge = board.getAdjacency().edgesToEdge;
+            final int dummyEdge = dummyRoad.getCoordinates();
+            for (int ei = edgesToEdge.start(dummyEdge), eiEnd = edgesToEdge.end(dummyEdge); ei < eiEnd; ++ei)
             {
-                final int adjEdge = adjEdgeEnum.nextElement().intValue();
+                final int adjEdge = edgesToEdge.get(ei);
 
                 if ( (dummyRoad.isRoadNotShip() && dummy.isPotentialRoad(adjEdge))
                      || ((! dummyRoad.isRoadNotShip()) && dummy.isPotentialShip(adjEdge)) )
@@ -2795,6 +2858,36 @@ public class SOCPlayerTracker
         return needLA;
     }
 
+    /**
+     * Get the working data for {@link #recalcWinGameETA()}: This tracker's {@link #etaScratch} if any,
+     * otherwise {@link #brain}'s. If no brain, returns a new one.
+     * @return  Working data to reset and use
+     * @since 2.0.00
+     */
+    private ETAScratch getETAScratch()
+    {
+        if (etaScratch != null)
+            return etaScratch;
+
+        return (brain != null) ? brain.getETAScratch() : new ETAScratch(game);
+    }
+
+    /**
+     * Get a building speed estimate for the tracked player's current {@link SOCPlayer#getNumbers()},
+     * reusing our {@link ETAScratch#tempBSE} if possible.
+     * Valid only until the next call to this method or {@link #recalcWinGameETA()}.
+     * @return the recalculated estimate
+     * @since 2.0.00
+     */
+    private SOCBuildingSpeedEstimate getScratchBSE()
+    {
+        final SOCBuildingSpeedEstimate bse =
+            ((etaScratch != null) || (brain != null)) ? getETAScratch().tempBSE : new SOCBuildingSpeedEstimate();
+        bse.recalculateEstimates(player.getNumbers());
+
+        return bse;
+    }
+
     /**
      * Recalculate the tracked player's ETA for winning the game (WGETA) by making and simulating with a copy
      * of our current potential settlement/city locations, building speed estimates (BSEs), and dice numbers,
@@ -2831,8 +2924,12 @@ public class SOCPlayerTracker
             needLA = false;
             winGameETA = 0;
 
-            SOCPlayerNumbers tempPlayerNumbers = new SOCPlayerNumbers(player.getNumbers());
-            boolean[] tempPortFlags = new boolean[SOCBoard.WOOD_PORT + 1];
+            final ETAScratch scratch = getETAScratch();
+            scratch.reset();
+
+            SOCPlayerNumbers tempPlayerNumbers = scratch.playerNumbers;
+            tempPlayerNumbers.setFrom(player.getNumbers());
+            boolean[] tempPortFlags = scratch.portFlags;
 
             for (int portType = SOCBoard.MISC_PORT;
                     portType <= SOCBoard.WOOD_PORT; portType++)
@@ -2840,21 +2937,16 @@ public class SOCPlayerTracker
                 tempPortFlags[portType] = player.getPortFlag(portType);
             }
 
-            SOCBuildingSpeedEstimate[] tempSetBSE = new SOCBuildingSpeedEstimate[2];
-            SOCBuildingSpeedEstimate[] tempCityBSE = new SOCBuildingSpeedEstimate[2];
-
-            tempCityBSE[0] = new SOCBuildingSpeedEstimate();
-            tempCityBSE[1] = new SOCBuildingSpeedEstimate();
+            final SOCBuildingSpeedEstimate[] tempSetBSE = scratch.setBSE;
+            final SOCBuildingSpeedEstimate[] tempCityBSE = scratch.cityBSE;
 
-            tempSetBSE[0] = new SOCBuildingSpeedEstimate();
-            tempSetBSE[1] = new SOCBuildingSpeedEstimate();
+            final int[][] chosenSetBuildingSpeed = scratch.chosenSetBuildingSpeed;
+            final int[][] chosenCityBuildingSpeed = scratch.chosenCityBuildingSpeed;
 
-            int[][] chosenSetBuildingSpeed = new int[2][SOCBuildingSpeedEstimate.MAXPLUSONE];
-            int[][] chosenCityBuildingSpeed = new int[2][SOCBuildingSpeedEstimate.MAXPLUSONE];
+            final SOCBuildingSpeedEstimate tempBSE = scratch.tempBSE;
 
-            SOCBuildingSpeedEstimate tempBSE = new SOCBuildingSpeedEstimate();
-
-            SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(player.getNumbers());
+            final SOCBuildingSpeedEstimate ourBSE = scratch.ourBSE;
+            ourBSE.recalculateEstimates(player.getNumbers());
             int[] ourBuildingSpeed = ourBSE.getEstimatesFromNothingFast(tempPortFlags);
             int cityETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.CITY];
             int settlementETA = ourBuildingSpeed[SOCBuildingSpeedEstimate.SETTLEMENT];
@@ -2908,15 +3000,15 @@ public class SOCPlayerTracker
                 haveLR = true;
             }
 
-            TreeMap<Integer, SOCPossibleSettlement> posSetsCopy =
-                new TreeMap<Integer, SOCPossibleSettlement>(possibleSettlements);
-            TreeMap<Integer, SOCPossibleCity> posCitiesCopy =
-                new TreeMap<Integer, SOCPossibleCity>(possibleCities);
+            final TreeMap<Integer, SOCPossibleSettlement> posSetsCopy = scratch.posSetsCopy;
+            posSetsCopy.putAll(possibleSettlements);
+            final TreeMap<Integer, SOCPossibleCity> posCitiesCopy = scratch.posCitiesCopy;
+            posCitiesCopy.putAll(possibleCities);
 
             int points = player.getTotalVP();
             int fastestETA;
 
-            Queue<Pair<Integer, Vector<SOCPossibleRoad>>> necRoadQueue = new Queue<Pair<Integer, Vector<SOCPossibleRoad>>>();
+            final Queue<Pair<Integer, Vector<SOCPossibleRoad>>> necRoadQueue = scratch.necRoadQueue;
 
             final int vp_winner = game.vp_winner;
             while (points < vp_winner)
@@ -3100,9 +3192,11 @@ public class SOCPlayerTracker
                     //System.out.println();
                     fastestETA = 500;
 
-                    SOCPossibleSettlement[] chosenSet = new SOCPossibleSettlement[2];
-                    boolean[][] tempPortFlagsSet = new boolean[2][SOCBoard.WOOD_PORT + 1];
-                    SOCPossibleCity[] chosenCity = new SOCPossibleCity[2];
+                    final SOCPossibleSettlement[] chosenSet = scratch.chosenSet;
+                    final boolean[][] tempPortFlagsSet = scratch.portFlagsSet;
+                    Arrays.fill(tempPortFlagsSet[0], false);
+                    Arrays.fill(tempPortFlagsSet[1], false);
+                    final SOCPossibleCity[] chosenCity = scratch.chosenCity;
                     chosenSet[0] = null;
                     chosenSet[1] = null;
                     chosenCity[0] = null;
@@ -3168,7 +3262,8 @@ public class SOCPlayerTracker
                     {
                         canBuild2Settlements = true;
 
-                        Vector<SOCPossibleSettlement> posSetsToPutBack = new Vector<SOCPossibleSettlement>();
+                        final Vector<SOCPossibleSettlement> posSetsToPutBack = scratch.posSetsToPutBack;
+                        posSetsToPutBack.clear();
 
                         for (int i = 0; i < 2; i++)
                         {
@@ -3224,7 +3319,7 @@ public class SOCPlayerTracker
                                     }
                                     else if (posSetETA == fastestSetETA)
                                     {
-                                        boolean[] veryTempPortFlags = new boolean[SOCBoard.WOOD_PORT + 1];
+                                        final boolean[] veryTempPortFlags = scratch.veryTempPortFlags;
                                         tempPlayerNumbers.updateNumbers(posSetCoord, board);
 
                                         for (int portType = SOCBoard.MISC_PORT;
@@ -3523,7 +3618,7 @@ public class SOCPlayerTracker
                                 }
                                 else if (posSetETA == fastestSetETA)
                                 {
-                                    boolean[] veryTempPortFlags = new boolean[SOCBoard.WOOD_PORT + 1];
+                                    final boolean[] veryTempPortFlags = scratch.veryTempPortFlags;
                                     tempPlayerNumbers.updateNumbers(posSet.getCoordinates(), board);
 
                                     for (int portType = SOCBoard.MISC_PORT;
@@ -4275,6 +4370,84 @@ public class SOCPlayerTracker
         }
     }
 
+    /**
+     * Working data for {@link SOCPlayerTracker#recalcWinGameETA()}, which is called for each player's tracker
+     * after every piece placement. Each robot brain keeps one of these (see {@link SOCRobotBrain#getETAScratch()})
+     * so that the calculation resets and reuses these numbers, estimates and collections instead of
+     * allocating new ones each time. A brain's trackers are used only by its own thread, one at a time;
+     * tracker copies scored by another thread have their own (see {@link ParallelScoring}).
+     *<P>
+     * The per-call contents are meaningless between calls to {@code recalcWinGameETA()}.
+     * @since 2.0.00
+     */
+    static final class ETAScratch
+    {
+        /** Copy of the tracked player's dice numbers, updated during the calculation */
+        final SOCPlayerNumbers playerNumbers;
+
+        /** Tracked player's port flags, updated during the calculation */
+        final boolean[] portFlags = new boolean[SOCBoard.WOOD_PORT + 1];
+
+        /** Port flags if each of 2 settlements is built; cleared by each loop iteration */
+        final boolean[][] portFlagsSet = new boolean[2][SOCBoard.WOOD_PORT + 1];
+
+        /** Port flags for a settlement being considered */
+        final boolean[] veryTempPortFlags = new boolean[SOCBoard.WOOD_PORT + 1];
+
+        /** Estimates for the current numbers, for 2 settlements, 2 cities, and other work */
+        final SOCBuildingSpeedEstimate ourBSE = new SOCBuildingSpeedEstimate(),
+            tempBSE = new SOCBuildingSpeedEstimate();
+        final SOCBuildingSpeedEstimate[] setBSE =
+            { new SOCBuildingSpeedEstimate(), new SOCBuildingSpeedEstimate() };
+        final SOCBuildingSpeedEstimate[] cityBSE =
+            { new SOCBuildingSpeedEstimate(), new SOCBuildingSpeedEstimate() };
+
+        /**
+         * Building speeds for the chosen settlements and cities. The calculation may replace a row
+         * with an estimate's array, so {@link #reset()} puts back these originals and clears them.
+         */
+        final int[][] chosenSetBuildingSpeed = new int[2][], chosenCityBuildingSpeed = new int[2][];
+        private final int[][] speedRows = new int[4][SOCBuildingSpeedEstimate.MAXPLUSONE];
+
+        final SOCPossibleSettlement[] chosenSet = new SOCPossibleSettlement[2];
+        final SOCPossibleCity[] chosenCity = new SOCPossibleCity[2];
+
+        final TreeMap<Integer, SOCPossibleSettlement> posSetsCopy = new TreeMap<Integer, SOCPossibleSettlement>();
+        final TreeMap<Integer, SOCPossibleCity> posCitiesCopy = new TreeMap<Integer, SOCPossibleCity>();
+        final Vector<SOCPossibleSettlement> posSetsToPutBack = new Vector<SOCPossibleSettlement>();
+        final Queue<Pair<Integer, Vector<SOCPossibleRoad>>> necRoadQueue
+            = new Queue<Pair<Integer, Vector<SOCPossibleRoad>>>();
+
+        /**
+         * Create the working data for trackers in this game.
+         * @param ga  Game whose board type will be used for {@link #playerNumbers}
+         */
+        ETAScratch(final SOCGame ga)
+        {
+            playerNumbers = new SOCPlayerNumbers(ga.getBoard());
+        }
+
+        /**
+         * Reset the fields which {@link SOCPlayerTracker#recalcWinGameETA()} expects to be new or empty
+         * at the start of its calculation. Doesn't reset {@link #playerNumbers} or the estimates,
+         * which are overwritten from the tracked player's data.
+         */
+        void reset()
+        {
+            for (int i = 0; i < 4; ++i)
+                Arrays.fill(speedRows[i], 0);
+            chosenSetBuildingSpeed[0] = speedRows[0];
+            chosenSetBuildingSpeed[1] = speedRows[1];
+            chosenCityBuildingSpeed[0] = speedRows[2];
+            chosenCityBuildingSpeed[1] = speedRows[3];
+
+            posSetsCopy.clear();
+            posCitiesCopy.clear();
+            posSetsToPutBack.clear();
+            necRoadQueue.clear();
+        }
+    }
+
     /**
      * Update winGameETAs for player trackers.
      * For each tracker, call {@link #recalcLongestRoadETA()},
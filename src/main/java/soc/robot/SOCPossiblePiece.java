@@ -173,6 +173,17 @@ public abstract class SOCPossiblePiece
         return player;
     }
 
+    /**
+     * Change this piece's owner to the same player in a copy of the game.
+     * Used when copying a {@link SOCPlayerTracker} into another game object.
+     * @param pl  Player with the same player number as {@link #getPlayer()}
+     * @since 2.0.00
+     */
+    void setPlayer(final SOCPlayer pl)
+    {
+        player = pl;
+    }
+
     /**
      * Get this piece's coordinates on the board, if any.
      * Some piece types such as {@link #CARD} do not use this field.
@@ -242,6 +242,13 @@ public class SOCRobotBrain extends Thread
      */
     private int turnExceptionCount;
 
+    /**
+     * This brain's performance counters, updated by its thread.
+     * @see #getStats()
+     * @since 2.0.00
+     */
+    private final SOCRobotBrainStats stats = new SOCRobotBrainStats();
+
     /**
      * A counter used to measure passage of time.
      * Incremented each second, when the server sends {@link SOCTimingPing}.
@@ -328,6 +335,13 @@ public class SOCRobotBrain extends Thread
      */
     protected SOCRobotDM decisionMaker;
 
+    /**
+     * Reusable working data for our {@link #playerTrackers}' win-game ETA calculations,
+     * or null if not yet needed. See {@link #getETAScratch()}.
+     * @since 2.0.00
+     */
+    private SOCPlayerTracker.ETAScratch etaScratch;
+
     /**
      * The data and code that determines how we negotiate.
      * {@link SOCRobotNegotiator#setTargetPiece(int, SOCPossiblePiece)}
@@ -634,6 +648,14 @@ public class SOCRobotBrain extends Thread
      */
     private MonopolyStrategy monopolyStrategy;
 
+    /**
+     * Monte Carlo tree search engine, if our robot parameters' strategy type is {@link SOCRobotDM#MCTS_STRATEGY};
+     * otherwise {@code null}. Plans initial settlements, robber moves, and (through {@link SOCRobotDM}) building.
+     * Set in {@link #setOurPlayerData()}.
+     * @since 2.0.00
+     */
+    private MCTSStrategy mctsStrategy;
+
     // RobberStrategy is used but has no state, its methods are static.
 
     /**
@@ -840,6 +862,16 @@ public class SOCRobotBrain extends Thread
         return buildingPlan;
     }
 
+    /**
+     * Get this brain's performance counters, for {@link SOCRobotClient}'s totals.
+     * @return the counters, which are updated by this brain's thread
+     * @since 2.0.00
+     */
+    public SOCRobotBrainStats getStats()
+    {
+        return stats;
+    }
+
     /**
      * @return the decision maker
      */
@@ -848,6 +880,31 @@ public class SOCRobotBrain extends Thread
         return decisionMaker;
     }
 
+    /**
+     * Get our Monte Carlo tree search engine, if our strategy type is {@link SOCRobotDM#MCTS_STRATEGY}.
+     * @return  the search engine, or {@code null} for other strategy types
+     *     or if {@link #setOurPlayerData()} hasn't been called yet
+     * @since 2.0.00
+     */
+    public MCTSStrategy getMCTSStrategy()
+    {
+        return mctsStrategy;
+    }
+
+    /**
+     * Get this brain's reusable working data for {@link SOCPlayerTracker#recalcWinGameETA()},
+     * creating it on first call. Used only from this brain's thread.
+     * @return  this brain's ETA working data; not null
+     * @since 2.0.00
+     */
+    SOCPlayerTracker.ETAScratch getETAScratch()
+    {
+        if (etaScratch == null)
+            etaScratch = new SOCPlayerTracker.ETAScratch(game);
+
+        return etaScratch;
+    }
+
     /**
      * turns the debug recorders on
      */
@@ -928,6 +985,9 @@ public class SOCRobotBrain extends Thread
         negotiator = new SOCRobotNegotiator(this);
         openingBuildStrategy = new OpeningBuildStrategy(game, ourPlayerData);
         monopolyStrategy = new MonopolyStrategy(game, ourPlayerData);
+        mctsStrategy = (getRobotParameters().getStrategyType() == SOCRobotDM.MCTS_STRATEGY)
+            ? new MCTSStrategy(game, ourPlayerData)
+            : null;
 
         dummyCancelPlayerData = new SOCPlayer(-2, game);
 
@@ -936,6 +996,7 @@ public class SOCRobotBrain extends Thread
         switch (getRobotParameters().getStrategyType())
         {
         case SOCRobotDM.SMART_STRATEGY:
+        case SOCRobotDM.MCTS_STRATEGY:
             faceId = -1;  // smarter robot face
             break;
 
@@ -1100,10 +1161,18 @@ public class SOCRobotBrain extends Thread
 
             while (alive)
             {
+                long thinkStartNanos = 0, pauseStartNanos = 0;  // for stats.addThink, once mes is got
+
                 try
                 {
                     final SOCMessage mes = gameEventQ.get();  // Sleeps until message received
 
+                    thinkStartNanos = System.nanoTime();
+                    pauseStartNanos = stats.getPauseNanos();
+                    stats.gotMessage
+                        ((mes != null) && (mes.getType() == SOCMessage.TIMINGPING),
+                         gameEventQ.getLastWaitNanos(), gameEventQ.size());
+
                     final int mesType;
                     if (mes != null)
                     {
@@ -1258,6 +1327,7 @@ public class SOCRobotBrain extends Thread
                     if ((mesType == SOCMessage.TURN) && ourTurn)
                     {
                         waitingForOurTurn = false;
+                        stats.addTurn();
 
                         // Clear some per-turn variables.
                         // For others, see above: if (mesType == SOCMessage.TURN)
@@ -2048,6 +2118,7 @@ public class SOCRobotBrain extends Thread
                     if (alive && ((game == null) || (game.getGameState() != SOCGame.RESET_OLD)))
                     {
                         ++turnExceptionCount;  // TODO end our turn if too many
+                        stats.addException();
 
                         String eMsg = (turnExceptionCount == 1)
                             ? "*** Robot caught an exception - " + e
@@ -2057,6 +2128,12 @@ public class SOCRobotBrain extends Thread
                         e.printStackTrace();
                     }
                 }
+                finally
+                {
+                    if (thinkStartNanos != 0)
+                        stats.addThink
+                            ((System.nanoTime() - thinkStartNanos) - (stats.getPauseNanos() - pauseStartNanos));
+                }
             }
         }
         else
@@ -2067,6 +2144,7 @@ public class SOCRobotBrain extends Thread
         //D.ebugPrintln("STOPPING AND DEALLOCATING");
         gameEventQ = null;
 
+        client.addFinishedBrainStats(stats);
         client.addCleanKill();
         client = null;
 
@@ -2442,7 +2520,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START1A = true;
                     counter = 0;
                     waitingForGameState = true;
-                    final int firstSettleNode = openingBuildStrategy.planInitialSettlements();
+                    int firstSettleNode = (mctsStrategy != null) ? mctsStrategy.planInitialSettlement() : 0;
+                    if (firstSettleNode == 0)
+                        firstSettleNode = openingBuildStrategy.planInitialSettlements();
                     placeFirstSettlement(firstSettleNode);
                 }
             }
@@ -2473,7 +2553,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START2A = true;
                     counter = 0;
                     waitingForGameState = true;
-                    final int secondSettleNode = openingBuildStrategy.planSecondSettlement();
+                    int secondSettleNode = (mctsStrategy != null) ? mctsStrategy.planInitialSettlement() : 0;
+                    if (secondSettleNode == 0)
+                        secondSettleNode = openingBuildStrategy.planSecondSettlement();
                     placeInitSettlement(secondSettleNode);
                 }
             }
@@ -2504,7 +2586,9 @@ public class SOCRobotBrain extends Thread
                     expectPUTPIECE_FROM_START3A = true;
                     counter = 0;
                     waitingForGameState = true;
-                    final int secondSettleNode = openingBuildStrategy.planSecondSettlement();  // TODO planThirdSettlement
+                    int secondSettleNode = (mctsStrategy != null) ? mctsStrategy.planInitialSettlement() : 0;
+                    if (secondSettleNode == 0)
+                        secondSettleNode = openingBuildStrategy.planSecondSettlement();  // TODO planThirdSettlement
                     placeInitSettlement(secondSettleNode);
                 }
             }
@@ -2788,8 +2872,10 @@ public class SOCRobotBrain extends Thread
 
                     if (robotParameters.getTradeFlag() == 1)
                     {
+                        final long startNanos = System.nanoTime();
                         makeOffer(targetPiece);
                         // makeOffer will set waitingForTradeResponse or doneTrading.
+                        stats.addOffer(System.nanoTime() - startNanos);
                     }
                 }
 
@@ -3153,7 +3239,9 @@ public class SOCRobotBrain extends Thread
         ///
         /// consider the offer
         ///
+        final long startNanos = System.nanoTime();
         int ourResponseToOffer = considerOffer(offer);
+        stats.addConsider(System.nanoTime() - startNanos);
 
         D.ebugPrintln("%%% ourResponseToOffer = " + ourResponseToOffer);
 
@@ -3584,7 +3672,9 @@ public class SOCRobotBrain extends Thread
      */
     private final void planBuilding()
     {
+        final long startNanos = System.nanoTime();
         decisionMaker.planStuff(robotParameters.getStrategyType());
+        stats.addPlan(System.nanoTime() - startNanos);
 
         if (! buildingPlan.empty())
         {
@@ -4426,6 +4516,7 @@ public class SOCRobotBrain extends Thread
         else if (pauseFaster && ! waitingForTradeResponse)
             msec = (msec / 2) + (msec / 4);
 
+        final long startNanos = System.nanoTime();
         try
         {
             yield();
@@ -4433,6 +4524,7 @@ public class SOCRobotBrain extends Thread
                 sleep(msec);
         }
         catch (InterruptedException exc) {}
+        stats.addPause(System.nanoTime() - startNanos);
     }
 
     /**
@@ -4507,11 +4599,14 @@ public class SOCRobotBrain extends Thread
     }
 
     /**
-     * move the robber
+     * move the robber.
+     * If we have an {@link MCTSStrategy}, it chooses the hex; otherwise {@link RobberStrategy} does.
      */
     protected void moveRobber()
     {
-        final int bestHex = RobberStrategy.getBestRobberHex(game, ourPlayerData, playerTrackers, rand);
+        int bestHex = (mctsStrategy != null) ? mctsStrategy.planRobberHex() : 0;
+        if (bestHex == 0)
+            bestHex = RobberStrategy.getBestRobberHex(game, ourPlayerData, playerTrackers, rand);
         D.ebugPrintln("!!! MOVING ROBBER !!!");
         client.moveRobber(game, ourPlayerData, bestHex);
         pause(2000);
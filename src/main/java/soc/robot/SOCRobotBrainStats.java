@@ -0,0 +1,265 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+/**
+ * Performance counters for a {@link SOCRobotBrain}, or totals for all brains of a {@link SOCRobotClient}.
+ * Each brain updates its own counters from its thread; the client adds them up
+ * with {@link #add(SOCRobotBrainStats)} when the server asks for its stats.
+ * Times are in nanoseconds, except {@link #getPauseMillis()}.
+ *<P>
+ * "Think" time is how long the brain spent handling its messages, minus the time spent
+ * in {@link SOCRobotBrain#pause(int)}; it includes the {@link #getPlanNanos() plan},
+ * {@link #getOfferNanos() offer}, and {@link #getConsiderNanos() consider offer} times.
+ *<P>
+ * All methods are synchronized, so the client can read a brain's counters while its thread updates them.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotBrainStats
+{
+    /** Number of messages handled, not counting {@link soc.message.SOCTimingPing}s */
+    private long messages;
+
+    /** Number of messages got from the brain's queue including timing pings, for {@link #lagNanos} average */
+    private long lagCount;
+
+    /** Total and maximum time messages waited in the brain's queue before being handled */
+    private long lagNanos, lagMaxNanos;
+
+    /** Largest number of messages waiting in the brain's queue after getting one */
+    private int queueDepthMax;
+
+    /** Number of calls and total time spent in {@link SOCRobotDM#planStuff(int)} */
+    private int planCount;
+    private long planNanos;
+
+    /** Number of calls and total time spent in {@link SOCRobotBrain#makeOffer(SOCPossiblePiece)} */
+    private int offerCount;
+    private long offerNanos;
+
+    /** Number of calls and total time spent in {@link SOCRobotBrain#considerOffer(soc.game.SOCTradeOffer)} */
+    private int considerCount;
+    private long considerNanos;
+
+    /** Total time spent in {@link SOCRobotBrain#pause(int)} */
+    private long pauseNanos;
+
+    /** Total time spent handling messages, minus {@link #pauseNanos} during them */
+    private long thinkNanos;
+
+    /** Number of exceptions caught by the brain's message loop */
+    private int exceptions;
+
+    /** Number of our player's turns started, for averages per turn */
+    private int turns;
+
+    /**
+     * True if the brain has stopped and {@link SOCRobotClient} has added these counters
+     * to its finished-brain totals, so they shouldn't also be added from the running brains.
+     * Synchronized on the client's totals object.
+     */
+    boolean isFinished;
+
+    /**
+     * A message was got from the queue.
+     * @param isTimingPing  True if message is a {@link soc.message.SOCTimingPing}, which isn't counted
+     *     in {@link #getMessages()} but is counted for lag
+     * @param waitNanos  How long it waited in the queue, from {@link soc.util.CappedQueue#getLastWaitNanos()}
+     * @param depth  Number of messages still waiting in the queue
+     */
+    public synchronized void gotMessage(final boolean isTimingPing, final long waitNanos, final int depth)
+    {
+        if (! isTimingPing)
+            ++messages;
+        ++lagCount;
+        lagNanos += waitNanos;
+        if (waitNanos > lagMaxNanos)
+            lagMaxNanos = waitNanos;
+        if (depth > queueDepthMax)
+            queueDepthMax = depth;
+    }
+
+    /**
+     * Add time spent in {@link SOCRobotDM#planStuff(int)}.
+     * @param nanos  Time spent
+     */
+    public synchronized void addPlan(final long nanos)
+    {
+        ++planCount;
+        planNanos += nanos;
+    }
+
+    /**
+     * Add time spent in {@link SOCRobotBrain#makeOffer(SOCPossiblePiece)}.
+     * @param nanos  Time spent
+     */
+    public synchronized void addOffer(final long nanos)
+    {
+        ++offerCount;
+        offerNanos += nanos;
+    }
+
+    /**
+     * Add time spent in {@link SOCRobotBrain#considerOffer(soc.game.SOCTradeOffer)}.
+     * @param nanos  Time spent
+     */
+    public synchronized void addConsider(final long nanos)
+    {
+        ++considerCount;
+        considerNanos += nanos;
+    }
+
+    /**
+     * Add time spent in {@link SOCRobotBrain#pause(int)}.
+     * @param nanos  Time spent
+     */
+    public synchronized void addPause(final long nanos)
+    {
+        pauseNanos += nanos;
+    }
+
+    /**
+     * Add time spent handling a message, not including pauses.
+     * @param nanos  Time spent
+     */
+    public synchronized void addThink(final long nanos)
+    {
+        thinkNanos += nanos;
+    }
+
+    /** Count an exception caught by the brain's message loop. */
+    public synchronized void addException()
+    {
+        ++exceptions;
+    }
+
+    /**
+     * Our player's turn has started.
+     */
+    public synchronized void addTurn()
+    {
+        ++turns;
+    }
+
+    /**
+     * Add another brain's counters to these.
+     * Maximums are combined with {@link Math#max(long, long)}.
+     * @param st  Counters to add; not changed
+     */
+    public void add(final SOCRobotBrainStats st)
+    {
+        final SOCRobotBrainStats copy = st.copy();
+        synchronized (this)
+        {
+            messages += copy.messages;
+            lagCount += copy.lagCount;
+            lagNanos += copy.lagNanos;
+            lagMaxNanos = Math.max(lagMaxNanos, copy.lagMaxNanos);
+            queueDepthMax = Math.max(queueDepthMax, copy.queueDepthMax);
+            planCount += copy.planCount;
+            planNanos += copy.planNanos;
+            offerCount += copy.offerCount;
+            offerNanos += copy.offerNanos;
+            considerCount += copy.considerCount;
+            considerNanos += copy.considerNanos;
+            pauseNanos += copy.pauseNanos;
+            thinkNanos += copy.thinkNanos;
+            exceptions += copy.exceptions;
+            turns += copy.turns;
+        }
+    }
+
+    /**
+     * Copy these counters, all read at the same time.
+     * @return  a new object with the same counter values
+     */
+    public synchronized SOCRobotBrainStats copy()
+    {
+        final SOCRobotBrainStats st = new SOCRobotBrainStats();
+        st.messages = messages;
+        st.lagCount = lagCount;
+        st.lagNanos = lagNanos;
+        st.lagMaxNanos = lagMaxNanos;
+        st.queueDepthMax = queueDepthMax;
+        st.planCount = planCount;
+        st.planNanos = planNanos;
+        st.offerCount = offerCount;
+        st.offerNanos = offerNanos;
+        st.considerCount = considerCount;
+        st.considerNanos = considerNanos;
+        st.pauseNanos = pauseNanos;
+        st.thinkNanos = thinkNanos;
+        st.exceptions = exceptions;
+        st.turns = turns;
+
+        return st;
+    }
+
+    /** @return number of messages handled, not counting timing pings */
+    public synchronized long getMessages() { return messages; }
+
+    /** @return number of messages got from the queue, including timing pings */
+    public synchronized long getLagCount() { return lagCount; }
+
+    /** @return total time messages waited in the queue, in nanoseconds */
+    public synchronized long getLagNanos() { return lagNanos; }
+
+    /** @return longest time a message waited in the queue, in nanoseconds */
+    public synchronized long getLagMaxNanos() { return lagMaxNanos; }
+
+    /** @return largest number of messages seen waiting in the queue */
+    public synchronized int getQueueDepthMax() { return queueDepthMax; }
+
+    /** @return number of {@link SOCRobotDM#planStuff(int)} calls */
+    public synchronized int getPlanCount() { return planCount; }
+
+    /** @return total time in {@link SOCRobotDM#planStuff(int)}, in nanoseconds */
+    public synchronized long getPlanNanos() { return planNanos; }
+
+    /** @return number of {@link SOCRobotBrain#makeOffer(SOCPossiblePiece)} calls */
+    public synchronized int getOfferCount() { return offerCount; }
+
+    /** @return total time in {@link SOCRobotBrain#makeOffer(SOCPossiblePiece)}, in nanoseconds */
+    public synchronized long getOfferNanos() { return offerNanos; }
+
+    /** @return number of {@link SOCRobotBrain#considerOffer(soc.game.SOCTradeOffer)} calls */
+    public synchronized int getConsiderCount() { return considerCount; }
+
+    /** @return total time in {@link SOCRobotBrain#considerOffer(soc.game.SOCTradeOffer)}, in nanoseconds */
+    public synchronized long getConsiderNanos() { return considerNanos; }
+
+    /** @return total time in {@link SOCRobotBrain#pause(int)}, in milliseconds */
+    public synchronized long getPauseMillis() { return pauseNanos / 1000000L; }
+
+    /** @return total time spent in {@link SOCRobotBrain#pause(int)}, in nanoseconds */
+    public synchronized long getPauseNanos() { return pauseNanos; }
+
+    /** @return total time spent handling messages, minus pauses, in nanoseconds */
+    public synchronized long getThinkNanos() { return thinkNanos; }
+
+    /** @return number of exceptions caught by the message loop */
+    public synchronized int getExceptions() { return exceptions; }
+
+    /** @return number of our player's turns started */
+    public synchronized int getTurns() { return turns; }
+
+}
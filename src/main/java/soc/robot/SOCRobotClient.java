@@ -43,6 +43,7 @@ import java.io.DataOutputStream;
 
 import java.net.Socket;
 
+import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -107,6 +108,14 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     public static final String PROP_JSETTLERS_BOTS_TEST_QUIT_AT_JOINREQ = "jsettlers.bots.test.quit_at_joinreq";
 
+    /**
+     * System property {@code "jsettlers.bots.dm_budget_ms"} to set the time budget in milliseconds for
+     * each smart decision about what to build, when this robot client is run standalone with {@link #main(String[])}:
+     * {@link SOCRobotDM#setDecisionBudget(int)}. Built-in robots use the server's property of the same name.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_DM__BUDGET__MS = "jsettlers.bots.dm_budget_ms";
+
     /**
      * For server testing, random disconnect percentage from property
      * {@link #PROP_JSETTLERS_BOTS_TEST_QUIT_AT_JOINREQ}. Defaults to 0.
@@ -248,6 +257,23 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     protected int cleanBrainKills;
 
+    /**
+     * Performance counters of brains which have stopped, added by {@link #addFinishedBrainStats(SOCRobotBrainStats)}.
+     * Synchronize on this object to use it or to set a brain's {@link SOCRobotBrainStats#isFinished}.
+     * @see #getBrainStatsTotals()
+     * @since 2.0.00
+     */
+    private final SOCRobotBrainStats finishedBrainStats = new SOCRobotBrainStats();
+
+    /**
+     * Brain totals and their time ({@link System#nanoTime()}) at our previous {@link SOCRobotStats} reply,
+     * for the stats "per interval"; before the first reply, all zeroes at the time this client was constructed.
+     * @see #getRobotStats()
+     * @since 2.0.00
+     */
+    private SOCRobotBrainStats prevStats = new SOCRobotBrainStats();
+    private long prevStatsNanos = System.nanoTime();
+
     /**
      * start time
      */
@@ -265,6 +291,20 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     boolean printedInitialWelcome = false;
 
+    /**
+     * Robot host which carries this client's messages, or {@code null} if it has its own connection.
+     * @see #muxID
+     * @since 2.0.00
+     */
+    private SOCRobotHost muxHost;
+
+    /**
+     * This client's bot ID on {@link #muxHost}, if not null.
+     * Changes when {@link #disconnectReconnect()} opens a new sub-connection.
+     * @since 2.0.00
+     */
+    private int muxID;
+
     /**
      * Constructor for connecting to the specified host, on the specified port
      *
@@ -307,16 +347,47 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
      */
     public SOCRobotClient(final String s, final String nn, final String pw, final String co)
     {
-        this(null, 0, nn, pw, co);
+        this((String) null, 0, nn, pw, co);
         strSocketName = s;
     }
 
+    /**
+     * Constructor for a robot which shares a robot host's connection to the server,
+     * instead of having its own. Called from {@link SOCRobotHost#addRobot(String, String)}.
+     *
+     * @param host  the robot host which carries our messages
+     * @param id   our bot ID on {@code host}
+     * @param nn   nickname for robot
+     * @param pw   password for robot
+     * @param co   cookie for robot connections to server
+     * @since 2.0.00
+     */
+    SOCRobotClient(final SOCRobotHost host, final int id, final String nn, final String pw, final String co)
+    {
+        this((String) null, 0, nn, pw, co);
+        muxHost = host;
+        muxID = id;
+        wantsBinaryFrames = false;  // host connection's format is text
+    }
+
     /**
      * Initialize the robot player; connect to server, send first messages
      * including our version and {@link #rbclass}.
+     *<P>
+     * If this robot is on a {@link SOCRobotHost}, the host has already connected
+     * and will pass us the server's messages, so just sends those first messages.
      */
     public void init()
     {
+        if (muxHost != null)
+        {
+            ex = null;
+            connected = true;
+            put(SOCVersion.toCmd(Version.versionNumber(), Version.version(), Version.buildnum(), null));
+            put(SOCImARobot.toCmd(nickname, cookie, rbclass));
+            return;
+        }
+
         try
         {
             if (strSocketName == null)
@@ -356,6 +427,21 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
         D.ebugPrintln("(*)(*)(*)(*)(*)(*)(*) disconnectReconnect()");
         ex = null;
 
+        if (muxHost != null)
+        {
+            // Close our sub-connection and open a new one on the same host connection.
+            // The new one has a new bot ID, so the server's close of the old one won't close it.
+            synchronized (this)
+            {
+                muxHost.put(muxID, null);
+                muxID = muxHost.newBotID(this);
+            }
+            connected = true;
+            put(SOCVersion.toCmd(Version.versionNumber(), Version.version(), Version.buildnum(), null));
+            put(SOCImARobot.toCmd(nickname, cookie, SOCImARobot.RBCLASS_BUILTIN));
+            return;
+        }
+
         for (int attempt = 3; attempt > 0; --attempt)
         {
             try
@@ -367,6 +453,8 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
                     s = new Socket(host, port);
                     in = new DataInputStream(s.getInputStream());
                     out = new DataOutputStream(s.getOutputStream());
+                    isInflating = false;
+                    binaryDecoder = null;
                 }
                 else
                 {
@@ -537,6 +625,13 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
                 handleADMINRESET((SOCAdminReset) mes);
                 break;
 
+            /**
+             * server's request for our health and performance stats (v2.0.00+)
+             */
+            case SOCMessage.ROBOTSTATS:
+                handleROBOTSTATS((SOCRobotStats) mes);
+                break;
+
             /**
              * update the current robot parameters
              */
@@ -767,6 +862,17 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
         disconnectReconnect();
     }
 
+    /**
+     * Handle the server's request for our stats by replying with {@link #getRobotStats()}.
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    protected void handleROBOTSTATS(final SOCRobotStats mes)
+    {
+        if (mes.isRequest())
+            put(getRobotStats().toCmd());
+    }
+
     /**
      * handle the update robot params message
      * @param mes  the message
@@ -1205,6 +1311,10 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
             sendText(ga, "Clean brain kills:" + cleanBrainKills);
             sendText(ga, "Brains running: " + robotBrains.size());
 
+            final SOCRobotBrainStats st = getBrainStatsTotals();
+            sendText(ga, "Brain messages: " + st.getMessages() + ", exceptions: " + st.getExceptions());
+            sendText(ga, "Brain think ms: " + (st.getThinkNanos() / 1000000L) + ", pause ms: " + st.getPauseMillis());
+
             Runtime rt = Runtime.getRuntime();
             sendText(ga, "Total Memory:" + rt.totalMemory());
             sendText(ga, "Free Memory:" + rt.freeMemory());
@@ -1255,6 +1365,7 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
                 switch (brain.getRobotParameters().getStrategyType())
                 {
                 case SOCRobotDM.SMART_STRATEGY:
+                case SOCRobotDM.MCTS_STRATEGY:
                     faceId = -1;  // smarter robot face
                     break;
 
@@ -1513,6 +1624,160 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
         cleanBrainKills++;
     }
 
+    /**
+     * A brain has stopped; add its performance counters to this client's totals.
+     * Called from the brain's thread.
+     * @param st  The brain's counters
+     * @see #getBrainStatsTotals()
+     * @since 2.0.00
+     */
+    public void addFinishedBrainStats(final SOCRobotBrainStats st)
+    {
+        synchronized (finishedBrainStats)
+        {
+            if (st.isFinished)
+                return;
+
+            finishedBrainStats.add(st);
+            st.isFinished = true;
+        }
+    }
+
+    /**
+     * Get the totals of all our brains' performance counters, both running and stopped.
+     * @return  a new object with the totals
+     * @see #getRobotStats()
+     * @since 2.0.00
+     */
+    public SOCRobotBrainStats getBrainStatsTotals()
+    {
+        synchronized (finishedBrainStats)
+        {
+            final SOCRobotBrainStats totals = finishedBrainStats.copy();
+            for (Enumeration<SOCRobotBrain> brains = robotBrains.elements(); brains.hasMoreElements(); )
+            {
+                final SOCRobotBrainStats st = brains.nextElement().getStats();
+                if (! st.isFinished)
+                    totals.add(st);
+            }
+
+            return totals;
+        }
+    }
+
+    /**
+     * Get our health and performance stats to send to the server.
+     * Stats "per interval" are since the previous call, or since this client was constructed;
+     * see {@link SOCRobotStats} for details.
+     * @return  a reply message with all stats
+     * @since 2.0.00
+     */
+    public synchronized SOCRobotStats getRobotStats()
+    {
+        final SOCRobotBrainStats st = getBrainStatsTotals();
+        final long now = System.nanoTime();
+        final double intervalNanos = Math.max(1L, now - prevStatsNanos);
+
+        int depth = 0;
+        for (Enumeration<CappedQueue<SOCMessage>> qs = brainQs.elements(); qs.hasMoreElements(); )
+            depth += qs.nextElement().size();
+
+        final long lagCount = st.getLagCount() - prevStats.getLagCount();
+
+        final int[] s = new int[SOCRobotStats.STATS_LENGTH];
+        s[SOCRobotStats.IDX_BRAINS] = robotBrains.size();
+        s[SOCRobotStats.IDX_QUEUE_DEPTH] = depth;
+        s[SOCRobotStats.IDX_QUEUE_DEPTH_MAX] = st.getQueueDepthMax();
+        s[SOCRobotStats.IDX_LAG_AVG_MS] = (lagCount > 0)
+            ? (int) ((st.getLagNanos() - prevStats.getLagNanos()) / lagCount / 1000000L)
+            : 0;
+        s[SOCRobotStats.IDX_LAG_MAX_MS] = (int) (st.getLagMaxNanos() / 1000000L);
+        s[SOCRobotStats.IDX_MESSAGES] = (int) st.getMessages();
+        s[SOCRobotStats.IDX_MESSAGES_PER_MIN]
+            = (int) ((st.getMessages() - prevStats.getMessages()) * 60e9 / intervalNanos);
+        s[SOCRobotStats.IDX_THINK_PCT]
+            = (int) ((st.getThinkNanos() - prevStats.getThinkNanos()) * 100.0 / intervalNanos);
+        s[SOCRobotStats.IDX_PLAN_COUNT] = st.getPlanCount();
+        s[SOCRobotStats.IDX_PLAN_MS] = (int) (st.getPlanNanos() / 1000000L);
+        s[SOCRobotStats.IDX_OFFER_COUNT] = st.getOfferCount();
+        s[SOCRobotStats.IDX_OFFER_MS] = (int) (st.getOfferNanos() / 1000000L);
+        s[SOCRobotStats.IDX_CONSIDER_COUNT] = st.getConsiderCount();
+        s[SOCRobotStats.IDX_CONSIDER_MS] = (int) (st.getConsiderNanos() / 1000000L);
+        s[SOCRobotStats.IDX_PAUSE_MS] = (int) st.getPauseMillis();
+        s[SOCRobotStats.IDX_THINK_MS] = (int) (st.getThinkNanos() / 1000000L);
+        s[SOCRobotStats.IDX_EXCEPTIONS] = st.getExceptions();
+
+        prevStats = st;
+        prevStatsNanos = now;
+
+        return new SOCRobotStats(s);
+    }
+
+    /**
+     * Write a message to the server. If this robot is on a {@link SOCRobotHost},
+     * sends it through the host's connection; otherwise same as
+     * {@link SOCDisplaylessPlayerClient#put(String)}.
+     *
+     * @param s  the message
+     * @return true if the message was sent, false if not
+     * @throws IllegalArgumentException if {@code s} is {@code null}
+     * @since 2.0.00
+     */
+    @Override
+    public synchronized boolean put(String s)
+        throws IllegalArgumentException
+    {
+        if (muxHost == null)
+            return super.put(s);
+
+        if (s == null)
+            throw new IllegalArgumentException("null");
+
+        lastMessage = s;
+
+        if (debugTraffic || D.ebugIsEnabled())
+            soc.debug.D.ebugPrintln("OUT - " + nickname + " - " + s);
+
+        if ((ex != null) || ! connected)
+            return false;
+
+        return muxHost.put(muxID, s);
+    }
+
+    /**
+     * Disconnect from the server. If this robot is on a {@link SOCRobotHost},
+     * closes only its own sub-connection there.
+     * @since 2.0.00
+     */
+    @Override
+    protected void disconnect()
+    {
+        if (muxHost == null)
+        {
+            super.disconnect();
+            return;
+        }
+
+        connected = false;
+        synchronized (this)
+        {
+            muxHost.put(muxID, null);
+        }
+    }
+
+    /**
+     * The server has closed this robot's sub-connection on its {@link SOCRobotHost},
+     * or the host has lost its connection: Shut down our active games' brains.
+     * Doesn't try to reconnect; the host does that if its connection was lost.
+     * @since 2.0.00
+     */
+    void muxClosed()
+    {
+        connected = false;
+        for (SOCRobotBrain rb : robotBrains.values())
+            rb.kill();
+    }
+
     /**
      * Connection to server has raised an error; leave all games, then try to reconnect.
      */
@@ -1539,6 +1804,18 @@ public class SOCRobotClient extends SOCDisplaylessPlayerClient
             return;
         }
 
+        final String budget = System.getProperty(PROP_JSETTLERS_BOTS_DM__BUDGET__MS);
+        if (budget != null)
+        {
+            try
+            {
+                SOCRobotDM.setDecisionBudget(Integer.parseInt(budget.trim()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: Property must be a number 0 or higher: " + PROP_JSETTLERS_BOTS_DM__BUDGET__MS);
+                return;
+            }
+        }
+
         SOCRobotClient ex1 = new SOCRobotClient(args[0], Integer.parseInt(args[1]), args[2], args[3], args[4]);
         ex1.init();
     }
@@ -27,10 +27,12 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import soc.disableDebug.D;
 import soc.game.SOCBoard;
@@ -107,6 +109,13 @@ public class SOCRobotDM
   public static final int SMART_STRATEGY = 0;
   public static final int FAST_STRATEGY = 1;
 
+  /**
+   * Strategy which chooses what to build with a Monte Carlo tree search ({@link MCTSStrategy}),
+   * falling back to {@link #FAST_STRATEGY} when the search has nothing to suggest.
+   * @since 2.0.00
+   */
+  public static final int MCTS_STRATEGY = 2;
+
   protected SOCRobotBrain brain;
   protected HashMap<Integer,SOCPlayerTracker> playerTrackers;
   protected SOCPlayerTracker ourPlayerTracker;
@@ -163,6 +172,101 @@ public class SOCRobotDM
   protected SOCPossibleCity favoriteCity;
   protected SOCPossibleCard possibleCard;
 
+  /**
+   * After this many {@link #SMART_STRATEGY} decisions in a row go over the
+   * {@link #setDecisionBudget(int) time budget}, {@link #planStuff(int)} uses {@link #FAST_STRATEGY}
+   * for the next {@link #BUDGET_FALLBACK_DECISIONS} decisions.
+   * @since 2.0.00
+   */
+  public static final int BUDGET_OVERRUNS_BEFORE_FALLBACK = 3;
+
+  /**
+   * Number of decisions to make with {@link #FAST_STRATEGY} after {@link #BUDGET_OVERRUNS_BEFORE_FALLBACK}
+   * overruns in a row, before trying {@link #SMART_STRATEGY} again.
+   * @since 2.0.00
+   */
+  public static final int BUDGET_FALLBACK_DECISIONS = 5;
+
+  /**
+   * Time budget in milliseconds for each {@link #SMART_STRATEGY} decision, or 0 for no limit.
+   * @see #setDecisionBudget(int)
+   * @since 2.0.00
+   */
+  private static volatile int decisionBudgetMS;
+
+  /**
+   * Statistics for {@link #getDecisionBudgetStatsText()}: Number of smart decisions made with a time budget,
+   * number of those which went over it, and number of decisions which fell back to {@link #FAST_STRATEGY}.
+   * @since 2.0.00
+   */
+  private static final AtomicInteger budgetDecisions = new AtomicInteger(),
+      budgetOverruns = new AtomicInteger(), budgetFallbacks = new AtomicInteger();
+
+  /**
+   * During a {@link #planStuff(int)} decision with a {@link #setDecisionBudget(int) time budget},
+   * the {@link System#nanoTime()} when the budget expires; otherwise 0.
+   * @see #isBudgetSkip(SOCPossiblePiece)
+   * @since 2.0.00
+   */
+  private long budgetDeadline;
+
+  /**
+   * True if during this decision, {@link #isBudgetSkip(SOCPossiblePiece)} has already allowed at least one
+   * candidate to be scored: Each decision scores at least one, even if the budget has already expired.
+   * @since 2.0.00
+   */
+  private boolean budgetScoredAny;
+
+  /**
+   * True if during this decision, the time budget has expired and remaining candidates aren't being scored.
+   * @since 2.0.00
+   */
+  private boolean budgetExpired;
+
+  /**
+   * Possible settlements skipped by {@link #scorePossibleSettlements(int, int)} because the time budget expired,
+   * which {@link #smartGameStrategy(int[])} shouldn't pick. Cleared in {@link #planStuff(int)}.
+   * @since 2.0.00
+   */
+  private final HashSet<SOCPossiblePiece> budgetSkipped = new HashSet<SOCPossiblePiece>();
+
+  /**
+   * Number of {@link #SMART_STRATEGY} decisions in a row which went over the time budget.
+   * @see #BUDGET_OVERRUNS_BEFORE_FALLBACK
+   * @since 2.0.00
+   */
+  private int budgetOverrunsInRow;
+
+  /**
+   * Number of upcoming decisions to make with {@link #FAST_STRATEGY} because of overruns, or 0.
+   * @see #BUDGET_FALLBACK_DECISIONS
+   * @since 2.0.00
+   */
+  private int budgetFallbacksLeft;
+
+  /**
+   * During {@link #smartGameStrategy(int[])}, workspace for scoring candidates serially
+   * in our own game and trackers, which restores players' LR paths after each candidate;
+   * otherwise {@code null}.
+   * @since 2.0.00
+   */
+  private ParallelScoring.Workspace scoringSpace;
+
+  /**
+   * During {@link #smartGameStrategy(int[])}, the ETA bonus of each candidate settlement, city, and road
+   * already scored by {@link #scoreCandidatesInParallel(int[], int)}, or {@code null} if scoring serially.
+   * Each bonus is added to its candidate's score in the same order as serial scoring.
+   * @since 2.0.00
+   */
+  private IdentityHashMap<SOCPossiblePiece, Float> parallelBonuses;
+
+  /**
+   * Search engine for {@link #MCTS_STRATEGY}: Our brain's {@link SOCRobotBrain#getMCTSStrategy()},
+   * or created when first needed if the brain doesn't have one.
+   * @since 2.0.00
+   */
+  private MCTSStrategy mctsStrategy;
+
 
   /**
    * constructor
@@ -232,6 +336,89 @@ public class SOCRobotDM
   }
 
 
+  /**
+   * Set the number of threads shared by all robots in this JVM for scoring candidate pieces
+   * in {@link #SMART_STRATEGY} plans. Each thread scores some of the candidates in its own copy
+   * of the game; the chosen pieces are the same as when scoring serially.
+   *<P>
+   * The default is 0, to score serially in the robot brain's own thread.
+   * Robots whose decision maker is a subclass of {@code SOCRobotDM}, or which are recording debug info,
+   * always score serially.
+   *
+   * @param n  Number of threads, or 0 or 1 to score serially
+   * @throws IllegalArgumentException if {@code n} &lt; 0
+   * @see #getParallelScoringThreads()
+   * @since 2.0.00
+   */
+  public static void setParallelScoringThreads(final int n)
+      throws IllegalArgumentException
+  {
+    ParallelScoring.setThreads(n);
+  }
+
+  /**
+   * Get the number of threads for scoring candidate pieces.
+   * @return  Number of threads, or 0 or 1 if scoring serially
+   * @see #setParallelScoringThreads(int)
+   * @since 2.0.00
+   */
+  public static int getParallelScoringThreads()
+  {
+    return ParallelScoring.getThreads();
+  }
+
+  /**
+   * Set the time budget for each {@link #SMART_STRATEGY} decision made by {@link #planStuff(int)},
+   * for all robots in this JVM.
+   *<P>
+   * Within the budget, {@link #smartGameStrategy(int[])} scores candidates in priority order:
+   * Cities, then settlements, then roads and ships. When the budget expires it stops scoring
+   * and picks from the candidates scored so far; it always scores at least one.
+   * If {@link #BUDGET_OVERRUNS_BEFORE_FALLBACK} decisions in a row go over budget,
+   * because the host is busy or the board is complex, the robot makes its next
+   * {@link #BUDGET_FALLBACK_DECISIONS} decisions with the quicker {@link #FAST_STRATEGY}.
+   *<P>
+   * The budget is elapsed time, not CPU time, so that it includes time spent waiting for a busy CPU.
+   *
+   * @param ms  Budget in milliseconds, or 0 for no limit (the default)
+   * @throws IllegalArgumentException if {@code ms} &lt; 0
+   * @see #getDecisionBudget()
+   * @see #getDecisionBudgetStatsText()
+   * @since 2.0.00
+   */
+  public static void setDecisionBudget(final int ms)
+      throws IllegalArgumentException
+  {
+    if (ms < 0)
+      throw new IllegalArgumentException("ms");
+
+    decisionBudgetMS = ms;
+  }
+
+  /**
+   * Get the time budget for each smart decision.
+   * @return  Budget in milliseconds, or 0 for no limit
+   * @see #setDecisionBudget(int)
+   * @since 2.0.00
+   */
+  public static int getDecisionBudget()
+  {
+    return decisionBudgetMS;
+  }
+
+  /**
+   * Get a one-line summary of decisions made by all robots in this JVM
+   * since startup with a {@link #setDecisionBudget(int) time budget}.
+   * @return  Stats text, such as
+   *     "Robot decision budget 200 ms: 1043 decisions, 12 over budget, 15 with fast strategy"
+   * @since 2.0.00
+   */
+  public static String getDecisionBudgetStatsText()
+  {
+    return "Robot decision budget " + decisionBudgetMS + " ms: " + budgetDecisions.get() + " decisions, "
+        + budgetOverruns.get() + " over budget, " + budgetFallbacks.get() + " with fast strategy";
+  }
+
   /**
    * @return favorite settlement
    */
@@ -264,7 +451,8 @@ public class SOCRobotDM
    * make some building plans.
    * Called as needed by {@link SOCRobotBrain} and related strategy classes.
    * Sets {@link #buildingPlan}, {@link #favoriteSettlement}, etc.
-   * Calls either {@link #smartGameStrategy(int[])} or {@link #dumbFastGameStrategy(int[])}.
+   * Calls either {@link #smartGameStrategy(int[])} or {@link #dumbFastGameStrategy(int[])},
+   * or for {@link #MCTS_STRATEGY}, {@link #mctsGameStrategy()}.
    * Both of those will check whether this is our normal turn, or if
    * it's the 6-player board's {@link SOCGame#SPECIAL_BUILDING Special Building Phase}.
    * Both strategies also call
@@ -276,6 +464,8 @@ public class SOCRobotDM
    * <LI> Make a new {@link SOCBuildingSpeedEstimate} based on our current dice numbers
    * <LI> Get building piece type ETAs based on {@link SOCBuildingSpeedEstimate#getEstimatesFromNowFast(SOCResourceSet, boolean[])}
    *        with our current resources and ports
+   * <LI> If {@code SMART_STRATEGY} and there's a {@link #setDecisionBudget(int) time budget}, start its clock;
+   *      if recent decisions went over budget, use {@code FAST_STRATEGY} instead
    * <LI> Clear lists threatened and good settlements and roads
    * <LI> Set favoriteRoad, favoriteSettlement, favoriteCity to null
    * <LI> If {@code SMART_STRATEGY}, update all {@link SOCPlayerTracker#updateWinGameETAs(HashMap)}
@@ -286,16 +476,42 @@ public class SOCRobotDM
    * <LI><B>Call smartGameStrategy or dumbFastGameStrategy</B> using building piece type ETAs
    *    <BR>&nbsp;
    * <LI> If {@code SMART_STRATEGY} and we have a Road Building card, plan and push 2 roads onto {@code buildingPlan}
+   * <LI> If there was a time budget, count whether this decision went over it
    *</UL>
    *
    * @param strategy  an integer that determines which strategy is used
-   *    ({@link #SMART_STRATEGY} or {@link #FAST_STRATEGY})
+   *    ({@link #SMART_STRATEGY}, {@link #FAST_STRATEGY}, or {@link #MCTS_STRATEGY})
    */
-  public void planStuff(final int strategy)
+  public void planStuff(int strategy)
   {
       //long startTime = System.currentTimeMillis();
     D.ebugPrintln("PLANSTUFF");
 
+    budgetDeadline = 0;
+    budgetScoredAny = false;
+    budgetExpired = false;
+    budgetSkipped.clear();
+    if (strategy == SMART_STRATEGY)
+    {
+      final int budget = decisionBudgetMS;
+      if (budget > 0)
+      {
+        if (budgetFallbacksLeft > 0)
+        {
+          --budgetFallbacksLeft;
+          budgetFallbacks.incrementAndGet();
+          strategy = FAST_STRATEGY;
+        } else {
+          budgetDecisions.incrementAndGet();
+          budgetDeadline = System.nanoTime() + budget * 1000000L;
+          if (budgetDeadline == 0)
+            budgetDeadline = 1;  // 0 means no budget
+        }
+      } else {
+        budgetFallbacksLeft = 0;
+      }
+    }
+
     SOCBuildingSpeedEstimate currentBSE = new SOCBuildingSpeedEstimate(ourPlayerData.getNumbers());
     int currentBuildingETAs[] = currentBSE.getEstimatesFromNowFast
         (ourPlayerData.getResources(), ourPlayerData.getPortFlags());
@@ -379,6 +595,11 @@ public class SOCRobotDM
     case FAST_STRATEGY:
       dumbFastGameStrategy(currentBuildingETAs);
       break;
+
+    case MCTS_STRATEGY:
+      if (! mctsGameStrategy())
+        dumbFastGameStrategy(currentBuildingETAs);
+      break;
     }
 
 
@@ -394,10 +615,93 @@ public class SOCRobotDM
         planRoadBuildingTwoRoads();
     }
 
+    if (budgetDeadline != 0)
+    {
+      if (budgetExpired || (System.nanoTime() - budgetDeadline > 0))
+      {
+        budgetOverruns.incrementAndGet();
+        if (++budgetOverrunsInRow >= BUDGET_OVERRUNS_BEFORE_FALLBACK)
+        {
+          budgetOverrunsInRow = 0;
+          budgetFallbacksLeft = BUDGET_FALLBACK_DECISIONS;
+        }
+      } else {
+        budgetOverrunsInRow = 0;
+      }
+
+      budgetDeadline = 0;
+    }
+
     //long endTime = System.currentTimeMillis();
     //System.out.println("plan time: "+(endTime-startTime));
   }
 
+  /**
+   * Plan building for the {@link #MCTS_STRATEGY}: During our turn's {@link SOCGame#PLAY1} state,
+   * ask {@link MCTSStrategy#planBuild()} for the next piece to build, and push it onto {@link #buildingPlan}.
+   * The search only suggests pieces which are legal to build now, so no roads are needed to reach them.
+   * Sets {@link #favoriteCity}, {@link #favoriteSettlement}, {@link #favoriteRoad} or {@link #possibleCard}.
+   *
+   * @return  True if a piece was planned; false if the search had no suggestion
+   *     or it's another game state such as the Special Building Phase,
+   *     so caller should use another strategy
+   * @since 2.0.00
+   */
+  protected boolean mctsGameStrategy()
+  {
+    if ((game.getGameState() != SOCGame.PLAY1) || (game.getCurrentPlayerNumber() != ourPlayerNumber))
+      return false;
+
+    if (mctsStrategy == null)
+    {
+      if (brain != null)
+        mctsStrategy = brain.getMCTSStrategy();
+      if (mctsStrategy == null)
+        mctsStrategy = new MCTSStrategy(game, ourPlayerData);
+    }
+
+    final int action = mctsStrategy.planBuild();
+    if (action == 0)
+      return false;
+
+    final int coord = MCTSStrategy.getActionCoordinate(action);
+    switch (MCTSStrategy.getActionPieceType(action))
+    {
+    case SOCPossiblePiece.CITY:
+      favoriteCity = ourPlayerTracker.getPossibleCities().get(Integer.valueOf(coord));
+      if (favoriteCity == null)
+        favoriteCity = new SOCPossibleCity(ourPlayerData, coord);
+      buildingPlan.push(favoriteCity);
+      break;
+
+    case SOCPossiblePiece.SETTLEMENT:
+      favoriteSettlement = ourPlayerTracker.getPossibleSettlements().get(Integer.valueOf(coord));
+      if (favoriteSettlement == null)
+        favoriteSettlement = new SOCPossibleSettlement(ourPlayerData, coord, null);
+      buildingPlan.push(favoriteSettlement);
+      break;
+
+    case SOCPossiblePiece.ROAD:
+    case SOCPossiblePiece.SHIP:
+      {
+        final boolean isShip = (MCTSStrategy.getActionPieceType(action) == SOCPossiblePiece.SHIP);
+        favoriteRoad = ourPlayerTracker.getPossibleRoads().get(Integer.valueOf(coord));
+        if ((favoriteRoad == null) || ((favoriteRoad instanceof SOCPossibleShip) != isShip))
+          favoriteRoad = (isShip)
+            ? new SOCPossibleShip(ourPlayerData, coord, false, null)
+            : new SOCPossibleRoad(ourPlayerData, coord, null);
+        buildingPlan.push(favoriteRoad);
+      }
+      break;
+
+    default:  // CARD
+      possibleCard = new SOCPossibleCard(ourPlayerData, 1);
+      buildingPlan.push(possibleCard);
+    }
+
+    return true;
+  }
+
   /**
    * Plan building for the dumbFastGameStrategy ({@link #FAST_STRATEGY}).
    * uses rules to determine what to build next
@@ -1378,17 +1682,21 @@ public class SOCRobotDM
    * such a scenario, after calculating {@link #favoriteSettlement}, {@link #favoriteCity}, etc, calls
    * {@link #scenarioGameStrategyPlan(float, float, boolean, boolean, SOCBuildingSpeedEstimate, int, boolean)}.
    * See that method for the list of scenarios which need such planning.
+   *<P>
+   * If there's a {@link #setDecisionBudget(int) time budget} and it expires while scoring,
+   * the remaining candidates aren't scored or picked; the favorite pieces are picked from those already scored.
    *
    *<H4>Outline:</H4>
    *<UL>
    * <LI> Determine our Win Game ETA, leading player's WGETA
+   * <LI> Build {@link #goodRoads} from possibleRoads' roads & ships we can build now
+   * <LI> If {@link #setParallelScoringThreads(int) scoring in parallel}, score all the candidates below now
+   * <LI> Pick a {@link #favoriteCity} from our possibleCities, with highest score (ETA bonus)
    * <LI> {@link #scorePossibleSettlements(int, int) scorePossibleSettlements(BuildETAs, leaderWGETA)}:
    *      For each settlement we can build now (no roads/ships needed), add its ETA bonus to its score
-   * <LI> Build {@link #goodRoads} from possibleRoads' roads & ships we can build now
    * <LI> Pick a {@link #favoriteSettlement} from threatened/good settlements, with the highest
    *      {@link SOCPossiblePiece#getScore() getScore()}  (ETA bonus)
    * <LI> Pick a {@link #favoriteRoad} from threatened/good, with highest getWinGameETABonusForRoad
-   * <LI> Pick a {@link #favoriteCity} from our possibleCities, with highest score (ETA bonus)
    * <LI> If {@code favoriteCity} has the best score (best ETA if tied), choose to build the city
    * <LI> Otherwise choose {@code favoriteRoad} or {@code favoriteSettlement} based on their scores
    * <LI> If buying a dev card scores higher than the chosen piece, choose to buy one instead of building
@@ -1410,12 +1718,8 @@ public class SOCRobotDM
     //
     // save the lr paths list to restore later
     //
-    @SuppressWarnings("unchecked")
-    List<SOCLRPathData>[] savedLRPaths = new List[game.maxPlayers];
-    for (int pn = 0; pn < game.maxPlayers; pn++) {
-      savedLRPaths[pn] = new ArrayList<SOCLRPathData>();
-      savedLRPaths[pn].addAll(game.getPlayer(pn).getLRPaths());
-    }
+    scoringSpace = new ParallelScoring.Workspace(game, ourPlayerData, playerTrackers);
+    parallelBonuses = null;
 
     int ourCurrentWGETA = ourPlayerTracker.getWinGameETA();
     D.ebugPrintln("ourCurrentWGETA = "+ourCurrentWGETA);
@@ -1439,13 +1743,6 @@ public class SOCRobotDM
     }
     */
 
-    ///
-    /// score the possible settlements into threatenedSettlements and goodSettlements
-    ///
-    if (ourPlayerData.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0) {
-      scorePossibleSettlements(buildingETAs[SOCBuildingSpeedEstimate.SETTLEMENT], leadersCurrentWGETA);
-    }
-
     ///
     /// collect roads that we can build now into goodRoads
     ///
@@ -1513,6 +1810,64 @@ public class SOCRobotDM
         }
     }
 
+    ///
+    /// if scoring in parallel, score all candidate settlements, roads, and cities now
+    ///
+    if (canScoreInParallel())
+      scoreCandidatesInParallel(buildingETAs, leadersCurrentWGETA);
+
+    ///
+    /// pick a city that can be built now
+    ///
+    if (ourPlayerData.getNumPieces(SOCPlayingPiece.CITY) > 0)
+    {
+      Iterator<SOCPossibleCity> posCitiesIter = ourPlayerTracker.getPossibleCities().values().iterator();
+      while (posCitiesIter.hasNext())
+      {
+	SOCPossibleCity posCity = posCitiesIter.next();
+	final Float parallelBonus = (parallelBonuses != null) ? parallelBonuses.get(posCity) : null;
+	if (parallelBonus != null)
+	{
+	  posCity.addToScore(parallelBonus.floatValue());
+	} else {
+	  if (isBudgetSkip(posCity))
+	    continue;  // out of time: don't score or pick this city
+
+	  if ((brain != null) && (brain.getDRecorder().isOn())) {
+	    brain.getDRecorder().startRecording("CITY"+posCity.getCoordinates());
+	    brain.getDRecorder().record("Estimate value of city at "
+	        + game.getBoard().nodeCoordToString(posCity.getCoordinates()));
+	  }
+
+	  float etaBonus = calcCityETABonus
+	      (getScoringSpace(), posCity.getCoordinates(), buildingETAs[SOCBuildingSpeedEstimate.CITY], leadersCurrentWGETA);
+
+	  posCity.addToScore(etaBonus);
+	  //posCity.addToScore(wgetaScore);
+
+	  if ((brain != null) && (brain.getDRecorder().isOn())) {
+	    brain.getDRecorder().stopRecording();
+	  }
+	}
+
+	D.ebugPrintln("$$$  final score = "+posCity.getScore());
+
+	D.ebugPrintln("$$$$$ possible city at "+Integer.toHexString(posCity.getCoordinates())+" has a score of "+posCity.getScore());
+
+	if ((favoriteCity == null) ||
+	    (posCity.getScore() > favoriteCity.getScore())) {
+	  favoriteCity = posCity;
+	}
+      }
+    }
+
+    ///
+    /// score the possible settlements into threatenedSettlements and goodSettlements
+    ///
+    if (ourPlayerData.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0) {
+      scorePossibleSettlements(buildingETAs[SOCBuildingSpeedEstimate.SETTLEMENT], leadersCurrentWGETA);
+    }
+
     /*
     ///
     /// check everything
@@ -1574,7 +1929,7 @@ public class SOCRobotDM
       while (threatenedSetIter.hasNext())
       {
 	SOCPossibleSettlement threatenedSet = threatenedSetIter.next();
-	if (threatenedSet.getNecessaryRoads().isEmpty()) {
+	if (threatenedSet.getNecessaryRoads().isEmpty() && ! budgetSkipped.contains(threatenedSet)) {
 	  D.ebugPrintln("$$$$$ threatened settlement at "+Integer.toHexString(threatenedSet.getCoordinates())+" has a score of "+threatenedSet.getScore());
 
 	  if ((favoriteSettlement == null) ||
@@ -1588,7 +1943,7 @@ public class SOCRobotDM
       while (goodSetIter.hasNext())
       {
 	SOCPossibleSettlement goodSet = goodSetIter.next();
-	if (goodSet.getNecessaryRoads().isEmpty()) {
+	if (goodSet.getNecessaryRoads().isEmpty() && ! budgetSkipped.contains(goodSet)) {
 	  D.ebugPrintln("$$$$$ good settlement at "+Integer.toHexString(goodSet.getCoordinates())+" has a score of "+goodSet.getScore());
 
 	  if ((favoriteSettlement == null) ||
@@ -1603,9 +1958,7 @@ public class SOCRobotDM
     // restore the LRPath list
     //
     D.ebugPrintln("%%% RESTORING LRPATH LIST %%%");
-    for (int pn = 0; pn < game.maxPlayers; pn++) {
-      game.getPlayer(pn).setLRPaths(savedLRPaths[pn]);
-    }
+    scoringSpace.restoreLRPaths();
 
     ///
     /// pick a road that can be built now
@@ -1616,6 +1969,8 @@ public class SOCRobotDM
       while (threatenedRoadIter.hasNext()) {
 	SOCPossibleRoad threatenedRoad = threatenedRoadIter.next();
 	D.ebugPrintln("$$$$$ threatened road at "+Integer.toHexString(threatenedRoad.getCoordinates()));
+	if (isBudgetSkip(threatenedRoad))
+	  continue;  // out of time: don't score or pick this road
 
 	if ((brain != null) && (brain.getDRecorder().isOn())) {
 	  brain.getDRecorder().startRecording("ROAD"+threatenedRoad.getCoordinates());
@@ -1648,6 +2003,8 @@ public class SOCRobotDM
       {
 	SOCPossibleRoad goodRoad = goodRoadIter.next();
 	D.ebugPrintln("$$$$$ good road at "+Integer.toHexString(goodRoad.getCoordinates()));
+	if (isBudgetSkip(goodRoad))
+	  continue;  // out of time: don't score or pick this road or ship
 
 	if ((brain != null) && (brain.getDRecorder().isOn())) {
 	  brain.getDRecorder().startRecording("ROAD"+goodRoad.getCoordinates());
@@ -1686,109 +2043,10 @@ public class SOCRobotDM
     // restore the LRPath list
     //
     D.ebugPrintln("%%% RESTORING LRPATH LIST %%%");
-    for (int pn = 0; pn < game.maxPlayers; pn++) {
-      game.getPlayer(pn).setLRPaths(savedLRPaths[pn]);
-    }
-
-    ///
-    /// pick a city that can be built now
-    ///
-    if (ourPlayerData.getNumPieces(SOCPlayingPiece.CITY) > 0)
-    {
-      HashMap<Integer, SOCPlayerTracker> trackersCopy = SOCPlayerTracker.copyPlayerTrackers(playerTrackers);
-      SOCPlayerTracker ourTrackerCopy = trackersCopy.get(Integer.valueOf(ourPlayerNumber));
-      int originalWGETAs[] = new int[game.maxPlayers];
-      int WGETAdiffs[] = new int[game.maxPlayers];
-      Vector<SOCPlayerTracker> leaders = new Vector<SOCPlayerTracker>();
-      int bestWGETA = 1000;
-      // int bonus = 0;
-
-      Iterator<SOCPossibleCity> posCitiesIter = ourPlayerTracker.getPossibleCities().values().iterator();
-      while (posCitiesIter.hasNext())
-      {
-	SOCPossibleCity posCity = posCitiesIter.next();
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().startRecording("CITY"+posCity.getCoordinates());
-	  brain.getDRecorder().record("Estimate value of city at "
-	      + game.getBoard().nodeCoordToString(posCity.getCoordinates()));
-	}
-
-	//
-	// see how building this piece impacts our winETA
-	//
-	leaders.clear();
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().suspend();
-	}
-	SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-
-	// TODO refactor? This section is like a copy of calcWGETABonus, with something added in the middle
-
-	Iterator<SOCPlayerTracker> trackersBeforeIter = trackersCopy.values().iterator();
-	while (trackersBeforeIter.hasNext())
-	{
-	  SOCPlayerTracker trackerBefore = trackersBeforeIter.next();
-	  final int pn = trackerBefore.getPlayer().getPlayerNumber();
-	  D.ebugPrintln("$$$ win game ETA for player " + pn + " = " + trackerBefore.getWinGameETA());
-	  originalWGETAs[pn] = trackerBefore.getWinGameETA();
-	  WGETAdiffs[pn] = trackerBefore.getWinGameETA();
-	  if (trackerBefore.getWinGameETA() < bestWGETA) {
-	    bestWGETA = trackerBefore.getWinGameETA();
-	    leaders.removeAllElements();
-	    leaders.addElement(trackerBefore);
-	  } else if (trackerBefore.getWinGameETA() == bestWGETA) {
-	    leaders.addElement(trackerBefore);
-	  }
-	}
-	D.ebugPrintln("^^^^ bestWGETA = "+bestWGETA);
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().resume();
-	}
-	//
-	// place the city
-	//
-	SOCCity tmpCity = new SOCCity(ourPlayerData, posCity.getCoordinates(), null);
-	game.putTempPiece(tmpCity);
-
-	ourTrackerCopy.addOurNewCity(tmpCity);
+    scoringSpace.restoreLRPaths();
 
-	SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-
-	float wgetaScore = calcWGETABonusAux(originalWGETAs, trackersCopy, leaders);
-
-	//
-	// remove the city
-	//
-	ourTrackerCopy.undoAddOurNewCity(posCity);
-	game.undoPutTempPiece(tmpCity);
-
-	D.ebugPrintln("*** ETA for city = "+buildingETAs[SOCBuildingSpeedEstimate.CITY]);
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().record("ETA = "+buildingETAs[SOCBuildingSpeedEstimate.CITY]);
-	}
-
-	float etaBonus = getETABonus(buildingETAs[SOCBuildingSpeedEstimate.CITY], leadersCurrentWGETA, wgetaScore);
-	D.ebugPrintln("etaBonus = "+etaBonus);
-
-	posCity.addToScore(etaBonus);
-	//posCity.addToScore(wgetaScore);
-
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().record("WGETA score = "+df1.format(wgetaScore));
-	  brain.getDRecorder().record("Total city score = "+df1.format(etaBonus));
-	  brain.getDRecorder().stopRecording();
-	}
-
-	D.ebugPrintln("$$$  final score = "+posCity.getScore());
-
-	D.ebugPrintln("$$$$$ possible city at "+Integer.toHexString(posCity.getCoordinates())+" has a score of "+posCity.getScore());
-
-	if ((favoriteCity == null) ||
-	    (posCity.getScore() > favoriteCity.getScore())) {
-	  favoriteCity = posCity;
-	}
-      }
-    }
+    scoringSpace = null;
+    parallelBonuses = null;
 
     if (favoriteSettlement != null) {
       D.ebugPrintln("### FAVORITE SETTLEMENT IS AT "+Integer.toHexString(favoriteSettlement.getCoordinates()));
@@ -2410,38 +2668,303 @@ public class SOCRobotDM
 	//
 	//  get wgeta score
 	//
-        SOCBoard board = game.getBoard();
-	SOCSettlement tmpSet = new SOCSettlement(ourPlayerData, posSet.getCoordinates(), board);
-	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().startRecording("SETTLEMENT"+posSet.getCoordinates());
-	  brain.getDRecorder().record("Estimate value of settlement at "+board.nodeCoordToString(posSet.getCoordinates()));
+	final Float parallelBonus = (parallelBonuses != null) ? parallelBonuses.get(posSet) : null;
+	if (parallelBonus != null)
+	{
+	  posSet.addToScore(parallelBonus.floatValue());
+	  continue;
+	}
+	if (isBudgetSkip(posSet))
+	{
+	  budgetSkipped.add(posSet);
+	  continue;  // out of time: don't score or pick this settlement
 	}
 
-	HashMap<Integer, SOCPlayerTracker> trackersCopy = SOCPlayerTracker.tryPutPiece(tmpSet, game, playerTrackers);
-	SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-	float wgetaScore = calcWGETABonus(playerTrackers, trackersCopy);
-	D.ebugPrintln("***  wgetaScore = "+wgetaScore);
-
-	D.ebugPrintln("*** ETA for settlement = "+settlementETA);
 	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().record("ETA = "+settlementETA);
+	  brain.getDRecorder().startRecording("SETTLEMENT"+posSet.getCoordinates());
+	  brain.getDRecorder().record("Estimate value of settlement at "+game.getBoard().nodeCoordToString(posSet.getCoordinates()));
 	}
 
-	float etaBonus = getETABonus(settlementETA, leadersCurrentWGETA, wgetaScore);
-	D.ebugPrintln("etaBonus = "+etaBonus);
+	float etaBonus = calcSettlementETABonus
+	    (getScoringSpace(), posSet.getCoordinates(), settlementETA, leadersCurrentWGETA);
 
 	//posSet.addToScore(wgetaScore);
 	posSet.addToScore(etaBonus);
 
 	if ((brain != null) && (brain.getDRecorder().isOn())) {
-	  brain.getDRecorder().record("WGETA score = "+df1.format(wgetaScore));
-	  brain.getDRecorder().record("Total settlement score = "+df1.format(etaBonus));
 	  brain.getDRecorder().stopRecording();
 	}
+      }
+    }
+  }
+
+  /**
+   * During a {@link #smartGameStrategy(int[])} decision, should this candidate be skipped because
+   * the {@link #setDecisionBudget(int) time budget} has expired? Candidates already scored in parallel
+   * are never skipped. Allows at least one candidate to be scored per decision.
+   * Once this returns true, it returns true for all remaining unscored candidates of this decision.
+   *
+   * @param pp  Candidate about to be scored
+   * @return  True if out of time and {@code pp} shouldn't be scored or picked
+   * @since 2.0.00
+   */
+  private boolean isBudgetSkip(final SOCPossiblePiece pp)
+  {
+    if ((budgetDeadline == 0) || ((parallelBonuses != null) && parallelBonuses.containsKey(pp)))
+      return false;
 
-	SOCPlayerTracker.undoTryPutPiece(tmpSet, game);
+    if (! budgetExpired)
+    {
+      if (budgetScoredAny && (System.nanoTime() - budgetDeadline >= 0))
+      {
+        budgetExpired = true;
+      } else {
+        budgetScoredAny = true;
+        return false;
       }
     }
+
+    return true;
+  }
+
+  /**
+   * Get the workspace for scoring candidates serially in our own game and trackers:
+   * {@link #scoringSpace} during {@link #smartGameStrategy(int[])}, otherwise a new one.
+   * @return  a workspace with our game, player, and {@link #playerTrackers}
+   * @since 2.0.00
+   */
+  private ParallelScoring.Workspace getScoringSpace()
+  {
+    if (scoringSpace != null)
+      return scoringSpace;
+
+    return new ParallelScoring.Workspace(game, ourPlayerData, playerTrackers);
+  }
+
+  /**
+   * Should {@link #smartGameStrategy(int[])} score its candidates with {@link #scoreCandidatesInParallel(int[], int)}?
+   * Only if there's a pool of scoring threads, we aren't recording debug info, and this isn't a subclass
+   * which might override the scoring methods.
+   * @return  true if candidates can be scored in parallel
+   * @see #setParallelScoringThreads(int)
+   * @since 2.0.00
+   */
+  private boolean canScoreInParallel()
+  {
+    return (getClass() == SOCRobotDM.class)
+        && ((brain == null) || ! brain.getDRecorder().isOn())
+        && (ParallelScoring.getThreads() >= 2);
+  }
+
+  /**
+   * For {@link #smartGameStrategy(int[])}, score all the candidates it would score serially, in the same
+   * priority order: Possible cities, possible settlements which need no roads,
+   * {@link #threatenedRoads} and {@link #goodRoads}.
+   * Each pool thread scores candidates in its own copy of the game and trackers.
+   * If the {@link #setDecisionBudget(int) time budget} expires, threads stop scoring
+   * and the rest of the candidates are left unscored.
+   * Sets {@link #parallelBonuses} to the results, to be added to the candidates' scores
+   * in the usual order; leaves it {@code null} if fewer than 2 candidates or if scoring fails.
+   *
+   * @param buildingETAs  the ETAs for building each piece type
+   * @param leadersCurrentWGETA  the leader's current WGETA
+   * @since 2.0.00
+   */
+  private void scoreCandidatesInParallel(final int[] buildingETAs, final int leadersCurrentWGETA)
+  {
+    final List<SOCPossiblePiece> candidates = new ArrayList<SOCPossiblePiece>();
+    if (ourPlayerData.getNumPieces(SOCPlayingPiece.CITY) > 0)
+      candidates.addAll(ourPlayerTracker.getPossibleCities().values());
+    if (ourPlayerData.getNumPieces(SOCPlayingPiece.SETTLEMENT) > 0)
+      for (SOCPossibleSettlement posSet : ourPlayerTracker.getPossibleSettlements().values())
+        if (posSet.getNecessaryRoads().isEmpty())
+          candidates.add(posSet);
+    if (ourPlayerData.getNumPieces(SOCPlayingPiece.ROAD) > 0)
+    {
+      candidates.addAll(threatenedRoads);
+      candidates.addAll(goodRoads);
+    }
+
+    final int n = candidates.size();
+    if (n < 2)
+      return;
+
+    final long deadline = budgetDeadline;
+
+    final float[] bonuses = ParallelScoring.scoreAll
+        (game, ourPlayerNumber, playerTrackers, n, new ParallelScoring.CandidateScorer()
+        {
+          public float score(final ParallelScoring.Workspace ws, final int i)
+          {
+            if ((deadline != 0) && (i > 0) && (System.nanoTime() - deadline >= 0))
+              return Float.NaN;  // out of time budget
+
+            final SOCPossiblePiece piece = candidates.get(i);
+            switch (piece.getType())
+            {
+            case SOCPossiblePiece.SETTLEMENT:
+              return calcSettlementETABonus
+                  (ws, piece.getCoordinates(), buildingETAs[SOCBuildingSpeedEstimate.SETTLEMENT], leadersCurrentWGETA);
+
+            case SOCPossiblePiece.CITY:
+              return calcCityETABonus
+                  (ws, piece.getCoordinates(), buildingETAs[SOCBuildingSpeedEstimate.CITY], leadersCurrentWGETA);
+
+            default:  // ROAD or SHIP
+              {
+                final SOCPossibleRoad posRoad = (SOCPossibleRoad) piece;
+                final int etype =  // same as in smartGameStrategy's road loops
+                    (threatenedRoads.contains(posRoad)
+                     || ((posRoad instanceof SOCPossibleShip) && ! ((SOCPossibleShip) posRoad).isCoastalRoadAndShip))
+                    ? SOCBuildingSpeedEstimate.ROAD
+                    : SOCBuildingSpeedEstimate.SHIP;
+                return calcRoadETABonus
+                    (ws, posRoad, buildingETAs[etype], leadersCurrentWGETA, ws.trackers, playerTrackers);
+              }
+            }
+          }
+        });
+    if (bonuses == null)
+      return;
+
+    parallelBonuses = new IdentityHashMap<SOCPossiblePiece, Float>();
+    for (int i = 0; i < n; ++i)
+    {
+      if (Float.isNaN(bonuses[i]))
+        budgetExpired = true;  // out of time before scoring this one
+      else
+        parallelBonuses.put(candidates.get(i), Float.valueOf(bonuses[i]));
+    }
+    budgetScoredAny = true;
+  }
+
+  /**
+   * Score a possible city for {@link #smartGameStrategy(int[])} by temporarily placing it
+   * in a workspace's game and {@link ParallelScoring.Workspace#getCityTrackers() city trackers},
+   * and comparing win game ETAs before and after. Removes the temporary city before returning.
+   *
+   * @param ws  Workspace to place the city in
+   * @param node  City's node coordinate
+   * @param cityETA  ETA for building a city from now
+   * @param leadersCurrentWGETA  the leader's current WGETA
+   * @return  the ETA bonus to add to the possible city's score
+   * @since 2.0.00
+   */
+  private float calcCityETABonus
+      (final ParallelScoring.Workspace ws, final int node, final int cityETA, final int leadersCurrentWGETA)
+  {
+    final HashMap<Integer, SOCPlayerTracker> trackersCopy = ws.getCityTrackers();
+    final SOCPlayerTracker ourTrackerCopy = trackersCopy.get(Integer.valueOf(ourPlayerNumber));
+    final int originalWGETAs[] = new int[ws.game.maxPlayers];
+    Vector<SOCPlayerTracker> leaders = new Vector<SOCPlayerTracker>();
+    int bestWGETA = 1000;
+
+    //
+    // see how building this piece impacts our winETA
+    //
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().suspend();
+    }
+    SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+
+    // TODO refactor? This section is like a copy of calcWGETABonus, with something added in the middle
+
+    Iterator<SOCPlayerTracker> trackersBeforeIter = trackersCopy.values().iterator();
+    while (trackersBeforeIter.hasNext())
+    {
+      SOCPlayerTracker trackerBefore = trackersBeforeIter.next();
+      final int pn = trackerBefore.getPlayer().getPlayerNumber();
+      D.ebugPrintln("$$$ win game ETA for player " + pn + " = " + trackerBefore.getWinGameETA());
+      originalWGETAs[pn] = trackerBefore.getWinGameETA();
+      if (trackerBefore.getWinGameETA() < bestWGETA) {
+        bestWGETA = trackerBefore.getWinGameETA();
+        leaders.removeAllElements();
+        leaders.addElement(trackerBefore);
+      } else if (trackerBefore.getWinGameETA() == bestWGETA) {
+        leaders.addElement(trackerBefore);
+      }
+    }
+    D.ebugPrintln("^^^^ bestWGETA = "+bestWGETA);
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().resume();
+    }
+
+    //
+    // place the city
+    //
+    final SOCPossibleCity trackedCity = ourTrackerCopy.getPossibleCities().get(Integer.valueOf(node));
+    SOCCity tmpCity = new SOCCity(ws.ourPlayer, node, null);
+    ws.game.putTempPiece(tmpCity);
+
+    ourTrackerCopy.addOurNewCity(tmpCity);
+
+    SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+
+    float wgetaScore = calcWGETABonusAux(originalWGETAs, trackersCopy, leaders);
+
+    //
+    // remove the city
+    //
+    if (trackedCity != null)
+      ourTrackerCopy.undoAddOurNewCity(trackedCity);
+    ws.game.undoPutTempPiece(tmpCity);
+    ws.restoreLRPaths();
+
+    D.ebugPrintln("*** ETA for city = "+cityETA);
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().record("ETA = "+cityETA);
+    }
+
+    float etaBonus = getETABonus(cityETA, leadersCurrentWGETA, wgetaScore);
+    D.ebugPrintln("etaBonus = "+etaBonus);
+
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().record("WGETA score = "+df1.format(wgetaScore));
+      brain.getDRecorder().record("Total city score = "+df1.format(etaBonus));
+    }
+
+    return etaBonus;
+  }
+
+  /**
+   * Score a possible settlement for {@link #scorePossibleSettlements(int, int)} by temporarily placing it
+   * in a workspace's game and trackers, and comparing win game ETAs before and after.
+   * Removes the temporary settlement before returning.
+   *
+   * @param ws  Workspace to place the settlement in
+   * @param node  Settlement's node coordinate
+   * @param settlementETA  ETA for building a settlement from now
+   * @param leadersCurrentWGETA  the leader's current WGETA
+   * @return  the ETA bonus to add to the possible settlement's score
+   * @since 2.0.00
+   */
+  private float calcSettlementETABonus
+      (final ParallelScoring.Workspace ws, final int node, final int settlementETA, final int leadersCurrentWGETA)
+  {
+    SOCSettlement tmpSet = new SOCSettlement(ws.ourPlayer, node, ws.game.getBoard());
+
+    HashMap<Integer, SOCPlayerTracker> trackersCopy = SOCPlayerTracker.tryPutPiece(tmpSet, ws.game, ws.trackers);
+    SOCPlayerTracker.updateWinGameETAs(trackersCopy);
+    float wgetaScore = calcWGETABonus(playerTrackers, trackersCopy);
+    D.ebugPrintln("***  wgetaScore = "+wgetaScore);
+
+    D.ebugPrintln("*** ETA for settlement = "+settlementETA);
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().record("ETA = "+settlementETA);
+    }
+
+    float etaBonus = getETABonus(settlementETA, leadersCurrentWGETA, wgetaScore);
+    D.ebugPrintln("etaBonus = "+etaBonus);
+
+    if ((brain != null) && (brain.getDRecorder().isOn())) {
+      brain.getDRecorder().record("WGETA score = "+df1.format(wgetaScore));
+      brain.getDRecorder().record("Total settlement score = "+df1.format(etaBonus));
+    }
+
+    SOCPlayerTracker.undoTryPutPiece(tmpSet, ws.game);
+    ws.restoreLRPaths();
+
+    return etaBonus;
   }
 
   /**
@@ -2559,6 +3082,37 @@ public class SOCRobotDM
     int ourCurrentWGETA = ourPlayerTracker.getWinGameETA();
     D.ebugPrintln("ourCurrentWGETA = "+ourCurrentWGETA);
 
+    final Float parallelBonus = (parallelBonuses != null) ? parallelBonuses.get(posRoad) : null;
+    final float etaBonus = (parallelBonus != null)
+        ? parallelBonus.floatValue()
+        : calcRoadETABonus
+            (getScoringSpace(), posRoad, roadETA, leadersCurrentWGETA, playerTrackers, playerTrackers);
+    posRoad.addToScore(etaBonus);
+
+    return etaBonus;
+  }
+
+  /**
+   * Calculate the ETA bonus for {@link #getWinGameETABonusForRoad(SOCPossibleRoad, int, int, HashMap)}
+   * by temporarily placing the road or ship in a workspace's game and a copy of its trackers.
+   * Removes the temporary piece and restores our player's resources before returning.
+   *
+   * @param ws  Workspace to place the road or ship in
+   * @param posRoad  the possible piece that we're scoring
+   * @param roadETA  the ETA for a road or ship, from building speed estimates
+   * @param leadersCurrentWGETA  the leaders current WGETA
+   * @param fromTrackers  the player trackers of {@code ws}'s game, to copy and place the piece into
+   * @param trackersBefore  the player trackers with current win game ETAs, to compare with after placement
+   * @return  the ETA bonus to add to {@code posRoad}'s score
+   * @since 2.0.00
+   */
+  private float calcRoadETABonus
+      (final ParallelScoring.Workspace ws, final SOCPossibleRoad posRoad, final int roadETA,
+       final int leadersCurrentWGETA, final HashMap<Integer, SOCPlayerTracker> fromTrackers,
+       final HashMap<Integer, SOCPlayerTracker> trackersBefore)
+  {
+    final SOCPlayer ourPlayerData = ws.ourPlayer;
+
     HashMap<Integer, SOCPlayerTracker> trackersCopy = null;
     SOCRoad tmpRoad1 = null;
     // Building road or ship?  TODO Better ETA calc for coastal road/ship
@@ -2582,9 +3136,9 @@ public class SOCRobotDM
     tmpRoad1 = (isShip)
         ? new SOCShip(ourPlayerData, posRoad.getCoordinates(), null)
         : new SOCRoad(ourPlayerData, posRoad.getCoordinates(), null);
-    trackersCopy = SOCPlayerTracker.tryPutPiece(tmpRoad1, game, playerTrackers);
+    trackersCopy = SOCPlayerTracker.tryPutPiece(tmpRoad1, ws.game, fromTrackers);
     SOCPlayerTracker.updateWinGameETAs(trackersCopy);
-    float score = calcWGETABonus(playerTrackers, trackersCopy);
+    float score = calcWGETABonus(trackersBefore, trackersCopy);
 
     if (! posRoad.getThreats().isEmpty()) {
       score *= threatMultiplier;
@@ -2594,7 +3148,6 @@ public class SOCRobotDM
     float etaBonus = getETABonus(roadETA, leadersCurrentWGETA, score);
     D.ebugPrintln("$$$ score = "+score);
     D.ebugPrintln("etaBonus = "+etaBonus);
-    posRoad.addToScore(etaBonus);
 
     if ((brain != null) && (brain.getDRecorder().isOn())) {
       brain.getDRecorder().record("ETA = "+roadETA);
@@ -2603,7 +3156,8 @@ public class SOCRobotDM
     }
 
     D.ebugPrintln("--- after [end] ---");
-    SOCPlayerTracker.undoTryPutPiece(tmpRoad1, game);
+    SOCPlayerTracker.undoTryPutPiece(tmpRoad1, ws.game);
+    ws.restoreLRPaths();
     ourPlayerData.getResources().clear();
     ourPlayerData.getResources().add(originalResources);
     D.ebugPrintln("--- cleanup done ---");
@@ -0,0 +1,511 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.robot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Vector;
+
+import soc.message.SOCBotMux;
+import soc.message.SOCMessage;
+import soc.message.SOCRejectConnection;
+import soc.message.SOCVersion;
+import soc.server.genericServer.StringConnection;
+import soc.server.genericServer.StringServerSocket;
+import soc.util.Version;
+
+/**
+ * Robot host: Runs many {@link SOCRobotClient}s over one connection to the server,
+ * instead of each robot having its own connection, reader thread, and server connection slot.
+ * Each robot's messages to and from the server are wrapped in {@link SOCBotMux} tagged with its bot ID,
+ * and the server gives each robot its own {@link soc.server.genericServer.MultiplexedConnection}.
+ *<P>
+ * This host's single reader thread reads all messages from the server and passes each to its robot's
+ * {@link SOCRobotClient#treat(SOCMessage)}; robots' game brains still run in their own threads.
+ * Robots send through {@link #put(int, String)}, which writes to the shared connection.
+ *<P>
+ * Usage: Construct, call {@link #addRobot(String, String)} for each robot, then {@link #init()}.
+ * The server accepts only one unauthenticated robot at a time from a new host over TCP,
+ * so {@code init()} waits for the first robot's authentication before starting the others.
+ * If the connection is lost, the host reconnects and its robots authenticate again.
+ *<P>
+ * For stand-alone use, see {@link #main(String[])}. The server starts its own robots on a host
+ * when {@link soc.server.SOCServer#PROP_JSETTLERS_BOTS_MULTIPLEX} is set.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotHost implements Runnable
+{
+    /** Maximum time to wait for the first robot to authenticate, in milliseconds */
+    private static final int FIRST_AUTH_WAIT_MS = 15000;
+
+    /** Server hostname for TCP, or {@code null} for a local stringport */
+    private final String host;
+
+    /** Server TCP port, if {@link #host} != null */
+    private final int port;
+
+    /** Server's local stringport name, or {@code null} for TCP */
+    private final String strSocketName;
+
+    /** Robot cookie for the server */
+    private final String cookie;
+
+    /** TCP socket and streams, if {@link #strSocketName} is null */
+    private Socket s;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    /** Local connection, if {@link #strSocketName} != null */
+    private StringConnection sLocal;
+
+    /** Lock for writing to {@link #out} or {@link #sLocal} */
+    private final Object outLock = new Object();
+
+    /** Is the connection open? */
+    private volatile boolean connected;
+
+    /** Has {@link #disconnect()} been called? */
+    private volatile boolean stopped;
+
+    /**
+     * Has any robot authenticated since we last connected?
+     * Set when a robot is sent {@link SOCMessage#UPDATEROBOTPARAMS}. Synchronized on this object.
+     */
+    private boolean anyAuthenticated;
+
+    /**
+     * This host's robots; bot ID is the index. A robot which reconnects gets a new ID
+     * from {@link #newBotID(SOCRobotClient)}, leaving {@code null} at its old index.
+     */
+    private final Vector<SOCRobotClient> robots = new Vector<SOCRobotClient>();
+
+    /** Number of robots added with {@link #addRobot(String, String)}; see {@link #getRobotCount()} */
+    private int robotCount;
+
+    /**
+     * Create a robot host which connects to the server over TCP.
+     * @param h  Server hostname
+     * @param p  Server port
+     * @param co  Cookie for robot connections to server
+     */
+    public SOCRobotHost(final String h, final int p, final String co)
+    {
+        host = h;
+        port = p;
+        strSocketName = null;
+        cookie = co;
+    }
+
+    /**
+     * Create a robot host which connects to a server in this JVM on a local stringport.
+     * @param strSocketName  The stringport that the server listens on
+     * @param co  Cookie for robot connections to server
+     */
+    public SOCRobotHost(final String strSocketName, final String co)
+    {
+        host = null;
+        port = 0;
+        this.strSocketName = strSocketName;
+        cookie = co;
+    }
+
+    /**
+     * Add a robot to this host. Call before {@link #init()}.
+     * @param nickname  Robot's nickname
+     * @param password  Robot's password
+     * @return  The new robot client, which will be connected through this host
+     */
+    public SOCRobotClient addRobot(final String nickname, final String password)
+    {
+        synchronized (robots)
+        {
+            final SOCRobotClient rc = new SOCRobotClient(this, robots.size(), nickname, password, cookie);
+            robots.addElement(rc);
+            ++robotCount;
+            return rc;
+        }
+    }
+
+    /**
+     * Get the number of robots on this host.
+     * @return  Number of robots added with {@link #addRobot(String, String)}
+     */
+    public int getRobotCount()
+    {
+        synchronized (robots)
+        {
+            return robotCount;
+        }
+    }
+
+    /**
+     * Give one of our robots a new bot ID, for {@link SOCRobotClient#disconnectReconnect()}.
+     * The server will close the robot's old sub-connection, and that close may arrive after the robot
+     * has reconnected; since the old ID is no longer used, {@link #treatBotMux(SOCBotMux)} ignores it.
+     * @param rc  One of our robots
+     * @return  Its new bot ID
+     */
+    int newBotID(final SOCRobotClient rc)
+    {
+        synchronized (robots)
+        {
+            final int oldID = robots.indexOf(rc);
+            if (oldID >= 0)
+                robots.setElementAt(null, oldID);
+            robots.addElement(rc);
+
+            return robots.size() - 1;
+        }
+    }
+
+    /**
+     * Get our robots, without the empty IDs left by {@link #newBotID(SOCRobotClient)}.
+     * @return  A copy of our robots list
+     */
+    private SOCRobotClient[] getRobots()
+    {
+        synchronized (robots)
+        {
+            final SOCRobotClient[] rcs = new SOCRobotClient[robotCount];
+            int i = 0;
+            for (final SOCRobotClient rc : robots)
+                if (rc != null)
+                    rcs[i++] = rc;
+
+            return rcs;
+        }
+    }
+
+    /**
+     * Connect to the server and start the robots, which authenticate and wait to be asked to join games.
+     * Returns after the first robot has authenticated or the wait has timed out;
+     * the others are started before returning.
+     * @throws IOException  if the connection can't be made
+     */
+    public void init()
+        throws IOException
+    {
+        connect();
+        startRobots();
+    }
+
+    /**
+     * Open the connection, send our version, and start the reader thread.
+     * @throws IOException  if the connection can't be made
+     */
+    private void connect()
+        throws IOException
+    {
+        synchronized (outLock)
+        {
+            if (strSocketName == null)
+            {
+                s = new Socket(host, port);
+                in = new DataInputStream(s.getInputStream());
+                out = new DataOutputStream(s.getOutputStream());
+            } else {
+                sLocal = StringServerSocket.connectTo(strSocketName);
+            }
+            synchronized (this)
+            {
+                anyAuthenticated = false;
+            }
+            connected = true;
+        }
+
+        putRaw(SOCVersion.toCmd(Version.versionNumber(), Version.version(), Version.buildnum(), null));
+
+        final Thread reader = new Thread(this, "robothost-netread-" + ((host != null) ? host + "-" + port : strSocketName));
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Start our robots, or restart them after reconnecting.
+     * Over TCP, waits for the first robot to authenticate before starting the others.
+     * Must not be called from the reader thread.
+     */
+    private void startRobots()
+    {
+        final SOCRobotClient[] rcs = getRobots();
+        for (int i = 0; i < rcs.length; ++i)
+        {
+            rcs[i].init();
+            if ((i == 0) && (sLocal == null))
+            {
+                final long until = System.currentTimeMillis() + FIRST_AUTH_WAIT_MS;
+                synchronized (this)
+                {
+                    long now;
+                    while (connected && ! anyAuthenticated && ((now = System.currentTimeMillis()) < until))
+                    {
+                        try
+                        {
+                            wait(until - now);
+                        }
+                        catch (InterruptedException e) {}
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Send a message from one of our robots, wrapped in {@link SOCBotMux}.
+     * <B>Threads:</B> Safe to call from any thread.
+     * @param botID  Robot's bot ID number
+     * @param cmd  Message text, or {@code null} to close the robot's sub-connection at the server
+     * @return true if the message was sent, false if not connected or there was an error
+     */
+    boolean put(final int botID, final String cmd)
+    {
+        return putRaw(SOCBotMux.toCmd(botID, cmd));
+    }
+
+    /**
+     * Write a message to the connection.
+     * If there's an error, closes the socket so the reader thread will reconnect.
+     * @param cmd  Message text
+     * @return true if the message was sent, false if not connected or there was an error
+     */
+    private boolean putRaw(final String cmd)
+    {
+        synchronized (outLock)
+        {
+            if (! connected)
+                return false;
+
+            try
+            {
+                if (sLocal == null)
+                {
+                    out.writeUTF(cmd);
+                    out.flush();
+                } else {
+                    sLocal.put(cmd);
+                }
+            }
+            catch (IOException e)
+            {
+                System.err.println("Robot host could not write to the net: " + e);
+                try
+                {
+                    s.close();
+                }
+                catch (IOException e2) {}
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reader thread: Read messages from the server and pass each {@link SOCBotMux}'s inner message
+     * to its robot. If the connection is lost, reconnect and restart the robots.
+     */
+    public void run()
+    {
+        try
+        {
+            while (connected)
+            {
+                final SOCMessage mes =
+                    (sLocal != null) ? sLocal.readNextMessage() : SOCMessage.toMsg(in.readUTF());
+                if (mes instanceof SOCBotMux)
+                    treatBotMux((SOCBotMux) mes);
+                else if (mes instanceof SOCRejectConnection)
+                    System.err.println("Robot host rejected by server: " + ((SOCRejectConnection) mes).getText());
+                // else: ignore the server's welcome messages to the host connection itself
+            }
+        }
+        catch (IOException e)
+        {
+            if (stopped)
+                return;
+
+            System.err.println("Robot host lost connection to server: " + e);
+            reconnect();
+        }
+    }
+
+    /**
+     * Pass a {@link SOCBotMux}'s inner message to its robot, or close the robot.
+     * Called from the reader thread.
+     * @param mux  Message from the server
+     */
+    private void treatBotMux(final SOCBotMux mux)
+    {
+        final int id = mux.getBotID();
+        final SOCRobotClient rc;
+        synchronized (robots)
+        {
+            if ((id < 0) || (id >= robots.size()))
+                return;
+            rc = robots.elementAt(id);
+        }
+        if (rc == null)
+            return;  // old ID of a robot which has reconnected
+
+        if (mux.isClose())
+        {
+            rc.muxClosed();
+            return;
+        }
+
+        final SOCMessage mes = mux.getMessage();
+        if (mes == null)
+            return;
+
+        if (mes.getType() == SOCMessage.UPDATEROBOTPARAMS)
+        {
+            synchronized (this)
+            {
+                anyAuthenticated = true;
+                notifyAll();
+            }
+        }
+
+        rc.treat(mes);
+    }
+
+    /**
+     * Try to reconnect after losing the connection, then restart the robots in another thread.
+     * If 3 attempts fail, the robots' games are ended as if each had failed to reconnect.
+     * Called from the reader thread.
+     */
+    private void reconnect()
+    {
+        connected = false;
+        if (sLocal != null)
+            sLocal.disconnect();
+        else
+            try
+            {
+                s.close();
+            }
+            catch (IOException e) {}
+
+        for (int attempt = 3; attempt > 0; --attempt)
+        {
+            try
+            {
+                connect();
+                new Thread("robothost-restart")
+                {
+                    public void run()
+                    {
+                        for (final SOCRobotClient rc : getRobots())
+                            rc.muxClosed();
+                        startRobots();
+                    }
+                }.start();
+
+                return;  // <--- Reconnected ---
+            }
+            catch (IOException e)
+            {
+                System.err.println("Robot host reconnect error: " + e);
+                try
+                {
+                    Thread.sleep(1000);
+                }
+                catch (InterruptedException ie) {}
+            }
+        }
+
+        for (final SOCRobotClient rc : getRobots())
+            rc.muxClosed();
+    }
+
+    /**
+     * Disconnect from the server and stop the robots. Doesn't reconnect.
+     */
+    public void disconnect()
+    {
+        stopped = true;
+        for (final SOCRobotClient rc : getRobots())
+            rc.muxClosed();
+
+        connected = false;
+        if (sLocal != null)
+            sLocal.disconnect();
+        else if (s != null)
+            try
+            {
+                s.close();
+            }
+            catch (IOException e) {}
+    }
+
+    /**
+     * Run a robot host as a stand-alone client.
+     * Robot nicknames are {@code namePrefix} followed by 1 through {@code count};
+     * the server gives "robot " names the smart strategy and "droid " names the fast strategy.
+     * @param args  host port cookie count [namePrefix]; default prefix is {@code "droid host "}
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 4)
+        {
+            System.err.println("Java Settlers robot host " + Version.version() + ", build " + Version.buildnum());
+            System.err.println("usage: java soc.robot.SOCRobotHost host port_number cookie count [namePrefix]");
+            return;
+        }
+
+        final int count;
+        try
+        {
+            count = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            System.err.println("count must be a number: " + args[3]);
+            return;
+        }
+        final String prefix = (args.length > 4) ? args[4] : "droid host ";
+
+        final SOCRobotHost rh = new SOCRobotHost(args[0], Integer.parseInt(args[1]), args[2]);
+        for (int i = 1; i <= count; ++i)
+            rh.addRobot(prefix + i, "pw");
+
+        try
+        {
+            rh.init();
+        } catch (IOException e) {
+            System.err.println("Could not connect to the server: " + e);
+            return;
+        }
+
+        // The reader thread is a daemon; keep running while it does
+        for (;;)
+        {
+            try
+            {
+                Thread.sleep(60000);
+            }
+            catch (InterruptedException e) {}
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+
+import soc.message.SOCAuthRequest;  // for javadocs only
+
+/**
+ * Short-lived, memory-only session tokens for users who have authenticated with a
+ * password from the optional user database. A client which briefly loses its connection
+ * can present its token with {@link SOCAuthRequest#SCHEME_SESSION_TOKEN} when it reconnects,
+ * instead of its password, so the server can skip the database lookup and {@code BCrypt} hashing.
+ *<P>
+ * Each token is bound to one username and is valid until its time-to-live expires
+ * or it's used once; a successful token authentication issues a replacement token.
+ * Tokens aren't persisted: A server restart discards them all, and clients then fall back
+ * to authenticating with their password.
+ *<P>
+ * <B>Threads:</B> All public methods are synchronized and safe to call from any thread.
+ *
+ * @see SOCServer#PROP_JSETTLERS_ACCOUNTS_SESSION__TTL
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCAuthTokenCache
+{
+    /**
+     * Default token time-to-live, in seconds (300; 5 minutes).
+     * @see SOCServer#PROP_JSETTLERS_ACCOUNTS_SESSION__TTL
+     */
+    public static final int TTL_SECONDS_DEFAULT = 300;
+
+    /**
+     * When the cache holds more than this many tokens, {@link #issue(String)} first
+     * prunes any expired ones. Tokens are otherwise pruned lazily when checked.
+     */
+    private static final int PRUNE_THRESHOLD = 256;
+
+    /** The 16 hex characters to use in {@link #generateToken()}. */
+    private static final char[] HEX
+        = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    /** Time-to-live of newly issued tokens, in milliseconds; 0 if this cache is disabled. */
+    private final long ttlMillis;
+
+    /** Key = token, value = its username and expiration time */
+    private final HashMap<String, Entry> tokens = new HashMap<String, Entry>();
+
+    /** Random source for {@link #generateToken()}. */
+    private final SecureRandom rand = new SecureRandom();
+
+    /**
+     * Create a new, empty token cache.
+     * @param ttlSeconds  Lifetime of issued tokens, in seconds; 0 or less disables the cache:
+     *     {@link #isEnabled()} will return false and {@link #issue(String)} will return {@code null}.
+     */
+    public SOCAuthTokenCache(final int ttlSeconds)
+    {
+        ttlMillis = (ttlSeconds > 0) ? (ttlSeconds * 1000L) : 0;
+    }
+
+    /**
+     * Is this cache enabled, with a time-to-live greater than 0?
+     * @return true if {@link #issue(String)} will issue tokens
+     */
+    public boolean isEnabled()
+    {
+        return (ttlMillis > 0);
+    }
+
+    /**
+     * Issue a new token for a user who has just authenticated.
+     * @param username  Username as found in the database; not {@code null}
+     * @return  the new token (a lowercase hex string), or {@code null} if this cache is disabled
+     */
+    public synchronized String issue(final String username)
+    {
+        if (ttlMillis == 0)
+            return null;
+
+        final long now = System.currentTimeMillis();
+        if (tokens.size() > PRUNE_THRESHOLD)
+            pruneExpired(now);
+
+        String tok;
+        do
+        {
+            tok = generateToken();
+        } while (tokens.containsKey(tok));
+
+        tokens.put(tok, new Entry(username, now + ttlMillis));
+        return tok;
+    }
+
+    /**
+     * Check and consume a token presented by a reconnecting client.
+     * If valid, the token is removed from the cache; call {@link #issue(String)} to give the client a new one.
+     * @param username  Username sent by the client; case-insensitive
+     * @param token  Token sent by the client
+     * @return  the username from the token's {@link #issue(String)} call if {@code token} is
+     *     current and was issued for {@code username}, otherwise {@code null}
+     */
+    public synchronized String consume(final String username, final String token)
+    {
+        if ((username == null) || (token == null))
+            return null;
+
+        final Entry e = tokens.get(token);
+        if (e == null)
+            return null;
+
+        if (e.expiresAt < System.currentTimeMillis())
+        {
+            tokens.remove(token);
+            return null;
+        }
+        if (! e.usernameLC.equals(username.toLowerCase(Locale.US)))
+            return null;  // leave it in place for its actual user
+
+        tokens.remove(token);
+        return e.username;
+    }
+
+    /**
+     * Remove all tokens issued for a user, for example after a password change.
+     * @param username  Username to remove; case-insensitive
+     */
+    public synchronized void revokeUser(final String username)
+    {
+        final String unameLC = username.toLowerCase(Locale.US);
+        Iterator<Entry> iter = tokens.values().iterator();
+        while (iter.hasNext())
+            if (iter.next().usernameLC.equals(unameLC))
+                iter.remove();
+    }
+
+    /**
+     * Get the number of tokens currently held, including any which have expired but not yet been pruned.
+     * @return  the token count
+     */
+    public synchronized int size()
+    {
+        return tokens.size();
+    }
+
+    /**
+     * Remove expired tokens. Caller must synchronize.
+     * @param now  Current time, from {@link System#currentTimeMillis()}
+     */
+    private void pruneExpired(final long now)
+    {
+        Iterator<Entry> iter = tokens.values().iterator();
+        while (iter.hasNext())
+            if (iter.next().expiresAt < now)
+                iter.remove();
+    }
+
+    /**
+     * Generate a random 32-character lowercase hex token string.
+     * Its format doesn't need to be compatible between versions.
+     */
+    private String generateToken()
+    {
+        byte[] rnd = new byte[16];
+        rand.nextBytes(rnd);
+        char[] rndChars = new char[2 * 16];
+        int ic = 0;  // index into rndChars
+        for (int i = 0; i < 16; ++i)
+        {
+            final int byt = rnd[i] & 0xFF;
+            rndChars[ic] = HEX[byt >>> 4];   ++ic;
+            rndChars[ic] = HEX[byt & 0x0F];  ++ic;
+        }
+
+        return new String(rndChars);
+    }
+
+    /**
+     * A token's username and expiration time.
+     */
+    private static final class Entry
+    {
+        /** Username as given to {@link SOCAuthTokenCache#issue(String)} */
+        public final String username;
+
+        /** {@link #username} in lowercase, for case-insensitive comparison */
+        public final String usernameLC;
+
+        /** Expiration time, same format as {@link System#currentTimeMillis()} */
+        public final long expiresAt;
+
+        public Entry(final String username, final long expiresAt)
+        {
+            this.username = username;
+            usernameLC = username.toLowerCase(Locale.US);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -159,6 +159,24 @@ public class SOCBoardAtServer extends SOCBoardLarge
             setAddedLayoutPart("VS", boardVS);
     }
 
+    /**
+     * Copy this board for a {@link SOCGame#fork()}ed game, including the {@link #drawItemFromStack()} items.
+     * @since 2.0.00
+     */
+    @Override
+    protected SOCBoard copyForFork(final boolean isSetupDone)
+        throws IllegalStateException
+    {
+        final SOCBoardAtServer b = (SOCBoardAtServer) super.copyForFork(isSetupDone);
+        if (drawStack != null)
+        {
+            b.drawStack = new Stack<Integer>();
+            b.drawStack.addAll(drawStack);
+        }
+
+        return b;
+    }
+
     // javadoc inherited from SOCBoardLarge.
     // If this scenario has dev cards or items waiting to be claimed by any player, draw the next item from that stack.
     public Integer drawItemFromStack()
@@ -754,7 +772,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
      *<P>
      * For the board layout geometry, see the {@link SOCBoardLarge} class javadoc's "Coordinate System" section.
      *<P>
-     * This method does not clear out {@link #hexLayoutLg} or {@link #numberLayoutLg}
+     * This method does not clear out {@code hexLayoutLg} or {@code numberLayoutLg}
      * before it starts placement.  You can call it multiple times to set up multiple
      * areas of land hexes: Call once for each land area.
      *<P>
@@ -763,22 +781,22 @@ public class SOCBoardAtServer extends SOCBoardLarge
      *<P>
      * This method clears {@link #cachedGetLandHexCoords} to <tt>null</tt>.
      *
-     * @param landHexType  Resource type to place into {@link #hexLayoutLg} for each land hex; will be shuffled.
+     * @param landHexType  Resource type to place into {@code hexLayoutLg} for each land hex; a copy will be shuffled.
      *                    Values are {@link #CLAY_HEX}, {@link #DESERT_HEX}, etc.
      *                    There should be no {@link #FOG_HEX} in here; land hexes are hidden by fog later.
-     * @param landPath  Coordinates within {@link #hexLayoutLg} (also within {@link #numberLayoutLg}) for each land hex;
+     * @param landPath  Coordinates within {@code hexLayoutLg} (also within {@code numberLayoutLg}) for each land hex;
      *                    same array length as <tt>landHexType[]</tt>
-     * @param number   Numbers to place into {@link #numberLayoutLg} for each land hex;
+     * @param number   Numbers to place into {@code numberLayoutLg} for each land hex;
      *                    array length is <tt>landHexType[].length</tt> minus 1 for each desert in <tt>landHexType[]</tt>.
      *                    If only some land hexes have dice numbers, <tt>number[]</tt> can be shorter; each
      *                    <tt>number[i]</tt> will be placed at <tt>landPath[i]</tt> until <tt>i >= number.length</tt>.
      *                    Can be <tt>null</tt> if none of these land hexes have dice numbers.
-     * @param shuffleDiceNumbers  If true, shuffle the dice <tt>number</tt>s before placing along <tt>landPath</tt>.
+     * @param shuffleDiceNumbers  If true, shuffle a copy of the dice <tt>number</tt>s before placing along <tt>landPath</tt>.
      *                 Also only if true, calls
      *                 {@link #makeNewBoard_placeHexes_moveFrequentNumbers(int[], ArrayList, int, String)}
      *                 to make sure 6s, 8s aren't adjacent and gold hexes aren't on 6 or 8.
      *                 <tt>number[]</tt> must not be <tt>null</tt>.
-     * @param shuffleLandHexes    If true, shuffle <tt>landHexType[]</tt> before placing along <tt>landPath</tt>.
+     * @param shuffleLandHexes    If true, shuffle a copy of <tt>landHexType[]</tt> before placing along <tt>landPath</tt>.
      * @param landAreaNumber  0 unless there will be more than 1 Land Area (group of islands).
      *                    If != 0, updates {@link #landAreasLegalNodes}<tt>[landAreaNumber]</tt>
      *                    with the same nodes added to {@link SOCBoard#nodesOnLand}.
@@ -824,7 +842,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
      *<P>
      * Called from {@link #makeNewBoard(Map)} at server only; client has its board layout sent from the server.
      *<P>
-     * This method does not clear out {@link #hexLayoutLg} or {@link #numberLayoutLg}
+     * This method does not clear out {@code hexLayoutLg} or {@code numberLayoutLg}
      * before it starts placement.  You can call it multiple times to set up multiple
      * areas of land hexes: Call once for each group of Land Areas which shares a landPath and landHexType.
      * For each land area, it updates {@link #landAreasLegalNodes}<tt>[landAreaNumber]</tt>
@@ -844,24 +862,24 @@ public class SOCBoardAtServer extends SOCBoardLarge
      *<P>
      * This method clears {@link #cachedGetLandHexCoords} to <tt>null</tt>.
      *
-     * @param landHexType  Resource type to place into {@link #hexLayoutLg} for each land hex; will be shuffled.
+     * @param landHexType  Resource type to place into {@code hexLayoutLg} for each land hex; a copy will be shuffled.
      *                    Values are {@link #CLAY_HEX}, {@link #DESERT_HEX}, etc.
      *                    There should be no {@link #FOG_HEX} in here; land hexes are hidden by fog later.
      *                    For the Fog Island (scenario option {@link SOCGameOption#K_SC_FOG _SC_FOG}),
      *                    one land area contains some water.  So, <tt>landHexType[]</tt> may contain {@link #WATER_HEX}.
-     * @param landPath  Coordinates within {@link #hexLayoutLg} (also within {@link #numberLayoutLg}) for each hex to place;
+     * @param landPath  Coordinates within {@code hexLayoutLg} (also within {@code numberLayoutLg}) for each hex to place;
      *                    same array length as {@code landHexType[]}.  May contain {@code WATER_HEX}.
      *                    <BR> {@code landAreaPathRanges[]} tells how to split this array of hex coordinates
      *                    into multiple Land Areas.
-     * @param number   Numbers to place into {@link #numberLayoutLg} for each land hex;
+     * @param number   Numbers to place into {@code numberLayoutLg} for each land hex;
      *                    array length is <tt>landHexType[].length</tt> minus 1 for each desert or water in <tt>landHexType[]</tt>
      *                    if every land hex has a dice number.
      *                    If only some land hexes have dice numbers, <tt>number[]</tt> can be shorter; each
      *                    <tt>number[i]</tt> will be placed at <tt>landPath[i]</tt> until <tt>i >= number.length</tt>.
      *                    Can be <tt>null</tt> if none of these land hexes have dice numbers.
-     * @param shuffleDiceNumbers  If true, shuffle the dice <tt>number</tt>s before placing along <tt>landPath</tt>.
+     * @param shuffleDiceNumbers  If true, shuffle a copy of the dice <tt>number</tt>s before placing along <tt>landPath</tt>.
      *                    <tt>number[]</tt> must not be <tt>null</tt>.
-     * @param shuffleLandHexes    If true, shuffle <tt>landHexType[]</tt> before placing along <tt>landPath</tt>.
+     * @param shuffleLandHexes    If true, shuffle a copy of <tt>landHexType[]</tt> before placing along <tt>landPath</tt>.
      * @param landAreaPathRanges  <tt>landPath[]</tt>'s Land Area Numbers, and the size of each land area.
      *                    Array length is 2 x the count of land areas included.
      *                    Index 0 is the first landAreaNumber, index 1 is the length of that land area (number of hexes).
@@ -933,6 +951,12 @@ public class SOCBoardAtServer extends SOCBoardLarge
                       + ": total range length " + L + " should be " + landPath.length);
         }
 
+        // copy the caller's arrays (usually static) before shuffling, so each seeded game starts from the same order
+        if (shuffleLandHexes)
+            landHexType = landHexType.clone();
+        if (shuffleDiceNumbers)
+            number = number.clone();
+
         // Shuffle, place, then check layout for clumps:
 
         cachedGetLandHexCoords = null;  // invalidate the previous cached set
@@ -989,19 +1013,19 @@ public class SOCBoardAtServer extends SOCBoardLarge
                 try
                 {
                     // place the land hexes
-                    hexLayoutLg[r][c] = landHexType[i];
+                    setHexLayoutLg(r, c, landHexType[i]);
 
                     // place the robber on the desert
                     if (landHexType[i] == DESERT_HEX)
                     {
                         if (hasRobber)
                             setRobberHex(landPath[i], false);
-                        numberLayoutLg[r][c] = -1;
+                        setNumberLayoutLg(r, c, -1);
                         // TODO do we want to not set robberHex? or a specific point?
                     }
                     else if (landHexType[i] == WATER_HEX)
                     {
-                        numberLayoutLg[r][c] = 0;  // Fog Island's landarea has some water shuffled in
+                        setNumberLayoutLg(r, c, 0);  // Fog Island's landarea has some water shuffled in
                     }
                     else if (landHexType[i] == FOG_HEX)
                     {
@@ -1011,7 +1035,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
                     {
                         // place the numbers
                         final int diceNum = number[cnt];
-                        numberLayoutLg[r][c] = diceNum;
+                        setNumberLayoutLg(r, c, diceNum);
                         cnt++;
 
                         if (shuffleDiceNumbers && ((diceNum == 6) || (diceNum == 8)))
@@ -1080,7 +1104,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
 
     /**
      * For {@link #makeNewBoard(Map)}, after placing
-     * land hexes and dice numbers into {@link #hexLayoutLg},
+     * land hexes and dice numbers into {@code hexLayoutLg},
      * fine-tune the randomized gold hex placement:
      *<UL>
      * <LI> Find and separate adjacent gold hexes.
@@ -1149,8 +1173,8 @@ public class SOCBoardAtServer extends SOCBoardLarge
                           gc = goldHex & 0xFF,
                           nr = nonGoldHex >> 8,
                           nc = nonGoldHex & 0xFF;
-                hexLayoutLg[gr][gc] = hexLayoutLg[nr][nc];
-                hexLayoutLg[nr][nc] = GOLD_HEX;
+                setHexLayoutLg(gr, gc, getHexLayoutLg(nr, nc));
+                setHexLayoutLg(nr, nc, GOLD_HEX);
             }
 
             // Will always return from method just past here, because goldAdjac.size is 1.
@@ -1299,10 +1323,10 @@ public class SOCBoardAtServer extends SOCBoardLarge
                 gc = goldHex & 0xFF,
                 nr = nonAdjHex >> 8,
                 nc = nonAdjHex & 0xFF;
-            if (hexLayoutLg[gr][gc] != GOLD_HEX)
+            if (getHexLayoutLg(gr, gc) != GOLD_HEX)
                 throw new IllegalArgumentException("goldHex coord not gold in hexLayoutLg: 0x" + Integer.toHexString(goldHex));
-            hexLayoutLg[gr][gc] = hexLayoutLg[nr][nc];  // gets nonAdjHex's land hex type
-            hexLayoutLg[nr][nc] = GOLD_HEX;
+            setHexLayoutLg(gr, gc, getHexLayoutLg(nr, nc));  // gets nonAdjHex's land hex type
+            setHexLayoutLg(nr, nc, GOLD_HEX);
         }
 
         // since it's gold now, remove nonAdjHex and its adjacents from nonAdjac:
@@ -1336,8 +1360,8 @@ public class SOCBoardAtServer extends SOCBoardLarge
 
     /**
      * For {@link #makeNewBoard(Map)}, after placing
-     * land hexes and dice numbers into {@link SOCBoardLarge#hexLayoutLg hexLayoutLg}
-     * and {@link SOCBoardLarge#numberLayoutLg numberLayoutLg},
+     * land hexes and dice numbers into {@code hexLayoutLg}
+     * and {@code numberLayoutLg},
      * separate adjacent "red numbers" (6s, 8s)
      * and make sure gold hex dice aren't too frequent.
      * For algorithm details, see comments in this method and
@@ -1380,6 +1404,22 @@ public class SOCBoardAtServer extends SOCBoardLarge
             {
                 for (int hex : frequentGold)
                 {
+                    // Is there any hex to swap with? Otherwise the random search below would never end.
+                    // Checks the same range of landPath as that search.
+                    boolean canSwap = false;
+                    for (int i = 0; i < landPath.length - 1; ++i)
+                    {
+                        final int h = landPath[i], dnum = getNumberOnHexFromCoord(h);
+                        if ((h != hex) && (dnum != 0) && ((dnum <= 4) || (dnum >= 10))
+                            && (getHexTypeFromCoord(h) != GOLD_HEX))
+                        {
+                            canSwap = true;
+                            break;
+                        }
+                    }
+                    if (! canSwap)
+                        continue;  // <--- Nothing to swap with: Leave as is ---
+
                     int swapHex, diceNum;
                     do {
                         swapHex = landPath[Math.abs(rand.nextInt() % (landPath.length - 1))];
@@ -1392,8 +1432,8 @@ public class SOCBoardAtServer extends SOCBoardLarge
                         hc = hex & 0xFF,
                         sr = swapHex >> 8,
                         sc = swapHex & 0xFF;
-                    numberLayoutLg[sr][sc] = numberLayoutLg[hr][hc];  // gets 6 or 8
-                    numberLayoutLg[hr][hc] = diceNum;  // gets 2, 3, 4, 10, 11, or 12
+                    setNumberLayoutLg(sr, sc, getNumberLayoutLg(hr, hc));  // gets 6 or 8
+                    setNumberLayoutLg(hr, hc, diceNum);  // gets 2, 3, 4, 10, 11, or 12
 
                     redHexes.remove(Integer.valueOf(hex));
                     redHexes.add(swapHex);
@@ -1476,6 +1516,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
         do
         {
             HashSet<Integer> otherCoastalHexes = null, otherHexes = null;
+            retry = false;
 
             // Loop through redHexes for 3 or more adjacents in a row
             //   but not in a clump (so, middle one has 2 adjacent reds that aren't next to each other)
@@ -1697,10 +1738,12 @@ public class SOCBoardAtServer extends SOCBoardLarge
                               cs = swap.b & 0xFF,
                               ro = swap.a >> 8,
                               co = swap.a & 0xFF,
-                              ntmp = numberLayoutLg[ro][co];
-                    numberLayoutLg[ro][co] = numberLayoutLg[rs][cs];
-                    numberLayoutLg[rs][cs] = ntmp;
+                              ntmp = getNumberLayoutLg(ro, co);
+                    setNumberLayoutLg(ro, co, getNumberLayoutLg(rs, cs));
+                    setNumberLayoutLg(rs, cs, ntmp);
                 }
+                if (swappedNums != null)
+                    swappedNums.clear();  // already undone; don't undo them again at the next retry
             }
 
         } while (retry);
@@ -1993,9 +2036,9 @@ public class SOCBoardAtServer extends SOCBoardLarge
                       cs = swaphex & 0xFF,
                       ro = ohex >> 8,
                       co = ohex & 0xFF;
-            swapNum = numberLayoutLg[rs][cs];
-            numberLayoutLg[rs][cs] = numberLayoutLg[ro][co];
-            numberLayoutLg[ro][co] = swapNum;
+            swapNum = getNumberLayoutLg(rs, cs);
+            setNumberLayoutLg(rs, cs, getNumberLayoutLg(ro, co));
+            setNumberLayoutLg(ro, co, swapNum);
         }
 
         // - If old location wasn't a red dice# hex, work is done
@@ -2308,7 +2351,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
 
     /**
      * For {@link #makeNewBoard(Map)}, hide these hexes under {@link #FOG_HEX} to be revealed later.
-     * The hexes will be stored in {@link #fogHiddenHexes}; their {@link #hexLayoutLg} and {@link #numberLayoutLg}
+     * The hexes will be stored in {@link #fogHiddenHexes}; their {@code hexLayoutLg} and {@code numberLayoutLg}
      * elements will be set to {@link #FOG_HEX} and -1.
      * Does not remove anything from {@link #nodesOnLand} or {@link #landAreasLegalNodes}.
      *<P>
@@ -2316,7 +2359,7 @@ public class SOCBoardAtServer extends SOCBoardLarge
      * before the board layout is made and sent to the client.
      *
      * @param hexCoords  Coordinates of each hex to hide in the fog
-     * @throws IllegalStateException  if any hexCoord is already {@link #FOG_HEX} within {@link #hexLayoutLg}
+     * @throws IllegalStateException  if any hexCoord is already {@link #FOG_HEX} within {@code hexLayoutLg}
      * @see #revealFogHiddenHexPrep(int)
      */
     protected void makeNewBoard_hideHexesInFog(final int[] hexCoords)
@@ -2327,13 +2370,15 @@ public class SOCBoardAtServer extends SOCBoardLarge
             final int hexCoord = hexCoords[i];
             final int r = hexCoord >> 8,
                       c = hexCoord & 0xFF;
-            final int hex = hexLayoutLg[r][c];
+            final int hex = getHexLayoutLg(r, c);
             if (hex == FOG_HEX)
                 throw new IllegalStateException("Already fog: 0x" + Integer.toHexString(hexCoord));
 
-            fogHiddenHexes.put(new Integer(hexCoord), (hex << 8) | (numberLayoutLg[r][c] & 0xFF));
-            hexLayoutLg[r][c] = FOG_HEX;
-            numberLayoutLg[r][c] = -1;
+            if (fogHiddenHexes == null)
+                fogHiddenHexes = new HashMap<Integer, Integer>();
+            fogHiddenHexes.put(new Integer(hexCoord), (hex << 8) | (getNumberLayoutLg(r, c) & 0xFF));
+            setHexLayoutLg(r, c, FOG_HEX);
+            setNumberLayoutLg(r, c, -1);
         }
     }
 
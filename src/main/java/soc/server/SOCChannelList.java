@@ -1,7 +1,7 @@
 /**
  * Java Settlers - An online multiplayer version of the game Settlers of Catan
  * Copyright (C) 2003  Robert S. Thomas <thomas@infolab.northwestern.edu>
- * Portions of this file Copyright (C) 2009-2010,2016-2017 Jeremy D Monin <jeremy@nand.net>
+ * Portions of this file Copyright (C) 2009-2010,2016-2018 Jeremy D Monin <jeremy@nand.net>
  * Portions of this file Copyright (C) 2012 Paul Bilnoski <paul@bilnoski.net>
  *
  * This program is free software; you can redistribute it and/or
@@ -30,16 +30,35 @@ import soc.util.MutexFlag;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * A class for tracking the chat channels.
  * The list itself, and each channel, has a monitor for synchronization.
+ *<P>
+ * Membership changes require the monitors. To send to all members without holding any monitor,
+ * use {@link #getMembersSnapshot(String)}: An immutable array which is replaced whenever
+ * the channel's membership changes.
+ *<P>
+ * Each channel also keeps a small ring buffer of its most recent chat messages
+ * (see {@link #addHistory(String, String)}), already encoded with {@code toCmd()},
+ * to replay to new members when they join.
  *
  * @author Robert S. Thomas
  */
 public class SOCChannelList
 {
+    /**
+     * Number of recent chat messages kept per channel to replay to new members.
+     * @see #addHistory(String, String)
+     * @since 2.0.00
+     */
+    public static final int CHANNEL_HISTORY_SIZE = 20;
+
+    /** Empty array returned by {@link #getMembersSnapshot(String)} for unknown channels. */
+    private static final Connection[] NO_MEMBERS = new Connection[0];
+
     /** key = string, value = Vector of MutexFlags */
     protected Hashtable<String, MutexFlag> channelMutexes;
 
@@ -52,6 +71,13 @@ public class SOCChannelList
      */
     protected Hashtable<String, String> channelOwners;
 
+    /**
+     * Each channel's member snapshot and recent-message history.
+     * Readable without the channel list's or any channel's monitor.
+     * @since 2.0.00
+     */
+    protected final ConcurrentHashMap<String, ChannelData> channelData;
+
     /** track the monitor for this channel list */
     protected boolean inUse;
 
@@ -63,6 +89,7 @@ public class SOCChannelList
         channelMutexes = new Hashtable<String, MutexFlag>();
         channelMembers = new Hashtable<String, Vector<Connection>>();
         channelOwners = new Hashtable<String, String>();
+        channelData = new ConcurrentHashMap<String, ChannelData>();
         inUse = false;
     }
 
@@ -212,6 +239,66 @@ public class SOCChannelList
         return result;
     }
 
+    /**
+     * Get an immutable snapshot of a channel's current members, for sending messages without
+     * holding the channel's monitor. The snapshot is replaced, not changed, when members join or leave.
+     * Don't modify the returned array.
+     *
+     * @param chName  channel name
+     * @return  the channel's members, or an empty array if {@code chName} isn't a channel
+     * @see #getMembers(String)
+     * @since 2.0.00
+     */
+    public Connection[] getMembersSnapshot(final String chName)
+    {
+        final ChannelData cd = channelData.get(chName);
+        return (cd != null) ? cd.members : NO_MEMBERS;
+    }
+
+    /**
+     * Add a chat message to this channel's history, to replay to new members.
+     * If the history is full, its oldest message is discarded.
+     * Does nothing if {@code chName} isn't a channel.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread; doesn't need the channel's monitor.
+     *
+     * @param chName  channel name
+     * @param mesCmd  message already encoded by {@code toCmd()}, such as a {@link soc.message.SOCChannelTextMsg}
+     * @see #getHistory(String)
+     * @since 2.0.00
+     */
+    public void addHistory(final String chName, final String mesCmd)
+    {
+        final ChannelData cd = channelData.get(chName);
+        if (cd != null)
+            cd.addHistory(mesCmd);
+    }
+
+    /**
+     * Get this channel's recent chat messages, oldest first, as given to {@link #addHistory(String, String)}.
+     *
+     * @param chName  channel name
+     * @return  the channel's recent encoded messages, or an empty array if none or if {@code chName} isn't a channel
+     * @since 2.0.00
+     */
+    public String[] getHistory(final String chName)
+    {
+        final ChannelData cd = channelData.get(chName);
+        return (cd != null) ? cd.getHistory() : new String[0];
+    }
+
+    /**
+     * Update {@code chName}'s member snapshot from its {@link #channelMembers} vector.
+     * Caller must synchronize on this list.
+     * @since 2.0.00
+     */
+    private void updateSnapshot(final String chName, final Vector<Connection> members)
+    {
+        final ChannelData cd = channelData.get(chName);
+        if (cd != null)
+            cd.members = members.toArray(new Connection[members.size()]);
+    }
+
     /**
      * @param  chName   the name of the channel
      * @param  conn     the member's connection
@@ -240,6 +327,7 @@ public class SOCChannelList
         if ((members != null) && (!members.contains(conn)))
         {
             members.addElement(conn);
+            updateSnapshot(chName, members);
         }
     }
 
@@ -255,7 +343,8 @@ public class SOCChannelList
 
         if ((members != null))
         {
-            members.removeElement(conn);
+            if (members.removeElement(conn))
+                updateSnapshot(chName, members);
         }
     }
 
@@ -271,11 +360,13 @@ public class SOCChannelList
         Enumeration<String> allCh = getChannels();
         while (allCh.hasMoreElements())
         {
-            Vector<Connection> members = channelMembers.get(allCh.nextElement());
+            final String chName = allCh.nextElement();
+            Vector<Connection> members = channelMembers.get(chName);
             if ((members != null) && members.contains(oldConn))
             {
                 members.remove(oldConn);
                 members.addElement(newConn);
+                updateSnapshot(chName, members);
             }
         }
     }
@@ -324,6 +415,7 @@ public class SOCChannelList
             channelMembers.put(chName, members);
 
             channelOwners.put(chName, chOwner);  // throws NullPointerException
+            channelData.put(chName, new ChannelData(CHANNEL_HISTORY_SIZE));
         }
     }
 
@@ -336,6 +428,7 @@ public class SOCChannelList
     {
         D.ebugPrintln("SOCChannelList : deleteChannel(" + chName + ")");
         channelMembers.remove(chName);
+        channelData.remove(chName);
 
         MutexFlag mutex = channelMutexes.get(chName);
         channelMutexes.remove(chName);
@@ -348,4 +441,60 @@ public class SOCChannelList
             }
         }
     }
+
+    /**
+     * A channel's member snapshot and ring buffer of recent messages.
+     * @since 2.0.00
+     */
+    private static final class ChannelData
+    {
+        /**
+         * Immutable snapshot of the channel's members; replaced, never modified,
+         * by {@link SOCChannelList#updateSnapshot(String, Vector)}.
+         */
+        volatile Connection[] members = NO_MEMBERS;
+
+        /** Recent messages ring buffer, or {@code null} if history size is 0. Synchronize on {@code this}. */
+        private final String[] history;
+
+        /** Index in {@link #history} of the next message to add */
+        private int histNext;
+
+        /** Number of messages currently in {@link #history} */
+        private int histCount;
+
+        ChannelData(final int historySize)
+        {
+            history = (historySize > 0) ? new String[historySize] : null;
+        }
+
+        synchronized void addHistory(final String mesCmd)
+        {
+            if (history == null)
+                return;
+
+            history[histNext] = mesCmd;
+            histNext = (histNext + 1) % history.length;
+            if (histCount < history.length)
+                ++histCount;
+        }
+
+        /** @return history contents, oldest first; never null */
+        synchronized String[] getHistory()
+        {
+            final String[] ret = new String[histCount];
+            if (histCount == 0)
+                return ret;
+
+            int i = (histNext - histCount + history.length) % history.length;
+            for (int j = 0; j < histCount; ++j)
+            {
+                ret[j] = history[i];
+                i = (i + 1) % history.length;
+            }
+
+            return ret;
+        }
+    }
+
 }
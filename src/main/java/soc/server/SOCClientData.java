@@ -18,13 +18,16 @@
  **/
 package soc.server;
 
+import java.util.Hashtable;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimerTask;
 
 import soc.message.SOCGameOptionGetInfos;  // for javadoc
 import soc.message.SOCMessage;  // for javadoc
+import soc.message.SOCRobotStats;
 import soc.server.genericServer.Connection;
+import soc.server.genericServer.MultiplexedConnection;
 import soc.util.SOCGameList;
 import soc.util.SOCStringManager;  // for javadoc
 
@@ -208,6 +211,29 @@ public class SOCClientData
      */
     public String robot3rdPartyBrainClass;
 
+    /**
+     * For robots, the most recent health and performance stats they've sent, or {@code null} if none yet.
+     * Requested by {@link SOCServerRobotPinger} and the {@code *BOTLIST*} debug command.
+     * @see #robotStatsMillis
+     * @since 2.0.00
+     */
+    public volatile SOCRobotStats robotStats;
+
+    /**
+     * When {@link #robotStats} was received, from {@link System#currentTimeMillis()}, or 0.
+     * @since 2.0.00
+     */
+    public volatile long robotStatsMillis;
+
+    /**
+     * For a robot host's connection, the {@link MultiplexedConnection}s of its robots, keyed by bot ID;
+     * {@code null} until its first {@link soc.message.SOCBotMux}.
+     * Created and added to in the {@link soc.server.genericServer.InboundMessageQueue} Treater thread.
+     * @see SOCServer#getMultiplexedConnection(Connection, soc.message.SOCBotMux)
+     * @since 2.0.00
+     */
+    public volatile Hashtable<Integer, MultiplexedConnection> muxConnections;
+
     /**
      * Are we considering a request to disconnect this client?
      * If so, the time we sent a ping (and awaiting a reply).
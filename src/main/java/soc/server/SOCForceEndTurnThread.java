@@ -110,6 +110,8 @@ class SOCForceEndTurnThread extends Thread
             System.err.println("  Can't print brain status; robot type is " + scd.robot3rdPartyBrainClass);
         }
 
+        if (srv.replayLog != null)
+            srv.replayLog.recordForceEndTurn(ga, plNum);
         hand.endGameTurnOrForce(ga, plNum, rname, rconn, false);
     }
 
@@ -0,0 +1,260 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCShip;
+
+/**
+ * Game fork benchmark: Measures how many {@link SOCGame#fork()}s per second can be made of a game
+ * which has finished initial placement, and how many {@link SOCGame#applyBuildMove(SOCPlayingPiece)}
+ * and {@link SOCGame#undoBuildMove(SOCPlayingPiece)} pairs per second, for the current player's
+ * possible roads and settlements. Measures classic 4-player and 6-player games, and 4-player games
+ * on the large sea board. Runs single-threaded.
+ *<P>
+ * Usage: {@code java soc.server.SOCGameForkBenchmark [seconds]},
+ * or with gradle: {@code gradle forkBench -PforkBenchArgs=seconds}, where {@code seconds}
+ * is how long to run each measurement (default 3).
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCGameForkBenchmark
+{
+    /** Default number of seconds to run each measurement */
+    private static final int DEFAULT_SECONDS = 3;
+
+    /** Game types to measure: Description and game options */
+    private static final String[][] GAME_TYPES =
+        {
+            { "4-player", "PL=4" },
+            { "6-player", "PL=6" },
+            { "sea board", "PL=4,SBL=t" }
+        };
+
+    /**
+     * Run the benchmark and print its results to {@link System#out}.
+     * @param args  Optional number of seconds to run each measurement
+     */
+    public static void main(final String[] args)
+    {
+        int sec = DEFAULT_SECONDS;
+        if (args.length > 0)
+        {
+            try
+            {
+                sec = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                sec = 0;
+            }
+            if (sec <= 0)
+            {
+                System.err.println("Usage: java soc.server.SOCGameForkBenchmark [seconds per measurement]");
+                System.exit(1);
+            }
+        }
+
+        final SOCGameHandler handler = new SOCGameHandler(null);
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final long durationMS = sec * 1000L;
+
+        // Warm up the JIT, so the first game type's numbers aren't lower than the rest
+        {
+            final SOCGame ga = createPlacedGame(gl, handler, "warmup", GAME_TYPES[2][1]);
+            measureForks(ga, durationMS / 3);
+            measureBuildMoves(ga, durationMS / 3);
+            gl.deleteGame(ga.getName());
+        }
+
+        for (final String[] gt : GAME_TYPES)
+        {
+            final SOCGame ga = createPlacedGame(gl, handler, gt[0].replace(' ', '_'), gt[1]);
+            final long forks = measureForks(ga, durationMS);
+            final long moves = measureBuildMoves(ga, durationMS);
+            System.out.println(gt[0] + ": " + forks + " forks/sec (" + (1000000000L / Math.max(1, forks))
+                + " ns each), " + moves + " build apply/undo pairs/sec");
+            gl.deleteGame(ga.getName());
+        }
+    }
+
+    /**
+     * Create and start a game, and make each player's initial placements at random legal locations.
+     * @param gl  Game list to create the game in
+     * @param handler  Game handler for the game's type
+     * @param gaName  Game name
+     * @param optsStr  Game options, in the format of {@link SOCGameOption#parseOptionsToMap(String)}
+     * @return  The game, in state {@link SOCGame#ROLL_OR_CARD}
+     * @throws IllegalStateException  if initial placement couldn't be completed
+     */
+    private static SOCGame createPlacedGame
+        (final SOCGameListAtServer gl, final SOCGameHandler handler, final String gaName, final String optsStr)
+        throws IllegalStateException
+    {
+        final Map<String, SOCGameOption> opts = SOCGameOption.parseOptionsToMap(optsStr);
+        SOCGameOption.adjustOptionsToKnown(opts, null, true);
+        gl.createGame(gaName, "bench", "en_US", opts, handler);
+        final SOCGame ga = gl.getGameData(gaName);
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame();
+
+        final Random rand = new Random(gaName.hashCode());
+        final SOCBoard board = ga.getBoard();
+        while (ga.getGameState() < SOCGame.ROLL_OR_CARD)
+        {
+            final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+            switch (ga.getGameState())
+            {
+            case SOCGame.START1A:
+            case SOCGame.START2A:
+            case SOCGame.START3A:
+                {
+                    final ArrayList<Integer> nodes = new ArrayList<Integer>();
+                    for (final Integer node : new TreeSet<Integer>(pl.getPotentialSettlements()))
+                        if (pl.canPlaceSettlement(node))
+                            nodes.add(node);
+                    if (nodes.isEmpty())
+                        throw new IllegalStateException("No initial settlement spot");
+
+                    ga.putPiece(new SOCSettlement(pl, nodes.get(rand.nextInt(nodes.size())), board));
+                }
+                break;
+
+            case SOCGame.START1B:
+            case SOCGame.START2B:
+            case SOCGame.START3B:
+                {
+                    SOCPlayingPiece pp = null;
+                    for (final int edge : board.getAdjacentEdgesToNode_arr(pl.getLastSettlementCoord()))
+                    {
+                        if (pl.isPotentialRoad(edge))
+                            pp = new SOCRoad(pl, edge, board);
+                        else if (ga.hasSeaBoard && pl.isPotentialShip(edge))
+                            pp = new SOCShip(pl, edge, board);
+                        if (pp != null)
+                            break;
+                    }
+                    if (pp == null)
+                        throw new IllegalStateException("No initial road spot");
+
+                    ga.putPiece(pp);
+                }
+                break;
+
+            case SOCGame.STARTS_WAITING_FOR_PICK_GOLD_RESOURCE:
+                for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                {
+                    final int n = ga.getPlayer(pn).getNeedToPickGoldHexResources();
+                    if (n > 0)
+                    {
+                        ga.pickGoldHexResources(pn, new SOCResourceSet(0, 0, 0, 0, n, 0));
+                        break;
+                    }
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("Unexpected game state " + ga.getGameState());
+            }
+        }
+
+        return ga;
+    }
+
+    /**
+     * Fork a game repeatedly for a while.
+     * @param ga  Game to fork
+     * @param durationMS  How long to run, in milliseconds
+     * @return  Forks per second
+     */
+    private static long measureForks(final SOCGame ga, final long durationMS)
+    {
+        long n = 0;
+        final long start = System.nanoTime(), end = start + durationMS * 1000000L;
+        long now;
+        do
+        {
+            for (int i = 0; i < 100; ++i)
+                ga.fork();
+            n += 100;
+            now = System.nanoTime();
+        } while (now < end);
+
+        return (n * 1000000000L) / (now - start);
+    }
+
+    /**
+     * In a fork of a game, apply and undo the current player's possible road and settlement builds
+     * repeatedly for a while. The player is given enough resources to build each piece.
+     * @param ga  Game to fork and build in
+     * @param durationMS  How long to run, in milliseconds
+     * @return  Apply/undo pairs per second
+     */
+    private static long measureBuildMoves(final SOCGame ga, final long durationMS)
+    {
+        final SOCGame fg = ga.fork();
+        final SOCBoard board = fg.getBoard();
+        final SOCPlayer pl = fg.getPlayer(fg.getCurrentPlayerNumber());
+        pl.getResources().add(new SOCResourceSet(5, 5, 5, 5, 5, 0));
+
+        final ArrayList<SOCPlayingPiece> moves = new ArrayList<SOCPlayingPiece>();
+        final TreeSet<Integer> edges = new TreeSet<Integer>();
+        for (final Integer node : pl.getRoadNodes())
+            for (final int edge : board.getAdjacentEdgesToNode_arr(node))
+                if ((edge != -9) && pl.isPotentialRoad(edge))
+                    edges.add(edge);
+        for (final Integer edge : edges)
+            moves.add(new SOCRoad(pl, edge, board));
+        for (final Integer node : new TreeSet<Integer>(pl.getPotentialSettlements()))
+            if (pl.canPlaceSettlement(node))
+                moves.add(new SOCSettlement(pl, node, board));
+        if (moves.isEmpty())
+            return 0;
+
+        long n = 0;
+        final long start = System.nanoTime(), end = start + durationMS * 1000000L;
+        long now;
+        do
+        {
+            for (final SOCPlayingPiece pp : moves)
+            {
+                fg.applyBuildMove(pp);
+                fg.undoBuildMove(pp);
+            }
+            n += moves.size();
+            now = System.nanoTime();
+        } while (now < end);
+
+        return (n * 1000000000L) / (now - start);
+    }
+
+}
@@ -585,6 +585,14 @@ public class SOCGameHandler extends GameHandler
             srv.messageToGameKeyed
                 (ga, true, "action.sbp.turn.to.place", ga.getPlayer(ga.getCurrentPlayerNumber()).getName());
                 // "Special building phase: {0}''s turn to place."
+
+        /**
+         * Turn boundary: queue a snapshot to be saved, and any replay log records to be written, in the background
+         */
+        if (srv.gameSnapshots != null)
+            srv.gameSnapshots.saveLater(ga);
+        if (srv.replayLog != null)
+            srv.replayLog.flush(gname);
     }
 
     /**
@@ -818,6 +826,11 @@ public class SOCGameHandler extends GameHandler
         String gameName = gameData.getName();
         final String cliName = c.getData();
 
+        // Most of the game's info is put directly to c, not through srv.messageToPlayer:
+        // Send any pending batched player elements first, to keep the message order.
+        // Nothing else is batched during joinGame, since it sends to the game only with messageToGame at the end.
+        srv.elementBatcher.flush();
+
         if (! isReset)
         {
             // First, send updated scenario info or localized strings if needed
@@ -1502,6 +1515,8 @@ public class SOCGameHandler extends GameHandler
     {
         final String gm = ga.getName();
         final String plName = c.getData();  // Retain name, since will become null within game obj.
+        if (srv.replayLog != null)
+            srv.replayLog.recordLeave(ga, plName);
 
         boolean gameHasHumanPlayer = false;
         boolean gameHasObserver = false;
@@ -1979,7 +1994,7 @@ public class SOCGameHandler extends GameHandler
             Connection con = srv.getConnection(ga.getPlayer(ga.getCurrentPlayerNumber()).getName());
             if (con != null)
             {
-                con.put(SOCChoosePlayerRequest.toCmd(gname, choices));
+                srv.messageToPlayer(con, new SOCChoosePlayerRequest(gname, choices));
             }
 
             break;
@@ -2538,7 +2553,11 @@ public class SOCGameHandler extends GameHandler
          */
 
         ga.setScenarioEventListener(this);  // for playerEvent, gameEvent callbacks (since 2.0.00)
+        if (srv.replayLog != null)
+            srv.replayLog.startGame(ga);  // seeds ga's random number generators
         ga.startGame();
+        if (srv.replayLog != null)
+            srv.replayLog.recordDevCards(ga);
 
         final int[][] legalSeaEdges;  // used on sea board; if null, all are legal
         if (ga.hasSeaBoard)
@@ -3629,7 +3648,7 @@ public class SOCGameHandler extends GameHandler
                 final Connection c = srv.getConnection(p.getName());
                 if (c != null)
                     for (int i = 0; i < L; ++i)
-                        c.put(((SOCMessage) pq.get(i)).toCmd());
+                        srv.messageToPlayer(c, (SOCMessage) pq.get(i));
 
                 pq.clear();
             }
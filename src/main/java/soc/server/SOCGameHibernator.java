@@ -0,0 +1,557 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCPlayer;
+import soc.game.SOCScenarioEventListener;
+import soc.message.SOCGames;
+import soc.message.SOCNewGame;
+import soc.message.SOCNewGameWithOptions;
+import soc.server.genericServer.Connection;
+
+/**
+ * Server-side hibernation of idle games, so the heap holds only active games.
+ * A hibernated game is written as a gzipped serialized {@link SOCGame} to its own file in the
+ * hibernation directory and removed from the game list's game data, leaving a stub:
+ * The game list still has the game's name, options, and members, and this class keeps
+ * a {@link Stub} with the few fields needed while it sleeps, such as its expiration time.
+ *<P>
+ * The server decides which games to hibernate and when to wake them; see
+ * {@link SOCServer#PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES}. This class only moves game data
+ * between the game list and disk: {@link #hibernate(SOCGame)}, {@link #wake(String, Runnable)}
+ * and {@link #finishWake(String, Map, List)}.
+ *<P>
+ * Files are compressed, written, read and deleted in this hibernator's own I/O thread, not the caller's:
+ * {@link #hibernate(SOCGame)} only serializes the game into memory, and the I/O thread writes it out
+ * and then drops it from the heap. {@link #wake(String, Runnable)} queues a read and returns;
+ * when the game has been read, the I/O thread calls the {@link WakeListener}, which should call
+ * {@link #finishWake(String, Map, List)} from the thread that handles the game's messages.
+ * Until then the game is still hibernated, so messages for it can wait for it to wake.
+ *<P>
+ * Files left from a previous run are deleted at startup, since their games' members are gone;
+ * games can be kept across restarts with {@link SOCServer#PROP_JSETTLERS_GAMES_SNAPSHOT__DIR} instead.
+ *<P>
+ * Statistics (current and total hibernated games, wakes, bytes on disk) are kept for {@code *STATS*};
+ * see {@link #getStatsText()}. The heap saved per hibernated game is measured by {@link SOCGameMemoryBenchmark}.
+ *<P>
+ * <B>Locks:</B> Methods synchronize on this object. They don't take any game list locks.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCGameHibernator
+{
+    /** Filename suffix for hibernated games: {@code ".hib.gz"} */
+    public static final String FILE_SUFFIX = ".hib.gz";
+
+    /** Directory holding the hibernated games' files */
+    private final File dir;
+
+    /** Server's game list */
+    private final SOCGameListAtServer gameList;
+
+    /** Scenario event listener to set in woken games, or {@code null} */
+    private final SOCScenarioEventListener scenarioListener;
+
+    /** Called from {@link #ioThreader} when a game has been read by {@link #wake(String, Runnable)} */
+    private final WakeListener wakeListener;
+
+    /** Single I/O thread; writes, reads and deletes are done in the order they're queued. */
+    private final ExecutorService ioThreader;
+
+    /** Stubs of the currently hibernated games; key = game name */
+    private final HashMap<String, Stub> stubs = new HashMap<String, Stub>();
+
+    /**
+     * Stubs of games being woken, whose reads haven't been finished by {@link #finishWake(String, Map, List)};
+     * key = game name. Unlike {@link #stubs}, not changed by {@link #discard(String)}.
+     */
+    private final HashMap<String, Stub> waking = new HashMap<String, Stub>();
+
+    /** Number of games hibernated since startup */
+    private int statHibernateCount;
+
+    /** Number of games woken since startup */
+    private int statWakeCount;
+
+    /**
+     * Create a hibernator for a directory, creating the directory if needed,
+     * and delete any hibernated games' files left there from a previous run.
+     * @param dir  Hibernation directory
+     * @param gameList  Server's game list
+     * @param scenarioListener  Scenario event listener to set in woken games, or {@code null}
+     * @param wakeListener  Called when a game being woken has been read; not null
+     * @throws IOException  if {@code dir} can't be created or isn't a writable directory
+     */
+    public SOCGameHibernator
+        (final File dir, final SOCGameListAtServer gameList, final SOCScenarioEventListener scenarioListener,
+         final WakeListener wakeListener)
+        throws IOException
+    {
+        if (! (dir.isDirectory() || dir.mkdirs()))
+            throw new IOException("Can't create game hibernation directory " + dir);
+        if (! dir.canWrite())
+            throw new IOException("Can't write to game hibernation directory " + dir);
+
+        this.dir = dir;
+        this.gameList = gameList;
+        this.scenarioListener = scenarioListener;
+        this.wakeListener = wakeListener;
+
+        ioThreader = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread th = new Thread(r, "gameHibernatorIO");
+                th.setDaemon(true);  // files aren't kept across restarts
+                return th;
+            }
+        });
+
+        final File[] files = dir.listFiles();
+        if (files != null)
+            for (final File f : files)
+                if (f.getName().endsWith(FILE_SUFFIX) && ! f.delete())
+                    System.err.println("* Can't delete old hibernated game " + f.getName());
+    }
+
+    /**
+     * Is this game hibernated?
+     * @param gaName  Game name
+     * @return  True if {@link #hibernate(SOCGame)} has stored it and it hasn't been woken or discarded.
+     *     Still true while a {@link #wake(String, Runnable)} is in progress.
+     */
+    public synchronized boolean isHibernated(final String gaName)
+    {
+        return stubs.containsKey(gaName);
+    }
+
+    /**
+     * Hibernate a game: Serialize it and remove its data from the game list, keeping its name, options
+     * and members there. The serialized game is compressed and written to disk by the I/O thread,
+     * which then drops it from memory.
+     * The caller should hold {@link SOCGameListAtServer#takeMonitorForGame(String)} and
+     * have already checked that the game is idle.
+     * @param ga  Game to hibernate; must be in the game list
+     * @return  True if hibernated, false if already hibernated or couldn't be serialized
+     */
+    public synchronized boolean hibernate(final SOCGame ga)
+    {
+        final String gaName = ga.getName();
+        if (stubs.containsKey(gaName) || (gameList.getGameData(gaName) != ga))
+            return false;
+
+        final byte[] serialized;
+        try
+        {
+            final ByteArrayOutputStream bout = new ByteArrayOutputStream(8192);
+            final ObjectOutputStream out = new ObjectOutputStream(bout);
+            out.writeObject(ga);
+            out.close();
+            serialized = bout.toByteArray();
+        }
+        catch (Throwable th)
+        {
+            System.err.println("* Can't hibernate game " + gaName + ": " + th);
+            return false;
+        }
+
+        final Stub st = new Stub(ga, serialized);
+        stubs.put(gaName, st);
+        gameList.removeGameDataForHibernate(gaName);
+        ++statHibernateCount;
+
+        ioThreader.execute(new Runnable()
+        {
+            public void run()
+            {
+                write(st);
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * In the I/O thread, write a hibernated game's file and then drop its serialized copy from memory.
+     * If it's been woken or discarded meanwhile, does nothing. If it can't be written,
+     * it's kept in memory until woken or discarded.
+     * @param st  Game's stub
+     */
+    private void write(final Stub st)
+    {
+        final byte[] serialized;
+        synchronized (this)
+        {
+            if (stubs.get(st.gaName) != st)
+                return;
+            serialized = st.serialized;
+        }
+
+        final File f = hibernateFile(st.gaName);
+        OutputStream out = null;
+        try
+        {
+            out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(f)));
+            out.write(serialized);
+            out.close();
+            out = null;
+        }
+        catch (IOException e)
+        {
+            System.err.println("* Can't write hibernated game " + st.gaName + ", keeping it in memory: " + e);
+            if (out != null)
+                try { out.close(); } catch (IOException e2) {}
+            f.delete();
+
+            return;
+        }
+
+        synchronized (this)
+        {
+            st.fileBytes = f.length();
+            st.serialized = null;
+        }
+    }
+
+    /**
+     * Start waking a hibernated game: Queue a read of its file (or its serialized copy, if not written yet)
+     * on the I/O thread, and return without waiting. When it's been read, the {@link WakeListener} is called,
+     * which should call {@link #finishWake(String, Map, List)} to put it back into the game list.
+     * If the game is already being woken, {@code then} is added to those waiting for it.
+     * The game stays hibernated until then.
+     *
+     * @param gaName  Game name
+     * @param then  Runnable to be returned by {@code finishWake} after the game is woken or couldn't be read,
+     *     or {@code null}
+     * @return  True if hibernated and the read is queued or in progress;
+     *     false if not hibernated, in which case {@code then} isn't kept
+     */
+    public synchronized boolean wake(final String gaName, final Runnable then)
+    {
+        final Stub st = stubs.get(gaName);
+        if (st == null)
+            return false;
+
+        if (st.waiters == null)
+        {
+            st.waiters = new ArrayList<Runnable>();
+            waking.put(gaName, st);
+            ioThreader.execute(new Runnable()
+            {
+                public void run()
+                {
+                    read(st);
+                }
+            });
+        }
+        if (then != null)
+            st.waiters.add(then);
+
+        return true;
+    }
+
+    /**
+     * In the I/O thread, read a hibernated game being woken, then call the {@link WakeListener}.
+     * @param st  Game's stub
+     */
+    private void read(final Stub st)
+    {
+        final byte[] serialized;
+        synchronized (this)
+        {
+            serialized = st.serialized;
+        }
+
+        InputStream in = null;
+        try
+        {
+            in = (serialized != null)
+                ? new ByteArrayInputStream(serialized)
+                : new GZIPInputStream(new BufferedInputStream(new FileInputStream(hibernateFile(st.gaName))));
+            final ObjectInputStream oin = new ObjectInputStream(in);
+            in = oin;
+            final SOCGame ga = (SOCGame) oin.readObject();
+            synchronized (this)
+            {
+                st.woken = ga;
+            }
+        }
+        catch (Exception e)
+        {
+            System.err.println("* Can't wake hibernated game " + st.gaName + ": " + e);
+        }
+        finally
+        {
+            if (in != null)
+                try { in.close(); } catch (IOException e) {}
+        }
+
+        wakeListener.gameRead(st.gaName);
+    }
+
+    /**
+     * Finish waking a game after the {@link WakeListener} is called: Put it back into the game list,
+     * and queue deletion of its file. The game's {@link SOCGame#lastActionTime} is set to now,
+     * and its scenario event listener is set. Should be called from the thread that handles the game's messages.
+     *<P>
+     * Since robots left the game when it hibernated, each seat held by a robot is made vacant
+     * before the game is put back. The caller should tell the game's members those robots have left,
+     * and ask robots to fill their seats.
+     *<P>
+     * If the game couldn't be read, it stays hibernated; a later {@link #wake(String, Runnable)} will try again.
+     * If it was discarded while being read, it isn't put back.
+     * Either way, the caller should run the {@code waiters}.
+     *
+     * @param gaName  Game name
+     * @param botSeats  Empty map to which the robots' seat numbers and names are added, or {@code null}
+     * @param waiters  Empty list to which the {@code then} runnables passed to {@code wake} are added
+     * @return  The woken game, or {@code null} if not being woken, couldn't be read, or was discarded
+     */
+    public synchronized SOCGame finishWake
+        (final String gaName, final Map<Integer, String> botSeats, final List<Runnable> waiters)
+    {
+        final Stub st = waking.remove(gaName);
+        if (st == null)
+            return null;
+
+        waiters.addAll(st.waiters);
+        st.waiters = null;
+        final SOCGame ga = st.woken;
+        st.woken = null;
+        if ((ga == null) || (stubs.get(gaName) != st))
+            return null;
+
+        ga.lastActionTime = System.currentTimeMillis();
+        ga.setScenarioEventListener(scenarioListener);
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            if (ga.isSeatVacant(pn))
+                continue;
+            final SOCPlayer pl = ga.getPlayer(pn);
+            if (! pl.isRobot())
+                continue;
+
+            final String botName = pl.getName();
+            ga.removePlayer(botName);
+            if (botSeats != null)
+                botSeats.put(Integer.valueOf(pn), botName);
+        }
+
+        stubs.remove(gaName);
+        gameList.addHibernatedGameData(ga);
+        deleteLater(gaName);
+        ++statWakeCount;
+
+        return ga;
+    }
+
+    /**
+     * Discard a hibernated game without waking it, because it's being destroyed.
+     * Queues deletion of its file. Doesn't change the game list.
+     * If it's being woken, {@link #finishWake(String, Map, List)} won't put it back.
+     * @param gaName  Game name
+     * @return  The game's stub, or {@code null} if not hibernated
+     */
+    public synchronized Stub discard(final String gaName)
+    {
+        final Stub st = stubs.remove(gaName);
+        if (st != null)
+            deleteLater(gaName);
+
+        return st;
+    }
+
+    /**
+     * Queue deletion of a game's file, if any, on the I/O thread.
+     * Since that thread also writes the files, this is done after any queued write of the same game.
+     * Caller must synchronize on this object.
+     * @param gaName  Game name
+     */
+    private void deleteLater(final String gaName)
+    {
+        final File f = hibernateFile(gaName);
+        ioThreader.execute(new Runnable()
+        {
+            public void run()
+            {
+                if (f.exists() && ! f.delete())
+                    System.err.println("* Can't delete hibernated game " + f.getName());
+            }
+        });
+    }
+
+    /**
+     * Wait for the I/O thread to finish the writes, reads and deletes queued so far.
+     * Useful for benchmarks and testing; the server doesn't need to wait.
+     * The {@link WakeListener} has been called for any reads, but it may not have finished waking them.
+     * @throws InterruptedException  if interrupted while waiting
+     */
+    public void waitForIO()
+        throws InterruptedException
+    {
+        try
+        {
+            ioThreader.submit(new Runnable()
+            {
+                public void run() {}
+            }).get();
+        } catch (ExecutionException e) {}
+    }
+
+    /**
+     * Get the stubs of all currently hibernated games, for checking their expiration.
+     * @return  A copy of the stub list; may be empty, never null
+     */
+    public synchronized List<Stub> getStubs()
+    {
+        return new ArrayList<Stub>(stubs.values());
+    }
+
+    /**
+     * Send the client a {@link SOCNewGameWithOptions} or {@link SOCNewGame} for each hibernated game,
+     * since they aren't in the game data used by {@link SOCServer#sendGameList(Connection, int)}.
+     * Called from there just after it sends the list of other games.
+     * @param c  Client connection; its version is known
+     */
+    public void sendGameList(final Connection c)
+    {
+        final int cliVers = c.getVersion();
+        for (final Stub st : getStubs())
+        {
+            final Map<String, SOCGameOption> opts = gameList.getGameOptions(st.gaName);
+            if (cliVers >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS)
+                c.put(SOCNewGameWithOptions.toCmd(st.gaName, opts, st.minVersion, cliVers));
+            else if (cliVers >= st.minVersion)
+                c.put(SOCNewGame.toCmd(st.gaName));
+            else if (cliVers >= SOCGames.VERSION_FOR_UNJOINABLE)
+                c.put(SOCNewGame.toCmd(SOCGames.MARKER_THIS_GAME_UNJOINABLE + st.gaName));
+        }
+    }
+
+    /**
+     * Get a one-line summary for {@code *STATS*}: Number of hibernated games and their total size on disk
+     * (not counting games not written yet), and games hibernated and woken since startup.
+     * @return  Statistics text, without a leading {@code "> "}
+     */
+    public synchronized String getStatsText()
+    {
+        long bytes = 0;
+        for (final Stub st : stubs.values())
+            bytes += st.fileBytes;
+
+        return "Hibernated games: " + stubs.size() + " (" + (bytes / 1024) + " KB on disk); since startup: "
+            + statHibernateCount + " hibernated, " + statWakeCount + " woken";
+    }
+
+    /**
+     * Get the file for a hibernated game: {@link SOCGameSnapshotStore#hexFileName(String)} plus {@link #FILE_SUFFIX}.
+     * @param gaName  Game name
+     * @return  File in the hibernation directory
+     */
+    private File hibernateFile(final String gaName)
+    {
+        return new File(dir, SOCGameSnapshotStore.hexFileName(gaName) + FILE_SUFFIX);
+    }
+
+    /**
+     * Callback for {@link SOCGameHibernator#wake(String, Runnable)}.
+     */
+    public interface WakeListener
+    {
+        /**
+         * A hibernated game being woken has been read from disk, or couldn't be read.
+         * Called from the hibernator's I/O thread; the listener should then call
+         * {@link SOCGameHibernator#finishWake(String, Map, List)} from the thread that handles the game's messages.
+         * @param gaName  Game name
+         */
+        void gameRead(String gaName);
+    }
+
+    /**
+     * The fields of a hibernated game which the server needs without waking it.
+     * Fields which aren't final are changed while synchronized on the hibernator.
+     */
+    public static final class Stub
+    {
+        /** Game name */
+        public final String gaName;
+
+        /** Game's owner, from {@link SOCGame#getOwner()}, or {@code null} */
+        public final String owner;
+
+        /** Game's state when hibernated, from {@link SOCGame#getGameState()} */
+        public final int gameState;
+
+        /** Game's minimum client version, from {@link SOCGame#getClientVersionMinRequired()} */
+        public final int minVersion;
+
+        /** Game's expiration time, from {@link SOCGame#getExpiration()} */
+        public final long expiration;
+
+        /** Size of the game's file, or 0 if not written yet */
+        long fileBytes;
+
+        /** The serialized game until the I/O thread has written it to disk, or {@code null} */
+        byte[] serialized;
+
+        /** Runnables waiting for {@link SOCGameHibernator#wake(String, Runnable)}, or {@code null} if not being woken */
+        List<Runnable> waiters;
+
+        /** The game read from disk by the I/O thread, until taken by {@link SOCGameHibernator#finishWake(String, Map, List)} */
+        SOCGame woken;
+
+        Stub(final SOCGame ga, final byte[] serialized)
+        {
+            gaName = ga.getName();
+            owner = ga.getOwner();
+            gameState = ga.getGameState();
+            minVersion = ga.getClientVersionMinRequired();
+            expiration = ga.getExpiration();
+            this.serialized = serialized;
+        }
+    }
+
+}
@@ -339,6 +339,67 @@ public class SOCGameListAtServer extends SOCGameList
         return game;
     }
 
+    /**
+     * Add a game restored from a snapshot at server startup, with no members;
+     * game will expire in {@link #GAME_TIME_EXPIRE_MINUTES} minutes.
+     * If a game with that name already exists (per {@link #isGame(String)}), do nothing.
+     *
+     * @param game  the restored game; its {@link SOCGame#isAtServer} should be set
+     * @param handler  Game type handler for this game
+     * @return true if added, false if a game with that name already existed
+     * @throws IllegalArgumentException  if {@code handler} is null
+     * @see #createGame(String, String, String, Map, GameHandler)
+     * @since 2.0.00
+     */
+    public synchronized boolean addRestoredGame(final SOCGame game, final GameHandler handler)
+        throws IllegalArgumentException
+    {
+        final String gaName = game.getName();
+        if (isGame(gaName))
+            return false;
+        if (handler == null)
+            throw new IllegalArgumentException("handler");
+
+        // As in createGame, make sure server games have SOCBoardAtServer
+        if ((SOCGame.boardFactory == null) || ! (SOCGame.boardFactory instanceof SOCBoardAtServer.BoardFactoryAtServer))
+            SOCGame.boardFactory = new SOCBoardAtServer.BoardFactoryAtServer();
+
+        gameMembers.put(gaName, new Vector<Connection>());
+        game.setExpiration(System.currentTimeMillis() + (60 * 1000 * GAME_TIME_EXPIRE_MINUTES));
+        gameInfo.put(gaName, new GameInfoAtServer(game.getGameOptions(), handler));
+        gameData.put(gaName, game);
+
+        return true;
+    }
+
+    /**
+     * Remove a game's data, which {@link SOCGameHibernator} has written to disk.
+     * The game's name, options, mutex, and members stay in the list, so {@link #isGame(String)}
+     * is still true, but {@link #getGameData(String)} returns {@code null} until
+     * {@link #addHibernatedGameData(SOCGame)} is called.
+     * @param gaName  Game name
+     * @since 2.0.00
+     */
+    synchronized void removeGameDataForHibernate(final String gaName)
+    {
+        gameData.remove(gaName);
+    }
+
+    /**
+     * Put back a game's data which {@link SOCGameHibernator} has read from disk.
+     * Its other info and members are still in the list from before {@link #removeGameDataForHibernate(String)}.
+     * @param game  Woken game; its {@link SOCGame#isAtServer} should be set
+     * @since 2.0.00
+     */
+    synchronized void addHibernatedGameData(final SOCGame game)
+    {
+        // As in createGame, make sure server games have SOCBoardAtServer
+        if ((SOCGame.boardFactory == null) || ! (SOCGame.boardFactory instanceof SOCBoardAtServer.BoardFactoryAtServer))
+            SOCGame.boardFactory = new SOCBoardAtServer.BoardFactoryAtServer();
+
+        gameData.put(game.getName(), game);
+    }
+
     /**
      * Reset the board of this game, create a new game of same name,
      * same players, new layout.  The new "reset" board takes the place
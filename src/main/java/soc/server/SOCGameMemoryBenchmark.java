@@ -0,0 +1,196 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+
+/**
+ * Heap-per-game benchmark: Creates many idle games at the server's game list, each with every seat taken
+ * and its board laid out, and reports the heap bytes used per game. Measures classic 4-player games,
+ * classic 6-player games, and 4-player games on the large sea board.
+ *<P>
+ * An idle game here is one that's been started but nobody has placed anything yet, as when waiting
+ * for players to make their first moves. Game data is measured at the server only; connections,
+ * robot brains, and client-side data aren't included.
+ *<P>
+ * Each type's games are then hibernated with {@link SOCGameHibernator} to a temporary directory,
+ * and the heap still used per game (its stub) and its size on disk are reported.
+ * The difference from the first measurement is the heap saved by hibernating an idle game;
+ * see {@link SOCServer#PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES}.
+ *<P>
+ * Usage: {@code java soc.server.SOCGameMemoryBenchmark [n]},
+ * or with gradle: {@code gradle heapBench -PheapBenchArgs=n}, where {@code n} is the number of games of each type to create (default 500).
+ * Run with a fixed heap size (such as {@code -Xms512m -Xmx512m}) for more repeatable results.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCGameMemoryBenchmark
+{
+    /** Default number of games of each type to create */
+    private static final int DEFAULT_COUNT = 500;
+
+    /** Game types to measure: Description and game options */
+    private static final String[][] GAME_TYPES =
+        {
+            { "4-player", "PL=4" },
+            { "6-player", "PL=6" },
+            { "sea board", "PL=4,SBL=t" }
+        };
+
+    /**
+     * Run the benchmark and print its results to {@link System#out}.
+     * @param args  Optional number of games of each type to create
+     */
+    public static void main(final String[] args)
+    {
+        int n = DEFAULT_COUNT;
+        if (args.length > 0)
+        {
+            try
+            {
+                n = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                n = 0;
+            }
+            if (n <= 0)
+            {
+                System.err.println("Usage: java soc.server.SOCGameMemoryBenchmark [number of games per type]");
+                System.exit(1);
+            }
+        }
+
+        final SOCGameHandler handler = new SOCGameHandler(null);
+        final File hibDir = new File(System.getProperty("java.io.tmpdir"), "jsettlers-heapbench");
+
+        // Warm up: load classes and known options/scenarios, so their memory isn't counted
+        measure(handler, hibDir, "warmup", GAME_TYPES[2][1], 5);
+
+        System.out.println("Heap per idle game, " + n + " games of each type:");
+        for (final String[] gt : GAME_TYPES)
+        {
+            final long[] bytes = measure(handler, hibDir, gt[0], gt[1], n);
+            System.out.println("  " + gt[0] + ": " + bytes[0] + " bytes per game");
+            if (bytes[1] >= 0)
+                System.out.println("    hibernated: " + bytes[1] + " bytes per game, saving "
+                    + (bytes[0] - bytes[1]) + "; " + bytes[2] + " bytes each on disk");
+        }
+        hibDir.delete();
+    }
+
+    /**
+     * Create {@code n} started games of one type, then measure the heap they use.
+     * Then hibernate them, and measure the heap used by their stubs.
+     * Deletes the games before returning.
+     * @param handler  Game handler for the games' type
+     * @param hibDir  Directory to hibernate games to; files are deleted afterwards
+     * @param desc  Game type description, for game names
+     * @param optsStr  Game options, in the format of {@link SOCGameOption#parseOptionsToMap(String)}
+     * @param n  Number of games to create
+     * @return  Heap bytes used per game; heap bytes used per hibernated game,
+     *     or -1 if {@code hibDir} can't be used; and average bytes per hibernated game on disk
+     */
+    private static long[] measure
+        (final SOCGameHandler handler, final File hibDir, final String desc, final String optsStr, final int n)
+    {
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final String namePrefix = desc.replace(' ', '_') + '~';
+
+        final long before = usedHeap();
+        for (int i = 0; i < n; ++i)
+        {
+            final Map<String, SOCGameOption> opts = SOCGameOption.parseOptionsToMap(optsStr);
+            SOCGameOption.adjustOptionsToKnown(opts, null, true);
+
+            final String gaName = namePrefix + i;
+            gl.createGame(gaName, "bench", "en_US", opts, handler);
+            final SOCGame ga = gl.getGameData(gaName);
+            for (int pn = 0; pn < ga.maxPlayers; ++pn)
+                ga.addPlayer("p" + pn, pn);
+            ga.startGame();  // SOCBoardAtServer.makeNewBoard is called here
+        }
+        final long after = usedHeap();
+
+        long afterHib = -1, diskBytes = 0;
+        SOCGameHibernator hib = null;
+        try
+        {
+            hib = new SOCGameHibernator(hibDir, gl, null, new SOCGameHibernator.WakeListener()
+            {
+                public void gameRead(String gaName) {}  // not waking any
+            });
+            for (int i = 0; i < n; ++i)
+                hib.hibernate(gl.getGameData(namePrefix + i));
+            hib.waitForIO();  // serialized games are dropped from the heap once written
+            afterHib = usedHeap();
+            for (final SOCGameHibernator.Stub st : hib.getStubs())
+                diskBytes += st.fileBytes;
+        } catch (IOException e) {
+            System.err.println("Can't hibernate: " + e.getMessage());
+        } catch (InterruptedException e) {}
+
+        for (int i = 0; i < n; ++i)
+        {
+            if (hib != null)
+                hib.discard(namePrefix + i);
+            gl.deleteGame(namePrefix + i);
+        }
+        if (hib != null)
+            try
+            {
+                hib.waitForIO();  // files are deleted before hibDir is
+            } catch (InterruptedException e) {}
+
+        return new long[]
+            { (after - before) / n, (afterHib >= 0) ? (afterHib - before) / n : -1, diskBytes / n };
+    }
+
+    /**
+     * Get the heap's used bytes, after garbage collection.
+     * Calls {@link System#gc()} until the used amount stops shrinking.
+     * @return  Heap bytes in use
+     */
+    private static long usedHeap()
+    {
+        final Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int tries = 0; tries < 10; ++tries)
+        {
+            System.gc();
+            try
+            {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {}
+
+            final long u = rt.totalMemory() - rt.freeMemory();
+            if (u >= used)
+                break;
+            used = u;
+        }
+
+        return used;
+    }
+
+}
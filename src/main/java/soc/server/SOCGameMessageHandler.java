@@ -385,6 +385,8 @@ public class SOCGameMessageHandler
                  * Roll dice, distribute resources in game
                  */
                 SOCGame.RollResult roll = ga.rollDice();
+                if (srv.replayLog != null)
+                    srv.replayLog.recordDice(ga, roll);
 
                 /**
                  * Send roll results and then text to client.
@@ -676,7 +678,7 @@ public class SOCGameMessageHandler
                                 // Request to discard half (round down)
                                 Connection con = srv.getConnection(pp.getName());
                                 if (con != null)
-                                    con.put(SOCDiscardRequest.toCmd(gn, pp.getResources().getTotal() / 2));
+                                    srv.messageToPlayer(con, new SOCDiscardRequest(gn, pp.getResources().getTotal() / 2));
                             }
                         }
                     }
@@ -694,9 +696,8 @@ public class SOCGameMessageHandler
                                 {
                                     srv.messageToGame(gn, new SOCPlayerElement
                                         (gn, pn, SOCPlayerElement.SET, SOCPlayerElement.NUM_PICK_GOLD_HEX_RESOURCES, numPick));
-                                    con.put
-                                        (SOCSimpleRequest.toCmd
-                                            (gn, pn, SOCSimpleRequest.PROMPT_PICK_RESOURCES, numPick, 0));
+                                    srv.messageToPlayer(con, new SOCSimpleRequest
+                                        (gn, pn, SOCSimpleRequest.PROMPT_PICK_RESOURCES, numPick, 0));
                                 }
                             }
                         }
@@ -1091,7 +1092,7 @@ public class SOCGameMessageHandler
                 final SOCShip adjac = ga.canAttackPirateFortress();
                 if ((! clientIsPN) || (pn != cpn) || (adjac == null) || (adjac.getPlayerNumber() != cpn))
                 {
-                    c.put(SOCSimpleRequest.toCmd(gaName, -1, reqtype, 0, 0));
+                    srv.messageToPlayer(c, new SOCSimpleRequest(gaName, -1, reqtype, 0, 0));
                     return;  // <--- early return: deny ---
                 }
 
@@ -1170,7 +1171,7 @@ public class SOCGameMessageHandler
         }
 
         if (replyDecline)
-            c.put(SOCSimpleRequest.toCmd(gaName, -1, reqtype, 0, 0));
+            srv.messageToPlayer(c, new SOCSimpleRequest(gaName, -1, reqtype, 0, 0));
     }
 
 
@@ -1399,7 +1400,7 @@ public class SOCGameMessageHandler
                     final int cpn = ga.getCurrentPlayerNumber();
                     final SOCPlayer cpl = ga.getPlayer(cpn);
                     if (cpl.isRobot())
-                        c.put(SOCSimpleAction.toCmd(gaName, cpn, SOCSimpleAction.TRADE_SUCCESSFUL, 0, 0));
+                        srv.messageToPlayer(c, new SOCSimpleAction(gaName, cpn, SOCSimpleAction.TRADE_SUCCESSFUL));
                 }
                 else
                 {
@@ -2596,7 +2597,7 @@ public class SOCGameMessageHandler
                                         // Request to discard half (round down)
                                         Connection con = srv.getConnection(pl.getName());
                                         if (con != null)
-                                            con.put(SOCDiscardRequest.toCmd(gaName, pl.getResources().getTotal() / 2));
+                                            srv.messageToPlayer(con, new SOCDiscardRequest(gaName, pl.getResources().getTotal() / 2));
                                     }
                                 }
                             }
@@ -3001,8 +3002,8 @@ public class SOCGameMessageHandler
         }
 
         if (sendDenyReply)
-            c.put(new SOCSetSpecialItem
-                (gaName, SOCSetSpecialItem.OP_DECLINE, typeKey, gi, pi, mes.playerNumber).toCmd());
+            srv.messageToPlayer(c, new SOCSetSpecialItem
+                (gaName, SOCSetSpecialItem.OP_DECLINE, typeKey, gi, pi, mes.playerNumber));
     }
 
 }
@@ -0,0 +1,500 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import soc.debug.D;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+
+/**
+ * Server-side persistence of active games, so they can continue after a server restart.
+ * Each game is written as a gzipped serialized {@link SOCGame} (which includes its board, players,
+ * inventories and special items) to its own file in the snapshot directory.
+ *<P>
+ * The server calls {@link #saveLater(SOCGame)} at each turn boundary. Saves are queued to a
+ * single background writer thread, so the dispatch thread never waits for serialization or disk I/O.
+ * If a game is queued several times before the writer gets to it, only its latest state is written once.
+ * The writer serializes the game while holding {@link SOCGame#takeMonitor()}, to get a consistent copy,
+ * then compresses and writes it without holding any lock. Each file is written to a temp file and then
+ * renamed, so a crash during writing leaves the previous snapshot in place.
+ *<P>
+ * At startup, {@link #loadAll()} reads the saved games. Because their players' connections are gone,
+ * each occupied seat is made vacant but remembered: {@link #isRestoredSeatFor(String, int, String)}
+ * lets the same player sit there again although the game has started, and
+ * {@link #takeRestoredRobotSeats(String)} lists the seats which robots should be asked to fill.
+ *<P>
+ * Snapshots are read only by the same JSettlers version which wrote them; a snapshot from another version
+ * fails to load with a message to {@link System#err}, and is skipped.
+ *<P>
+ * Write statistics (count, total bytes, total time) are kept for {@code *STATS*}; see {@link #getStatsText()}.
+ *
+ * @see SOCServer#PROP_JSETTLERS_GAMES_SNAPSHOT__DIR
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCGameSnapshotStore
+{
+    /** Filename suffix for game snapshots: {@code ".game.gz"} */
+    public static final String FILE_SUFFIX = ".game.gz";
+
+    /**
+     * Maximum time to wait in {@link #shutdown(Collection)} for queued saves to finish, in seconds.
+     */
+    private static final int SHUTDOWN_WAIT_SECONDS = 15;
+
+    /** Directory holding the snapshot files */
+    private final File dir;
+
+    /** Server's game list, to check whether a queued game is still current before writing it */
+    private final SOCGameListAtServer gameList;
+
+    /** Single writer thread; saves and deletes are done in the order they're queued. */
+    private final ExecutorService writerThreader;
+
+    /**
+     * Games waiting to be saved by the writer thread; key = game name.
+     * A game is added here by {@link #saveLater(SOCGame)} only if not already waiting,
+     * so a busy game is queued at most once.
+     */
+    private final ConcurrentHashMap<String, SOCGame> pendingSaves = new ConcurrentHashMap<String, SOCGame>();
+
+    /**
+     * Seat info for games restored by {@link #loadAll()}; key = game name.
+     * Entries are removed when the game is deleted.
+     */
+    private final ConcurrentHashMap<String, RestoredSeats> restoredSeats
+        = new ConcurrentHashMap<String, RestoredSeats>();
+
+    /** Set by {@link #shutdown(Collection)}; afterwards, saves and deletes are ignored. */
+    private volatile boolean isShutdown;
+
+    /** Number of snapshots written since startup. Updated only by the writer thread. */
+    private volatile int statWriteCount;
+
+    /** Total compressed size of all snapshots written since startup. Updated only by the writer thread. */
+    private volatile long statWriteBytes;
+
+    /**
+     * Total time spent serializing and writing snapshots since startup, in nanoseconds.
+     * Updated only by the writer thread.
+     */
+    private volatile long statWriteNanos;
+
+    /**
+     * Create a snapshot store for a directory, creating the directory if needed.
+     * @param dir  Snapshot directory
+     * @param gameList  Server's game list
+     * @throws IOException  if {@code dir} can't be created or isn't a writable directory
+     */
+    public SOCGameSnapshotStore(final File dir, final SOCGameListAtServer gameList)
+        throws IOException
+    {
+        if (! (dir.isDirectory() || dir.mkdirs()))
+            throw new IOException("Can't create game snapshot directory " + dir);
+        if (! dir.canWrite())
+            throw new IOException("Can't write to game snapshot directory " + dir);
+
+        this.dir = dir;
+        this.gameList = gameList;
+
+        writerThreader = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread th = new Thread(r, "gameSnapshotWriter");
+                th.setDaemon(true);  // shutdown() flushes the queue before a clean exit
+                return th;
+            }
+        });
+    }
+
+    /**
+     * Read all game snapshots from the directory. The caller should add each game to the server's game list
+     * and set its scenario event listener. Each game's occupied seats are made vacant and remembered
+     * for {@link #isRestoredSeatFor(String, int, String)} and {@link #takeRestoredRobotSeats(String)}.
+     *<P>
+     * Snapshots which can't be read are skipped, with a message to {@link System#err}.
+     * @return  the restored games; may be empty, but never null
+     */
+    public List<SOCGame> loadAll()
+    {
+        List<SOCGame> games = new ArrayList<SOCGame>();
+        File[] files = dir.listFiles();
+        if (files == null)
+            return games;
+
+        for (final File f : files)
+        {
+            if (! f.getName().endsWith(FILE_SUFFIX))
+                continue;
+
+            SOCGame ga = null;
+            ObjectInputStream in = null;
+            try
+            {
+                in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(f))));
+                ga = (SOCGame) in.readObject();
+            }
+            catch (Exception e)
+            {
+                System.err.println("* Can't load game snapshot " + f.getName() + ": " + e);
+            }
+            finally
+            {
+                if (in != null)
+                    try { in.close(); } catch (IOException e) {}
+            }
+
+            if (ga == null)
+                continue;
+
+            final String[] names = new String[ga.maxPlayers];
+            final boolean[] wasRobot = new boolean[ga.maxPlayers];
+            for (int pn = 0; pn < ga.maxPlayers; ++pn)
+            {
+                if (ga.isSeatVacant(pn))
+                    continue;
+
+                final SOCPlayer pl = ga.getPlayer(pn);
+                names[pn] = pl.getName();
+                wasRobot[pn] = pl.isRobot();
+                if (names[pn] != null)
+                    ga.removePlayer(names[pn]);
+            }
+
+            restoredSeats.put(ga.getName(), new RestoredSeats(names, wasRobot));
+            games.add(ga);
+        }
+
+        return games;
+    }
+
+    /**
+     * Queue a game to be saved soon by the writer thread. Returns immediately.
+     * Games which haven't started yet or are over aren't saved; their snapshot is deleted instead.
+     * @param ga  Game to save; not null
+     */
+    public void saveLater(final SOCGame ga)
+    {
+        if (isShutdown)
+            return;
+
+        if (null == pendingSaves.put(ga.getName(), ga))
+        {
+            final String gaName = ga.getName();
+            writerThreader.execute(new Runnable()
+            {
+                public void run()
+                {
+                    final SOCGame toSave = pendingSaves.remove(gaName);
+                    if (toSave != null)
+                        writeSnapshot(toSave);
+                }
+            });
+        }
+    }
+
+    /**
+     * Queue deletion of a game's snapshot, for example when the game is destroyed.
+     * Also discards any pending save and restored-seat info for that game. Returns immediately.
+     * @param gaName  Game name; not null
+     */
+    public void delete(final String gaName)
+    {
+        if (isShutdown)
+            return;
+
+        pendingSaves.remove(gaName);
+        restoredSeats.remove(gaName);
+        writerThreader.execute(new Runnable()
+        {
+            public void run()
+            {
+                deleteSnapshotFile(gaName);
+            }
+        });
+    }
+
+    /**
+     * Is this game a restored one, in which this seat was held by this player before the server restarted?
+     * If so, the player can sit there again even though the game has started.
+     * @param gaName  Game name
+     * @param pn  Player number
+     * @param plName  Player name wanting to sit; null is allowed but returns false
+     * @return  true if {@code plName} was seated at {@code pn} in restored game {@code gaName}
+     */
+    public boolean isRestoredSeatFor(final String gaName, final int pn, final String plName)
+    {
+        if (plName == null)
+            return false;
+
+        final RestoredSeats rs = restoredSeats.get(gaName);
+        return (rs != null) && (pn >= 0) && (pn < rs.names.length) && plName.equals(rs.names[pn]);
+    }
+
+    /**
+     * Get and clear the seat numbers which robots held in a restored game, so the server can ask robots
+     * to rejoin them. Later calls for the same game return {@code null}.
+     * @param gaName  Game name
+     * @return  Seat numbers which were robots before the restart, or {@code null} if none
+     *     or if not a restored game
+     */
+    public int[] takeRestoredRobotSeats(final String gaName)
+    {
+        final RestoredSeats rs = restoredSeats.get(gaName);
+        if (rs == null)
+            return null;
+
+        synchronized (rs)
+        {
+            if (rs.askedRobots)
+                return null;
+            rs.askedRobots = true;
+
+            int n = 0;
+            for (int pn = 0; pn < rs.wasRobot.length; ++pn)
+                if (rs.wasRobot[pn])
+                    ++n;
+            if (n == 0)
+                return null;
+
+            final int[] seats = new int[n];
+            n = 0;
+            for (int pn = 0; pn < rs.wasRobot.length; ++pn)
+                if (rs.wasRobot[pn])
+                {
+                    seats[n] = pn;
+                    ++n;
+                }
+
+            return seats;
+        }
+    }
+
+    /**
+     * Save these games and shut down the writer thread, waiting up to {@link #SHUTDOWN_WAIT_SECONDS}
+     * for all queued saves and deletes to finish. Afterwards, {@link #saveLater(SOCGame)} and
+     * {@link #delete(String)} do nothing, so games destroyed while the server is stopping keep their snapshots.
+     * @param games  Games to save before shutdown, or null
+     */
+    public void shutdown(final Collection<SOCGame> games)
+    {
+        if (isShutdown)
+            return;
+
+        if (games != null)
+            for (SOCGame ga : games)
+                saveLater(ga);
+
+        isShutdown = true;
+        writerThreader.shutdown();
+        try
+        {
+            if (! writerThreader.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS))
+                System.err.println("* Game snapshots: Timed out waiting to finish writing");
+        }
+        catch (InterruptedException e) {}
+    }
+
+    /**
+     * Get a one-line summary of write statistics since startup, for {@code *STATS*}:
+     * Number of snapshots written, average compressed size, and write throughput.
+     * @return  Statistics text, without a leading {@code "> "}
+     */
+    public String getStatsText()
+    {
+        final int n = statWriteCount;
+        final long bytes = statWriteBytes, nanos = statWriteNanos;
+
+        StringBuilder sb = new StringBuilder("Game snapshots written: ");
+        sb.append(n);
+        if (n > 0)
+        {
+            sb.append(", avg ").append(bytes / n).append(" bytes, avg ")
+              .append((nanos / n) / 1000).append(" us each");
+            if (nanos > 0)
+                sb.append(", ").append((bytes * 1000000000L / nanos) / 1024).append(" KB/sec");
+        }
+        sb.append("; queued: ").append(pendingSaves.size());
+
+        return sb.toString();
+    }
+
+    /**
+     * Serialize and write one game's snapshot. Runs only in the writer thread.
+     * If the game is no longer in the game list, does nothing.
+     * If the game hasn't started or is over, deletes its snapshot instead.
+     * @param ga  Game to save
+     */
+    private void writeSnapshot(final SOCGame ga)
+    {
+        final String gaName = ga.getName();
+        if (gameList.getGameData(gaName) != ga)
+            return;  // <--- Early return: destroyed or reset ---
+
+        final int gstate = ga.getGameState();
+        if ((gstate < SOCGame.START1A) || (gstate >= SOCGame.OVER))
+        {
+            deleteSnapshotFile(gaName);
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * 1024);
+        ga.takeMonitor();
+        try
+        {
+            ObjectOutputStream oos = new ObjectOutputStream(bytes);
+            oos.writeObject(ga);
+            oos.close();
+        }
+        catch (Throwable th)
+        {
+            D.ebugPrintStackTrace(th, "Can't serialize game snapshot for " + gaName);
+            return;
+        }
+        finally
+        {
+            ga.releaseMonitor();
+        }
+
+        final File f = snapshotFile(gaName), tmp = new File(dir, f.getName() + ".tmp");
+
+        OutputStream out = null;
+        try
+        {
+            out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            bytes.writeTo(out);
+            out.close();
+            out = null;
+
+            if (f.exists() && ! f.delete())
+                throw new IOException("can't replace " + f.getName());
+            if (! tmp.renameTo(f))
+                throw new IOException("can't rename " + tmp.getName());
+
+            statWriteBytes += f.length();
+            statWriteNanos += (System.nanoTime() - startNanos);
+            ++statWriteCount;
+        }
+        catch (IOException e)
+        {
+            System.err.println("* Can't write game snapshot for " + gaName + ": " + e);
+        }
+        finally
+        {
+            if (out != null)
+                try { out.close(); } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Delete a game's snapshot file, if it exists. Runs only in the writer thread.
+     * @param gaName  Game name
+     */
+    private void deleteSnapshotFile(final String gaName)
+    {
+        final File f = snapshotFile(gaName);
+        if (f.exists() && ! f.delete())
+            System.err.println("* Can't delete game snapshot " + f.getName());
+    }
+
+    /**
+     * Get the snapshot file for a game: {@link #hexFileName(String)} plus {@link #FILE_SUFFIX}.
+     * @param gaName  Game name
+     * @return  File in the snapshot directory
+     */
+    private File snapshotFile(final String gaName)
+    {
+        return new File(dir, hexFileName(gaName) + FILE_SUFFIX);
+    }
+
+    /**
+     * Encode a game name for use in a filename. Since game names can contain characters which aren't
+     * valid in filenames, this is the game name's UTF-8 bytes in lowercase hex.
+     * @param gaName  Game name
+     * @return  Hex-encoded name, without any suffix
+     * @see SOCReplayLog
+     */
+    static String hexFileName(final String gaName)
+    {
+        byte[] nameBytes;
+        try
+        {
+            nameBytes = gaName.getBytes("UTF-8");
+        } catch (java.io.UnsupportedEncodingException e) {
+            nameBytes = gaName.getBytes();  // should not occur: UTF-8 is always supported
+        }
+
+        StringBuilder sb = new StringBuilder(2 * nameBytes.length);
+        for (int i = 0; i < nameBytes.length; ++i)
+        {
+            final int b = nameBytes[i] & 0xFF;
+            if (b < 0x10)
+                sb.append('0');
+            sb.append(Integer.toHexString(b));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * The seats of a game restored by {@link SOCGameSnapshotStore#loadAll()}.
+     */
+    private static final class RestoredSeats
+    {
+        /** Player names by seat number from the snapshot; null for vacant seats */
+        public final String[] names;
+
+        /** Which seats were held by robots in the snapshot */
+        public final boolean[] wasRobot;
+
+        /** Has {@link SOCGameSnapshotStore#takeRestoredRobotSeats(String)} been called yet? */
+        public boolean askedRobots;
+
+        public RestoredSeats(final String[] names, final boolean[] wasRobot)
+        {
+            this.names = names;
+            this.wasRobot = wasRobot;
+        }
+    }
+
+}
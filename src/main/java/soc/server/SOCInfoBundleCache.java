@@ -0,0 +1,205 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soc.game.SOCGameOption;
+import soc.game.SOCScenario;
+import soc.message.SOCGameOptionGetInfos;  // for javadocs only
+import soc.message.SOCScenarioInfo;  // for javadocs only
+import soc.server.genericServer.Connection;
+import soc.util.Version;
+
+/**
+ * Server's cache of complete, encoded responses ("bundles") to the game option and scenario info requests
+ * which every client sends when it connects: {@link SOCGameOptionGetInfos} asking for all changed options,
+ * and {@link SOCScenarioInfo} with {@link SOCScenarioInfo#MARKER_ANY_CHANGED}.
+ * The response depends only on the client's version and locale, so it's built once for each
+ * (version, locale) and then sent to each client as-is, one {@link Connection#put(String)} per message.
+ *<P>
+ * Client versions at or above the server's get the same responses, so they share one bundle;
+ * see {@link #key(char, int, String)}.
+ *<P>
+ * Bundles are dropped when the known game options or scenarios change: See
+ * {@link SOCGameOption#getKnownOptionsGeneration()} and {@link SOCScenario#getKnownScenariosGeneration()}.
+ *<P>
+ * All methods are thread-safe.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCInfoBundleCache
+{
+    /** Bundle type for game option info, for {@link #key(char, int, String)} */
+    public static final char TYPE_GAMEOPT = 'O';
+
+    /** Bundle type for scenario info, for {@link #key(char, int, String)} */
+    public static final char TYPE_SCENARIO = 'S';
+
+    /**
+     * Maximum number of bundles to keep. Older client versions each need their own bundle,
+     * and a client can claim any version number; when the cache is full, new bundles aren't kept.
+     */
+    private static final int MAX_BUNDLES = 100;
+
+    /** Key = {@link #key(char, int, String)}, value = bundle */
+    private final HashMap<String, Bundle> bundles = new HashMap<String, Bundle>();
+
+    /**
+     * Get the key for a bundle.
+     * @param type  {@link #TYPE_GAMEOPT} or {@link #TYPE_SCENARIO}
+     * @param cliVers  Client's version; versions newer than the server's are treated as the server's
+     * @param loc  Client's locale from {@link Connection#getI18NLocale()},
+     *     or {@code null} if not sending it localized strings
+     * @return  The key
+     */
+    public static String key(final char type, final int cliVers, final String loc)
+    {
+        return type + Integer.toString(Math.min(cliVers, Version.versionNumber()))
+            + ((loc != null) ? ':' + loc : "");
+    }
+
+    /**
+     * Get the current generation of the info that bundles are built from.
+     * Call this before building a bundle, and pass it to the {@link Bundle} constructor.
+     * @return  Generation combining known options' and known scenarios'
+     */
+    public static long currentGeneration()
+    {
+        return (((long) SOCGameOption.getKnownOptionsGeneration()) << 32)
+            | (SOCScenario.getKnownScenariosGeneration() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get a bundle if cached and not out of date.
+     * If any bundles are out of date, clears the cache.
+     * @param key  Key from {@link #key(char, int, String)}
+     * @return  The bundle, or {@code null} if none
+     */
+    public synchronized Bundle get(final String key)
+    {
+        final Bundle b = bundles.get(key);
+        if (b == null)
+            return null;
+
+        if (b.generation != currentGeneration())
+        {
+            bundles.clear();
+            return null;
+        }
+
+        return b;
+    }
+
+    /**
+     * Add a bundle to the cache, unless the cache is full.
+     * @param key  Key from {@link #key(char, int, String)}
+     * @param b  Bundle to add
+     */
+    public synchronized void put(final String key, final Bundle b)
+    {
+        if ((bundles.size() < MAX_BUNDLES) || bundles.containsKey(key))
+            bundles.put(key, b);
+    }
+
+    /**
+     * An immutable response to send to each client with the same version and locale:
+     * Encoded messages, and for scenario info, the client tracking data
+     * which building the response had set in {@link SOCClientData}.
+     */
+    public static final class Bundle
+    {
+        /** Generation of known options and scenarios when this bundle was built */
+        private final long generation;
+
+        /** Encoded messages to send, in order */
+        private final String[] cmds;
+
+        /**
+         * For scenario info, {@link SOCClientData} tracking field values after building the response:
+         * {@link SOCClientData#checkedLocaleScenStrings}, {@link SOCClientData#localeHasScenStrings},
+         * and a copy of {@link SOCClientData#scenariosInfoSent} or {@code null}.
+         */
+        private final boolean checkedLocaleScenStrings, localeHasScenStrings;
+        private final Map<String, String> scenariosInfoSent;
+
+        /**
+         * Bundle for game option info.
+         * @param gen  {@link SOCInfoBundleCache#currentGeneration()} from before the response was built
+         * @param cmds  Encoded messages to send, in order; not kept, contents are copied
+         */
+        public Bundle(final long gen, final List<String> cmds)
+        {
+            this(gen, cmds, null);
+        }
+
+        /**
+         * Bundle for scenario info, to also update client data like the response did.
+         * @param gen  {@link SOCInfoBundleCache#currentGeneration()} from before the response was built
+         * @param cmds  Encoded messages to send, in order; not kept, contents are copied
+         * @param scd  Client data after building the response, or {@code null} for game option info
+         */
+        public Bundle(final long gen, final List<String> cmds, final SOCClientData scd)
+        {
+            generation = gen;
+            this.cmds = cmds.toArray(new String[cmds.size()]);
+            if (scd != null)
+            {
+                checkedLocaleScenStrings = scd.checkedLocaleScenStrings;
+                localeHasScenStrings = scd.localeHasScenStrings;
+                scenariosInfoSent = (scd.scenariosInfoSent != null)
+                    ? new HashMap<String, String>(scd.scenariosInfoSent)
+                    : null;
+            } else {
+                checkedLocaleScenStrings = false;
+                localeHasScenStrings = false;
+                scenariosInfoSent = null;
+            }
+        }
+
+        /**
+         * Send this bundle's messages to a client.
+         * @param c  Client to send to
+         */
+        public void send(final Connection c)
+        {
+            for (final String cmd : cmds)
+                c.put(cmd);
+        }
+
+        /**
+         * For a scenario info bundle, set the client's tracking fields to what building the response had set.
+         * Doesn't set {@link SOCClientData#sentAllScenarioInfo} or {@link SOCClientData#sentAllScenarioStrings};
+         * caller does that afterwards.
+         * @param scd  Client data to update
+         */
+        public void updateClientData(final SOCClientData scd)
+        {
+            scd.checkedLocaleScenStrings = checkedLocaleScenStrings;
+            scd.localeHasScenStrings = localeHasScenStrings;
+            if (scenariosInfoSent != null)
+                scd.scenariosInfoSent = new HashMap<String, String>(scenariosInfoSent);
+        }
+    }
+
+}
@@ -0,0 +1,981 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import soc.debug.D;
+import soc.game.SOCGameOption;
+import soc.game.SOCVersionedItem;
+import soc.message.SOCDeleteGame;
+import soc.message.SOCGames;
+import soc.message.SOCGamesWithOptions;
+import soc.message.SOCJoinGame;
+import soc.message.SOCLobbyAuth;
+import soc.message.SOCMessage;
+import soc.message.SOCNewGame;
+import soc.message.SOCNewGameWithOptions;
+import soc.message.SOCNewGameWithOptionsRequest;
+import soc.message.SOCRejectConnection;
+import soc.message.SOCStatusMessage;
+import soc.message.SOCVersion;
+import soc.server.genericServer.Connection;
+import soc.util.SOCGameList;
+import soc.util.Version;
+
+/**
+ * A lobby server's links to its game servers, and proxies for its clients' games hosted there.
+ * Used when the server has {@link SOCServer#PROP_JSETTLERS_CLUSTER_GAMESERVERS}, so that games
+ * are spread across several server processes while clients connect only to the lobby.
+ * The lobby owns user accounts, channels and the game list; each game server
+ * is a normal {@link SOCServer} with {@link SOCServer#PROP_JSETTLERS_CLUSTER_SECRET}
+ * and its own robots.
+ *<P>
+ * All traffic uses the usual {@link SOCMessage} types:
+ *<UL>
+ * <LI> <b>Link:</b> The lobby connects to each game server like a client,
+ *      sending {@link SOCVersion} and then {@link SOCLobbyAuth} without a nickname.
+ *      The game server then sends its game list ({@link SOCGamesWithOptions}) and announces
+ *      new and deleted games ({@link SOCNewGameWithOptions}, {@link SOCDeleteGame}) to the link,
+ *      as it does to any client. The lobby adds those games to the list it sends its own clients.
+ *      If a link fails or is lost, its games are removed from the list and the link is retried
+ *      every {@link #RECONNECT_SECONDS} seconds.
+ * <LI> <b>Proxies:</b> When a client joins or creates a game hosted by a game server,
+ *      {@link #routeJoinGame(Connection, String, Map)} connects to that game server for the client
+ *      (or reuses the client's proxy there): {@link SOCVersion} with the client's version and locale,
+ *      {@link SOCLobbyAuth} with the client's nickname, then the join request.
+ *      The game server's messages to the proxy are passed to the client unchanged, except its
+ *      version, channel and game list messages, which the client gets from the lobby,
+ *      and {@link soc.message.SOCServerPing}, which the proxy answers itself.
+ *      The client's messages for that game are sent to the proxy by
+ *      {@link #forwardGameMessage(String, SOCMessage, Connection)}.
+ *      A new proxy connects in its own thread, not the lobby's message treater thread;
+ *      messages sent to it before then are queued.
+ *</UL>
+ * A new game is assigned to the game server with the fewest games, then the fewest proxied clients.
+ * If no game server is linked, the lobby hosts the game itself.
+ * Like a game created at the lobby, a routed new game counts in its creator's
+ * {@link SOCClientData#getCurrentCreatedGames()} until it's deleted.
+ *<P>
+ * Because each game's messages are handled by its game server, the lobby's work per game message
+ * is only a parse and a forward. If a client's lobby connection is taken over by a new one
+ * (see {@link SOCServer#nameConnection(Connection, boolean)}), the old connection's proxies are closed:
+ * Its games hosted by game servers are left, not moved to the new connection.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCLobbyRouter
+{
+    /** Wait this many seconds before retrying a game server link which failed or was lost */
+    private static final int RECONNECT_SECONDS = 5;
+
+    /** Timeout in milliseconds for connecting to a game server */
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    /**
+     * Forget a game assigned to a game server if the game server hasn't announced it
+     * within this many milliseconds, for example because the game server refused to create it.
+     */
+    private static final int PENDING_GAME_TIMEOUT_MS = 30 * 1000;
+
+    /** The lobby server */
+    private final SOCServer srv;
+
+    /** Secret shared with the game servers, from {@link SOCServer#PROP_JSETTLERS_CLUSTER_SECRET} */
+    private final String secret;
+
+    /** Our game servers; not changed after the constructor */
+    private final List<GameServer> gameServers = new ArrayList<GameServer>();
+
+    /**
+     * Games hosted or about to be hosted by our game servers, keyed by game name.
+     * Also holds each game server's {@link GameServer#proxies}. Synchronize on {@code this} router.
+     */
+    private final HashMap<String, RemoteGame> games = new HashMap<String, RemoteGame>();
+
+    /** Set by {@link #shutdown()} */
+    private volatile boolean shuttingDown;
+
+    /**
+     * Create a router for these game servers. Call {@link #start()} to link to them.
+     *
+     * @param srv  The lobby server
+     * @param secret  Secret shared with the game servers, from {@link SOCServer#PROP_JSETTLERS_CLUSTER_SECRET}
+     * @param gameServerList  Comma-separated list of game servers' {@code host:port},
+     *     from {@link SOCServer#PROP_JSETTLERS_CLUSTER_GAMESERVERS}
+     * @throws IllegalArgumentException if {@code gameServerList} is empty or can't be parsed
+     */
+    public SOCLobbyRouter(final SOCServer srv, final String secret, final String gameServerList)
+        throws IllegalArgumentException
+    {
+        this.srv = srv;
+        this.secret = secret;
+
+        for (String hp : gameServerList.split(","))
+        {
+            hp = hp.trim();
+            final int i = hp.lastIndexOf(':');
+            int port = 0;
+            if (i > 0)
+                try
+                {
+                    port = Integer.parseInt(hp.substring(i + 1).trim());
+                } catch (NumberFormatException e) {}
+            if ((port <= 0) || (port > 65535))
+                throw new IllegalArgumentException("Expected host:port, not \"" + hp + '"');
+
+            gameServers.add(new GameServer(hp.substring(0, i).trim(), port));
+        }
+    }
+
+    /**
+     * Start linking to our game servers, each in its own daemon thread.
+     */
+    public void start()
+    {
+        for (final GameServer gs : gameServers)
+        {
+            final Thread t = new Thread(gs, "lobbyLink-" + gs);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * Close all links and proxies, as the lobby server shuts down.
+     */
+    public void shutdown()
+    {
+        shuttingDown = true;
+
+        final List<Proxy> prox = new ArrayList<Proxy>();
+        synchronized (this)
+        {
+            for (final GameServer gs : gameServers)
+            {
+                prox.addAll(gs.proxies.values());
+                gs.proxies.clear();
+            }
+        }
+
+        for (final Proxy p : prox)
+            p.close();
+        for (final GameServer gs : gameServers)
+            gs.close();
+    }
+
+    /**
+     * If this game is hosted by a game server, or is new and a game server is linked,
+     * send the client's join or create request there through its proxy.
+     * Called from {@link SOCServer#createOrJoinGameIfUserOK(Connection, String, String, String, Map)}
+     * after the client has authenticated and the game name and options have been validated.
+     *
+     * @param c  Client connection; its nickname, version and locale are already set
+     * @param gaName  Game to join or create
+     * @param gaOpts  New game's options if creating, or {@code null} to join (or create without options)
+     * @return  True if handled here (sent to a game server, or an error status sent to {@code c});
+     *     false if the game should be created or joined at the lobby
+     */
+    boolean routeJoinGame(final Connection c, final String gaName, final Map<String, SOCGameOption> gaOpts)
+    {
+        final Proxy p;
+        synchronized (this)
+        {
+            final RemoteGame rg = games.get(gaName);
+            if ((rg != null) && ! rg.isExpired())
+            {
+                if (gaOpts != null)
+                {
+                    c.put(SOCStatusMessage.toCmd
+                        (SOCStatusMessage.SV_NEWGAME_ALREADY_EXISTS, c.getVersion(),
+                         SOCStatusMessage.MSG_SV_NEWGAME_ALREADY_EXISTS));
+
+                    return true;
+                }
+
+                p = getProxy(c, rg.gs);
+            } else {
+                if (srv.gameList.isGame(gaName))
+                    return false;  // hosted at lobby
+
+                final GameServer gs = findLeastLoaded();
+                if (gs == null)
+                    return false;  // no game servers linked: host at lobby
+
+                if (rg != null)
+                    releaseOwner(rg);  // expired
+
+                final RemoteGame newGame = new RemoteGame(gs);  // pending until gs announces it
+                newGame.owner = c.getData();
+                games.put(gaName, newGame);
+                final SOCClientData scd = (SOCClientData) c.getAppData();
+                if (scd != null)
+                    scd.createdGame();
+
+                p = getProxy(c, gs);
+            }
+        }
+
+        if (p == null)
+            return true;  // client has left
+
+        final String nn = c.getData();
+        p.put((gaOpts != null)
+            ? SOCNewGameWithOptionsRequest.toCmd(nn, "", c.host(), gaName, gaOpts)
+            : SOCJoinGame.toCmd(nn, "", c.host(), gaName));
+
+        return true;
+    }
+
+    /**
+     * If this game is hosted by a game server and the client has a proxy there, send it this message.
+     * Called by {@link SOCMessageDispatcher} for messages about games which aren't hosted at the lobby.
+     *
+     * @param gaName  Game name from {@code mes}
+     * @param mes  Message from the client
+     * @param c  Client connection
+     */
+    void forwardGameMessage(final String gaName, final SOCMessage mes, final Connection c)
+    {
+        final Proxy p;
+        synchronized (this)
+        {
+            final RemoteGame rg = games.get(gaName);
+            if (rg == null)
+                return;
+
+            p = rg.gs.proxies.get(c);
+        }
+
+        if (p != null)
+            p.put(mes.toCmd());
+    }
+
+    /**
+     * Is this game hosted or about to be hosted by one of our game servers?
+     * Called from {@link SOCServer#createOrJoinGameIfUserOK(Connection, String, String, String, Map)}
+     * before checking the client's created games count, so first forgets any expired pending games
+     * to release their creators' counts.
+     * @param gaName  Game name
+     * @return  True if the game is announced, or pending and not expired
+     */
+    synchronized boolean isGame(final String gaName)
+    {
+        removeExpired();
+        final RemoteGame rg = games.get(gaName);
+
+        return (rg != null) && ! rg.isExpired();
+    }
+
+    /**
+     * Send the client a {@link SOCNewGameWithOptions} or {@link SOCNewGame} for each game
+     * hosted by our game servers. Called from {@link SOCServer#sendGameList(Connection, int)}
+     * just after it sends the list of games hosted at the lobby.
+     *
+     * @param c  Client connection; its version is known
+     */
+    void sendGameList(final Connection c)
+    {
+        final int cliVers = c.getVersion();
+        final List<String> cmds = new ArrayList<String>();
+        synchronized (this)
+        {
+            for (final Map.Entry<String, RemoteGame> e : games.entrySet())
+            {
+                final RemoteGame rg = e.getValue();
+                if (! rg.isAnnounced)
+                    continue;
+
+                final String gaName = e.getKey();
+                if (cliVers >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS)
+                    cmds.add(SOCNewGameWithOptions.toCmd(gaName, rg.opts, rg.minVers, cliVers));
+                else if (cliVers >= rg.minVers)
+                    cmds.add(SOCNewGame.toCmd(gaName));
+                else if (cliVers >= SOCGames.VERSION_FOR_UNJOINABLE)
+                    cmds.add(SOCNewGame.toCmd(SOCGames.MARKER_THIS_GAME_UNJOINABLE + gaName));
+            }
+        }
+
+        for (final String cmd : cmds)
+            c.put(cmd);
+    }
+
+    /**
+     * A client has left the lobby: Close its proxies, so it leaves its games at their game servers.
+     * Called from {@link SOCServer#leaveConnection(Connection)}.
+     * @param c  Client connection
+     */
+    void leaveConnection(final Connection c)
+    {
+        final List<Proxy> prox = new ArrayList<Proxy>();
+        synchronized (this)
+        {
+            for (final GameServer gs : gameServers)
+            {
+                final Proxy p = gs.proxies.remove(c);
+                if (p != null)
+                    prox.add(p);
+            }
+        }
+
+        for (final Proxy p : prox)
+            p.close();
+    }
+
+    /**
+     * Get a summary of our game servers for {@code *STATS*}, like
+     * "Game servers: localhost:8881 linked, 3 games, 5 players; localhost:8882 not linked".
+     * @return  Game servers' status
+     */
+    public synchronized String getStatsText()
+    {
+        final StringBuilder sb = new StringBuilder("Game servers: ");
+        for (int i = 0; i < gameServers.size(); ++i)
+        {
+            final GameServer gs = gameServers.get(i);
+            if (i > 0)
+                sb.append("; ");
+            sb.append(gs);
+            if (gs.isLinked)
+                sb.append(" linked, ").append(countGames(gs)).append(" games, ")
+                  .append(gs.proxies.size()).append(" players");
+            else
+                sb.append(" not linked");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Find the linked game server with the fewest games, then the fewest proxied clients.
+     * Caller must synchronize on {@code this}.
+     * @return  Least loaded game server, or {@code null} if none are linked
+     */
+    private GameServer findLeastLoaded()
+    {
+        GameServer best = null;
+        int bestGames = 0;
+        for (final GameServer gs : gameServers)
+        {
+            if (! gs.isLinked)
+                continue;
+
+            final int n = countGames(gs);
+            if ((best == null) || (n < bestGames)
+                || ((n == bestGames) && (gs.proxies.size() < best.proxies.size())))
+            {
+                best = gs;
+                bestGames = n;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Count a game server's games, including pending ones which haven't expired.
+     * Caller must synchronize on {@code this}.
+     * @param gs  Game server
+     * @return  Number of games
+     */
+    private int countGames(final GameServer gs)
+    {
+        int n = 0;
+        for (final RemoteGame rg : games.values())
+            if ((rg.gs == gs) && ! rg.isExpired())
+                ++n;
+
+        return n;
+    }
+
+    /**
+     * Get the client's proxy to this game server, or create one and start its thread, which connects it.
+     * Doesn't wait for the connection; the proxy queues messages until it's connected.
+     * Caller must synchronize on {@code this}.
+     *
+     * @param c  Client connection
+     * @param gs  Game server
+     * @return  The proxy, or {@code null} if the client has left
+     */
+    private Proxy getProxy(final Connection c, final GameServer gs)
+    {
+        Proxy p = gs.proxies.get(c);
+        if (p != null)
+            return p;
+
+        if (! c.isConnected())
+            return null;
+
+        p = new Proxy(c, gs);
+        gs.proxies.put(c, p);
+
+        final Thread t = new Thread(p, "lobbyProxy-" + c.getData() + "-" + gs);
+        t.setDaemon(true);
+        t.start();
+
+        return p;
+    }
+
+    /**
+     * Forget pending games which their game servers haven't announced in time,
+     * and release their creators' counts. Caller must synchronize on {@code this}.
+     * @see RemoteGame#isExpired()
+     */
+    private void removeExpired()
+    {
+        for (Iterator<RemoteGame> iter = games.values().iterator(); iter.hasNext(); )
+        {
+            final RemoteGame rg = iter.next();
+            if (rg.isExpired())
+            {
+                iter.remove();
+                releaseOwner(rg);
+            }
+        }
+    }
+
+    /**
+     * A routed game is no longer pending or hosted: Reduce its creator's
+     * {@link SOCClientData#getCurrentCreatedGames()}, if it has one and they're still connected.
+     * Caller must synchronize on {@code this}.
+     * @param rg  Game which has been or will be removed from {@link #games}
+     */
+    private void releaseOwner(final RemoteGame rg)
+    {
+        if (rg.owner == null)
+            return;
+
+        final Connection oc = srv.getConnection(rg.owner);
+        rg.owner = null;
+        if (oc != null)
+        {
+            final SOCClientData scd = (SOCClientData) oc.getAppData();
+            if (scd != null)
+                scd.deletedGame();
+        }
+    }
+
+    /**
+     * A game server has announced a game, to our link or to a proxy.
+     * Adds it to our list if needed, and announces it to our clients.
+     *
+     * @param gs  Game server
+     * @param gaName  Game name
+     * @param optsStr  Game options from the announcement, or {@code null} or "-" if none
+     */
+    private void gameAnnounced(final GameServer gs, final String gaName, final String optsStr)
+    {
+        final Map<String, SOCGameOption> opts = SOCGameOption.parseOptionsToMap(optsStr);
+        final int minVers = (opts != null) ? SOCVersionedItem.itemsMinimumVersion(opts) : -1;
+
+        synchronized (this)
+        {
+            RemoteGame rg = games.get(gaName);
+            if ((rg != null) && (rg.gs != gs) && ! rg.isExpired())
+            {
+                System.err.println("lobby: Game \"" + gaName + "\" is at " + rg.gs + ", ignoring announcement from " + gs);
+
+                return;
+            }
+            if ((rg == null) && srv.gameList.isGame(gaName))
+            {
+                System.err.println("lobby: Game \"" + gaName + "\" is at lobby, ignoring announcement from " + gs);
+
+                return;
+            }
+            if ((rg != null) && (rg.gs == gs) && rg.isAnnounced)
+                return;  // already announced by link or another proxy
+
+            if ((rg == null) || (rg.gs != gs))
+            {
+                if (rg != null)
+                    releaseOwner(rg);  // expired
+                rg = new RemoteGame(gs);
+                games.put(gaName, rg);
+            }
+            rg.opts = opts;
+            rg.minVers = minVers;
+            rg.isAnnounced = true;
+        }
+
+        srv.broadcastNewGame(gaName, opts, minVers);
+    }
+
+    /**
+     * A game server has deleted a game. Removes it from our list and tells our clients.
+     * @param gs  Game server
+     * @param gaName  Game name
+     */
+    private void gameDeleted(final GameServer gs, final String gaName)
+    {
+        synchronized (this)
+        {
+            final RemoteGame rg = games.get(gaName);
+            if ((rg == null) || (rg.gs != gs))
+                return;
+
+            games.remove(gaName);
+            releaseOwner(rg);
+            if (! rg.isAnnounced)
+                return;
+        }
+
+        srv.broadcast(SOCDeleteGame.toCmd(gaName));
+    }
+
+    /**
+     * A game server's link is lost or couldn't connect: Remove its games and close its proxies.
+     * @param gs  Game server
+     */
+    private void linkLost(final GameServer gs)
+    {
+        final List<String> deleted = new ArrayList<String>();
+        final List<Proxy> prox;
+        synchronized (this)
+        {
+            if (gs.isLinked)
+                System.err.println("lobby: Lost link to game server " + gs);
+            gs.isLinked = false;
+
+            for (Iterator<Map.Entry<String, RemoteGame>> iter = games.entrySet().iterator(); iter.hasNext(); )
+            {
+                final Map.Entry<String, RemoteGame> e = iter.next();
+                final RemoteGame rg = e.getValue();
+                if (rg.gs != gs)
+                    continue;
+
+                iter.remove();
+                releaseOwner(rg);
+                if (rg.isAnnounced)
+                    deleted.add(e.getKey());
+            }
+
+            prox = new ArrayList<Proxy>(gs.proxies.values());
+            gs.proxies.clear();
+        }
+
+        for (final String gaName : deleted)
+            srv.broadcast(SOCDeleteGame.toCmd(gaName));
+        for (final Proxy p : prox)
+            p.close();
+    }
+
+    /**
+     * Get a message's type from its text, without parsing the rest of the message.
+     * @param cmd  Message text
+     * @return  Message type, or 0 if it can't be parsed
+     */
+    private static int getMessageType(final String cmd)
+    {
+        final int i = cmd.indexOf(SOCMessage.sep_char);
+        try
+        {
+            return Integer.parseInt((i > 0) ? cmd.substring(0, i) : cmd);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A game hosted or about to be hosted by one of our game servers.
+     * Fields other than {@link #gs} are updated while synchronized on the router.
+     */
+    private static class RemoteGame
+    {
+        /** The game's server */
+        public final GameServer gs;
+
+        /** When the game was assigned to {@link #gs}, from {@link System#currentTimeMillis()} */
+        public final long assignedMillis = System.currentTimeMillis();
+
+        /** True once {@link #gs} has announced the game; until then it's pending */
+        public boolean isAnnounced;
+
+        /** The game's options, or {@code null}; set when announced */
+        public Map<String, SOCGameOption> opts;
+
+        /** The game's minimum client version, or -1; set when announced */
+        public int minVers = -1;
+
+        /**
+         * Nickname of the lobby client who created the game, or {@code null};
+         * cleared by {@link SOCLobbyRouter#releaseOwner(RemoteGame)}
+         */
+        public String owner;
+
+        public RemoteGame(final GameServer gs)
+        {
+            this.gs = gs;
+        }
+
+        /**
+         * Is this game still pending after {@link SOCLobbyRouter#PENDING_GAME_TIMEOUT_MS}?
+         * @return  True if expired and not announced
+         */
+        public boolean isExpired()
+        {
+            return (! isAnnounced)
+                && (System.currentTimeMillis() - assignedMillis > PENDING_GAME_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * One of our game servers, and the runnable for our link to it.
+     */
+    private class GameServer implements Runnable
+    {
+        public final String host;
+        public final int port;
+
+        /** True while linked. Synchronize on the router to change it. */
+        public volatile boolean isLinked;
+
+        /** Our clients' proxies to this game server. Synchronize on the router. */
+        public final HashMap<Connection, Proxy> proxies = new HashMap<Connection, Proxy>();
+
+        /** The link's socket while connected, or {@code null} */
+        private volatile Socket sock;
+
+        public GameServer(final String host, final int port)
+        {
+            this.host = host;
+            this.port = port;
+        }
+
+        /**
+         * Keep the link connected and handle its messages until the lobby shuts down.
+         */
+        public void run()
+        {
+            while (! shuttingDown)
+            {
+                try
+                {
+                    final Socket s = new Socket();
+                    s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                    sock = s;
+                    final DataInputStream in = new DataInputStream(s.getInputStream());
+                    final DataOutputStream out = new DataOutputStream(s.getOutputStream());
+                    out.writeUTF(SOCVersion.toCmd
+                        (Version.versionNumber(), Version.version(), Version.buildnum(), null));
+                    out.writeUTF(SOCLobbyAuth.toCmd(secret, null));
+
+                    synchronized (SOCLobbyRouter.this)
+                    {
+                        isLinked = true;
+                    }
+                    System.err.println("lobby: Linked to game server " + this);
+
+                    while (! shuttingDown)
+                    {
+                        final String cmd = in.readUTF();
+                        switch (getMessageType(cmd))
+                        {
+                        case SOCMessage.GAMESWITHOPTIONS:
+                            {
+                                final SOCGamesWithOptions gm = (SOCGamesWithOptions) SOCMessage.toMsg(cmd);
+                                if (gm == null)
+                                    break;
+                                final SOCGameList gl = gm.getGameList();
+                                for (final String gaName : gl.getGameNames())
+                                    gameAnnounced(this, gaName, gl.getGameOptionsString(gaName));
+                            }
+                            break;
+
+                        case SOCMessage.NEWGAMEWITHOPTIONS:
+                            {
+                                final SOCNewGameWithOptions ng = (SOCNewGameWithOptions) SOCMessage.toMsg(cmd);
+                                if (ng != null)
+                                    gameAnnounced(this, ng.getGame(), ng.getOptionsString());
+                            }
+                            break;
+
+                        case SOCMessage.NEWGAME:
+                            {
+                                final SOCNewGame ng = (SOCNewGame) SOCMessage.toMsg(cmd);
+                                if (ng != null)
+                                    gameAnnounced(this, ng.getGame(), null);
+                            }
+                            break;
+
+                        case SOCMessage.DELETEGAME:
+                            {
+                                final SOCDeleteGame dg = (SOCDeleteGame) SOCMessage.toMsg(cmd);
+                                if (dg != null)
+                                    gameDeleted(this, dg.getGame());
+                            }
+                            break;
+
+                        case SOCMessage.SERVERPING:
+                            synchronized (out)
+                            {
+                                out.writeUTF(cmd);
+                            }
+                            break;
+
+                        case SOCMessage.REJECTCONNECTION:
+                            {
+                                final SOCRejectConnection rc = (SOCRejectConnection) SOCMessage.toMsg(cmd);
+                                System.err.println("lobby: Game server " + this + " rejected link: "
+                                    + ((rc != null) ? rc.getText() : cmd));
+                            }
+                            break;
+
+                        default:
+                            // ignore other messages
+                        }
+                    }
+                } catch (IOException e) {
+                    if (isLinked && ! shuttingDown)
+                        D.ebugPrintln("lobby: link to " + this + ": " + e);
+                } catch (Exception e) {
+                    D.ebugPrintStackTrace(e, "lobby: link to " + this);
+                }
+
+                close();
+                linkLost(this);
+
+                if (! shuttingDown)
+                    try
+                    {
+                        Thread.sleep(RECONNECT_SECONDS * 1000);
+                    } catch (InterruptedException e) {}
+            }
+        }
+
+        /** Close the link's socket, if connected. */
+        public void close()
+        {
+            final Socket s = sock;
+            sock = null;
+            if (s != null)
+                try
+                {
+                    s.close();
+                } catch (IOException e) {}
+        }
+
+        /**
+         * @return this game server's {@code host:port}
+         */
+        public String toString()
+        {
+            return host + ':' + port;
+        }
+    }
+
+    /**
+     * One client's proxy connection to one of our game servers, and the runnable which connects it
+     * and then passes the game server's messages to the client.
+     */
+    private class Proxy implements Runnable
+    {
+        /** The lobby's client connection */
+        public final Connection c;
+
+        public final GameServer gs;
+
+        private volatile Socket sock;
+        private DataInputStream in;
+
+        /** Output stream once connected, or {@code null}. Synchronize on this proxy. */
+        private DataOutputStream out;
+
+        /**
+         * Messages sent by {@link #put(String)} before {@link #connect()} has finished,
+         * or {@code null} once connected. Synchronize on this proxy.
+         */
+        private List<String> queued = new ArrayList<String>();
+
+        /** Set by {@link #close()} */
+        private volatile boolean isClosed;
+
+        public Proxy(final Connection c, final GameServer gs)
+        {
+            this.c = c;
+            this.gs = gs;
+        }
+
+        /**
+         * Connect to the game server, send the client's version, locale and nickname,
+         * then send any messages queued while connecting.
+         * Called from our own thread, not the lobby's message treater thread.
+         * @throws IOException if can't connect or send, or {@link #close()} was called
+         */
+        private void connect()
+            throws IOException
+        {
+            final Socket s = new Socket();
+            sock = s;
+            if (isClosed)
+                throw new IOException("closed");
+            s.connect(new InetSocketAddress(gs.host, gs.port), CONNECT_TIMEOUT_MS);
+            in = new DataInputStream(s.getInputStream());
+            final DataOutputStream dout = new DataOutputStream(s.getOutputStream());
+
+            final int cliVers = c.getVersion();
+            final SOCClientData scd = (SOCClientData) c.getAppData();
+            final String loc = ((scd != null) && (scd.localeStr != null)) ? scd.localeStr : "en_US";
+            dout.writeUTF(SOCVersion.toCmd(cliVers, Version.version(cliVers), Version.buildnum(), loc));
+            dout.writeUTF(SOCLobbyAuth.toCmd(secret, c.getData()));
+
+            synchronized (this)
+            {
+                for (final String cmd : queued)
+                    dout.writeUTF(cmd);
+                queued = null;
+                out = dout;
+            }
+        }
+
+        /**
+         * Send a message to the game server, or queue it if still connecting.
+         * If sending fails, the proxy is closed.
+         * @param cmd  Message text
+         */
+        public synchronized void put(final String cmd)
+        {
+            if (isClosed)
+                return;
+
+            if (out == null)
+            {
+                queued.add(cmd);
+                return;
+            }
+
+            try
+            {
+                out.writeUTF(cmd);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /**
+         * Connect, then pass the game server's messages to the client until either side disconnects.
+         * If can't connect, tells the client.
+         */
+        public void run()
+        {
+            try
+            {
+                connect();
+            } catch (IOException e) {
+                if (! isClosed)
+                {
+                    D.ebugPrintln("lobby: proxy connect failed for " + c.getData() + " to " + gs + ": " + e);
+                    c.put(SOCStatusMessage.toCmd
+                        (SOCStatusMessage.SV_NOT_OK_GENERIC, "Cannot reach the game's server, please try again later."));
+                }
+                isClosed = true;
+            }
+
+            try
+            {
+                while (! isClosed)
+                {
+                    final String cmd = in.readUTF();
+                    switch (getMessageType(cmd))
+                    {
+                    case SOCMessage.NEWGAMEWITHOPTIONS:
+                        {
+                            // Game server announces a game before sending JOINGAMEAUTH for it,
+                            // and client needs to know the game's options by then
+                            final SOCNewGameWithOptions ng = (SOCNewGameWithOptions) SOCMessage.toMsg(cmd);
+                            if (ng != null)
+                                gameAnnounced(gs, ng.getGame(), ng.getOptionsString());
+                        }
+                        break;
+
+                    case SOCMessage.NEWGAME:
+                        {
+                            final SOCNewGame ng = (SOCNewGame) SOCMessage.toMsg(cmd);
+                            if ((ng != null) && (ng.getGame().charAt(0) != SOCGames.MARKER_THIS_GAME_UNJOINABLE))
+                                gameAnnounced(gs, ng.getGame(), null);
+                        }
+                        break;
+
+                    case SOCMessage.GAMES:
+                    case SOCMessage.GAMESWITHOPTIONS:
+                    case SOCMessage.DELETEGAME:
+                        break;  // lobby sends its own game list, from gs link
+
+                    case SOCMessage.VERSION:
+                    case SOCMessage.CHANNELS:
+                    case SOCMessage.NEWCHANNEL:
+                    case SOCMessage.DELETECHANNEL:
+                        break;  // client already has these from the lobby
+
+                    case SOCMessage.SERVERPING:
+                        put(cmd);
+                        break;
+
+                    case SOCMessage.REJECTCONNECTION:
+                        {
+                            // Don't send this type: client would think the lobby rejected it
+                            final SOCRejectConnection rc = (SOCRejectConnection) SOCMessage.toMsg(cmd);
+                            if (rc != null)
+                                c.put(SOCStatusMessage.toCmd(SOCStatusMessage.SV_NOT_OK_GENERIC, rc.getText()));
+                        }
+                        break;
+
+                    default:
+                        c.put(cmd);
+                    }
+                }
+            } catch (IOException e) {
+                // game server or lobby closed the connection
+            } catch (Exception e) {
+                D.ebugPrintStackTrace(e, "lobby: proxy for " + c.getData() + " to " + gs);
+            }
+
+            close();
+            synchronized (SOCLobbyRouter.this)
+            {
+                if (gs.proxies.get(c) == this)
+                    gs.proxies.remove(c);
+            }
+        }
+
+        /** Close the connection to the game server, or stop connecting to it. */
+        public void close()
+        {
+            isClosed = true;
+            final Socket s = sock;
+            if (s != null)
+                try
+                {
+                    s.close();
+                } catch (IOException e) {}
+        }
+    }
+
+}
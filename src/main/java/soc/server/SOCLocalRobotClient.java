@@ -21,9 +21,12 @@
  **/
 package soc.server;
 
+import java.io.IOException;
 import java.util.Hashtable;
+import java.util.List;
 
 import soc.robot.SOCRobotClient;
+import soc.robot.SOCRobotHost;
 
 /**
  * Each local robot in the {@link SOCServer} gets its own client thread.
@@ -71,9 +74,11 @@ class SOCLocalRobotClient implements Runnable
 
     /**
      * Create and start a robot client within a {@link SOCLocalRobotClient} thread.
-     * After creating it, {@link Thread#yield() yield} the current thread and then sleep
-     * 75 milliseconds, to give the robot time to start itself up.
+     * Returns without waiting for the robot to connect; to wait for that, see
+     * {@link SOCServer#waitForRobots(java.util.List, int, long)}.
      * The SOCPlayerLocalRobotRunner's run() will add the {@link SOCRobotClient} to {@link #robotClients}.
+     *<P>
+     * Before v2.0.00 this method slept 75 milliseconds after starting the robot.
      * @param rname  Name of robot
      * @param strSocketName  Server's stringport socket name, or null
      * @param port    Server's tcp port, if <tt>strSocketName</tt> is null
@@ -95,15 +100,51 @@ class SOCLocalRobotClient implements Runnable
             rcli = new SOCRobotClient("localhost", port, rname, "pw", cookie);
         Thread rth = new Thread(new SOCLocalRobotClient(rcli));
         rth.setDaemon(true);
-        rth.start();  // run() will add to robotClients
+        rth.start();  // run() will add to robotClients, then call robot's init()
+    }
+
+    /**
+     * Create a robot host, add robot clients to it, and start it in a daemon thread.
+     * The robots share the host's connection to the server instead of each having its own connection
+     * and reader thread; see {@link SOCServer#PROP_JSETTLERS_BOTS_MULTIPLEX}.
+     * Each robot client is added to {@link #robotClients}.
+     * Returns without waiting for the robots to connect.
+     * @param rnames  Names of robots
+     * @param strSocketName  Server's stringport socket name, or null
+     * @param port    Server's tcp port, if <tt>strSocketName</tt> is null
+     * @param cookie  Cookie for robot connections to server
+     * @return  The new robot host
+     * @throws ClassNotFoundException  if a robot class, or SOCDisplaylessClient,
+     *           can't be loaded. This can happen due to packaging of the server-only JAR.
+     * @throws LinkageError  for same reason as ClassNotFoundException
+     * @since 2.0.00
+     */
+    public static SOCRobotHost createAndStartRobotHost
+        (final List<String> rnames, final String strSocketName, final int port, final String cookie)
+        throws ClassNotFoundException, LinkageError
+    {
+        final SOCRobotHost host = (strSocketName != null)
+            ? new SOCRobotHost(strSocketName, cookie)
+            : new SOCRobotHost("localhost", port, cookie);
+        for (final String rname : rnames)
+            robotClients.put(rname, host.addRobot(rname, "pw"));
 
-        Thread.yield();
-        try
+        final Thread hth = new Thread("localrobothost")
         {
-            Thread.sleep(75);  // Let that robot go for a bit.
-                // robot runner thread will call its init()
-        }
-        catch (InterruptedException ie) {}
+            public void run()
+            {
+                try
+                {
+                    host.init();
+                } catch (IOException e) {
+                    System.err.println("Robot host could not connect to the server: " + e);
+                }
+            }
+        };
+        hth.setDaemon(true);
+        hth.start();
+
+        return host;
     }
 
 }  // class SOCPlayerLocalRobotRunner
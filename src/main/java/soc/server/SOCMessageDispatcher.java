@@ -21,6 +21,7 @@ package soc.server;
 
 import soc.debug.D;
 import soc.game.SOCGame;
+import soc.message.SOCBotMux;
 import soc.message.SOCMessage;
 import soc.message.SOCMessageForGame;
 import soc.server.genericServer.Connection;
@@ -107,6 +108,17 @@ public class SOCMessageDispatcher
         if (mes == null)
             return;
 
+        if (mes instanceof SOCBotMux)
+        {
+            // From a robot host: Handle the inner message as if from that bot's own connection
+            final Connection sub = (con != null) ? srv.getMultiplexedConnection(con, (SOCBotMux) mes) : null;
+            if (sub != null)
+                dispatch(((SOCBotMux) mes).getMessage(), sub);
+
+            return;
+        }
+
+        srv.elementBatcher.begin();
         try
         {
             // D.ebugPrintln(c.getData()+" - "+mes);
@@ -122,9 +134,32 @@ public class SOCMessageDispatcher
 
                 if (! gaName.equals(SOCMessage.GAME_NONE))
                 {
-                    SOCGame ga = gameList.getGameData(gaName);
+                    final SOCGame ga = gameList.getGameData(gaName);
+                    if ((ga == null) && (con != null) && (srv.gameHibernator != null)
+                        && gameList.isMember(con, gaName))
+                    {
+                        // if hibernated, member's action wakes it; handle the message once the game's been read
+                        if (srv.wakeGameThen(gaName, new Runnable()
+                            {
+                                public void run()
+                                {
+                                    if (gameList.getGameData(gaName) != null)  // null if couldn't read it
+                                        dispatch(mes, con);
+                                }
+                            }))
+                            return;  // <--- Early return: Will dispatch after waking ---
+                    }
+
                     if ((ga == null) || (con == null))
+                    {
+                        if ((ga == null) && (con != null) && (srv.lobbyRouter != null))
+                            srv.lobbyRouter.forwardGameMessage(gaName, mes, con);  // if hosted by a game server
+
                         return;  // <--- Early return: ignore unknown games or unlikely missing con ---
+                    }
+
+                    if (srv.replayLog != null)
+                        srv.replayLog.recordMessage(ga, mes, con);
 
                     final GameMessageHandler hand = gameList.getGameTypeMessageHandler(gaName);
                     if (hand != null)  // all consistent games will have a handler
@@ -143,5 +178,9 @@ public class SOCMessageDispatcher
         {
             D.ebugPrintStackTrace(e, "ERROR -> dispatch");
         }
+        finally
+        {
+            srv.elementBatcher.end();
+        }
     }
 }
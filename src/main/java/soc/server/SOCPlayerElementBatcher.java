@@ -0,0 +1,247 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+import soc.message.SOCMessage;
+import soc.message.SOCPlayerElement;
+import soc.message.SOCPlayerElements;
+import soc.server.genericServer.Connection;
+
+/**
+ * Outbound batcher to coalesce the bursts of {@link SOCPlayerElement}s sent to a game
+ * while the server handles one inbound message: A roll, trade, discard, or dev card play
+ * can send several element updates for each player involved.
+ *<P>
+ * While {@link SOCMessageDispatcher} is dispatching a message, {@link SOCServer#messageToGame(String, SOCMessage)}
+ * and {@link SOCServer#messageToGameWithMon(String, SOCMessage)} hand player elements to {@link #add(String, SOCMessage)}
+ * instead of sending them. Each player's consecutive updates with the same action type are collected into a run.
+ * When anything else is sent to a game or player, or when dispatch is done, the server calls {@link #flush()} to send
+ * the pending runs in order. A run of 2 or more elements is sent as one {@link SOCPlayerElements} to clients new
+ * enough to understand it, or as the original individual messages to older clients.
+ *<P>
+ * Updates for different players are independent of each other, so a player's run can still grow after another
+ * player's update: This lets a trade's alternating give/get updates coalesce into one message per player.
+ * A player's run is closed by that player's next update with a different action type.
+ * Elements with the {@link SOCPlayerElement#isNews()} flag or for all players (player number -1) aren't batched.
+ *<P>
+ * Only the dispatch thread batches; messages sent from other threads, such as the
+ * robot force-end-turn thread, are sent immediately as before.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCPlayerElementBatcher
+{
+    /**
+     * Minimum client version which is sent {@link SOCPlayerElements} instead of individual elements:
+     * 2000, from {@link SOCPlayerElements#getMinimumVersion()}.
+     */
+    public static final int VERSION_FOR_PLAYERELEMENTS = 2000;
+
+    private final SOCServer srv;
+
+    /**
+     * Thread which called {@link #begin()}, or null if not batching.
+     * Only that thread adds to or flushes {@link #runs}.
+     */
+    private volatile Thread owner;
+
+    /** Nesting depth of {@link #begin()} calls by {@link #owner}. */
+    private int depth;
+
+    /** Game name of the pending {@link #runs}, or null if none. */
+    private String gaName;
+
+    /** Pending runs, in the order their first element was added. */
+    private final ArrayList<Run> runs = new ArrayList<Run>();
+
+    /**
+     * Create a batcher for this server. It won't batch anything until {@link #begin()} is called.
+     * @param srv  Server with the game list and member connections
+     */
+    public SOCPlayerElementBatcher(final SOCServer srv)
+    {
+        this.srv = srv;
+    }
+
+    /**
+     * Start batching player elements sent by the current thread, until {@link #end()}.
+     * Calls can be nested.
+     */
+    public void begin()
+    {
+        if (owner == Thread.currentThread())
+        {
+            ++depth;
+            return;
+        }
+
+        owner = Thread.currentThread();
+        depth = 1;
+    }
+
+    /**
+     * Flush any pending elements. If this ends the outermost {@link #begin()}, stop batching.
+     * Does nothing if called from a thread other than the one which called {@code begin()}.
+     */
+    public void end()
+    {
+        if (owner != Thread.currentThread())
+            return;
+
+        flush();
+        --depth;
+        if (depth <= 0)
+        {
+            depth = 0;
+            owner = null;
+        }
+    }
+
+    /**
+     * If the current thread is batching and {@code mes} is a {@link SOCPlayerElement} which can be batched,
+     * add it to the pending runs instead of sending it now. If {@code mes} is for a different game than the
+     * pending runs, flushes them first.
+     * @param ga  Game name
+     * @param mes  Message being sent to all members of {@code ga}
+     * @return true if {@code mes} was added and the caller shouldn't send it;
+     *     false if caller should send it now, after calling {@link #flush()}
+     */
+    public boolean add(final String ga, final SOCMessage mes)
+    {
+        if ((owner != Thread.currentThread()) || ! (mes instanceof SOCPlayerElement))
+            return false;
+
+        final SOCPlayerElement pe = (SOCPlayerElement) mes;
+        final int pn = pe.getPlayerNumber();
+        if ((pn < 0) || pe.isNews())
+            return false;
+
+        if ((gaName != null) && ! gaName.equals(ga))
+            flush();
+        gaName = ga;
+
+        final int ac = pe.getAction();
+        Run run = null;
+        for (int i = runs.size() - 1; i >= 0; --i)
+        {
+            final Run r = runs.get(i);
+            if (r.pn == pn)
+            {
+                if (r.action == ac)
+                    run = r;
+                break;
+            }
+        }
+
+        if (run == null)
+        {
+            run = new Run(pn, ac);
+            runs.add(run);
+        }
+        run.elems.add(pe);
+
+        return true;
+    }
+
+    /**
+     * If the current thread is batching, send any pending elements to the members of their game.
+     * Call before sending any other message to a game or player, to keep the clients' message order.
+     * Doesn't take the game's monitor: Works from a snapshot of its member list.
+     */
+    public void flush()
+    {
+        if ((owner != Thread.currentThread()) || runs.isEmpty())
+            return;
+
+        final String ga = gaName;
+        final ArrayList<Run> toSend = new ArrayList<Run>(runs);
+        runs.clear();
+        gaName = null;
+
+        final Vector<Connection> members = srv.gameList.getMembers(ga);
+        if (members == null)
+            return;
+        final Object[] mems = members.toArray();
+        if (mems.length == 0)
+            return;
+
+        for (final Run r : toSend)
+        {
+            final int L = r.elems.size();
+            String[] singles = null;  // encoded if needed for L == 1 or for older clients
+            SOCPlayerElements batched = null;
+            String batchedCmd = null;
+            if (L > 1)
+            {
+                final int[] et = new int[L], va = new int[L];
+                for (int i = 0; i < L; ++i)
+                {
+                    final SOCPlayerElement pe = r.elems.get(i);
+                    et[i] = pe.getElementType();
+                    va[i] = pe.getValue();
+                }
+                batched = new SOCPlayerElements(ga, r.pn, r.action, et, va);
+                batchedCmd = batched.toCmd();
+            }
+
+            for (int m = 0; m < mems.length; ++m)
+            {
+                final Connection c = (Connection) mems[m];
+                if (c == null)
+                    continue;
+
+                if ((batched != null) && (c.getVersion() >= VERSION_FOR_PLAYERELEMENTS))
+                    c.put(batched, batchedCmd);
+                else
+                {
+                    if (singles == null)
+                    {
+                        singles = new String[L];
+                        for (int i = 0; i < L; ++i)
+                            singles[i] = r.elems.get(i).toCmd();
+                    }
+                    for (int i = 0; i < L; ++i)
+                        c.put(r.elems.get(i), singles[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * One player's pending elements which all have the same action type.
+     */
+    private static final class Run
+    {
+        final int pn, action;
+        final List<SOCPlayerElement> elems = new ArrayList<SOCPlayerElement>(4);
+
+        Run(final int pn, final int action)
+        {
+            this.pn = pn;
+            this.action = action;
+        }
+    }
+
+}
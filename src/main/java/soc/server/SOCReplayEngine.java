@@ -0,0 +1,489 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import soc.debug.D;
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.message.SOCMessage;
+import soc.server.genericServer.Connection;
+import soc.util.Version;
+
+/**
+ * Headless replay of a game from a {@link SOCReplayLog} file, for debugging and regression testing.
+ * Re-runs the game's logged inbound messages, joins, leaves, and forced end-of-turns through the same
+ * server code as the original game, using the logged random seed, and checks each logged dice roll and
+ * the dev card deck and final game state against the replayed game's.
+ *<P>
+ * The replay runs in an unstarted {@link SOCServer} with an in-process string port, so no network
+ * or robot clients are needed. Each logged client gets a {@link ReplayConnection} which discards
+ * anything the server sends to it. Messages are dispatched synchronously on the caller's thread
+ * instead of through the server's inbound queue, so replay is as fast as the server code allows.
+ *<P>
+ * Usage: {@code java -cp JSettlersServer.jar soc.server.SOCReplayEngine file.replay [file2.replay ...]}
+ * <BR>
+ * Prints a summary of each file. Exit status is 0 if all games replayed without mismatches, 1 otherwise.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCReplayEngine
+{
+    /** Count of engines created in this JVM, to give each one's server a unique string port name */
+    private static int engineCount;
+
+    /** Server running the replayed game; not started, and has no robot clients */
+    private final SOCServer srv;
+
+    /** Game handler for the replayed game */
+    private final SOCGameHandler handler;
+
+    /** {@link #srv}'s dispatcher, called directly with each logged message */
+    private final SOCMessageDispatcher dispatcher;
+
+    /** Replayed clients; key = client name */
+    private final Map<String, ReplayConnection> conns = new HashMap<String, ReplayConnection>();
+
+    /**
+     * Create a replay engine and its headless server.
+     * @throws IOException  if the server can't be set up
+     */
+    public SOCReplayEngine()
+        throws IOException
+    {
+        final int n;
+        synchronized (SOCReplayEngine.class)
+        {
+            n = ++engineCount;
+        }
+
+        try
+        {
+            srv = new SOCServer("replay-" + n, 10000, null, null);
+        }
+        catch (Exception e)
+        {
+            throw new IOException("Can't set up replay server: " + e);
+        }
+
+        handler = new SOCGameHandler(srv);
+        dispatcher = (SOCMessageDispatcher) srv.getInboundMessageDispatcher();
+
+        // A leaving human player is replaced by asking a robot to join: Make sure there's one to ask,
+        // as there was in the original game. Which robot actually joined is given by the log's J records.
+        final ReplayConnection standIn = getConnection("*replay-robot*", true, true);
+        srv.robots.addElement(standIn);
+    }
+
+    /**
+     * Replay one game's log file.
+     * @param f  Log file written by {@link SOCReplayLog}
+     * @return  the results of the replay
+     * @throws IOException  if {@code f} can't be read, or isn't a replay log
+     */
+    public Result replay(final File f)
+        throws IOException
+    {
+        final Result res = new Result(f.getName());
+        final long startTime = System.currentTimeMillis();
+
+        BufferedReader rd = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        try
+        {
+            String gaName = null;
+            SOCGame ga = null;
+            long seed = 0;
+            boolean started = false;
+
+            String line;
+            while ((line = rd.readLine()) != null)
+            {
+                if (line.length() == 0)
+                    continue;
+
+                ++res.records;
+                final String[] fields = line.split("\t", -1);
+                for (int i = 1; i < fields.length; ++i)
+                    fields[i] = SOCReplayLog.unescape(fields[i]);
+                final char recType = fields[0].charAt(0);
+
+                if ((recType == SOCReplayLog.REC_VERSION) || (recType == SOCReplayLog.REC_SEED))
+                {
+                    if (recType == SOCReplayLog.REC_VERSION)
+                    {
+                        gaName = fields[2];
+                        res.gameName = gaName;
+                        if (Integer.parseInt(fields[1]) != Version.versionNumber())
+                            res.warning = "Log version " + fields[1] + ", replaying with " + Version.versionNumber();
+                    } else {
+                        seed = Long.parseLong(fields[1]);
+                        final Map<String, SOCGameOption> opts =
+                            (fields[2].equals("-")) ? null : SOCGameOption.parseOptionsToMap(fields[2]);
+                        ga = srv.gameList.createGame(gaName, null, null, opts, handler);
+                    }
+                    continue;
+                }
+
+                if (ga == null)
+                    throw new IOException("Line " + res.records + ": Missing V or S record");
+
+                if (recType == SOCReplayLog.REC_PLAYER)
+                {
+                    final int pn = Integer.parseInt(fields[1]);
+                    final boolean isRobot = fields[2].equals("1"), isBuiltIn = fields[3].equals("1");
+                    final ReplayConnection c = getConnection(fields[4], isRobot, isBuiltIn);
+                    srv.gameList.addMember(c, gaName);
+                    ga.addPlayer(fields[4], pn);
+                    ga.getPlayer(pn).setRobotFlag(isRobot, isBuiltIn);
+                    continue;
+                }
+
+                if (! started)
+                {
+                    // First record after the seated players: Start the game like the original did
+                    ga.setRandomSeed(seed);
+                    handler.startGame(ga);
+                    started = true;
+                }
+
+                switch (recType)
+                {
+                case SOCReplayLog.REC_DEVCARDS:
+                    {
+                        final int[] deck = ga.getDevCardDeckRemaining();
+                        StringBuilder sb = new StringBuilder();
+                        for (int i = 0; i < deck.length; ++i)
+                        {
+                            if (i > 0)
+                                sb.append(',');
+                            sb.append(deck[i]);
+                        }
+                        res.check(fields[1].equals(sb.toString()), "dev card deck", fields[1], sb);
+                    }
+                    break;
+
+                case SOCReplayLog.REC_MESSAGE:
+                    {
+                        final SOCMessage mes = SOCMessage.toMsg(fields[2]);
+                        if (mes == null)
+                        {
+                            res.check(false, "parse message", fields[2], null);
+                            break;
+                        }
+                        ++res.messages;
+                        dispatcher.dispatch(mes, getConnection(fields[1], false, false));
+                    }
+                    break;
+
+                case SOCReplayLog.REC_JOIN:
+                    {
+                        final boolean isRobot = fields[1].equals("1");
+                        final ReplayConnection c = getConnection(fields[3], isRobot, fields[2].equals("1"));
+                        srv.gameList.addMember(c, gaName);
+                        if (isRobot)
+                        {
+                            // Robot will send SITDOWN as a bot join request, like in findRobotAskJoinGame
+                            synchronized (srv.robotJoinRequests)
+                            {
+                                Hashtable<Connection, Object> reqs = srv.robotJoinRequests.get(gaName);
+                                if (reqs == null)
+                                {
+                                    reqs = new Hashtable<Connection, Object>();
+                                    srv.robotJoinRequests.put(gaName, reqs);
+                                }
+                                reqs.put(c, Integer.valueOf(-1));
+                            }
+                        }
+                    }
+                    break;
+
+                case SOCReplayLog.REC_LEAVE:
+                    {
+                        // A LEAVEGAME message has already been replayed; this record is for disconnects
+                        final ReplayConnection c = conns.get(fields[1]);
+                        if ((c != null) && srv.gameList.isMember(c, gaName))
+                        {
+                            srv.gameList.takeMonitorForGame(gaName);
+                            try
+                            {
+                                srv.leaveGame(c, gaName, false, false);
+                            } finally {
+                                srv.gameList.releaseMonitorForGame(gaName);
+                            }
+                        }
+                    }
+                    break;
+
+                case SOCReplayLog.REC_FORCE_END_TURN:
+                    {
+                        final int pn = Integer.parseInt(fields[1]);
+                        final String plName = ga.getPlayer(pn).getName();
+                        handler.endGameTurnOrForce
+                            (ga, pn, plName, (plName != null) ? conns.get(plName) : null, false);
+                    }
+                    break;
+
+                case SOCReplayLog.REC_DICE:
+                    {
+                        final int logged = Integer.parseInt(fields[1]) + Integer.parseInt(fields[2]);
+                        res.check(logged == ga.getCurrentDice(), "dice roll", logged, ga.getCurrentDice());
+                    }
+                    break;
+
+                case SOCReplayLog.REC_END:
+                    {
+                        final int logged = Integer.parseInt(fields[1]);
+                        if (logged != -1)
+                            res.check(logged == ga.getGameState(), "final game state", logged, ga.getGameState());
+                        res.finalState = ga.getGameState();
+                    }
+                    break;
+
+                default:
+                    throw new IOException("Line " + res.records + ": Unknown record type " + recType);
+                }
+
+                if (recType == SOCReplayLog.REC_END)
+                    break;
+            }
+
+            if (ga != null)
+            {
+                if (res.finalState == -1)
+                    res.finalState = ga.getGameState();
+                srv.gameList.takeMonitor();
+                try
+                {
+                    srv.gameList.deleteGame(gaName);
+                } finally {
+                    srv.gameList.releaseMonitor();
+                }
+            }
+        } finally {
+            try { rd.close(); } catch (IOException e) {}
+        }
+
+        res.elapsedMillis = System.currentTimeMillis() - startTime;
+        return res;
+    }
+
+    /**
+     * Stop the headless server. Call when done replaying.
+     */
+    public void shutdown()
+    {
+        srv.stopServer();
+    }
+
+    /**
+     * Get or create the connection for a replayed client, and add it to the server.
+     * @param name  Client's name
+     * @param isRobot  Is the client a robot? Used only when creating
+     * @param isBuiltIn  Is the client a built-in robot? Used only when creating
+     * @return  the connection for {@code name}
+     */
+    private ReplayConnection getConnection(final String name, final boolean isRobot, final boolean isBuiltIn)
+    {
+        ReplayConnection c = conns.get(name);
+        if (c != null)
+            return c;
+
+        c = new ReplayConnection(name);
+        srv.addConnection(c);
+        final SOCClientData scd = (SOCClientData) c.getAppData();
+        if (scd != null)
+        {
+            scd.isRobot = isRobot;
+            scd.isBuiltInRobot = isBuiltIn;
+        }
+        conns.put(name, c);
+
+        return c;
+    }
+
+    /**
+     * Replay each log file given on the command line and print a summary of each.
+     * Exit status is 0 if all were replayed without mismatches, 1 otherwise.
+     * @param args  Log file names
+     */
+    public static void main(String[] args)
+    {
+        if (args.length == 0)
+        {
+            System.err.println("Usage: java soc.server.SOCReplayEngine file.replay [file2.replay ...]");
+            System.exit(1);
+        }
+
+        D.ebug_disable();
+        boolean allOK = true;
+        SOCReplayEngine eng = null;
+        try
+        {
+            eng = new SOCReplayEngine();
+            for (final String fname : args)
+            {
+                try
+                {
+                    final Result res = eng.replay(new File(fname));
+                    System.out.println(res);
+                    if (res.mismatches > 0)
+                        allOK = false;
+                }
+                catch (Exception e)
+                {
+                    System.out.println(fname + ": Replay failed: " + e);
+                    allOK = false;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            System.err.println(e.getMessage());
+            allOK = false;
+        }
+        finally
+        {
+            if (eng != null)
+                eng.shutdown();
+        }
+
+        System.exit(allOK ? 0 : 1);
+    }
+
+    /**
+     * Results of replaying one game's log: Counts, timing, and the first mismatch if any.
+     */
+    public static final class Result
+    {
+        /** Log file name */
+        public final String fileName;
+
+        /** Game name from the log, or {@code null} if not read */
+        public String gameName;
+
+        /** Number of log records processed */
+        public int records;
+
+        /** Number of inbound messages replayed */
+        public int messages;
+
+        /** Number of dice, dev card, and game state checks done */
+        public int checks;
+
+        /** Number of checks which didn't match the log */
+        public int mismatches;
+
+        /** Description of the first mismatch, or {@code null} */
+        public String firstMismatch;
+
+        /** Log version warning, or {@code null} */
+        public String warning;
+
+        /** Replayed game's state at end of log, or -1 */
+        public int finalState = -1;
+
+        /** Time taken to replay the log, in milliseconds */
+        public long elapsedMillis;
+
+        Result(final String fileName)
+        {
+            this.fileName = fileName;
+        }
+
+        /**
+         * Count a check and, if it failed, a mismatch.
+         * @param ok  True if the replayed game matched the log
+         * @param what  What was checked, for {@link #firstMismatch}
+         * @param logged  Value from the log
+         * @param replayed  Value from the replayed game
+         */
+        void check(final boolean ok, final String what, final Object logged, final Object replayed)
+        {
+            ++checks;
+            if (ok)
+                return;
+
+            ++mismatches;
+            if (firstMismatch == null)
+                firstMismatch = what + " at record " + records + ": logged " + logged + ", replayed " + replayed;
+        }
+
+        /**
+         * Get a one-line summary, or two lines if there was a mismatch.
+         * @return  the summary
+         */
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder(fileName);
+            sb.append(": game ").append(gameName)
+              .append(", ").append(records).append(" records, ")
+              .append(messages).append(" messages, ")
+              .append(checks).append(" checks, ")
+              .append(mismatches).append(" mismatches, final state ").append(finalState)
+              .append(", ").append(elapsedMillis).append(" ms");
+            if (elapsedMillis > 0)
+                sb.append(" (").append((messages * 1000L) / elapsedMillis).append(" msgs/sec)");
+            if (warning != null)
+                sb.append("\n  ").append(warning);
+            if (firstMismatch != null)
+                sb.append("\n  First mismatch: ").append(firstMismatch);
+
+            return sb.toString();
+        }
+    }
+
+    /**
+     * In-process connection for a replayed client. Anything the server sends is discarded.
+     */
+    private static final class ReplayConnection extends Connection
+    {
+        ReplayConnection(final String name)
+        {
+            data = name;
+            setVersion(Version.versionNumber(), true);
+        }
+
+        public String host() { return "replay"; }
+
+        public void put(String str) {}
+
+        public void run() {}
+
+        public boolean isConnected() { return true; }
+
+        public boolean connect() { return true; }
+
+        public void disconnect() {}
+
+        public void disconnectSoft() {}
+
+        public boolean isInputAvailable() { return false; }
+    }
+
+}
@@ -0,0 +1,494 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCPlayer;
+import soc.message.SOCMessage;
+import soc.server.genericServer.Connection;
+import soc.util.Version;
+
+/**
+ * Per-game replay logs, with enough detail for {@link SOCReplayEngine} to re-run a game
+ * and check that it has the same outcome. Each game is logged to its own file in the log directory.
+ *<P>
+ * When a game starts, the log picks a random seed for the game's random number generators
+ * ({@link SOCGame#setRandomSeed(long)}), which determine the board layout, dev card deck, dice rolls, etc.
+ * The log records that seed, the game options, and the seated players. Then it records each inbound message
+ * for the game, each member join or leave, and each server-forced end of turn, in the order the server
+ * processed them. Random outcomes (the dev card deck and each dice roll) are also recorded, so the replay
+ * can check that it's still producing the same game.
+ *<P>
+ * Records are buffered in memory and written by a single background writer thread at each turn
+ * boundary or when the buffer grows large, so the dispatch thread doesn't wait for disk I/O.
+ * Files aren't held open between writes, so the server can log thousands of active games.
+ *<P>
+ * <B>Log format:</B> UTF-8 text, one record per line. Each record is a type character and its fields,
+ * separated by tabs; field text is escaped with {@link #escape(String)}.
+ *<UL>
+ * <LI> {@code V} version, game name: First record in each log
+ * <LI> {@code S} seed, game options (from {@link SOCGameOption#packOptionsToString(java.util.Map, boolean)}, or "-")
+ * <LI> {@code P} player number, robot flag, built-in robot flag, name: Seated player when game started
+ * <LI> {@code C} remaining dev cards, comma-separated, next card first: Logged when game starts
+ * <LI> {@code M} sender name, message: Inbound message from a client ({@link SOCMessage#toCmd()})
+ * <LI> {@code J} robot flag, built-in robot flag, name: A client joined the game after it started
+ * <LI> {@code L} name: A client left the game
+ * <LI> {@code F} player number: Server forced the end of a robot's turn, or its discard or pick
+ * <LI> {@code D} die 1, die 2: Dice rolled
+ * <LI> {@code E} game state: Game was destroyed; last record
+ *</UL>
+ * Flag fields are 1 for true, 0 for false.
+ *
+ * @see SOCServer#PROP_JSETTLERS_GAMES_REPLAY__DIR
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+class SOCReplayLog
+{
+    /** Filename suffix for replay logs: {@code ".replay"} */
+    public static final String FILE_SUFFIX = ".replay";
+
+    /** Record type: Log version and game name, first record */
+    public static final char REC_VERSION = 'V';
+
+    /** Record type: Random seed and game options */
+    public static final char REC_SEED = 'S';
+
+    /** Record type: Seated player at game start */
+    public static final char REC_PLAYER = 'P';
+
+    /** Record type: Dev card deck at game start */
+    public static final char REC_DEVCARDS = 'C';
+
+    /** Record type: Inbound message */
+    public static final char REC_MESSAGE = 'M';
+
+    /** Record type: Client joined game */
+    public static final char REC_JOIN = 'J';
+
+    /** Record type: Client left game */
+    public static final char REC_LEAVE = 'L';
+
+    /** Record type: Server forced end of turn */
+    public static final char REC_FORCE_END_TURN = 'F';
+
+    /** Record type: Dice roll */
+    public static final char REC_DICE = 'D';
+
+    /** Record type: Game destroyed */
+    public static final char REC_END = 'E';
+
+    /** Field separator within a record */
+    public static final char SEP = '\t';
+
+    /** When a game's buffered records reach this length, queue them to be written. */
+    private static final int FLUSH_LENGTH = 8 * 1024;
+
+    /** Maximum time to wait in {@link #shutdown()} for queued writes to finish, in seconds. */
+    private static final int SHUTDOWN_WAIT_SECONDS = 15;
+
+    /** Directory holding the log files */
+    private final File dir;
+
+    /** Single writer thread; each game's chunks are written in the order they're queued. */
+    private final ExecutorService writerThreader;
+
+    /** Logs of active games; key = game name. */
+    private final ConcurrentHashMap<String, GameLog> logs = new ConcurrentHashMap<String, GameLog>();
+
+    /** Random source for game seeds. */
+    private final SecureRandom seedRand = new SecureRandom();
+
+    /** Set by {@link #shutdown()}; afterwards, records are ignored. */
+    private volatile boolean isShutdown;
+
+    /**
+     * Create a replay log for a directory, creating the directory if needed.
+     * @param dir  Log directory
+     * @throws IOException  if {@code dir} can't be created or isn't a writable directory
+     */
+    public SOCReplayLog(final File dir)
+        throws IOException
+    {
+        if (! (dir.isDirectory() || dir.mkdirs()))
+            throw new IOException("Can't create replay log directory " + dir);
+        if (! dir.canWrite())
+            throw new IOException("Can't write to replay log directory " + dir);
+
+        this.dir = dir;
+        writerThreader = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable r)
+            {
+                Thread th = new Thread(r, "replayLogWriter");
+                th.setDaemon(true);  // shutdown() flushes the queue before a clean exit
+                return th;
+            }
+        });
+    }
+
+    /**
+     * A game is starting: Seed its random number generators, then begin its log with
+     * the seed, game options, and seated players. Call just before {@link SOCGame#startGame()},
+     * then call {@link #recordDevCards(SOCGame)} after it.
+     * If the game was already being logged (board reset), its old log is ended first.
+     * @param ga  Game about to start
+     */
+    public void startGame(final SOCGame ga)
+    {
+        if (isShutdown)
+            return;
+
+        final String gaName = ga.getName();
+        endGame(gaName, -1);
+
+        final long seed = seedRand.nextLong();
+        ga.setRandomSeed(seed);
+
+        final File f = new File
+            (dir, SOCGameSnapshotStore.hexFileName(gaName) + '-' + System.currentTimeMillis() + FILE_SUFFIX);
+        final GameLog gl = new GameLog(f);
+        String opts = SOCGameOption.packOptionsToString(ga.getGameOptions(), false);
+        if ((opts == null) || (opts.length() == 0))
+            opts = "-";
+        gl.append(REC_VERSION, Integer.toString(Version.versionNumber()), gaName);
+        gl.append(REC_SEED, Long.toString(seed), opts);
+        for (int pn = 0; pn < ga.maxPlayers; ++pn)
+        {
+            if (ga.isSeatVacant(pn))
+                continue;
+
+            final SOCPlayer pl = ga.getPlayer(pn);
+            gl.append(REC_PLAYER, Integer.toString(pn),
+                (pl.isRobot() ? "1" : "0"), (pl.isBuiltInRobot() ? "1" : "0"), pl.getName());
+        }
+
+        logs.put(gaName, gl);
+    }
+
+    /**
+     * Record the game's dev card deck order, after {@link SOCGame#startGame()} has shuffled it.
+     * @param ga  Game being logged; if not logged, does nothing
+     */
+    public void recordDevCards(final SOCGame ga)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl == null)
+            return;
+
+        final int[] cards = ga.getDevCardDeckRemaining();
+        StringBuilder sb = new StringBuilder(3 * cards.length);
+        for (int i = 0; i < cards.length; ++i)
+        {
+            if (i > 0)
+                sb.append(',');
+            sb.append(cards[i]);
+        }
+        gl.append(REC_DEVCARDS, sb.toString());
+    }
+
+    /**
+     * Record an inbound message for a game, before it's dispatched.
+     * @param ga  Game the message is for; if not logged, does nothing
+     * @param mes  Message from client
+     * @param c  Client sending the message
+     */
+    public void recordMessage(final SOCGame ga, final SOCMessage mes, final Connection c)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl == null)
+            return;
+
+        final String cName = c.getData();
+        gl.append(REC_MESSAGE, (cName != null) ? cName : "", mes.toCmd());
+    }
+
+    /**
+     * Record a client joining a game which has started.
+     * @param ga  Game; if not logged, does nothing
+     * @param c  Client joining
+     */
+    public void recordJoin(final SOCGame ga, final Connection c)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl == null)
+            return;
+
+        final SOCClientData scd = (SOCClientData) c.getAppData();
+        final boolean isRobot = (scd != null) && scd.isRobot,
+            isBuiltIn = (scd != null) && scd.isBuiltInRobot;
+        gl.append(REC_JOIN, (isRobot ? "1" : "0"), (isBuiltIn ? "1" : "0"), c.getData());
+    }
+
+    /**
+     * Record a client leaving a game.
+     * @param ga  Game; if not logged, does nothing
+     * @param plName  Client's name
+     */
+    public void recordLeave(final SOCGame ga, final String plName)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl != null)
+            gl.append(REC_LEAVE, plName);
+    }
+
+    /**
+     * Record the server forcing a robot player's end of turn, discard, or pick.
+     * @param ga  Game; if not logged, does nothing
+     * @param pn  Player number
+     */
+    public void recordForceEndTurn(final SOCGame ga, final int pn)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl != null)
+            gl.append(REC_FORCE_END_TURN, Integer.toString(pn));
+    }
+
+    /**
+     * Record a dice roll.
+     * @param ga  Game; if not logged, does nothing
+     * @param roll  Roll results from {@link SOCGame#rollDice()}
+     */
+    public void recordDice(final SOCGame ga, final SOCGame.RollResult roll)
+    {
+        final GameLog gl = logs.get(ga.getName());
+        if (gl != null)
+            gl.append(REC_DICE, Integer.toString(roll.diceA), Integer.toString(roll.diceB));
+    }
+
+    /**
+     * At a turn boundary, queue any buffered records for a game to be written.
+     * @param gaName  Game name; if not logged, does nothing
+     */
+    public void flush(final String gaName)
+    {
+        final GameLog gl = logs.get(gaName);
+        if (gl != null)
+            gl.queueWrite();
+    }
+
+    /**
+     * End a game's log when the game is destroyed: Record its final state, queue the last records to be written,
+     * and stop logging it.
+     * @param gaName  Game name; if not logged, does nothing
+     * @param gameState  Game's final state, or -1 if unknown
+     */
+    public void endGame(final String gaName, final int gameState)
+    {
+        final GameLog gl = logs.remove(gaName);
+        if (gl == null)
+            return;
+
+        gl.append(REC_END, Integer.toString(gameState));
+        gl.queueWrite();
+    }
+
+    /**
+     * Write all buffered records and shut down the writer thread, waiting up to
+     * {@link #SHUTDOWN_WAIT_SECONDS} for queued writes to finish. Logs aren't ended,
+     * since their games haven't been destroyed.
+     */
+    public void shutdown()
+    {
+        if (isShutdown)
+            return;
+
+        for (GameLog gl : logs.values())
+            gl.queueWrite();
+
+        isShutdown = true;
+        logs.clear();
+        writerThreader.shutdown();
+        try
+        {
+            if (! writerThreader.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS))
+                System.err.println("* Replay logs: Timed out waiting to finish writing");
+        }
+        catch (InterruptedException e) {}
+    }
+
+    /**
+     * Escape a field's text for a log record: Backslash, tab, CR, and LF become
+     * {@code \\}, {@code \t}, {@code \r}, {@code \n}.
+     * @param s  Text to escape; not null
+     * @return  Escaped text, or {@code s} if nothing needed escaping
+     * @see #unescape(String)
+     */
+    public static String escape(final String s)
+    {
+        int i;
+        final int L = s.length();
+        for (i = 0; i < L; ++i)
+        {
+            final char ch = s.charAt(i);
+            if ((ch == '\\') || (ch == SEP) || (ch == '\r') || (ch == '\n'))
+                break;
+        }
+        if (i == L)
+            return s;  // <--- Early return: Usual case, nothing to escape ---
+
+        StringBuilder sb = new StringBuilder(L + 8);
+        sb.append(s, 0, i);
+        for (; i < L; ++i)
+        {
+            final char ch = s.charAt(i);
+            switch (ch)
+            {
+            case '\\':  sb.append("\\\\");  break;
+            case SEP:   sb.append("\\t");  break;
+            case '\r':  sb.append("\\r");  break;
+            case '\n':  sb.append("\\n");  break;
+            default:    sb.append(ch);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Unescape a field's text from a log record.
+     * @param s  Text escaped by {@link #escape(String)}; not null
+     * @return  Unescaped text
+     */
+    public static String unescape(final String s)
+    {
+        if (s.indexOf('\\') == -1)
+            return s;
+
+        final int L = s.length();
+        StringBuilder sb = new StringBuilder(L);
+        for (int i = 0; i < L; ++i)
+        {
+            char ch = s.charAt(i);
+            if ((ch == '\\') && (i + 1 < L))
+            {
+                ++i;
+                ch = s.charAt(i);
+                switch (ch)
+                {
+                case 't':  ch = SEP;  break;
+                case 'r':  ch = '\r';  break;
+                case 'n':  ch = '\n';  break;
+                default:   // '\\' stays as is
+                }
+            }
+            sb.append(ch);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * One game's log file and its buffered records.
+     * {@link #append(char, String...)} can be called from any thread.
+     */
+    private final class GameLog
+    {
+        /** The log file, appended to by each write */
+        private final File file;
+
+        /** Records not yet queued to be written. Synchronize on this object. */
+        private StringBuilder buf = new StringBuilder(FLUSH_LENGTH);
+
+        public GameLog(final File f)
+        {
+            file = f;
+        }
+
+        /**
+         * Append a record to the buffer; if the buffer is long enough, {@link #queueWrite()}.
+         * @param recType  Record type, such as {@link SOCReplayLog#REC_DICE}
+         * @param fields  Record's fields, not yet escaped; not null
+         */
+        public void append(final char recType, final String... fields)
+        {
+            final boolean wantsWrite;
+            synchronized (this)
+            {
+                buf.append(recType);
+                for (final String fld : fields)
+                    buf.append(SEP).append(escape(fld));
+                buf.append('\n');
+                wantsWrite = (buf.length() >= FLUSH_LENGTH);
+            }
+
+            if (wantsWrite)
+                queueWrite();
+        }
+
+        /**
+         * Queue the buffered records to be appended to the file by the writer thread.
+         * Does nothing if buffer is empty.
+         */
+        public void queueWrite()
+        {
+            final String chunk;
+            synchronized (this)
+            {
+                if (buf.length() == 0)
+                    return;
+                chunk = buf.toString();
+                buf = new StringBuilder(FLUSH_LENGTH);
+            }
+
+            try
+            {
+                writerThreader.execute(new Runnable()
+                {
+                    public void run()
+                    {
+                        Writer w = null;
+                        try
+                        {
+                            w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+                            w.write(chunk);
+                        }
+                        catch (IOException e)
+                        {
+                            System.err.println("* Can't write replay log " + file.getName() + ": " + e);
+                        }
+                        finally
+                        {
+                            if (w != null)
+                                try { w.close(); } catch (IOException e) {}
+                        }
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {}  // shutting down
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.util.Properties;
+
+import soc.robot.MCTSStrategy;
+import soc.robot.SOCRobotBrainStats;
+import soc.robot.SOCRobotClient;
+import soc.server.genericServer.Connection;
+
+/**
+ * Robot strategy benchmark: Starts a server in this JVM with fast, smart, and Monte Carlo tree search
+ * ({@link soc.robot.SOCRobotDM#MCTS_STRATEGY MCTS}) robots, plays robot-only games among them with
+ * {@link SOCServer#PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL}, and reports each strategy's win rate and
+ * robot brain think time per turn. Each game's robots are chosen at random from all the server's robots,
+ * so a strategy's win rate is its wins divided by the games its robots played; with 4 players, an even
+ * match is 25%.
+ *<P>
+ * Think time is the robot brain threads' time handling messages, not counting pauses.
+ * MCTS robots also use the shared playout threads set by {@link SOCServer#PROP_JSETTLERS_BOTS_MCTS__THREADS};
+ * their CPU time is reported separately, from {@link MCTSStrategy#getStatsText()}.
+ *<P>
+ * Usage: {@code java soc.server.SOCRobotStrategyBenchmark [games [robots [port]]]},
+ * or with gradle: {@code gradle botBench -PbotBenchArgs="games robots port"}:
+ *<UL>
+ * <LI> {@code games}: Number of games to play (default 20)
+ * <LI> {@code robots}: Number of robots to start; 30% will be fast and the rest split between smart and MCTS
+ *      (default 12)
+ * <LI> {@code port}: TCP port for the server (default 8880)
+ *</UL>
+ * Server properties such as {@link SOCServer#PROP_JSETTLERS_BOTS_DM__BUDGET__MS jsettlers.bots.dm_budget_ms}
+ * can be given as system properties with {@code -D}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCRobotStrategyBenchmark
+{
+    /** Default number of games to play */
+    private static final int DEFAULT_GAMES = 20;
+
+    /** Default number of robots to start */
+    private static final int DEFAULT_ROBOTS = 12;
+
+    /** Give up waiting for games to finish after this many minutes */
+    private static final int MAX_WAIT_MINUTES = 120;
+
+    /** Strategy names and robot name prefixes, from {@link SOCServer#setupLocalRobots(int, int, int)} */
+    private static final String[][] STRATEGIES =
+        {
+            { "fast", "droid " },
+            { "smart", "robot " },
+            { "MCTS", "robot mcts " }
+        };
+
+    /**
+     * Run the benchmark and print its results to {@link System#out}.
+     * @param args  Optional number of games, number of robots, and port
+     * @throws Exception if the server can't be started
+     */
+    public static void main(final String[] args)
+        throws Exception
+    {
+        int games = DEFAULT_GAMES, robots = DEFAULT_ROBOTS, port = SOCServer.SOC_PORT_DEFAULT;
+        try
+        {
+            if (args.length > 0)
+                games = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                robots = Integer.parseInt(args[1]);
+            if (args.length > 2)
+                port = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            games = 0;
+        }
+        if ((games <= 0) || (robots < 6) || (port <= 0))
+        {
+            System.err.println("Usage: java soc.server.SOCRobotStrategyBenchmark [games [robots (at least 6) [port]]]");
+            System.exit(1);
+        }
+
+        final Properties props = new Properties();
+        props.putAll(System.getProperties());
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, Integer.toString(robots));
+        props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_MCTS, Integer.toString((robots - (int) (0.30f * robots)) / 2));
+        props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL, Integer.toString(games));
+        if (! props.containsKey(SOCServer.PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT))
+            props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT, "0");
+        if (! props.containsKey(SOCServer.PROP_JSETTLERS_CONNECTIONS))
+            props.setProperty(SOCServer.PROP_JSETTLERS_CONNECTIONS, Integer.toString(robots + 10));
+
+        final SOCServer server = new SOCServer(port, props);
+        server.setPriority(5);
+        server.start();
+
+        final long startMillis = System.currentTimeMillis(),
+            giveUpMillis = startMillis + MAX_WAIT_MINUTES * 60 * 1000L;
+        int finished = 0;
+        while ((finished < games) && (System.currentTimeMillis() < giveUpMillis))
+        {
+            try
+            {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {}
+
+            finished = server.getNumberOfGamesFinished();
+        }
+        final long elapsedSec = (System.currentTimeMillis() - startMillis) / 1000;
+
+        System.out.println();
+        System.out.println("Robot strategies, " + finished + " of " + games + " games finished in " + elapsedSec + " seconds:");
+        for (final String[] strat : STRATEGIES)
+            printStrategy(server, strat[0], strat[1]);
+        System.out.println(MCTSStrategy.getStatsText());
+
+        server.stopServer();
+        System.exit(0);
+    }
+
+    /**
+     * Print one strategy's totals from its robots: Wins, losses, and think time per turn.
+     * @param server  Server whose robots to total
+     * @param desc  Strategy description
+     * @param namePrefix  Name prefix of robots with this strategy;
+     *     robots whose names start with a longer prefix in {@link #STRATEGIES} aren't included
+     */
+    private static void printStrategy(final SOCServer server, final String desc, final String namePrefix)
+    {
+        int bots = 0, wins = 0, losses = 0, turns = 0, plans = 0;
+        long thinkNanos = 0, planNanos = 0;
+        for (final String name : SOCLocalRobotClient.robotClients.keySet())
+        {
+            if (! strategyPrefix(name).equals(namePrefix))
+                continue;
+
+            ++bots;
+            final Connection c = server.getConnection(name);
+            if (c != null)
+            {
+                final SOCClientData scd = (SOCClientData) c.getAppData();
+                wins += scd.getWins();
+                losses += scd.getLosses();
+            }
+
+            final SOCRobotClient rc = SOCLocalRobotClient.robotClients.get(name);
+            final SOCRobotBrainStats st = rc.getBrainStatsTotals();
+            turns += st.getTurns();
+            thinkNanos += st.getThinkNanos();
+            plans += st.getPlanCount();
+            planNanos += st.getPlanNanos();
+        }
+
+        final int played = wins + losses;
+        System.out.println("  " + desc + ": " + bots + " robots, " + played + " games played, " + wins + " wins ("
+            + ((played > 0) ? (100 * wins / played) : 0) + "%), think "
+            + ((turns > 0) ? (thinkNanos / turns / 1000000L) : 0) + " ms per turn, build planning "
+            + ((plans > 0) ? (planNanos / plans / 1000000L) : 0) + " ms per decision");
+    }
+
+    /**
+     * Get the strategy name prefix of a robot's name: The longest matching one in {@link #STRATEGIES}.
+     * @param name  Robot name
+     * @return  Name prefix, or "" if none match
+     */
+    private static String strategyPrefix(final String name)
+    {
+        String prefix = "";
+        for (final String[] strat : STRATEGIES)
+            if (name.startsWith(strat[1]) && (strat[1].length() > prefix.length()))
+                prefix = strat[1];
+
+        return prefix;
+    }
+
+}
@@ -27,14 +27,20 @@ import soc.debug.D;  // JM
 import soc.game.*;
 import soc.message.*;
 
+import soc.robot.MCTSStrategy;
 import soc.robot.SOCRobotBrain;
 import soc.robot.SOCRobotClient;
+import soc.robot.SOCRobotDM;
 import soc.server.database.DBSettingMismatchException;
 import soc.server.database.SOCDBHelper;
 
 import soc.server.genericServer.Connection;
 import soc.server.genericServer.InboundMessageQueue;
+import soc.server.genericServer.InboundRateLimiter;
+import soc.server.genericServer.MultiplexedConnection;
+import soc.server.genericServer.NetConnection;
 import soc.server.genericServer.Server;
+import soc.server.genericServer.StreamDeflater;
 import soc.server.genericServer.StringConnection;
 
 import soc.util.I18n;
@@ -52,7 +58,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
 import java.net.SocketException;
+import java.security.MessageDigest;
 import java.sql.SQLException;
 import java.text.DateFormat;
 import java.text.MessageFormat;  // used in javadocs
@@ -75,7 +83,9 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.TreeMap;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A server for Settlers of Catan
@@ -172,6 +182,28 @@ public class SOCServer extends Server
      */
     public static final int SOC_STARTROBOTS_DEFAULT = 7;
 
+    /**
+     * Maximum number of local robots connecting at once in {@link #setupLocalRobots(int, int, int)}:
+     * Each further robot starts when an earlier one has connected, or after {@link #LOCAL_ROBOT_CONNECT_WAIT_MS}.
+     * Keeps the number of pending connections well under the server socket's listen backlog (50).
+     * @since 2.0.00
+     */
+    private static final int LOCAL_ROBOTS_STARTING_MAX = 16;
+
+    /**
+     * Maximum time to wait for a starting local robot to connect before starting the next one, in milliseconds.
+     * @see #LOCAL_ROBOTS_STARTING_MAX
+     * @since 2.0.00
+     */
+    private static final int LOCAL_ROBOT_CONNECT_WAIT_MS = 5000;
+
+    /**
+     * Maximum time at startup to wait for all {@link #PROP_JSETTLERS_STARTROBOTS} robots to connect
+     * before starting any robot-only games, in milliseconds.
+     * @since 2.0.00
+     */
+    private static final int LOCAL_ROBOTS_READY_WAIT_MS = 60000;
+
     /**
      * Default maximum number of connected clients (40; {@link #maxConnections} field).
      * Always at least 20 more than {@link #SOC_STARTROBOTS_DEFAULT}.
@@ -202,6 +234,58 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_CONNECTIONS = "jsettlers.connections";
 
+    /**
+     * Boolean property {@code jsettlers.connections.compress} to offer stream compression to TCP clients
+     * ({@link SOCServerFeatures#FEAT_COMPRESS}). Default is true if the JRE supports it
+     * ({@link StreamDeflater#isAvailable()}): Clients ask for compression with {@link SOCCompressStream}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_COMPRESS = "jsettlers.connections.compress";
+
+    /**
+     * Boolean property {@code jsettlers.connections.binary} to offer binary frames for frequent game messages
+     * to TCP clients ({@link SOCServerFeatures#FEAT_BINARY_FRAMES}). Default is true:
+     * Clients ask for binary frames with {@link SOCBinaryFormat}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_BINARY = "jsettlers.connections.binary";
+
+    /**
+     * Integer property {@code jsettlers.connections.rate_chat}: Chat messages per second allowed from each client,
+     * with bursts up to {@link InboundRateLimiter#BURST_SECONDS} times as many. Chat beyond that is dropped.
+     * Default is 2; 0 for no limit. Robots and local practice clients aren't limited.
+     * @see #PROP_JSETTLERS_CONNECTIONS_RATE_GAME
+     * @see #PROP_JSETTLERS_CONNECTIONS_INBOUND_MAX
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_RATE_CHAT = "jsettlers.connections.rate_chat";
+
+    /**
+     * Integer property {@code jsettlers.connections.rate_game}: Game action messages per second allowed
+     * from each client, with bursts; like {@link #PROP_JSETTLERS_CONNECTIONS_RATE_CHAT}, but messages beyond
+     * the limit are delayed instead of dropped. Default is 25; 0 for no limit.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_RATE_GAME = "jsettlers.connections.rate_game";
+
+    /**
+     * Integer property {@code jsettlers.connections.rate_query}: Game option and scenario info queries
+     * and other lobby messages per second allowed from each client, with bursts; messages beyond
+     * the limit are delayed. Default is 20; 0 for no limit.
+     * @see #PROP_JSETTLERS_CONNECTIONS_RATE_CHAT
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_RATE_QUERY = "jsettlers.connections.rate_query";
+
+    /**
+     * Integer property {@code jsettlers.connections.inbound_max}: Maximum number of inbound messages
+     * waiting in the {@link InboundMessageQueue} from all clients. When full, new chat is dropped
+     * and clients' other messages wait for room. Default is 10000; 0 for no limit.
+     * @see #PROP_JSETTLERS_CONNECTIONS_RATE_CHAT
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CONNECTIONS_INBOUND_MAX = "jsettlers.connections.inbound_max";
+
     /**
      * String property <tt>jsettlers.bots.cookie</tt> to specify the robot connect cookie.
      * (By default a random one is generated.)
@@ -255,6 +339,53 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT = "jsettlers.bots.fast_pause_percent";
 
+    /**
+     * Integer property <tt>jsettlers.bots.dm_threads</tt> to set the number of threads
+     * shared by the server's built-in robots for scoring candidate pieces when planning what to build:
+     * {@link soc.robot.SOCRobotDM#setParallelScoringThreads(int)}.
+     * Default is 0, to score in each robot brain's own thread.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_DM__THREADS = "jsettlers.bots.dm_threads";
+
+    /**
+     * Integer property <tt>jsettlers.bots.dm_budget_ms</tt> to set the time budget in milliseconds
+     * for each smart robot decision about what to build:
+     * {@link SOCRobotDM#setDecisionBudget(int)}.
+     * Default is 0, for no limit. Same property name as {@link SOCRobotClient#PROP_JSETTLERS_BOTS_DM__BUDGET__MS}.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_DM__BUDGET__MS = SOCRobotClient.PROP_JSETTLERS_BOTS_DM__BUDGET__MS;
+
+    /**
+     * Integer property <tt>jsettlers.bots.mcts</tt> to set how many of the {@link #PROP_JSETTLERS_STARTROBOTS}
+     * built-in robots use the Monte Carlo tree search strategy {@link SOCRobotDM#MCTS_STRATEGY}
+     * instead of the smart strategy. Their names start with "robot mcts ".
+     * Default is 0.
+     * @see #PROP_JSETTLERS_BOTS_MCTS__THREADS
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_MCTS = "jsettlers.bots.mcts";
+
+    /**
+     * Integer property <tt>jsettlers.bots.mcts_threads</tt> to set the number of threads shared by
+     * the server's built-in {@link #PROP_JSETTLERS_BOTS_MCTS MCTS robots} for playouts:
+     * {@link soc.robot.MCTSStrategy#setThreads(int)}.
+     * Default is 1 less than the number of available processors.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_MCTS__THREADS = "jsettlers.bots.mcts_threads";
+
+    /**
+     * Boolean property <tt>jsettlers.bots.multiplex</tt> to run the {@link #PROP_JSETTLERS_STARTROBOTS}
+     * robots on one shared {@link soc.robot.SOCRobotHost} connection instead of a connection and reader
+     * thread for each robot. The server gives each robot its own {@link MultiplexedConnection};
+     * those don't count against the {@link #PROP_JSETTLERS_CONNECTIONS max connections} limit.
+     * Default is N.
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_BOTS_MULTIPLEX = "jsettlers.bots.multiplex";
+
     /**
      * Integer property <tt>jsettlers.bots.botgames.total</tt> will start robot-only games,
      * a few at a time, until this many have been played. (The default is 0.)
@@ -277,7 +408,8 @@ public class SOCServer extends Server
      * Integer property <tt>jsettlers.bots.botgames.wait_sec</tt> to wait this many seconds
      * before starting robot-only games with {@link #PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL}.
      * This is useful if some bots are slow to start, or are third-party bots not automatically
-     * started with the server. (The default is 1.6 seconds.)
+     * started with the server. Robot-only games always wait for the {@link #PROP_JSETTLERS_STARTROBOTS}
+     * robots to connect first. (The default is 0. Before v2.0.00, games were started after 1.6 seconds.)
      * @since 2.0.00
      */
     public static final String PROP_JSETTLERS_BOTS_BOTGAMES_WAIT__SEC = "jsettlers.bots.botgames.wait_sec";
@@ -287,7 +419,8 @@ public class SOCServer extends Server
      * (The default is {@link #SOC_STARTROBOTS_DEFAULT}.)
      *<P>
      * 30% will be "smart" robots, the other 70% will be "fast" robots.
-     * Remember that robots count against the {@link #PROP_JSETTLERS_CONNECTIONS max connections} limit.
+     * Remember that robots count against the {@link #PROP_JSETTLERS_CONNECTIONS max connections} limit,
+     * unless {@link #PROP_JSETTLERS_BOTS_MULTIPLEX} is set.
      *<P>
      * Before v1.1.19 the default was 0, no robots were started by default.
      * Before v2.0.00 no bots were started unless the server constructor was
@@ -350,6 +483,94 @@ public class SOCServer extends Server
      */
     public static final String PROP_JSETTLERS_ACCOUNTS_ADMINS = "jsettlers.accounts.admins";
 
+    /**
+     * Integer property {@code jsettlers.accounts.session_ttl} to set the lifetime in seconds of session tokens
+     * issued to users who authenticate with a password from the database. A client which loses its connection
+     * can reconnect within this time using its token instead of its password, skipping the database lookup
+     * and {@code BCrypt} hashing. Set to 0 to disable session tokens.
+     *<P>
+     * The default is {@link SOCAuthTokenCache#TTL_SECONDS_DEFAULT}.
+     * Used only if the server has a user database.
+     *
+     * @see soc.message.SOCAuthRequest#SCHEME_SESSION_TOKEN
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_ACCOUNTS_SESSION__TTL = "jsettlers.accounts.session_ttl";
+
+    /**
+     * Property {@code jsettlers.games.snapshot_dir} to save active games to this directory
+     * at the end of each turn, and reload them at startup so players can rejoin after a server restart.
+     * The directory is created if needed. If not set, games aren't saved.
+     *<P>
+     * Snapshots are reloaded only by the same JSettlers version which wrote them.
+     * After a restart, each player can sit at their former seat again; when the first one does,
+     * robots are asked to fill the seats which robots held before.
+     *
+     * @see SOCGameSnapshotStore
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_GAMES_SNAPSHOT__DIR = "jsettlers.games.snapshot_dir";
+
+    /**
+     * Property {@code jsettlers.games.hibernate_minutes} to hibernate games which have had no activity
+     * for this many minutes: Each is written to disk in {@link #PROP_JSETTLERS_GAMES_HIBERNATE__DIR}
+     * and removed from memory, leaving a stub with its name, options and members, until a member acts
+     * or someone joins. Its seated robots leave while it sleeps, and are asked to rejoin when it wakes.
+     * Default is 0, games don't hibernate.
+     *<P>
+     * To keep a game's state simple to restore, only games waiting for a human player's action
+     * (state {@link SOCGame#ROLL_OR_CARD} or {@link SOCGame#PLAY1}) or not yet started are hibernated.
+     * Since games are checked every {@link #GAME_TIME_EXPIRE_CHECK_MINUTES} minutes, a game can be
+     * idle a few minutes longer than this before it hibernates.
+     *
+     * @see SOCGameHibernator
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES = "jsettlers.games.hibernate_minutes";
+
+    /**
+     * Property {@code jsettlers.games.hibernate_dir} for the directory where
+     * {@link #PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES} writes idle games.
+     * The directory is created if needed. Default is {@code jsettlers-hibernate-}<em>port</em>
+     * in the temporary directory ({@code java.io.tmpdir}).
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_GAMES_HIBERNATE__DIR = "jsettlers.games.hibernate_dir";
+
+    /**
+     * Property {@code jsettlers.games.replay_dir} to write a replay log for each game to this directory.
+     * Each log has the game's random seed and every inbound message for the game, so that
+     * {@link SOCReplayEngine} can re-run it. The directory is created if needed. If not set, games aren't logged.
+     *
+     * @see SOCReplayLog
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_GAMES_REPLAY__DIR = "jsettlers.games.replay_dir";
+
+    /**
+     * Property {@code jsettlers.cluster.secret} is the secret shared by a lobby server and its game servers.
+     * A game server accepts {@link SOCLobbyAuth} from a lobby only if this property is set and matches.
+     * Must not contain spaces, commas or {@code '|'}.
+     *
+     * @see #PROP_JSETTLERS_CLUSTER_GAMESERVERS
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CLUSTER_SECRET = "jsettlers.cluster.secret";
+
+    /**
+     * Property {@code jsettlers.cluster.gameservers} makes this server a lobby for these game servers,
+     * a comma-separated list of {@code host:port}. The lobby owns user accounts, channels and the game list,
+     * and assigns each new game to the game server hosting the fewest games. Clients connect only to the lobby,
+     * which proxies their game messages to the game server. Each game server starts its own robots.
+     * {@link #PROP_JSETTLERS_CLUSTER_SECRET} must also be set, to the same value as at the game servers.
+     * If no game server is reachable, the lobby hosts new games itself.
+     *
+     * @see SOCLobbyRouter
+     * @see SOCServerCluster
+     * @since 2.0.00
+     */
+    public static final String PROP_JSETTLERS_CLUSTER_GAMESERVERS = "jsettlers.cluster.gameservers";
+
     /**
      * Property <tt>jsettlers.allow.debug</tt> to permit debug commands over TCP.
      * (The default is N; to allow, set to Y)
@@ -429,10 +650,24 @@ public class SOCServer extends Server
     {
         PROP_JSETTLERS_PORT,     "TCP port number for server to listen for client connections",
         PROP_JSETTLERS_CONNECTIONS,   "Maximum connection count, including robots (default " + SOC_MAXCONN_DEFAULT + ")",
+        PROP_JSETTLERS_CONNECTIONS_COMPRESS, "Offer deflate stream compression to TCP clients? (default Y)",
+        PROP_JSETTLERS_CONNECTIONS_BINARY, "Offer binary frames for frequent game messages to TCP clients? (default Y)",
+        PROP_JSETTLERS_CONNECTIONS_RATE_CHAT, "Chat messages per second from each client, or 0 (default 2)",
+        PROP_JSETTLERS_CONNECTIONS_RATE_GAME, "Game actions per second from each client, or 0 (default 25)",
+        PROP_JSETTLERS_CONNECTIONS_RATE_QUERY, "Queries and lobby messages per second from each client, or 0 (default 20)",
+        PROP_JSETTLERS_CONNECTIONS_INBOUND_MAX, "Max inbound messages queued from all clients, or 0 (default 10000)",
         PROP_JSETTLERS_STARTROBOTS,   "Number of robots to create at startup (default " + SOC_STARTROBOTS_DEFAULT + ")",
         PROP_JSETTLERS_ACCOUNTS_OPEN, "Permit open self-registration of new user accounts? (if Y and using a DB)",
         PROP_JSETTLERS_ACCOUNTS_REQUIRED, "Require all players to have a user account? (if Y; requires a DB)",
         PROP_JSETTLERS_ACCOUNTS_ADMINS, "Permit only these usernames to create accounts (comma-separated)",
+        PROP_JSETTLERS_ACCOUNTS_SESSION__TTL, "Reconnect session token lifetime in seconds, or 0 to disable (default "
+            + SOCAuthTokenCache.TTL_SECONDS_DEFAULT + ')',
+        PROP_JSETTLERS_GAMES_SNAPSHOT__DIR, "Directory to save active games each turn, to reload after a restart",
+        PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES, "Move games idle this many minutes from memory to disk (default 0: never)",
+        PROP_JSETTLERS_GAMES_HIBERNATE__DIR, "Directory for idle games (default is in the temp directory)",
+        PROP_JSETTLERS_GAMES_REPLAY__DIR, "Directory to write a replay log for each game",
+        PROP_JSETTLERS_CLUSTER_SECRET, "Secret shared by a lobby server and its game servers",
+        PROP_JSETTLERS_CLUSTER_GAMESERVERS, "Be a lobby for these game servers (comma-separated host:port)",
         PROP_JSETTLERS_ALLOW_DEBUG,   "Allow remote debug commands? (if Y)",
         PROP_JSETTLERS_CLI_MAXCREATECHANNELS,   "Maximum simultaneous channels that a client can create",
         PROP_JSETTLERS_CLI_MAXCREATEGAMES,      "Maximum simultaneous games that a client can create",
@@ -440,10 +675,15 @@ public class SOCServer extends Server
         // I18n.PROP_JSETTLERS_LOCALE,             "Locale override from the default, such as es or en_US, for console output",
             // -- not used yet at server
         PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL,     "Run this many robot-only games, a few at a time (default 0); allow bot-only games",
-        PROP_JSETTLERS_BOTS_BOTGAMES_WAIT__SEC, "Wait at startup before starting robot-only games (default 1.6 seconds)",
+        PROP_JSETTLERS_BOTS_BOTGAMES_WAIT__SEC, "Wait at startup before starting robot-only games (default 0: when robots connect)",
         PROP_JSETTLERS_BOTS_COOKIE,             "Robot cookie value (default is random generated each startup)",
         PROP_JSETTLERS_BOTS_SHOWCOOKIE,         "Flag to show the robot cookie value at startup",
         PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT, "Pause at percent of normal pause time (0 to 100) for robot-only games (default 25)",
+        PROP_JSETTLERS_BOTS_DM__THREADS,        "Threads shared by robots to score pieces when planning (default 0: each bot's own thread)",
+        PROP_JSETTLERS_BOTS_DM__BUDGET__MS,     "Time budget (milliseconds) for each smart robot build decision (default 0: no limit)",
+        PROP_JSETTLERS_BOTS_MCTS,               "Number of startrobots which use Monte Carlo tree search (default 0)",
+        PROP_JSETTLERS_BOTS_MCTS__THREADS,      "Threads shared by MCTS robots for playouts (default: processors - 1)",
+        PROP_JSETTLERS_BOTS_MULTIPLEX,          "Flag to run startrobots over one shared connection (default N)",
         PROP_JSETTLERS_BOTS_PERCENT3P,          "Percent of bots which should be third-party (0 to 100) if available",
         PROP_JSETTLERS_BOTS_TIMEOUT_TURN,       "Robot turn timeout (seconds) for third-party bots",
         PROP_JSETTLERS_TEST_VALIDATE__CONFIG,   "Flag to validate server and DB config, then exit (same as -t command-line option)",
@@ -466,6 +706,14 @@ public class SOCServer extends Server
      */
     public static final String SERVERNAME = SOCGameTextMsg.SERVERNAME;  // "Server"
 
+    /**
+     * Connection name at a game server for its lobby server's link, which authenticates with {@link SOCLobbyAuth}.
+     * Users can't take this name.
+     * @see #authOrRejectLobby(Connection, String, String)
+     * @since 2.0.00
+     */
+    public static final String LOBBY_LINK_NAME = "~lobby~";
+
     /**
      * Minimum required client version, to connect and play a game.
      * Same format as {@link soc.util.Version#versionNumber()}.
@@ -729,6 +977,22 @@ public class SOCServer extends Server
      */
     private String robotCookie;
 
+    /**
+     * Secret shared with a lobby server or our game servers, from {@link #PROP_JSETTLERS_CLUSTER_SECRET},
+     * or {@code null} if not set. Like {@link #robotCookie}, must pass {@link SOCMessage#isSingleLineAndSafe(String)}.
+     * @see #authOrRejectLobby(Connection, String, String)
+     * @since 2.0.00
+     */
+    private String clusterSecret;
+
+    /**
+     * If this server is a lobby, its links and proxies to its game servers; otherwise {@code null}.
+     * Set up in {@link #initSocServer(String, String)} if {@link #PROP_JSETTLERS_CLUSTER_GAMESERVERS} is set,
+     * started in {@link #serverUp()}.
+     * @since 2.0.00
+     */
+    SOCLobbyRouter lobbyRouter;
+
     /**
      * A list of all robot client {@link Connection}s connected to this server.
      * Includes built-in bots and any third-party bots (which are also in {@link #robots3p}).
@@ -747,6 +1011,17 @@ public class SOCServer extends Server
      */
     protected Vector<Connection> robots3p = new Vector<Connection>();
 
+    /**
+     * Names of local robots started by {@link #setupLocalRobots(int, int, int)} which haven't yet authenticated.
+     * Each name is removed when its robot is accepted by {@link #authOrRejectClientRobot(Connection, String, String, String)}.
+     * Used by {@link #waitForRobots(List, int, long)} to wait for specific robots, since the size of {@link #robots}
+     * also counts other bots and changes as bots disconnect and reconnect.
+     *<P>
+     *<B>Locking:</B> Synchronize on {@link #robots}, which is notified when a name is removed.
+     * @since 2.0.00
+     */
+    private final HashSet<String> localRobotsPending = new HashSet<String>();
+
     /**
      * Robot default parameters; copied for each newly connecting robot.
      * Changing this will not change parameters of any robots already connected.
@@ -777,6 +1052,17 @@ public class SOCServer extends Server
     public static SOCRobotParameters ROBOT_PARAMS_SMARTER
         = new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, 0, 1);
 
+    /**
+     * Monte Carlo tree search robot parameters, for bots named "robot mcts ..." such as those started
+     * because of {@link #PROP_JSETTLERS_BOTS_MCTS}. Same as ROBOT_PARAMS_DEFAULT but with MCTS_STRATEGY.
+     *
+     * @see #ROBOT_PARAMS_DEFAULT
+     * @see soc.robot.MCTSStrategy
+     * @since 2.0.00
+     */
+    public static SOCRobotParameters ROBOT_PARAMS_MCTS
+        = new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, 2, 1);
+
     /**
      * Did the command line include an option that prints some information
      * (like --help or --version) and should exit, instead of starting the server?
@@ -1041,6 +1327,88 @@ public class SOCServer extends Server
      */
     private Set<String> databaseUserAdmins;
 
+    /**
+     * Session tokens for reconnecting users who authenticated with a database password, or {@code null}
+     * if no database or if {@link #PROP_JSETTLERS_ACCOUNTS_SESSION__TTL} is 0.
+     * Set up in {@link #initSocServer(String, String)}.
+     * @see #authOrRejectClientUser(Connection, String, String, int, int, boolean, boolean, AuthSuccessRunnable)
+     * @since 2.0.00
+     */
+    private SOCAuthTokenCache authTokens;
+
+    /**
+     * Saves active games at each turn boundary and reloads them at startup, or {@code null}
+     * if {@link #PROP_JSETTLERS_GAMES_SNAPSHOT__DIR} isn't set.
+     * Set up in {@link #initSocServer(String, String)}.
+     * @since 2.0.00
+     */
+    SOCGameSnapshotStore gameSnapshots;
+
+    /**
+     * Hibernates idle games to disk, or {@code null} if {@link #PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES} is 0.
+     * Set up in {@link #initSocServer(String, String)}.
+     * @see #hibernateGame(String)
+     * @see #wakeGameThen(String, Runnable)
+     * @since 2.0.00
+     */
+    SOCGameHibernator gameHibernator;
+
+    /**
+     * Idle time in milliseconds before a game is hibernated, from {@link #PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES},
+     * if {@link #gameHibernator} != null.
+     * @since 2.0.00
+     */
+    private long gameHibernateIdleMillis;
+
+    /**
+     * Per-client inbound message rate limiter, or {@code null} if all of the
+     * {@link #PROP_JSETTLERS_CONNECTIONS_RATE_CHAT} rate properties are 0.
+     * Set up in {@link #initSocServer(String, String)}; used by {@link Server#inQueue}.
+     * @since 2.0.00
+     */
+    private InboundRateLimiter inboundRateLimiter;
+
+    /**
+     * Number of open {@link MultiplexedConnection}s from robot hosts, which aren't counted against
+     * {@link #maxConnections}. Updated in {@link #getMultiplexedConnection(Connection, SOCBotMux)}
+     * and {@link #leaveConnection(Connection)}.
+     * @see #PROP_JSETTLERS_BOTS_MULTIPLEX
+     * @since 2.0.00
+     */
+    private final AtomicInteger muxConnectionCount = new AtomicInteger();
+
+    /**
+     * Number of named, authenticated robots on {@link MultiplexedConnection}s. These are in the named
+     * connection count, but aren't counted against {@link #maxConnections} by {@link #newConnection1(Connection)}.
+     * Unlike {@link #muxConnectionCount}, doesn't include sub-connections which haven't authenticated yet.
+     * Updated in {@link #authOrRejectClientRobot(Connection, String, String, String)}
+     * and {@link #leaveConnection(Connection)}.
+     * @since 2.0.00
+     */
+    private final AtomicInteger muxRobotCount = new AtomicInteger();
+
+    /**
+     * Times the phases of startup in {@link #initSocServer(String, String)}, to print when ready
+     * and in {@code *STATS*}.
+     * @since 2.0.00
+     */
+    private final SOCStartupProfiler startupProfiler = new SOCStartupProfiler();
+
+    /**
+     * Replay logs for active games, or {@code null} if {@link #PROP_JSETTLERS_GAMES_REPLAY__DIR} isn't set.
+     * Set up in {@link #initSocServer(String, String)}.
+     * @since 2.0.00
+     */
+    SOCReplayLog replayLog;
+
+    /**
+     * Coalesces bursts of {@link SOCPlayerElement}s sent to a game while dispatching one inbound message.
+     * {@link SOCMessageDispatcher} calls its {@link SOCPlayerElementBatcher#begin() begin()} and
+     * {@link SOCPlayerElementBatcher#end() end()}; each {@code messageTo*} method flushes it before sending.
+     * @since 2.0.00
+     */
+    final SOCPlayerElementBatcher elementBatcher = new SOCPlayerElementBatcher(this);
+
     /**
      * Create a Settlers of Catan server listening on TCP port {@code p}.
      * Most server threads are started here; you must start its main thread yourself.
@@ -1200,6 +1568,59 @@ public class SOCServer extends Server
         initSocServer(databaseUserName, databasePassword);
     }
 
+    /**
+     * Create a Settlers of Catan server listening on local stringport {@code s}, with properties
+     * such as {@link #PROP_JSETTLERS_BOTS_COOKIE} or {@link #PROP_JSETTLERS_STARTROBOTS}.
+     * Most server threads are started here; you must start its main thread yourself.
+     * Like {@link #SOCServer(int, Properties)}, connects to a database only if {@code props} has db settings.
+     *
+     * @param s    the stringport that the server listens on
+     * @param props  null, or properties containing {@link #PROP_JSETTLERS_CONNECTIONS}
+     *       and any other desired properties; see {@link #SOCServer(int, Properties)}
+     * @throws SocketException  If a network setup problem occurs
+     * @throws EOFException   If db setup script ran successfully and server should exit now
+     * @throws SQLException   If db setup script fails, or need db but can't connect
+     * @throws IllegalArgumentException  If {@code props} contains game options with bad syntax
+     * @throws IllegalStateException  If {@link Version#versionNumber()} returns 0 (packaging error)
+     * @since 2.0.00
+     */
+    public SOCServer(final String s, Properties props)
+        throws SocketException, EOFException, SQLException, IllegalArgumentException, IllegalStateException
+    {
+        super(s, new SOCMessageDispatcher(), props);
+        props = this.props;  // if was null, use empty props created by super constructor
+
+        maxConnections = getConfigIntProperty(PROP_JSETTLERS_CONNECTIONS, SOC_MAXCONN_DEFAULT);
+        allowDebugUser = getConfigBoolProperty(PROP_JSETTLERS_ALLOW_DEBUG, false);
+        CLIENT_MAX_CREATE_GAMES = getConfigIntProperty(PROP_JSETTLERS_CLI_MAXCREATEGAMES, CLIENT_MAX_CREATE_GAMES);
+        CLIENT_MAX_CREATE_CHANNELS = getConfigIntProperty(PROP_JSETTLERS_CLI_MAXCREATECHANNELS, CLIENT_MAX_CREATE_CHANNELS);
+
+        initSocServer(props.getProperty(SOCDBHelper.PROP_JSETTLERS_DB_USER, "socuser"),
+            props.getProperty(SOCDBHelper.PROP_JSETTLERS_DB_PASS, "socpass"));
+    }
+
+    /**
+     * Is this optional server feature active?
+     * @param featureName  Feature name, such as {@link SOCServerFeatures#FEAT_COMPRESS}
+     * @return true if active
+     * @since 2.0.00
+     */
+    final boolean isFeatureActive(final String featureName)
+    {
+        return features.isActive(featureName);
+    }
+
+    /**
+     * Get this server's inbound message dispatcher, so {@link SOCReplayEngine} can dispatch
+     * logged messages synchronously instead of through the inbound message queue.
+     * @return  the dispatcher given to the constructor
+     * @since 2.0.00
+     */
+    final InboundMessageDispatcher getInboundMessageDispatcher()
+    {
+        return inboundMsgDispatcher;
+    }
+
     /**
      * Common init for all constructors.
      * Prints some progress messages to {@link System#err}.
@@ -1300,10 +1721,16 @@ public class SOCServer extends Server
         if (! props.containsKey(PROP_JSETTLERS_STARTROBOTS))
             props.setProperty(PROP_JSETTLERS_STARTROBOTS, Integer.toString(SOC_STARTROBOTS_DEFAULT));
 
+        // While game options and the DB are set up, load other things needed soon after startup
+        if (! hasUtilityModeProp)
+            initSocServer_startPreload();
+
         // Set game option defaults from any jsettlers.gameopt.* properties found.
         // If problems found, throws IllegalArgumentException with details.
         // Ignores unknown scenario ("SC"), see init_checkScenarioOpts for that.
+        long phaseStart = System.nanoTime();
         init_propsSetGameopts(props);
+        startupProfiler.phaseDone("game options", phaseStart, false);
 
         int v = getConfigIntProperty(PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT, -1);
         if (v != -1)
@@ -1315,6 +1742,30 @@ public class SOCServer extends Server
                     ("Error: Property out of range (0 to 100): " + PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT);
         }
 
+        v = getConfigIntProperty(PROP_JSETTLERS_BOTS_DM__THREADS, 0);
+        if (v < 0)
+            throw new IllegalArgumentException
+                ("Error: Property can't be negative: " + PROP_JSETTLERS_BOTS_DM__THREADS);
+        SOCRobotDM.setParallelScoringThreads(v);
+
+        v = getConfigIntProperty(PROP_JSETTLERS_BOTS_DM__BUDGET__MS, 0);
+        if (v < 0)
+            throw new IllegalArgumentException
+                ("Error: Property can't be negative: " + PROP_JSETTLERS_BOTS_DM__BUDGET__MS);
+        SOCRobotDM.setDecisionBudget(v);
+
+        v = getConfigIntProperty(PROP_JSETTLERS_BOTS_MCTS, 0);
+        if (v < 0)
+            throw new IllegalArgumentException
+                ("Error: Property can't be negative: " + PROP_JSETTLERS_BOTS_MCTS);
+
+        v = getConfigIntProperty(PROP_JSETTLERS_BOTS_MCTS__THREADS, -1);
+        if (v >= 0)
+            MCTSStrategy.setThreads(v);
+        else if (props.containsKey(PROP_JSETTLERS_BOTS_MCTS__THREADS))
+            throw new IllegalArgumentException
+                ("Error: Property can't be negative: " + PROP_JSETTLERS_BOTS_MCTS__THREADS);
+
         ((SOCMessageDispatcher) inboundMsgDispatcher).setServer(this, srvMsgHandler, gameList);
 
         if (allowDebugUser)
@@ -1345,6 +1796,47 @@ public class SOCServer extends Server
             robotCookie = generateRobotCookie();
         }
 
+        /**
+         * Lobby or game server in a cluster?
+         */
+        if (props.containsKey(PROP_JSETTLERS_CLUSTER_SECRET))
+        {
+            final String sec = props.getProperty(PROP_JSETTLERS_CLUSTER_SECRET).trim();
+            if ((sec.length() > 0) && ! (SOCMessage.isSingleLineAndSafe(sec) && (sec.indexOf(' ') == -1)))
+            {
+                final String errmsg = "Error: The cluster secret value (param " + PROP_JSETTLERS_CLUSTER_SECRET
+                    + ") can't contain space, comma or pipe characters.";
+                System.err.println(errmsg);
+                throw new IllegalArgumentException(errmsg);
+            }
+            if (sec.length() > 0)
+                clusterSecret = sec;
+        }
+        if (props.containsKey(PROP_JSETTLERS_CLUSTER_GAMESERVERS))
+        {
+            final String gsList = props.getProperty(PROP_JSETTLERS_CLUSTER_GAMESERVERS).trim();
+            if (gsList.length() > 0)
+            {
+                if (clusterSecret == null)
+                {
+                    final String errmsg = "Error: To be a lobby (param " + PROP_JSETTLERS_CLUSTER_GAMESERVERS
+                        + "), must also set " + PROP_JSETTLERS_CLUSTER_SECRET;
+                    System.err.println(errmsg);
+                    throw new IllegalArgumentException(errmsg);
+                }
+
+                try
+                {
+                    lobbyRouter = new SOCLobbyRouter(this, clusterSecret, gsList);
+                } catch (IllegalArgumentException e) {
+                    final String errmsg = "Error: Bad game server list (param " + PROP_JSETTLERS_CLUSTER_GAMESERVERS
+                        + "): " + e.getMessage();
+                    System.err.println(errmsg);
+                    throw new IllegalArgumentException(errmsg);
+                }
+            }
+        }
+
         final boolean accountsRequired = getConfigBoolProperty(PROP_JSETTLERS_ACCOUNTS_REQUIRED, false);
 
         /**
@@ -1353,6 +1845,7 @@ public class SOCServer extends Server
          * like PROP_JSETTLERS_DB_SETTINGS if present.
          */
         boolean db_err_printed = false;
+        phaseStart = System.nanoTime();
         try
         {
             SOCDBHelper.initialize(databaseUserName, databasePassword, props);
@@ -1524,6 +2017,7 @@ public class SOCServer extends Server
         }
 
         // No errors; continue normal startup.
+        startupProfiler.phaseDone("database", phaseStart, false);
 
         if (db_test_bcrypt_mode)
             SOCDBHelper.testBCryptSpeed();
@@ -1538,6 +2032,11 @@ public class SOCServer extends Server
             if (accountsRequired)
                 System.err.println("User database accounts are required for all players.");
 
+            final int tokenTTL = getConfigIntProperty
+                (PROP_JSETTLERS_ACCOUNTS_SESSION__TTL, SOCAuthTokenCache.TTL_SECONDS_DEFAULT);
+            if (tokenTTL > 0)
+                authTokens = new SOCAuthTokenCache(tokenTTL);
+
             // Note: This hook is not triggered under eclipse debugging.
             //    https://bugs.eclipse.org/bugs/show_bug.cgi?id=38016  "WONTFIX/README" since 2007-07-18
             try
@@ -1588,6 +2087,72 @@ public class SOCServer extends Server
         if (CLIENT_MAX_CREATE_CHANNELS != 0)
             features.add(SOCServerFeatures.FEAT_CHANNELS);
 
+        if (getConfigBoolProperty(PROP_JSETTLERS_CONNECTIONS_COMPRESS, true) && StreamDeflater.isAvailable())
+            features.add(SOCServerFeatures.FEAT_COMPRESS);
+
+        if (getConfigBoolProperty(PROP_JSETTLERS_CONNECTIONS_BINARY, true))
+            features.add(SOCServerFeatures.FEAT_BINARY_FRAMES);
+
+        {
+            final int chatRate = getConfigIntProperty(PROP_JSETTLERS_CONNECTIONS_RATE_CHAT, 2),
+                gameRate = getConfigIntProperty(PROP_JSETTLERS_CONNECTIONS_RATE_GAME, 25),
+                queryRate = getConfigIntProperty(PROP_JSETTLERS_CONNECTIONS_RATE_QUERY, 20);
+            if ((chatRate > 0) || (gameRate > 0) || (queryRate > 0))
+                inboundRateLimiter = new InboundRateLimiter(chatRate, gameRate, queryRate);
+            inQueue.setFloodLimits
+                (inboundRateLimiter, getConfigIntProperty(PROP_JSETTLERS_CONNECTIONS_INBOUND_MAX, 10000));
+        }
+
+        if (! (test_mode_with_db || validate_config_mode))
+        {
+            final String snapDir = props.getProperty(PROP_JSETTLERS_GAMES_SNAPSHOT__DIR);
+            if ((snapDir != null) && (snapDir.trim().length() > 0))
+            {
+                phaseStart = System.nanoTime();
+                initSocServer_restoreGameSnapshots(new File(snapDir.trim()));
+                startupProfiler.phaseDone("game snapshots", phaseStart, false);
+            }
+
+            final int hibMinutes = getConfigIntProperty(PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES, 0);
+            if (hibMinutes > 0)
+            {
+                String hibDir = props.getProperty(PROP_JSETTLERS_GAMES_HIBERNATE__DIR);
+                if ((hibDir == null) || (hibDir.trim().length() == 0))
+                    hibDir = new File(System.getProperty("java.io.tmpdir"), "jsettlers-hibernate-" + port).getPath();
+                try
+                {
+                    gameHibernator = new SOCGameHibernator
+                        (new File(hibDir.trim()), gameList, handler, new SOCGameHibernator.WakeListener()
+                        {
+                            public void gameRead(final String gaName)
+                            {
+                                inQueue.post(new Runnable()
+                                {
+                                    public void run()
+                                    {
+                                        finishWakeGame(gaName);
+                                    }
+                                });
+                            }
+                        });
+                    gameHibernateIdleMillis = hibMinutes * 60L * 1000L;
+                } catch (IOException e) {
+                    System.err.println("* " + e.getMessage() + ": Games won't hibernate");
+                }
+            }
+
+            final String replayDir = props.getProperty(PROP_JSETTLERS_GAMES_REPLAY__DIR);
+            if ((replayDir != null) && (replayDir.trim().length() > 0))
+            {
+                try
+                {
+                    replayLog = new SOCReplayLog(new File(replayDir.trim()));
+                } catch (IOException e) {
+                    System.err.println("* " + e.getMessage() + ": Games won't be logged");
+                }
+            }
+        }
+
         /**
          * Start various threads.
          */
@@ -1643,10 +2208,12 @@ public class SOCServer extends Server
 
         if (! (test_mode_with_db || validate_config_mode))
         {
+            startupProfiler.ready();
             System.err.print("The server is ready.");
             if (port > 0)
                 System.err.print(" Listening on port " + port);
             System.err.println();
+            System.err.println(startupProfiler.getSummary());
 
             if (SOCDBHelper.isInitialized() && SOCDBHelper.doesSchemaUpgradeNeedBGTasks())
                 SOCDBHelper.startSchemaUpgradeBGTasks();  // includes 5-second sleep before conversions begin
@@ -1656,17 +2223,85 @@ public class SOCServer extends Server
     }
 
     /**
-     * Set some DB-related SOCServer fields and features:
-     * {@link #databaseUserAdmins} from {@link #PROP_JSETTLERS_ACCOUNTS_ADMINS},
-     * {@link #features}({@link SOCServerFeatures#FEAT_OPEN_REG}) and {@link #acctsNotOpenRegButNoUsers}
-     * from {@link #PROP_JSETTLERS_ACCOUNTS_OPEN}.
-     *<P>
-     * Prints some status messages and any problems to {@link System#err}.
-     *<P>
-     * Must not call this method until after {@link SOCDBHelper#initialize(String, String, Properties)}.
-     *
-     * @param accountsRequired  Are accounts required? Caller should check {@link #PROP_JSETTLERS_ACCOUNTS_REQUIRED}.
-     * @param wantsUpgSchema  If true, server is preparing to try to upgrade the schema and exit.
+     * Start a thread to load things which will be needed soon after startup, while
+     * {@link #initSocServer(String, String)} continues with game options and the database:
+     * The fallback server string manager for clients' text, the known scenarios, and if
+     * {@link #PROP_JSETTLERS_STARTROBOTS} &gt; 0, the robot classes. Anything the thread hasn't loaded
+     * yet is loaded as usual when first used, so this changes only when the loading happens.
+     * The server doesn't wait for this thread before it's ready.
+     * @since 2.0.00
+     */
+    private void initSocServer_startPreload()
+    {
+        final boolean wantsBots = (getConfigIntProperty(PROP_JSETTLERS_STARTROBOTS, 0) > 0);
+        final Thread th = new Thread("srv-preload")
+        {
+            public void run()
+            {
+                final long startNanos = System.nanoTime();
+                SOCStringManager.getFallbackServerManagerForClient();
+                SOCScenario.getAllKnownScenarios();
+                if (wantsBots)
+                {
+                    try
+                    {
+                        Class.forName("soc.robot.SOCRobotClient");
+                        Class.forName("soc.robot.SOCRobotBrain");
+                        Class.forName("soc.robot.SOCRobotDM");
+                        Class.forName("soc.robot.SOCPlayerTracker");
+                    }
+                    catch (Throwable th) {}  // server-only JAR; setupLocalRobots will report it
+                }
+                startupProfiler.phaseDone("preload", startNanos, true);
+            }
+        };
+        th.setDaemon(true);
+        th.start();
+    }
+
+    /**
+     * Set up {@link #gameSnapshots} for a directory, and add its saved games to {@link #gameList}.
+     * Prints the number of restored games, or any problem, to {@link System#err}.
+     * If the directory can't be used, {@link #gameSnapshots} remains {@code null}.
+     * @param dir  Snapshot directory, from {@link #PROP_JSETTLERS_GAMES_SNAPSHOT__DIR}
+     * @since 2.0.00
+     */
+    private void initSocServer_restoreGameSnapshots(final File dir)
+    {
+        try
+        {
+            gameSnapshots = new SOCGameSnapshotStore(dir, gameList);
+        } catch (IOException e) {
+            System.err.println("* " + e.getMessage() + ": Games won't be saved");
+            return;
+        }
+
+        int n = 0;
+        for (SOCGame ga : gameSnapshots.loadAll())
+        {
+            if (! gameList.addRestoredGame(ga, handler))
+                continue;
+
+            ga.setScenarioEventListener(handler);
+            ++n;
+        }
+
+        if (n > 0)
+            System.err.println("Restored " + n + " game(s) from " + dir);
+    }
+
+    /**
+     * Set some DB-related SOCServer fields and features:
+     * {@link #databaseUserAdmins} from {@link #PROP_JSETTLERS_ACCOUNTS_ADMINS},
+     * {@link #features}({@link SOCServerFeatures#FEAT_OPEN_REG}) and {@link #acctsNotOpenRegButNoUsers}
+     * from {@link #PROP_JSETTLERS_ACCOUNTS_OPEN}.
+     *<P>
+     * Prints some status messages and any problems to {@link System#err}.
+     *<P>
+     * Must not call this method until after {@link SOCDBHelper#initialize(String, String, Properties)}.
+     *
+     * @param accountsRequired  Are accounts required? Caller should check {@link #PROP_JSETTLERS_ACCOUNTS_REQUIRED}.
+     * @param wantsUpgSchema  If true, server is preparing to try to upgrade the schema and exit.
      *     Certain hint messages here won't be printed, because the server is exiting afterwards.
      * @throws IllegalArgumentException if {@link #PROP_JSETTLERS_ACCOUNTS_ADMINS} is inconsistent or empty
      * @throws SQLException  if unexpected problem with DB when calling {@link SOCDBHelper#countUsers()}
@@ -1757,6 +2392,9 @@ public class SOCServer extends Server
         if (hasUtilityModeProp)
             throw new IllegalStateException();
 
+        if (lobbyRouter != null)
+            lobbyRouter.start();
+
         /**
          * If we have any STARTROBOTS, start them up now.
          * Each bot will have its own thread and {@link SOCRobotClient}.
@@ -1767,59 +2405,75 @@ public class SOCServer extends Server
             {
                 // 0 bots is OK with the logic here
                 final int rcount = Integer.parseInt(props.getProperty(PROP_JSETTLERS_STARTROBOTS));
-                final int hcount = maxConnections - rcount;  // max human client connection count
+                final boolean isMultiplexed = getConfigBoolProperty(PROP_JSETTLERS_BOTS_MULTIPLEX, false);
+                final int hcount = (isMultiplexed)
+                    ? maxConnections
+                    : maxConnections - rcount;  // max human client connection count
                 int fast30 = (int) (0.30f * rcount);
-                boolean loadSuccess = setupLocalRobots(fast30, rcount - fast30);  // each bot gets a thread
+                final int mcount = Math.min(getConfigIntProperty(PROP_JSETTLERS_BOTS_MCTS, 0), rcount - fast30);
+                final List<String> rnames = localRobotNames(fast30, rcount - fast30 - mcount, mcount);
+                final long startNanos = System.nanoTime();
+                boolean loadSuccess = setupLocalRobots(rnames);  // each bot gets a thread
                 if (! loadSuccess)
                 {
                     System.err.println("** Cannot start robots with this JAR.");
                     System.err.println("** For robots, please use the Full JAR instead of the server-only JAR.");
                 }
-                else if ((hcount < 6) || (hcount < rcount))
+                else if (rcount > 0)
                 {
-                    new Thread() {
+                    final boolean warnHumanCount = (hcount < 6) || ((hcount < rcount) && ! isMultiplexed);
+                    int n = 0;
+                    if (numRobotOnlyGamesRemaining > 0)
+                    {
+                        n = SOCGame.MAXPLAYERS_STANDARD;
+                        if (n > rcount)
+                        {
+                            // This message is a backup: initSocServer should have already errored on this during startup.
+                            System.err.println
+                                ("** To start robot-only games, server needs at least " + n +  " robots started.");
+                            n = 0;
+                        }
+                    }
+                    final boolean wantsBotGames = (n > 0);
+                    final int waitSec = getConfigIntProperty(PROP_JSETTLERS_BOTS_BOTGAMES_WAIT__SEC, 0);
+                    if (wantsBotGames && (waitSec > 2))
+                        System.err.println("\nWaiting " + waitSec + " seconds before starting robot-only games.\n");
+
+                    // Wait for the robots to connect, then report their startup time,
+                    // warn if needed, and start any robot-only games
+                    new Thread("localrobotsready")
+                    {
                         @Override
                         public void run()
                         {
-                            try {
-                                Thread.sleep(1600);  // wait for bot-connect messages to print
-                            } catch (InterruptedException e) {}
-                            System.err.println("** Warning: Only " + hcount
-                                + " player connections available, because of the robot connections.");
-                        }
-                    }.start();
-                }
+                            final int notReady = waitForRobots(rnames, 0, LOCAL_ROBOTS_READY_WAIT_MS);
+                            final long ms = (System.nanoTime() - startNanos) / 1000000L;
+                            startupProfiler.phaseDone("robots after ready", startNanos, false);
+                            System.err.println
+                                ("Robots connected: " + (rcount - notReady) + " of " + rcount + " in " + ms + " ms"
+                                 + ((notReady == 0) ? "" : "; timed out waiting for the rest"));
+                            if (warnHumanCount)
+                                System.err.println("** Warning: Only " + hcount
+                                    + " player connections available, because of the robot connections.");
 
-                if (numRobotOnlyGamesRemaining > 0)
-                {
-                    final int n = SOCGame.MAXPLAYERS_STANDARD;
-                    if (n > rcount)
-                    {
-                        // This message is a backup: initSocServer should have already errored on this during startup.
-                        System.err.println
-                            ("** To start robot-only games, server needs at least " + n +  " robots started.");
-                    } else {
-                        final int waitSec = getConfigIntProperty(PROP_JSETTLERS_BOTS_BOTGAMES_WAIT__SEC, 0);
-                        final int waitmSec = (waitSec > 0) ? (1000 * waitSec) : 1600;
-                        if (waitSec > 2)
-                            System.err.println("\nWaiting " + waitSec + " seconds before starting robot-only games.\n");
-
-                        new Thread() {
-                            @Override
-                            public void run()
+                            if (! wantsBotGames)
+                                return;
+
+                            final long waitMore = (1000L * waitSec) - ms;
+                            if (waitMore > 0)
                             {
                                 try {
-                                    Thread.sleep(waitmSec);  // wait for bots to connect
+                                    Thread.sleep(waitMore);
                                 } catch (InterruptedException e) {}
+                            }
 
-                                if (waitSec > 2)
-                                    System.err.println
-                                        ("\nStarting robot-only games now, after waiting " + waitSec + " seconds.\n");
+                            if (waitSec > 2)
+                                System.err.println
+                                    ("\nStarting robot-only games now, after waiting " + waitSec + " seconds.\n");
 
-                                startRobotOnlyGames(false);
-                            }
-                        }.start();
-                    }
+                            startRobotOnlyGames(false);
+                        }
+                    }.start();
                 }
             }
             catch (NumberFormatException e)
@@ -1869,6 +2523,8 @@ public class SOCServer extends Server
 
     /**
      * Adds a connection to a chat channel.
+     * Sends it the channel's member list, then the channel's recent chat history if any
+     * (see {@link SOCChannelList#getHistory(String)}).
      *
      * WARNING: MUST HAVE THE channelList.takeMonitorForChannel(ch)
      * before calling this method
@@ -1887,6 +2543,8 @@ public class SOCServer extends Server
             if (! channelList.isMember(c, ch))
             {
                 c.put(SOCChannelMembers.toCmd(ch, channelList.getMembers(ch)));
+                for (String histCmd : channelList.getHistory(ch))
+                    c.put(histCmd);
                 if (D.ebugOn)
                     D.ebugPrintln("*** " + c.getData() + " joined the channel " + ch + " at "
                         + DateFormat.getTimeInstance(DateFormat.SHORT).format(new Date()));
@@ -2057,6 +2715,8 @@ public class SOCServer extends Server
                     if (ga.getClientVersionMinRequired() <= cliVers)
                     {
                         gameList.addMember(c, gaName);
+                        if (replayLog != null)
+                            replayLog.recordJoin(ga, c);
                         result = true;
                     } else {
                         cliVersOld = true;
@@ -2174,140 +2834,163 @@ public class SOCServer extends Server
             if (scd != null)
                 scd.createdGame();
 
-            // check required client version before we broadcast
-            final int cversMin = getMinConnectedCliVersion();
+            broadcastNewGame(gaName, gaOpts, gVers);
+        }
+        catch (Exception e)
+        {
+            D.ebugPrintStackTrace(e, "Exception in createGameAndBroadcast");
+        }
+        finally
+        {
+            if (! (monitorReleased || hasGameListMonitor))
+                gameList.releaseMonitor();
+        }
 
-            if ((gVers <= cversMin) && (gaOpts == null))
-            {
-                // All clients can join it, and no game options: use simplest message
-                broadcast(SOCNewGame.toCmd(gaName));
+        return newGame;
+    }
 
+    /**
+     * Announce a new game to all connected clients.
+     * Sends {@link SOCNewGameWithOptions} if {@code gaOpts != null}, {@link SOCNewGame} otherwise.
+     * If some connected clients are older than {@code gVers}, the message sent to those older clients will
+     * let them know they can't connect to the new game.
+     *<P>
+     * Called from {@link #createGameAndBroadcast(Connection, String, Map, int, boolean, boolean)}.
+     * A lobby also calls it for games hosted by its game servers; see {@link SOCLobbyRouter}.
+     *<P>
+     * <b>Locks:</b> Caller should not hold {@link SOCGameList#takeMonitor()}.
+     *
+     * @param gaName  the name of the new game
+     * @param gaOpts  the game's {@link SOCGameOption}s, or null
+     * @param gVers  Game's minimum version, from
+     *                {@link SOCVersionedItem#itemsMinimumVersion(Map) SOCVersionedItem.itemsMinimumVersion}
+     *                {@code (gaOpts)}, or -1 if null gaOpts
+     * @since 2.0.00
+     */
+    void broadcastNewGame(final String gaName, final Map<String, SOCGameOption> gaOpts, final int gVers)
+    {
+        // check required client version before we broadcast
+        final int cversMin = getMinConnectedCliVersion();
+
+        if ((gVers <= cversMin) && (gaOpts == null))
+        {
+            // All clients can join it, and no game options: use simplest message
+            broadcast(SOCNewGame.toCmd(gaName));
+
+        } else {
+            // Send messages, based on clients' version
+            // and whether there are game options.
+
+            // Client version variables:
+            // cversMax: maximum version connected to server
+            // cversMin: minimum version connected to server
+            // VERSION_FOR_NEWGAMEWITHOPTIONS: minimum to understand game options
+
+            // Game version variables:
+            // gVersMinGameOptsNoChange: minimum to understand these game options
+            //           without backwards-compatibility changes to their values
+            // gVers: minimum to play the game
+
+            final int gVersMinGameOptsNoChange;
+            if (cversMin < Version.versionNumber())
+                gVersMinGameOptsNoChange = SOCVersionedItem.itemsMinimumVersion(gaOpts, true);
+            else
+                gVersMinGameOptsNoChange = -1;  // all clients are our current version
+
+            if ((cversMin >= gVersMinGameOptsNoChange)
+                && (cversMin >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS))
+            {
+                // All cli can understand msg with version/options included
+                broadcast
+                    (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2));
             } else {
-                // Send messages, based on clients' version
-                // and whether there are game options.
-
-                // Client version variables:
-                // cversMax: maximum version connected to server
-                // cversMin: minimum version connected to server
-                // VERSION_FOR_NEWGAMEWITHOPTIONS: minimum to understand game options
-
-                // Game version variables:
-                // gVersMinGameOptsNoChange: minimum to understand these game options
-                //           without backwards-compatibility changes to their values
-                // gVers: minimum to play the game
-
-                final int gVersMinGameOptsNoChange;
-                if (cversMin < Version.versionNumber())
-                    gVersMinGameOptsNoChange = SOCVersionedItem.itemsMinimumVersion(gaOpts, true);
-                else
-                    gVersMinGameOptsNoChange = -1;  // all clients are our current version
+                // Only some can understand msg with version/options included;
+                // send at most 1 message to each connected client, split by client version.
+                // Send the old simple NEWGAME message to connected clients of version
+                // newgameSimpleMsgMaxCliVers and lower.  If no game options, send that
+                // message type to all clients.
 
-                if ((cversMin >= gVersMinGameOptsNoChange)
-                    && (cversMin >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS))
-                {
-                    // All cli can understand msg with version/options included
-                    broadcast
-                        (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2));
-                } else {
-                    // Only some can understand msg with version/options included;
-                    // send at most 1 message to each connected client, split by client version.
-                    // Send the old simple NEWGAME message to connected clients of version
-                    // newgameSimpleMsgMaxCliVers and lower.  If no game options, send that
-                    // message type to all clients.
+                final int cversMax = getMaxConnectedCliVersion();
+                final int newgameSimpleMsgMaxCliVers;  // max version to get simple no-opts newgame message
 
-                    final int cversMax = getMaxConnectedCliVersion();
-                    final int newgameSimpleMsgMaxCliVers;  // max version to get simple no-opts newgame message
+                if ((gaOpts != null) && (cversMax >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS))
+                {
+                    // Announce to the connected clients with versions new enough for game options:
 
-                    if ((gaOpts != null) && (cversMax >= SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS))
+                    if ((cversMin < gVersMinGameOptsNoChange)  // client versions are connected
+                        && (gVers < gVersMinGameOptsNoChange)) // able to play, but needs value changes
                     {
-                        // Announce to the connected clients with versions new enough for game options:
-
-                        if ((cversMin < gVersMinGameOptsNoChange)  // client versions are connected
-                            && (gVers < gVersMinGameOptsNoChange)) // able to play, but needs value changes
+                        // Some clients' versions are too old to understand these game
+                        // option values without change; send them an altered set for
+                        // compatibility with those clients.
+
+                        // Since cversMin < gVersMinGameOptsNoChange,
+                        //   we know gVersMinGameOptsNoChange > -1 and thus >= 1107.
+                        // cversMax and VERSION_FOR_NEWGAMEWITHOPTIONS are also 1107.
+                        // So:
+                        //  1107 <= cversMax
+                        //  gVers < gVersMinGameOptsNoChange
+                        //  1107 <= gVersMinGameOptsNoChange
+
+                        // Loop through "joinable" client versions < gVersMinGameOptsNoChange.
+                        // A separate message is sent below to clients < gVers.
+                        int cv = cversMin;  // start loop with min cli version
+                        if (gVers > cv)
+                            cv = gVers;  // game version is higher, start there
+
+                        for ( ; cv < gVersMinGameOptsNoChange; ++cv)
                         {
-                            // Some clients' versions are too old to understand these game
-                            // option values without change; send them an altered set for
-                            // compatibility with those clients.
-
-                            // Since cversMin < gVersMinGameOptsNoChange,
-                            //   we know gVersMinGameOptsNoChange > -1 and thus >= 1107.
-                            // cversMax and VERSION_FOR_NEWGAMEWITHOPTIONS are also 1107.
-                            // So:
-                            //  1107 <= cversMax
-                            //  gVers < gVersMinGameOptsNoChange
-                            //  1107 <= gVersMinGameOptsNoChange
-
-                            // Loop through "joinable" client versions < gVersMinGameOptsNoChange.
-                            // A separate message is sent below to clients < gVers.
-                            int cv = cversMin;  // start loop with min cli version
-                            if (gVers > cv)
-                                cv = gVers;  // game version is higher, start there
-
-                            for ( ; cv < gVersMinGameOptsNoChange; ++cv)
-                            {
-                                if (isCliVersionConnected(cv))
-                                    broadcastToVers
-                                      (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, cv),
-                                       cv, cv);
-                            }
-                            // Now send to newer clients, no changes needed
-                            broadcastToVers
-                              (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2),
-                               gVersMinGameOptsNoChange, Integer.MAX_VALUE);
-                        } else {
-                            // No clients need backwards-compatible option value changes.
-                            broadcastToVers
-                              (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2),
-                               SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS, Integer.MAX_VALUE);
+                            if (isCliVersionConnected(cv))
+                                broadcastToVers
+                                  (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, cv),
+                                   cv, cv);
                         }
-
-                        // Simple announcement will go only to
-                        // clients too old to understand NEWGAMEWITHOPTIONS
-                        newgameSimpleMsgMaxCliVers = SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS - 1;
+                        // Now send to newer clients, no changes needed
+                        broadcastToVers
+                          (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2),
+                           gVersMinGameOptsNoChange, Integer.MAX_VALUE);
                     } else {
-
-                        // Game has no opts, or no clients are new enough for opts;
-                        // simple announcement will go to all clients
-                        newgameSimpleMsgMaxCliVers = Integer.MAX_VALUE;
+                        // No clients need backwards-compatible option value changes.
+                        broadcastToVers
+                          (SOCNewGameWithOptions.toCmd(gaName, gaOpts, gVers, -2),
+                           SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS, Integer.MAX_VALUE);
                     }
 
-                    // "Simple" announcement message without game options:
-                    final int newgameSimpleMsgCantJoinVers;  // narrow down the versions for announcement
-                    if (gVers <= newgameSimpleMsgMaxCliVers)
-                    {
-                        // To older clients who can join, announce game without its options/version
-                        broadcastToVers(SOCNewGame.toCmd(gaName), gVers, newgameSimpleMsgMaxCliVers);
-                        newgameSimpleMsgCantJoinVers = gVers - 1;
-                    } else {
-                        // No older clients can join.  This game's already been announced to
-                        // some clients (new enough for NEWGAMEWITHOPTIONS).
-                        newgameSimpleMsgCantJoinVers = newgameSimpleMsgMaxCliVers;
-                    }
+                    // Simple announcement will go only to
+                    // clients too old to understand NEWGAMEWITHOPTIONS
+                    newgameSimpleMsgMaxCliVers = SOCNewGameWithOptions.VERSION_FOR_NEWGAMEWITHOPTIONS - 1;
+                } else {
 
-                    // To older clients who can't join, announce game with cant-join prefix
-                    if (cversMin <= newgameSimpleMsgCantJoinVers)
-                    {
-                        StringBuffer sb = new StringBuffer();
-                        sb.append(SOCGames.MARKER_THIS_GAME_UNJOINABLE);
-                        sb.append(gaName);
-                        broadcastToVers
-                            (SOCNewGame.toCmd(sb.toString()),
-                             SOCGames.VERSION_FOR_UNJOINABLE, newgameSimpleMsgCantJoinVers);
-                    }
+                    // Game has no opts, or no clients are new enough for opts;
+                    // simple announcement will go to all clients
+                    newgameSimpleMsgMaxCliVers = Integer.MAX_VALUE;
+                }
+
+                // "Simple" announcement message without game options:
+                final int newgameSimpleMsgCantJoinVers;  // narrow down the versions for announcement
+                if (gVers <= newgameSimpleMsgMaxCliVers)
+                {
+                    // To older clients who can join, announce game without its options/version
+                    broadcastToVers(SOCNewGame.toCmd(gaName), gVers, newgameSimpleMsgMaxCliVers);
+                    newgameSimpleMsgCantJoinVers = gVers - 1;
+                } else {
+                    // No older clients can join.  This game's already been announced to
+                    // some clients (new enough for NEWGAMEWITHOPTIONS).
+                    newgameSimpleMsgCantJoinVers = newgameSimpleMsgMaxCliVers;
+                }
+
+                // To older clients who can't join, announce game with cant-join prefix
+                if (cversMin <= newgameSimpleMsgCantJoinVers)
+                {
+                    StringBuffer sb = new StringBuffer();
+                    sb.append(SOCGames.MARKER_THIS_GAME_UNJOINABLE);
+                    sb.append(gaName);
+                    broadcastToVers
+                        (SOCNewGame.toCmd(sb.toString()),
+                         SOCGames.VERSION_FOR_UNJOINABLE, newgameSimpleMsgCantJoinVers);
                 }
             }
         }
-        catch (Exception e)
-        {
-            D.ebugPrintStackTrace(e, "Exception in createGameAndBroadcast");
-        }
-        finally
-        {
-            if (! (monitorReleased || hasGameListMonitor))
-                gameList.releaseMonitor();
-        }
-
-        return newGame;
     }
 
     /**
@@ -2350,6 +3033,31 @@ public class SOCServer extends Server
         gameList.removeMember(c, gm);
 
         SOCGame ga = gameList.getGameData(gm);
+        if ((ga == null) && (gameHibernator != null) && gameHibernator.isHibernated(gm))
+        {
+            // Hibernated game's members are all humans. If none are left, destroy it as if awake;
+            // otherwise wake it, and then its handler can deal with the leaving player
+            if (gameList.isGameEmpty(gm))
+            {
+                if (destroyIfEmpty)
+                    destroyGameWithLock(gm, gameListLock);
+
+                return true;  // <---- Early return: hibernated and empty ----
+            }
+
+            final Connection leavingConn = c;
+            final String gaName = gm;
+            if (wakeGameThen(gm, new Runnable()
+                {
+                    public void run()
+                    {
+                        leaveWokenGame(leavingConn, gaName);
+                    }
+                }))
+                return false;  // <---- Early return: will leave when woken ----
+
+            ga = gameList.getGameData(gm);  // was woken just now
+        }
         if (ga == null)
         {
             return false;  // <---- Early return: no game ----
@@ -2370,33 +3078,89 @@ public class SOCServer extends Server
              * if the game has no players, or if they're all
              * robots, then end the game and update stats.
              */
-            if (gameListLock)
+            destroyGameWithLock(gm, gameListLock);
+        }
+
+        //D.ebugPrintln("*** gameDestroyed = "+gameDestroyed+" for "+gm);
+        return gameDestroyed;
+    }
+
+    /**
+     * A member left a hibernated game, which has now been woken by {@link #wakeGameThen(String, Runnable)}:
+     * Let its handler deal with the leaving player, as {@link #leaveGame(Connection, String, boolean, boolean)}
+     * does for an awake game, and destroy the game and broadcast its deletion if no humans are left.
+     * Called in the {@link InboundMessageQueue} Treater thread.
+     *<P>
+     * <B>Locks:</B> Takes and releases {@link SOCGameList#takeMonitorForGame(String) gameList.takeMonitorForGame(gm)}.
+     *
+     * @param c  The connection which left; no longer a member of the game
+     * @param gm  The game
+     * @since 2.0.00
+     */
+    private void leaveWokenGame(final Connection c, final String gm)
+    {
+        boolean gameDestroyed = false;
+        gameList.takeMonitorForGame(gm);
+        try
+        {
+            final SOCGame ga = gameList.getGameData(gm);
+            if (ga == null)
+                return;  // couldn't be woken, or destroyed meanwhile
+
+            final GameHandler hand = gameList.getGameTypeHandler(gm);
+            gameDestroyed = (hand == null) || hand.leaveGame(ga, c) || gameList.isGameEmpty(gm);
+        }
+        catch (Exception e)
+        {
+            D.ebugPrintStackTrace(e, "Exception in leaveWokenGame");
+        }
+        finally
+        {
+            gameList.releaseMonitorForGame(gm);
+        }
+
+        if (gameDestroyed)
+            destroyGameAndBroadcast(gm, "leaveWokenGame");
+    }
+
+    /**
+     * Destroy a game for {@link #leaveGame(Connection, String, boolean, boolean)},
+     * taking the game list lock if needed.
+     * @param gm  Name of the game to destroy
+     * @param gameListLock  true if we have the {@link SOCGameList#takeMonitor()} lock when called;
+     *           false if it must be acquired and released within this method
+     * @since 2.0.00
+     */
+    private void destroyGameWithLock(final String gm, final boolean gameListLock)
+    {
+        if (gameListLock)
+        {
+            destroyGame(gm);
+        }
+        else
+        {
+            gameList.takeMonitor();
+
+            try
             {
                 destroyGame(gm);
             }
-            else
+            catch (Exception e)
             {
-                gameList.takeMonitor();
-
-                try
-                {
-                    destroyGame(gm);
-                }
-                catch (Exception e)
-                {
-                    D.ebugPrintStackTrace(e, "Exception in leaveGame (destroyGame)");
-                }
-
-                gameList.releaseMonitor();
+                D.ebugPrintStackTrace(e, "Exception in leaveGame (destroyGame)");
             }
-        }
 
-        //D.ebugPrintln("*** gameDestroyed = "+gameDestroyed+" for "+gm);
-        return gameDestroyed;
+            gameList.releaseMonitor();
+        }
     }
 
     /**
-     * shuffle the indexes to distribute load among {@link #robots}
+     * Shuffle the indexes to distribute load among {@link #robots}.
+     *<P>
+     * In v2.0.00 and newer, bots which have reported being busier in their {@link SOCRobotStats}
+     * are then moved later in the array: See {@link #robotLoadLevel(Connection)}.
+     * Bots at the same load level keep their shuffled order.
+     *
      * @return a shuffled array of robot indexes, from 0 to ({@link #robots}.size() - 1)
      * @since 1.1.06
      */
@@ -2420,9 +3184,42 @@ public class SOCServer extends Server
                 robotIndexes[i] = tmp;
             }
         }
+
+        // Stable insertion sort by load level; usually all are 0 and nothing moves
+        final int[] levels = new int[robotIndexes.length];
+        for (int i = 0; i < robotIndexes.length; i++)
+        {
+            final int idx = robotIndexes[i], level = robotLoadLevel(robots.get(idx));
+            int j = i;
+            for (; (j > 0) && (levels[j - 1] > level); --j)
+            {
+                levels[j] = levels[j - 1];
+                robotIndexes[j] = robotIndexes[j - 1];
+            }
+            levels[j] = level;
+            robotIndexes[j] = idx;
+        }
+
         return robotIndexes;
     }
 
+    /**
+     * Get a robot's load level from its most recent {@link SOCRobotStats}, for {@link #robotShuffleForJoin()}.
+     * The level is the bot's recent {@link SOCRobotStats#IDX_THINK_PCT think percentage} / 25,
+     * coarse enough that new games don't all go to the single least-busy bot
+     * between its stats reports, which are sent every few minutes.
+     * @param robotConn  Robot's connection
+     * @return  Load level, or 0 if bot hasn't sent stats
+     * @since 2.0.00
+     */
+    private static int robotLoadLevel(final Connection robotConn)
+    {
+        final SOCClientData cd = (SOCClientData) robotConn.getAppData();
+        final SOCRobotStats st = (cd != null) ? cd.robotStats : null;
+
+        return (st != null) ? (st.getStat(SOCRobotStats.IDX_THINK_PCT) / 25) : 0;
+    }
+
     /**
      * Set up some robot opponents, running in our JVM for operator convenience.
      * Set up more than needed; when a game is started, game setup will
@@ -2432,6 +3229,8 @@ public class SOCServer extends Server
      * The bots will start up and connect in separate threads, then be given their
      * {@code FAST} or {@code SMART} strategy params in {@link #handleIMAROBOT(Connection, SOCImARobot)}
      * based on their name prefixes ("droid " or "robot " respectively).
+     * Up to {@link #LOCAL_ROBOTS_STARTING_MAX} bots connect at once; the rest are started in another thread
+     * as those connect. Returns without waiting for them; see {@link #waitForRobots(List, int, long)}.
      *<P>
      * In v1.2.00 and newer, human players can't use names with bot prefixes "droid " or "robot ":
      * see {@link #checkNickname(String, Connection, boolean, boolean)}.
@@ -2447,112 +3246,476 @@ public class SOCServer extends Server
      * @see soc.client.SOCPlayerClient.GameAwtDisplay#startLocalTCPServer(int)
      * @see #startRobotOnlyGames(boolean)
      * @see SOCLocalRobotClient
+     * @see #setupLocalRobots(int, int, int)
      * @since 1.1.00
      */
     public boolean setupLocalRobots(final int numFast, final int numSmart)
     {
+        return setupLocalRobots(numFast, numSmart, 0);
+    }
+
+    /**
+     * Set up some robot opponents, including some which use Monte Carlo tree search.
+     * Same as {@link #setupLocalRobots(int, int)}, then also starts {@code numMCTS} robots
+     * named with prefix "robot mcts ", which {@link SOCDBHelper#retrieveRobotParams(String, boolean)}
+     * gives {@link #ROBOT_PARAMS_MCTS}.
+     *
+     * @param numFast number of fast robots, with {@link soc.robot.SOCRobotDM#FAST_STRATEGY FAST_STRATEGY}
+     * @param numSmart number of smart robots, with {@link soc.robot.SOCRobotDM#SMART_STRATEGY SMART_STRATEGY}
+     * @param numMCTS number of MCTS robots, with {@link soc.robot.SOCRobotDM#MCTS_STRATEGY MCTS_STRATEGY}
+     * @return True if robots were set up, false if an exception occurred
+     * @see #PROP_JSETTLERS_BOTS_MCTS
+     * @since 2.0.00
+     */
+    public boolean setupLocalRobots(final int numFast, final int numSmart, final int numMCTS)
+    {
+        return setupLocalRobots(localRobotNames(numFast, numSmart, numMCTS));
+    }
+
+    /**
+     * Name some local robots for {@link #setupLocalRobots(List)}.
+     * See {@link #setupLocalRobots(int, int, int)} for parameters.
+     * @return  Names of the fast robots, then the smart ones, then the MCTS ones
+     * @since 2.0.00
+     */
+    private static List<String> localRobotNames(final int numFast, final int numSmart, final int numMCTS)
+    {
+        final List<String> rnames = new ArrayList<String>();
+
+        // Make some faster ones first.
+        for (int i = 0; i < numFast; ++i)
+            rnames.add("droid " + (i+1));
+
+        // Make a few smarter ones now:
+        // handleIMAROBOT will give them SOCServer.ROBOT_PARAMS_SMARTER
+        // based on their name prefixes being "robot " not "droid ".
+
+        for (int i = 0; i < numSmart; ++i)
+            rnames.add("robot " + (i+1+numFast));
+
+        for (int i = 0; i < numMCTS; ++i)
+            rnames.add("robot mcts " + (i+1+numFast+numSmart));
+
+        return rnames;
+    }
+
+    /**
+     * Set up these local robots; see {@link #setupLocalRobots(int, int, int)}.
+     * Their names are added to {@link #localRobotsPending} until they connect.
+     * @param rnames  Names of the robots, from {@link #localRobotNames(int, int, int)}; contents must not change
+     * @return True if robots were set up, false if an exception occurred
+     * @since 2.0.00
+     */
+    private boolean setupLocalRobots(final List<String> rnames)
+    {
+        synchronized (robots)
+        {
+            localRobotsPending.addAll(rnames);
+        }
+
         try
         {
-            // Make some faster ones first.
-            for (int i = 0; i < numFast; ++i)
+            if (getConfigBoolProperty(PROP_JSETTLERS_BOTS_MULTIPLEX, false))
             {
-                String rname = "droid " + (i+1);
-                SOCLocalRobotClient.createAndStartRobotClientThread(rname, strSocketName, port, robotCookie);
-                    // includes yield() and sleep(75 ms) this thread.
-            }
-
-            // Make a few smarter ones now:
-            // handleIMAROBOT will give them SOCServer.ROBOT_PARAMS_SMARTER
-            // based on their name prefixes being "robot " not "droid ".
+                SOCLocalRobotClient.createAndStartRobotHost(rnames, strSocketName, port, robotCookie);
+            } else {
+                // Start the first few now; this also checks that the robot classes can be loaded.
+                // The rest start as earlier ones connect, so the listen backlog won't overflow.
+                final int n = Math.min(rnames.size(), LOCAL_ROBOTS_STARTING_MAX);
+                for (int i = 0; i < n; ++i)
+                    SOCLocalRobotClient.createAndStartRobotClientThread(rnames.get(i), strSocketName, port, robotCookie);
 
-            for (int i = 0; i < numSmart; ++i)
-            {
-                String rname = "robot " + (i+1+numFast);
-                SOCLocalRobotClient.createAndStartRobotClientThread(rname, strSocketName, port, robotCookie);
-                    // includes yield() and sleep(75 ms) this thread.
+                if (n < rnames.size())
+                {
+                    final Thread starter = new Thread("localrobotstarter")
+                    {
+                        public void run()
+                        {
+                            try
+                            {
+                                for (int i = n; i < rnames.size(); ++i)
+                                {
+                                    // Wait until fewer than the max of those already started are still connecting
+                                    waitForRobots
+                                        (rnames.subList(0, i), LOCAL_ROBOTS_STARTING_MAX - 1, LOCAL_ROBOT_CONNECT_WAIT_MS);
+                                    SOCLocalRobotClient.createAndStartRobotClientThread
+                                        (rnames.get(i), strSocketName, port, robotCookie);
+                                }
+                            }
+                            catch (ClassNotFoundException e) {}  // unlikely: first robots loaded the same classes
+                        }
+                    };
+                    starter.setDaemon(true);
+                    starter.start();
+                }
             }
         }
         catch (Exception e)
         {
             //TODO: log
+            clearLocalRobotsPending(rnames);
             return false;
         }
         catch (LinkageError e)
         {
             // Packaging error, robot classes not included in JAR
+            clearLocalRobotsPending(rnames);
             return false;
         }
 
-        return true;
+        return true;
+    }
+
+    /**
+     * Stop waiting for these local robots, which couldn't be started: Remove them from {@link #localRobotsPending}.
+     * @param rnames  Robot names
+     * @since 2.0.00
+     */
+    private void clearLocalRobotsPending(final List<String> rnames)
+    {
+        synchronized (robots)
+        {
+            localRobotsPending.removeAll(rnames);
+            robots.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until all but {@code maxPending} of these local robots have connected to the server, or until a timeout.
+     * Robots are counted by name when they've authenticated, so other bots connecting or reconnecting
+     * meanwhile don't affect the wait. Once a robot has connected it's counted, even if it later disconnects.
+     * Must not be called from the server's main thread before it's accepting connections,
+     * or from the Treater thread which authenticates robots.
+     * @param rnames  Names of robots started by {@link #setupLocalRobots(List)}; contents must not change
+     * @param maxPending  Maximum number of those robots which may still be connecting; 0 to wait for all
+     * @param timeoutMillis  Maximum time to wait, in milliseconds
+     * @return  The number of those robots which haven't yet connected: At most {@code maxPending},
+     *     or more if timed out first
+     * @see #setupLocalRobots(int, int, int)
+     * @since 2.0.00
+     */
+    int waitForRobots(final List<String> rnames, final int maxPending, final long timeoutMillis)
+    {
+        final long until = System.currentTimeMillis() + timeoutMillis;
+        synchronized (robots)
+        {
+            long now;
+            for (;;)
+            {
+                int pending = 0;
+                for (final String rname : rnames)
+                    if (localRobotsPending.contains(rname))
+                        ++pending;
+
+                if ((pending <= maxPending) || ((now = System.currentTimeMillis()) >= until))
+                    return pending;
+
+                try
+                {
+                    robots.wait(until - now);
+                }
+                catch (InterruptedException e)
+                {
+                    return pending;
+                }
+            }
+        }
+    }
+
+    /**
+     * Destroy a game and clean up related data, such as the owner's count of
+     * {@link SOCClientData#getCurrentCreatedGames()}.
+     *<P>
+     * Note that if this game had the {@link SOCGame#isBotsOnly} flag, and {@link #numRobotOnlyGamesRemaining} &gt; 0,
+     *  will call {@link #startRobotOnlyGames(boolean)}.
+     *<P>
+     * <B>Locks:</B> Must have {@link #gameList}{@link SOCGameList#takeMonitor() .takeMonitor()}
+     * before calling this method.
+     *
+     * @param gm  Name of the game to destroy
+     * @see #leaveGame(Connection, String, boolean, boolean)
+     * @see #destroyGameAndBroadcast(String, String)
+     */
+    public void destroyGame(String gm)
+    {
+        //D.ebugPrintln("***** destroyGame("+gm+")");
+        SOCGame cg = null;
+
+        cg = gameList.getGameData(gm);
+        if (cg == null)
+        {
+            if (gameHibernator != null)
+                destroyHibernatedGame(gm);
+
+            return;
+        }
+
+        final boolean wasBotsOnly = cg.isBotsOnly;
+
+        ///
+        /// write out game data
+        ///
+
+        /*
+           currentGameEventRecord.setSnapshot(cg);
+           saveCurrentGameEventRecord(gm);
+           SOCGameRecord gr = (SOCGameRecord)gameRecords.get(gm);
+           writeGameRecord(gm, gr);
+         */
+
+        ///
+        /// delete the game from gamelist,
+        /// tell all robots to leave
+        ///
+        Vector<Connection> members = null;
+        members = gameList.getMembers(gm);
+
+        if (replayLog != null)
+            replayLog.endGame(gm, cg.getGameState());
+        gameList.deleteGame(gm);  // also calls SOCGame.destroyGame
+        if (gameSnapshots != null)
+            gameSnapshots.delete(gm);
+
+        if (members != null)
+        {
+            Enumeration<Connection> conEnum = members.elements();
+
+            while (conEnum.hasMoreElements())
+            {
+                Connection con = conEnum.nextElement();
+                con.put(SOCRobotDismiss.toCmd(gm));
+            }
+        }
+
+        // Reduce the owner's games-active count
+        final String gaOwner = cg.getOwner();
+        if (gaOwner != null)
+        {
+            Connection oConn = conns.get(gaOwner);
+            if (oConn != null)
+                ((SOCClientData) oConn.getAppData()).deletedGame();
+        }
+
+        if (wasBotsOnly && (numRobotOnlyGamesRemaining > 0))
+            startRobotOnlyGames(true);
+    }
+
+    /**
+     * Destroy a hibernated game without waking it, for {@link #destroyGame(String)}.
+     * Its members are all humans, so no robots need to be dismissed.
+     * If the game isn't hibernated, does nothing.
+     *<P>
+     * <B>Locks:</B> Must have {@link #gameList}{@link SOCGameList#takeMonitor() .takeMonitor()}
+     * before calling this method.
+     *
+     * @param gm  Name of the game to destroy
+     * @since 2.0.00
+     */
+    private void destroyHibernatedGame(final String gm)
+    {
+        final SOCGameHibernator.Stub st = gameHibernator.discard(gm);
+        if (st == null)
+            return;
+
+        if (replayLog != null)
+            replayLog.endGame(gm, st.gameState);
+        gameList.deleteGame(gm);
+        if (gameSnapshots != null)
+            gameSnapshots.delete(gm);
+
+        if (st.owner != null)
+        {
+            Connection oConn = conns.get(st.owner);
+            if (oConn != null)
+                ((SOCClientData) oConn.getAppData()).deletedGame();
+        }
+    }
+
+    /**
+     * Hibernate a game if it's still idle: Serialize it for the hibernator to write to disk in its own thread,
+     * remove its data from {@link #gameList}, and dismiss its robots. Its human members stay members,
+     * and see no change until it's woken by {@link #wakeGameThen(String, Runnable)}.
+     * Called in the {@link InboundMessageQueue} Treater thread, so no message for the game is being handled
+     * at the same time.
+     *<P>
+     * <B>Locks:</B> Takes and releases {@link SOCGameList#takeMonitorForGame(String) gameList.takeMonitorForGame(gaName)}.
+     *
+     * @param gaName  Game name
+     * @see #checkForExpiredGames(long)
+     * @since 2.0.00
+     */
+    void hibernateGame(final String gaName)
+    {
+        if (! gameList.takeMonitorForGame(gaName))
+            return;
+
+        try
+        {
+            final SOCGame ga = gameList.getGameData(gaName);
+            if ((ga == null) || ! canHibernateGame(ga, System.currentTimeMillis()))
+                return;
+
+            final List<Connection> bots = new ArrayList<Connection>();
+            for (final Connection mc : gameList.getMembers(gaName))
+                if (((SOCClientData) mc.getAppData()).isRobot)
+                    bots.add(mc);
+
+            if (! gameHibernator.hibernate(ga))
+                return;
+
+            // Robots aren't members of hibernated games, so their LEAVEGAMEs won't wake it
+            for (final Connection bc : bots)
+            {
+                gameList.removeMember(bc, gaName);
+                bc.put(SOCRobotDismiss.toCmd(gaName));
+            }
+        }
+        catch (Exception e)
+        {
+            D.ebugPrintStackTrace(e, "Exception in hibernateGame");
+        }
+        finally
+        {
+            gameList.releaseMonitorForGame(gaName);
+        }
+    }
+
+    /**
+     * Can this game be hibernated now? True if it's had no activity for
+     * {@link #PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES}, won't expire soon, and is either not started yet,
+     * or waiting for a human current player in state {@link SOCGame#ROLL_OR_CARD} or {@link SOCGame#PLAY1}
+     * with no robot joins, robot dismissals, or board reset vote in progress.
+     * Practice games and robot-only games aren't hibernated.
+     * @param ga  Game to check
+     * @param currentTimeMillis  The current time, from {@link System#currentTimeMillis()}
+     * @return  True if {@code ga} can be hibernated
+     * @since 2.0.00
+     */
+    private boolean canHibernateGame(final SOCGame ga, final long currentTimeMillis)
+    {
+        if ((gameHibernator == null) || ga.isPractice || ga.isBotsOnly
+            || ((currentTimeMillis - ga.lastActionTime) < gameHibernateIdleMillis)
+            || ((ga.getExpiration() - currentTimeMillis) <= (3 + GAME_TIME_EXPIRE_WARN_MINUTES) * 60L * 1000L))
+            return false;
+
+        final String gaName = ga.getName();
+        if (robotJoinRequests.containsKey(gaName) || robotDismissRequests.containsKey(gaName)
+            || ga.getResetVoteActive() || (ga.boardResetOngoingInfo != null))
+            return false;
+
+        final int gstate = ga.getGameState();
+        if (gstate == SOCGame.NEW)
+            return true;
+        if ((gstate != SOCGame.ROLL_OR_CARD) && (gstate != SOCGame.PLAY1))
+            return false;
+
+        final int cpn = ga.getCurrentPlayerNumber();
+        return (cpn >= 0) && ! (ga.isSeatVacant(cpn) || ga.getPlayer(cpn).isRobot());
+    }
+
+    /**
+     * If this game is hibernated, start waking it. Its file is read in the hibernator's I/O thread,
+     * not the caller's; then in the {@link InboundMessageQueue} Treater thread, {@link #finishWakeGame(String)}
+     * puts it back into {@link #gameList}, asks robots to fill the seats which robots held,
+     * and runs {@code then}. Until then the game is still hibernated and its data isn't in {@link #gameList}.
+     *<P>
+     * Called when a member of a hibernated game sends a message for it or leaves it, or someone joins it.
+     *
+     * @param gaName  Game name
+     * @param then  Runnable to run in the Treater thread after the game is woken or couldn't be read, or {@code null}.
+     *     If the game couldn't be read it stays hibernated, so {@code then} shouldn't try to wake it again.
+     * @return  True if the game is hibernated and {@code then} will be run later;
+     *     false if not hibernated, in which case {@code then} isn't run
+     * @see #hibernateGame(String)
+     * @see #wakeGamesThen(List, Runnable)
+     * @since 2.0.00
+     */
+    boolean wakeGameThen(final String gaName, final Runnable then)
+    {
+        return (gameHibernator != null) && gameHibernator.wake(gaName, then);
+    }
+
+    /**
+     * Wake each of these games which is hibernated, one after another, then run {@code then}.
+     * See {@link #wakeGameThen(String, Runnable)}.
+     * @param gaNames  Game names; contents must not change
+     * @param then  Runnable to run in the Treater thread after the games are woken or couldn't be read; not null
+     * @return  True if any game is hibernated and {@code then} will be run later;
+     *     false if none are hibernated, in which case {@code then} isn't run
+     * @since 2.0.00
+     */
+    boolean wakeGamesThen(final List<String> gaNames, final Runnable then)
+    {
+        for (int i = 0; i < gaNames.size(); ++i)
+        {
+            final List<String> rest = gaNames.subList(i + 1, gaNames.size());
+            if (wakeGameThen(gaNames.get(i), new Runnable()
+                {
+                    public void run()
+                    {
+                        if (! wakeGamesThen(rest, then))
+                            then.run();
+                    }
+                }))
+                return true;
+        }
+
+        return false;
     }
 
     /**
-     * Destroy a game and clean up related data, such as the owner's count of
-     * {@link SOCClientData#getCurrentCreatedGames()}.
-     *<P>
-     * Note that if this game had the {@link SOCGame#isBotsOnly} flag, and {@link #numRobotOnlyGamesRemaining} &gt; 0,
-     *  will call {@link #startRobotOnlyGames(boolean)}.
+     * Finish waking a game after the hibernator's I/O thread has read it: Put it back into {@link #gameList},
+     * tell its members that the robots which held seats have left and ask robots to fill those seats,
+     * as when a player leaves during a game. Then run the {@code then} runnables given to
+     * {@link #wakeGameThen(String, Runnable)} for this game, even if it couldn't be read.
+     * Called in the {@link InboundMessageQueue} Treater thread.
      *<P>
-     * <B>Locks:</B> Must have {@link #gameList}{@link SOCGameList#takeMonitor() .takeMonitor()}
-     * before calling this method.
+     * <B>Locks:</B> Takes and releases {@link SOCGameList#takeMonitorForGame(String) gameList.takeMonitorForGame(gaName)}
+     * if robots held seats.
      *
-     * @param gm  Name of the game to destroy
-     * @see #leaveGame(Connection, String, boolean, boolean)
-     * @see #destroyGameAndBroadcast(String, String)
+     * @param gaName  Game name
+     * @since 2.0.00
      */
-    public void destroyGame(String gm)
+    private void finishWakeGame(final String gaName)
     {
-        //D.ebugPrintln("***** destroyGame("+gm+")");
-        SOCGame cg = null;
-
-        cg = gameList.getGameData(gm);
-        if (cg == null)
-            return;
-
-        final boolean wasBotsOnly = cg.isBotsOnly;
-
-        ///
-        /// write out game data
-        ///
-
-        /*
-           currentGameEventRecord.setSnapshot(cg);
-           saveCurrentGameEventRecord(gm);
-           SOCGameRecord gr = (SOCGameRecord)gameRecords.get(gm);
-           writeGameRecord(gm, gr);
-         */
-
-        ///
-        /// delete the game from gamelist,
-        /// tell all robots to leave
-        ///
-        Vector<Connection> members = null;
-        members = gameList.getMembers(gm);
-
-        gameList.deleteGame(gm);  // also calls SOCGame.destroyGame
+        final Map<Integer, String> botSeats = new TreeMap<Integer, String>();
+        final List<Runnable> waiters = new ArrayList<Runnable>();
+        final SOCGame ga = gameHibernator.finishWake(gaName, botSeats, waiters);
 
-        if (members != null)
+        if ((ga != null) && ! botSeats.isEmpty())
         {
-            Enumeration<Connection> conEnum = members.elements();
-
-            while (conEnum.hasMoreElements())
+            final GameHandler hand = gameList.getGameTypeHandler(gaName);
+            gameList.takeMonitorForGame(gaName);
+            try
             {
-                Connection con = conEnum.nextElement();
-                con.put(SOCRobotDismiss.toCmd(gm));
+                for (final Map.Entry<Integer, String> e : botSeats.entrySet())
+                {
+                    messageToGameWithMon(gaName, new SOCLeaveGame(e.getValue(), "-", gaName));
+                    if (hand != null)
+                        hand.findRobotAskJoinGame(ga, e.getKey(), true);
+                }
+            }
+            catch (Exception e)
+            {
+                D.ebugPrintStackTrace(e, "Exception in finishWakeGame");
+            }
+            finally
+            {
+                gameList.releaseMonitorForGame(gaName);
             }
         }
 
-        // Reduce the owner's games-active count
-        final String gaOwner = cg.getOwner();
-        if (gaOwner != null)
+        for (final Runnable r : waiters)
         {
-            Connection oConn = conns.get(gaOwner);
-            if (oConn != null)
-                ((SOCClientData) oConn.getAppData()).deletedGame();
+            try
+            {
+                r.run();
+            }
+            catch (Exception e)
+            {
+                D.ebugPrintStackTrace(e, "Exception in finishWakeGame");
+            }
         }
-
-        if (wasBotsOnly && (numRobotOnlyGamesRemaining > 0))
-            startRobotOnlyGames(true);
     }
 
     /**
@@ -2852,48 +4015,42 @@ public class SOCServer extends Server
     }
 
     /**
-     * Send a message to the given channel
+     * Send a message to the given channel.
+     * If it's a {@link SOCChannelTextMsg}, also adds it to the channel's recent history
+     * to replay to new members; see {@link SOCChannelList#addHistory(String, String)}.
+     *<P>
+     * Before v2.0.00 this method took the channel's monitor while sending.
+     * It now sends to {@link SOCChannelList#getMembersSnapshot(String)} without any lock,
+     * so the caller may or may not hold the channel's monitor.
      *
      * @param ch  the name of the channel
      * @param mes the message to send
+     * @see #messageToChannelWithMon(String, SOCMessage)
      */
     public void messageToChannel(String ch, SOCMessage mes)
     {
         final String mesCmd = mes.toCmd();
 
-        channelList.takeMonitorForChannel(ch);
-
         try
         {
-            Vector<Connection> v = channelList.getMembers(ch);
-
-            if (v != null)
-            {
-                Enumeration<Connection> menum = v.elements();
-
-                while (menum.hasMoreElements())
-                {
-                    Connection c = menum.nextElement();
+            final Connection[] members = channelList.getMembersSnapshot(ch);
+            if (mes instanceof SOCChannelTextMsg)
+                channelList.addHistory(ch, mesCmd);  // before sending, so history's in order once members have it
 
-                    if (c != null)
-                    {
-                        c.put(mesCmd);
-                    }
-                }
-            }
+            for (int i = 0; i < members.length; ++i)
+                members[i].put(mesCmd);
         }
         catch (Exception e)
         {
             D.ebugPrintStackTrace(e, "Exception in messageToChannel");
         }
-
-        channelList.releaseMonitorForChannel(ch);
     }
 
     /**
-     * Send a message to the given channel
+     * Send a message to the given channel.
+     * Unlike {@link #messageToChannel(String, SOCMessage)}, doesn't add it to the channel's history.
      *
-     * WARNING: MUST HAVE THE gameList.takeMonitorForChannel(ch) before
+     * WARNING: MUST HAVE THE channelList.takeMonitorForChannel(ch) before
      * calling this method
      *
      * @param ch  the name of the channel
@@ -2901,23 +4058,14 @@ public class SOCServer extends Server
      */
     public void messageToChannelWithMon(String ch, SOCMessage mes)
     {
-        Vector<Connection> v = channelList.getMembers(ch);
+        final Connection[] members = channelList.getMembersSnapshot(ch);
 
-        if (v != null)
+        if (members.length > 0)
         {
             final String mesCmd = mes.toCmd();
 
-            Enumeration<Connection> menum = v.elements();
-
-            while (menum.hasMoreElements())
-            {
-                Connection c = menum.nextElement();
-
-                if (c != null)
-                {
-                    c.put(mesCmd);
-                }
-            }
+            for (int i = 0; i < members.length; ++i)
+                members[i].put(mesCmd);
         }
     }
 
@@ -2929,11 +4077,13 @@ public class SOCServer extends Server
      */
     public void messageToPlayer(Connection c, SOCMessage mes)
     {
+        elementBatcher.flush();
+
         if ((c == null) || (mes == null))
             return;
 
         //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", c.getData()));
-        c.put(mes.toCmd());
+        c.put(mes, null);
     }
 
     /**
@@ -2949,6 +4099,8 @@ public class SOCServer extends Server
      */
     public void messageToPlayer(Connection c, final String ga, final String txt)
     {
+        elementBatcher.flush();
+
         if (c == null)
             return;
 
@@ -2974,6 +4126,8 @@ public class SOCServer extends Server
      */
     public final void messageToPlayerKeyed(Connection c, final String gaName, final String key)
     {
+        elementBatcher.flush();
+
         if (c == null)
             return;
 
@@ -3005,6 +4159,8 @@ public class SOCServer extends Server
     public final void messageToPlayerKeyed
         (Connection c, final String gaName, final String key, final Object ... args)
     {
+        elementBatcher.flush();
+
         if (c == null)
             return;
 
@@ -3038,6 +4194,8 @@ public class SOCServer extends Server
     public final void messageToPlayerKeyedSpecial
         (Connection c, final SOCGame ga, final String key, final Object ... args)
     {
+        elementBatcher.flush();
+
         if (c == null)
             return;
 
@@ -3081,6 +4239,10 @@ public class SOCServer extends Server
     /**
      * Send a message to the given game.
      *<P>
+     * If called while dispatching an inbound message, a {@link SOCPlayerElement} may be held by
+     * {@link #elementBatcher} and sent with the player's other element updates when dispatch is done
+     * or before anything else is sent.
+     *<P>
      * <b>Locks:</b> Takes, releases {@link SOCGameList#takeMonitorForGame(String)}.
      *
      * @param ga  the name of the game
@@ -3094,6 +4256,10 @@ public class SOCServer extends Server
      */
     public void messageToGame(String ga, SOCMessage mes)
     {
+        if (elementBatcher.add(ga, mes))
+            return;  // <--- Early return: batched, will send at end of dispatch ---
+        elementBatcher.flush();
+
         final String mesCmd = mes.toCmd();
 
         gameList.takeMonitorForGame(ga);
@@ -3114,7 +4280,7 @@ public class SOCServer extends Server
                     if (c != null)
                     {
                         //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", c.getData()));
-                        c.put(mesCmd);
+                        c.put(mes, mesCmd);
                     }
                 }
             }
@@ -3153,6 +4319,8 @@ public class SOCServer extends Server
      */
     public void messageToGame(final String ga, final String txt)
     {
+        elementBatcher.flush();
+
         final String gameServTxtMsg = SOCGameServerText.toCmd(ga, txt);
 
         gameList.takeMonitorForGame(ga);
@@ -3208,6 +4376,8 @@ public class SOCServer extends Server
      */
     public void messageToGameKeyedType(SOCGame ga, SOCKeyedMessage msg, final boolean takeMon)
     {
+        elementBatcher.flush();
+
         // Very similar code to impl_messageToGameKeyedSpecial:
         // if you change code here, consider changing it there too
 
@@ -3505,6 +4675,8 @@ public class SOCServer extends Server
          final boolean fmtSpecial, final String key, final Object ... params)
         throws MissingResourceException, IllegalArgumentException
     {
+        elementBatcher.flush();
+
         if (members == null)
             return;
 
@@ -3571,6 +4743,8 @@ public class SOCServer extends Server
     /**
      * Send a message to the given game.
      *<P>
+     * Like {@link #messageToGame(String, SOCMessage)}, may hold a {@link SOCPlayerElement} for batching.
+     *<P>
      *<b>Locks:</b> MUST HAVE THE
      * {@link SOCGameList#takeMonitorForGame(String) gameList.takeMonitorForGame(ga)}
      * before calling this method.
@@ -3583,6 +4757,10 @@ public class SOCServer extends Server
      */
     public void messageToGameWithMon(String ga, SOCMessage mes)
     {
+        if (elementBatcher.add(ga, mes))
+            return;  // <--- Early return: batched, will send at end of dispatch ---
+        elementBatcher.flush();
+
         Vector<Connection> v = gameList.getMembers(ga);
         if (v == null)
             return;
@@ -3598,7 +4776,7 @@ public class SOCServer extends Server
             if (c != null)
             {
                 //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", c.getData()));
-                c.put(mesCmd);
+                c.put(mes, mesCmd);
             }
         }
     }
@@ -3644,6 +4822,8 @@ public class SOCServer extends Server
      */
     public void messageToGameExcept(String gn, Vector<Connection> ex, SOCMessage mes, boolean takeMon)
     {
+        elementBatcher.flush();
+
         if (takeMon)
             gameList.takeMonitorForGame(gn);
 
@@ -3664,7 +4844,7 @@ public class SOCServer extends Server
                     if ((con != null) && (!ex.contains(con)))
                     {
                         //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", con.getData()));
-                        con.put(mesCmd);
+                        con.put(mes, mesCmd);
                     }
                 }
             }
@@ -3693,6 +4873,8 @@ public class SOCServer extends Server
      */
     public void messageToGameExcept(String gn, Connection ex, SOCMessage mes, boolean takeMon)
     {
+        elementBatcher.flush();
+
         if (takeMon)
             gameList.takeMonitorForGame(gn);
 
@@ -3713,7 +4895,7 @@ public class SOCServer extends Server
                         continue;
 
                     //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", con.getData()));
-                    con.put(mesCmd);
+                    con.put(mes, mesCmd);
                 }
             }
         }
@@ -3768,6 +4950,8 @@ public class SOCServer extends Server
         (final SOCGame ga, final int vmin, final int vmax, final Connection ex,
          final SOCMessage mes, final boolean takeMon)
     {
+        elementBatcher.flush();
+
         if ((ga.clientVersionLowest > vmax) || (ga.clientVersionHighest < vmin))
             return;  // <--- All clients too old or too new ---
 
@@ -3797,7 +4981,7 @@ public class SOCServer extends Server
                     //currentGameEventRecord.addMessageOut(new SOCMessageRecord(mes, "SERVER", con.getData()));
                     if (mesCmd == null)
                         mesCmd = mes.toCmd();
-                    con.put(mesCmd);
+                    con.put(mes, mesCmd);
                 }
             }
         }
@@ -3838,6 +5022,8 @@ public class SOCServer extends Server
      * in order to start the game. If any found, tries to find another bot instead
      * by calling {@link GameHandler#findRobotAskJoinGame(SOCGame, Object, boolean)}.
      *<P>
+     * If {@code c} is a robot host carrying {@link MultiplexedConnection}s, removes those too.
+     *<P>
      * This method is called within a per-client thread,
      * after connection is removed from conns collection
      * and version collection, and after c.disconnect() has been called.
@@ -3847,11 +5033,34 @@ public class SOCServer extends Server
     @Override
     public void leaveConnection(Connection c)
     {
-        if ((c == null) || (c.getData() == null))
+        if (c == null)
+            return;
+
+        if (c instanceof MultiplexedConnection)
+        {
+            final MultiplexedConnection mc = (MultiplexedConnection) c;
+            final SOCClientData hcd = (SOCClientData) mc.getHostConnection().getAppData();
+            if ((hcd != null) && (hcd.muxConnections != null)
+                && (hcd.muxConnections.remove(Integer.valueOf(mc.getMuxID())) == mc))
+                muxConnectionCount.decrementAndGet();
+            final SOCClientData scd = (SOCClientData) mc.getAppData();
+            if ((mc.getData() != null) && (scd != null) && scd.isRobot)
+                muxRobotCount.decrementAndGet();
+        } else {
+            final SOCClientData cd = (SOCClientData) c.getAppData();
+            if ((cd != null) && (cd.muxConnections != null))
+                for (final MultiplexedConnection mc
+                     : new ArrayList<MultiplexedConnection>(cd.muxConnections.values()))
+                    removeConnection(mc, true);
+        }
+
+        if (c.getData() == null)
             return;
 
         leaveAllChannels(c);
         leaveAllGames(c);
+        if (lobbyRouter != null)
+            lobbyRouter.leaveConnection(c);
 
         /**
          * if it is a robot, remove it from the list
@@ -3905,11 +5114,65 @@ public class SOCServer extends Server
         }
     }
 
+    /**
+     * Get or open the {@link MultiplexedConnection} for a {@link SOCBotMux} message's bot ID
+     * on a robot host connection, or close it if the message has no inner message.
+     * A new one is added with {@link #addConnection(Connection)} like any other connection.
+     *<P>
+     * Until a robot has authenticated on the host connection (making it {@link Connection#isRateLimitExempt()}),
+     * the host can have only one open sub-connection. Multiplexed connections can't carry their own hosts.
+     *<P>
+     * Called from {@link SOCMessageDispatcher#dispatch(SOCMessage, Connection)} on the Treater thread.
+     *
+     * @param c  Host connection which sent {@code mes}; not null
+     * @param mes  Message from {@code c}
+     * @return  The open connection for {@code mes}'s bot, or {@code null} if closed, not allowed, or not connected
+     * @see SOCClientData#muxConnections
+     * @since 2.0.00
+     */
+    MultiplexedConnection getMultiplexedConnection(final Connection c, final SOCBotMux mes)
+    {
+        final SOCClientData cd = (SOCClientData) c.getAppData();
+        if ((cd == null) || (c instanceof MultiplexedConnection))
+            return null;
+
+        if (cd.muxConnections == null)
+            cd.muxConnections = new Hashtable<Integer, MultiplexedConnection>();
+
+        final Integer id = Integer.valueOf(mes.getBotID());
+        MultiplexedConnection mc = cd.muxConnections.get(id);
+        if (mes.isClose())
+        {
+            if ((mc != null) && mc.isConnected())
+                removeConnection(mc, true);  // if not connected, server is already removing it
+
+            return null;
+        }
+        if (mc != null)
+            return mc;
+
+        if (! (c.isRateLimitExempt() || cd.muxConnections.isEmpty()))
+            return null;
+
+        mc = new MultiplexedConnection(c, mes.getBotID());
+        cd.muxConnections.put(id, mc);
+        muxConnectionCount.incrementAndGet();
+        addConnection(mc);
+        if (mc.isConnected())
+            return mc;
+
+        if (cd.muxConnections.remove(id) == mc)
+            muxConnectionCount.decrementAndGet();  // host is gone, or mc was rejected
+
+        return null;
+    }
+
     /**
      * Things to do when a new connection comes.
      *<P>
      * If we already have {@link #maxConnections} named clients, reject this new one
-     * by sending {@link SOCRejectConnection}.
+     * by sending {@link SOCRejectConnection}. Robots' {@link MultiplexedConnection}s aren't counted
+     * or limited, since they share their host connection; see {@link #PROP_JSETTLERS_BOTS_MULTIPLEX}.
      *<P>
      * If the connection is accepted, it's added to {@link #unnamedConns} until the
      * player "names" it by joining or creating a game under their player name.
@@ -3944,7 +5207,9 @@ public class SOCServer extends Server
          */
         try
         {
-            if (getNamedConnectionCount() >= maxConnections)
+            final boolean isRobotMux = (c instanceof MultiplexedConnection)
+                && ((MultiplexedConnection) c).getHostConnection().isRateLimitExempt();
+            if ((! isRobotMux) && (getNamedConnectionCount() - muxRobotCount.get() >= maxConnections))
             {
                 c.put(new SOCRejectConnection("Too many connections, please try another server.").toCmd());
             }
@@ -4307,6 +5572,11 @@ public class SOCServer extends Server
                     c.put(SOCGamesWithOptions.toCmd(gl, cliVers));
                 else
                     c.put(SOCGames.toCmd(gl));
+
+                if (gameHibernator != null)
+                    gameHibernator.sendGameList(c);  // hibernated games aren't in gaEnum
+                if (lobbyRouter != null)
+                    lobbyRouter.sendGameList(c);  // games hosted by our game servers
             } else {
                 // send deltas only
                 for (int i = 0; i < gl.size(); ++i)
@@ -4367,7 +5637,8 @@ public class SOCServer extends Server
      * Check if a nickname is okay, and, if they're already logged in, whether a
      * new replacement connection can "take over" the existing one.
      *<P>
-     * a name is ok if it hasn't been used yet, isn't {@link #SERVERNAME the server's name},
+     * a name is ok if it hasn't been used yet, isn't {@link #SERVERNAME the server's name}
+     * or (since 2.0.00) {@link #LOBBY_LINK_NAME},
      * and (since 1.1.07) passes {@link SOCMessage#isSingleLineAndSafe(String)}.
      *<P>
      * The "take over" option is used for reconnect when a client loses
@@ -4397,7 +5668,7 @@ public class SOCServer extends Server
     private int checkNickname
         (String n, Connection newc, final boolean withPassword, final boolean isBot)
     {
-        if (n.equals(SERVERNAME))
+        if (n.equals(SERVERNAME) || n.equals(LOBBY_LINK_NAME))
         {
             return -2;
         }
@@ -4717,12 +5988,40 @@ public class SOCServer extends Server
         else if (dcmdU.startsWith("*BOTLIST*"))
         {
             Enumeration<Connection> robotsEnum = robots.elements();
+            final long now = System.currentTimeMillis();
 
             while (robotsEnum.hasMoreElements())
             {
                 Connection robotConn = robotsEnum.nextElement();
                 messageToGame(ga, "> Robot: " + robotConn.getData());
+
+                final SOCClientData cd = (SOCClientData) robotConn.getAppData();
+                final SOCRobotStats st = (cd != null) ? cd.robotStats : null;
+                if (st != null)
+                {
+                    messageToGame(ga, ">   games " + st.getStat(SOCRobotStats.IDX_BRAINS)
+                        + ", queued " + st.getStat(SOCRobotStats.IDX_QUEUE_DEPTH)
+                        + " (max " + st.getStat(SOCRobotStats.IDX_QUEUE_DEPTH_MAX)
+                        + "), lag avg " + st.getStat(SOCRobotStats.IDX_LAG_AVG_MS)
+                        + " ms (max " + st.getStat(SOCRobotStats.IDX_LAG_MAX_MS)
+                        + "), " + st.getStat(SOCRobotStats.IDX_MESSAGES_PER_MIN)
+                        + " msgs/min, think " + st.getStat(SOCRobotStats.IDX_THINK_PCT)
+                        + "%, as of " + ((now - cd.robotStatsMillis) / 1000) + " sec ago");
+                    messageToGame(ga, ">   " + st.getStat(SOCRobotStats.IDX_MESSAGES)
+                        + " msgs, plan " + st.getStat(SOCRobotStats.IDX_PLAN_COUNT)
+                        + " in " + st.getStat(SOCRobotStats.IDX_PLAN_MS)
+                        + " ms, offer " + st.getStat(SOCRobotStats.IDX_OFFER_COUNT)
+                        + " in " + st.getStat(SOCRobotStats.IDX_OFFER_MS)
+                        + " ms, consider " + st.getStat(SOCRobotStats.IDX_CONSIDER_COUNT)
+                        + " in " + st.getStat(SOCRobotStats.IDX_CONSIDER_MS)
+                        + " ms, think " + (st.getStat(SOCRobotStats.IDX_THINK_MS) / 1000)
+                        + " sec, pause " + (st.getStat(SOCRobotStats.IDX_PAUSE_MS) / 1000)
+                        + " sec, exceptions " + st.getStat(SOCRobotStats.IDX_EXCEPTIONS));
+                }
+
                 robotConn.put(SOCAdminPing.toCmd((ga)));
+                if (robotConn.getVersion() >= SOCRobotStats.VERSION_FOR_ROBOTSTATS)
+                    robotConn.put(new SOCRobotStats().toCmd());  // reply will be shown at next *BOTLIST*
             }
         }
         else if (dcmdU.startsWith("*RESETBOT* "))
@@ -4852,6 +6151,38 @@ public class SOCServer extends Server
         messageToPlayer(c, gaName, "> Games finished: " + numberOfGamesFinished);
         messageToPlayer(c, gaName, "> Total Memory: " + rt.totalMemory());
         messageToPlayer(c, gaName, "> Free Memory: " + rt.freeMemory());
+        if (gameSnapshots != null)
+            messageToPlayer(c, gaName, "> " + gameSnapshots.getStatsText());
+        if (SOCRobotDM.getDecisionBudget() > 0)
+            messageToPlayer(c, gaName, "> " + SOCRobotDM.getDecisionBudgetStatsText());
+        if (getConfigIntProperty(PROP_JSETTLERS_BOTS_MCTS, 0) > 0)
+            messageToPlayer(c, gaName, "> " + MCTSStrategy.getStatsText());
+        if (gameHibernator != null)
+            messageToPlayer(c, gaName, "> " + gameHibernator.getStatsText());
+        messageToPlayer(c, gaName, "> " + inQueue.getStatsText());
+        if (inboundRateLimiter != null)
+            messageToPlayer(c, gaName, "> " + inboundRateLimiter.getStatsText());
+        messageToPlayer(c, gaName, "> " + startupProfiler.getSummary());
+        if (muxConnectionCount.get() > 0)
+            messageToPlayer(c, gaName, "> Robot host connections: " + muxConnectionCount.get() + " robots multiplexed");
+        if (lobbyRouter != null)
+            messageToPlayer(c, gaName, "> " + lobbyRouter.getStatsText());
+        if (features.isActive(SOCServerFeatures.FEAT_COMPRESS))
+        {
+            messageToPlayer(c, gaName, "> " + compressStats);
+            if (c instanceof NetConnection)
+            {
+                final String cst = ((NetConnection) c).getCompressionStatsText();
+                if (cst != null)
+                    messageToPlayer(c, gaName, "> Your connection: " + cst);
+            }
+        }
+        if (c instanceof NetConnection)
+        {
+            final String bst = ((NetConnection) c).getBinaryFramesStatsText();
+            if (bst != null)
+                messageToPlayer(c, gaName, "> Your connection: " + bst);
+        }
         final int vers = Version.versionNumber();
         messageToPlayer(c, gaName, "> Version: "
             + vers + " (" + Version.version() + ") build " + Version.buildnum());
@@ -4919,6 +6250,13 @@ public class SOCServer extends Server
         }
 
         /// now continue with shutdown
+        if (gameSnapshots != null)
+            gameSnapshots.shutdown(new ArrayList<SOCGame>(gameList.getGamesData()));
+        if (replayLog != null)
+            replayLog.shutdown();
+        if (lobbyRouter != null)
+            lobbyRouter.shutdown();
+
         try
         {
             SOCDBHelper.cleanup(true);
@@ -5005,6 +6343,7 @@ public class SOCServer extends Server
      *     <BR>
      *     <B>Threads:</B> This callback will always run on the {@link InboundMessageQueue}'s Treater thread.
      * @throws IllegalArgumentException if {@code authCallback} is null
+     * @see #authOrRejectClientUser(Connection, String, String, int, int, boolean, boolean, AuthSuccessRunnable)
      * @see #authOrRejectClientRobot(Connection, String, String, String)
      * @since 1.1.19
      */
@@ -5013,6 +6352,34 @@ public class SOCServer extends Server
          final boolean doNameConnection, final boolean allowTakeover,
          final AuthSuccessRunnable authCallback)
         throws IllegalArgumentException
+    {
+        authOrRejectClientUser
+            (c, msgUser, msgPass, SOCAuthRequest.SCHEME_CLIENT_PLAINTEXT, cliVers,
+             doNameConnection, allowTakeover, authCallback);
+    }
+
+    /**
+     * Check that the username and password or session token is okay. Same as
+     * {@link #authOrRejectClientUser(Connection, String, String, int, boolean, boolean, AuthSuccessRunnable)}
+     * but with an auth scheme parameter to check session tokens issued during an earlier connection.
+     *<P>
+     * If {@code authScheme} is {@link SOCAuthRequest#SCHEME_SESSION_TOKEN}, {@code msgPass} is the token:
+     * Checks {@link #authTokens} instead of calling {@link SOCDBHelper#authenticateUserPassword(String, String,
+     * soc.server.database.SOCDBHelper.AuthPasswordRunnable)}, skipping the DB query and {@code BCrypt} calculation.
+     * Unknown or expired tokens are rejected with {@link SOCStatusMessage#SV_PW_WRONG} like a wrong password.
+     *<P>
+     * After a successful password or token authentication, if the client is new enough and
+     * {@code doNameConnection}, sends it a new token with {@link SOCStatusMessage#SV_OK_SESSION_TOKEN}
+     * before calling {@code authCallback}.
+     *
+     * @param authScheme  {@link SOCAuthRequest#SCHEME_CLIENT_PLAINTEXT} or {@link SOCAuthRequest#SCHEME_SESSION_TOKEN}
+     * @since 2.0.00
+     */
+    void authOrRejectClientUser
+        (final Connection c, String msgUser, String msgPass, final int authScheme, final int cliVers,
+         final boolean doNameConnection, final boolean allowTakeover,
+         final AuthSuccessRunnable authCallback)
+        throws IllegalArgumentException
     {
         if (authCallback == null)
             throw new IllegalArgumentException("authCallback");
@@ -5107,6 +6474,20 @@ public class SOCServer extends Server
             return;
         }
 
+        final boolean hasPassword = (msgPass.length() > 0);
+        if (authScheme == SOCAuthRequest.SCHEME_SESSION_TOKEN)
+        {
+            /**
+             * session token check; tokens are issued only after a successful DB password check
+             */
+            final String tokUsername =
+                ((authTokens != null) && hasPassword) ? authTokens.consume(msgUser, msgPass) : null;
+            authOrRejectClientUser_postDBAuth
+                (c, msgUser, tokUsername, cliVers, doNameConnection, isTakingOver, authCallback, false, true);
+
+            return;  // <---- Early return: Checked token, not password ----
+        }
+
         /**
          * password check new connection from optional database, if not done already and if possible
          */
@@ -5124,7 +6505,7 @@ public class SOCServer extends Server
                         if (inQueue.isCurrentThreadTreater())
                             authOrRejectClientUser_postDBAuth
                                 (c, msgUserName, dbUserName, cliVers,
-                                 doNameConnection, takingOver, authCallback, hadDelay);
+                                 doNameConnection, takingOver, authCallback, hadDelay, hasPassword);
                         else
                             inQueue.post(new Runnable()
                             {
@@ -5132,7 +6513,7 @@ public class SOCServer extends Server
                                 {
                                     authOrRejectClientUser_postDBAuth
                                         (c, msgUserName, dbUserName, cliVers,
-                                         doNameConnection, takingOver, authCallback, hadDelay);
+                                         doNameConnection, takingOver, authCallback, hadDelay, hasPassword);
                                 }
                             });
                     }
@@ -5158,12 +6539,15 @@ public class SOCServer extends Server
      *
      * @param hadDelay  If true, this callback has been delayed by {@code BCrypt} calculations;
      *     otherwise it's an immediate callback (user not found, password didn't use BCrypt hashing)
+     * @param hadPassword  If true, client authenticated with a non-empty password or a session token
+     *     which was checked against the database or {@link #authTokens}; if successful, will issue
+     *     the client a new session token. Added in v2.0.00.
      * @since 1.2.00
      */
     private void authOrRejectClientUser_postDBAuth
         (final Connection c, final String msgUser, final String authUsername,
          final int cliVers, final boolean doNameConnection, final boolean isTakingOver,
-         final AuthSuccessRunnable authCallback, final boolean hadDelay)
+         final AuthSuccessRunnable authCallback, final boolean hadDelay, final boolean hadPassword)
     {
         if (authUsername == null)
         {
@@ -5212,6 +6596,14 @@ public class SOCServer extends Server
         {
             c.setData(authUsername);
             nameConnection(c, isTakingOver);
+
+            if (hadPassword && (authTokens != null) && (cliVers >= SOCAuthRequest.VERSION_FOR_SESSION_TOKEN)
+                && SOCDBHelper.isInitialized())
+            {
+                final String tok = authTokens.issue(authUsername);
+                if (tok != null)
+                    c.put(SOCStatusMessage.toCmd(SOCStatusMessage.SV_OK_SESSION_TOKEN, tok));
+            }
         }
 
         int ret = AUTH_OR_REJECT__OK;
@@ -5408,7 +6800,8 @@ public class SOCServer extends Server
      *<P>
      * Before connecting here, bot clients are named and started in {@link #setupLocalRobots(int, int)}.
      * Bot params can be stored in the database, see {@link SOCDBHelper#retrieveRobotParams(String, boolean)}:
-     * Default bot params are {@link #ROBOT_PARAMS_SMARTER} if the robot name starts with "robot "
+     * Default bot params are {@link #ROBOT_PARAMS_MCTS} if the robot name starts with "robot mcts ",
+     * {@link #ROBOT_PARAMS_SMARTER} if it starts with "robot ",
      * or {@link #ROBOT_PARAMS_DEFAULT} otherwise (starts with "droid ").
      *<P>
      * Sometimes a bot disconnects and quickly reconnects.  In that case
@@ -5518,6 +6911,9 @@ public class SOCServer extends Server
         SOCClientData scd = (SOCClientData) c.getAppData();
         scd.isRobot = true;
         scd.isBuiltInRobot = isBuiltIn;
+        c.setRateLimitExempt(true);  // a bot may play in many games at once
+        if (c instanceof MultiplexedConnection)
+            ((MultiplexedConnection) c).getHostConnection().setRateLimitExempt(true);  // host may open more bots
         if (! isBuiltIn)
             scd.robot3rdPartyBrainClass = rbc;
         synchronized(robots)
@@ -5525,6 +6921,8 @@ public class SOCServer extends Server
             robots.addElement(c);
             if (! isBuiltIn)
                 robots3p.add(c);
+            if (localRobotsPending.remove(botName))
+                robots.notifyAll();  // for waitForRobots
         }
 
         scd.locale = null;  // bots don't care about message text contents
@@ -5532,10 +6930,92 @@ public class SOCServer extends Server
         c.setI18NStringManager(null, null);
 
         super.nameConnection(c, false);
+        if (c instanceof MultiplexedConnection)
+            muxRobotCount.incrementAndGet();
 
         return null;  // accepted: no rejection reason string
     }
 
+    /**
+     * Handle a lobby server's authentication of its link or of a user's proxy connection
+     * (the {@link SOCLobbyAuth} message), if this server is a game server in a cluster.
+     * The lobby sends its {@link SOCVersion} before that message; a proxy sends its user's version and locale.
+     * The {@code secret} must match this server's {@link #PROP_JSETTLERS_CLUSTER_SECRET}.
+     *<P>
+     * If {@code nickname} is {@code null}, names the connection {@link #LOBBY_LINK_NAME}
+     * so that it receives our broadcasts of new and deleted games.
+     * Otherwise names it {@code nickname}, without checking a password since the lobby has authenticated that user.
+     * If the user has a connection here already which is eligible to be taken over
+     * (see {@link #checkNickname(String, Connection, boolean, boolean)}), the proxy takes it over.
+     *<P>
+     * If rejected, caller should send the returned reason to the lobby as a
+     * {@link SOCRejectConnection} and disconnect it.
+     *
+     * @param c  the connection that sent the auth message; not null
+     *     but {@link Connection#getData() c.getData()} should be null
+     * @param secret  secret sent in message from {@code c}
+     * @param nickname  user nickname sent in message from {@code c}, or {@code null} for the lobby's link
+     * @return {@code null} if accepted, or a failure string
+     * @throws NullPointerException if {@code c} is {@code null}
+     * @see #authOrRejectClientRobot(Connection, String, String, String)
+     * @since 2.0.00
+     */
+    final String authOrRejectLobby(final Connection c, final String secret, final String nickname)
+        throws NullPointerException
+    {
+        if (c.getData() != null)
+            return "Client has already authorized.";
+
+        if ((clusterSecret == null) || (secret == null) || ! secretsMatch(clusterSecret, secret))
+        {
+            printAuditMessage(null, "Lobby auth attempt, wrong secret", nickname, null, c.host());
+
+            return "Secret does not match the running server.";
+        }
+
+        if (nickname == null)
+        {
+            if (getConnection(LOBBY_LINK_NAME, false) != null)
+                return "Already linked to a lobby.";
+
+            c.setData(LOBBY_LINK_NAME);
+            c.setHideTimeoutMessage(true);
+            super.nameConnection(c, false);
+            System.out.println("Lobby linked from " + c.host());
+
+            return null;
+        }
+
+        final int nameResult = checkNickname(nickname, c, true, false);
+        if ((nameResult != 0) && (nameResult != -1))
+            return MSG_NICKNAME_ALREADY_IN_USE;
+
+        c.setData(nickname);
+        nameConnection(c, (nameResult == -1));
+
+        return null;
+    }
+
+    /**
+     * Compare a lobby's secret to ours in constant time, so that timing doesn't reveal
+     * how much of a guessed secret is correct. For {@link #authOrRejectLobby(Connection, String, String)}.
+     * @param ours  This server's {@link #PROP_JSETTLERS_CLUSTER_SECRET}; not null
+     * @param theirs  Secret sent by the lobby; not null
+     * @return  True if the secrets are equal
+     * @since 2.0.00
+     */
+    private static boolean secretsMatch(final String ours, final String theirs)
+    {
+        try
+        {
+            return MessageDigest.isEqual(ours.getBytes("UTF-8"), theirs.getBytes("UTF-8"));
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            return false;  // UTF-8 is always supported
+        }
+    }
+
     /**
      * Check username/password and create new game, or join game.
      * Called by {@link SOCServerMessageHandler}.handleJOINGAME and handleNEWGAMEWITHOPTIONSREQUEST.
@@ -5604,7 +7084,7 @@ public class SOCServer extends Server
 
         if (c.getData() != null)
         {
-            createOrJoinGameIfUserOK_postAuth(c, cliVers, gameName, gameOpts, AUTH_OR_REJECT__OK);
+            createOrJoinGameIfUserOK_postAuth(c, cliVers, gameName, gameOpts, AUTH_OR_REJECT__OK, false);
         } else {
             /**
              * Check that the nickname is ok, check password if supplied; if not ok, sends a SOCStatusMessage.
@@ -5616,7 +7096,7 @@ public class SOCServer extends Server
                  {
                     public void success(Connection c, int authResult)
                     {
-                        createOrJoinGameIfUserOK_postAuth(c, cliVers, gName, gameOpts, authResult);
+                        createOrJoinGameIfUserOK_postAuth(c, cliVers, gName, gameOpts, authResult, false);
                     }
                  });
         }
@@ -5625,11 +7105,16 @@ public class SOCServer extends Server
     /**
      * After successful client user auth, take care of the rest of
      * {@link #createOrJoinGameIfUserOK(Connection, String, String, String, Map)}.
+     *<P>
+     * In v2.0.00 and newer, if the game or (when taking over) any of the client's other games is hibernated,
+     * starts waking them and returns; when they're awake, this method is called again with {@code hasWoken} true.
+     *
+     * @param hasWoken  True if called again after waking hibernated games, so they shouldn't be woken again
      * @since 1.2.00
      */
     private void createOrJoinGameIfUserOK_postAuth
         (final Connection c, final int cliVers, final String gameName,
-         final Map<String, SOCGameOption> gameOpts, final int authResult)
+         final Map<String, SOCGameOption> gameOpts, final int authResult, final boolean hasWoken)
     {
         final boolean isTakingOver = (0 != (authResult & AUTH_OR_REJECT__TAKING_OVER));
 
@@ -5661,8 +7146,10 @@ public class SOCServer extends Server
         /**
          * If creating a new game, ensure they are below their max game count.
          * (Don't limit max games on the practice server.)
+         * At a lobby, games created on our game servers are counted too.
          */
         if ((! gameList.isGame(gameName))
+            && ((lobbyRouter == null) || ! lobbyRouter.isGame(gameName))
             && ((strSocketName == null) || ! strSocketName.equals(PRACTICE_STRINGPORT))
             && (CLIENT_MAX_CREATE_GAMES >= 0)
             && (CLIENT_MAX_CREATE_GAMES <= ((SOCClientData) c.getAppData()).getCurrentCreatedGames()))
@@ -5725,6 +7212,28 @@ public class SOCServer extends Server
                      c.getData() + SOCMessage.sep2_char +
                      c.getLocalized("member.welcome")));  // "Welcome to Java Settlers of Catan!"
 
+            if ((gameHibernator != null) && ! hasWoken)
+            {
+                // Wake the game, and if taking over, the client's other games, before sending their state.
+                // Their files are read in the hibernator's thread; we'll continue here when they're awake.
+                final List<String> toWake = new ArrayList<String>();
+                if (isTakingOver)
+                    for (final SOCGameHibernator.Stub st : gameHibernator.getStubs())
+                        if (gameList.isMember(c, st.gaName))
+                            toWake.add(st.gaName);
+                toWake.add(gameName);
+
+                if (wakeGamesThen(toWake, new Runnable()
+                    {
+                        public void run()
+                        {
+                            createOrJoinGameIfUserOK_postAuth
+                                (c, cliVers, gameName, gameOpts, authResult & ~AUTH_OR_REJECT__SET_USERNAME, true);
+                        }
+                    }))
+                    return;  // <---- Early return: Will continue after waking ----
+            }
+
             if (isTakingOver)
             {
                 /**
@@ -5746,6 +7255,10 @@ public class SOCServer extends Server
                         joinGame(allConnGames.get(i), c, false, true);
                 }
             }
+            else if ((lobbyRouter != null) && lobbyRouter.routeJoinGame(c, gameName, gameOpts))
+            {
+                // Hosted by one of our game servers: Sent request there, its replies will be proxied to c
+            }
             else if (connectToGame(c, gameName, gameOpts))  // join or create the game
             {
                 /**
@@ -6325,10 +7838,29 @@ public class SOCServer extends Server
      *     even if {@link SOCClientData#sentAllScenarioInfo} is set, unless client version is too old.
      * @param c  Client connection
      * @param stringsOnly  If true, send only localized strings, not entire {@link SOCScenarioInfo}.
+     * @see #sendGameScenarioInfo(String, SOCScenario, Connection, boolean, List)
      * @since 2.0.00
      */
     void sendGameScenarioInfo
         (String scKey, final SOCScenario sc, final Connection c, final boolean stringsOnly)
+    {
+        sendGameScenarioInfo(scKey, sc, c, stringsOnly, null);
+    }
+
+    /**
+     * If needed, send this scenario's updated info and i18n localized short/long description strings to the client,
+     * or add that message to a list to be sent later.
+     * See {@link #sendGameScenarioInfo(String, SOCScenario, Connection, boolean)} for details.
+     *
+     * @param scKey  Scenario keyname, or null
+     * @param sc  Scenario data if known, or null
+     * @param c  Client connection; its tracking fields are updated as if the message was sent
+     * @param stringsOnly  If true, send only localized strings, not entire {@link SOCScenarioInfo}.
+     * @param cmds  List to add the message to instead of sending it, or {@code null} to send it now
+     * @since 2.0.00
+     */
+    void sendGameScenarioInfo
+        (String scKey, final SOCScenario sc, final Connection c, final boolean stringsOnly, final List<String> cmds)
     {
         if (scKey == null)
         {
@@ -6418,9 +7950,10 @@ public class SOCServer extends Server
             return;  // <--- No scenario strings in locale, and no full info to send ---
         }
 
+        final String cmd;
         if (scSend != null)
         {
-            c.put(new SOCScenarioInfo(scSend, nm, desc).toCmd());
+            cmd = new SOCScenarioInfo(scSend, nm, desc).toCmd();
         } else {
             List<String> scenStrs = new ArrayList<String>();
             scenStrs.add(scKey);
@@ -6432,9 +7965,14 @@ public class SOCServer extends Server
                 scenStrs.add(SOCLocalizedStrings.MARKER_KEY_UNKNOWN);
             }
 
-            c.put(SOCLocalizedStrings.toCmd(SOCLocalizedStrings.TYPE_SCENARIO, 0, scenStrs));
+            cmd = SOCLocalizedStrings.toCmd(SOCLocalizedStrings.TYPE_SCENARIO, 0, scenStrs);
         }
 
+        if (cmds != null)
+            cmds.add(cmd);
+        else
+            c.put(cmd);
+
         // Remember what we sent it
         if (scensSent == null)
         {
@@ -6661,6 +8199,9 @@ public class SOCServer extends Server
 
             printAuditMessage(requester, "Created jsettlers account", userName, currentTime, c.host());
 
+            if (authTokens != null)
+                authTokens.revokeUser(userName);  // any tokens were for an earlier account with that name
+
             if (acctsNotOpenRegButNoUsers)
                 acctsNotOpenRegButNoUsers = false;
         }
@@ -6856,6 +8397,8 @@ public class SOCServer extends Server
             return;  // <---- Early return: reset failed ----
         }
         SOCGame reGame = reBoard.newGame;
+        if (gameSnapshots != null)
+            gameSnapshots.delete(gaName);  // old game's snapshot is obsolete; new one is saved when it's started
 
         // Announce who asked for this reset
         {
@@ -6991,6 +8534,21 @@ public class SOCServer extends Server
         }
     }
 
+    /**
+     * Get the "number of games finished" server-statistics field.
+     * Thread-safe; synchronizes on an internal object.
+     * @return  Number of games which have reached {@link SOCGame#OVER} since startup
+     * @see #gameOverIncrGamesFinishedCount()
+     * @since 2.0.00
+     */
+    int getNumberOfGamesFinished()
+    {
+        synchronized (countFieldSync)
+        {
+            return numberOfGamesFinished;
+        }
+    }
+
     /**
      * create a new game event record
      */
@@ -7110,6 +8668,10 @@ public class SOCServer extends Server
      * If games are about to expire, send a warning.
      * As of version 1.1.09, practice games ({@link SOCGame#isPractice} flag set) don't expire.
      * Is callback method every few minutes from {@link SOCGameTimeoutChecker#run()}.
+     *<P>
+     * In v2.0.00 and newer, if {@link #PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES} is set, also hibernates idle games,
+     * and wakes hibernated games which will expire soon so their members can be warned.
+     * Those are done in the {@link InboundMessageQueue} Treater thread, except for their file I/O.
      *
      * @param currentTimeMillis  The time when called, from {@link System#currentTimeMillis()}
      * @see #GAME_TIME_EXPIRE_WARN_MINUTES
@@ -7118,6 +8680,7 @@ public class SOCServer extends Server
     public void checkForExpiredGames(final long currentTimeMillis)
     {
         Vector<String> expired = new Vector<String>();
+        final List<String> toHibernate = new ArrayList<String>(), toWake = new ArrayList<String>();
 
         gameList.takeMonitor();
 
@@ -7161,6 +8724,22 @@ public class SOCServer extends Server
 
                     messageToGame(gameData.getName(), new SOCServerPing(GAME_TIME_EXPIRE_CHECK_MINUTES * 60));
                 }
+
+                if ((gameHibernator != null) && canHibernateGame(gameData, currentTimeMillis))
+                    toHibernate.add(gameData.getName());
+            }
+
+            if (gameHibernator != null)
+            {
+                for (final SOCGameHibernator.Stub st : gameHibernator.getStubs())
+                {
+                    if (st.expiration <= currentTimeMillis)
+                        expired.addElement(st.gaName);
+                    else if ((st.expiration - warn_ms) <= currentTimeMillis)
+                        toWake.add(st.gaName);  // will be warned at next check
+                    else
+                        messageToGame(st.gaName, new SOCServerPing(GAME_TIME_EXPIRE_CHECK_MINUTES * 60));
+                }
             }
         }
         catch (Exception e)
@@ -7170,6 +8749,17 @@ public class SOCServer extends Server
 
         gameList.releaseMonitor();
 
+        for (final String gaName : toHibernate)
+            inQueue.post(new Runnable()
+            {
+                public void run()
+                {
+                    hibernateGame(gaName);
+                }
+            });
+        for (final String gaName : toWake)
+            wakeGameThen(gaName, null);
+
         //
         // destroy the expired games
         //    Assumes the list will be short, so the monitor take/release overhead will be acceptable.
@@ -8134,6 +9724,8 @@ public class SOCServer extends Server
         {
             SOCDBHelper.updateUserPassword(dbUname, pw1.toString());
             clearBuffer(pw1);
+            if (authTokens != null)
+                authTokens.revokeUser(dbUname);  // tokens were issued for the old password
             utilityModeMessage = "The password was changed";
         } catch (IllegalArgumentException e) {
             System.err.println("Password was too long, max length is " + SOCDBHelper.getMaxPasswordLength());
@@ -0,0 +1,141 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.io.File;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Cluster launcher: Starts several game server processes on this machine, each with its own robots,
+ * and a lobby server in this JVM which clients connect to. The lobby routes new games to the
+ * game servers; see {@link SOCLobbyRouter}.
+ *<P>
+ * Usage: {@code java soc.server.SOCServerCluster [lobbyPort [gameServers [robotsPerServer]]]},
+ * or with gradle: {@code gradle cluster -PclusterArgs="lobbyPort gameServers robotsPerServer"}:
+ *<UL>
+ * <LI> {@code lobbyPort}: TCP port for the lobby (default 8880); game servers use the next ports
+ * <LI> {@code gameServers}: Number of game server processes (default 2)
+ * <LI> {@code robotsPerServer}: Number of robots each game server starts (default 7)
+ *</UL>
+ * Each game server is started with the same {@code java} command and classpath as the lobby.
+ * The lobby and game servers share a random {@link SOCServer#PROP_JSETTLERS_CLUSTER_SECRET}.
+ * Other server properties such as {@link SOCServer#PROP_JSETTLERS_CONNECTIONS} can be given
+ * to the lobby as system properties with {@code -D}. The game servers are stopped when the lobby exits.
+ *<P>
+ * To run a lobby and game servers on different machines instead, start each game server with
+ * {@code jsettlers.cluster.secret} and the lobby with that secret and {@code jsettlers.cluster.gameservers}.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class SOCServerCluster
+{
+    /** Default number of game server processes */
+    private static final int DEFAULT_GAME_SERVERS = 2;
+
+    /** Default number of robots started by each game server */
+    private static final int DEFAULT_ROBOTS_PER_SERVER = 7;
+
+    /**
+     * Start the game servers and the lobby.
+     * @param args  Optional lobby port, number of game servers, and robots per game server
+     * @throws Exception if a game server or the lobby can't be started
+     */
+    public static void main(final String[] args)
+        throws Exception
+    {
+        int lobbyPort = SOCServer.SOC_PORT_DEFAULT, numServers = DEFAULT_GAME_SERVERS,
+            robots = DEFAULT_ROBOTS_PER_SERVER;
+        try
+        {
+            if (args.length > 0)
+                lobbyPort = Integer.parseInt(args[0]);
+            if (args.length > 1)
+                numServers = Integer.parseInt(args[1]);
+            if (args.length > 2)
+                robots = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            numServers = 0;
+        }
+        if ((lobbyPort <= 0) || (numServers <= 0) || (lobbyPort + numServers > 65535) || (robots < 0))
+        {
+            System.err.println("Usage: java soc.server.SOCServerCluster [lobbyPort [gameServers [robotsPerServer]]]");
+            System.exit(1);
+        }
+
+        final String secret = Long.toHexString(new SecureRandom().nextLong() & Long.MAX_VALUE);
+        final String javaCmd =
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final String classpath = System.getProperty("java.class.path");
+
+        final List<Process> procs = new ArrayList<Process>();
+        Runtime.getRuntime().addShutdownHook(new Thread("clusterShutdown")
+        {
+            public void run()
+            {
+                synchronized (procs)
+                {
+                    for (final Process p : procs)
+                        p.destroy();
+                }
+            }
+        });
+
+        final StringBuilder gsList = new StringBuilder();
+        for (int i = 1; i <= numServers; ++i)
+        {
+            final int port = lobbyPort + i;
+            final ProcessBuilder pb = new ProcessBuilder
+                (javaCmd, "-cp", classpath, "soc.server.SOCServer",
+                 "-D" + SOCServer.PROP_JSETTLERS_CLUSTER_SECRET + "=" + secret,
+                 "-D" + SOCServer.PROP_JSETTLERS_STARTROBOTS + "=" + robots,
+                 Integer.toString(port), Integer.toString(Math.max(SOCServer.SOC_MAXCONN_DEFAULT, 20 + robots)));
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(new File("gameserver-" + port + ".log"));
+            synchronized (procs)
+            {
+                procs.add(pb.start());
+            }
+            System.err.println("Started game server on port " + port + ", logging to gameserver-" + port + ".log");
+
+            if (i > 1)
+                gsList.append(',');
+            gsList.append("localhost:").append(port);
+        }
+
+        final Properties props = new Properties();
+        props.putAll(System.getProperties());
+        props.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_SECRET, secret);
+        props.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_GAMESERVERS, gsList.toString());
+        if (! props.containsKey(SOCServer.PROP_JSETTLERS_STARTROBOTS))
+            props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");  // games are hosted by game servers
+
+        final SOCServer lobby = new SOCServer(lobbyPort, props);
+        lobby.setPriority(5);
+        lobby.start();
+        lobby.join();
+
+        System.exit(0);  // runs shutdown hook to stop the game servers
+    }
+
+}
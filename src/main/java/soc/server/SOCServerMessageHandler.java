@@ -47,10 +47,12 @@ import soc.game.SOCVersionedItem;
 import soc.message.*;
 import soc.server.database.SOCDBHelper;
 import soc.server.genericServer.Connection;
+import soc.server.genericServer.NetConnection;
 import soc.server.genericServer.StringConnection;
 import soc.util.SOCGameBoardReset;
 import soc.util.SOCGameList;
 import soc.util.SOCRobotParameters;
+import soc.util.SOCServerFeatures;
 import soc.util.Version;
 
 /**
@@ -82,6 +84,12 @@ public class SOCServerMessageHandler
      */
     private final SOCChannelList channelList;
 
+    /**
+     * Cached responses to the game option and scenario info requests sent by each client when it connects.
+     * @since 2.0.00
+     */
+    private final SOCInfoBundleCache infoBundles = new SOCInfoBundleCache();
+
     public SOCServerMessageHandler
         (SOCServer srv, final SOCGameListAtServer gameList, final SOCChannelList channelList)
     {
@@ -130,6 +138,27 @@ public class SOCServerMessageHandler
             handleVERSION(c, (SOCVersion) mes);
             break;
 
+        /**
+         * client's request to compress our stream to it (v2.0.00+)
+         */
+        case SOCMessage.COMPRESSSTREAM:
+            handleCOMPRESSSTREAM(c, (SOCCompressStream) mes);
+            break;
+
+        /**
+         * client's request for binary frames from us (v2.0.00+)
+         */
+        case SOCMessage.BINARYFORMAT:
+            handleBINARYFORMAT(c, (SOCBinaryFormat) mes);
+            break;
+
+        /**
+         * robot's reply with its health and performance stats (v2.0.00+)
+         */
+        case SOCMessage.ROBOTSTATS:
+            handleROBOTSTATS(c, (SOCRobotStats) mes);
+            break;
+
         /**
          * client's optional authentication request before creating a game
          * or when connecting using {@code SOCAccountClient} (v1.1.19+).
@@ -173,6 +202,13 @@ public class SOCServerMessageHandler
             handleIMAROBOT(c, (SOCImARobot) mes);
             break;
 
+        /**
+         * a lobby server has connected to this game server, as its link or as a user's proxy
+         */
+        case SOCMessage.LOBBYAUTH:
+            handleLOBBYAUTH(c, (SOCLobbyAuth) mes);
+            break;
+
         /**
          * text message from a game (includes debug commands)
          */
@@ -326,12 +362,76 @@ public class SOCServerMessageHandler
         srv.setClientVersSendGamesOrReject(c, mes.getVersionNumber(), mes.localeOrFeats, true);
     }
 
+    /**
+     * Handle the client's request to compress the server's stream to it.
+     * If {@link SOCServerFeatures#FEAT_COMPRESS} is active and the method is
+     * {@link SOCCompressStream#METHOD_DEFLATE "deflate"}, reply with the same message
+     * and compress everything sent after that. Otherwise ignore the request.
+     *
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleCOMPRESSSTREAM(final Connection c, final SOCCompressStream mes)
+    {
+        if (! ((c instanceof NetConnection) && srv.isFeatureActive(SOCServerFeatures.FEAT_COMPRESS)))
+            return;
+        final NetConnection nc = (NetConnection) c;
+        if (nc.isCompressed() || ! SOCCompressStream.METHOD_DEFLATE.equals(mes.getMethod()))
+            return;
+
+        nc.startCompression(mes.toCmd());
+    }
+
+    /**
+     * Handle the client's request for binary frames.
+     * If {@link SOCServerFeatures#FEAT_BINARY_FRAMES} is active, reply with the frame format version
+     * to use (no higher than the client's) and send the message types handled by {@link SOCBinaryCodec}
+     * as binary frames after that. Otherwise ignore the request.
+     *
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleBINARYFORMAT(final Connection c, final SOCBinaryFormat mes)
+    {
+        if (! ((c instanceof NetConnection) && srv.isFeatureActive(SOCServerFeatures.FEAT_BINARY_FRAMES)))
+            return;
+        final NetConnection nc = (NetConnection) c;
+        final int fv = Math.min(mes.getFormatVersion(), SOCBinaryCodec.FORMAT_VERSION);
+        if (nc.isUsingBinaryFrames() || (fv < 1))
+            return;
+
+        nc.startBinaryFrames(SOCBinaryFormat.toCmd(fv), fv);
+    }
+
+    /**
+     * Handle a robot client's reply with its health and performance stats:
+     * Remember it in {@link SOCClientData#robotStats} for {@code *BOTLIST*}
+     * and {@link SOCServer#robotShuffleForJoin()}. Ignored if not from a robot.
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleROBOTSTATS(final Connection c, final SOCRobotStats mes)
+    {
+        final SOCClientData cd = (SOCClientData) c.getAppData();
+        if ((cd == null) || ! cd.isRobot || mes.isRequest())
+            return;
+
+        cd.robotStats = mes;
+        cd.robotStatsMillis = System.currentTimeMillis();
+    }
+
     /**
      * Handle the optional {@link SOCAuthRequest "authentication request"} message.
      * Sent by clients since v1.1.19 before creating a game or when connecting using {@code SOCAccountClient}.
      *<P>
      * If {@link Connection#getData() c.getData()} != {@code null}, the client already authenticated and
      * this method replies with {@link SOCStatusMessage#SV_OK} without checking the password in this message.
+     *<P>
+     * In v2.0.00 and newer, a reconnecting player client can authenticate with a session token
+     * ({@link SOCAuthRequest#SCHEME_SESSION_TOKEN}) instead of a password.
      *
      * @param c  the connection that sent the message
      * @param mes  the message
@@ -360,7 +460,9 @@ public class SOCServerMessageHandler
                 return;
             }
 
-            if (mes.authScheme != SOCAuthRequest.SCHEME_CLIENT_PLAINTEXT)
+            final int authScheme = mes.authScheme;
+            if (! ((authScheme == SOCAuthRequest.SCHEME_CLIENT_PLAINTEXT)
+                   || ((authScheme == SOCAuthRequest.SCHEME_SESSION_TOKEN) && isPlayerRole)))
             {
                 c.put(SOCStatusMessage.toCmd
                         (SOCStatusMessage.SV_NOT_OK_GENERIC, "AUTHREQUEST: Auth scheme unknown: " + mes.authScheme));
@@ -371,7 +473,7 @@ public class SOCServerMessageHandler
             // Check user authentication.  Don't call setData or nameConnection yet if there
             // are role-specific things to check and reject during this initial connection.
             srv.authOrRejectClientUser
-                (c, mesUser, mes.password, cliVersion, isPlayerRole, false,
+                (c, mesUser, mes.password, authScheme, cliVersion, isPlayerRole, false,
                  new SOCServer.AuthSuccessRunnable()
                  {
                     public void success(final Connection c, final int authResult)
@@ -514,6 +616,41 @@ public class SOCServerMessageHandler
         c.put(SOCUpdateRobotParams.toCmd(params));
     }
 
+    /**
+     * Handle a lobby server's authentication of its link or a user's proxy at this game server.
+     * See {@link SOCServer#authOrRejectLobby(Connection, String, String)} for details.
+     * If rejected, sends {@link SOCRejectConnection} and disconnects.
+     *
+     * @param c  the connection that sent the message
+     * @param mes  the message
+     * @since 2.0.00
+     */
+    private void handleLOBBYAUTH(final Connection c, final SOCLobbyAuth mes)
+    {
+        if (c == null)
+            return;
+
+        final String rejectReason = srv.authOrRejectLobby(c, mes.getSecret(), mes.getNickname());
+        if (rejectReason == null)
+            return;
+
+        if (rejectReason.equals(SOCServer.MSG_NICKNAME_ALREADY_IN_USE))
+            c.put(SOCStatusMessage.toCmd
+                    (SOCStatusMessage.SV_NAME_IN_USE, c.getVersion(), rejectReason));
+        c.put(new SOCRejectConnection(rejectReason).toCmd());
+        c.disconnectSoft();
+
+        // make an effort to send reject message before closing socket
+        final Connection rc = c;
+        srv.miscTaskTimer.schedule(new TimerTask()
+        {
+            public void run()
+            {
+                srv.removeConnection(rc, true);
+            }
+        }, 300);
+    }
+
 
     /// Communications with authenticated clients ///
 
@@ -615,6 +752,9 @@ public class SOCServerMessageHandler
      * this client's version, is sent as {@link SOCGameOption#OTYPE_UNKNOWN}.
      * If the client is older than {@link SOCGameOption#VERSION_FOR_LONGER_OPTNAMES},
      * options with long names won't be sent.
+     *<P>
+     * In v2.0.00 and newer, the reply to a request for all changed options ("-"), which each client sends
+     * when it connects, is cached in {@link #infoBundles} for each client version and locale.
      *
      * @param c  the connection
      * @param mes  the message
@@ -627,10 +767,7 @@ public class SOCServerMessageHandler
 
         final int cliVers = c.getVersion();
         final SOCClientData scd = (SOCClientData) c.getAppData();
-        boolean alreadyTrimmedEnums = false;
-        Vector<String> okeys = mes.getOptionKeys();
-        List<SOCGameOption> opts = null;  // opts to send as SOCGameOptionInfo
-        final Map<String, SOCGameOption> optsToLocal;  // opts to send in a SOCLocalizedStrings instead
+        final Vector<String> okeys = mes.getOptionKeys();
 
         // check for request for i18n localized descriptions (client v2.0.00 or newer);
         // if we don't have game opt localization for client's locale, ignore that request flag.
@@ -640,6 +777,47 @@ public class SOCServerMessageHandler
             scd.wantsI18N
             && ! SOCServer.i18n_gameopt_PL_desc.equals(c.getLocalized("gameopt.PL"));
 
+        if (okeys != null)
+        {
+            for (final String cmd : gameOptionInfoCmds(c, cliVers, okeys, wantsLocalDescs))
+                c.put(cmd);
+
+            return;
+        }
+
+        // Received "-": Every client sends this when it connects, so use the cached response if any
+        final String key = SOCInfoBundleCache.key
+            (SOCInfoBundleCache.TYPE_GAMEOPT, cliVers, (wantsLocalDescs) ? c.getI18NLocale() : null);
+        SOCInfoBundleCache.Bundle b = infoBundles.get(key);
+        if (b == null)
+        {
+            final long gen = SOCInfoBundleCache.currentGeneration();
+            b = new SOCInfoBundleCache.Bundle(gen, gameOptionInfoCmds(c, cliVers, null, wantsLocalDescs));
+            infoBundles.put(key, b);
+        }
+        b.send(c);
+    }
+
+    /**
+     * Build the reply to a {@link SOCGameOptionGetInfos} request, for
+     * {@link #handleGAMEOPTIONGETINFOS(Connection, SOCGameOptionGetInfos)}.
+     * Doesn't send anything to the client or change its {@link SOCClientData}.
+     *
+     * @param c  the connection, for localized strings
+     * @param cliVers  client's version
+     * @param okeys  requested option keys, or {@code null} for all options changed since {@code cliVers}
+     * @param wantsLocalDescs  true if client wants and its locale has localized option descriptions
+     * @return  the reply messages to send, ending with {@link SOCGameOptionInfo#OPTINFO_NO_MORE_OPTS}
+     * @since 2.0.00
+     */
+    private List<String> gameOptionInfoCmds
+        (final Connection c, final int cliVers, final Vector<String> okeys, final boolean wantsLocalDescs)
+    {
+        final List<String> cmds = new ArrayList<String>();
+        boolean alreadyTrimmedEnums = false;
+        List<SOCGameOption> opts = null;  // opts to send as SOCGameOptionInfo
+        final Map<String, SOCGameOption> optsToLocal;  // opts to send in a SOCLocalizedStrings instead
+
         if (wantsLocalDescs)
         {
             // Gather all game opts we have that we could possibly localize;
@@ -735,7 +913,7 @@ public class SOCServerMessageHandler
                     opt = SOCGameOption.trimEnumForVersion(opt, cliVers);
                 }
 
-                c.put(new SOCGameOptionInfo(opt, cliVers, localDesc).toCmd());
+                cmds.add(new SOCGameOptionInfo(opt, cliVers, localDesc).toCmd());
             }
         }
 
@@ -755,17 +933,23 @@ public class SOCServerMessageHandler
                 } catch (MissingResourceException e) {}
             }
 
-            c.put(new SOCLocalizedStrings
+            cmds.add(new SOCLocalizedStrings
                 (SOCLocalizedStrings.TYPE_GAMEOPT, SOCLocalizedStrings.FLAG_SENT_ALL, strs).toCmd());
         }
 
         // mark end of list, even if list was empty
-        c.put(SOCGameOptionInfo.OPTINFO_NO_MORE_OPTS.toCmd());  // GAMEOPTIONINFO("-")
+        cmds.add(SOCGameOptionInfo.OPTINFO_NO_MORE_OPTS.toCmd());  // GAMEOPTIONINFO("-")
+
+        return cmds;
     }
 
     /**
      * Process client request for updated {@link SOCScenario} info.
      * Added 2015-09-21 for v2.0.00.
+     *<P>
+     * The reply to a request for all changed scenarios ({@link SOCScenarioInfo#MARKER_ANY_CHANGED}
+     * with no scenario keys), which each client sends when it connects, is cached in {@link #infoBundles}
+     * for each client version and locale, if nothing has been sent yet about scenarios to that client.
      */
     private void handleSCENARIOINFO(final Connection c, final SOCScenarioInfo mes)
     {
@@ -793,6 +977,31 @@ public class SOCServerMessageHandler
         // Calculate and respond; be sure to include any requested scKeys from params
 
         final int cliVers = c.getVersion();
+        final SOCClientData scd = (SOCClientData) c.getAppData();
+
+        // Use cached response if this is a new client's request for all changes
+        final String bundleKey;
+        if (hasAnyChangedMarker && (L == 0) && (scd.scenariosInfoSent == null)
+            && ! (scd.sentAllScenarioInfo || scd.sentAllScenarioStrings))
+        {
+            bundleKey = SOCInfoBundleCache.key
+                (SOCInfoBundleCache.TYPE_SCENARIO, cliVers, (scd.wantsI18N) ? c.getI18NLocale() : null);
+            final SOCInfoBundleCache.Bundle b = infoBundles.get(bundleKey);
+            if (b != null)
+            {
+                b.send(c);
+                b.updateClientData(scd);
+                scd.sentAllScenarioInfo = true;
+                scd.sentAllScenarioStrings = true;
+
+                return;  // <--- Early return: Sent cached response ---
+            }
+        } else {
+            bundleKey = null;
+        }
+
+        final long bundleGen = SOCInfoBundleCache.currentGeneration();
+        final List<String> cmds = new ArrayList<String>();  // reply to send; cached if bundleKey != null
         Map<String, SOCScenario> knownScens = null;  // caches SOCScenario.getAllKnownScenarios() if called
 
         List<SOCScenario> changes = null;
@@ -814,7 +1023,7 @@ public class SOCServerMessageHandler
                 if ((sc == null) || (sc.minVersion > cliVers))
                     // unknown scenario, or too new; send too-new ones in case client encounters one as a listed game's
                     // scenario (server also sends too-new SOCGameOptions as unknowns, with the same intention)
-                    c.put(new SOCScenarioInfo(scKey, true).toCmd());
+                    cmds.add(new SOCScenarioInfo(scKey, true).toCmd());
                 else if (! changes.contains(sc))
                     changes.add(sc);
             }
@@ -823,11 +1032,9 @@ public class SOCServerMessageHandler
         if (changes != null)
             for (final SOCScenario sc : changes)
                 if (sc.minVersion <= cliVers)
-                    srv.sendGameScenarioInfo(null, sc, c, false);
+                    srv.sendGameScenarioInfo(null, sc, c, false, cmds);
                 else
-                    c.put(new SOCScenarioInfo(sc.key, true).toCmd());
-
-        final SOCClientData scd = (SOCClientData) c.getAppData();
+                    cmds.add(new SOCScenarioInfo(sc.key, true).toCmd());
 
         if (hasAnyChangedMarker && scd.wantsI18N && ! scd.sentAllScenarioStrings)
         {
@@ -855,14 +1062,20 @@ public class SOCServerMessageHandler
                 else
                     scenStrs = scKeys;  // re-use the empty list object
 
-                c.put(SOCLocalizedStrings.toCmd
+                cmds.add(SOCLocalizedStrings.toCmd
                         (SOCLocalizedStrings.TYPE_SCENARIO, SOCLocalizedStrings.FLAG_SENT_ALL, scenStrs));
             }
 
             scd.sentAllScenarioStrings = true;
         }
 
-        c.put(new SOCScenarioInfo(null, null, null).toCmd());  // send end of list
+        cmds.add(new SOCScenarioInfo(null, null, null).toCmd());  // send end of list
+
+        for (final String cmd : cmds)
+            c.put(cmd);
+
+        if (bundleKey != null)
+            infoBundles.put(bundleKey, new SOCInfoBundleCache.Bundle(bundleGen, cmds, scd));
 
         if (hasAnyChangedMarker)
         {
@@ -1768,8 +1981,8 @@ public class SOCServerMessageHandler
     private void handleLEAVEGAME_maybeGameReset_oldRobot(final String gaName)
     {
         SOCGame cg = gameList.getGameData(gaName);
-        if (cg.getGameState() != SOCGame.READY_RESET_WAIT_ROBOT_DISMISS)
-            return;
+        if ((cg == null) || (cg.getGameState() != SOCGame.READY_RESET_WAIT_ROBOT_DISMISS))
+            return;  // also for robots dismissed when game was hibernated
 
         boolean gameResetRobotsAllDismissed = false;
 
@@ -1837,8 +2050,13 @@ public class SOCServerMessageHandler
          *
          * If a human leaves after game is started, seat will appear vacant when the
          * requested bot sits to replace them, so let the bot sit at that vacant seat.
+         *
+         * If the game was restored from a snapshot at server startup, let each player
+         * sit again at their former seat.
          */
         final int pn = mes.getPlayerNumber();
+        final boolean isRestoredSeat = (srv.gameSnapshots != null)
+            && srv.gameSnapshots.isRestoredSeatFor(gaName, pn, c.getData());
 
         ga.takeMonitor();
 
@@ -1850,7 +2068,7 @@ public class SOCServerMessageHandler
                 if (! gameAlreadyStarted)
                     gameIsFull = (1 > ga.getAvailableSeatCount());
 
-                if (gameIsFull || (gameAlreadyStarted && ! isBotJoinRequest))
+                if (gameIsFull || (gameAlreadyStarted && ! (isBotJoinRequest || isRestoredSeat)))
                     canSit = false;
             } else {
                 SOCPlayer seatedPlayer = ga.getPlayer(pn);
@@ -1898,6 +2116,19 @@ public class SOCServerMessageHandler
         if (canSit)
         {
             srv.sitDown(ga, c, pn, mes.isRobot(), false);
+
+            if (isRestoredSeat)
+            {
+                // First player back in a restored game: Ask robots to rejoin at their former seats
+                final int[] botSeats = srv.gameSnapshots.takeRestoredRobotSeats(gaName);
+                if (botSeats != null)
+                {
+                    final GameHandler hand = gameList.getGameTypeHandler(gaName);
+                    for (final int bpn : botSeats)
+                        if (ga.isSeatVacant(bpn))
+                            hand.findRobotAskJoinGame(ga, Integer.valueOf(bpn), true);
+                }
+            }
         }
         else
         {
@@ -25,6 +25,7 @@ import java.util.ConcurrentModificationException;
 import java.util.Vector;
 
 import soc.disableDebug.D;
+import soc.message.SOCRobotStats;
 import soc.message.SOCServerPing;
 import soc.server.genericServer.Connection;
 
@@ -80,12 +81,15 @@ public class SOCServerRobotPinger extends Thread
      * Robot ping loop thread:
      * Send a {@link SOCServerPing} to each bot connected to the server,
      * then sleep for {@link #sleepTime} minus 60 seconds.
+     * In v2.0.00 and newer, also asks each bot for its {@link SOCRobotStats}
+     * if the bot's version is new enough.
      * Exits loop when {@link #stopPinger()} is called.
      */
     @Override
     public void run()
     {
         final String pingCmdStr = ping.toCmd();
+        final String statsCmdStr = new SOCRobotStats().toCmd();
 
         while (alive)
         {
@@ -100,6 +104,8 @@ public class SOCServerRobotPinger extends Thread
                         if (D.ebugIsEnabled())
                             D.ebugPrintln("(*)(*)(*)(*) PINGING " + robotConnection.getData());
                         robotConnection.put(pingCmdStr);
+                        if (robotConnection.getVersion() >= SOCRobotStats.VERSION_FOR_ROBOTSTATS)
+                            robotConnection.put(statsCmdStr);
                     }
                 } catch (ConcurrentModificationException e) {
                     retry = true;
@@ -0,0 +1,93 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times the phases of server startup, to print when the server is ready and in {@code *STATS*}.
+ * Phases which run in a background thread while other startup continues are marked as parallel.
+ * Times are from when the profiler was constructed, after the server socket was opened;
+ * the JVM's start time isn't used, because {@code java.lang.management} takes a while to load.
+ *<P>
+ * <B>Threads:</B> Phases may be recorded from any thread; methods are synchronized.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+final class SOCStartupProfiler
+{
+    /** Names of recorded phases, in the order they finished */
+    private final List<String> phaseNames = new ArrayList<String>();
+
+    /** Each phase's duration in milliseconds; same indexes as {@link #phaseNames} */
+    private final List<Long> phaseMillis = new ArrayList<Long>();
+
+    /** {@link System#nanoTime()} when constructed */
+    private final long startNanos;
+
+    /** Milliseconds from construction until {@link #ready()}, or -1 if not called yet */
+    private long totalMillis = -1;
+
+    SOCStartupProfiler()
+    {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Record a phase which has just finished.
+     * @param name  Phase name, such as {@code "database"}
+     * @param sinceNanos  {@link System#nanoTime()} when the phase began
+     * @param isParallel  True if the phase ran in the background during other phases
+     */
+    synchronized void phaseDone(final String name, final long sinceNanos, final boolean isParallel)
+    {
+        phaseNames.add(isParallel ? name + " (parallel)" : name);
+        phaseMillis.add(Long.valueOf((System.nanoTime() - sinceNanos) / 1000000L));
+    }
+
+    /**
+     * Startup has finished; record the total time.
+     */
+    synchronized void ready()
+    {
+        totalMillis = (System.nanoTime() - startNanos) / 1000000L;
+    }
+
+    /**
+     * Get a one-line summary of the startup phases, like
+     * {@code "Startup: 130 ms; game options 40, database 12, preload (parallel) 60"}.
+     * @return  Summary text
+     */
+    synchronized String getSummary()
+    {
+        final StringBuilder sb = new StringBuilder("Startup: ");
+        if (totalMillis >= 0)
+            sb.append(totalMillis).append(" ms");
+        else
+            sb.append("not finished");
+        for (int i = 0; i < phaseNames.size(); ++i)
+            sb.append((i > 0) ? ", " : "; ").append(phaseNames.get(i)).append(' ').append(phaseMillis.get(i));
+
+        return sb.toString();
+    }
+
+}
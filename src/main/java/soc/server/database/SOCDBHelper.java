@@ -1973,9 +1973,10 @@ public class SOCDBHelper
     /**
      * Get this robot's specialized parameters from the database, if it has an entry there.
      * Optionally, return defaults if not found or if no database: Default bot params are
-     * {@link SOCServer#ROBOT_PARAMS_SMARTER} if the robot name starts with "robot "
+     * {@link SOCServer#ROBOT_PARAMS_MCTS} if the robot name starts with "robot mcts ",
+     * {@link SOCServer#ROBOT_PARAMS_SMARTER} if it starts with "robot ",
      * or {@link SOCServer#ROBOT_PARAMS_DEFAULT} otherwise (starts with "droid ").
-     * This matches the bot names generated in {@link SOCServer#setupLocalRobots(int, int)}.
+     * This matches the bot names generated in {@link SOCServer#setupLocalRobots(int, int, int)}.
      *
      * @param robotName Name of robot for db lookup
      * @param useDefaults  If true, return the server's default parameters if {@code robotName} not in the table
@@ -1990,7 +1991,9 @@ public class SOCDBHelper
         SOCRobotParameters params = retrieveRobotParams(robotName);
 
         if ((params == null) && useDefaults)
-            if (robotName.startsWith("robot "))
+            if (robotName.startsWith("robot mcts "))
+                params = SOCServer.ROBOT_PARAMS_MCTS;  // uses SOCRobotDM.MCTS_STRATEGY
+            else if (robotName.startsWith("robot "))
                 params = SOCServer.ROBOT_PARAMS_SMARTER;  // uses SOCRobotDM.SMART_STRATEGY
             else  // startsWith("droid ")
                 params = SOCServer.ROBOT_PARAMS_DEFAULT;  // uses SOCRobotDM.FAST_STRATEGY
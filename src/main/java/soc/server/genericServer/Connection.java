@@ -26,6 +26,7 @@ import java.util.Date;
 import java.util.MissingResourceException;
 
 import soc.game.SOCGame;  // strictly for passthrough in getLocalizedSpecial, and javadocs; not used otherwise
+import soc.message.SOCMessage;
 import soc.util.SOCStringManager;
 
 /**
@@ -118,6 +119,33 @@ public abstract class Connection
     /** Time of connection to server, or of object creation if that time's not available */
     protected Date connectTime = new Date();
 
+    /**
+     * If true, {@link InboundRateLimiter} doesn't limit this connection's messages.
+     * @see #setRateLimitExempt(boolean)
+     * @since 2.0.00
+     */
+    protected volatile boolean rateLimitExempt;
+
+    /**
+     * This connection's token buckets for {@link InboundRateLimiter}, indexed by category, or {@code null}
+     * before its first message. Used only by this connection's reader thread.
+     * @since 2.0.00
+     */
+    double[] inboundTokens;
+
+    /**
+     * {@link System#nanoTime()} when {@link #inboundTokens} were last refilled.
+     * @since 2.0.00
+     */
+    long inboundTokensTime;
+
+    /**
+     * Number of this connection's messages in the {@link InboundMessageQueue}'s lower-priority queue,
+     * used to keep its messages in order. Guarded by that queue's lock.
+     * @since 2.0.00
+     */
+    int inboundLowQueued;
+
     /**
      * @return Hostname of the remote end of the connection
      */
@@ -136,6 +164,26 @@ public abstract class Connection
     public abstract void put(String str)
         throws IllegalStateException;
 
+    /**
+     * Send a message over the connection. Some subclasses can send certain message types
+     * in a more compact form than {@link SOCMessage#toCmd()} if the remote end has asked for it,
+     * such as {@link NetConnection}'s binary frames. This default implementation sends
+     * {@code cmd}, or {@code mes.toCmd()} if {@code cmd} is null.
+     *<P>
+     * <B>Threads:</B> Same as {@link #put(String)}.
+     *
+     * @param mes  Message to send
+     * @param cmd  {@code mes.toCmd()} if the caller already has it, such as when sending
+     *     the same message to each member of a game; or null
+     * @throws IllegalStateException if not yet accepted by server
+     * @since 2.0.00
+     */
+    public void put(final SOCMessage mes, final String cmd)
+        throws IllegalStateException
+    {
+        put((cmd != null) ? cmd : mes.toCmd());
+    }
+
     /** For server-side thread which reads and treats incoming messages */
     public abstract void run();
 
@@ -439,4 +487,27 @@ public abstract class Connection
         hideTimeoutMessage = wantsHide;
     }
 
+    /**
+     * Is this connection exempt from the server's inbound message rate limits?
+     * @return  True if exempt
+     * @see #setRateLimitExempt(boolean)
+     * @since 2.0.00
+     */
+    public boolean isRateLimitExempt()
+    {
+        return rateLimitExempt;
+    }
+
+    /**
+     * Set or clear this connection's exemption from the server's inbound message rate limits,
+     * for example when it authenticates as a robot. Local {@link StringConnection}s are exempt by default.
+     * @param exempt  True if {@link InboundRateLimiter} shouldn't limit this connection's messages
+     * @see #isRateLimitExempt()
+     * @since 2.0.00
+     */
+    public void setRateLimitExempt(final boolean exempt)
+    {
+        rateLimitExempt = exempt;
+    }
+
 }
@@ -40,6 +40,14 @@ import soc.message.SOCMessage;
  * but then finish handling that message in the Treater to simplify locking of other objects.
  * For this, call {@link #post(Runnable)}: Same concept as {@link java.awt.EventQueue#invokeLater(Runnable)}.
  *
+ *<H3>Flood protection:</H3>
+ * Game action messages and posted Runnables are dequeued before chat, option queries, and other lobby messages,
+ * which wait in a lower-priority queue; each connection's messages are still processed in the order it sent them.
+ * The server can limit each connection's message rates with an {@link InboundRateLimiter}, and bound
+ * the number of queued messages: When the queue is full, incoming chat is dropped, and other messages
+ * make their connection's reader thread wait for room. See {@link #setFloodLimits(InboundRateLimiter, int)}.
+ * Counters of dropped and delayed messages are in {@link #getStatsText()}.
+ *
  *<H3>Startup:</H3>
  * This queue's constructor only sets up the InboundMessageQueue to receive messages. Afterwards when the
  * {@link Server} is ready to process inbound messages, you must call {@link #startMessageProcessing()}
@@ -67,9 +75,51 @@ public class InboundMessageQueue
     /**
      * Internal queue to used to store all clients' {@link MessageData}
      * and/or code to be ran in the {@link Treater} thread.
+     * Since v2.0.00 holds game actions and Runnables; other messages are in {@link #lowQueue}.
+     * Its monitor also guards {@code lowQueue}, the statistics fields, and each {@link Connection#inboundLowQueued}.
      */
     private Vector<MessageData> inQueue;
 
+    /**
+     * Lower-priority queue for chat, queries, and lobby messages, and any messages from a client
+     * which already has messages here. Dequeued only when {@link #inQueue} is empty.
+     * Guarded by {@code inQueue}'s monitor.
+     * @since 2.0.00
+     */
+    private final Vector<MessageData> lowQueue = new Vector<MessageData>();
+
+    /**
+     * Optional per-connection rate limiter, or {@code null}.
+     * @see #setFloodLimits(InboundRateLimiter, int)
+     * @since 2.0.00
+     */
+    private volatile InboundRateLimiter rateLimiter;
+
+    /**
+     * Maximum number of queued messages, or 0 for no limit. Doesn't apply to {@link #post(Runnable)}.
+     * @see #setFloodLimits(InboundRateLimiter, int)
+     * @since 2.0.00
+     */
+    private volatile int maxQueued;
+
+    /**
+     * Number of reader threads waiting in {@link #push(SOCMessage, Connection)} for room in a full queue.
+     * @since 2.0.00
+     */
+    private int waitingForRoom;
+
+    /**
+     * Most messages queued at once since startup.
+     * @since 2.0.00
+     */
+    private int statPeakQueued;
+
+    /**
+     * Number of chat messages dropped, and other messages delayed, because the queue was full.
+     * @since 2.0.00
+     */
+    private long statFullDropped, statFullDelayed;
+
     /**
      * Internal thread to process data out of the {@link #inQueue}.
      */
@@ -102,21 +152,41 @@ public class InboundMessageQueue
     }
 
     /**
-     * Stop the {@link Treater} internal thread
+     * Stop the {@link Treater} internal thread, if {@link #startMessageProcessing()} has started it.
      */
     public void stopMessageProcessing()
     {
-        treater.stopTreater();
+        if (treater != null)
+            treater.stopTreater();
+    }
+
+    /**
+     * Set or change the flood protection limits. Can be called before or after {@link #startMessageProcessing()}.
+     * @param limiter  Rate limiter for each connection's messages, or {@code null} for no rate limits
+     * @param maxQueued  Maximum number of queued messages, or 0 for no limit
+     * @since 2.0.00
+     */
+    public void setFloodLimits(final InboundRateLimiter limiter, final int maxQueued)
+    {
+        rateLimiter = limiter;
+        this.maxQueued = Math.max(0, maxQueued);
     }
 
     /**
      * Append an element to the end of the inbound queue.
+     * Game actions go into the main queue, other messages into a lower-priority queue;
+     * if the client already has messages in the lower-priority queue, game actions go there too
+     * so its messages stay in order.
+     *<P>
+     * If there's a rate limiter or maximum queue size, this method may drop a chat message
+     * or wait before queueing other messages; see {@link #setFloodLimits(InboundRateLimiter, int)}.
      *<P>
      *<B>Threads:</B>
      * This method notifies the {@link Treater}, waking that thread if it
      * was {@link Object#wait()}ing because the queue was empty.
      * Although {@code push(..)} isn't declared {@code synchronized},
      * it's thread-safe because it synchronizes on the internal queue object.
+     * Should be called only from {@code clientConnection}'s reader thread, which it may make wait.
      *
      * @param receivedMessage from the connection; will never be {@code null}
      * @param clientConnection that send the message; will never be {@code null}
@@ -124,11 +194,56 @@ public class InboundMessageQueue
      */
     public void push(SOCMessage receivedMessage, Connection clientConnection)
     {
+        final int category = InboundRateLimiter.getCategory(receivedMessage);
+        final InboundRateLimiter limiter = rateLimiter;
+        if ((limiter != null) && ! limiter.acquire(clientConnection, category))
+            return;
+
         final MessageData md = new MessageData(receivedMessage, clientConnection);
         synchronized (inQueue)
         {
-            inQueue.addElement(md);
-            inQueue.notify();
+            int max = maxQueued;
+            if ((max > 0) && (inQueue.size() + lowQueue.size() >= max))
+            {
+                if (category == InboundRateLimiter.CATEGORY_CHAT)
+                {
+                    ++statFullDropped;
+                    return;
+                }
+
+                ++statFullDelayed;
+                ++waitingForRoom;
+                try
+                {
+                    while ((max > 0) && (inQueue.size() + lowQueue.size() >= max)
+                           && (treater != null) && treater.isAlive())
+                    {
+                        try
+                        {
+                            inQueue.wait(1000);
+                        }
+                        catch (InterruptedException e) {}
+
+                        max = maxQueued;
+                    }
+                } finally {
+                    --waitingForRoom;
+                }
+            }
+
+            if ((category == InboundRateLimiter.CATEGORY_GAME) && (clientConnection.inboundLowQueued == 0))
+            {
+                inQueue.addElement(md);
+            } else {
+                lowQueue.addElement(md);
+                ++clientConnection.inboundLowQueued;
+            }
+
+            final int n = inQueue.size() + lowQueue.size();
+            if (n > statPeakQueued)
+                statPeakQueued = n;
+
+            inQueue.notifyAll();
         }
     }
 
@@ -151,7 +266,7 @@ public class InboundMessageQueue
         synchronized (inQueue)
         {
             inQueue.addElement(md);
-            inQueue.notify();
+            inQueue.notifyAll();
         }
     }
 
@@ -166,11 +281,44 @@ public class InboundMessageQueue
     {
         synchronized (inQueue)
         {
+            MessageData md = null;
             if (inQueue.size() > 0)
-                return inQueue.remove(0);
+            {
+                md = inQueue.remove(0);
+            }
+            else if (lowQueue.size() > 0)
+            {
+                md = lowQueue.remove(0);
+                --md.clientSender.inboundLowQueued;
+            }
+
+            if ((md != null) && (waitingForRoom > 0))
+                inQueue.notifyAll();
+
+            return md;
+        }
+    }
+
+    /**
+     * Get a summary for {@code *STATS*}: Messages queued now and at peak, the queue limit,
+     * and messages dropped or delayed because it was full.
+     * The rate limiter, if any, has its own {@link InboundRateLimiter#getStatsText()}.
+     * @return  Statistics text, without a leading {@code "> "}
+     * @since 2.0.00
+     */
+    public String getStatsText()
+    {
+        final StringBuilder sb = new StringBuilder("Inbound queue: ");
+        synchronized (inQueue)
+        {
+            sb.append(inQueue.size()).append(" game, ").append(lowQueue.size()).append(" other; peak ")
+              .append(statPeakQueued);
+            if (maxQueued > 0)
+                sb.append(" (max ").append(maxQueued).append("); when full: chat dropped ").append(statFullDropped)
+                  .append(", delayed ").append(statFullDelayed);
         }
 
-        return null;
+        return sb.toString();
     }
 
     /**
@@ -241,7 +389,7 @@ public class InboundMessageQueue
 
                 synchronized (inQueue)
                 {
-                    if (inQueue.size() == 0)
+                    if ((inQueue.size() == 0) && (lowQueue.size() == 0))
                     {
                         try
                         {
@@ -0,0 +1,185 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import soc.message.SOCBotMux;
+import soc.message.SOCMessage;
+import soc.message.SOCMessageForGame;
+
+/**
+ * Per-connection flood protection for inbound messages, used by {@link InboundMessageQueue#push(SOCMessage, Connection)}
+ * before a message is queued. Each connection has a token bucket for each message category
+ * ({@link #CATEGORY_GAME}, {@link #CATEGORY_CHAT}, {@link #CATEGORY_QUERY}), refilled at that category's
+ * rate per second up to a burst of {@link #BURST_SECONDS} seconds' worth of messages.
+ *<P>
+ * When a connection's bucket for a message's category is empty, chat messages are dropped;
+ * other messages are delayed by making the connection's reader thread sleep until a token is available.
+ * Since each connection has its own reader thread, that slows only the flooding client.
+ * Connections which are {@link Connection#isRateLimitExempt()}, such as local robots, aren't limited.
+ *<P>
+ * <B>Threads:</B> {@link #acquire(Connection, int)} is called from each connection's reader thread,
+ * which is the only thread using that connection's bucket fields. Statistics are synchronized on this object.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class InboundRateLimiter
+{
+    /** Category for game actions: Messages which are {@link SOCMessageForGame}, except game chat */
+    public static final int CATEGORY_GAME = 0;
+
+    /** Category for chat: Game, channel, and broadcast text messages */
+    public static final int CATEGORY_CHAT = 1;
+
+    /**
+     * Category for game option and scenario info queries, localized strings,
+     * and other lobby messages such as joining a game or channel
+     */
+    public static final int CATEGORY_QUERY = 2;
+
+    /** Number of message categories */
+    private static final int CATEGORY_COUNT = 3;
+
+    /** Each bucket holds up to this many seconds' worth of its category's rate, for bursts */
+    public static final int BURST_SECONDS = 5;
+
+    /** Messages per second allowed for each category, or 0 for no limit; index is category */
+    private final int[] rates;
+
+    /** Number of messages delayed for each category; index is category */
+    private final long[] statDelayed = new long[CATEGORY_COUNT];
+
+    /** Number of chat messages dropped */
+    private long statChatDropped;
+
+    /**
+     * Create a rate limiter.
+     * @param chatRate  Chat messages per second allowed from each connection, or 0 for no limit
+     * @param gameRate  Game action messages per second, or 0
+     * @param queryRate  Query and other lobby messages per second, or 0
+     */
+    public InboundRateLimiter(final int chatRate, final int gameRate, final int queryRate)
+    {
+        rates = new int[CATEGORY_COUNT];
+        rates[CATEGORY_CHAT] = Math.max(0, chatRate);
+        rates[CATEGORY_GAME] = Math.max(0, gameRate);
+        rates[CATEGORY_QUERY] = Math.max(0, queryRate);
+    }
+
+    /**
+     * Get a message's category for rate limiting and queue priority.
+     * A {@link SOCBotMux} from a robot host has its inner message's category;
+     * one which closes a bot's sub-connection is {@link #CATEGORY_QUERY}.
+     * @param mes  Message; not null
+     * @return  {@link #CATEGORY_CHAT}, {@link #CATEGORY_GAME}, or {@link #CATEGORY_QUERY}
+     */
+    public static int getCategory(final SOCMessage mes)
+    {
+        switch (mes.getType())
+        {
+        case SOCMessage.GAMETEXTMSG:
+            // fall through
+        case SOCMessage.CHANNELTEXTMSG:
+            // fall through
+        case SOCMessage.BCASTTEXTMSG:
+            return CATEGORY_CHAT;
+
+        case SOCMessage.BOTMUX:
+            {
+                final SOCMessage inner = ((SOCBotMux) mes).getMessage();
+                return (inner != null) ? getCategory(inner) : CATEGORY_QUERY;
+            }
+
+        default:
+            return (mes instanceof SOCMessageForGame) ? CATEGORY_GAME : CATEGORY_QUERY;
+        }
+    }
+
+    /**
+     * Take a token from the connection's bucket for this category of message.
+     * If the bucket is empty, either drops the message (chat) or sleeps until a token is available.
+     * Must be called only from {@code c}'s reader thread.
+     * @param c  Connection which sent the message
+     * @param category  Message's category from {@link #getCategory(SOCMessage)}
+     * @return  True if the message should be queued, false if it's dropped
+     */
+    public boolean acquire(final Connection c, final int category)
+    {
+        final int rate = rates[category];
+        if ((rate == 0) || c.isRateLimitExempt())
+            return true;
+
+        final long now = System.nanoTime();
+        double[] tokens = c.inboundTokens;
+        if (tokens == null)
+        {
+            tokens = new double[CATEGORY_COUNT];
+            for (int i = 0; i < CATEGORY_COUNT; ++i)
+                tokens[i] = rates[i] * BURST_SECONDS;
+            c.inboundTokens = tokens;
+        } else {
+            final double elapsedSec = (now - c.inboundTokensTime) / 1e9;
+            for (int i = 0; i < CATEGORY_COUNT; ++i)
+                tokens[i] = Math.min(rates[i] * BURST_SECONDS, tokens[i] + elapsedSec * rates[i]);
+        }
+        c.inboundTokensTime = now;
+
+        if (tokens[category] >= 1.0)
+        {
+            tokens[category] -= 1.0;
+            return true;
+        }
+
+        if (category == CATEGORY_CHAT)
+        {
+            synchronized (this)
+            {
+                ++statChatDropped;
+            }
+            return false;
+        }
+
+        // Take the token now, leaving the bucket in debt, and wait until it would have refilled
+        tokens[category] -= 1.0;
+        synchronized (this)
+        {
+            ++statDelayed[category];
+        }
+        try
+        {
+            Thread.sleep((long) Math.ceil(-tokens[category] * 1000.0 / rate));
+        }
+        catch (InterruptedException e) {}
+
+        return true;
+    }
+
+    /**
+     * Get a summary for {@code *STATS*}: Limits, chat messages dropped, and other messages delayed.
+     * @return  Statistics text, without a leading {@code "> "}
+     */
+    public synchronized String getStatsText()
+    {
+        return "Inbound rate limits per second: chat " + rates[CATEGORY_CHAT] + ", game " + rates[CATEGORY_GAME]
+            + ", queries " + rates[CATEGORY_QUERY] + "; chat dropped: " + statChatDropped
+            + "; delayed: game " + statDelayed[CATEGORY_GAME] + ", queries " + statDelayed[CATEGORY_QUERY];
+    }
+
+}
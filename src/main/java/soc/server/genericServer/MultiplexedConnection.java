@@ -0,0 +1,190 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import soc.message.SOCBotMux;
+import soc.message.SOCMessage;
+
+/**
+ * One of several client identities carried by a single host {@link Connection}, such as a robot
+ * on a {@link soc.robot.SOCRobotHost}. The server treats it like any other client connection:
+ * It's added with {@link Server#addConnection(Connection)}, named, and removed as usual.
+ *<P>
+ * Has no threads of its own. Outbound messages are wrapped in {@link SOCBotMux} tagged with
+ * {@link #getMuxID()} and sent through the host connection. Inbound messages arrive as {@code SOCBotMux}
+ * from the host, and the server's dispatcher handles their inner message as if sent by this connection.
+ *<P>
+ * When disconnected at the server, sends the host a {@link SOCBotMux} without an inner message.
+ * If the host connection is lost, the server should remove all of its multiplexed connections.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public class MultiplexedConnection extends Connection
+{
+    /** The host connection which carries this one */
+    private final Connection hostConn;
+
+    /** This connection's ID number on its host */
+    private final int muxID;
+
+    /** Is this connection open? Set in {@link #connect()}, cleared in {@link #disconnect()}. */
+    private volatile boolean connected;
+
+    /**
+     * Create a multiplexed connection on a host connection. Call {@link Server#addConnection(Connection)} next.
+     * @param host  The host connection which carries this one; not null
+     * @param muxID  This connection's ID number on {@code host}
+     * @throws IllegalArgumentException if {@code host} is null
+     */
+    public MultiplexedConnection(final Connection host, final int muxID)
+        throws IllegalArgumentException
+    {
+        if (host == null)
+            throw new IllegalArgumentException("host");
+
+        hostConn = host;
+        this.muxID = muxID;
+        ourServer = host.ourServer;
+        rateLimitExempt = host.rateLimitExempt;
+    }
+
+    /**
+     * Get the host connection which carries this one.
+     * @return the host connection
+     */
+    public Connection getHostConnection()
+    {
+        return hostConn;
+    }
+
+    /**
+     * Get this connection's ID number on its host, used in {@link SOCBotMux#getBotID()}.
+     * @return  This connection's ID
+     */
+    public int getMuxID()
+    {
+        return muxID;
+    }
+
+    /**
+     * @return Hostname of the remote end of the host connection
+     */
+    public String host()
+    {
+        return hostConn.host();
+    }
+
+    /**
+     * Send this data over the host connection, wrapped in {@link SOCBotMux}.
+     * Ignored if this connection or its host connection is closed, since the server may
+     * still broadcast to this one until it's removed after the host's close.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread, like the host connection's {@code put}.
+     * @param str  Data to send
+     */
+    public void put(final String str)
+    {
+        if (! isConnected())
+            return;
+
+        try
+        {
+            hostConn.put(SOCBotMux.toCmd(muxID, str));
+        }
+        catch (IllegalStateException e) {}  // host closed just now; server will remove this connection
+    }
+
+    /**
+     * Send this message over the host connection, wrapped in {@link SOCBotMux}.
+     * A local host connection may pass it as an object; see {@link StringConnection#put(SOCMessage, String)}.
+     * Ignored if this connection or its host connection is closed.
+     * @param mes  Message to send
+     * @param cmd  {@code mes.toCmd()} if the caller already has it, or null
+     */
+    @Override
+    public void put(final SOCMessage mes, final String cmd)
+    {
+        if (! isConnected())
+            return;
+
+        try
+        {
+            hostConn.put(new SOCBotMux(muxID, mes, cmd), null);
+        }
+        catch (IllegalStateException e) {}  // host closed just now
+    }
+
+    /**
+     * Does nothing: Inbound messages are read by the host connection's thread.
+     */
+    public void run() {}
+
+    /**
+     * Is this connection open, and its host connection connected?
+     * @return true if connected
+     */
+    public boolean isConnected()
+    {
+        return connected && hostConn.isConnected();
+    }
+
+    /**
+     * Open this connection, if its host is connected.
+     * Called from {@link Server#addConnection(Connection)}.
+     * @return true if connected
+     */
+    public boolean connect()
+    {
+        connected = hostConn.isConnected();
+        return connected;
+    }
+
+    /**
+     * Close this connection, and tell the host it's closed unless the host has disconnected.
+     * Doesn't remove it from the server; call {@link Server#removeConnection(Connection, boolean)} for that.
+     */
+    public void disconnect()
+    {
+        if (! connected)
+            return;
+
+        connected = false;
+        if (hostConn.isConnected())
+            hostConn.put(SOCBotMux.toCmd(muxID, null));
+    }
+
+    /**
+     * Same as {@link #disconnect()}, since there's no buffered input or output to wait for.
+     */
+    public void disconnectSoft()
+    {
+        disconnect();
+    }
+
+    /**
+     * @return false, since inbound messages are read by the host connection
+     */
+    public boolean isInputAvailable()
+    {
+        return false;
+    }
+
+}
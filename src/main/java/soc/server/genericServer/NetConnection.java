@@ -23,6 +23,7 @@
 package soc.server.genericServer;
 
 import soc.disableDebug.D;
+import soc.message.SOCBinaryCodec;
 import soc.message.SOCMessage;
 
 import java.io.DataInputStream;
@@ -70,8 +71,34 @@ public final class NetConnection
     /** @see #disconnectSoft() */
     protected boolean inputConnected = false;
 
-    /** Messages from server to client, sent in {@link Putter} thread */
-    private Vector<String> outQueue = new Vector<String>();
+    /**
+     * Messages from server to client, sent in {@link Putter} thread.
+     * Each is a text message {@code String}, or a {@code byte[]} binary frame from {@link #binaryEncoder}.
+     */
+    private Vector<Object> outQueue = new Vector<Object>();
+
+    /**
+     * Marker in {@link #outQueue} from {@link #startCompression(String)}: When the {@link Putter} reaches it,
+     * compress everything after it. Compared by identity, not by {@code equals}.
+     * @since 2.0.00
+     */
+    private static final String START_COMPRESSION_MARKER = new String("start-compression");
+
+    /**
+     * Compresses the outbound stream, if {@link #startCompression(String)} has been called
+     * and the {@link Putter} has reached that point in {@link #outQueue}; otherwise null.
+     * Used only by the Putter thread, except for stats.
+     * @since 2.0.00
+     */
+    private volatile StreamDeflater deflater;
+
+    /**
+     * Encodes some message types as binary frames, if {@link #startBinaryFrames(String, int)} has been called;
+     * otherwise null. Used only while holding the {@link #outQueue} lock, so that game definition frames
+     * are queued before the frames which use them.
+     * @since 2.0.00
+     */
+    private SOCBinaryCodec.Encoder binaryEncoder;
 
     /** initialize the connection data */
     NetConnection(Socket so, Server sve)
@@ -242,19 +269,140 @@ public final class NetConnection
         }
     }
 
+    /**
+     * Send this message over the connection. If {@link #startBinaryFrames(String, int)} has been called
+     * and {@link SOCBinaryCodec#canEncode(SOCMessage)}, queues it as a binary frame;
+     * otherwise queues its text like {@link #put(String)}.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread; synchronizes on internal {@code outQueue}.
+     *
+     * @param mes  Message to send
+     * @param cmd  {@code mes.toCmd()} if the caller already has it, or null
+     * @since 2.0.00
+     */
+    @Override
+    public void put(final SOCMessage mes, final String cmd)
+    {
+        synchronized (outQueue)
+        {
+            final byte[] frame = (binaryEncoder != null) ? binaryEncoder.encode(mes) : null;
+            outQueue.addElement((frame != null) ? frame : ((cmd != null) ? cmd : mes.toCmd()));
+            outQueue.notify();
+        }
+    }
+
+    /**
+     * Send this last text-only reply, then send the message types handled by {@link SOCBinaryCodec}
+     * as binary frames when they're sent with {@link #put(SOCMessage, String)}.
+     * The client must be ready to read binary frames once it reads {@code lastCmd}.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread; synchronizes on internal {@code outQueue}.
+     *
+     * @param lastCmd  Reply to send before any binary frame, from {@link soc.message.SOCBinaryFormat#toCmd()}
+     * @param formatVersion  Frame format version the client agreed to
+     * @throws IllegalArgumentException if {@code formatVersion} isn't supported by {@link SOCBinaryCodec.Encoder}
+     * @since 2.0.00
+     */
+    public void startBinaryFrames(final String lastCmd, final int formatVersion)
+        throws IllegalArgumentException
+    {
+        final SOCBinaryCodec.Encoder enc = new SOCBinaryCodec.Encoder(formatVersion);
+
+        synchronized (outQueue)
+        {
+            outQueue.addElement(lastCmd);
+            binaryEncoder = enc;
+            outQueue.notify();
+        }
+    }
+
+    /**
+     * Does this connection send some messages as binary frames?
+     * True once {@link #startBinaryFrames(String, int)} has been called.
+     * @return true if using binary frames
+     * @since 2.0.00
+     */
+    public boolean isUsingBinaryFrames()
+    {
+        synchronized (outQueue)
+        {
+            return (binaryEncoder != null);
+        }
+    }
+
+    /**
+     * Get this connection's binary frame statistics, if it's using them.
+     * @return Stats from {@link SOCBinaryCodec.Encoder#getStatsText()},
+     *     or {@code null} if not {@link #isUsingBinaryFrames()}
+     * @since 2.0.00
+     */
+    public String getBinaryFramesStatsText()
+    {
+        synchronized (outQueue)
+        {
+            return (binaryEncoder != null) ? binaryEncoder.getStatsText() : null;
+        }
+    }
+
+    /**
+     * Send this last uncompressed message, then compress everything after it with a {@link StreamDeflater}.
+     * The client must be ready to inflate the stream once it reads {@code lastCmd}.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread; synchronizes on internal {@code outQueue}.
+     *
+     * @param lastCmd  Last message to send uncompressed, from {@link soc.message.SOCCompressStream#toCmd()}
+     * @throws IllegalStateException if {@link StreamDeflater#isAvailable()} is false
+     * @since 2.0.00
+     */
+    public void startCompression(final String lastCmd)
+        throws IllegalStateException
+    {
+        if (! StreamDeflater.isAvailable())
+            throw new IllegalStateException("compression not available");
+
+        synchronized (outQueue)
+        {
+            outQueue.addElement(lastCmd);
+            outQueue.addElement(START_COMPRESSION_MARKER);
+            outQueue.notify();
+        }
+    }
+
+    /**
+     * Is the outbound stream compressed? True once {@link #startCompression(String)} has been called
+     * and all messages before it have been sent.
+     * @return true if compressed
+     * @since 2.0.00
+     */
+    public boolean isCompressed()
+    {
+        return (deflater != null);
+    }
+
+    /**
+     * Get this connection's compression statistics, if its outbound stream is compressed.
+     * @return Stats from {@link StreamDeflater#getStatsText()}, or {@code null} if not {@link #isCompressed()}
+     * @since 2.0.00
+     */
+    public String getCompressionStatsText()
+    {
+        final StreamDeflater d = deflater;
+        return (d != null) ? d.getStatsText() : null;
+    }
+
     /**
      * Data is added asynchronously (sitting in {@link #outQueue}).
      * This method is called when it's dequeued and sent over
      * the connection to the remote end.
      *
-     * @param str Data to send
+     * @param item Data to send: A text message {@code String} or a binary frame {@code byte[]}
      *
      * @return True if sent, false if error
      *         (and sets {@link #error})
      */
-    private boolean putForReal(final String str)
+    private boolean putForReal(final Object item)
     {
-        boolean rv = putAux(str);
+        boolean rv = putAux(item);
 
         if (! rv)
         {
@@ -279,7 +427,7 @@ public final class NetConnection
      * @return true for success, false and disconnects on failure
      *         (and sets {@link #error})
      */
-    private final boolean putAux(final String str)
+    private final boolean putAux(final Object item)
     {
         if ((error != null) || ! connected)
         {
@@ -289,8 +437,14 @@ public final class NetConnection
         try
         {
             //D.ebugPrintln("trying to put "+str+" to "+data);
-            out.writeUTF(str);
+            final StreamDeflater d = deflater;
+            final DataOutputStream dout = (d == null) ? out : d.getDataOutput();
+                // if compressing, is sent when Putter calls flushCompressed()
+            if (item instanceof String)
+                dout.writeUTF((String) item);
                 // throws UTFDataFormatException (an IOException) if string length > 65535 in UTF-8
+            else
+                dout.write((byte[]) item);
         }
         catch (IOException e)
         {
@@ -320,6 +474,36 @@ public final class NetConnection
         return true;
     }
 
+    /**
+     * If the outbound stream is compressed, compress and send the messages written since the last flush.
+     * Called by {@link Putter} after each batch.
+     * @return true for success, false and disconnects on failure
+     *         (and sets {@link #error})
+     * @since 2.0.00
+     */
+    private boolean flushCompressed()
+    {
+        final StreamDeflater d = deflater;
+        if ((d == null) || (error != null) || ! connected)
+            return (error == null);
+
+        try
+        {
+            d.flush();
+        }
+        catch (IOException e)
+        {
+            D.ebugPrintln("IOException in NetConnection.flushCompressed (" + hst + ") - " + e);
+            error = e;
+            if (connected)
+                ourServer.removeConnection(this, false);
+
+            return false;
+        }
+
+        return true;
+    }
+
     /** close the socket, stop the reader; called after conn is removed from server structures */
     public void disconnect()
     {
@@ -426,26 +610,39 @@ public final class NetConnection
         {
             while (connected)
             {
-                String c = null;
+                Object c = null;
 
                 if (D.ebugIsEnabled())
                     D.ebugPrintln("** " + data + " is at the top of the putter loop");
 
-                synchronized (outQueue)
+                // If compressed, send all queued messages as one batch and flush once
+                do
                 {
-                    if (outQueue.size() > 0)
+                    c = null;
+                    synchronized (outQueue)
                     {
-                        c = outQueue.elementAt(0);
-                        outQueue.removeElementAt(0);
+                        if (outQueue.size() > 0)
+                        {
+                            c = outQueue.elementAt(0);
+                            outQueue.removeElementAt(0);
+                        }
                     }
-                }
 
-                if (c != null)
-                {
-                    /* boolean rv = */ putForReal(c);
+                    if (c == START_COMPRESSION_MARKER)
+                    {
+                        if (deflater == null)
+                            deflater = new StreamDeflater(out, ourServer.compressStats);
+                    }
+                    else if (c != null)
+                    {
+                        /* boolean rv = */ putForReal(c);
 
-                    // rv ignored because handled by putForReal
-                }
+                        // rv ignored because handled by putForReal
+                    }
+                } while ((c != null) && (deflater != null) && connected);
+
+                if (deflater != null)
+                    flushCompressed();
 
                 synchronized (outQueue)
                 {
@@ -464,6 +661,10 @@ public final class NetConnection
                 }
             }
 
+            final StreamDeflater d = deflater;
+            if (d != null)
+                d.end();
+
             D.ebugPrintln("putter not putting connected==false : " + data);
         }
     }
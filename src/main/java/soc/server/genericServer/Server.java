@@ -175,6 +175,13 @@ public abstract class Server extends Thread implements Serializable, Cloneable
      */
     public final InboundMessageQueue inQueue;
 
+    /**
+     * Totals of compression statistics from all {@link NetConnection}s whose outbound stream
+     * is compressed by a {@link StreamDeflater}.
+     * @since 2.0.00
+     */
+    public final StreamDeflater.Stats compressStats = new StreamDeflater.Stats();
+
     /**
      * Versions of currently connected clients, according to
      * {@link Connection#getVersion()}.
@@ -1199,7 +1206,8 @@ public abstract class Server extends Thread implements Serializable, Cloneable
         {
             e.nextElement().put(m);
         }
-        for (Enumeration<Connection> e = unnamedConns.elements(); e.hasMoreElements();)
+        // Copy, since a connection may be removed meanwhile by its thread
+        for (Enumeration<Connection> e = new Vector<Connection>(unnamedConns).elements(); e.hasMoreElements();)
         {
             e.nextElement().put(m);
         }
@@ -1237,7 +1245,7 @@ public abstract class Server extends Thread implements Serializable, Cloneable
             if ((cvers >= vmin) && (cvers <= vmax))
                 c.put(m);
         }
-        for (Enumeration<Connection> e = unnamedConns.elements(); e.hasMoreElements();)
+        for (Enumeration<Connection> e = new Vector<Connection>(unnamedConns).elements(); e.hasMoreElements();)
         {
             Connection c = e.nextElement();
             int cvers = c.getVersion();
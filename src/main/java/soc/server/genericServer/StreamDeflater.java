@@ -0,0 +1,257 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soc.server.genericServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Deflate compression for a {@link NetConnection}'s outbound stream, flushed after each batch
+ * of messages so the remote end can inflate and read them all right away.
+ * The remote end reads the stream with {@link java.util.zip.InflaterInputStream}.
+ *<P>
+ * The connection's {@code Putter} thread writes each message in the batch to {@link #getDataOutput()}
+ * with {@link DataOutputStream#writeUTF(String)} as it would to the socket, then calls {@link #flush()}.
+ * The deflater keeps its history window between batches, so repeated message text compresses well.
+ *<P>
+ * A sync flush needs {@code Deflater.SYNC_FLUSH}, which was added in Java 7. This code is
+ * Java 5, so it's looked up by reflection: If it's not available, {@link #isAvailable()} returns false
+ * and the server shouldn't offer compression.
+ *<P>
+ * <B>Threads:</B> Not thread-safe, except the statistics getters; only the Putter thread should write or flush.
+ *
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ * @since 2.0.00
+ */
+public final class StreamDeflater
+{
+    /** {@code Deflater.deflate(byte[], int, int, int)}, or null if not available (before Java 7) */
+    private static final Method DEFLATE_WITH_FLUSH;
+
+    /** {@code Deflater.SYNC_FLUSH} if {@link #DEFLATE_WITH_FLUSH} available */
+    private static final Integer SYNC_FLUSH;
+
+    static
+    {
+        Method m = null;
+        Integer sf = null;
+        try
+        {
+            m = Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+            sf = Integer.valueOf(Deflater.class.getField("SYNC_FLUSH").getInt(null));
+        }
+        catch (Exception e) {
+            m = null;
+        }
+        DEFLATE_WITH_FLUSH = m;
+        SYNC_FLUSH = sf;
+    }
+
+    /**
+     * Is compression available in this JRE? Requires Java 7 or higher, see class javadoc.
+     * @return true if streams can be sync-flushed
+     */
+    public static boolean isAvailable()
+    {
+        return (DEFLATE_WITH_FLUSH != null);
+    }
+
+    private final OutputStream sink;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    /** Uncompressed messages of the current batch, written through {@link #dataOut} */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(1024);
+    private final DataOutputStream dataOut = new DataOutputStream(pending);
+
+    /** Compressed output buffer */
+    private byte[] buf = new byte[1024];
+
+    /** Server-wide totals to also update, or null */
+    private final Stats totals;
+
+    private volatile long bytesIn, bytesOut, nanos;
+
+    /**
+     * Create a deflater which will write compressed output to this stream.
+     * @param sink  Stream to write compressed output to, usually the connection's socket
+     * @param totals  Server-wide statistics to update along with this stream's own, or null
+     * @throws IllegalStateException if not {@link #isAvailable()}
+     */
+    public StreamDeflater(final OutputStream sink, final Stats totals)
+        throws IllegalStateException
+    {
+        if (DEFLATE_WITH_FLUSH == null)
+            throw new IllegalStateException("Deflater.SYNC_FLUSH not available");
+
+        this.sink = sink;
+        this.totals = totals;
+        if (totals != null)
+            totals.connections.incrementAndGet();
+    }
+
+    /**
+     * Get the stream to write this batch's messages to, in the same format as the uncompressed socket stream.
+     * Call {@link #flush()} to compress and send them.
+     * @return  the output stream for uncompressed messages
+     */
+    public DataOutputStream getDataOutput()
+    {
+        return dataOut;
+    }
+
+    /**
+     * Compress the pending messages written since the last flush, and send them with a sync flush
+     * so the remote end can read every message in the batch.
+     * @throws IOException if an error occurs writing to the sink
+     */
+    public void flush()
+        throws IOException
+    {
+        final int len = pending.size();
+        if (len == 0)
+            return;
+
+        deflater.setInput(pending.toByteArray());
+        pending.reset();
+
+        int total = 0;
+        long dt = 0;  // time spent compressing, not including socket writes
+        try
+        {
+            for (;;)
+            {
+                final long t0 = System.nanoTime();
+                final int n = ((Integer) DEFLATE_WITH_FLUSH.invoke
+                    (deflater, buf, Integer.valueOf(0), Integer.valueOf(buf.length), SYNC_FLUSH)).intValue();
+                dt += System.nanoTime() - t0;
+                if (n > 0)
+                {
+                    sink.write(buf, 0, n);
+                    total += n;
+                }
+                if (n < buf.length)
+                    break;  // all output for this input has been written
+
+                if (buf.length < 65536)
+                    buf = new byte[buf.length * 2];
+            }
+        }
+        catch (IOException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            // from reflection: unlikely
+            throw new IOException("deflate failed: " + e);
+        }
+        sink.flush();
+
+        bytesIn += len;
+        bytesOut += total;
+        nanos += dt;
+        if (totals != null)
+        {
+            totals.bytesIn.addAndGet(len);
+            totals.bytesOut.addAndGet(total);
+            totals.nanos.addAndGet(dt);
+        }
+    }
+
+    /**
+     * Release the deflater's native resources. Call when the connection is closed.
+     * Doesn't close the sink.
+     */
+    public void end()
+    {
+        deflater.end();
+        if (totals != null)
+            totals.connections.decrementAndGet();
+    }
+
+    /** @return total uncompressed bytes sent so far */
+    public long getBytesIn()
+    {
+        return bytesIn;
+    }
+
+    /** @return total compressed bytes sent so far */
+    public long getBytesOut()
+    {
+        return bytesOut;
+    }
+
+    /**
+     * Get a one-line summary of this stream's compression statistics:
+     * Bytes before and after compression, their ratio, and time spent compressing
+     * (the CPU cost of compression, not including time spent writing to the network).
+     * @return stats text, such as "deflate: 123456 bytes sent as 23456 (19%), 42 ms"
+     */
+    public String getStatsText()
+    {
+        return formatStats("deflate: ", bytesIn, bytesOut, nanos);
+    }
+
+    /**
+     * Format statistics for {@link #getStatsText()} or {@link Stats#toString()}.
+     * @param prefix  Text to start with
+     * @param in  Uncompressed bytes
+     * @param out  Compressed bytes
+     * @param ns  Nanoseconds spent compressing
+     * @return  Formatted stats text
+     */
+    static String formatStats(final String prefix, final long in, final long out, final long ns)
+    {
+        final long pct = (in > 0) ? ((100 * out) / in) : 100;
+        return prefix + in + " bytes sent as " + out + " (" + pct + "%), " + (ns / 1000000L) + " ms";
+    }
+
+    /**
+     * Server-wide compression statistics: The totals of all connections' {@link StreamDeflater}s.
+     * Thread-safe.
+     * @since 2.0.00
+     */
+    public static final class Stats
+    {
+        /** Number of currently compressed connections */
+        final AtomicInteger connections = new AtomicInteger();
+
+        final AtomicLong bytesIn = new AtomicLong(), bytesOut = new AtomicLong(), nanos = new AtomicLong();
+
+        /**
+         * Get a one-line summary of these statistics.
+         * @return stats text, such as "Compressed connections: 3; deflate: 123456 bytes sent as 23456 (19%), 42 ms"
+         */
+        @Override
+        public String toString()
+        {
+            return formatStats
+                ("Compressed connections: " + connections.get() + "; deflate: ",
+                 bytesIn.get(), bytesOut.get(), nanos.get());
+        }
+    }
+
+}
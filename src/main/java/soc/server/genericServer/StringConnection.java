@@ -24,17 +24,25 @@ package soc.server.genericServer;
 import java.io.EOFException;
 import java.net.ConnectException;
 import java.util.Date;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 import soc.disableDebug.D;
+import soc.message.SOCImmutableMessage;
 import soc.message.SOCMessage;
 
 /**
  * Symmetric buffered connection sending strings between two local peers.
- * Uses vectors and thread synchronization, no actual network traffic.
+ * Uses lock-free queues, no actual network traffic.
  * When using this class from the server (not client), after the constructor
  * call {@link #setServer(Server)}.
  *<P>
+ * Messages sent with {@link #put(SOCMessage, String)} whose type is a {@link SOCImmutableMessage}
+ * are passed to the peer as the message object itself, not rendered to a string and parsed again.
+ * Read them with {@link #readNextMessage()}. Other messages are passed as strings.
+ * Server-launched robots and practice games are local, so this saves their protocol CPU
+ * for most of their game traffic.
+ *<P>
  * This class has a run method, but you must start the thread yourself.
  * Constructors will not create or start a thread.
  *<P>
@@ -59,6 +67,8 @@ import soc.message.SOCMessage;
  *  2.0.0 - 2017-11-01 - Rename StringConnection -> Connection, NetStringConnection -> NetConnection,
  *                       LocalStringConnection -> StringConnection.
  *                       Connection is now a superclass, not an interface.
+ *                       Queues are lock-free, and can pass immutable SOCMessage objects
+ *                       without string conversion: add {@link #readNextMessage()}.
  *</PRE>
  *
  * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
@@ -70,12 +80,16 @@ public class StringConnection
     /** Unique end-of-file marker object.  Always compare against this with == not string.equals. */
     protected static String EOF_MARKER = "__EOF_MARKER__" + '\004';
 
-    /** Message contents between the peers on this connection; never contains {@code null} elements. */
-    protected Vector<String> in, out;
-    protected boolean in_reachedEOF;
-    protected boolean out_setEOF;
+    /**
+     * Message contents between the peers on this connection; never contains {@code null} elements.
+     * Each element is a {@code String} or a {@link SOCImmutableMessage}.
+     * Our {@code in} is the peer's {@code out}, and vice versa.
+     */
+    protected MessageQueue in, out;
+    protected volatile boolean in_reachedEOF;
+    protected volatile boolean out_setEOF;
     /** Active connection, server has called accept, and not disconnected yet */
-    protected boolean accepted;
+    protected volatile boolean accepted;
     private StringConnection ourPeer;
 
     /**
@@ -91,13 +105,13 @@ public class StringConnection
      */
     public StringConnection()
     {
-        in = new Vector<String>();
-        out = new Vector<String>();
+        in = new MessageQueue();
+        out = new MessageQueue();
         init();
     }
 
     /**
-     * Constructor for an existing peer; we'll share two Vectors for in/out queues.
+     * Constructor for an existing peer; we'll share its two queues for our out/in.
      *<P>
      * When using this class from the server (not client)
      * call {@link #setServer(Server)} before starting any thread.
@@ -135,19 +149,52 @@ public class StringConnection
         in_reachedEOF = false;
         out_setEOF = false;
         accepted = false;
+        rateLimitExempt = true;  // local practice client or robot
     }
 
     /**
      * Read the next string sent from the remote end,
      * blocking if necessary to wait.
-     *<P>
-     * Synchronized on in-buffer.
+     * If the remote end sent a message object, returns its {@link SOCMessage#toCmd()}.
      *
      * @return Next string in the in-buffer; never {@code null}.
      * @throws EOFException Our input buffer has reached EOF
      * @throws IllegalStateException Server has not yet accepted our connection
+     * @see #readNextMessage()
      */
     public String readNext() throws EOFException, IllegalStateException
+    {
+        final Object obj = readNextItem();
+        return (obj instanceof String) ? (String) obj : ((SOCMessage) obj).toCmd();
+    }
+
+    /**
+     * Read the next message sent from the remote end, blocking if necessary to wait.
+     * If the remote end sent a message object, returns it without any parsing;
+     * the caller must not change it, since it may also have been sent to other connections.
+     * If the remote end sent a string, parses it with {@link SOCMessage#toMsg(String)}.
+     *
+     * @return Next message in the in-buffer, or {@code null} if a string couldn't be parsed
+     * @throws EOFException Our input buffer has reached EOF
+     * @throws IllegalStateException Server has not yet accepted our connection
+     * @since 2.0.00
+     */
+    public SOCMessage readNextMessage() throws EOFException, IllegalStateException
+    {
+        final Object obj = readNextItem();
+        return (obj instanceof String) ? SOCMessage.toMsg((String) obj) : (SOCMessage) obj;
+    }
+
+    /**
+     * Take the next item from the in-buffer, blocking if necessary to wait.
+     * Only one thread should read from a connection.
+     *
+     * @return Next item, a String or SOCMessage; never {@code null}.
+     * @throws EOFException Our input buffer has reached EOF
+     * @throws IllegalStateException Server has not yet accepted our connection
+     * @since 2.0.00
+     */
+    private Object readNextItem() throws EOFException, IllegalStateException
     {
         if (! accepted)
         {
@@ -161,46 +208,33 @@ public class StringConnection
         }
 
         Object obj;
-
-        synchronized (in)
+        while (null == (obj = in.take()))
         {
-            while (in.isEmpty())
+            // take() returns null if woken without an item
+            if (in_reachedEOF && in.isEmpty())
             {
-                if (in_reachedEOF)
-                {
-                    error = new EOFException();
-                    throw (EOFException) error;
-                }
-
-                try
-                {
-                    in.wait();
-                }
-                catch (InterruptedException e)
-                {
-                    // interruption is normal, not exceptional
-                }
-            }
-            obj = in.elementAt(0);
-            in.removeElementAt(0);
-
-            if (obj == EOF_MARKER)
-            {
-                in_reachedEOF = true;
-                if (ourServer != null)
-                    ourServer.removeConnection(this, false);
                 error = new EOFException();
                 throw (EOFException) error;
             }
         }
-        return (String) obj;
+
+        if (obj == EOF_MARKER)
+        {
+            in_reachedEOF = true;
+            if (ourServer != null)
+                ourServer.removeConnection(this, false);
+            error = new EOFException();
+            throw (EOFException) error;
+        }
+
+        return obj;
     }
 
     /**
      * Send data over the connection.  Does not block.
      * Ignored if setEOF() has been called.
      *<P>
-     * <B>Threads:</B> Safe to call from any thread; synchronizes on internal {@code out} queue.
+     * <B>Threads:</B> Safe to call from any thread; doesn't lock.
      *
      * @param dat Data to send
      *
@@ -221,11 +255,41 @@ public class StringConnection
         if (out_setEOF)
             return;
 
-        synchronized (out)
+        out.add(dat);
+    }
+
+    /**
+     * Send a message over the connection.  Does not block.
+     * If {@code mes} is a {@link SOCImmutableMessage}, the peer's {@link #readNextMessage()}
+     * will get {@code mes} itself; otherwise sends its text like {@link #put(String)}.
+     * Ignored if setEOF() has been called.
+     *<P>
+     * <B>Threads:</B> Safe to call from any thread; doesn't lock.
+     *
+     * @param mes  Message to send; must not be changed afterwards, since the peer may read it
+     * @param cmd  {@code mes.toCmd()} if the caller already has it, or null
+     * @throws IllegalStateException if not yet accepted by server
+     * @since 2.0.00
+     */
+    @Override
+    public void put(final SOCMessage mes, final String cmd)
+        throws IllegalStateException
+    {
+        if (! (mes instanceof SOCImmutableMessage))
         {
-            out.addElement(dat);
-            out.notifyAll();  // Another thread may have been waiting for input
+            put((cmd != null) ? cmd : mes.toCmd());
+            return;
         }
+
+        if (! accepted)
+        {
+            error = new IllegalStateException("Not accepted by server yet");
+            throw (IllegalStateException) error;
+        }
+        if (out_setEOF)
+            return;
+
+        out.add(mes);
     }
 
     /**
@@ -239,14 +303,12 @@ public class StringConnection
 
         D.ebugPrintln("DISCONNECTING " + data);
         accepted = false;
-        synchronized (out)
-        {
-            // let the remote-end know we're closing
-            out.clear();
-            out.addElement(EOF_MARKER);
-            out_setEOF = true;
-            out.notifyAll();
-        }
+
+        // let the remote-end know we're closing
+        out.clear();
+        out_setEOF = true;
+        out.add(EOF_MARKER);
+
         disconnectSoft();  // clear "in", set its EOF
     }
 
@@ -264,13 +326,9 @@ public class StringConnection
         // disconnect(), and it's OK to do this part twice.
 
         D.ebugPrintln("DISCONNECTING(SOFT) " + data);
-        synchronized (in)
-        {
-            in.clear();
-            in.addElement(EOF_MARKER);
-            in_reachedEOF = true;
-            in.notifyAll();
-        }
+        in.clear();
+        in_reachedEOF = true;
+        in.add(EOF_MARKER);
     }
 
     /**
@@ -338,17 +396,12 @@ public class StringConnection
      * Signal the end of outbound data.
      * Not the same as closing, because we don't terminate the inbound side.
      *
-     * Synchronizes on out-buffer.
      */
     public void setEOF()
     {
-        synchronized (out)
-        {
-            // let the remote-end know we're closing
-            out.addElement(EOF_MARKER);
-            out_setEOF = true;
-            out.notifyAll();
-        }
+        // let the remote-end know we're closing
+        out_setEOF = true;
+        out.add(EOF_MARKER);
     }
 
     /**
@@ -356,10 +409,7 @@ public class StringConnection
      */
     public boolean isInEOF()
     {
-        synchronized (in)
-        {
-            return in_reachedEOF;
-        }
+        return in_reachedEOF;
     }
 
     /**
@@ -369,10 +419,7 @@ public class StringConnection
      */
     public boolean isOutEOF()
     {
-        synchronized (out)
-        {
-            return out_setEOF;
-        }
+        return out_setEOF;
     }
 
     /**
@@ -437,7 +484,7 @@ public class StringConnection
      */
     public boolean isInputAvailable()
     {
-        return (! in_reachedEOF) && (0 < in.size());
+        return (! in_reachedEOF) && ! in.isEmpty();
     }
 
     /**
@@ -463,8 +510,7 @@ public class StringConnection
 
             if (! in_reachedEOF)
             {
-                String firstMsg = readNext();
-                final SOCMessage msgObj = SOCMessage.toMsg(firstMsg);  // parse
+                final SOCMessage msgObj = readNextMessage();  // parse if needed
                 if (! ourServer.processFirstCommand(msgObj, this))
                 {
                     if (msgObj != null)
@@ -474,8 +520,7 @@ public class StringConnection
 
             while (! in_reachedEOF)
             {
-                final String msgStr = readNext();  // blocks until next message is available
-                final SOCMessage msgObj = SOCMessage.toMsg(msgStr);
+                final SOCMessage msgObj = readNextMessage();  // blocks until next message is available
                 if (msgObj != null)
                     inQueue.push(msgObj, this);
             }
@@ -515,4 +560,73 @@ public class StringConnection
         return sb.toString();
     }
 
+    /**
+     * Lock-free queue of items from one peer to the other, with a single reader thread
+     * which can block until an item is added. Writers never block.
+     * @since 2.0.00
+     */
+    protected static final class MessageQueue
+    {
+        private final ConcurrentLinkedQueue<Object> items = new ConcurrentLinkedQueue<Object>();
+
+        /** Reader thread parked in {@link #take()}, or null */
+        private volatile Thread waiter;
+
+        /**
+         * Add an item and wake the reader if it's waiting.
+         * @param item  String or SOCMessage to add; not null
+         */
+        void add(final Object item)
+        {
+            items.offer(item);
+            final Thread w = waiter;
+            if (w != null)
+                LockSupport.unpark(w);
+        }
+
+        /**
+         * Remove and return the next item, waiting for one if the queue is empty.
+         * May return early without an item if the reader thread is interrupted or woken by {@link #add(Object)}
+         * after another item was already taken, so callers should check their EOF state and call again.
+         * @return the next item, or null if woken without one
+         */
+        Object take()
+        {
+            Object obj = items.poll();
+            if (obj != null)
+                return obj;
+
+            waiter = Thread.currentThread();
+            try
+            {
+                // re-check after setting waiter, in case an item was added just before
+                obj = items.poll();
+                if (obj == null)
+                {
+                    LockSupport.park(this);
+                    Thread.interrupted();  // interruption is normal, not exceptional: clear it, don't spin
+                    obj = items.poll();
+                }
+            }
+            finally
+            {
+                waiter = null;
+            }
+
+            return obj;
+        }
+
+        /** @return true if there are no items waiting to be read */
+        boolean isEmpty()
+        {
+            return items.isEmpty();
+        }
+
+        /** Discard all items waiting to be read. */
+        void clear()
+        {
+            items.clear();
+        }
+    }
+
 }
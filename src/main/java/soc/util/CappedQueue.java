@@ -27,12 +27,27 @@ import java.util.Vector;
 /**
  * Synchronized queue with a size limit, set in the constructor.
  * Once the limit is reached, further {@link #put(Object)} calls throw {@link CutoffExceededException}.
+ *<P>
+ * In v2.0.00 and newer the queue also remembers when each item was put,
+ * so the consumer can see how long the item it just got had been waiting: {@link #getLastWaitNanos()}.
  */
 public class CappedQueue<T>
 {
     /** Internal storage for the queue'd objects */
     private Vector<T> vec = new Vector<T>();
 
+    /**
+     * Time ({@link System#nanoTime()}) when each item in {@link #vec} was put, at the same index.
+     * @since 2.0.00
+     */
+    private Vector<Long> putTimes = new Vector<Long>();
+
+    /**
+     * How long the item most recently returned by {@link #get()} was waiting in the queue, in nanoseconds.
+     * @since 2.0.00
+     */
+    private long lastWaitNanos;
+
     /** The max size for this queue */
     private final int sizeLimit;
 
@@ -67,6 +82,7 @@ public class CappedQueue<T>
         //D.ebugPrintln(">put-> "+o);
         // Add the element
         vec.addElement(o);
+        putTimes.addElement(Long.valueOf(System.nanoTime()));
 
         // There might be threads waiting for the new object --
         // give them a chance to get it
@@ -96,6 +112,7 @@ public class CappedQueue<T>
                 // Remove it from our internal list, so someone else
                 // doesn't get it.
                 vec.removeElementAt(0);
+                lastWaitNanos = System.nanoTime() - putTimes.remove(0).longValue();
 
                 // Return the object
                 return o;
@@ -123,4 +140,25 @@ public class CappedQueue<T>
     {
         return vec.isEmpty();
     }
+
+    /**
+     * Get the number of items waiting in the queue.
+     * @return  the current size
+     * @since 2.0.00
+     */
+    synchronized public int size()
+    {
+        return vec.size();
+    }
+
+    /**
+     * Get how long the item most recently returned by {@link #get()} had been waiting in the queue.
+     * @return  the wait time in nanoseconds, or 0 if {@link #get()} hasn't returned anything yet
+     * @since 2.0.00
+     */
+    synchronized public long getLastWaitNanos()
+    {
+        return lastWaitNanos;
+    }
+
 }
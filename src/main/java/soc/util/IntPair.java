@@ -20,12 +20,17 @@
  **/
 package soc.util;
 
+import java.io.Serializable;
+
 /**
  * An ordered pair of 2 ints.
  * @see IntTriple
  */
 public class IntPair
+    implements Serializable
 {
+    private static final long serialVersionUID = 2000L;  // Last structural change in v2.0.00
+
     /** The first int of the ordered pair */
     public int a;
 
@@ -570,11 +570,7 @@ public class SOCGameList
 
         public void dispose()
         {
-            if (opts != null)
-            {
-                opts.clear();
-                opts = null;
-            }
+            opts = null;  // don't clear: may be a game's shared unmodifiable map from SOCGameOptionSet
         }
     }
 }
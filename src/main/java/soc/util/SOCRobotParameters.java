@@ -44,7 +44,7 @@ public class SOCRobotParameters
     protected float leaderAdversarialFactor;
     protected float devCardMultiplier;
     protected float threatMultiplier;
-    protected int strategyType; // SOCRobotDM.FAST_STRATEGY or SMART_STRATEGY
+    protected int strategyType; // SOCRobotDM.FAST_STRATEGY, SMART_STRATEGY, or MCTS_STRATEGY
     protected int tradeFlag;
 
     /**
@@ -183,7 +183,8 @@ public class SOCRobotParameters
 
     /**
      * @return strategyType: {@link soc.robot.SOCRobotDM#FAST_STRATEGY FAST_STRATEGY}
-     *         or {@link soc.robot.SOCRobotDM#SMART_STRATEGY}
+     *         or {@link soc.robot.SOCRobotDM#SMART_STRATEGY SMART_STRATEGY}
+     *         or {@link soc.robot.SOCRobotDM#MCTS_STRATEGY MCTS_STRATEGY}
      */
     public int getStrategyType()
     {
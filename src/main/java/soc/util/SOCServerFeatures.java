@@ -74,6 +74,23 @@ public class SOCServerFeatures
      */
     public static final String FEAT_OPEN_REG = "oreg";
 
+    /**
+     * Stream compression.
+     * If this feature is active, a TCP client can send {@link soc.message.SOCCompressStream}
+     * after version negotiation to ask the server to compress the rest of its stream to the client.
+     * @since 2.0.00
+     */
+    public static final String FEAT_COMPRESS = "zc";
+
+    /**
+     * Binary frames.
+     * If this feature is active, a TCP client can send {@link soc.message.SOCBinaryFormat}
+     * after version negotiation to ask the server to send the most frequent game messages
+     * as binary frames ({@link soc.message.SOCBinaryCodec}).
+     * @since 2.0.00
+     */
+    public static final String FEAT_BINARY_FRAMES = "bf";
+
     /**
      * Separator character ';' between features in {@link #featureList}.
      * Avoid separators defined in {@code SOCMessage}.
@@ -0,0 +1,89 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.game;
+
+import java.util.List;
+
+import soc.game.SOCBoard;
+import soc.game.SOCBoard4p;
+import soc.game.SOCBoard6p;
+import soc.game.SOCBoardAdjacency;
+import soc.game.SOCBoardLarge;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBoardAdjacency}: Each relation must have the same contents,
+ * in the same order, as the {@link SOCBoard} method it replaces.
+ * @since 2.0.00
+ */
+public class TestBoardAdjacency
+{
+    /** Compare one relation's contents to a board method's results, for every coordinate. */
+    private static void assertSameAs
+        (final String desc, final SOCBoardAdjacency.Relation rel, final int coord, final List<Integer> expected)
+    {
+        final int n = (expected != null) ? expected.size() : 0;
+        assertEquals(desc + " count at 0x" + Integer.toHexString(coord), n, rel.count(coord));
+        for (int i = 0; i < n; ++i)
+            assertEquals(desc + " at 0x" + Integer.toHexString(coord),
+                expected.get(i).intValue(), rel.get(rel.start(coord) + i));
+    }
+
+    /** Check every relation of a board against its {@code getAdjacent...} methods. */
+    private static void checkBoard(final SOCBoard board)
+    {
+        final SOCBoardAdjacency adj = board.getAdjacency();
+        final int lim = adj.getCoordLimit();
+        for (int c = 0; c < lim; ++c)
+        {
+            assertSameAs("hexesToNode", adj.hexesToNode, c, board.getAdjacentHexesToNode(c));
+            assertSameAs("nodesToNode", adj.nodesToNode, c, board.getAdjacentNodesToNode(c));
+            assertSameAs("edgesToEdge", adj.edgesToEdge, c, board.getAdjacentEdgesToEdge(c));
+            assertSameAs("nodesToEdge", adj.nodesToEdge, c, board.getAdjacentNodesToEdge(c));
+            assertSameAs("hexesToHex", adj.hexesToHex, c, board.getAdjacentHexesToHex(c, true));
+        }
+
+        assertEquals(0, adj.nodesToNode.count(-1));
+        assertEquals(0, adj.nodesToNode.count(lim));
+        assertFalse(adj.nodesToNode.contains(lim, 0));
+    }
+
+    /** Each board geometry's tables match its methods. */
+    @Test
+    public void testSameAsBoardMethods()
+    {
+        checkBoard(new SOCBoard4p(null));
+        checkBoard(new SOCBoard6p(null));
+        checkBoard(new SOCBoardLarge(null, 4));
+        checkBoard(new SOCBoardLarge(null, 6));
+    }
+
+    /** Boards with the same geometry share the same tables. */
+    @Test
+    public void testShared()
+    {
+        assertSame(new SOCBoard4p(null).getAdjacency(), new SOCBoard4p(null).getAdjacency());
+        assertNotSame(new SOCBoard4p(null).getAdjacency(), new SOCBoard6p(null).getAdjacency());
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.game;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import soc.game.SOCBoardLarge;
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCPlayer;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+
+/**
+ * Regression test for {@link SOCBoardLarge}'s layout storage: Makes sea boards with a fixed
+ * {@link SOCGame#setRandomSeed(long)} for a few scenarios and player counts, and compares their
+ * hex types, dice numbers, a player's legal road and ship edges, and port layout against checksums
+ * of the layouts made by the same seeds before v2.0.00 packed {@code hexLayoutLg} and {@code numberLayoutLg}
+ * and stored legal edges as bit sets.
+ *<P>
+ * If board generation is intentionally changed, update {@link #EXPECTED} by running {@link #main(String[])}.
+ *
+ * @since 2.0.00
+ */
+public class TestBoardLargeSeededLayout
+{
+    /** Names of each layout part checked, in the same order as each {@link #EXPECTED} row's checksums */
+    private static final String[] PARTS = { "hex layout", "number layout", "legal roads", "legal ships", "ports" };
+
+    /**
+     * Layouts to make and their expected checksums, one row per layout: Game options, random seed,
+     * then the {@link CRC32} of each part in {@link #PARTS}.
+     */
+    private static final Object[][] EXPECTED =
+    {
+        { "SBL=t,PL=4", 1001L, 0x59695FF7L, 0x6394557EL, 0x386D60E8L, 0xE477DA72L, 0x10665891L },
+        { "SBL=t,PL=6", 1002L, 0xB8165FB9L, 0x97E6E989L, 0x18A667E2L, 0xDD0A63DCL, 0x37C6096L },
+        { "SC=SC_4ISL,PL=3", 1003L, 0xBE54DD65L, 0xB4A1CDDCL, 0x42D7538BL, 0xDC510C2BL, 0x5A77B0E2L },
+        { "SC=SC_FOG,PL=4", 1004L, 0xF3CE505AL, 0xE468F3B6L, 0x9CF3CFDDL, 0xE3E42C08L, 0xB039F81EL },
+        { "SC=SC_PIRI,PL=4", 1005L, 0x94538533L, 0x53F00B61L, 0xF162D971L, 0x77F95BACL, 0xEE2EEBC8L },
+        { "SC=SC_FTRI,PL=6", 1006L, 0x91360FBDL, 0xE9CAF381L, 0xE7025C99L, 0xE7D9447BL, 0x96E3EFDAL },
+        { "SC=SC_WOND,PL=4", 1007L, 0x3B92A657L, 0xCAC4C51CL, 0x7E5DC935L, 0xDB56B27AL, 0x3629B9C3L },
+        { "SC=SC_CLVI,PL=3", 1008L, 0xBFF35515L, 0x55A37088L, 0x78B63F3BL, 0xAB13D8F4L, 0xFBCF6E6CL },
+    };
+
+    private static SOCGameListAtServer gl;
+    private static SOCGameHandler sgh;
+
+    @BeforeClass
+    public static void setup()
+    {
+        sgh = new SOCGameHandler(null);
+        gl = new SOCGameListAtServer();
+    }
+
+    /**
+     * Make and start a game with this seed, and calculate its board layout checksums.
+     * @param opts  Game options, such as {@code "SBL=t,PL=4"} or {@code "SC=SC_FOG,PL=4"}
+     * @param seed  Random seed for the game and its board
+     * @return  The {@link CRC32} of each part in {@link #PARTS}
+     */
+    private static long[] layoutChecksums(final String opts, final long seed)
+    {
+        final Map<String, SOCGameOption> gaOpts = SOCGameOption.parseOptionsToMap(opts);
+        assertNull("Unexpected problems with options " + opts,
+            SOCGameOption.adjustOptionsToKnown(gaOpts, null, true));
+
+        final String gaName = "seed" + seed;
+        gl.createGame(gaName, "test", "en_US", gaOpts, sgh);
+        final SOCGame ga = gl.getGameData(gaName);
+        assertNotNull("Game not created", ga);
+        ga.setRandomSeed(seed);
+        ga.addPlayer("player", 1);
+        ga.startGame();  // SOCBoardAtServer.makeNewBoard is called here
+
+        final SOCBoardLarge board = (SOCBoardLarge) ga.getBoard();
+        final SOCPlayer pl = ga.getPlayer(1);
+        final int bH = board.getBoardHeight(), bW = board.getBoardWidth();
+        final CRC32[] crc = new CRC32[PARTS.length];
+        for (int i = 0; i < crc.length; ++i)
+            crc[i] = new CRC32();
+
+        for (int r = 1; r < bH; r += 2)
+            for (int c = 0; c <= bW; ++c)
+            {
+                final int hex = (r << 8) | c;
+                crc[0].update(board.getHexTypeFromCoord(hex));
+                crc[1].update(board.getNumberOnHexFromCoord(hex));
+            }
+
+        for (int r = 0; r <= bH; ++r)
+            for (int c = 0; c <= bW; ++c)
+            {
+                final int edge = (r << 8) | c;
+                crc[2].update(pl.isLegalRoad(edge) ? 1 : 0);
+                crc[3].update(pl.isLegalShip(edge) ? 1 : 0);
+            }
+
+        final int[] ports = board.getPortsLayout();
+        if (ports != null)
+            for (final int p : ports)
+                crc[4].update(p);
+
+        gl.deleteGame(gaName);
+
+        final long[] ret = new long[crc.length];
+        for (int i = 0; i < crc.length; ++i)
+            ret[i] = crc[i].getValue();
+        return ret;
+    }
+
+    /** Each seeded layout matches its expected checksums. */
+    @Test(timeout=20000)
+    public void testSeededLayouts()
+    {
+        for (final Object[] row : EXPECTED)
+        {
+            final String opts = (String) row[0];
+            final long[] sums = layoutChecksums(opts, (Long) row[1]);
+            for (int i = 0; i < PARTS.length; ++i)
+                assertEquals(PARTS[i] + " for " + opts + " seed " + row[1], (Long) row[2 + i], Long.valueOf(sums[i]));
+        }
+    }
+
+    /** Making the same layout twice with the same seed gives the same checksums. */
+    @Test
+    public void testSameSeedSameLayout()
+    {
+        final String opts = (String) EXPECTED[0][0];
+        final long seed = (Long) EXPECTED[0][1];
+        assertEquals(Arrays.toString(layoutChecksums(opts, seed)), Arrays.toString(layoutChecksums(opts, seed)));
+    }
+
+    /**
+     * Print the current checksums of each layout in {@link #EXPECTED}, in its source format,
+     * for updating it after an intentional change to board generation.
+     */
+    public static void main(String[] args)
+    {
+        setup();
+        for (final Object[] row : EXPECTED)
+        {
+            final long[] sums = layoutChecksums((String) row[0], (Long) row[1]);
+            final StringBuilder sb = new StringBuilder("        { \"" + row[0] + "\", " + row[1] + "L");
+            for (final long s : sums)
+                sb.append(", 0x").append(Long.toHexString(s).toUpperCase()).append('L');
+            System.out.println(sb.append(" },"));
+        }
+    }
+
+}
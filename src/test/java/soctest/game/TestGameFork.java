@@ -0,0 +1,316 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.game;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import soc.game.SOCBoard;
+import soc.game.SOCBoardLarge;
+import soc.game.SOCDevCardConstants;
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCInventory;
+import soc.game.SOCPlayer;
+import soc.game.SOCPlayingPiece;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.game.SOCVillage;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+
+/**
+ * Tests for {@link SOCGame#fork()} and {@link SOCGame#applyBuildMove(SOCPlayingPiece)} /
+ * {@link SOCGame#undoBuildMove(SOCPlayingPiece)}.
+ *
+ * @since 2.0.00
+ * @author Jeremy D Monin &lt;jeremy@nand.net&gt;
+ */
+public class TestGameFork
+{
+    private static SOCGameListAtServer gl;
+    private static SOCGameHandler sgh;
+
+    @BeforeClass
+    public static void setup()
+    {
+        sgh = new SOCGameHandler(null);
+        gl = new SOCGameListAtServer();
+    }
+
+    /**
+     * Create and start a 4-player game, placing player 0's first settlement.
+     * @param gaName  Game name
+     * @param optsStr  Game options, or {@code null}
+     * @return  The game, in state {@link SOCGame#START1B}
+     */
+    private static SOCGame startGame(final String gaName, final String optsStr)
+    {
+        final Map<String, SOCGameOption> opts = (optsStr != null) ? SOCGameOption.parseOptionsToMap(optsStr) : null;
+        if (opts != null)
+            SOCGameOption.adjustOptionsToKnown(opts, null, true);
+        gl.createGame(gaName, "test", "en_US", opts, sgh);
+        final SOCGame ga = gl.getGameData(gaName);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame();
+        assertEquals(SOCGame.START1A, ga.getGameState());
+
+        final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+        final int node = new TreeSet<Integer>(pl.getPotentialSettlements()).first();
+        ga.putPiece(new SOCSettlement(pl, node, ga.getBoard()));
+        assertEquals(SOCGame.START1B, ga.getGameState());
+
+        return ga;
+    }
+
+    /**
+     * Test that a fork's players, pieces and board are its own,
+     * and that changing the fork doesn't change the original game.
+     */
+    @Test
+    public void testForkIndependence()
+    {
+        final SOCGame ga = startGame("forkIndep", null);
+        final int cpn = ga.getCurrentPlayerNumber();
+        final SOCPlayer pl = ga.getPlayer(cpn);
+        final int settleNode = pl.getLastSettlementCoord();
+
+        final SOCGame fg = ga.fork();
+        assertNotSame(ga, fg);
+        assertEquals(ga.getName(), fg.getName());
+        assertEquals(ga.getGameState(), fg.getGameState());
+        assertEquals(cpn, fg.getCurrentPlayerNumber());
+
+        final SOCBoard fb = fg.getBoard();
+        final SOCPlayer fpl = fg.getPlayer(cpn);
+        assertNotSame(ga.getBoard(), fb);
+        assertNotSame(pl, fpl);
+        assertSame(fg, fpl.getGame());
+        assertEquals(pl.getName(), fpl.getName());
+
+        final SOCPlayingPiece fpp = fb.settlementAtNode(settleNode);
+        assertNotNull(fpp);
+        assertNotSame(ga.getBoard().settlementAtNode(settleNode), fpp);
+        assertSame(fpl, fpp.getPlayer());
+        assertSame(fpp, fpl.getSettlements().firstElement());
+
+        // Place the initial road in the fork only
+        int edge = 0;
+        for (final int e : fb.getAdjacentEdgesToNode_arr(settleNode))
+            if (fpl.isPotentialRoad(e))
+            {
+                edge = e;
+                break;
+            }
+        assertTrue(edge != 0);
+        final int numRoads = pl.getNumPieces(SOCPlayingPiece.ROAD);
+        fg.putPiece(new SOCRoad(fpl, edge, fb));
+        fpl.getResources().add(new SOCResourceSet(1, 1, 1, 1, 1, 0));
+
+        assertEquals(SOCGame.START1A, fg.getGameState());
+        assertEquals(SOCGame.START1B, ga.getGameState());
+        assertEquals(cpn, ga.getCurrentPlayerNumber());
+        assertNotNull(fb.roadAtEdge(edge));
+        assertNull(ga.getBoard().roadAtEdge(edge));
+        assertEquals(numRoads - 1, fpl.getNumPieces(SOCPlayingPiece.ROAD));
+        assertEquals(numRoads, pl.getNumPieces(SOCPlayingPiece.ROAD));
+        assertTrue(pl.isPotentialRoad(edge));
+        assertEquals(0, pl.getRoads().size());
+        assertEquals(0, pl.getResources().getTotal());
+        assertEquals(5, fpl.getResources().getTotal());
+    }
+
+    /**
+     * Test that a sea board game can be forked and changed independently.
+     */
+    @Test
+    public void testForkSeaBoard()
+    {
+        final SOCGame ga = startGame("forkSea", "PL=4,SBL=t");
+        final SOCGame fg = ga.fork();
+        assertTrue(fg.hasSeaBoard);
+        assertNotSame(ga.getBoard(), fg.getBoard());
+        assertArrayEquals(ga.getBoard().getLandHexCoords(), fg.getBoard().getLandHexCoords());
+
+        final int cpn = ga.getCurrentPlayerNumber();
+        final SOCPlayer fpl = fg.getPlayer(cpn);
+        final int settleNode = fpl.getLastSettlementCoord();
+        for (final int e : fg.getBoard().getAdjacentEdgesToNode_arr(settleNode))
+            if (fpl.isPotentialRoad(e))
+            {
+                fg.putPiece(new SOCRoad(fpl, e, fg.getBoard()));
+                break;
+            }
+
+        assertEquals(1, fpl.getRoads().size());
+        assertEquals(0, ga.getPlayer(cpn).getRoads().size());
+        assertEquals(SOCGame.START1B, ga.getGameState());
+    }
+
+    /**
+     * Test that {@link SOCGame#undoBuildMove(SOCPlayingPiece)} restores the player's resources,
+     * pieces and potential locations changed by {@link SOCGame#applyBuildMove(SOCPlayingPiece)}.
+     */
+    @Test
+    public void testApplyUndoBuildMove()
+    {
+        final SOCGame ga = startGame("forkApplyUndo", null);
+        final int cpn = ga.getCurrentPlayerNumber();
+        final SOCGame fg = ga.fork();
+        final SOCBoard fb = fg.getBoard();
+        final SOCPlayer fpl = fg.getPlayer(cpn);
+        fpl.getResources().add(new SOCResourceSet(2, 2, 2, 2, 2, 0));
+
+        int edge = 0;
+        for (final int e : fb.getAdjacentEdgesToNode_arr(fpl.getLastSettlementCoord()))
+            if (fpl.isPotentialRoad(e))
+            {
+                edge = e;
+                break;
+            }
+        assertTrue(edge != 0);
+
+        final int numRoads = fpl.getNumPieces(SOCPlayingPiece.ROAD);
+        final TreeSet<Integer> potentialSettles = new TreeSet<Integer>(fpl.getPotentialSettlements());
+
+        final SOCRoad rd = new SOCRoad(fpl, edge, fb);
+        fg.applyBuildMove(rd);
+        assertSame(rd, fb.roadAtEdge(edge));
+        assertEquals(numRoads - 1, fpl.getNumPieces(SOCPlayingPiece.ROAD));
+        assertFalse(fpl.isPotentialRoad(edge));
+        assertEquals(new SOCResourceSet(1, 2, 2, 2, 1, 0), fpl.getResources());
+
+        fg.undoBuildMove(rd);
+        assertNull(fb.roadAtEdge(edge));
+        assertEquals(numRoads, fpl.getNumPieces(SOCPlayingPiece.ROAD));
+        assertTrue(fpl.isPotentialRoad(edge));
+        assertEquals(new SOCResourceSet(2, 2, 2, 2, 2, 0), fpl.getResources());
+        assertEquals(potentialSettles, new TreeSet<Integer>(fpl.getPotentialSettlements()));
+        assertEquals(SOCGame.START1B, fg.getGameState());
+
+        // original game unaffected
+        assertEquals(0, ga.getPlayer(cpn).getResources().getTotal());
+    }
+
+    /**
+     * Test that a fork's dev card deck and players' dev card inventories are its own.
+     */
+    @Test
+    public void testForkDevCards()
+    {
+        final SOCGame ga = startGame("forkDevCards", null);
+        final int cpn = ga.getCurrentPlayerNumber();
+        final SOCPlayer pl = ga.getPlayer(cpn);
+        final int numDev = ga.getNumDevCards();
+        final int[] deck = ga.getDevCardDeckRemaining();
+        pl.getInventory().addDevCard(1, SOCInventory.OLD, SOCDevCardConstants.KNIGHT);
+
+        final SOCGame fg = ga.fork();
+        final SOCPlayer fpl = fg.getPlayer(cpn);
+        assertNotSame(pl.getInventory(), fpl.getInventory());
+        assertEquals(1, fpl.getInventory().getAmount(SOCInventory.OLD, SOCDevCardConstants.KNIGHT));
+
+        fpl.getResources().add(new SOCResourceSet(0, 1, 1, 1, 0, 0));
+        final int card = fg.buyDevCard();
+        assertEquals(deck[0], card);
+        assertEquals(numDev - 1, fg.getNumDevCards());
+        assertEquals(1, fpl.getInventory().getAmount(SOCInventory.NEW, card));
+        fpl.getInventory().removeDevCard(SOCInventory.OLD, SOCDevCardConstants.KNIGHT);
+        assertEquals(0, fpl.getInventory().getAmount(SOCInventory.OLD, SOCDevCardConstants.KNIGHT));
+
+        // original game unaffected
+        assertEquals(numDev, ga.getNumDevCards());
+        assertArrayEquals(deck, ga.getDevCardDeckRemaining());
+        assertEquals(0, pl.getInventory().getAmount(SOCInventory.NEW, card));
+        assertEquals(1, pl.getInventory().getAmount(SOCInventory.OLD, SOCDevCardConstants.KNIGHT));
+        assertEquals(0, pl.getResources().getTotal());
+    }
+
+    /**
+     * Test that moving a "gift" port in a fork of a {@link SOCGameOption#K_SC_FTRI _SC_FTRI} game
+     * doesn't change the original game's ports.
+     */
+    @Test
+    public void testForkScenarioPorts()
+    {
+        final SOCGame ga = startGame("forkFTRI", "SC=SC_FTRI");
+        assertTrue(ga.isGameOptionSet(SOCGameOption.K_SC_FTRI));
+        final SOCBoardLarge board = (SOCBoardLarge) ga.getBoard();
+        final int[] portsLayout = board.getPortsLayout().clone();
+        final int edge = board.getPortsEdges()[0];
+        final int[] nodes = board.getAdjacentNodesToEdge_arr(edge);
+        final int ptype = board.getPortTypeFromNodeCoord(nodes[0]);
+        assertTrue(ptype >= SOCBoard.MISC_PORT);
+        final int numPortNodes = board.getPortCoordinates(ptype).size();
+
+        final SOCGame fg = ga.fork();
+        final SOCBoardLarge fb = (SOCBoardLarge) fg.getBoard();
+        assertEquals(ptype, fb.removePort(edge));
+        assertEquals(-1, fb.getPortTypeFromNodeCoord(nodes[0]));
+        assertEquals(numPortNodes - 2, fb.getPortCoordinates(ptype).size());
+
+        // original game unaffected
+        assertArrayEquals(portsLayout, board.getPortsLayout());
+        assertEquals(ptype, board.getPortTypeFromNodeCoord(nodes[0]));
+        assertEquals(ptype, board.getPortTypeFromNodeCoord(nodes[1]));
+        assertEquals(numPortNodes, board.getPortCoordinates(ptype).size());
+        assertEquals(edge, board.getPortsEdges()[0]);
+    }
+
+    /**
+     * Test that taking cloth from a village in a fork of a {@link SOCGameOption#K_SC_CLVI _SC_CLVI} game
+     * doesn't change the original game's villages.
+     */
+    @Test
+    public void testForkScenarioVillages()
+    {
+        final SOCGame ga = startGame("forkCLVI", "SC=SC_CLVI");
+        final SOCBoardLarge board = (SOCBoardLarge) ga.getBoard();
+        final Map<Integer, SOCVillage> villages = board.getVillages();
+        assertFalse(villages.isEmpty());
+        final Integer node = villages.keySet().iterator().next();
+        final SOCVillage village = villages.get(node);
+        final int numCloth = village.getCloth();
+        assertTrue(numCloth > 0);
+
+        final SOCGame fg = ga.fork();
+        final SOCVillage fv = ((SOCBoardLarge) fg.getBoard()).getVillages().get(node);
+        assertNotSame(village, fv);
+        assertEquals(numCloth, fv.getCloth());
+        assertEquals(1, fv.takeCloth(1));
+        assertEquals(numCloth - 1, fv.getCloth());
+
+        // original game unaffected
+        assertSame(village, board.getVillages().get(node));
+        assertEquals(numCloth, village.getCloth());
+    }
+
+    public static void main(String[] args)
+    {
+        org.junit.runner.JUnitCore.main("soctest.game.TestGameFork");
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.game;
+
+import java.util.Map;
+
+import soc.game.SOCGame;
+import soc.game.SOCGameOption;
+import soc.game.SOCGameOptionSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCGameOptionSet}: Games with the same options share one set,
+ * which their option accessors read, and changing the caller's map doesn't change the set.
+ * @since 2.0.00
+ */
+public class TestGameOptionSet
+{
+    /** Games with the same options share a set; different values get a different set. */
+    @Test
+    public void testInternShared()
+    {
+        final SOCGame ga1 = new SOCGame("ga1", true, SOCGameOption.parseOptionsToMap("PL=6,VP=t12,N7=t5"));
+        final SOCGame ga2 = new SOCGame("ga2", true, SOCGameOption.parseOptionsToMap("N7=t5,VP=t12,PL=6"));
+        final SOCGame ga3 = new SOCGame("ga3", true, SOCGameOption.parseOptionsToMap("PL=6,VP=t13,N7=t5"));
+
+        assertNotNull(ga1.getGameOptionSet());
+        assertSame(ga1.getGameOptionSet(), ga2.getGameOptionSet());
+        assertNotSame(ga1.getGameOptionSet(), ga3.getGameOptionSet());
+
+        assertTrue(ga1.isGameOptionSet("N7"));
+        assertFalse(ga1.isGameOptionSet("BC"));
+        assertEquals(6, ga1.getGameOptionIntValue("PL"));
+        assertEquals(12, ga1.vp_winner);
+        assertEquals(13, ga3.vp_winner);
+
+        assertNull(new SOCGame("ga4", true).getGameOptionSet());
+    }
+
+    /** The set copies the caller's options, and its map can't be changed. */
+    @Test
+    public void testImmutable()
+    {
+        final Map<String, SOCGameOption> opts = SOCGameOption.parseOptionsToMap("PL=5");
+        final SOCGameOptionSet set = SOCGameOptionSet.intern(opts);
+        opts.get("PL").setIntValue(3);
+        assertEquals(5, set.getOptionIntValue("PL", 0, false));
+        assertNotSame(set, SOCGameOptionSet.intern(opts));
+
+        try
+        {
+            set.getOptions().remove("PL");
+            fail("getOptions() map should be unmodifiable");
+        } catch (UnsupportedOperationException e) {}
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.game;
+
+import soc.game.SOCBoard4p;
+import soc.game.SOCBoardLarge;
+import soc.game.SOCPlayerNumbers;
+import soc.game.SOCResourceConstants;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCPlayerNumbers}' dice number and resource counts,
+ * including robber views and gold hexes.
+ * @since 2.0.00
+ */
+public class TestPlayerNumbers
+{
+    /** Arbitrary hex coordinates for the tests */
+    private static final int HEX_A = 0x55, HEX_B = 0x57, HEX_C = 0x75;
+
+    /** Counts add up per dice number and resource; the robber hex's contribution is subtracted. */
+    @Test
+    public void testAmountsAndRobber()
+    {
+        final SOCPlayerNumbers pn = new SOCPlayerNumbers(new SOCBoard4p(null));
+        pn.addNumberForResource(8, SOCResourceConstants.ORE, HEX_A);
+        pn.addNumberForResource(8, SOCResourceConstants.ORE, HEX_A);  // city
+        pn.addNumberForResource(8, SOCResourceConstants.ORE, HEX_B);
+        pn.addNumberForResource(5, SOCResourceConstants.WOOD, HEX_C);
+        pn.addNumberForResource(6, SOCBoardLarge.GOLD_HEX, HEX_C);  // ignored, not sea board
+
+        assertEquals(3, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE));
+        assertEquals(1, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE, HEX_A));
+        assertEquals(2, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE, HEX_B));
+        assertEquals(3, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE, -1));
+        assertEquals(1, pn.getResourceAmountForNumber(5, SOCResourceConstants.WOOD, HEX_A));
+        assertEquals(0, pn.getResourceAmountForNumber(5, SOCResourceConstants.WOOD, HEX_C));
+        assertEquals(0, pn.getResourceAmountForNumber(6, SOCResourceConstants.WOOD));
+        assertTrue(pn.hasNumber(8));
+        assertFalse(pn.hasNumber(6));
+        assertFalse(pn.hasNoResourcesForHex(HEX_A));
+        assertEquals(2, pn.getNumberResourcePairsForHex(HEX_A).size());
+        assertNull(pn.getNumberResourcePairsForHex(0x99));
+
+        pn.undoAddNumberForResource(8, SOCResourceConstants.ORE, HEX_A);
+        pn.undoAddNumberForResource(8, SOCResourceConstants.ORE, HEX_A);
+        assertEquals(1, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE));
+        assertTrue(pn.hasNoResourcesForHex(HEX_A));
+        assertEquals(1, pn.getResourceAmountForNumber(8, SOCResourceConstants.ORE, HEX_A));
+
+        pn.undoAddNumberForResource(8, SOCResourceConstants.ORE, HEX_B);
+        assertFalse(pn.hasNumber(8));
+    }
+
+    /** On the sea board, gold hexes count for each resource type. */
+    @Test
+    public void testGoldHex()
+    {
+        final SOCPlayerNumbers pn = new SOCPlayerNumbers(new SOCBoardLarge(null, 4));
+        pn.addNumberForResource(9, SOCBoardLarge.GOLD_HEX, HEX_A);
+        pn.addNumberForResource(9, SOCResourceConstants.SHEEP, HEX_B);
+
+        for (int res = SOCResourceConstants.CLAY; res <= SOCResourceConstants.WOOD; ++res)
+        {
+            final int amt = (res == SOCResourceConstants.SHEEP) ? 2 : 1;
+            assertEquals(amt, pn.getResourceAmountForNumber(9, res));
+            assertEquals(amt - 1, pn.getResourceAmountForNumber(9, res, HEX_A));
+        }
+
+        pn.undoAddNumberForResource(9, SOCBoardLarge.GOLD_HEX, HEX_A);
+        assertEquals(0, pn.getResourceAmountForNumber(9, SOCResourceConstants.CLAY));
+        assertEquals(1, pn.getResourceAmountForNumber(9, SOCResourceConstants.SHEEP));
+    }
+
+    /** Copies are deep, whether from the copy constructor or {@link SOCPlayerNumbers#setFrom(SOCPlayerNumbers)}. */
+    @Test
+    public void testCopies()
+    {
+        final SOCPlayerNumbers pn = new SOCPlayerNumbers(new SOCBoard4p(null));
+        for (int i = 0; i < 40; ++i)  // more entries than the initial capacity
+            pn.addNumberForResource(2 + (i % 11), SOCResourceConstants.CLAY + (i % 5), HEX_A + i);
+
+        final SOCPlayerNumbers copy = new SOCPlayerNumbers(pn), reused = new SOCPlayerNumbers(new SOCBoard4p(null));
+        reused.addNumberForResource(12, SOCResourceConstants.WHEAT, HEX_C);
+        reused.setFrom(pn);
+        pn.clear();
+
+        for (final SOCPlayerNumbers c : new SOCPlayerNumbers[]{ copy, reused })
+        {
+            assertEquals(1, c.getResourceAmountForNumber(2, SOCResourceConstants.CLAY));
+            assertEquals(0, c.getResourceAmountForNumber(2, SOCResourceConstants.CLAY, HEX_A));
+            assertEquals(1, c.getResourceAmountForNumber(3, SOCResourceConstants.ORE, HEX_B));
+            assertEquals(0, c.getResourceAmountForNumber(12, SOCResourceConstants.WHEAT));
+            assertFalse(c.hasNoResourcesForHex(HEX_A + 39));
+        }
+        assertFalse(pn.hasNumber(2));
+    }
+
+}
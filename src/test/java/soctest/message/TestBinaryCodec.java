@@ -0,0 +1,180 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayingPiece;
+import soc.message.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBinaryCodec}: Each message type's binary frame
+ * must decode to a message with the same text form as the original.
+ * @since 2.0.00
+ */
+public class TestBinaryCodec
+{
+    /** Game names for the tests, including non-ASCII characters */
+    private static final String GA = "test-game", GA2 = "Spiel üß 游戏";
+
+    /** One of each message type handled by the codec, with some negative and large field values */
+    private static SOCMessage[] sampleMessages()
+    {
+        return new SOCMessage[]
+        {
+            new SOCPutPiece(GA, 2, SOCPlayingPiece.SETTLEMENT, 0x67),
+            new SOCPutPiece(GA2, 3, SOCPlayingPiece.SHIP, 0x0C0A),
+            new SOCPlayerElement(GA, 1, SOCPlayerElement.GAIN, SOCPlayerElement.CLAY, 2),
+            new SOCPlayerElement(GA, -1, SOCPlayerElement.SET, SOCPlayerElement.ASK_SPECIAL_BUILD, 0),
+            new SOCPlayerElement(GA2, 0, SOCPlayerElement.LOSE, SOCPlayerElement.WOOD, 3, true),
+            new SOCPlayerElement(GA, 3, SOCPlayerElement.SET, SOCPlayerElement.NUMKNIGHTS, Integer.MAX_VALUE),
+            new SOCPlayerElement(GA, 3, SOCPlayerElement.SET, SOCPlayerElement.NUMKNIGHTS, Integer.MIN_VALUE),
+            new SOCPlayerElements(GA, 2, SOCPlayerElement.LOSE, SOCPlayerElements.NAMED_RESOURCES,
+                new int[]{1, 0, 4, 2, 300}),
+            new SOCPlayerElements(GA2, 1, SOCPlayerElement.GAIN, new int[0], new int[0]),
+            new SOCDiceResult(GA, 8),
+            new SOCDiceResult(GA, -1),
+            new SOCGameState(GA, SOCGame.PLAY1),
+            new SOCGameState(GA2, SOCGame.OVER),
+            new SOCTurn(GA, 0),
+            new SOCTurn(GA2, 5),
+            new SOCMoveRobber(GA, 2, 0x55),
+            new SOCMoveRobber(GA2, 1, -0x0A07),  // pirate move has negative coordinates
+            new SOCResourceCount(GA, 1, 7),
+            new SOCResourceCount(GA2, 0, 0)
+        };
+    }
+
+    /** Encode each message, decode them all from one stream, and compare their text forms. */
+    @Test
+    public void testEquivalentToText()
+        throws IOException
+    {
+        final SOCMessage[] msgs = sampleMessages();
+        final SOCBinaryCodec.Encoder enc = new SOCBinaryCodec.Encoder(SOCBinaryCodec.FORMAT_VERSION);
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        for (final SOCMessage m : msgs)
+        {
+            assertTrue(SOCBinaryCodec.canEncode(m));
+            final byte[] frame = enc.encode(m);
+            assertNotNull(frame);
+            bout.write(frame);
+        }
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        final SOCBinaryCodec.Decoder dec = new SOCBinaryCodec.Decoder(SOCBinaryCodec.FORMAT_VERSION);
+        for (final SOCMessage m : msgs)
+        {
+            final SOCMessage decoded = dec.readMessage(in);
+            assertNotNull(decoded);
+            assertEquals(m.getClass(), decoded.getClass());
+            assertEquals(m.toCmd(), decoded.toCmd());
+        }
+        assertEquals(0, in.available());
+    }
+
+    /** Binary frames and text messages can be mixed in the same stream, in any order. */
+    @Test
+    public void testMixedWithText()
+        throws IOException
+    {
+        final SOCBinaryCodec.Encoder enc = new SOCBinaryCodec.Encoder(SOCBinaryCodec.FORMAT_VERSION);
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final DataOutputStream dout = new DataOutputStream(bout);
+
+        final SOCMessage text1 = new SOCGameTextMsg(GA2, "Server", "text with non-ASCII: é中"),
+            text2 = new SOCServerPing(42);
+        final SOCMessage bin1 = new SOCTurn(GA2, 2), bin2 = new SOCDiceResult(GA2, 6);
+
+        assertFalse(SOCBinaryCodec.canEncode(text1));
+        assertNull(enc.encode(text1));
+
+        dout.writeUTF(text1.toCmd());
+        dout.write(enc.encode(bin1));
+        dout.writeUTF(text2.toCmd());
+        dout.write(enc.encode(bin2));
+        dout.flush();
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        final SOCBinaryCodec.Decoder dec = new SOCBinaryCodec.Decoder(SOCBinaryCodec.FORMAT_VERSION);
+        for (final SOCMessage m : new SOCMessage[]{ text1, bin1, text2, bin2 })
+            assertEquals(m.toCmd(), dec.readMessage(in).toCmd());
+    }
+
+    /** Binary frames should be much smaller than the text form, once the game name is defined. */
+    @Test
+    public void testSmallerThanText()
+        throws IOException
+    {
+        final SOCBinaryCodec.Encoder enc = new SOCBinaryCodec.Encoder(SOCBinaryCodec.FORMAT_VERSION);
+        final SOCMessage m = new SOCPlayerElement(GA, 1, SOCPlayerElement.GAIN, SOCPlayerElement.CLAY, 2);
+        enc.encode(m);  // first frame also defines the game name
+
+        final byte[] frame = enc.encode(m);
+        final int textLen = 2 + m.toCmd().length();  // writeUTF length + ASCII text
+        assertTrue("frame length " + frame.length + ", text " + textLen, frame.length * 2 < textLen);
+    }
+
+    /** Game ids are reused after {@link SOCBinaryCodec#MAX_GAME_IDS} games; the decoder must follow along. */
+    @Test
+    public void testGameIdReuse()
+        throws IOException
+    {
+        final SOCBinaryCodec.Encoder enc = new SOCBinaryCodec.Encoder(SOCBinaryCodec.FORMAT_VERSION);
+        final SOCBinaryCodec.Decoder dec = new SOCBinaryCodec.Decoder(SOCBinaryCodec.FORMAT_VERSION);
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final int n = SOCBinaryCodec.MAX_GAME_IDS + 10;
+        for (int i = 0; i < n; ++i)
+            bout.write(enc.encode(new SOCTurn("g" + i, i % 4)));
+        bout.write(enc.encode(new SOCTurn("g0", 3)));
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        for (int i = 0; i < n; ++i)
+            assertEquals(SOCTurn.toCmd("g" + i, i % 4), dec.readMessage(in).toCmd());
+        assertEquals(SOCTurn.toCmd("g0", 3), dec.readMessage(in).toCmd());
+    }
+
+    /** Unsupported format versions are rejected. */
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadVersion()
+    {
+        new SOCBinaryCodec.Decoder(SOCBinaryCodec.FORMAT_VERSION + 1);
+    }
+
+    /** Frame for an undefined game id is an error, not a message for some other game. */
+    @Test(expected=IOException.class)
+    public void testUndefinedGameId()
+        throws IOException
+    {
+        final byte[] frame = { 0, 0, 3, SOCBinaryCodec.KIND_TURN, 5, 2 };
+        new SOCBinaryCodec.Decoder(SOCBinaryCodec.FORMAT_VERSION).readMessage
+            (new DataInputStream(new ByteArrayInputStream(frame)));
+    }
+
+}
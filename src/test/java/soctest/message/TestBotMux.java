@@ -0,0 +1,100 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.message;
+
+import soc.game.SOCPlayingPiece;
+import soc.message.SOCBotMux;
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCImARobot;
+import soc.message.SOCMessage;
+import soc.message.SOCPutPiece;
+import soc.message.SOCVersion;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCBotMux}: Bot IDs and inner messages survive a round trip through
+ * {@link SOCMessage#toCmd()} and {@link SOCMessage#toMsg(String)}.
+ * @since 2.0.00
+ */
+public class TestBotMux
+{
+    /** Parse this message's command string back into a {@link SOCBotMux}. */
+    private static SOCBotMux roundTrip(final SOCBotMux mes)
+    {
+        final SOCMessage parsed = SOCMessage.toMsg(mes.toCmd());
+        assertTrue(parsed instanceof SOCBotMux);
+
+        return (SOCBotMux) parsed;
+    }
+
+    /** Inner messages with one field, several fields, or fields containing separators keep their text. */
+    @Test
+    public void testInnerMessages()
+    {
+        final SOCMessage[] inners =
+            {
+                new SOCPutPiece("ga", 2, SOCPlayingPiece.SETTLEMENT, 0x45),
+                new SOCImARobot("robot 3", "cookie", SOCImARobot.RBCLASS_BUILTIN),
+                new SOCGameTextMsg("ga", "robot 3", "text, with a comma"),
+                new SOCVersion(2000, "2.0.00", "JM20180601", null)
+            };
+
+        int botID = 0;
+        for (final SOCMessage inner : inners)
+        {
+            final String innerCmd = inner.toCmd();
+            final SOCBotMux mes = roundTrip(new SOCBotMux(botID, inner, null));
+            assertEquals(botID, mes.getBotID());
+            assertFalse(mes.isClose());
+            assertEquals(innerCmd, mes.getMessage().toCmd());
+            assertEquals(inner.getClass(), mes.getMessage().getClass());
+            assertSame("parsed once", mes.getMessage(), mes.getMessage());
+
+            // from text, like SOCRobotHost.put
+            assertEquals(SOCBotMux.toCmd(botID, innerCmd), mes.toCmd());
+            assertEquals(innerCmd, roundTrip(mes).getMessage().toCmd());
+
+            botID += 7;
+        }
+    }
+
+    /** A message without an inner message closes the bot's sub-connection. */
+    @Test
+    public void testClose()
+    {
+        final SOCBotMux mes = roundTrip(new SOCBotMux(12, null, null));
+        assertEquals(12, mes.getBotID());
+        assertTrue(mes.isClose());
+        assertNull(mes.getMessage());
+        assertEquals(SOCBotMux.toCmd(12, null), mes.toCmd());
+    }
+
+    /** Garbled bot IDs aren't parsed. */
+    @Test
+    public void testGarbled()
+    {
+        assertNull(SOCMessage.toMsg(SOCMessage.BOTMUX + SOCMessage.sep + "x"));
+        assertNull(SOCMessage.toMsg(SOCMessage.BOTMUX + SOCMessage.sep + "x" + SOCMessage.sep
+            + new SOCPutPiece("ga", 2, SOCPlayingPiece.SETTLEMENT, 0x45).toCmd()));
+    }
+
+}
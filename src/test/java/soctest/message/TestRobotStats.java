@@ -0,0 +1,73 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.message;
+
+import soc.message.SOCMessage;
+import soc.message.SOCRobotStats;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCRobotStats}: Requests and replies survive a round trip through
+ * {@link SOCMessage#toCmd()} and {@link SOCMessage#toMsg(String)}.
+ * @since 2.0.00
+ */
+public class TestRobotStats
+{
+    /** Parse this message's command string back into a {@link SOCRobotStats}. */
+    private static SOCRobotStats roundTrip(final SOCRobotStats mes)
+    {
+        final SOCMessage parsed = SOCMessage.toMsg(mes.toCmd());
+        assertTrue(parsed instanceof SOCRobotStats);
+
+        return (SOCRobotStats) parsed;
+    }
+
+    /** Server's request has no stats. */
+    @Test
+    public void testRequest()
+    {
+        final SOCRobotStats mes = roundTrip(new SOCRobotStats());
+        assertTrue(mes.isRequest());
+        assertEquals(0, mes.getStat(SOCRobotStats.IDX_BRAINS));
+    }
+
+    /** Bot's reply keeps each stat at its index, including one-stat and zero-valued replies. */
+    @Test
+    public void testReply()
+    {
+        final int[] stats = new int[SOCRobotStats.STATS_LENGTH];
+        for (int i = 0; i < stats.length; ++i)
+            stats[i] = 3 * i;
+
+        final SOCRobotStats mes = roundTrip(new SOCRobotStats(stats));
+        assertFalse(mes.isRequest());
+        for (int i = 0; i < stats.length; ++i)
+            assertEquals("stat " + i, 3 * i, mes.getStat(i));
+        assertEquals("stat past end", 0, mes.getStat(stats.length));
+
+        final SOCRobotStats one = roundTrip(new SOCRobotStats(new int[]{ 0 }));
+        assertFalse(one.isRequest());
+        assertEquals(0, one.getStat(SOCRobotStats.IDX_BRAINS));
+    }
+
+}
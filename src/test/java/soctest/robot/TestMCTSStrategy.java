@@ -0,0 +1,158 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.robot;
+
+import soc.game.SOCBoard;
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.robot.MCTSStrategy;
+import soc.robot.SOCPossiblePiece;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MCTSStrategy}: Its decisions must be legal moves in the game's current state.
+ * Uses a short time budget per decision.
+ * @since 2.0.00
+ */
+public class TestMCTSStrategy
+{
+    /** Time budget for each decision in these tests, in milliseconds */
+    private static final int BUDGET_MS = 60;
+
+    /**
+     * Create and start a 4-player game at the server, and make each player's initial placements:
+     * Settlements chosen by {@link MCTSStrategy#planInitialSettlement()}, each checked for legality,
+     * and roads at the first legal edge.
+     * @return  The game, in state {@link SOCGame#ROLL_OR_CARD}
+     */
+    private static SOCGame createPlacedGame()
+    {
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        gl.createGame("mctsTest", "test", "en_US", null, new SOCGameHandler(null));
+        final SOCGame ga = gl.getGameData("mctsTest");
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame();
+
+        final SOCBoard board = ga.getBoard();
+        while (ga.getGameState() < SOCGame.ROLL_OR_CARD)
+        {
+            final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+            switch (ga.getGameState())
+            {
+            case SOCGame.START1A:
+            case SOCGame.START2A:
+                {
+                    final MCTSStrategy ms = new MCTSStrategy(ga, pl);
+                    ms.setBudget(BUDGET_MS);
+                    final int node = ms.planInitialSettlement();
+                    assertTrue("legal initial settlement", pl.canPlaceSettlement(node));
+                    ga.putPiece(new SOCSettlement(pl, node, board));
+                }
+                break;
+
+            case SOCGame.START1B:
+            case SOCGame.START2B:
+                {
+                    int edge = 0;
+                    for (final int e : board.getAdjacentEdgesToNode_arr(pl.getLastSettlementCoord()))
+                        if (pl.isPotentialRoad(e))
+                        {
+                            edge = e;
+                            break;
+                        }
+                    assertTrue(edge != 0);
+                    ga.putPiece(new SOCRoad(pl, edge, board));
+                }
+                break;
+
+            default:
+                fail("Unexpected game state " + ga.getGameState());
+            }
+        }
+
+        return ga;
+    }
+
+    /**
+     * Test that the original game is unchanged by searches, and that {@link MCTSStrategy#planBuild()}
+     * chooses a legal piece to build during our turn, or nothing when it isn't our {@link SOCGame#PLAY1} state.
+     */
+    @Test
+    public void testPlanBuild()
+    {
+        final SOCGame ga = createPlacedGame();
+        final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+        final MCTSStrategy ms = new MCTSStrategy(ga, pl);
+        ms.setBudget(BUDGET_MS);
+
+        assertEquals(0, ms.planBuild());  // ROLL_OR_CARD, not PLAY1
+        assertEquals(0, ms.planRobberHex());
+
+        ga.setGameState(SOCGame.PLAY1);
+        pl.getResources().add(new SOCResourceSet(2, 3, 2, 3, 2, 0));
+        final SOCResourceSet resBefore = pl.getResources().copy();
+        final int numSettlements = pl.getSettlements().size(), numRoads = pl.getRoads().size();
+
+        final int action = ms.planBuild();
+        assertTrue(action != 0);
+        final int coord = MCTSStrategy.getActionCoordinate(action);
+        switch (MCTSStrategy.getActionPieceType(action))
+        {
+        case SOCPossiblePiece.ROAD:
+            assertTrue(pl.isPotentialRoad(coord));
+            break;
+        case SOCPossiblePiece.SETTLEMENT:
+            assertTrue(pl.canPlaceSettlement(coord));
+            break;
+        case SOCPossiblePiece.CITY:
+            assertTrue(pl.isPotentialCity(coord));
+            break;
+        case SOCPossiblePiece.CARD:
+            assertEquals(0, coord);
+            break;
+        default:
+            fail("Unexpected piece type for action 0x" + Integer.toHexString(action));
+        }
+
+        assertEquals(SOCGame.PLAY1, ga.getGameState());
+        assertEquals(resBefore, pl.getResources());
+        assertEquals(numSettlements, pl.getSettlements().size());
+        assertEquals(numRoads, pl.getRoads().size());
+
+        // Not our turn
+        final SOCPlayer other = ga.getPlayer((pl.getPlayerNumber() + 1) % 4);
+        assertEquals(0, new MCTSStrategy(ga, other).planBuild());
+    }
+
+    public static void main(String[] args)
+    {
+        org.junit.runner.JUnitCore.main("soctest.robot.TestMCTSStrategy");
+    }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.message.SOCMessage;
+import soc.robot.SOCRobotBrain;
+import soc.robot.SOCRobotClient;
+import soc.robot.SOCRobotDM;
+import soc.util.CappedQueue;
+import soc.util.SOCRobotParameters;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCRobotDM#setDecisionBudget(int)}: A smart decision which runs out of time
+ * still plans a build from the candidates scored so far, and after
+ * {@link SOCRobotDM#BUDGET_OVERRUNS_BEFORE_FALLBACK} overruns in a row the robot
+ * uses the fast strategy for {@link SOCRobotDM#BUDGET_FALLBACK_DECISIONS} decisions.
+ * @since 2.0.00
+ */
+public class TestRobotDMBudget
+{
+    /** Budget for these tests, in milliseconds */
+    private static final int BUDGET_MS = 5;
+
+    /** Robot brain for these tests, which can track pieces placed by the test */
+    private static class TestBrain extends SOCRobotBrain
+    {
+        public TestBrain(SOCRobotClient rc, SOCRobotParameters params, SOCGame ga)
+        {
+            super(rc, params, ga, new CappedQueue<SOCMessage>());
+        }
+
+        public void track(final SOCSettlement se)
+        {
+            trackNewSettlement(se, false);
+        }
+
+        public void track(final SOCRoad rd)
+        {
+            trackNewRoadOrShip(rd, false);
+        }
+    }
+
+    /**
+     * Decision maker which can be made slow enough to use up its budget before scoring any candidates,
+     * and counts which strategy each decision used.
+     */
+    private static class SlowDM extends SOCRobotDM
+    {
+        /** If true, {@link #smartGameStrategy(int[])} sleeps past the budget before scoring */
+        public boolean slow;
+
+        public int smartCount, fastCount;
+
+        public SlowDM(SOCRobotBrain br)
+        {
+            super(br);
+        }
+
+        public SOCRobotBrain getBrain()
+        {
+            return brain;
+        }
+
+        @Override
+        protected void smartGameStrategy(final int[] buildingETAs)
+        {
+            ++smartCount;
+            if (slow)
+                try
+                {
+                    Thread.sleep(BUDGET_MS + 20);
+                }
+                catch (InterruptedException e) {}
+
+            super.smartGameStrategy(buildingETAs);
+        }
+
+        @Override
+        protected void dumbFastGameStrategy(final int[] buildingETAs)
+        {
+            ++fastCount;
+            super.dumbFastGameStrategy(buildingETAs);
+        }
+    }
+
+    @After
+    public void resetBudget()
+    {
+        SOCRobotDM.setDecisionBudget(0);
+    }
+
+    /** Place a settlement and a road for the current player at legal spots chosen by {@code rnd}. */
+    private static void placeInitial(final SOCGame ga, final TestBrain brain, final Random rnd)
+    {
+        final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+        final List<Integer> nodes = new ArrayList<Integer>();
+        for (int node = 0; node <= 0xFF; ++node)
+            if (pl.canPlaceSettlement(node))
+                nodes.add(Integer.valueOf(node));
+        final int node = nodes.get(rnd.nextInt(nodes.size())).intValue();
+        final SOCSettlement se = new SOCSettlement(pl, node, ga.getBoard());
+        ga.putPiece(se);
+        brain.track(se);
+
+        final List<Integer> legal = new ArrayList<Integer>();
+        for (Integer edge : ga.getBoard().getAdjacentEdgesToNode(node))
+            if (pl.isPotentialRoad(edge.intValue()))
+                legal.add(edge);
+        final SOCRoad rd = new SOCRoad(pl, legal.get(rnd.nextInt(legal.size())).intValue(), ga.getBoard());
+        ga.putPiece(rd);
+        brain.track(rd);
+    }
+
+    /**
+     * Start a seeded game past initial placement, with resources for player 0 to build.
+     * @return  a decision maker for player 0
+     */
+    private static SlowDM startGame(final long seed)
+    {
+        final SOCGame ga = new SOCGame("dmbudget" + seed);
+        ga.setRandomSeed(seed);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame();
+
+        final SOCRobotClient rc = new SOCRobotClient("localhost", 0, "p0", "pw", "cookie");
+        final TestBrain brain = new TestBrain
+            (rc, new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, SOCRobotDM.SMART_STRATEGY, 1), ga);
+        brain.setOurPlayerData();
+
+        final Random rnd = new Random(seed);
+        while (ga.isInitialPlacement())
+            placeInitial(ga, brain, rnd);
+        ga.getPlayer(0).getResources().add(new SOCResourceSet(2, 3, 2, 3, 2, 0));
+
+        return new SlowDM(brain);
+    }
+
+    /** Plan with the smart strategy, clearing the building plan first; returns the plan's size. */
+    private static int plan(final SlowDM dm)
+    {
+        dm.getBrain().getBuildingPlan().clear();
+        dm.planStuff(SOCRobotDM.SMART_STRATEGY);
+        return dm.getBrain().getBuildingPlan().size();
+    }
+
+    /** A decision whose budget runs out before any candidate is scored still plans a build. */
+    @Test
+    public void testOverBudgetStillPlans()
+    {
+        for (long seed = 1; seed <= 6; ++seed)
+        {
+            final SlowDM dm = startGame(seed);
+            assertTrue("seed " + seed, plan(dm) > 0);
+
+            SOCRobotDM.setDecisionBudget(BUDGET_MS);
+            dm.slow = true;
+            assertTrue("over budget, seed " + seed, plan(dm) > 0);
+            assertTrue("over budget, seed " + seed,
+                (dm.getFavoriteCity() != null) || (dm.getFavoriteSettlement() != null)
+                || (dm.getFavoriteRoad() != null));
+            assertEquals(2, dm.smartCount);
+            assertEquals(0, dm.fastCount);
+            SOCRobotDM.setDecisionBudget(0);
+        }
+    }
+
+    /** After enough overruns in a row, the next few decisions use the fast strategy, then smart again. */
+    @Test
+    public void testFallbackAfterOverruns()
+    {
+        final SlowDM dm = startGame(3);
+        SOCRobotDM.setDecisionBudget(BUDGET_MS);
+        dm.slow = true;
+
+        for (int i = 0; i < SOCRobotDM.BUDGET_OVERRUNS_BEFORE_FALLBACK; ++i)
+            plan(dm);
+        assertEquals(SOCRobotDM.BUDGET_OVERRUNS_BEFORE_FALLBACK, dm.smartCount);
+        assertEquals(0, dm.fastCount);
+
+        for (int i = 0; i < SOCRobotDM.BUDGET_FALLBACK_DECISIONS; ++i)
+            assertTrue(plan(dm) > 0);
+        assertEquals(SOCRobotDM.BUDGET_OVERRUNS_BEFORE_FALLBACK, dm.smartCount);
+        assertEquals(SOCRobotDM.BUDGET_FALLBACK_DECISIONS, dm.fastCount);
+
+        plan(dm);
+        assertEquals(SOCRobotDM.BUDGET_OVERRUNS_BEFORE_FALLBACK + 1, dm.smartCount);
+        assertEquals(SOCRobotDM.BUDGET_FALLBACK_DECISIONS, dm.fastCount);
+    }
+
+    /** Without a budget, slow decisions never fall back to the fast strategy. */
+    @Test
+    public void testNoBudgetNoFallback()
+    {
+        final SlowDM dm = startGame(4);
+        dm.slow = true;
+        final int n = SOCRobotDM.BUDGET_OVERRUNS_BEFORE_FALLBACK + 2;
+        for (int i = 0; i < n; ++i)
+            plan(dm);
+        assertEquals(n, dm.smartCount);
+        assertEquals(0, dm.fastCount);
+    }
+
+}
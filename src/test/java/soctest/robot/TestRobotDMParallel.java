@@ -0,0 +1,179 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+
+package soctest.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCResourceSet;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.message.SOCMessage;
+import soc.robot.SOCPossiblePiece;
+import soc.robot.SOCRobotBrain;
+import soc.robot.SOCRobotClient;
+import soc.robot.SOCRobotDM;
+import soc.util.CappedQueue;
+import soc.util.SOCRobotParameters;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCRobotDM#setParallelScoringThreads(int)}: In seeded games,
+ * scoring candidates in parallel must pick the same pieces, with the same scores, as scoring serially.
+ * @since 2.0.00
+ */
+public class TestRobotDMParallel
+{
+    /** Robot brain for these tests, which can track pieces placed by the test */
+    private static class TestBrain extends SOCRobotBrain
+    {
+        public TestBrain(SOCRobotClient rc, SOCRobotParameters params, SOCGame ga)
+        {
+            super(rc, params, ga, new CappedQueue<SOCMessage>());
+        }
+
+        public void track(final SOCSettlement se)
+        {
+            trackNewSettlement(se, false);
+        }
+
+        public void track(final SOCRoad rd)
+        {
+            trackNewRoadOrShip(rd, false);
+        }
+    }
+
+    @After
+    public void resetThreads()
+    {
+        SOCRobotDM.setParallelScoringThreads(0);
+    }
+
+    /** Place a settlement and a road for the current player at legal spots chosen by {@code rnd}. */
+    private static void placeInitial(final SOCGame ga, final TestBrain brain, final Random rnd)
+    {
+        final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+        final List<Integer> nodes = new ArrayList<Integer>();
+        for (int node = 0; node <= 0xFF; ++node)
+            if (pl.canPlaceSettlement(node))
+                nodes.add(Integer.valueOf(node));
+        final int node = nodes.get(rnd.nextInt(nodes.size())).intValue();
+        final SOCSettlement se = new SOCSettlement(pl, node, ga.getBoard());
+        ga.putPiece(se);
+        brain.track(se);
+
+        placeRoad(ga, brain, pl, ga.getBoard().getAdjacentEdgesToNode(node), rnd);
+    }
+
+    /** Place a road for {@code pl} at one of these edges chosen by {@code rnd}, if any are legal. */
+    private static void placeRoad
+        (final SOCGame ga, final TestBrain brain, final SOCPlayer pl, final List<Integer> edges, final Random rnd)
+    {
+        final List<Integer> legal = new ArrayList<Integer>();
+        for (Integer edge : edges)
+            if (pl.isPotentialRoad(edge.intValue()))
+                legal.add(edge);
+        if (legal.isEmpty())
+            return;
+
+        final SOCRoad rd = new SOCRoad(pl, legal.get(rnd.nextInt(legal.size())).intValue(), ga.getBoard());
+        ga.putPiece(rd);
+        brain.track(rd);
+    }
+
+    /**
+     * Plan our build in a seeded game, with the current number of scoring threads.
+     * @return  description of the favorite settlement, city, and road with their scores, and the building plan
+     */
+    private static String plan(final long seed)
+    {
+        final SOCGame ga = new SOCGame("dmtest" + seed);
+        ga.setRandomSeed(seed);
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.startGame();
+
+        final SOCRobotClient rc = new SOCRobotClient("localhost", 0, "p0", "pw", "cookie");
+        final TestBrain brain = new TestBrain
+            (rc, new SOCRobotParameters(120, 35, 0.13f, 1.0f, 1.0f, 3.0f, 1.0f, SOCRobotDM.SMART_STRATEGY, 1), ga);
+        brain.setOurPlayerData();
+
+        final Random rnd = new Random(seed);
+        while (ga.isInitialPlacement())
+            placeInitial(ga, brain, rnd);
+
+        // a few more roads each, to give the trackers longer paths and more candidates
+        for (int r = 0; r < 3; ++r)
+        {
+            for (int pn = 0; pn < 4; ++pn)
+            {
+                final SOCPlayer pl = ga.getPlayer(pn);
+                final List<Integer> edges = new ArrayList<Integer>();
+                for (SOCRoad rd : pl.getRoads())
+                    edges.addAll(ga.getBoard().getAdjacentEdgesToEdge(rd.getCoordinates()));
+                placeRoad(ga, brain, pl, edges, rnd);
+            }
+        }
+
+        ga.getPlayer(0).getResources().add(new SOCResourceSet(2, 3, 2, 3, 2, 0));
+
+        final SOCRobotDM dm = brain.getDecisionMaker();
+        brain.getBuildingPlan().clear();
+        dm.planStuff(SOCRobotDM.SMART_STRATEGY);
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append("set=").append(describe(dm.getFavoriteSettlement()));
+        sb.append(" city=").append(describe(dm.getFavoriteCity()));
+        sb.append(" road=").append(describe(dm.getFavoriteRoad()));
+        sb.append(" plan=");
+        for (SOCPossiblePiece pp : brain.getBuildingPlan())
+            sb.append(pp.getType()).append('@').append(Integer.toHexString(pp.getCoordinates())).append(',');
+
+        return sb.toString();
+    }
+
+    private static String describe(final SOCPossiblePiece pp)
+    {
+        return (pp == null) ? "null" : Integer.toHexString(pp.getCoordinates()) + ":" + pp.getScore();
+    }
+
+    /** Parallel scoring picks the same pieces with the same scores as serial scoring, over several seeded games. */
+    @Test
+    public void testSameAsSerial()
+    {
+        for (long seed = 1; seed <= 8; ++seed)
+        {
+            SOCRobotDM.setParallelScoringThreads(0);
+            final String serial = plan(seed);
+            assertEquals("serial is repeatable, seed " + seed, serial, plan(seed));
+
+            SOCRobotDM.setParallelScoringThreads(4);
+            assertEquals("seed " + seed, serial, plan(seed));
+        }
+    }
+
+}
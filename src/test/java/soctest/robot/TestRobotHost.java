@@ -0,0 +1,184 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.robot;
+
+import java.util.Properties;
+
+import soc.message.SOCServerPing;
+import soc.robot.SOCRobotClient;
+import soc.robot.SOCRobotHost;
+import soc.server.SOCServer;
+import soc.server.genericServer.Connection;
+import soc.server.genericServer.MultiplexedConnection;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCRobotHost} and the server's multiplexed robot connections:
+ * Runs a server and one robot host with two robots on a local stringport.
+ * @since 2.0.00
+ */
+public class TestRobotHost
+{
+    private static final String STRINGPORT = "testrobothost";
+    private static final String COOKIE = "testcookie";
+
+    /** A message the server accepts from robots without a reply */
+    private static final String PING = new SOCServerPing(0).toCmd();
+
+    /** Maximum time to wait for the server to see a change, in milliseconds */
+    private static final int WAIT_MS = 5000;
+
+    private SOCServer srv;
+    private SOCRobotHost host;
+
+    @After
+    public void stop()
+    {
+        if (host != null)
+            host.disconnect();
+        if (srv != null)
+            srv.stopServer();
+    }
+
+    /**
+     * Start the server and the host with two robots, and wait for both to authenticate.
+     * @return  the host's robots
+     */
+    private SOCRobotClient[] startHost()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_COOKIE, COOKIE);
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        srv = new SOCServer(STRINGPORT, props);
+        srv.setPriority(5);
+        srv.start();
+
+        host = new SOCRobotHost(STRINGPORT, COOKIE);
+        final SOCRobotClient[] rcs =
+            { host.addRobot("droid host 1", ""), host.addRobot("droid host 2", "") };
+        assertEquals(2, host.getRobotCount());
+        host.init();
+
+        assertTrue("both robots authenticated", waitForRobotCount(2));
+
+        return rcs;
+    }
+
+    /**
+     * Wait for the server's robot count to reach a value.
+     * @param n  Count to wait for
+     * @return  true if reached, false if timed out
+     */
+    private boolean waitForRobotCount(final int n)
+        throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        while (srv.getRobotCount() != n)
+        {
+            if (System.currentTimeMillis() >= until)
+                return false;
+            Thread.sleep(20);
+        }
+
+        return true;
+    }
+
+    /** Both robots open sub-connections on the host's one connection and authenticate. */
+    @Test
+    public void testOpen()
+        throws Exception
+    {
+        final SOCRobotClient[] rcs = startHost();
+        assertTrue(rcs[0].put(PING));
+        assertTrue(rcs[1].put(PING));
+        assertEquals(2, srv.getRobotCount());
+    }
+
+    /**
+     * A robot which reconnects gets a new sub-connection, and the server's close of its old one
+     * doesn't close the new one.
+     */
+    @Test
+    public void testReconnect()
+        throws Exception
+    {
+        final SOCRobotClient[] rcs = startHost();
+
+        rcs[0].disconnectReconnect();
+        Thread.sleep(300);  // let the server close the old sub-connection and authenticate the new one
+        assertTrue("reconnected robot authenticated", waitForRobotCount(2));
+        Thread.sleep(300);  // a late close of the old sub-connection mustn't affect the new one
+        assertEquals(2, srv.getRobotCount());
+        assertTrue(rcs[0].put(PING));
+
+        rcs[0].disconnectReconnect();
+        Thread.sleep(300);
+        assertTrue("reconnected twice", waitForRobotCount(2));
+        assertTrue(rcs[0].put(PING));
+        assertTrue(rcs[1].put(PING));
+        assertEquals(2, host.getRobotCount());
+    }
+
+    /** When the host's connection is lost, the server removes all its robots. */
+    @Test
+    public void testHostLost()
+        throws Exception
+    {
+        final SOCRobotClient[] rcs = startHost();
+
+        host.disconnect();
+        srv.broadcast(PING);  // robots' sub-connections may not be removed yet; mustn't throw
+        assertTrue("server removed the host's robots", waitForRobotCount(0));
+        assertNull(srv.getConnection("droid host 1"));
+        assertNull(srv.getConnection("droid host 2"));
+        srv.broadcast(PING);
+        assertFalse(rcs[0].put(PING));
+        assertFalse(rcs[1].put(PING));
+    }
+
+    /**
+     * Sending to a robot's sub-connection after its host's connection has closed is ignored,
+     * even before the server has removed the sub-connection. Removing the host removes its robots.
+     */
+    @Test
+    public void testPutAfterHostClosed()
+        throws Exception
+    {
+        startHost();
+        final Connection mc = srv.getConnection("droid host 1");
+        assertTrue(mc instanceof MultiplexedConnection);
+        final Connection hc = ((MultiplexedConnection) mc).getHostConnection();
+
+        hc.disconnect();
+        assertFalse(mc.isConnected());
+        mc.put(PING);  // mustn't throw
+        mc.put(new SOCServerPing(0), null);
+
+        srv.removeConnection(hc, true);
+        assertEquals("host's robots removed", 0, srv.getRobotCount());
+        assertNull(srv.getConnection("droid host 1"));
+        assertNull(srv.getConnection("droid host 2"));
+    }
+
+}
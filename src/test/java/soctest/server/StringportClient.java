@@ -0,0 +1,175 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.io.EOFException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import soc.message.SOCMessage;
+import soc.message.SOCRejectConnection;
+import soc.message.SOCStatusMessage;
+import soc.message.SOCVersion;
+import soc.server.genericServer.StringConnection;
+import soc.server.genericServer.StringServerSocket;
+import soc.util.Version;
+
+/**
+ * A test client on a local stringport, with a reader thread so that tests can wait
+ * for a message with a timeout. Used by server tests such as {@link TestLobbyRouter}.
+ * @since 2.0.00
+ */
+class StringportClient implements Runnable
+{
+    /** Maximum time to wait for a message, in milliseconds */
+    static final int WAIT_MS = 5000;
+
+    private final StringConnection sc;
+    private final LinkedBlockingQueue<SOCMessage> received = new LinkedBlockingQueue<SOCMessage>();
+
+    /** Set when the server has closed our connection */
+    private volatile boolean isClosed;
+
+    /**
+     * Connect and send our version.
+     * @param strSocketName  Server's stringport
+     */
+    public StringportClient(final String strSocketName)
+        throws Exception
+    {
+        this(strSocketName, Version.versionNumber());
+    }
+
+    /**
+     * Connect and send a version, such as an older client's.
+     * @param strSocketName  Server's stringport
+     * @param vers  Version number to send, like {@link Version#versionNumber()}
+     */
+    public StringportClient(final String strSocketName, final int vers)
+        throws Exception
+    {
+        sc = StringServerSocket.connectTo(strSocketName);
+        final Thread t = new Thread(this, "testclient-" + strSocketName);
+        t.setDaemon(true);
+        t.start();
+        put(SOCVersion.toCmd(vers, Version.version(), Version.buildnum(), null));
+    }
+
+    public void put(final String cmd)
+    {
+        sc.put(cmd);
+    }
+
+    /**
+     * Wait for the server to reject us. The server sends {@link SOCRejectConnection} and then
+     * disconnects; a local stringport's disconnect may discard that message before it's read,
+     * so the connection closing also counts as rejected.
+     * @return  True if rejected within {@link #WAIT_MS}
+     */
+    public boolean waitForReject()
+        throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        while (System.currentTimeMillis() < until)
+        {
+            final SOCMessage mes = received.poll(20, TimeUnit.MILLISECONDS);
+            if (mes instanceof SOCRejectConnection)
+                return true;
+            if ((mes == null) && isClosed && received.isEmpty())
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Wait for a {@link SOCStatusMessage} with this status value, skipping any others received before it.
+     * @param sv  Status value, such as {@link SOCStatusMessage#SV_NEWGAME_TOO_MANY_CREATED}
+     * @return  The message, or {@code null} if none arrived within {@link #WAIT_MS}
+     */
+    public SOCStatusMessage waitForStatus(final int sv)
+        throws InterruptedException
+    {
+        SOCMessage mes;
+        while (null != (mes = waitFor(SOCMessage.STATUSMESSAGE)))
+            if (((SOCStatusMessage) mes).getStatusValue() == sv)
+                return (SOCStatusMessage) mes;
+
+        return null;
+    }
+
+    /**
+     * Wait for the next message of any type.
+     * @return  The message, or {@code null} if none arrived within {@link #WAIT_MS}
+     */
+    public SOCMessage next()
+        throws InterruptedException
+    {
+        return next(WAIT_MS);
+    }
+
+    /**
+     * Wait for the next message of any type.
+     * @param ms  Maximum time to wait, in milliseconds
+     * @return  The message, or {@code null} if none arrived within {@code ms}
+     */
+    public SOCMessage next(final long ms)
+        throws InterruptedException
+    {
+        return received.poll(ms, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait for a message of this type, skipping any others received before it.
+     * @param type  Message type, such as {@link SOCMessage#JOINGAMEAUTH}
+     * @return  The message, or {@code null} if none arrived within {@link #WAIT_MS}
+     */
+    public SOCMessage waitFor(final int type)
+        throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        long now;
+        while ((now = System.currentTimeMillis()) < until)
+        {
+            final SOCMessage mes = received.poll(until - now, TimeUnit.MILLISECONDS);
+            if ((mes != null) && (mes.getType() == type))
+                return mes;
+        }
+
+        return null;
+    }
+
+    public void run()
+    {
+        try
+        {
+            for (;;)
+            {
+                final SOCMessage mes = sc.readNextMessage();
+                if (mes != null)
+                    received.add(mes);
+            }
+        }
+        catch (EOFException e)
+        {
+            isClosed = true;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import soc.server.SOCAuthTokenCache;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCAuthTokenCache}: Issuing and consuming session tokens,
+ * their expiration, and revoking a user's tokens.
+ * @since 2.0.00
+ */
+public class TestAuthTokenCache
+{
+    /** A disabled cache doesn't issue tokens. */
+    @Test
+    public void testDisabled()
+    {
+        final SOCAuthTokenCache cache = new SOCAuthTokenCache(0);
+        assertFalse(cache.isEnabled());
+        assertNull(cache.issue("alice"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tokens are random hex strings, are bound to their user (case-insensitive),
+     * and can be consumed only once.
+     */
+    @Test
+    public void testIssueAndConsume()
+    {
+        final SOCAuthTokenCache cache = new SOCAuthTokenCache(60);
+        assertTrue(cache.isEnabled());
+
+        final String tok1 = cache.issue("Alice"), tok2 = cache.issue("Alice");
+        assertNotNull(tok1);
+        assertTrue(tok1, tok1.matches("[0-9a-f]{32}"));
+        assertFalse("unique", tok1.equals(tok2));
+        assertEquals(2, cache.size());
+
+        assertNull("other user", cache.consume("bob", tok1));
+        assertNull(cache.consume(null, tok1));
+        assertNull(cache.consume("alice", null));
+        assertNull(cache.consume("alice", "0123456789abcdef0123456789abcdef"));
+        assertEquals("not consumed by other user", 2, cache.size());
+
+        assertEquals("username as issued", "Alice", cache.consume("ALICE", tok1));
+        assertNull("single-use", cache.consume("Alice", tok1));
+        assertEquals(1, cache.size());
+        assertEquals("Alice", cache.consume("Alice", tok2));
+        assertEquals(0, cache.size());
+    }
+
+    /** An expired token can't be consumed, and is removed when checked. */
+    @Test
+    public void testExpired()
+        throws InterruptedException
+    {
+        final SOCAuthTokenCache cache = new SOCAuthTokenCache(1);
+        final String tok = cache.issue("alice");
+        assertNotNull(tok);
+
+        Thread.sleep(1100);
+        assertNull("expired", cache.consume("alice", tok));
+        assertEquals("removed", 0, cache.size());
+    }
+
+    /** Revoking a user removes all of their tokens (case-insensitive), and no one else's. */
+    @Test
+    public void testRevokeUser()
+    {
+        final SOCAuthTokenCache cache = new SOCAuthTokenCache(60);
+        final String tokA1 = cache.issue("alice"), tokA2 = cache.issue("Alice"), tokB = cache.issue("bob");
+        assertEquals(3, cache.size());
+
+        cache.revokeUser("ALICE");
+        assertEquals(1, cache.size());
+        assertNull(cache.consume("alice", tokA1));
+        assertNull(cache.consume("alice", tokA2));
+        assertEquals("bob", cache.consume("bob", tokB));
+
+        cache.revokeUser("nobody");  // no tokens: no change
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.util.Properties;
+
+import soc.message.SOCChannelTextMsg;
+import soc.message.SOCJoinChannel;
+import soc.message.SOCLeaveChannel;
+import soc.message.SOCMessage;
+import soc.server.SOCChannelList;
+import soc.server.SOCServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for chat channels' recent message history in {@link SOCChannelList}:
+ * Its ring buffer of {@link SOCChannelList#CHANNEL_HISTORY_SIZE} messages, which messages
+ * {@link SOCServer#messageToChannel(String, SOCMessage)} records, and a joining member
+ * being sent the history in order.
+ * @since 2.0.00
+ */
+public class TestChannelHistory
+{
+    private static final int SIZE = SOCChannelList.CHANNEL_HISTORY_SIZE;
+
+    private SOCServer srv;
+
+    @After
+    public void stop()
+    {
+        if (srv != null)
+            srv.stopServer();
+    }
+
+    /** The history keeps the newest {@link #SIZE} messages, oldest first, and wraps around. */
+    @Test
+    public void testRingBuffer()
+    {
+        final SOCChannelList cl = new SOCChannelList();
+        cl.createChannel("ch", "owner");
+        assertEquals(0, cl.getHistory("ch").length);
+
+        for (int i = 0; i < 5; ++i)
+            cl.addHistory("ch", "m" + i);
+        String[] hist = cl.getHistory("ch");
+        assertEquals(5, hist.length);
+        for (int i = 0; i < 5; ++i)
+            assertEquals("m" + i, hist[i]);
+
+        // Fill, then wrap around past the end of the buffer
+        for (int i = 5; i < SIZE + 7; ++i)
+            cl.addHistory("ch", "m" + i);
+        hist = cl.getHistory("ch");
+        assertEquals(SIZE, hist.length);
+        for (int i = 0; i < SIZE; ++i)
+            assertEquals("oldest dropped", "m" + (i + 7), hist[i]);
+
+        // Exactly one full lap
+        for (int i = SIZE + 7; i < 2 * SIZE + 7; ++i)
+            cl.addHistory("ch", "m" + i);
+        hist = cl.getHistory("ch");
+        assertEquals(SIZE, hist.length);
+        assertEquals("m" + (SIZE + 7), hist[0]);
+        assertEquals("m" + (2 * SIZE + 6), hist[SIZE - 1]);
+
+        cl.addHistory("nosuch", "x");  // ignored
+        assertEquals(0, cl.getHistory("nosuch").length);
+        cl.deleteChannel("ch");
+        assertEquals(0, cl.getHistory("ch").length);
+    }
+
+    /**
+     * A channel's text messages, whether from a member or sent by the server, are recorded
+     * but its other messages aren't. A joining member is sent the newest {@link #SIZE} of them
+     * right after the member list, oldest first.
+     */
+    @Test
+    public void testJoinGetsHistory()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        srv = new SOCServer("testchhist", props);
+        srv.setPriority(5);
+        srv.start();
+
+        final StringportClient cliA = new StringportClient("testchhist");
+        cliA.put(SOCJoinChannel.toCmd("alice", "", "localhost", "chat"));
+        assertNotNull(cliA.waitFor(SOCMessage.CHANNELMEMBERS));
+
+        // From a member, through the server's message handling
+        cliA.put(SOCChannelTextMsg.toCmd("chat", "alice", "msg 0"));
+        assertNotNull(cliA.waitFor(SOCMessage.CHANNELTEXTMSG));
+
+        // From the server, with some other messages which aren't recorded
+        for (int i = 1; i < SIZE + 3; ++i)
+        {
+            srv.messageToChannel("chat", new SOCChannelTextMsg("chat", "alice", "msg " + i));
+            if ((i % 5) == 0)
+                srv.messageToChannel("chat", new SOCLeaveChannel("ghost" + i, "-", "chat"));
+        }
+
+        final StringportClient cliB = new StringportClient("testchhist");
+        cliB.put(SOCJoinChannel.toCmd("bob", "", "localhost", "chat"));
+        assertNotNull(cliB.waitFor(SOCMessage.CHANNELMEMBERS));
+        for (int i = 3; i < SIZE + 3; ++i)
+        {
+            final SOCMessage mes = cliB.next();
+            assertTrue("history text: " + mes, mes instanceof SOCChannelTextMsg);
+            assertEquals("chat", ((SOCChannelTextMsg) mes).getChannel());
+            assertEquals("msg " + i, ((SOCChannelTextMsg) mes).getText());
+        }
+        final SOCMessage mes = cliB.next();
+        assertFalse("no more history: " + mes, mes instanceof SOCChannelTextMsg);
+    }
+
+}
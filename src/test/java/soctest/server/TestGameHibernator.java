@@ -0,0 +1,321 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import soc.game.SOCGame;
+import soc.message.SOCDeleteGame;
+import soc.message.SOCJoinGame;
+import soc.message.SOCMessage;
+import soc.message.SOCSitDown;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameHibernator;
+import soc.server.SOCGameListAtServer;
+import soc.server.SOCServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCGameHibernator}: A game's round trip to disk and back,
+ * its robots' seats being vacated when woken, and discarding a hibernated game.
+ * Also tests a server hibernating an idle game, waking it for a member's message,
+ * and expiring it while hibernated ({@link SOCServer#PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES}).
+ * @since 2.0.00
+ */
+public class TestGameHibernator
+{
+    /** Maximum time to wait for a change, in milliseconds */
+    private static final int WAIT_MS = StringportClient.WAIT_MS;
+
+    /** Hibernation directory, from {@link #makeDir()} */
+    private File dir;
+
+    private SOCServer srv;
+
+    @After
+    public void stop()
+    {
+        if (srv != null)
+            srv.stopServer();
+        if (dir == null)
+            return;
+
+        final File[] files = dir.listFiles();
+        if (files != null)
+            for (final File f : files)
+                f.delete();
+        dir.delete();
+    }
+
+    /** Create an empty temporary hibernation directory for this test in {@link #dir}. */
+    private void makeDir()
+        throws Exception
+    {
+        dir = File.createTempFile("testhib", "");
+        assertTrue(dir.delete() && dir.mkdir());
+    }
+
+    /**
+     * Count the hibernated games' files in {@link #dir}.
+     * @return  Number of files ending with {@link SOCGameHibernator#FILE_SUFFIX}
+     */
+    private int countFiles()
+    {
+        int n = 0;
+        final File[] files = dir.listFiles();
+        if (files != null)
+            for (final File f : files)
+                if (f.getName().endsWith(SOCGameHibernator.FILE_SUFFIX))
+                    ++n;
+
+        return n;
+    }
+
+    /**
+     * A hibernator's wake listener which counts down a latch for each game read.
+     */
+    private static class LatchListener implements SOCGameHibernator.WakeListener
+    {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        public void gameRead(final String gaName)
+        {
+            latch.countDown();
+        }
+
+        /** Wait for the next game read. */
+        void await()
+            throws InterruptedException
+        {
+            assertTrue("game read", latch.await(WAIT_MS, TimeUnit.MILLISECONDS));
+            latch = new CountDownLatch(1);
+        }
+    }
+
+    /**
+     * Create a game with a human in seat 0 and a robot in seat 2.
+     * @param gl  Game list to create it in
+     * @param gaName  Game name
+     * @return  The new game
+     */
+    private static SOCGame createGame(final SOCGameListAtServer gl, final String gaName)
+    {
+        final SOCGame ga = gl.createGame(gaName, "human", "en_US", null, new SOCGameHandler(null));
+        ga.addPlayer("human", 0);
+        ga.addPlayer("robot", 2);
+        ga.getPlayer(2).setRobotFlag(true, true);
+
+        return ga;
+    }
+
+    /**
+     * Hibernate a game, then wake it: Its file is written and later deleted, its robot's seat is vacated,
+     * and everyone waiting for the wake gets their runnable back.
+     */
+    @Test
+    public void testRoundTrip()
+        throws Exception
+    {
+        makeDir();
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final LatchListener listener = new LatchListener();
+        final SOCGameHibernator hib = new SOCGameHibernator(dir, gl, null, listener);
+        final SOCGame ga = createGame(gl, "hibGame");
+        final long expiration = ga.getExpiration();
+
+        assertFalse("not hibernated yet", hib.wake("hibGame", null));
+        assertTrue(hib.hibernate(ga));
+        assertFalse("already hibernated", hib.hibernate(ga));
+        assertTrue(hib.isHibernated("hibGame"));
+        assertNull("game data removed", gl.getGameData("hibGame"));
+        assertTrue("name kept", gl.isGame("hibGame"));
+
+        hib.waitForIO();
+        assertEquals("written by I/O thread", 1, countFiles());
+        final List<SOCGameHibernator.Stub> stubs = hib.getStubs();
+        assertEquals(1, stubs.size());
+        assertEquals("hibGame", stubs.get(0).gaName);
+        assertEquals("human", stubs.get(0).owner);
+        assertEquals(expiration, stubs.get(0).expiration);
+
+        final Runnable r1 = new Runnable() { public void run() {} },
+            r2 = new Runnable() { public void run() {} };
+        assertTrue(hib.wake("hibGame", r1));
+        assertTrue("second wake while reading", hib.wake("hibGame", r2));
+        listener.await();
+        assertTrue("hibernated until finished", hib.isHibernated("hibGame"));
+
+        final TreeMap<Integer, String> botSeats = new TreeMap<Integer, String>();
+        final List<Runnable> waiters = new ArrayList<Runnable>();
+        final SOCGame woken = hib.finishWake("hibGame", botSeats, waiters);
+        assertNotNull(woken);
+        assertNotSame(ga, woken);
+        assertSame(woken, gl.getGameData("hibGame"));
+        assertFalse(hib.isHibernated("hibGame"));
+        assertEquals(expiration, woken.getExpiration());
+
+        assertEquals("human", woken.getPlayer(0).getName());
+        assertTrue("robot's seat vacated", woken.isSeatVacant(2));
+        assertEquals(1, botSeats.size());
+        assertEquals("robot", botSeats.get(Integer.valueOf(2)));
+
+        assertEquals(2, waiters.size());
+        assertSame(r1, waiters.get(0));
+        assertSame(r2, waiters.get(1));
+
+        hib.waitForIO();
+        assertEquals("file deleted after wake", 0, countFiles());
+        assertFalse("not hibernated anymore", hib.wake("hibGame", null));
+        assertNull("no longer waking", hib.finishWake("hibGame", null, waiters));
+    }
+
+    /**
+     * Discard a hibernated game: Its file is deleted, and if it's being woken,
+     * it isn't put back into the game list but its waiters are still returned.
+     */
+    @Test
+    public void testDiscard()
+        throws Exception
+    {
+        makeDir();
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final LatchListener listener = new LatchListener();
+        final SOCGameHibernator hib = new SOCGameHibernator(dir, gl, null, listener);
+
+        assertTrue(hib.hibernate(createGame(gl, "game1")));
+        assertTrue(hib.hibernate(createGame(gl, "game2")));
+        hib.waitForIO();
+        assertEquals(2, countFiles());
+
+        assertNotNull(hib.discard("game1"));
+        assertNull("already discarded", hib.discard("game1"));
+        assertFalse(hib.isHibernated("game1"));
+        assertFalse(hib.wake("game1", null));
+        hib.waitForIO();
+        assertEquals(1, countFiles());
+
+        // Discarded while being woken
+        final Runnable r = new Runnable() { public void run() {} };
+        assertTrue(hib.wake("game2", r));
+        listener.await();
+        assertNotNull(hib.discard("game2"));
+
+        final List<Runnable> waiters = new ArrayList<Runnable>();
+        assertNull("not put back", hib.finishWake("game2", null, waiters));
+        assertNull(gl.getGameData("game2"));
+        assertEquals(1, waiters.size());
+        assertSame(r, waiters.get(0));
+
+        hib.waitForIO();
+        assertEquals(0, countFiles());
+        assertTrue(hib.getStubs().isEmpty());
+    }
+
+    /**
+     * Wait until a server has, or doesn't have, a game's data.
+     * @param gaName  Game name
+     * @param hasData  True to wait for the game's data, false to wait for it to be gone
+     * @return  True if the wait succeeded before timing out
+     */
+    private boolean waitForGameData(final String gaName, final boolean hasData)
+        throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        while ((srv.getGame(gaName) != null) != hasData)
+        {
+            if (System.currentTimeMillis() >= until)
+                return false;
+            Thread.sleep(20);
+        }
+
+        return true;
+    }
+
+    /**
+     * Make a game at the server idle and hibernate it.
+     * @param gaName  Game name
+     */
+    private void hibernateAtServer(final String gaName)
+        throws InterruptedException
+    {
+        srv.getGame(gaName).lastActionTime -= 2 * 60 * 1000;
+        srv.checkForExpiredGames(System.currentTimeMillis());
+        assertTrue("hibernated", waitForGameData(gaName, false));
+        assertTrue("name kept", srv.getGameNames().contains(gaName));
+    }
+
+    /**
+     * A server hibernates an idle game, wakes it to handle a member's message,
+     * and expires it while it's hibernated.
+     */
+    @Test
+    public void testServerWakeAndExpire()
+        throws Exception
+    {
+        makeDir();
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        props.setProperty(SOCServer.PROP_JSETTLERS_GAMES_HIBERNATE__MINUTES, "1");
+        props.setProperty(SOCServer.PROP_JSETTLERS_GAMES_HIBERNATE__DIR, dir.getPath());
+        srv = new SOCServer("testhibernate", props);
+        srv.setPriority(5);
+        srv.start();
+
+        final StringportClient cli = new StringportClient("testhibernate");
+        cli.put(SOCJoinGame.toCmd("user1", "", "localhost", "hibGame"));
+        assertNotNull(cli.waitFor(SOCMessage.JOINGAMEAUTH));
+        final long expiration = srv.getGame("hibGame").getExpiration();
+
+        hibernateAtServer("hibGame");
+
+        // Member's message wakes it, then is handled
+        cli.put(SOCSitDown.toCmd("hibGame", "user1", 0, false));
+        final SOCMessage sit = cli.waitFor(SOCMessage.SITDOWN);
+        assertNotNull("woken to sit down", sit);
+        assertEquals("hibGame", ((SOCSitDown) sit).getGame());
+        final SOCGame ga = srv.getGame("hibGame");
+        assertNotNull(ga);
+        assertEquals("user1", ga.getPlayer(0).getName());
+
+        hibernateAtServer("hibGame");
+
+        // Expires while hibernated
+        srv.checkForExpiredGames(expiration + 1);
+        final SOCMessage del = cli.waitFor(SOCMessage.DELETEGAME);
+        assertNotNull("expired game deleted", del);
+        assertEquals("hibGame", ((SOCDeleteGame) del).getGame());
+        assertFalse(srv.getGameNames().contains("hibGame"));
+
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        while ((countFiles() > 0) && (System.currentTimeMillis() < until))
+            Thread.sleep(20);
+        assertEquals("file deleted", 0, countFiles());
+    }
+
+}
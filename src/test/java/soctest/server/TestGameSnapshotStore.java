@@ -0,0 +1,265 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import soc.game.SOCGame;
+import soc.game.SOCPlayer;
+import soc.game.SOCRoad;
+import soc.game.SOCSettlement;
+import soc.message.SOCGameServerText;
+import soc.message.SOCJoinGame;
+import soc.message.SOCMessage;
+import soc.message.SOCSitDown;
+import soc.server.SOCGameHandler;
+import soc.server.SOCGameListAtServer;
+import soc.server.SOCGameSnapshotStore;
+import soc.server.SOCServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCGameSnapshotStore}: A game saved at a turn boundary is reloaded with the same state,
+ * its seats are vacated but remembered, and {@link SOCGameListAtServer#addRestoredGame(SOCGame, soc.server.GameHandler)}
+ * adds it back. Also tests a server restoring the game at startup
+ * ({@link SOCServer#PROP_JSETTLERS_GAMES_SNAPSHOT__DIR}) and letting only its former players sit down again.
+ * @since 2.0.00
+ */
+public class TestGameSnapshotStore
+{
+    /** Snapshot directory, from {@link #makeDir()} */
+    private File dir;
+
+    private SOCServer srv;
+
+    @After
+    public void stop()
+    {
+        if (srv != null)
+            srv.stopServer();
+        if (dir == null)
+            return;
+
+        final File[] files = dir.listFiles();
+        if (files != null)
+            for (final File f : files)
+                f.delete();
+        dir.delete();
+    }
+
+    /** Create an empty temporary snapshot directory for this test in {@link #dir}. */
+    private void makeDir()
+        throws Exception
+    {
+        dir = File.createTempFile("testsnap", "");
+        assertTrue(dir.delete() && dir.mkdir());
+    }
+
+    /**
+     * Create and start a 4-player game, with a robot in seat 3, and play its initial placement
+     * until the first player's turn begins.
+     * @param gl  Game list to create it in
+     * @param gaName  Game name
+     * @return  The game, in state {@link SOCGame#ROLL_OR_CARD}
+     */
+    private static SOCGame playToFirstTurn(final SOCGameListAtServer gl, final String gaName)
+    {
+        final SOCGame ga = gl.createGame(gaName, "p0", "en_US", null, new SOCGameHandler(null));
+        for (int pn = 0; pn < 4; ++pn)
+            ga.addPlayer("p" + pn, pn);
+        ga.getPlayer(3).setRobotFlag(true, true);
+        ga.startGame();
+
+        while (ga.getGameState() < SOCGame.ROLL_OR_CARD)
+        {
+            final SOCPlayer pl = ga.getPlayer(ga.getCurrentPlayerNumber());
+            switch (ga.getGameState())
+            {
+            case SOCGame.START1A:
+            case SOCGame.START2A:
+                ga.putPiece(new SOCSettlement
+                    (pl, new TreeSet<Integer>(pl.getPotentialSettlements()).first(), ga.getBoard()));
+                break;
+
+            case SOCGame.START1B:
+            case SOCGame.START2B:
+                int edge = 0;
+                for (final int e : ga.getBoard().getAdjacentEdgesToNode(pl.getLastSettlementCoord()))
+                    if (pl.isPotentialRoad(e))
+                    {
+                        edge = e;
+                        break;
+                    }
+                assertTrue("road for " + pl.getName(), edge != 0);
+                ga.putPiece(new SOCRoad(pl, edge, ga.getBoard()));
+                break;
+
+            default:
+                fail("unexpected state " + ga.getGameState());
+            }
+        }
+        assertEquals(SOCGame.ROLL_OR_CARD, ga.getGameState());
+
+        return ga;
+    }
+
+    /**
+     * Get a player's settlement and road coordinates, for comparing players in different games.
+     * @param pl  Player
+     * @return  Sorted settlement coordinates, then sorted road coordinates
+     */
+    private static String pieceCoords(final SOCPlayer pl)
+    {
+        final TreeSet<Integer> settles = new TreeSet<Integer>(), roads = new TreeSet<Integer>();
+        for (final SOCSettlement s : pl.getSettlements())
+            settles.add(Integer.valueOf(s.getCoordinates()));
+        for (final SOCRoad r : pl.getRoads())
+            roads.add(Integer.valueOf(r.getCoordinates()));
+
+        return settles + " " + roads;
+    }
+
+    /**
+     * Save a game at a turn boundary, reload it, and compare its state.
+     * Its seats are vacated but remembered for their former players and robots,
+     * and the game list adds it back once.
+     */
+    @Test
+    public void testSaveAndLoad()
+        throws Exception
+    {
+        makeDir();
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final SOCGame ga = playToFirstTurn(gl, "snapGame");
+
+        final SOCGameSnapshotStore store = new SOCGameSnapshotStore(dir, gl);
+        store.saveLater(ga);
+        store.shutdown(null);  // waits for the write
+        assertEquals(1, dir.listFiles().length);
+        assertTrue(dir.listFiles()[0].getName().endsWith(SOCGameSnapshotStore.FILE_SUFFIX));
+
+        final SOCGameListAtServer gl2 = new SOCGameListAtServer();
+        final SOCGameSnapshotStore store2 = new SOCGameSnapshotStore(dir, gl2);
+        final List<SOCGame> loaded = store2.loadAll();
+        assertEquals(1, loaded.size());
+        final SOCGame ga2 = loaded.get(0);
+        assertNotSame(ga, ga2);
+
+        assertEquals("snapGame", ga2.getName());
+        assertEquals(ga.getGameState(), ga2.getGameState());
+        assertEquals(ga.getCurrentPlayerNumber(), ga2.getCurrentPlayerNumber());
+        assertEquals(ga.getFirstPlayer(), ga2.getFirstPlayer());
+        assertArrayEquals(ga.getBoard().getHexLayout(), ga2.getBoard().getHexLayout());
+        assertArrayEquals(ga.getBoard().getNumberLayout(), ga2.getBoard().getNumberLayout());
+        assertEquals(ga.getBoard().getRobberHex(), ga2.getBoard().getRobberHex());
+        assertArrayEquals(ga.getDevCardDeckRemaining(), ga2.getDevCardDeckRemaining());
+        for (int pn = 0; pn < 4; ++pn)
+        {
+            final SOCPlayer pl = ga.getPlayer(pn), pl2 = ga2.getPlayer(pn);
+            assertEquals("pieces of " + pn, pieceCoords(pl), pieceCoords(pl2));
+            assertEquals("resources of " + pn, pl.getResources().toString(), pl2.getResources().toString());
+            assertEquals("VP of " + pn, pl.getTotalVP(), pl2.getTotalVP());
+            assertTrue("seat vacated: " + pn, ga2.isSeatVacant(pn));
+        }
+
+        // Former players can sit again, nobody else
+        assertTrue(store2.isRestoredSeatFor("snapGame", 0, "p0"));
+        assertTrue(store2.isRestoredSeatFor("snapGame", 2, "p2"));
+        assertFalse(store2.isRestoredSeatFor("snapGame", 1, "p0"));
+        assertFalse(store2.isRestoredSeatFor("snapGame", 1, null));
+        assertFalse(store2.isRestoredSeatFor("otherGame", 0, "p0"));
+        assertTrue(Arrays.equals(new int[]{3}, store2.takeRestoredRobotSeats("snapGame")));
+        assertNull("robots asked only once", store2.takeRestoredRobotSeats("snapGame"));
+
+        // Game list
+        final SOCGameHandler handler = new SOCGameHandler(null);
+        final long now = System.currentTimeMillis();
+        assertTrue(gl2.addRestoredGame(ga2, handler));
+        assertFalse("already added", gl2.addRestoredGame(ga2, handler));
+        assertTrue(gl2.isGame("snapGame"));
+        assertSame(ga2, gl2.getGameData("snapGame"));
+        assertSame(handler, gl2.getGameTypeHandler("snapGame"));
+        assertTrue("no members", gl2.getMembers("snapGame").isEmpty());
+        assertTrue("expiration reset", ga2.getExpiration() >= now + (60 * 1000 * SOCGameListAtServer.GAME_TIME_EXPIRE_MINUTES));
+
+        // Deleting forgets the seats
+        store2.delete("snapGame");
+        assertFalse(store2.isRestoredSeatFor("snapGame", 0, "p0"));
+        store2.shutdown(null);
+        assertEquals("file deleted", 0, dir.listFiles().length);
+    }
+
+    /**
+     * A server restores a saved game at startup. A former player can sit at their seat again
+     * although the game has started; another client can't sit at a vacant seat.
+     */
+    @Test
+    public void testServerRestoreSitDown()
+        throws Exception
+    {
+        makeDir();
+        final SOCGameListAtServer gl = new SOCGameListAtServer();
+        final SOCGame ga = playToFirstTurn(gl, "snapGame");
+        final SOCGameSnapshotStore store = new SOCGameSnapshotStore(dir, gl);
+        store.saveLater(ga);
+        store.shutdown(null);
+
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        props.setProperty(SOCServer.PROP_JSETTLERS_GAMES_SNAPSHOT__DIR, dir.getPath());
+        srv = new SOCServer("testsnapshot", props);
+        srv.setPriority(5);
+        srv.start();
+
+        final SOCGame restored = srv.getGame("snapGame");
+        assertNotNull("restored at startup", restored);
+        assertEquals(SOCGame.ROLL_OR_CARD, restored.getGameState());
+        assertEquals(ga.getCurrentPlayerNumber(), restored.getCurrentPlayerNumber());
+        assertTrue(restored.isSeatVacant(0));
+
+        // Former player sits again
+        final StringportClient cli = new StringportClient("testsnapshot");
+        cli.put(SOCJoinGame.toCmd("p0", "", "localhost", "snapGame"));
+        assertNotNull(cli.waitFor(SOCMessage.JOINGAMEAUTH));
+        cli.put(SOCSitDown.toCmd("snapGame", "p0", 0, false));
+        final SOCMessage sit = cli.waitFor(SOCMessage.SITDOWN);
+        assertNotNull("former player sat down", sit);
+        assertEquals(0, ((SOCSitDown) sit).getPlayerNumber());
+        assertEquals("p0", restored.getPlayer(0).getName());
+
+        // Someone else can't take a vacant seat in the started game
+        final StringportClient cli2 = new StringportClient("testsnapshot");
+        cli2.put(SOCJoinGame.toCmd("newcomer", "", "localhost", "snapGame"));
+        assertNotNull(cli2.waitFor(SOCMessage.JOINGAMEAUTH));
+        cli2.put(SOCSitDown.toCmd("snapGame", "newcomer", 1, false));
+        final SOCMessage text = cli2.waitFor(SOCMessage.GAMESERVERTEXT);
+        assertNotNull("refused", text);
+        assertTrue(((SOCGameServerText) text).getText(), ((SOCGameServerText) text).getText().contains("started"));
+        assertTrue(restored.isSeatVacant(1));
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import soc.game.SOCGameOption;
+import soc.game.SOCScenario;
+import soc.server.SOCClientData;
+import soc.server.SOCInfoBundleCache;
+import soc.server.genericServer.StringConnection;
+import soc.util.Version;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCInfoBundleCache}: Keys, cache hits, invalidation when
+ * known options or scenarios change, the size limit, and sending a bundle.
+ * @since 2.0.00
+ */
+public class TestInfoBundleCache
+{
+    private static final List<String> CMDS = Arrays.asList("1081|a", "1081|b", "1081|c");
+
+    private static SOCInfoBundleCache.Bundle newBundle()
+    {
+        return new SOCInfoBundleCache.Bundle(SOCInfoBundleCache.currentGeneration(), CMDS);
+    }
+
+    /** Client versions at or above the server's share a key; older versions, locales and types don't. */
+    @Test
+    public void testKey()
+    {
+        final int sv = Version.versionNumber();
+        final char O = SOCInfoBundleCache.TYPE_GAMEOPT;
+        assertEquals(SOCInfoBundleCache.key(O, sv, "en_US"), SOCInfoBundleCache.key(O, sv + 100, "en_US"));
+        assertFalse(SOCInfoBundleCache.key(O, sv, "en_US").equals(SOCInfoBundleCache.key(O, sv - 1, "en_US")));
+        assertFalse(SOCInfoBundleCache.key(O, sv, "en_US").equals(SOCInfoBundleCache.key(O, sv, "es")));
+        assertFalse(SOCInfoBundleCache.key(O, sv, "en_US").equals(SOCInfoBundleCache.key(O, sv, null)));
+        assertFalse(SOCInfoBundleCache.key(O, sv, null).equals
+            (SOCInfoBundleCache.key(SOCInfoBundleCache.TYPE_SCENARIO, sv, null)));
+    }
+
+    /** A bundle which was put is returned until known options or scenarios change. */
+    @Test
+    public void testHitAndInvalidate()
+    {
+        final SOCInfoBundleCache cache = new SOCInfoBundleCache();
+        final String key = SOCInfoBundleCache.key(SOCInfoBundleCache.TYPE_GAMEOPT, 2000, "en_US"),
+            key2 = SOCInfoBundleCache.key(SOCInfoBundleCache.TYPE_GAMEOPT, 2000, null);
+        assertNull(cache.get(key));
+
+        final SOCInfoBundleCache.Bundle b = newBundle();
+        cache.put(key, b);
+        assertSame(b, cache.get(key));
+        assertSame(b, cache.get(key));
+        assertNull(cache.get(key2));
+
+        // Re-adding a known option changes the generation
+        cache.put(key2, newBundle());
+        SOCGameOption.addKnownOption(SOCGameOption.getOption("PL", true));
+        assertNull(cache.get(key));
+        assertNull("all bundles dropped", cache.get(key2));
+
+        // and so does re-adding a known scenario
+        final SOCInfoBundleCache.Bundle b2 = newBundle();
+        cache.put(key, b2);
+        assertSame(b2, cache.get(key));
+        SOCScenario.addKnownScenario(SOCScenario.getScenario(SOCScenario.K_SC_4ISL));
+        assertNull(cache.get(key));
+    }
+
+    /** When the cache is full, new keys aren't kept but existing keys can be replaced. */
+    @Test
+    public void testSizeLimit()
+    {
+        final SOCInfoBundleCache cache = new SOCInfoBundleCache();
+        final char O = SOCInfoBundleCache.TYPE_GAMEOPT;
+        int vers = 1000;
+        while (true)
+        {
+            final String key = SOCInfoBundleCache.key(O, vers, null);
+            final SOCInfoBundleCache.Bundle b = newBundle();
+            cache.put(key, b);
+            if (cache.get(key) == null)
+                break;
+            ++vers;
+            assertTrue("cache should have a size limit", vers < 2000);
+        }
+        assertTrue(vers > 1010);
+
+        final String key = SOCInfoBundleCache.key(O, 1000, null);
+        final SOCInfoBundleCache.Bundle b = newBundle();
+        cache.put(key, b);
+        assertSame(b, cache.get(key));
+    }
+
+    /** Sending a bundle puts each message in order; updating client data copies the scenario fields. */
+    @Test
+    public void testSendAndClientData()
+        throws Exception
+    {
+        final SOCClientData built = new SOCClientData();
+        built.checkedLocaleScenStrings = true;
+        built.localeHasScenStrings = true;
+        built.scenariosInfoSent = new HashMap<String, String>();
+        built.scenariosInfoSent.put(SOCScenario.K_SC_4ISL, "");
+        final SOCInfoBundleCache.Bundle b = new SOCInfoBundleCache.Bundle
+            (SOCInfoBundleCache.currentGeneration(), CMDS, built);
+        built.scenariosInfoSent.put(SOCScenario.K_SC_FOG, "");  // not in bundle
+
+        final StringConnection srvSide = new StringConnection();
+        final StringConnection cliSide = new StringConnection(srvSide);
+        srvSide.setAccepted();
+        cliSide.setAccepted();
+        b.send(srvSide);
+        for (final String cmd : CMDS)
+            assertEquals(cmd, cliSide.readNext());
+        assertFalse(cliSide.isInputAvailable());
+
+        final SOCClientData scd = new SOCClientData();
+        b.updateClientData(scd);
+        assertTrue(scd.checkedLocaleScenStrings);
+        assertTrue(scd.localeHasScenStrings);
+        assertEquals(1, scd.scenariosInfoSent.size());
+        assertTrue(scd.scenariosInfoSent.containsKey(SOCScenario.K_SC_4ISL));
+        scd.scenariosInfoSent.clear();
+        final SOCClientData scd2 = new SOCClientData();
+        b.updateClientData(scd2);
+        assertEquals("bundle keeps its own copy", 1, scd2.scenariosInfoSent.size());
+    }
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.net.ServerSocket;
+import java.util.Properties;
+
+import soc.message.SOCJoinGame;
+import soc.message.SOCJoinGameAuth;
+import soc.message.SOCLeaveGame;
+import soc.message.SOCLobbyAuth;
+import soc.message.SOCMessage;
+import soc.message.SOCNewGame;
+import soc.message.SOCStatusMessage;
+import soc.server.SOCClientData;
+import soc.server.SOCServer;
+import soc.server.genericServer.Connection;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for a lobby server and its game servers ({@link SOCServer#PROP_JSETTLERS_CLUSTER_GAMESERVERS}):
+ * Lobby authentication at a game server, and routing a lobby client's game to a game server
+ * through a proxy. The game server listens on TCP, since the lobby's link and proxies use TCP;
+ * the lobby and test clients use local stringports.
+ * @since 2.0.00
+ */
+public class TestLobbyRouter
+{
+    private static final String SECRET = "testsecret";
+
+    /** Maximum time to wait for a change, in milliseconds */
+    private static final int WAIT_MS = StringportClient.WAIT_MS;
+
+    private SOCServer gameSrv, lobby;
+
+    /** {@link SOCServer#CLIENT_MAX_CREATE_GAMES} before the test, since it's static */
+    private final int maxCreateGames = SOCServer.CLIENT_MAX_CREATE_GAMES;
+
+    @After
+    public void stop()
+    {
+        if (lobby != null)
+            lobby.stopServer();
+        if (gameSrv != null)
+            gameSrv.stopServer();
+        SOCServer.CLIENT_MAX_CREATE_GAMES = maxCreateGames;
+    }
+
+    /**
+     * Wait for a connection with this name at a server.
+     * @param srv  Server
+     * @param name  Connection name
+     * @return  The connection, or {@code null} if timed out
+     */
+    private static Connection waitForConnection(final SOCServer srv, final String name)
+        throws InterruptedException
+    {
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        Connection c;
+        while (null == (c = srv.getConnection(name)))
+        {
+            if (System.currentTimeMillis() >= until)
+                break;
+            Thread.sleep(20);
+        }
+
+        return c;
+    }
+
+    /**
+     * Start a game server on a free TCP port, and a lobby on a local stringport linked to it.
+     * @param lobbyStringport  Lobby's stringport
+     * @param lobbyProps  Any other properties for the lobby, or {@code null}
+     */
+    private void startCluster(final String lobbyStringport, final Properties lobbyProps)
+        throws Exception
+    {
+        final ServerSocket ss = new ServerSocket(0);
+        final int port = ss.getLocalPort();
+        ss.close();
+
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_SECRET, SECRET);
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        gameSrv = new SOCServer(port, props);
+        gameSrv.setPriority(5);
+        gameSrv.start();
+
+        final Properties lprops = (lobbyProps != null) ? lobbyProps : new Properties();
+        lprops.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_SECRET, SECRET);
+        lprops.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_GAMESERVERS, "localhost:" + port);
+        lprops.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        lobby = new SOCServer(lobbyStringport, lprops);
+        lobby.setPriority(5);
+        lobby.start();
+
+        assertNotNull("lobby linked to game server", waitForConnection(gameSrv, SOCServer.LOBBY_LINK_NAME));
+    }
+
+    /**
+     * Get a lobby client's count of created games.
+     * @param name  Client's nickname
+     * @return  {@link SOCClientData#getCurrentCreatedGames()}
+     */
+    private int getCreatedGames(final String name)
+    {
+        return ((SOCClientData) lobby.getConnection(name).getAppData()).getCurrentCreatedGames();
+    }
+
+    /**
+     * A game server accepts only a lobby with the right secret, and only one link;
+     * a proxy with the secret is named for its user without a password.
+     */
+    @Test
+    public void testLobbyAuth()
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_CLUSTER_SECRET, SECRET);
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        gameSrv = new SOCServer("testlobbyauth", props);
+        gameSrv.setPriority(5);
+        gameSrv.start();
+
+        final StringportClient wrong = new StringportClient("testlobbyauth");
+        wrong.put(SOCLobbyAuth.toCmd(SECRET + "x", null));
+        assertTrue("wrong secret rejected", wrong.waitForReject());
+        assertNull(gameSrv.getConnection(SOCServer.LOBBY_LINK_NAME));
+
+        final StringportClient shorter = new StringportClient("testlobbyauth");
+        shorter.put(SOCLobbyAuth.toCmd(SECRET.substring(1), "user1"));
+        assertTrue("wrong secret rejected", shorter.waitForReject());
+        assertNull(gameSrv.getConnection("user1"));
+
+        final StringportClient link = new StringportClient("testlobbyauth");
+        link.put(SOCLobbyAuth.toCmd(SECRET, null));
+        assertNotNull("link named", waitForConnection(gameSrv, SOCServer.LOBBY_LINK_NAME));
+
+        final StringportClient link2 = new StringportClient("testlobbyauth");
+        link2.put(SOCLobbyAuth.toCmd(SECRET, null));
+        assertTrue("only one link", link2.waitForReject());
+        assertTrue("first link still connected", gameSrv.getConnection(SOCServer.LOBBY_LINK_NAME).isConnected());
+
+        final StringportClient proxy = new StringportClient("testlobbyauth");
+        proxy.put(SOCLobbyAuth.toCmd(SECRET, "user1"));
+        assertNotNull("proxy named for its user", waitForConnection(gameSrv, "user1"));
+    }
+
+    /**
+     * A lobby client's new game is created at the game server, the game server's replies
+     * are relayed through the client's proxy, and the game counts as created by the client
+     * until it's deleted at the game server.
+     */
+    @Test
+    public void testRoutedGame()
+        throws Exception
+    {
+        startCluster("testlobbyroute", null);
+
+        final StringportClient cli = new StringportClient("testlobbyroute");
+        cli.put(SOCJoinGame.toCmd("user1", "", "localhost", "routedGame"));
+
+        final SOCMessage ng = cli.waitFor(SOCMessage.NEWGAME);  // created without game options
+        assertNotNull("lobby announced routed game", ng);
+        assertEquals("routedGame", ((SOCNewGame) ng).getGame());
+        final SOCMessage auth = cli.waitFor(SOCMessage.JOINGAMEAUTH);
+        assertNotNull("game server's reply relayed by proxy", auth);
+        assertEquals("routedGame", ((SOCJoinGameAuth) auth).getGame());
+
+        assertNotNull("hosted at game server", gameSrv.getGame("routedGame"));
+        assertNull("not hosted at lobby", lobby.getGame("routedGame"));
+        assertNotNull(gameSrv.getConnection("user1"));
+        assertEquals(1, getCreatedGames("user1"));
+
+        // Leave: game server deletes the empty game, tells the lobby through its link
+        cli.put(SOCLeaveGame.toCmd("user1", "localhost", "routedGame"));
+        assertNotNull("game deleted", cli.waitFor(SOCMessage.DELETEGAME));
+        assertNull(gameSrv.getGame("routedGame"));
+        assertEquals(0, getCreatedGames("user1"));
+    }
+
+    /** Games routed to a game server count against {@link SOCServer#CLIENT_MAX_CREATE_GAMES} at the lobby. */
+    @Test
+    public void testRoutedCreateLimit()
+        throws Exception
+    {
+        final Properties lprops = new Properties();
+        lprops.setProperty(SOCServer.PROP_JSETTLERS_CLI_MAXCREATEGAMES, "1");
+        startCluster("testlobbylimit", lprops);
+
+        final StringportClient cli = new StringportClient("testlobbylimit");
+        cli.put(SOCJoinGame.toCmd("user1", "", "localhost", "routed1"));
+        assertNotNull(cli.waitFor(SOCMessage.JOINGAMEAUTH));
+        assertEquals(1, getCreatedGames("user1"));
+
+        cli.put(SOCJoinGame.toCmd("user1", "", "localhost", "routed2"));
+        assertNotNull("too many created", cli.waitForStatus(SOCStatusMessage.SV_NEWGAME_TOO_MANY_CREATED));
+        assertNull(gameSrv.getGame("routed2"));
+
+        // Joining an existing routed game isn't a create
+        final StringportClient cli2 = new StringportClient("testlobbylimit");
+        cli2.put(SOCJoinGame.toCmd("user2", "", "localhost", "routed1"));
+        assertNotNull("user2 joined", cli2.waitFor(SOCMessage.JOINGAMEAUTH));
+        assertEquals(0, getCreatedGames("user2"));
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import soc.server.SOCClientData;
+import soc.server.SOCServer;
+import soc.server.genericServer.Connection;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for starting local robots at server startup ({@link SOCServer#PROP_JSETTLERS_STARTROBOTS}).
+ * Starts more robots than connect at once, so the rest are started by another thread
+ * as the first ones connect.
+ * @since 2.0.00
+ */
+public class TestLocalRobots
+{
+    /** More robots than the server connects at once (16) */
+    private static final int NUM_ROBOTS = 24;
+
+    /** Maximum time to wait for all robots to connect, in milliseconds */
+    private static final int WAIT_MS = 30000;
+
+    private SOCServer srv;
+
+    @After
+    public void stop()
+    {
+        if (srv != null)
+            srv.stopServer();
+    }
+
+    /**
+     * Start robots and wait for all of them to connect.
+     * @param stringport  Server's stringport
+     * @param multiplex  True to use {@link SOCServer#PROP_JSETTLERS_BOTS_MULTIPLEX}
+     */
+    private void startAndWait(final String stringport, final boolean multiplex)
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, Integer.toString(NUM_ROBOTS));
+        if (multiplex)
+            props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_MULTIPLEX, "Y");
+        srv = new SOCServer(stringport, props);
+        srv.setPriority(5);
+        srv.start();
+
+        final long until = System.currentTimeMillis() + WAIT_MS;
+        while ((srv.getRobotCount() < NUM_ROBOTS) && (System.currentTimeMillis() < until))
+            Thread.sleep(50);
+        assertEquals("all robots connected", NUM_ROBOTS, srv.getRobotCount());
+
+        // 30% fast, the rest smart; no MCTS unless configured
+        final int numFast = (int) (0.30f * NUM_ROBOTS);
+        final List<String> rnames = new ArrayList<String>();
+        for (int i = 1; i <= NUM_ROBOTS; ++i)
+            rnames.add(((i <= numFast) ? "droid " : "robot ") + i);
+        for (final String rname : rnames)
+        {
+            final Connection c = srv.getConnection(rname);
+            assertNotNull("connected: " + rname, c);
+            assertTrue(rname, ((SOCClientData) c.getAppData()).isRobot);
+        }
+    }
+
+    /** Each robot has its own connection; the ones past the first 16 are started as earlier ones connect. */
+    @Test
+    public void testConcurrentStart()
+        throws Exception
+    {
+        startAndWait("testlocalrobots", false);
+    }
+
+    /** Robots share one multiplexed connection. */
+    @Test
+    public void testMultiplexedStart()
+        throws Exception
+    {
+        startAndWait("testlocalrobotsmux", true);
+    }
+
+}
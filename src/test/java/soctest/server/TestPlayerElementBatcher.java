@@ -0,0 +1,242 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.util.Properties;
+
+import soc.message.SOCGameServerText;
+import soc.message.SOCGameState;
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCJoinGame;
+import soc.message.SOCMessage;
+import soc.message.SOCPlayerElement;
+import soc.message.SOCPlayerElements;
+import soc.message.SOCSitDown;
+import soc.server.SOCPlayerElementBatcher;
+import soc.server.SOCServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SOCPlayerElementBatcher}: Which player elements are merged into runs,
+ * the order the runs are sent in, and that they're sent before the next other message to the game.
+ * Clients 2.0.00 and newer get a {@link SOCPlayerElements} for each run of 2 or more,
+ * older clients get the individual {@link SOCPlayerElement}s.
+ * @since 2.0.00
+ */
+public class TestPlayerElementBatcher
+{
+    /** Version of the older client, which is sent individual elements: 1.1.18 */
+    private static final int OLD_VERSION = 1118;
+
+    private static final String GAME = "batchGame";
+
+    private SOCServer srv;
+
+    /** Current-version client, named {@code "debug"} */
+    private StringportClient cli;
+
+    /** Older client, from {@link #OLD_VERSION} */
+    private StringportClient oldCli;
+
+    @After
+    public void stop()
+    {
+        if (srv != null)
+            srv.stopServer();
+    }
+
+    /**
+     * Start a server with debug commands, and have {@link #cli} and {@link #oldCli} join {@link #GAME}.
+     * Afterwards neither client has any messages waiting.
+     * @param stringport  Server's stringport
+     */
+    private void startAndJoin(final String stringport)
+        throws Exception
+    {
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "0");
+        props.setProperty(SOCServer.PROP_JSETTLERS_ALLOW_DEBUG, "Y");
+        srv = new SOCServer(stringport, props);
+        srv.setPriority(5);
+        srv.start();
+
+        cli = new StringportClient(stringport);
+        cli.put(SOCJoinGame.toCmd("debug", "", "localhost", GAME));
+        assertNotNull(cli.waitFor(SOCMessage.GAMESTATE));  // last of the game info sent when joining
+
+        oldCli = new StringportClient(stringport, OLD_VERSION);
+        oldCli.put(SOCJoinGame.toCmd("oldcli", "", "localhost", GAME));
+        assertNotNull(oldCli.waitFor(SOCMessage.GAMESTATE));
+        drain();
+    }
+
+    /** Discard any messages waiting at {@link #cli} and {@link #oldCli}, such as each one's {@link SOCJoinGame}. */
+    private void drain()
+        throws InterruptedException
+    {
+        while (cli.next(100) != null)
+            ;
+        while (oldCli.next(100) != null)
+            ;
+    }
+
+    /**
+     * Check that a client's next message is this player element.
+     * @param c  Client
+     * @param pn  Expected player number
+     * @param action  Expected action, such as {@link SOCPlayerElement#GAIN}
+     * @param etype  Expected element type
+     * @param value  Expected value
+     */
+    private static void assertNextElement
+        (final StringportClient c, final int pn, final int action, final int etype, final int value)
+        throws InterruptedException
+    {
+        final SOCMessage mes = c.next();
+        assertTrue("expected PLAYERELEMENT: " + mes, mes instanceof SOCPlayerElement);
+        final SOCPlayerElement pe = (SOCPlayerElement) mes;
+        assertEquals(GAME, pe.getGame());
+        assertEquals(pn, pe.getPlayerNumber());
+        assertEquals(action, pe.getAction());
+        assertEquals(etype, pe.getElementType());
+        assertEquals(value, pe.getValue());
+    }
+
+    /**
+     * Check that a client's next message is this run of player elements.
+     * @param c  Client
+     * @param pn  Expected player number
+     * @param action  Expected action, such as {@link SOCPlayerElement#GAIN}
+     * @param etypes  Expected element types
+     * @param values  Expected values
+     */
+    private static void assertNextElements
+        (final StringportClient c, final int pn, final int action, final int[] etypes, final int[] values)
+        throws InterruptedException
+    {
+        final SOCMessage mes = c.next();
+        assertTrue("expected PLAYERELEMENTS: " + mes, mes instanceof SOCPlayerElements);
+        final SOCPlayerElements pe = (SOCPlayerElements) mes;
+        assertEquals(GAME, pe.getGame());
+        assertEquals(pn, pe.getPlayerNumber());
+        assertEquals(action, pe.getAction());
+        assertArrayEquals(etypes, pe.getElementTypes());
+        assertArrayEquals(values, pe.getValues());
+    }
+
+    /**
+     * Which elements are batched, how each player's runs are merged and closed,
+     * and the order they're sent to current and older clients.
+     */
+    @Test
+    public void testMergeAndOrder()
+        throws Exception
+    {
+        startAndJoin("testbatcher");
+        final SOCPlayerElementBatcher b = new SOCPlayerElementBatcher(srv);
+        final SOCPlayerElement gainClay = new SOCPlayerElement(GAME, 0, SOCPlayerElement.GAIN, SOCPlayerElement.CLAY, 1);
+        assertFalse("not batching before begin", b.add(GAME, gainClay));
+
+        b.begin();
+        assertTrue(b.add(GAME, gainClay));
+        assertTrue(b.add(GAME, new SOCPlayerElement(GAME, 1, SOCPlayerElement.LOSE, SOCPlayerElement.ORE, 2)));
+        assertTrue("joins player 0's run", b.add
+            (GAME, new SOCPlayerElement(GAME, 0, SOCPlayerElement.GAIN, SOCPlayerElement.WHEAT, 3)));
+        assertTrue("new run for new action", b.add
+            (GAME, new SOCPlayerElement(GAME, 0, SOCPlayerElement.SET, SOCPlayerElement.NUMKNIGHTS, 1)));
+        assertTrue("new run after other action", b.add
+            (GAME, new SOCPlayerElement(GAME, 0, SOCPlayerElement.GAIN, SOCPlayerElement.SHEEP, 1)));
+
+        assertFalse("all players", b.add(GAME, new SOCPlayerElement(GAME, -1, SOCPlayerElement.SET, SOCPlayerElement.CLAY, 0)));
+        assertFalse("news", b.add(GAME, new SOCPlayerElement(GAME, 0, SOCPlayerElement.GAIN, SOCPlayerElement.ORE, 1, true)));
+        assertFalse("not an element", b.add(GAME, new SOCGameState(GAME, 20)));
+        final boolean[] otherThreadAdded = new boolean[1];
+        final Thread t = new Thread()
+        {
+            public void run()
+            {
+                otherThreadAdded[0] = b.add(GAME, gainClay);
+            }
+        };
+        t.start();
+        t.join();
+        assertFalse("only the thread which called begin", otherThreadAdded[0]);
+
+        assertNull("nothing sent until flush", cli.next(100));
+        b.end();
+        srv.messageToGame(GAME, new SOCGameTextMsg(GAME, "tester", "marker"));
+
+        assertNextElements
+            (cli, 0, SOCPlayerElement.GAIN, new int[]{SOCPlayerElement.CLAY, SOCPlayerElement.WHEAT}, new int[]{1, 3});
+        assertNextElement(cli, 1, SOCPlayerElement.LOSE, SOCPlayerElement.ORE, 2);
+        assertNextElement(cli, 0, SOCPlayerElement.SET, SOCPlayerElement.NUMKNIGHTS, 1);
+        assertNextElement(cli, 0, SOCPlayerElement.GAIN, SOCPlayerElement.SHEEP, 1);
+        assertEquals("then the next message", SOCMessage.GAMETEXTMSG, cli.next().getType());
+
+        assertNextElement(oldCli, 0, SOCPlayerElement.GAIN, SOCPlayerElement.CLAY, 1);
+        assertNextElement(oldCli, 0, SOCPlayerElement.GAIN, SOCPlayerElement.WHEAT, 3);
+        assertNextElement(oldCli, 1, SOCPlayerElement.LOSE, SOCPlayerElement.ORE, 2);
+        assertNextElement(oldCli, 0, SOCPlayerElement.SET, SOCPlayerElement.NUMKNIGHTS, 1);
+        assertNextElement(oldCli, 0, SOCPlayerElement.GAIN, SOCPlayerElement.SHEEP, 1);
+        assertEquals("then the next message", SOCMessage.GAMETEXTMSG, oldCli.next().getType());
+
+        // Adding for another game first sends this game's pending elements
+        b.begin();
+        assertTrue(b.add(GAME, gainClay));
+        assertTrue(b.add("otherGame", new SOCPlayerElement("otherGame", 0, SOCPlayerElement.GAIN, SOCPlayerElement.ORE, 1)));
+        assertNextElement(cli, 0, SOCPlayerElement.GAIN, SOCPlayerElement.CLAY, 1);
+        b.end();
+        assertNull("other game's element not sent to this game", cli.next(100));
+    }
+
+    /**
+     * While the server dispatches a debug command which gives resources, its elements for each resource
+     * are sent as one run, before the game text sent after them.
+     */
+    @Test
+    public void testDispatchOrder()
+        throws Exception
+    {
+        startAndJoin("testbatcherdispatch");
+        cli.put(SOCSitDown.toCmd(GAME, "debug", 0, false));
+        assertNotNull(cli.waitFor(SOCMessage.SITDOWN));
+        assertNotNull(oldCli.waitFor(SOCMessage.SITDOWN));
+        drain();
+
+        cli.put(SOCGameTextMsg.toCmd(GAME, "debug", "rsrcs: 1 2 0 3 4 #0"));
+
+        final int[] etypes = {SOCPlayerElement.CLAY, SOCPlayerElement.ORE, SOCPlayerElement.SHEEP,
+            SOCPlayerElement.WHEAT, SOCPlayerElement.WOOD};
+        final int[] values = {1, 2, 0, 3, 4};
+        assertNextElements(cli, 0, SOCPlayerElement.GAIN, etypes, values);
+        SOCMessage mes = cli.next();
+        assertTrue("then text: " + mes, mes instanceof SOCGameServerText);
+        assertTrue(((SOCGameServerText) mes).getText(), ((SOCGameServerText) mes).getText().contains("debug gets"));
+
+        for (int i = 0; i < etypes.length; ++i)
+            assertNextElement(oldCli, 0, SOCPlayerElement.GAIN, etypes[i], values[i]);
+        mes = oldCli.next();
+        assertTrue("then text: " + mes, mes instanceof SOCGameTextMsg);
+    }
+
+}
@@ -0,0 +1,262 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import soc.game.SOCGame;
+import soc.server.SOCReplayEngine;
+import soc.server.SOCServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for game replay logs ({@link SOCServer#PROP_JSETTLERS_GAMES_REPLAY__DIR}) and {@link SOCReplayEngine}:
+ * A server's robots play part of a robot-only game with a replay log, then the log is replayed
+ * headlessly and must produce the same dev card deck, dice rolls and final game state.
+ * A log which has been changed must be reported as mismatched.
+ * @since 2.0.00
+ */
+public class TestReplay
+{
+    /** Maximum time to wait for the robots to roll the dice and for the game's log to end, in milliseconds */
+    private static final int GAME_WAIT_MS = 60000;
+
+    /** Replay log directory */
+    private File dir;
+
+    private SOCServer srv;
+
+    private SOCReplayEngine eng;
+
+    @After
+    public void stop()
+    {
+        if (eng != null)
+            eng.shutdown();
+        if (srv != null)
+            srv.stopServer();
+        if (dir == null)
+            return;
+
+        final File[] files = dir.listFiles();
+        if (files != null)
+            for (final File f : files)
+                f.delete();
+        dir.delete();
+    }
+
+    /**
+     * Read a log file's lines.
+     * @param f  Log file
+     * @return  The lines, without line endings
+     */
+    private static List<String> readLines(final File f)
+        throws IOException
+    {
+        final List<String> lines = new ArrayList<String>();
+        final BufferedReader rd = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"));
+        try
+        {
+            String line;
+            while ((line = rd.readLine()) != null)
+                lines.add(line);
+        } finally {
+            rd.close();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Write lines to a log file.
+     * @param f  Log file to write
+     * @param lines  Lines to write, each followed by a line ending
+     */
+    private static void writeLines(final File f, final List<String> lines)
+        throws IOException
+    {
+        final Writer w = new OutputStreamWriter(new FileOutputStream(f), "UTF-8");
+        try
+        {
+            for (final String line : lines)
+                w.write(line + '\n');
+        } finally {
+            w.close();
+        }
+    }
+
+    /**
+     * Count the dice rolls in a log.
+     * @param lines  Log file lines
+     * @return  Number of {@code D} records
+     */
+    private static int countDice(final List<String> lines)
+    {
+        int n = 0;
+        for (final String line : lines)
+            if (line.startsWith("D\t"))
+                ++n;
+
+        return n;
+    }
+
+    /**
+     * Have a server's robots play a robot-only game with a replay log. After they've rolled
+     * the dice, destroy the game, and wait for its log to end. Robots can take a while to finish
+     * some turns, so the test doesn't wait for more rolls or for the game to be over.
+     * @return  The ended game's log file
+     */
+    private File playLoggedGame()
+        throws Exception
+    {
+        dir = File.createTempFile("testreplay", "");
+        assertTrue(dir.delete() && dir.mkdir());
+
+        final Properties props = new Properties();
+        props.setProperty(SOCServer.PROP_JSETTLERS_STARTROBOTS, "6");
+        props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_BOTGAMES_TOTAL, "1");
+        props.setProperty(SOCServer.PROP_JSETTLERS_BOTS_FAST__PAUSE__PERCENT, "0");
+        props.setProperty(SOCServer.PROP_JSETTLERS_GAMES_REPLAY__DIR, dir.getPath());
+        srv = new SOCServer("testreplay", props);
+        srv.setPriority(5);
+        srv.start();
+
+        // Records are buffered until a turn boundary or the game's destroyed, when the log ends with an E record
+        boolean destroying = false;
+        final long until = System.currentTimeMillis() + GAME_WAIT_MS;
+        while (System.currentTimeMillis() < until)
+        {
+            Thread.sleep(100);
+            if (destroying)
+            {
+                final File[] files = dir.listFiles();
+                if ((files != null) && (files.length > 0))
+                {
+                    final List<String> lines = readLines(files[0]);
+                    if ((! lines.isEmpty()) && lines.get(lines.size() - 1).startsWith("E\t"))
+                        return files[0];
+                }
+
+                continue;
+            }
+
+            final Iterator<String> names = srv.getGameNames().iterator();
+            if (! names.hasNext())
+                continue;
+            final String gaName = names.next();
+            final SOCGame ga = srv.getGame(gaName);
+            if ((ga != null) && (ga.getCurrentDice() > 0))
+            {
+                // Destroy it in the server's message treater thread, between two of the robots' logged messages
+                destroying = true;
+                srv.inQueue.post(new Runnable()
+                {
+                    public void run()
+                    {
+                        srv.destroyGameAndBroadcast(gaName, "testReplay");
+                    }
+                });
+            }
+        }
+
+        fail("robot-only game didn't roll the dice and end");
+        return null;
+    }
+
+    /**
+     * Replay a robot-only game's log: Same deck, dice and final state; then change a dice roll
+     * and the dev card deck in the log, and check that replaying reports the mismatches.
+     */
+    @Test
+    public void testReplayRobotGame()
+        throws Exception
+    {
+        final File f = playLoggedGame();
+        srv.stopServer();
+        srv = null;
+
+        final List<String> lines = readLines(f);
+        final int nDice = countDice(lines);
+        int iDice = -1, iDeck = -1;
+        for (int i = 0; i < lines.size(); ++i)
+        {
+            final String line = lines.get(i);
+            if (line.startsWith("D\t") && (iDice == -1))
+                iDice = i;
+            else if (line.startsWith("C\t"))
+                iDeck = i;
+        }
+        assertTrue("dice were rolled", nDice > 0);
+        assertTrue("dev card deck logged", iDeck > 0);
+        final String[] end = lines.get(lines.size() - 1).split("\t");
+        final int loggedState = Integer.parseInt(end[1]);
+        assertTrue("final state logged", loggedState >= SOCGame.ROLL_OR_CARD);
+
+        eng = new SOCReplayEngine();
+        final SOCReplayEngine.Result res = eng.replay(f);
+        assertEquals("mismatches: " + res, 0, res.mismatches);
+        assertEquals("all dice, deck and final state checked", nDice + 2, res.checks);
+        assertEquals(loggedState, res.finalState);
+
+        // Change the first dice roll: 1 + 1 to 6 + 6, or anything else to 1 + 1
+        final String[] dice = lines.get(iDice).split("\t");
+        lines.set(iDice, (dice[1].equals("1") && dice[2].equals("1")) ? "D\t6\t6" : "D\t1\t1");
+        // Swap the top dev card with one of another type, if any
+        final String[] deck = lines.get(iDeck).substring(2).split(",");
+        for (int i = 1; i < deck.length; ++i)
+        {
+            if (! deck[i].equals(deck[0]))
+            {
+                final String top = deck[0];
+                deck[0] = deck[i];
+                deck[i] = top;
+                break;
+            }
+        }
+        final StringBuilder sb = new StringBuilder("C\t");
+        for (int i = 0; i < deck.length; ++i)
+        {
+            if (i > 0)
+                sb.append(',');
+            sb.append(deck[i]);
+        }
+        lines.set(iDeck, sb.toString());
+        final File changed = new File(dir, "changed.replay");
+        writeLines(changed, lines);
+
+        final SOCReplayEngine.Result res2 = eng.replay(changed);
+        assertTrue("changed log mismatches", res2.mismatches >= 2);
+    }
+
+}
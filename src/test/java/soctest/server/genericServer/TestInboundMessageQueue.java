@@ -0,0 +1,182 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server.genericServer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCMessage;
+import soc.message.SOCMessageForGame;
+import soc.message.SOCRollDice;
+import soc.server.genericServer.Connection;
+import soc.server.genericServer.InboundMessageQueue;
+import soc.server.genericServer.Server;
+import soc.server.genericServer.StringConnection;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link InboundMessageQueue}'s priorities and size limit:
+ * Game actions are dispatched before other messages but each client's stay in order,
+ * and when the queue is full chat is dropped and other messages wait for room.
+ *<P>
+ * Each test message's game name is a label, recorded with its client's name when dispatched.
+ * @since 2.0.00
+ */
+public class TestInboundMessageQueue
+{
+    /** Dispatcher which records each message it's given; while blocked, waits until {@link #release()} */
+    private static class RecordingDispatcher implements Server.InboundMessageDispatcher
+    {
+        private final List<String> dispatched = new ArrayList<String>();
+        private boolean blocked;
+
+        public RecordingDispatcher(final boolean blocked)
+        {
+            this.blocked = blocked;
+        }
+
+        public synchronized void dispatch(final SOCMessage mes, final Connection con)
+        {
+            while (blocked)
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException e) {}
+
+            dispatched.add(con.getData() + ":" + ((SOCMessageForGame) mes).getGame());
+            notifyAll();
+        }
+
+        public synchronized void release()
+        {
+            blocked = false;
+            notifyAll();
+        }
+
+        /** Wait until at least {@code n} messages have been dispatched, or 5 seconds */
+        public synchronized List<String> waitFor(final int n)
+        {
+            final long until = System.currentTimeMillis() + 5000;
+            while ((dispatched.size() < n) && (System.currentTimeMillis() < until))
+                try
+                {
+                    wait(100);
+                }
+                catch (InterruptedException e) {}
+
+            return new ArrayList<String>(dispatched);
+        }
+    }
+
+    private InboundMessageQueue imq;
+
+    @After
+    public void stopQueue()
+    {
+        if (imq != null)
+            imq.stopMessageProcessing();
+    }
+
+    private static StringConnection newClient(final String name)
+    {
+        final StringConnection c = new StringConnection();
+        c.setData(name);
+        return c;
+    }
+
+    /** A game action message labeled {@code label} */
+    private static SOCMessage game(final String label)
+    {
+        return new SOCRollDice(label);
+    }
+
+    /** A chat message labeled {@code label} */
+    private static SOCMessage chat(final String label)
+    {
+        return new SOCGameTextMsg(label, "p", "hi");
+    }
+
+    /**
+     * Game actions are dispatched before chat, except that a client's game action
+     * which follows its own queued chat waits behind that chat.
+     */
+    @Test
+    public void testPriorityAndClientOrder()
+    {
+        final RecordingDispatcher disp = new RecordingDispatcher(false);
+        imq = new InboundMessageQueue(disp);
+        final StringConnection a = newClient("a"), b = newClient("b");
+
+        imq.push(chat("1"), a);
+        imq.push(game("2"), a);
+        imq.push(chat("3"), b);
+        imq.push(game("4"), b);
+        final StringConnection c = newClient("c");
+        imq.push(game("5"), c);
+        imq.push(chat("6"), c);
+        imq.push(game("7"), c);
+
+        imq.startMessageProcessing();
+        assertEquals(Arrays.asList("c:5", "a:1", "a:2", "b:3", "b:4", "c:6", "c:7"), disp.waitFor(7));
+    }
+
+    /** When the queue is full, chat is dropped and game actions wait for room, then are dispatched in order. */
+    @Test
+    public void testFullQueue()
+        throws InterruptedException
+    {
+        final RecordingDispatcher disp = new RecordingDispatcher(true);
+        imq = new InboundMessageQueue(disp);
+        imq.setFloodLimits(null, 2);
+        imq.startMessageProcessing();
+        final StringConnection a = newClient("a");
+
+        imq.push(game("1"), a);  // treater takes this one, then waits in dispatch
+        Thread.sleep(100);
+        imq.push(game("2"), a);
+        imq.push(game("3"), a);
+        imq.push(chat("4"), a);  // queue full: dropped
+        assertTrue(imq.getStatsText(), imq.getStatsText().contains("chat dropped 1"));
+
+        final Thread reader = new Thread()
+        {
+            public void run()
+            {
+                imq.push(game("5"), a);
+            }
+        };
+        reader.start();
+        reader.join(300);
+        assertTrue("push should wait for room", reader.isAlive());
+
+        disp.release();
+        reader.join(5000);
+        assertFalse(reader.isAlive());
+        assertEquals(Arrays.asList("a:1", "a:2", "a:3", "a:5"), disp.waitFor(4));
+        assertTrue(imq.getStatsText(), imq.getStatsText().contains("delayed 1"));
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server.genericServer;
+
+import soc.message.SOCBotMux;
+import soc.message.SOCGameOptionGetInfos;
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCImARobot;
+import soc.message.SOCMessage;
+import soc.message.SOCPutPiece;
+import soc.message.SOCRollDice;
+import soc.server.genericServer.InboundRateLimiter;
+import soc.server.genericServer.StringConnection;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link InboundRateLimiter}: Message categories and each connection's token buckets.
+ * @since 2.0.00
+ */
+public class TestInboundRateLimiter
+{
+    /** A connection which isn't exempt from rate limits, like a remote client's */
+    private static StringConnection newClient()
+    {
+        final StringConnection c = new StringConnection();
+        c.setRateLimitExempt(false);
+        return c;
+    }
+
+    /** Game actions, chat, and queries; robot host messages have their inner message's category. */
+    @Test
+    public void testCategories()
+    {
+        final SOCGameTextMsg chat = new SOCGameTextMsg("ga", "p", "hi");
+        final SOCRollDice roll = new SOCRollDice("ga");
+        final SOCImARobot imaRobot = new SOCImARobot("bot", "cookie", SOCImARobot.RBCLASS_BUILTIN);
+
+        assertEquals(InboundRateLimiter.CATEGORY_CHAT, InboundRateLimiter.getCategory(chat));
+        assertEquals(InboundRateLimiter.CATEGORY_GAME, InboundRateLimiter.getCategory(roll));
+        assertEquals(InboundRateLimiter.CATEGORY_GAME, InboundRateLimiter.getCategory(new SOCPutPiece("ga", 1, 0, 0x45)));
+        assertEquals(InboundRateLimiter.CATEGORY_QUERY, InboundRateLimiter.getCategory(imaRobot));
+        assertEquals(InboundRateLimiter.CATEGORY_QUERY,
+            InboundRateLimiter.getCategory(new SOCGameOptionGetInfos(null, false)));
+
+        assertEquals(InboundRateLimiter.CATEGORY_CHAT, InboundRateLimiter.getCategory(new SOCBotMux(3, chat, null)));
+        assertEquals(InboundRateLimiter.CATEGORY_GAME, InboundRateLimiter.getCategory(new SOCBotMux(3, roll, null)));
+        assertEquals(InboundRateLimiter.CATEGORY_QUERY,
+            InboundRateLimiter.getCategory(new SOCBotMux(3, imaRobot, null)));
+        assertEquals(InboundRateLimiter.CATEGORY_QUERY, InboundRateLimiter.getCategory(new SOCBotMux(3, null, null)));
+
+        // as received from a robot host, with the inner message as text
+        final SOCBotMux parsed = (SOCBotMux) SOCMessage.toMsg(new SOCBotMux(3, roll, null).toCmd());
+        assertEquals(InboundRateLimiter.CATEGORY_GAME, InboundRateLimiter.getCategory(parsed));
+    }
+
+    /** A full chat bucket allows a burst, then drops chat; other categories have their own buckets. */
+    @Test
+    public void testChatBucket()
+    {
+        final InboundRateLimiter lim = new InboundRateLimiter(2, 0, 0);
+        final StringConnection c = newClient(), c2 = newClient();
+        final int burst = 2 * InboundRateLimiter.BURST_SECONDS;
+
+        for (int i = 0; i < burst; ++i)
+            assertTrue("message " + i, lim.acquire(c, InboundRateLimiter.CATEGORY_CHAT));
+        assertFalse(lim.acquire(c, InboundRateLimiter.CATEGORY_CHAT));
+        assertFalse(lim.acquire(c, InboundRateLimiter.CATEGORY_CHAT));
+
+        // no limit for game or queries; other connections have their own buckets
+        for (int i = 0; i < 100; ++i)
+            assertTrue(lim.acquire(c, InboundRateLimiter.CATEGORY_GAME));
+        assertTrue(lim.acquire(c, InboundRateLimiter.CATEGORY_QUERY));
+        assertTrue(lim.acquire(c2, InboundRateLimiter.CATEGORY_CHAT));
+
+        assertTrue(lim.getStatsText(), lim.getStatsText().contains("chat dropped: 2"));
+    }
+
+    /** Exempt connections, such as local robots, aren't limited. */
+    @Test
+    public void testExempt()
+    {
+        final InboundRateLimiter lim = new InboundRateLimiter(1, 1, 1);
+        final StringConnection c = new StringConnection();
+        assertTrue(c.isRateLimitExempt());
+        for (int i = 0; i < 50; ++i)
+            assertTrue(lim.acquire(c, InboundRateLimiter.CATEGORY_CHAT));
+        assertTrue(lim.getStatsText().contains("chat dropped: 0"));
+    }
+
+    /** When a game action bucket is empty, the message waits until a token would have refilled. */
+    @Test
+    public void testGameDelay()
+    {
+        final int rate = 20;
+        final InboundRateLimiter lim = new InboundRateLimiter(0, rate, 0);
+        final StringConnection c = newClient();
+        for (int i = 0; i < rate * InboundRateLimiter.BURST_SECONDS; ++i)
+            assertTrue(lim.acquire(c, InboundRateLimiter.CATEGORY_GAME));
+
+        final long t0 = System.nanoTime();
+        assertTrue(lim.acquire(c, InboundRateLimiter.CATEGORY_GAME));
+        final long elapsedMS = (System.nanoTime() - t0) / 1000000L;
+        assertTrue("waited " + elapsedMS + " ms", elapsedMS >= (1000 / rate) / 2);
+        assertTrue(lim.getStatsText(), lim.getStatsText().contains("delayed: game 1,"));
+    }
+
+}
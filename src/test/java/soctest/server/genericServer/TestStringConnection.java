@@ -0,0 +1,180 @@
+/**
+ * Java Settlers - An online multiplayer version of the game Settlers of Catan
+ * This file Copyright (C) 2018 Jeremy D Monin <jeremy@nand.net>
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The maintainer of this program can be reached at jsettlers@nand.net
+ **/
+package soctest.server.genericServer;
+
+import java.io.EOFException;
+import java.util.concurrent.CountDownLatch;
+
+import soc.message.SOCChannelTextMsg;
+import soc.message.SOCGameTextMsg;
+import soc.message.SOCImmutableMessage;
+import soc.message.SOCLongestRoad;
+import soc.message.SOCMessage;
+import soc.message.SOCMessageForGame;
+import soc.server.genericServer.StringConnection;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StringConnection}'s lock-free message queue between local peers:
+ * {@link SOCImmutableMessage}s are passed as the same object, other messages as text,
+ * and each writer thread's messages arrive in the order it sent them.
+ * @since 2.0.00
+ */
+public class TestStringConnection
+{
+    /** Number of writer threads in {@link #testProducersFIFO()} */
+    private static final int PRODUCERS = 4;
+
+    /** Number of messages sent by each writer in {@link #testProducersFIFO()} */
+    private static final int PER_PRODUCER = 5000;
+
+    /**
+     * Make a connected, accepted pair of local connections.
+     * @return  Both ends: [0] is the client, [1] its server-side peer
+     */
+    private static StringConnection[] connectPair()
+        throws EOFException
+    {
+        final StringConnection cli = new StringConnection(), peer = new StringConnection(cli);
+        cli.setAccepted();
+        peer.setAccepted();
+
+        return new StringConnection[]{cli, peer};
+    }
+
+    /**
+     * An immutable message arrives as the same object, in either direction;
+     * other messages and strings arrive as text, parsed by {@link StringConnection#readNextMessage()}.
+     */
+    @Test
+    public void testImmutableMessageObject()
+        throws EOFException
+    {
+        final StringConnection[] pair = connectPair();
+        final StringConnection cli = pair[0], peer = pair[1];
+
+        final SOCLongestRoad lr = new SOCLongestRoad("ga", 2);
+        assertTrue(lr instanceof SOCImmutableMessage);
+        peer.put(lr, null);
+        assertSame(lr, cli.readNextMessage());
+        cli.put(lr, lr.toCmd());
+        assertSame("other direction", lr, peer.readNextMessage());
+
+        // Not immutable: sent as text
+        final SOCChannelTextMsg txt = new SOCChannelTextMsg("ch", "nn", "hello");
+        assertFalse(txt instanceof SOCImmutableMessage);
+        peer.put(txt, null);
+        final SOCMessage got = cli.readNextMessage();
+        assertNotSame(txt, got);
+        assertEquals(txt.toCmd(), got.toCmd());
+
+        // String and readNext() of an object
+        peer.put(lr.toCmd());
+        final SOCMessage parsed = cli.readNextMessage();
+        assertTrue(parsed instanceof SOCLongestRoad);
+        assertEquals(2, ((SOCLongestRoad) parsed).getPlayerNumber());
+        peer.put(lr, null);
+        assertEquals(lr.toCmd(), cli.readNext());
+        assertFalse(cli.isInputAvailable());
+    }
+
+    /**
+     * Several threads write to one connection at once, each alternating strings and immutable messages,
+     * while the peer reads: Every message arrives, and each thread's messages stay in order.
+     */
+    @Test
+    public void testProducersFIFO()
+        throws Exception
+    {
+        final StringConnection[] pair = connectPair();
+        final StringConnection cli = pair[0], peer = pair[1];
+
+        final CountDownLatch startGate = new CountDownLatch(1);
+        final Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; ++p)
+        {
+            final String label = "p" + p;
+            producers[p] = new Thread("producer-" + p)
+            {
+                public void run()
+                {
+                    try
+                    {
+                        startGate.await();
+                    }
+                    catch (InterruptedException e) {}
+
+                    for (int seq = 0; seq < PER_PRODUCER; ++seq)
+                        if ((seq % 2) == 0)
+                            peer.put(SOCGameTextMsg.toCmd(label, "nn", Integer.toString(seq)));
+                        else
+                            peer.put(new SOCLongestRoad(label, seq), null);
+                }
+            };
+            producers[p].start();
+        }
+
+        // Reader starts waiting before anything is sent, to also test waking it
+        final int[] nextSeq = new int[PRODUCERS];
+        final String[] failure = new String[1];
+        final Thread reader = new Thread("reader")
+        {
+            public void run()
+            {
+                try
+                {
+                    for (int n = 0; n < PRODUCERS * PER_PRODUCER; ++n)
+                    {
+                        final SOCMessage mes = cli.readNextMessage();
+                        final int p = Integer.parseInt(((SOCMessageForGame) mes).getGame().substring(1));
+                        final int seq = (mes instanceof SOCLongestRoad)
+                            ? ((SOCLongestRoad) mes).getPlayerNumber()
+                            : Integer.parseInt(((SOCGameTextMsg) mes).getText());
+                        if (seq != nextSeq[p])
+                        {
+                            failure[0] = "producer " + p + ": expected " + nextSeq[p] + ", got " + seq;
+                            return;
+                        }
+                        ++nextSeq[p];
+                    }
+                }
+                catch (EOFException e)
+                {
+                    failure[0] = "EOF before all messages read";
+                }
+            }
+        };
+        reader.start();
+        startGate.countDown();
+
+        for (final Thread t : producers)
+            t.join();
+        peer.setEOF();  // if any were lost, reader gets EOF instead of waiting forever
+        reader.join(30000);
+
+        assertFalse("reader finished", reader.isAlive());
+        assertNull(failure[0], failure[0]);
+        for (int p = 0; p < PRODUCERS; ++p)
+            assertEquals("all from producer " + p, PER_PRODUCER, nextSeq[p]);
+    }
+
+}